@@ -93,6 +93,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long cairoGroupByPresizeMaxHeapSize;
     private final long cairoGroupByPresizeMaxSize;
     private final int cairoGroupByShardingThreshold;
+    private final long cairoGroupBySpillMemoryBudget;
+    private final int cairoGroupBySpillPartitionCount;
     private final int cairoMaxCrashFiles;
     private final int cairoPageFrameReduceColumnListCapacity;
     private final int cairoPageFrameReduceQueueCapacity;
@@ -230,6 +232,10 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean o3QuickSortEnabled;
     private final int parallelIndexThreshold;
     private final boolean parallelIndexingEnabled;
+    private final long partitionRetentionJobInterval;
+    private final int partitionRetentionMaxPartitionsPerRun;
+    private final boolean partitionStatsEnabled;
+    private final int partitionZoneMapBlockRows;
     private final boolean pgEnabled;
     private final PGWireConfiguration pgWireConfiguration = new PropPGWireConfiguration();
     private final String posthogApiKey;
@@ -289,12 +295,17 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlGroupByPoolCapacity;
     private final int sqlHashJoinLightValueMaxPages;
     private final int sqlHashJoinLightValuePageSize;
+    private final boolean sqlHashJoinKeyFilterEnabled;
+    private final int sqlHashJoinSpillPartitionCount;
+    private final long sqlHashJoinSpillThreshold;
+    private final boolean sqlHashJoinSymbolKeysEnabled;
     private final int sqlHashJoinValueMaxPages;
     private final int sqlHashJoinValuePageSize;
     private final long sqlInsertModelBatchSize;
     private final int sqlInsertModelPoolCapacity;
     private final int sqlJitBindVarsMemoryMaxPages;
     private final int sqlJitBindVarsMemoryPageSize;
+    private final boolean sqlAsOfJoinKeyedFastEnabled;
     private final boolean sqlJitDebugEnabled;
     private final int sqlJitIRMemoryMaxPages;
     private final int sqlJitIRMemoryPageSize;
@@ -303,6 +314,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlJoinContextPoolCapacity;
     private final int sqlJoinMetadataMaxResizes;
     private final int sqlJoinMetadataPageSize;
+    private final boolean sqlLatestByCacheEnabled;
     private final long sqlLatestByRowCount;
     private final int sqlLexerPoolCapacity;
     private final int sqlMapMaxPages;
@@ -312,9 +324,14 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlModelPoolCapacity;
     private final int sqlPageFrameMaxRows;
     private final int sqlPageFrameMinRows;
+    private final boolean sqlParallelAsOfJoinEnabled;
     private final boolean sqlParallelFilterEnabled;
     private final boolean sqlParallelFilterPreTouchEnabled;
     private final boolean sqlParallelGroupByEnabled;
+    private final boolean sqlParallelHashJoinEnabled;
+    private final boolean sqlParallelSortEnabled;
+    private final boolean sqlParallelTopKEnabled;
+    private final boolean sqlParallelWindowEnabled;
     private final int sqlQueryRegistryPoolSize;
     private final int sqlRenameTableModelPoolCapacity;
     private final boolean sqlSampleByDefaultAlignment;
@@ -325,8 +342,10 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long sqlSortKeyPageSize;
     private final int sqlSortLightValueMaxPages;
     private final long sqlSortLightValuePageSize;
+    private final long sqlSortSpillMemoryBudget;
     private final int sqlSortValueMaxPages;
     private final int sqlSortValuePageSize;
+    private final String sqlSpillRoot;
     private final int sqlStrFunctionBufferMaxSize;
     private final int sqlTxnScoreboardEntryCount;
     private final int sqlUnorderedMapMaxEntrySize;
@@ -958,12 +977,17 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlSortKeyMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_KEY_MAX_PAGES, Integer.MAX_VALUE);
             this.sqlSortLightValuePageSize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_SORT_LIGHT_VALUE_PAGE_SIZE, 8 * 1048576);
             this.sqlSortLightValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_LIGHT_VALUE_MAX_PAGES, Integer.MAX_VALUE);
+            this.sqlSortSpillMemoryBudget = getLongSize(properties, env, PropertyKey.CAIRO_SQL_SORT_SPILL_MEMORY_BUDGET, 0);
             this.sqlHashJoinValuePageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_VALUE_PAGE_SIZE, 16777216);
             this.sqlHashJoinValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_VALUE_MAX_PAGES, Integer.MAX_VALUE);
             this.sqlLatestByRowCount = getInt(properties, env, PropertyKey.CAIRO_SQL_LATEST_BY_ROW_COUNT, 1000);
+            this.sqlLatestByCacheEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_LATEST_BY_CACHE_ENABLED, false);
             this.sqlHashJoinLightValuePageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_LIGHT_VALUE_PAGE_SIZE, 1048576);
             this.sqlHashJoinLightValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_LIGHT_VALUE_MAX_PAGES, Integer.MAX_VALUE);
+            this.sqlHashJoinSymbolKeysEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_SYMBOL_KEYS_ENABLED, false);
+            this.sqlHashJoinKeyFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_KEY_FILTER_ENABLED, false);
             this.sqlAsOfJoinLookahead = getInt(properties, env, PropertyKey.CAIRO_SQL_ASOF_JOIN_LOOKAHEAD, 100);
+            this.sqlAsOfJoinKeyedFastEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_ASOF_JOIN_KEYED_FAST_ENABLED, false);
             this.sqlSortValuePageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_VALUE_PAGE_SIZE, 16777216);
             this.sqlSortValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_VALUE_MAX_PAGES, Integer.MAX_VALUE);
             this.workStealTimeoutNanos = getLong(properties, env, PropertyKey.CAIRO_WORK_STEAL_TIMEOUT_NANOS, 10_000);
@@ -1134,6 +1158,10 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.cairoMaxCrashFiles = getInt(properties, env, PropertyKey.CAIRO_MAX_CRASH_FILES, 100);
             this.o3LastPartitionMaxSplits = Math.max(1, getInt(properties, env, PropertyKey.CAIRO_O3_LAST_PARTITION_MAX_SPLITS, 20));
             this.o3PartitionSplitMinSize = getLongSize(properties, env, PropertyKey.CAIRO_O3_PARTITION_SPLIT_MIN_SIZE, 50 * Numbers.SIZE_1MB);
+            this.partitionRetentionJobInterval = getLong(properties, env, PropertyKey.CAIRO_PARTITION_RETENTION_JOB_INTERVAL, 60_000);
+            this.partitionRetentionMaxPartitionsPerRun = Math.max(1, getInt(properties, env, PropertyKey.CAIRO_PARTITION_RETENTION_MAX_PARTITIONS_PER_RUN, 4));
+            this.partitionStatsEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARTITION_STATS_ENABLED, false);
+            this.partitionZoneMapBlockRows = Math.max(0, getInt(properties, env, PropertyKey.CAIRO_PARTITION_ZONE_MAP_BLOCK_ROWS, 0));
 
             parseBindTo(properties, env, PropertyKey.LINE_UDP_BIND_TO, "0.0.0.0:9009", (a, p) -> {
                 this.lineUdpBindIPV4Address = a;
@@ -1283,6 +1311,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.cairoGroupByPresizeEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_PRESIZE_ENABLED, true);
             this.cairoGroupByPresizeMaxSize = getLong(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_PRESIZE_MAX_SIZE, 100_000_000);
             this.cairoGroupByPresizeMaxHeapSize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_PRESIZE_MAX_HEAP_SIZE, Numbers.SIZE_1GB);
+            this.cairoGroupBySpillMemoryBudget = getLongSize(properties, env, PropertyKey.CAIRO_SQL_GROUPBY_SPILL_MEMORY_BUDGET, 0);
+            this.cairoGroupBySpillPartitionCount = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SQL_GROUPBY_SPILL_PARTITION_COUNT, 16));
+            this.sqlHashJoinSpillThreshold = getLongSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_SPILL_THRESHOLD, 0);
+            this.sqlHashJoinSpillPartitionCount = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_SPILL_PARTITION_COUNT, 16));
+            this.sqlSpillRoot = getString(properties, env, PropertyKey.CAIRO_SQL_SPILL_ROOT, tmpRoot);
             this.cairoPageFrameReduceRowIdListCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_ROWID_LIST_CAPACITY, 256));
             this.cairoPageFrameReduceColumnListCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_COLUMN_LIST_CAPACITY, 16));
             final int defaultReduceShardCount = Math.min(sharedWorkerCount, 4);
@@ -1293,6 +1326,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             boolean defaultParallelSqlEnabled = sharedWorkerCount >= 4;
             this.sqlParallelFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_ENABLED, defaultParallelSqlEnabled);
             this.sqlParallelGroupByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ENABLED, defaultParallelSqlEnabled);
+            this.sqlParallelHashJoinEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, false);
+            this.sqlParallelSortEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_SORT_ENABLED, false);
+            this.sqlParallelTopKEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_TOP_K_ENABLED, false);
+            this.sqlParallelAsOfJoinEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_ASOF_JOIN_ENABLED, false);
+            this.sqlParallelWindowEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, false);
             this.metricsEnabled = getBoolean(properties, env, PropertyKey.METRICS_ENABLED, false);
             this.writerAsyncCommandBusyWaitTimeout = getLong(properties, env, PropertyKey.CAIRO_WRITER_ALTER_BUSY_WAIT_TIMEOUT, 500);
             this.writerAsyncCommandMaxWaitTimeout = getLong(properties, env, PropertyKey.CAIRO_WRITER_ALTER_MAX_WAIT_TIMEOUT, 30_000);
@@ -2230,6 +2268,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return cairoGroupByShardingThreshold;
         }
 
+        @Override
+        public long getGroupBySpillMemoryBudget() {
+            return cairoGroupBySpillMemoryBudget;
+        }
+
+        @Override
+        public int getGroupBySpillPartitionCount() {
+            return cairoGroupBySpillPartitionCount;
+        }
+
         @Override
         public long getIdleCheckInterval() {
             return idleCheckInterval;
@@ -2415,6 +2463,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return o3PartitionPurgeListCapacity;
         }
 
+        @Override
+        public long getPartitionRetentionJobInterval() {
+            return partitionRetentionJobInterval;
+        }
+
+        @Override
+        public int getPartitionRetentionMaxPartitionsPerRun() {
+            return partitionRetentionMaxPartitionsPerRun;
+        }
+
+        @Override
+        public int getPartitionZoneMapBlockRows() {
+            return partitionZoneMapBlockRows;
+        }
+
         @Override
         public int getQueryRegistryPoolSize() {
             return sqlQueryRegistryPoolSize;
@@ -2570,6 +2633,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlHashJoinLightValuePageSize;
         }
 
+        @Override
+        public int getSqlHashJoinSpillPartitionCount() {
+            return sqlHashJoinSpillPartitionCount;
+        }
+
+        @Override
+        public long getSqlHashJoinSpillThreshold() {
+            return sqlHashJoinSpillThreshold;
+        }
+
         @Override
         public int getSqlHashJoinValueMaxPages() {
             return sqlHashJoinValueMaxPages;
@@ -2695,6 +2768,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlSortLightValuePageSize;
         }
 
+        @Override
+        public long getSqlSortSpillMemoryBudget() {
+            return sqlSortSpillMemoryBudget;
+        }
+
         @Override
         public int getSqlSortValueMaxPages() {
             return sqlSortValueMaxPages;
@@ -2705,6 +2783,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlSortValuePageSize;
         }
 
+        @Override
+        public CharSequence getSqlSpillRoot() {
+            return sqlSpillRoot;
+        }
+
         @Override
         public int getSqlUnorderedMapMaxEntrySize() {
             return sqlUnorderedMapMaxEntrySize;
@@ -2969,6 +3052,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return parallelIndexingEnabled;
         }
 
+        @Override
+        public boolean isPartitionStatsEnabled() {
+            return partitionStatsEnabled;
+        }
+
         @Override
         public boolean isReadOnlyInstance() {
             return isReadOnlyInstance;
@@ -2979,11 +3067,36 @@ public class PropServerConfiguration implements ServerConfiguration {
             return snapshotRecoveryEnabled;
         }
 
+        @Override
+        public boolean isSqlAsOfJoinKeyedFastEnabled() {
+            return sqlAsOfJoinKeyedFastEnabled;
+        }
+
+        @Override
+        public boolean isSqlHashJoinKeyFilterEnabled() {
+            return sqlHashJoinKeyFilterEnabled;
+        }
+
+        @Override
+        public boolean isSqlHashJoinSymbolKeysEnabled() {
+            return sqlHashJoinSymbolKeysEnabled;
+        }
+
         @Override
         public boolean isSqlJitDebugEnabled() {
             return sqlJitDebugEnabled;
         }
 
+        @Override
+        public boolean isSqlLatestByCacheEnabled() {
+            return sqlLatestByCacheEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelAsOfJoinEnabled() {
+            return sqlParallelAsOfJoinEnabled;
+        }
+
         @Override
         public boolean isSqlParallelFilterEnabled() {
             return sqlParallelFilterEnabled;
@@ -2999,6 +3112,26 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlParallelGroupByEnabled;
         }
 
+        @Override
+        public boolean isSqlParallelHashJoinEnabled() {
+            return sqlParallelHashJoinEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelSortEnabled() {
+            return sqlParallelSortEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelTopKEnabled() {
+            return sqlParallelTopKEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelWindowEnabled() {
+            return sqlParallelWindowEnabled;
+        }
+
         @Override
         public boolean isTableTypeConversionEnabled() {
             return tableTypeConversionEnabled;
@@ -27,6 +27,8 @@ package io.questdb;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.CairoException;
+import io.questdb.cairo.mv.MatViewRefreshJob;
+import io.questdb.cairo.retention.PartitionRetentionJob;
 import io.questdb.cairo.security.ReadOnlySecurityContextFactory;
 import io.questdb.cairo.security.SecurityContextFactory;
 import io.questdb.cairo.wal.ApplyWal2TableJob;
@@ -326,6 +328,18 @@ public class ServerMain implements Closeable {
                             if (walApplyEnabled && !config.getWalApplyPoolConfiguration().isEnabled()) {
                                 setupWalApplyJob(sharedPool, engine, sharedPool.getWorkerCount());
                             }
+
+                            if (walApplyEnabled) {
+                                final MatViewRefreshJob matViewRefreshJob = new MatViewRefreshJob(engine);
+                                sharedPool.assign(matViewRefreshJob);
+                                sharedPool.freeOnExit(matViewRefreshJob);
+                            }
+                        }
+
+                        if (cairoConfig.getPartitionRetentionJobInterval() > 0) {
+                            final PartitionRetentionJob partitionRetentionJob = new PartitionRetentionJob(engine);
+                            sharedPool.assign(partitionRetentionJob);
+                            sharedPool.freeOnExit(partitionRetentionJob);
                         }
 
                         // text import
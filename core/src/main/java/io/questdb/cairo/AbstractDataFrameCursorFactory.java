@@ -28,13 +28,16 @@ import io.questdb.cairo.sql.DataFrameCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Misc;
 import io.questdb.std.str.CharSink;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public abstract class AbstractDataFrameCursorFactory implements DataFrameCursorFactory {
     private final GenericRecordMetadata metadata;
     private final long metadataVersion;
     private final TableToken tableToken;
+    protected PartitionPruner partitionPruner;
 
     public AbstractDataFrameCursorFactory(TableToken tableToken, long metadataVersion, GenericRecordMetadata metadata) {
         this.tableToken = tableToken;
@@ -44,6 +47,7 @@ public abstract class AbstractDataFrameCursorFactory implements DataFrameCursorF
 
     @Override
     public void close() {
+        partitionPruner = Misc.free(partitionPruner);
     }
 
     public RecordMetadata getMetadata() {
@@ -55,6 +59,14 @@ public abstract class AbstractDataFrameCursorFactory implements DataFrameCursorF
         return tableToken;
     }
 
+    /**
+     * Sets pruner used by cursors to skip partitions that can't match the filter. The factory
+     * takes ownership of the pruner.
+     */
+    public void setPartitionPruner(@Nullable PartitionPruner partitionPruner) {
+        this.partitionPruner = partitionPruner;
+    }
+
     @Override
     public boolean supportTableRowId(TableToken tableToken) {
         return this.tableToken.equals(tableToken);
@@ -63,6 +75,9 @@ public abstract class AbstractDataFrameCursorFactory implements DataFrameCursorF
     @Override
     public void toPlan(PlanSink sink) {
         sink.meta("on").val(tableToken);
+        if (partitionPruner != null) {
+            sink.attr("partition stats filter").val(partitionPruner);
+        }
     }
 
     @Override
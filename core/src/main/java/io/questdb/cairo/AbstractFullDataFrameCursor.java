@@ -28,14 +28,21 @@ import io.questdb.cairo.sql.DataFrame;
 import io.questdb.cairo.sql.DataFrameCursor;
 import io.questdb.cairo.sql.StaticSymbolTable;
 import io.questdb.std.Misc;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 
 public abstract class AbstractFullDataFrameCursor implements DataFrameCursor {
     protected final FullTableDataFrame frame = new FullTableDataFrame();
+    private final boolean descending;
     protected int partitionHi;
     protected int partitionIndex;
+    protected PartitionPruner partitionPruner;
     protected TableReader reader;
 
+    protected AbstractFullDataFrameCursor(boolean descending) {
+        this.descending = descending;
+    }
+
     @Override
     public void close() {
         reader = Misc.free(reader);
@@ -56,10 +63,31 @@ public abstract class AbstractFullDataFrameCursor implements DataFrameCursor {
         return reader.newSymbolTable(columnIndex);
     }
 
+    @Override
+    public @Nullable DataFrame next() {
+        if (partitionPruner == null) {
+            return nextFrame();
+        }
+        // narrow frames down to the row ranges that may match the filter
+        while (!partitionPruner.nextRows()) {
+            final DataFrame frame = nextFrame();
+            if (frame == null) {
+                return null;
+            }
+            partitionPruner.ofRows(frame.getPartitionIndex(), frame.getRowLo(), frame.getRowHi(), descending);
+        }
+        frame.rowLo = partitionPruner.getRowsLo();
+        frame.rowHi = partitionPruner.getRowsHi();
+        return frame;
+    }
+
     public DataFrameCursor of(TableReader reader) {
         partitionHi = reader.getPartitionCount();
         toTop();
         this.reader = reader;
+        if (partitionPruner != null) {
+            partitionPruner.of(reader);
+        }
         return this;
     }
 
@@ -69,14 +97,23 @@ public abstract class AbstractFullDataFrameCursor implements DataFrameCursor {
         boolean moreData = reader.reload();
         partitionHi = reader.getPartitionCount();
         toTop();
+        if (partitionPruner != null) {
+            partitionPruner.of(reader);
+        }
         return moreData;
     }
 
+    public void setPartitionPruner(@Nullable PartitionPruner partitionPruner) {
+        this.partitionPruner = partitionPruner;
+    }
+
     @Override
     public long size() {
         return reader.size();
     }
 
+    protected abstract @Nullable DataFrame nextFrame();
+
     protected class FullTableDataFrame implements DataFrame {
         protected int partitionIndex;
         protected long rowHi;
@@ -34,6 +34,7 @@ import io.questdb.griffin.model.RuntimeIntrinsicIntervalModel;
 import io.questdb.std.LongList;
 import io.questdb.std.Misc;
 import io.questdb.std.Vect;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 
 public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor {
@@ -52,18 +53,21 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
     // searching partition from top every time
     protected long partitionLimit;
     protected int partitionLo;
+    protected PartitionPruner partitionPruner;
     protected TableReader reader;
     protected long size = -1;
     protected long sizeSoFar = 0;
+    private final boolean descending;
     private int initialIntervalsHi;
     private int initialIntervalsLo;
     private int initialPartitionHi;
     private int initialPartitionLo;
 
-    public AbstractIntervalDataFrameCursor(RuntimeIntrinsicIntervalModel intervals, int timestampIndex) {
+    public AbstractIntervalDataFrameCursor(RuntimeIntrinsicIntervalModel intervals, int timestampIndex, boolean descending) {
         assert timestampIndex > -1;
         this.intervalsModel = intervals;
         this.timestampIndex = timestampIndex;
+        this.descending = descending;
     }
 
     public static long binarySearch(MemoryR column, long value, long low, long high, int scanDir) {
@@ -94,10 +98,31 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
         return reader.newSymbolTable(columnIndex);
     }
 
+    @Override
+    public @Nullable DataFrame next() {
+        if (partitionPruner == null) {
+            return nextFrame();
+        }
+        // narrow frames down to the row ranges that may match the filter
+        while (!partitionPruner.nextRows()) {
+            final DataFrame frame = nextFrame();
+            if (frame == null) {
+                return null;
+            }
+            partitionPruner.ofRows(frame.getPartitionIndex(), frame.getRowLo(), frame.getRowHi(), descending);
+        }
+        dataFrame.rowLo = partitionPruner.getRowsLo();
+        dataFrame.rowHi = partitionPruner.getRowsHi();
+        return dataFrame;
+    }
+
     public AbstractIntervalDataFrameCursor of(TableReader reader, SqlExecutionContext sqlContext) throws SqlException {
         this.intervals = this.intervalsModel.calculateIntervals(sqlContext);
         calculateRanges(reader, intervals);
         this.reader = reader;
+        if (partitionPruner != null) {
+            partitionPruner.of(reader);
+        }
         return this;
     }
 
@@ -106,11 +131,18 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
     public boolean reload() {
         if (reader != null && reader.reload()) {
             calculateRanges(reader, intervals);
+            if (partitionPruner != null) {
+                partitionPruner.of(reader);
+            }
             return true;
         }
         return false;
     }
 
+    public void setPartitionPruner(@Nullable PartitionPruner partitionPruner) {
+        this.partitionPruner = partitionPruner;
+    }
+
     @Override
     public long size() {
         return size > -1 ? size : computeSize();
@@ -123,8 +155,13 @@ public abstract class AbstractIntervalDataFrameCursor implements DataFrameCursor
         partitionLo = initialPartitionLo;
         partitionHi = initialPartitionHi;
         sizeSoFar = 0;
+        if (partitionPruner != null) {
+            partitionPruner.toTop();
+        }
     }
 
+    protected abstract @Nullable DataFrame nextFrame();
+
     private void calculateRanges(TableReader reader, LongList intervals) {
         size = -1;
         if (intervals.size() > 0) {
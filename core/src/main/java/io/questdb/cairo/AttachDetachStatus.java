@@ -34,12 +34,19 @@ public enum AttachDetachStatus {
     DETACH_ERR_COPY,
     DETACH_ERR_ALREADY_DETACHED(false),
     DETACH_ERR_MKDIR,
+    DETACH_ERR_COMPRESSED(false),
+    DETACH_ERR_PARQUET(false),
     ATTACH_ERR_PARTITION_EXISTS(false),
     ATTACH_ERR_RENAME,
     ATTACH_ERR_COPY,
     ATTACH_ERR_MISSING_PARTITION(false),
     ATTACH_ERR_DIR_EXISTS(false),
-    ATTACH_ERR_EMPTY_PARTITION(false);
+    ATTACH_ERR_EMPTY_PARTITION(false),
+    CONVERT_ERR_ACTIVE(false),
+    CONVERT_ERR_MISSING_PARTITION(false),
+    CONVERT_ERR_SNAPSHOT(false),
+    CONVERT_ERR_UNKNOWN_VOLUME(false),
+    CONVERT_ERR_UNSUPPORTED_TYPE(false);
 
     private final boolean isCritical;
 
@@ -190,6 +190,14 @@ public interface CairoConfiguration {
 
     int getGroupByShardingThreshold();
 
+    /**
+     * Returns the maximum size of key-value memory a single-threaded GROUP BY hash table may use
+     * before spilling its entries to disk. Zero means that spilling is disabled.
+     */
+    long getGroupBySpillMemoryBudget();
+
+    int getGroupBySpillPartitionCount();
+
     @NotNull
     default IOURingFacade getIOURingFacade() {
         return IOURingFacadeImpl.INSTANCE;
@@ -302,6 +310,24 @@ public interface CairoConfiguration {
 
     int getPartitionPurgeListCapacity();
 
+    /**
+     * Returns the interval, in milliseconds, between runs of the job that applies partition
+     * TTL and tiering policies of tables. Zero disables the job.
+     */
+    long getPartitionRetentionJobInterval();
+
+    /**
+     * Returns the maximum number of partitions the retention job drops or moves to a volume
+     * in a single run, the rest is left to the following runs.
+     */
+    int getPartitionRetentionMaxPartitionsPerRun();
+
+    /**
+     * Returns the number of rows per block of partition zone maps, i.e. min/max values of
+     * row blocks stored along with partition stats. Zero disables zone maps.
+     */
+    int getPartitionZoneMapBlockRows();
+
     int getQueryRegistryPoolSize();
 
     @NotNull
@@ -393,6 +419,14 @@ public interface CairoConfiguration {
 
     int getSqlHashJoinLightValuePageSize();
 
+    int getSqlHashJoinSpillPartitionCount();
+
+    /**
+     * Returns the slave chain size in bytes after which a full-fat inner hash join switches
+     * to the grace mode, i.e. partitions both sides to disk. Zero means that the grace mode is disabled.
+     */
+    long getSqlHashJoinSpillThreshold();
+
     int getSqlHashJoinValueMaxPages();
 
     int getSqlHashJoinValuePageSize();
@@ -448,10 +482,21 @@ public interface CairoConfiguration {
 
     long getSqlSortLightValuePageSize();
 
+    /**
+     * Returns the maximum size of memory a single ORDER BY may use before writing sorted runs
+     * to disk and merging them. Zero means that spilling is disabled.
+     */
+    long getSqlSortSpillMemoryBudget();
+
     int getSqlSortValueMaxPages();
 
     int getSqlSortValuePageSize();
 
+    /**
+     * Returns the directory used for temporary files of queries that spill to disk.
+     */
+    CharSequence getSqlSpillRoot();
+
     int getSqlUnorderedMapMaxEntrySize();
 
     int getSqlWindowInitialRangeBufferSize();
@@ -576,6 +621,12 @@ public interface CairoConfiguration {
 
     boolean isParallelIndexingEnabled();
 
+    /**
+     * Returns true when table writers record per-column min/max and null counts of partitions
+     * once they are no longer the last partition, and table scans skip partitions using them.
+     */
+    boolean isPartitionStatsEnabled();
+
     boolean isReadOnlyInstance();
 
     /**
@@ -585,14 +636,68 @@ public interface CairoConfiguration {
      */
     boolean isSnapshotRecoveryEnabled();
 
+    /**
+     * Returns true when ASOF JOIN on a single symbol key may navigate the slave table with
+     * the time frame cursor instead of materializing the slave rows into a map.
+     */
+    boolean isSqlAsOfJoinKeyedFastEnabled();
+
+    /**
+     * Returns true when light inner hash joins on a single integer key may build min/max and Bloom
+     * filters of the build side keys and use them to skip probe side rows before the map lookup.
+     */
+    boolean isSqlHashJoinKeyFilterEnabled();
+
+    /**
+     * Returns true when light inner hash joins on a single symbol-to-symbol key may build and probe
+     * the hash table with int symbol keys, translating slave symbol keys to master ones upfront.
+     */
+    boolean isSqlHashJoinSymbolKeysEnabled();
+
     boolean isSqlJitDebugEnabled();
 
+    /**
+     * Returns true when LATEST BY a single symbol column may keep the latest row of every symbol
+     * between executions and catch up with the rows appended since the previous execution.
+     */
+    boolean isSqlLatestByCacheEnabled();
+
+    /**
+     * Returns true when non-keyed ASOF and LT JOINs over a page frame capable master may look up
+     * slave rows for master page frames on the shared worker pool.
+     */
+    boolean isSqlParallelAsOfJoinEnabled();
+
     boolean isSqlParallelFilterEnabled();
 
     boolean isSqlParallelFilterPreTouchEnabled();
 
     boolean isSqlParallelGroupByEnabled();
 
+    /**
+     * Returns true when inner hash joins over a page frame capable left side may probe
+     * the right side hash table on the shared worker pool.
+     */
+    boolean isSqlParallelHashJoinEnabled();
+
+    /**
+     * Returns true when ORDER BY on a single fixed-size column over a page frame capable source
+     * may sort page frames on the shared worker pool.
+     */
+    boolean isSqlParallelSortEnabled();
+
+    /**
+     * Returns true when ORDER BY ... LIMIT on a single fixed-size column may filter page frames
+     * and select their top rows on the shared worker pool.
+     */
+    boolean isSqlParallelTopKEnabled();
+
+    /**
+     * Returns true when window functions that all share the same PARTITION BY clause may be
+     * evaluated on the shared worker pool, with the partitions hashed across the workers.
+     */
+    boolean isSqlParallelWindowEnabled();
+
     boolean isTableTypeConversionEnabled();
 
     boolean isWalApplyEnabled();
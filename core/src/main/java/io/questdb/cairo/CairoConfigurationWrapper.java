@@ -325,6 +325,16 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getGroupByShardingThreshold();
     }
 
+    @Override
+    public long getGroupBySpillMemoryBudget() {
+        return getDelegate().getGroupBySpillMemoryBudget();
+    }
+
+    @Override
+    public int getGroupBySpillPartitionCount() {
+        return getDelegate().getGroupBySpillPartitionCount();
+    }
+
     @Override
     public long getIdleCheckInterval() {
         return getDelegate().getIdleCheckInterval();
@@ -515,6 +525,21 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getPartitionPurgeListCapacity();
     }
 
+    @Override
+    public long getPartitionRetentionJobInterval() {
+        return getDelegate().getPartitionRetentionJobInterval();
+    }
+
+    @Override
+    public int getPartitionRetentionMaxPartitionsPerRun() {
+        return getDelegate().getPartitionRetentionMaxPartitionsPerRun();
+    }
+
+    @Override
+    public int getPartitionZoneMapBlockRows() {
+        return getDelegate().getPartitionZoneMapBlockRows();
+    }
+
     @Override
     public int getQueryRegistryPoolSize() {
         return getDelegate().getQueryRegistryPoolSize();
@@ -670,6 +695,16 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getSqlHashJoinLightValuePageSize();
     }
 
+    @Override
+    public int getSqlHashJoinSpillPartitionCount() {
+        return getDelegate().getSqlHashJoinSpillPartitionCount();
+    }
+
+    @Override
+    public long getSqlHashJoinSpillThreshold() {
+        return getDelegate().getSqlHashJoinSpillThreshold();
+    }
+
     @Override
     public int getSqlHashJoinValueMaxPages() {
         return getDelegate().getSqlHashJoinValueMaxPages();
@@ -795,6 +830,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getSqlSortLightValuePageSize();
     }
 
+    @Override
+    public long getSqlSortSpillMemoryBudget() {
+        return getDelegate().getSqlSortSpillMemoryBudget();
+    }
+
     @Override
     public int getSqlSortValueMaxPages() {
         return getDelegate().getSqlSortValueMaxPages();
@@ -805,6 +845,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().getSqlSortValuePageSize();
     }
 
+    @Override
+    public CharSequence getSqlSpillRoot() {
+        return getDelegate().getSqlSpillRoot();
+    }
+
     @Override
     public int getSqlUnorderedMapMaxEntrySize() {
         return getDelegate().getSqlUnorderedMapMaxEntrySize();
@@ -1070,6 +1115,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isParallelIndexingEnabled();
     }
 
+    @Override
+    public boolean isPartitionStatsEnabled() {
+        return getDelegate().isPartitionStatsEnabled();
+    }
+
     @Override
     public boolean isReadOnlyInstance() {
         return getDelegate().isReadOnlyInstance();
@@ -1080,11 +1130,36 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isSnapshotRecoveryEnabled();
     }
 
+    @Override
+    public boolean isSqlAsOfJoinKeyedFastEnabled() {
+        return getDelegate().isSqlAsOfJoinKeyedFastEnabled();
+    }
+
+    @Override
+    public boolean isSqlHashJoinKeyFilterEnabled() {
+        return getDelegate().isSqlHashJoinKeyFilterEnabled();
+    }
+
+    @Override
+    public boolean isSqlHashJoinSymbolKeysEnabled() {
+        return getDelegate().isSqlHashJoinSymbolKeysEnabled();
+    }
+
     @Override
     public boolean isSqlJitDebugEnabled() {
         return getDelegate().isSqlJitDebugEnabled();
     }
 
+    @Override
+    public boolean isSqlLatestByCacheEnabled() {
+        return getDelegate().isSqlLatestByCacheEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelAsOfJoinEnabled() {
+        return getDelegate().isSqlParallelAsOfJoinEnabled();
+    }
+
     @Override
     public boolean isSqlParallelFilterEnabled() {
         return getDelegate().isSqlParallelFilterEnabled();
@@ -1100,6 +1175,26 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return getDelegate().isSqlParallelGroupByEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return getDelegate().isSqlParallelHashJoinEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelSortEnabled() {
+        return getDelegate().isSqlParallelSortEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelTopKEnabled() {
+        return getDelegate().isSqlParallelTopKEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelWindowEnabled() {
+        return getDelegate().isSqlParallelWindowEnabled();
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return getDelegate().isTableTypeConversionEnabled();
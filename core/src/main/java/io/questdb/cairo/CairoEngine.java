@@ -29,6 +29,7 @@ import io.questdb.MessageBusImpl;
 import io.questdb.Metrics;
 import io.questdb.Telemetry;
 import io.questdb.cairo.mig.EngineMigration;
+import io.questdb.cairo.mv.MatViewGraph;
 import io.questdb.cairo.pool.*;
 import io.questdb.cairo.security.AllowAllSecurityContext;
 import io.questdb.cairo.sql.*;
@@ -77,6 +78,8 @@ public class CairoEngine implements Closeable, WriterSource {
     private final ConcurrentHashMap<TableToken> createTableLock = new ConcurrentHashMap<>();
     private final EngineMaintenanceJob engineMaintenanceJob;
     private final FunctionFactoryCache ffCache;
+    private final LatestByCacheRegistry latestByCacheRegistry = new LatestByCacheRegistry();
+    private final MatViewGraph matViewGraph = new MatViewGraph();
     private final MessageBusImpl messageBus;
     private final Metrics metrics;
     private final Predicate<CharSequence> protectedTableResolver;
@@ -143,6 +146,7 @@ public class CairoEngine implements Closeable, WriterSource {
                     ? new TableNameRegistryRO(configuration, protectedTableResolver)
                     : new TableNameRegistryRW(configuration, protectedTableResolver);
             tableNameRegistry.reload();
+            matViewGraph.reload(this);
 
             this.sqlCompilerPool = new SqlCompilerPool(this);
         } catch (Throwable th) {
@@ -277,6 +281,7 @@ public class CairoEngine implements Closeable, WriterSource {
     public boolean clear() {
         snapshotAgent.clear();
         messageBus.clear();
+        latestByCacheRegistry.clear();
         boolean b1 = readerPool.releaseAll();
         boolean b2 = writerPool.releaseAll();
         boolean b3 = tableSequencerAPI.releaseAll();
@@ -358,6 +363,7 @@ public class CairoEngine implements Closeable, WriterSource {
 
     public void drop(Path path, TableToken tableToken) {
         verifyTableToken(tableToken);
+        latestByCacheRegistry.remove(tableToken);
         if (tableToken.isWal()) {
             if (tableNameRegistry.dropTable(tableToken)) {
                 tableSequencerAPI.dropTable(tableToken, false);
@@ -465,6 +471,10 @@ public class CairoEngine implements Closeable, WriterSource {
         return ffCache;
     }
 
+    public LatestByCacheRegistry getLatestByCacheRegistry() {
+        return latestByCacheRegistry;
+    }
+
     public TableMetadata getLegacyMetadata(TableToken tableToken) {
         return getLegacyMetadata(tableToken, TableUtils.ANY_TABLE_VERSION);
     }
@@ -484,6 +494,10 @@ public class CairoEngine implements Closeable, WriterSource {
         return getSequencerMetadata(tableToken, desiredVersion);
     }
 
+    public MatViewGraph getMatViewGraph() {
+        return matViewGraph;
+    }
+
     public MessageBus getMessageBus() {
         return messageBus;
     }
@@ -804,6 +818,7 @@ public class CairoEngine implements Closeable, WriterSource {
         // Convert tables to WAL/non-WAL, if necessary.
         final ObjList<TableToken> convertedTables = TableConverter.convertTables(configuration, tableSequencerAPI, protectedTableResolver);
         tableNameRegistry.reload(convertedTables);
+        matViewGraph.reload(this);
     }
 
     public String lockAll(TableToken tableToken, String lockReason, boolean ignoreSnapshots) {
@@ -892,6 +907,7 @@ public class CairoEngine implements Closeable, WriterSource {
     }
 
     public void notifyDropped(TableToken tableToken) {
+        latestByCacheRegistry.remove(tableToken);
         tableNameRegistry.dropTable(tableToken);
     }
 
@@ -991,6 +1007,7 @@ public class CairoEngine implements Closeable, WriterSource {
     @TestOnly
     public void reloadTableNames(@Nullable ObjList<TableToken> convertedTables) {
         tableNameRegistry.reload(convertedTables);
+        matViewGraph.reload(this);
     }
 
     public void removeTableToken(TableToken tableToken) {
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.LPSZ;
+
+import java.util.zip.Deflater;
+
+/**
+ * Writes block-compressed copies of column files. Compressed file layout is:
+ * <pre>
+ * | uncompressed size | block size | block count | block offsets            | blocks |
+ * +-------------------+------------+-------------+--------------------------+--------+
+ * |  8 bytes          |  4 bytes   |  4 bytes    | 8 * (block count + 1)    |        |
+ * </pre>
+ * Block offsets are absolute file offsets, the last one being the end of the last block.
+ * Each block is deflated independently, so that readers can inflate any of them
+ * without touching the neighbours.
+ */
+public class ColumnFileCompressor implements QuietCloseable {
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+    public static final int HEADER_BLOCK_COUNT_OFFSET = 12;
+    public static final int HEADER_BLOCK_SIZE_OFFSET = 8;
+    public static final int HEADER_SIZE = 16;
+    public static final int HEADER_UNCOMPRESSED_SIZE_OFFSET = 0;
+    private static final Log LOG = LogFactory.getLog(ColumnFileCompressor.class);
+    private final int blockSize;
+    private final byte[] deflated;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final byte[] input;
+    private long scratch;
+
+    public ColumnFileCompressor(int blockSize) {
+        this.blockSize = blockSize;
+        this.input = new byte[blockSize];
+        this.deflated = new byte[blockSize];
+        this.scratch = Unsafe.malloc(blockSize, MemoryTag.NATIVE_TABLE_WRITER);
+    }
+
+    public static long getBlockIndexSize(int blockCount) {
+        return (long) (blockCount + 1) * Long.BYTES;
+    }
+
+    @Override
+    public void close() {
+        if (scratch != 0) {
+            scratch = Unsafe.free(scratch, blockSize, MemoryTag.NATIVE_TABLE_WRITER);
+            deflater.end();
+        }
+    }
+
+    /**
+     * Compresses the whole of the source file into destination file, which is created or truncated.
+     *
+     * @param ff         files facade
+     * @param srcPath    uncompressed column file
+     * @param dstPath    compressed column file
+     * @param commitMode commit mode of the table, destination is fsync-ed unless it is NOSYNC
+     * @return size of the compressed file
+     */
+    public long compress(FilesFacade ff, LPSZ srcPath, LPSZ dstPath, int commitMode) {
+        final int srcFd = TableUtils.openRO(ff, srcPath, LOG);
+        long srcAddr = 0;
+        long srcSize = 0;
+        int dstFd = -1;
+        long index = 0;
+        long indexSize = 0;
+        try {
+            srcSize = ff.length(srcFd);
+            if (srcSize < 0) {
+                throw CairoException.critical(ff.errno()).put("could not get length: ").put(srcPath);
+            }
+            if (srcSize > 0) {
+                srcAddr = TableUtils.mapRO(ff, srcFd, srcSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+
+            final long blockCount = (srcSize + blockSize - 1) / blockSize;
+            if (blockCount > Integer.MAX_VALUE - 1) {
+                throw CairoException.critical(0).put("column file is too large to compress [file=").put(srcPath).put(']');
+            }
+            indexSize = getBlockIndexSize((int) blockCount);
+            index = Unsafe.malloc(HEADER_SIZE + indexSize, MemoryTag.NATIVE_TABLE_WRITER);
+            Unsafe.getUnsafe().putLong(index + HEADER_UNCOMPRESSED_SIZE_OFFSET, srcSize);
+            Unsafe.getUnsafe().putInt(index + HEADER_BLOCK_SIZE_OFFSET, blockSize);
+            Unsafe.getUnsafe().putInt(index + HEADER_BLOCK_COUNT_OFFSET, (int) blockCount);
+
+            dstFd = TableUtils.openRW(ff, dstPath, LOG, CairoConfiguration.O_NONE);
+            if (!ff.truncate(dstFd, 0)) {
+                throw CairoException.critical(ff.errno()).put("could not truncate [file=").put(dstPath).put(']');
+            }
+
+            long dstOffset = HEADER_SIZE + indexSize;
+            for (long i = 0; i < blockCount; i++) {
+                Unsafe.getUnsafe().putLong(index + HEADER_SIZE + i * Long.BYTES, dstOffset);
+                final long lo = i * blockSize;
+                final int len = (int) Math.min(blockSize, srcSize - lo);
+                Unsafe.getUnsafe().copyMemory(null, srcAddr + lo, input, Unsafe.BYTE_OFFSET, len);
+                deflater.reset();
+                deflater.setInput(input, 0, len);
+                deflater.finish();
+                while (!deflater.finished()) {
+                    final int n = deflater.deflate(deflated);
+                    if (n > 0) {
+                        Unsafe.getUnsafe().copyMemory(deflated, Unsafe.BYTE_OFFSET, null, scratch, n);
+                        write(ff, dstFd, scratch, n, dstOffset, dstPath);
+                        dstOffset += n;
+                    }
+                }
+            }
+            Unsafe.getUnsafe().putLong(index + HEADER_SIZE + blockCount * Long.BYTES, dstOffset);
+            write(ff, dstFd, index, HEADER_SIZE + indexSize, 0, dstPath);
+            if (commitMode != CommitMode.NOSYNC) {
+                ff.fsync(dstFd);
+            }
+            return dstOffset;
+        } finally {
+            if (srcAddr != 0) {
+                ff.munmap(srcAddr, srcSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            ff.close(srcFd);
+            if (dstFd > -1) {
+                ff.close(dstFd);
+            }
+            if (index != 0) {
+                Unsafe.free(index, HEADER_SIZE + indexSize, MemoryTag.NATIVE_TABLE_WRITER);
+            }
+        }
+    }
+
+    private static void write(FilesFacade ff, int fd, long address, long len, long offset, LPSZ path) {
+        if (ff.write(fd, address, len, offset) != len) {
+            throw CairoException.critical(ff.errno()).put("could not write compressed column [file=").put(path).put(']');
+        }
+    }
+}
@@ -181,6 +181,10 @@ public final class ColumnType {
         return columnType == CURSOR;
     }
 
+    public static boolean isDedupKeySupported(int columnType) {
+        return !isVarSize(columnType) || isString(columnType) || isVarchar(columnType);
+    }
+
     public static boolean isDesignatedTimestamp(int columnType) {
         return tagOf(columnType) == TIMESTAMP && (columnType & TYPE_FLAG_DESIGNATED_TIMESTAMP) != 0;
     }
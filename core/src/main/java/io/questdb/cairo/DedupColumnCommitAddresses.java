@@ -31,20 +31,31 @@ import java.io.Closeable;
 /**
  * This class is used to store addresses of columns to pass to C deduplication routines.
  * The data structure has to match dedup_column struct in dedup.cpp
+ * <p>
+ * Var-size key columns store addresses of their aux vectors in the column and O3 data fields.
+ * Addresses of their data vectors are stored in a separate array of records, which follows
+ * the records of all key columns in the block. Var-size keys are compared in Java,
+ * see {@link VarSizeKeyDedup}.
  */
 public class DedupColumnCommitAddresses implements Closeable {
     // The data structure in below offsets has to match dedup_column struct in dedup.cpp
-    private static final long COL_TYPE_32 = 0L;
-    private static final long VAL_SIZE_32 = COL_TYPE_32 + 4L;
-    private static final long COL_TOP_64 = VAL_SIZE_32 + 4L;
-    private static final long COL_DATA_64 = COL_TOP_64 + 8L;
-    private static final long O3_DATA_64 = COL_DATA_64 + 8L;
+    static final long COL_TYPE_32 = 0L;
+    static final long VAL_SIZE_32 = COL_TYPE_32 + 4L;
+    static final long COL_TOP_64 = VAL_SIZE_32 + 4L;
+    static final long COL_DATA_64 = COL_TOP_64 + 8L;
+    static final long O3_DATA_64 = COL_DATA_64 + 8L;
     private static final long RESERVED1 = O3_DATA_64 + 8L;
     private static final long RESERVED2 = RESERVED1 + 8L;
     private static final long RESERVED3 = RESERVED2 + 8L;
-    private static final long NULL_VAL_256 = RESERVED3 + 8L;
-    private static final int RECORD_BYTES = (int) (NULL_VAL_256 + 32L);
+    static final long NULL_VAL_256 = RESERVED3 + 8L;
+    static final int RECORD_BYTES = (int) (NULL_VAL_256 + 32L);
     // The data structure in above offsets has to match dedup_column struct in dedup.cpp
+    static final long VAR_COL_DATA_64 = 0L;
+    static final long VAR_O3_DATA_64 = VAR_COL_DATA_64 + 8L;
+    private static final long VAR_RESERVED1 = VAR_O3_DATA_64 + 8L;
+    private static final long VAR_RESERVED2 = VAR_RESERVED1 + 8L;
+    private static final long VAR_RESERVED3 = VAR_RESERVED2 + 8L;
+    static final int VAR_RECORD_BYTES = (int) (VAR_RESERVED3 + 8L);
 
     private PagedDirectLongList addresses;
     private int columnCount;
@@ -57,7 +68,7 @@ public class DedupColumnCommitAddresses implements Closeable {
     }
 
     public void clear(long dedupColSinkAddr) {
-        Vect.memset(dedupColSinkAddr, (long) columnCount * RECORD_BYTES, 0);
+        Vect.memset(dedupColSinkAddr, (long) columnCount * (RECORD_BYTES + VAR_RECORD_BYTES), 0);
     }
 
     public void clear() {
@@ -87,10 +98,26 @@ public class DedupColumnCommitAddresses implements Closeable {
         return Unsafe.getUnsafe().getLong(dedupBlockAddress + (long) keyIndex * RECORD_BYTES + RESERVED3);
     }
 
+    public long getColVarReserved1(long dedupBlockAddress, int keyIndex) {
+        return Unsafe.getUnsafe().getLong(getVarAddress(dedupBlockAddress) + (long) keyIndex * VAR_RECORD_BYTES + VAR_RESERVED1);
+    }
+
+    public long getColVarReserved2(long dedupBlockAddress, int keyIndex) {
+        return Unsafe.getUnsafe().getLong(getVarAddress(dedupBlockAddress) + (long) keyIndex * VAR_RECORD_BYTES + VAR_RESERVED2);
+    }
+
+    public long getColVarReserved3(long dedupBlockAddress, int keyIndex) {
+        return Unsafe.getUnsafe().getLong(getVarAddress(dedupBlockAddress) + (long) keyIndex * VAR_RECORD_BYTES + VAR_RESERVED3);
+    }
+
     public int getColumnCount() {
         return columnCount;
     }
 
+    public long getVarAddress(long dedupCommitAddr) {
+        return dedupCommitAddr + (long) columnCount * RECORD_BYTES;
+    }
+
     public void setArrayValues(
             long dedupCommitAddr,
             int dedupKeyIndex,
@@ -112,10 +139,15 @@ public class DedupColumnCommitAddresses implements Closeable {
         Unsafe.getUnsafe().putLong(addr + RESERVED1, reserved1);
         Unsafe.getUnsafe().putLong(addr + RESERVED2, reserved2);
         Unsafe.getUnsafe().putLong(addr + RESERVED3, reserved3);
-        Unsafe.getUnsafe().putLong(addr + NULL_VAL_256, TableUtils.getNullLong(columnType, 0));
-        Unsafe.getUnsafe().putLong(addr + NULL_VAL_256 + 8, TableUtils.getNullLong(columnType, 1));
-        Unsafe.getUnsafe().putLong(addr + NULL_VAL_256 + 16, TableUtils.getNullLong(columnType, 2));
-        Unsafe.getUnsafe().putLong(addr + NULL_VAL_256 + 24, TableUtils.getNullLong(columnType, 3));
+        if (ColumnType.isVarSize(columnType)) {
+            // var-size values below column top are compared as nulls without the null value
+            Vect.memset(addr + NULL_VAL_256, 32L, 0);
+        } else {
+            Unsafe.getUnsafe().putLong(addr + NULL_VAL_256, TableUtils.getNullLong(columnType, 0));
+            Unsafe.getUnsafe().putLong(addr + NULL_VAL_256 + 8, TableUtils.getNullLong(columnType, 1));
+            Unsafe.getUnsafe().putLong(addr + NULL_VAL_256 + 16, TableUtils.getNullLong(columnType, 2));
+            Unsafe.getUnsafe().putLong(addr + NULL_VAL_256 + 24, TableUtils.getNullLong(columnType, 3));
+        }
     }
 
     public void setDedupColumnCount(int dedupColumnCount) {
@@ -125,7 +157,7 @@ public class DedupColumnCommitAddresses implements Closeable {
             } else {
                 addresses.clear();
             }
-            int longsPerBlock = RECORD_BYTES / Long.BYTES;
+            int longsPerBlock = (RECORD_BYTES + VAR_RECORD_BYTES) / Long.BYTES;
             addresses.setBlockSize(dedupColumnCount * longsPerBlock);
         } else if (dedupColumnCount == 0) {
             clear();
@@ -133,7 +165,29 @@ public class DedupColumnCommitAddresses implements Closeable {
         this.columnCount = dedupColumnCount;
     }
 
+    /**
+     * Sets data vector addresses of var-size key column, aux vector addresses are set
+     * with {@link #setArrayValues(long, int, int, int, long, long, long, long, long, long)}.
+     */
+    public void setVarDataValues(
+            long dedupCommitAddr,
+            int dedupKeyIndex,
+            long columnDataAddress,
+            long o3DataAddress,
+            long reserved1,
+            long reserved2,
+            long reserved3
+    ) {
+        long addr = getVarAddress(dedupCommitAddr) + (long) dedupKeyIndex * VAR_RECORD_BYTES;
+        Unsafe.getUnsafe().putLong(addr + VAR_COL_DATA_64, columnDataAddress);
+        Unsafe.getUnsafe().putLong(addr + VAR_O3_DATA_64, o3DataAddress);
+        Unsafe.getUnsafe().putLong(addr + VAR_RESERVED1, reserved1);
+        Unsafe.getUnsafe().putLong(addr + VAR_RESERVED2, reserved2);
+        Unsafe.getUnsafe().putLong(addr + VAR_RESERVED3, reserved3);
+    }
+
     static {
         assert RECORD_BYTES % Long.BYTES == 0;
+        assert VAR_RECORD_BYTES % Long.BYTES == 0;
     }
 }
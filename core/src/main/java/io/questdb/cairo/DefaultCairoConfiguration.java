@@ -333,6 +333,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1000;
     }
 
+    @Override
+    public long getGroupBySpillMemoryBudget() {
+        return 0;
+    }
+
+    @Override
+    public int getGroupBySpillPartitionCount() {
+        return 16;
+    }
+
     @Override
     public long getIdleCheckInterval() {
         return 100;
@@ -514,6 +524,21 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 64;
     }
 
+    @Override
+    public long getPartitionRetentionJobInterval() {
+        return 60_000;
+    }
+
+    @Override
+    public int getPartitionRetentionMaxPartitionsPerRun() {
+        return 4;
+    }
+
+    @Override
+    public int getPartitionZoneMapBlockRows() {
+        return 0;
+    }
+
     @Override
     public int getQueryRegistryPoolSize() {
         return 8;
@@ -671,6 +696,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return Numbers.SIZE_1MB;
     }
 
+    @Override
+    public int getSqlHashJoinSpillPartitionCount() {
+        return 16;
+    }
+
+    @Override
+    public long getSqlHashJoinSpillThreshold() {
+        return 0;
+    }
+
     @Override
     public int getSqlHashJoinValueMaxPages() {
         return 1024;
@@ -796,6 +831,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 8 * Numbers.SIZE_1MB;
     }
 
+    @Override
+    public long getSqlSortSpillMemoryBudget() {
+        return 0;
+    }
+
     @Override
     public int getSqlSortValueMaxPages() {
         return 1024;
@@ -806,6 +846,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return Numbers.SIZE_1MB * 16;
     }
 
+    @Override
+    public CharSequence getSqlSpillRoot() {
+        return null;
+    }
+
     @Override
     public int getSqlUnorderedMapMaxEntrySize() {
         return 16;
@@ -1070,6 +1115,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isPartitionStatsEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isReadOnlyInstance() {
         return false;
@@ -1080,11 +1130,36 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isSqlAsOfJoinKeyedFastEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlHashJoinKeyFilterEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlHashJoinSymbolKeysEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isSqlJitDebugEnabled() {
         return false;
     }
 
+    @Override
+    public boolean isSqlLatestByCacheEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlParallelAsOfJoinEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isSqlParallelFilterEnabled() {
         return true;
@@ -1100,6 +1175,26 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlParallelSortEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlParallelTopKEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlParallelWindowEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return true;
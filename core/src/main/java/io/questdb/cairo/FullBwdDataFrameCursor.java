@@ -32,6 +32,10 @@ public class FullBwdDataFrameCursor extends AbstractFullDataFrameCursor {
     private int skipToPartitionIndex = -1;
     private long skipToPosition = -1;
 
+    public FullBwdDataFrameCursor() {
+        super(true);
+    }
+
     @Override
     public void calculateSize(RecordCursor.Counter counter) {
         while (partitionIndex > -1) {
@@ -43,23 +47,6 @@ public class FullBwdDataFrameCursor extends AbstractFullDataFrameCursor {
         }
     }
 
-    @Override
-    public DataFrame next() {
-        while (partitionIndex > -1) {
-            final long hi = reader.openPartition(partitionIndex);
-            if (hi < 1) {
-                // this partition is missing, skip
-                partitionIndex--;
-            } else {
-                frame.partitionIndex = partitionIndex;
-                frame.rowHi = hi;
-                partitionIndex--;
-                return frame;
-            }
-        }
-        return null;
-    }
-
     @Override
     public @Nullable DataFrame skipTo(RecordCursor.Counter rowsToSkip) {
         int partitionCount = getTableReader().getPartitionCount();
@@ -116,5 +103,30 @@ public class FullBwdDataFrameCursor extends AbstractFullDataFrameCursor {
         partitionIndex = partitionHi - 1;
         skipToPartitionIndex = -1;
         skipToPosition = -1;
+        if (partitionPruner != null) {
+            partitionPruner.toTop();
+        }
+    }
+
+    @Override
+    protected DataFrame nextFrame() {
+        while (partitionIndex > -1) {
+            if (partitionPruner != null && partitionPruner.canSkip(partitionIndex)) {
+                partitionIndex--;
+                continue;
+            }
+            final long hi = reader.openPartition(partitionIndex);
+            if (hi < 1) {
+                // this partition is missing, skip
+                partitionIndex--;
+            } else {
+                frame.partitionIndex = partitionIndex;
+                frame.rowLo = 0;
+                frame.rowHi = hi;
+                partitionIndex--;
+                return frame;
+            }
+        }
+        return null;
     }
 }
@@ -43,6 +43,7 @@ public class FullBwdDataFrameCursorFactory extends AbstractDataFrameCursorFactor
         final TableReader reader = getReader(executionContext);
         try {
             if (order == ORDER_DESC || order == ORDER_ANY) {
+                cursor.setPartitionPruner(partitionPruner);
                 return cursor.of(reader);
             }
 
@@ -51,6 +52,7 @@ public class FullBwdDataFrameCursorFactory extends AbstractDataFrameCursorFactor
             if (fwdCursor == null) {
                 fwdCursor = new FullFwdDataFrameCursor();
             }
+            fwdCursor.setPartitionPruner(partitionPruner);
             return fwdCursor.of(reader);
         } catch (Throwable th) {
             Misc.free(reader);
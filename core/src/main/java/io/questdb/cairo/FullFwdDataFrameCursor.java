@@ -32,6 +32,10 @@ public class FullFwdDataFrameCursor extends AbstractFullDataFrameCursor {
     private int skipToPartitionIndex = -1;
     private long skipToPosition = -1;
 
+    public FullFwdDataFrameCursor() {
+        super(false);
+    }
+
     @Override
     public void calculateSize(RecordCursor.Counter counter) {
         while (partitionIndex < partitionHi) {
@@ -43,24 +47,6 @@ public class FullFwdDataFrameCursor extends AbstractFullDataFrameCursor {
         }
     }
 
-    @Override
-    public @Nullable DataFrame next() {
-        while (partitionIndex < partitionHi) {
-            final long hi = getTableReader().openPartition(partitionIndex);
-            if (hi < 1) {
-                // this partition is missing, skip
-                partitionIndex++;
-            } else {
-                frame.partitionIndex = partitionIndex;
-                frame.rowLo = 0;
-                frame.rowHi = hi;
-                partitionIndex++;
-                return frame;
-            }
-        }
-        return null;
-    }
-
     @Override
     public @Nullable DataFrame skipTo(RecordCursor.Counter rowsToSkip) {
         int partitionCount = getTableReader().getPartitionCount();
@@ -117,5 +103,30 @@ public class FullFwdDataFrameCursor extends AbstractFullDataFrameCursor {
         partitionIndex = 0;
         skipToPosition = -1;
         skipToPartitionIndex = -1;
+        if (partitionPruner != null) {
+            partitionPruner.toTop();
+        }
+    }
+
+    @Override
+    protected @Nullable DataFrame nextFrame() {
+        while (partitionIndex < partitionHi) {
+            if (partitionPruner != null && partitionPruner.canSkip(partitionIndex)) {
+                partitionIndex++;
+                continue;
+            }
+            final long hi = getTableReader().openPartition(partitionIndex);
+            if (hi < 1) {
+                // this partition is missing, skip
+                partitionIndex++;
+            } else {
+                frame.partitionIndex = partitionIndex;
+                frame.rowLo = 0;
+                frame.rowHi = hi;
+                partitionIndex++;
+                return frame;
+            }
+        }
+        return null;
     }
 }
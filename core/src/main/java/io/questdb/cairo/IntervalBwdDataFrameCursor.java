@@ -32,23 +32,8 @@ import io.questdb.log.LogFactory;
 
 public class IntervalBwdDataFrameCursor extends AbstractIntervalDataFrameCursor {
 
-    private static final Log LOG = LogFactory.getLog(IntervalBwdDataFrameCursor.class);
-
-    /**
-     * Cursor for data frames that chronologically intersect collection of intervals.
-     * Data frame low and high row will be within intervals inclusive of edges. Intervals
-     * themselves are pairs of microsecond time.
-     *
-     * @param intervals      pairs of microsecond interval values, as in "low" and "high" inclusive of
-     *                       edges.
-     * @param timestampIndex index of timestamp column in the readr that is used by this cursor
-     */
-    public IntervalBwdDataFrameCursor(RuntimeIntrinsicIntervalModel intervals, int timestampIndex) {
-        super(intervals, timestampIndex);
-    }
-
     @Override
-    public DataFrame next() {
+    protected DataFrame nextFrame() {
         // order of logical operations is important
         // we are not calculating partition ranges when intervals are empty
         while (intervalsLo < intervalsHi && partitionLo < partitionHi) {
@@ -56,6 +41,10 @@ public class IntervalBwdDataFrameCursor extends AbstractIntervalDataFrameCursor
             // are working with timestamp. Timestamp column cannot be added to existing table.
             final int currentInterval = intervalsHi - 1;
             final int currentPartition = partitionHi - 1;
+            if (partitionPruner != null && partitionPruner.canSkip(currentPartition)) {
+                skipPartition(currentPartition);
+                continue;
+            }
             long rowCount = reader.openPartition(currentPartition);
             if (rowCount > 0) {
                 final MemoryR column = reader.getColumn(TableReader.getPrimaryColumnIndex(reader.getColumnBase(currentPartition), timestampIndex));
@@ -133,6 +122,21 @@ public class IntervalBwdDataFrameCursor extends AbstractIntervalDataFrameCursor
         return null;
     }
 
+    private static final Log LOG = LogFactory.getLog(IntervalBwdDataFrameCursor.class);
+
+    /**
+     * Cursor for data frames that chronologically intersect collection of intervals.
+     * Data frame low and high row will be within intervals inclusive of edges. Intervals
+     * themselves are pairs of microsecond time.
+     *
+     * @param intervals      pairs of microsecond interval values, as in "low" and "high" inclusive of
+     *                       edges.
+     * @param timestampIndex index of timestamp column in the readr that is used by this cursor
+     */
+    public IntervalBwdDataFrameCursor(RuntimeIntrinsicIntervalModel intervals, int timestampIndex) {
+        super(intervals, timestampIndex, true);
+    }
+
     @Override
     public void toTop() {
         super.toTop();
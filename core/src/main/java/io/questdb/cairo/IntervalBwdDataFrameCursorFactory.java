@@ -58,6 +58,7 @@ public class IntervalBwdDataFrameCursorFactory extends AbstractDataFrameCursorFa
         if (order == ORDER_DESC || order == ORDER_ANY) {
             final TableReader reader = getReader(executionContext);
             try {
+                cursor.setPartitionPruner(partitionPruner);
                 cursor.of(reader, executionContext);
                 return cursor;
             } catch (Throwable th) {
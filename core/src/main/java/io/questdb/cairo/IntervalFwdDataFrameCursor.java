@@ -39,14 +39,25 @@ public class IntervalFwdDataFrameCursor extends AbstractIntervalDataFrameCursor
      * @param timestampIndex index of timestamp column in the readr that is used by this cursor
      */
     public IntervalFwdDataFrameCursor(RuntimeIntrinsicIntervalModel intervals, int timestampIndex) {
-        super(intervals, timestampIndex);
+        super(intervals, timestampIndex, false);
     }
 
     @Override
-    public DataFrame next() {
+    public void toTop() {
+        super.toTop();
+        partitionLimit = 0;
+    }
+
+    @Override
+    protected DataFrame nextFrame() {
         // order of logical operations is important
         // we are not calculating partition ranges when intervals are empty
         while (intervalsLo < intervalsHi && partitionLo < partitionHi) {
+            if (partitionPruner != null && partitionPruner.canSkip(partitionLo)) {
+                partitionLimit = 0;
+                partitionLo++;
+                continue;
+            }
             // We don't need to worry about column tops and null column because we
             // are working with timestamp. Timestamp column cannot be added to existing table.
             long rowCount = reader.openPartition(partitionLo);
@@ -119,10 +130,4 @@ public class IntervalFwdDataFrameCursor extends AbstractIntervalDataFrameCursor
         }
         return null;
     }
-
-    @Override
-    public void toTop() {
-        super.toTop();
-        partitionLimit = 0;
-    }
 }
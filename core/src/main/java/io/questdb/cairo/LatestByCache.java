@@ -0,0 +1,193 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.DirectLongList;
+import io.questdb.std.LongList;
+import io.questdb.std.Numbers;
+
+/**
+ * Latest row id of every key of one symbol column of a table. The cache is shared by
+ * LATEST BY queries on that column: a query that finds the cache at the txn of its reader
+ * copies the row ids, otherwise it scans the table and stores the result here.
+ * <p>
+ * {@link TableWriter} keeps the cache current on commits that only append rows: it applies
+ * the keys of the appended rows and moves the cache to the new txn. Any other change, such as
+ * O3 merge, deduplication, UPDATE, partition drop or truncate, invalidates the cache and the
+ * next query rebuilds it.
+ */
+public class LatestByCache {
+    private static final int PARTITION_NAME_TXN_OFFSET = 1;
+    private static final int PARTITION_SIZE_OFFSET = 2;
+    private static final int PARTITION_SLOT_SIZE = 3;
+    private static final long ROW_EMPTY = -1;
+    // timestamp, name txn and row count of every partition at the cached txn
+    private final LongList partitions = new LongList();
+    // latest row id per symbol key; slot 0 is reserved for null
+    private final LongList rowIds = new LongList();
+    private final int tableId;
+    private int columnIndex = -1;
+    private long columnVersion;
+    private long dataVersion;
+    private long metadataVersion;
+    private long truncateVersion;
+    private long txn = -1;
+
+    public LatestByCache(int tableId) {
+        this.tableId = tableId;
+    }
+
+    /**
+     * Adds latest row ids of all keys to the list when the cache is at the given txn.
+     *
+     * @param txn         txn of the table reader
+     * @param columnIndex writer index of the symbol column
+     * @param rows        list to add row ids to
+     * @return false when the cache is not at the txn and the caller has to scan the table
+     */
+    public synchronized boolean copyTo(long txn, int columnIndex, DirectLongList rows) {
+        if (this.txn != txn || this.columnIndex != columnIndex) {
+            return false;
+        }
+        for (int i = 0, n = rowIds.size(); i < n; i++) {
+            final long rowId = rowIds.getQuick(i);
+            if (rowId != ROW_EMPTY) {
+                rows.add(rowId);
+            }
+        }
+        return true;
+    }
+
+    public int getTableId() {
+        return tableId;
+    }
+
+    /**
+     * Stores row ids found by a table scan, unless the cache is already at the same or a later txn.
+     *
+     * @param columnIndex writer index of the symbol column
+     * @param txFile      tx file of the reader the scan used
+     * @param slots       latest row id per key, slot 0 is null key and -1 is an empty slot
+     */
+    public synchronized void store(int columnIndex, TxReader txFile, DirectLongList slots) {
+        if (this.columnIndex == columnIndex && txn >= txFile.getTxn()) {
+            return;
+        }
+        this.columnIndex = columnIndex;
+        rowIds.clear();
+        for (long i = 0, n = slots.size(); i < n; i++) {
+            rowIds.add(slots.get(i));
+        }
+        saveState(txFile);
+    }
+
+    private static long getPartitionSize(TxReader txFile, int partitionIndex) {
+        // writer does not keep the size of the last partition in the partition list
+        return partitionIndex == txFile.getPartitionCount() - 1
+                ? txFile.getTransientRowCount()
+                : txFile.getPartitionSize(partitionIndex);
+    }
+
+    int getColumnIndex() {
+        return columnIndex;
+    }
+
+    int getPartitionCount() {
+        return partitions.size() / PARTITION_SLOT_SIZE;
+    }
+
+    long getPartitionSize(int partitionIndex) {
+        return partitions.getQuick(partitionIndex * PARTITION_SLOT_SIZE + PARTITION_SIZE_OFFSET);
+    }
+
+    long getTxn() {
+        return txn;
+    }
+
+    synchronized void invalidate() {
+        txn = -1;
+        partitions.clear();
+        rowIds.clear();
+    }
+
+    /**
+     * Checks that the table at the tx file is the cached table with rows appended to its last
+     * cached partition and, possibly, new partitions after it.
+     */
+    boolean isAppendedBy(TxReader txFile) {
+        if (txn == -1
+                || txFile.getColumnVersion() != columnVersion
+                || txFile.getDataVersion() != dataVersion
+                || txFile.getMetadataVersion() != metadataVersion
+                || txFile.getTruncateVersion() != truncateVersion
+        ) {
+            return false;
+        }
+
+        final int cachedCount = getPartitionCount();
+        if (txFile.getPartitionCount() < cachedCount) {
+            return false;
+        }
+
+        for (int i = 0; i < cachedCount; i++) {
+            final int offset = i * PARTITION_SLOT_SIZE;
+            if (partitions.getQuick(offset) != txFile.getPartitionTimestampByIndex(i)
+                    || partitions.getQuick(offset + PARTITION_NAME_TXN_OFFSET) != txFile.getPartitionNameTxn(i)
+            ) {
+                return false;
+            }
+            final long size = getPartitionSize(txFile, i);
+            final long cachedSize = partitions.getQuick(offset + PARTITION_SIZE_OFFSET);
+            // only the last cached partition is allowed to grow
+            if (i < cachedCount - 1 ? size != cachedSize : size < cachedSize) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void put(int key, long rowId) {
+        final int slot = key == Numbers.INT_NULL ? 0 : key + 1;
+        while (rowIds.size() <= slot) {
+            rowIds.add(ROW_EMPTY);
+        }
+        rowIds.setQuick(slot, rowId);
+    }
+
+    void saveState(TxReader txFile) {
+        partitions.clear();
+        for (int i = 0, n = txFile.getPartitionCount(); i < n; i++) {
+            partitions.add(txFile.getPartitionTimestampByIndex(i));
+            partitions.add(txFile.getPartitionNameTxn(i));
+            partitions.add(getPartitionSize(txFile, i));
+        }
+        txn = txFile.getTxn();
+        columnVersion = txFile.getColumnVersion();
+        dataVersion = txFile.getDataVersion();
+        metadataVersion = txFile.getMetadataVersion();
+        truncateVersion = txFile.getTruncateVersion();
+    }
+}
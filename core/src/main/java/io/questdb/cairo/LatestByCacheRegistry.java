@@ -0,0 +1,61 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.ConcurrentHashMap;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Latest by caches of the tables of an engine, keyed by table directory. A cache is created
+ * by the first LATEST BY query that uses it and is maintained by the table writer afterwards.
+ */
+public class LatestByCacheRegistry {
+    private final ConcurrentHashMap<LatestByCache> caches = new ConcurrentHashMap<>();
+
+    public void clear() {
+        caches.clear();
+    }
+
+    @Nullable
+    public LatestByCache get(TableToken tableToken) {
+        final LatestByCache cache = caches.get(tableToken.getDirName());
+        // directory of a dropped non-WAL table can be reused by a new table
+        return cache != null && cache.getTableId() == tableToken.getTableId() ? cache : null;
+    }
+
+    public LatestByCache getOrCreate(TableToken tableToken) {
+        LatestByCache cache = get(tableToken);
+        if (cache == null) {
+            cache = new LatestByCache(tableToken.getTableId());
+            caches.put(tableToken.getDirName(), cache);
+        }
+        return cache;
+    }
+
+    public void remove(TableToken tableToken) {
+        caches.remove(tableToken.getDirName());
+    }
+}
@@ -805,6 +805,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
         FilesFacade ff = tableWriter.getFilesFacade();
 
         int mapMemTag = MemoryTag.MMAP_O3;
+        boolean varSizeKeys = false;
         try {
             dedupCommitAddresses.clear(dedupColSinkAddr);
             for (int i = 0; i < metadata.getColumnCount(); i++) {
@@ -813,12 +814,36 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                     final int columnSize = ColumnType.sizeOf(columnType);
 
                     final long columnTop = tableWriter.getColumnTop(partitionTimestamp, i, mergeDataHi + 1);
+                    final CharSequence columnName = metadata.getColumnName(i);
+                    final long columnNameTxn = tableWriter.getColumnNameTxn(partitionTimestamp, i);
+
+                    if (ColumnType.isVarSize(columnType)) {
+                        varSizeKeys = true;
+                        setVarSizeKeyValues(
+                                ff,
+                                tableRootPath,
+                                tableRootPathLen,
+                                tableWriter.getPartitionBy(),
+                                partitionTimestamp,
+                                srcNameTxn,
+                                columnName,
+                                columnNameTxn,
+                                columnType,
+                                columnTop,
+                                mergeDataHi,
+                                oooColumns,
+                                getPrimaryColumnIndex(i),
+                                dedupCommitAddresses,
+                                dedupColSinkAddr,
+                                dedupColumnIndex++
+                        );
+                        continue;
+                    }
+
                     final int fd;
                     final long mapSize, mappedAddress;
 
-                    if (columnTop < mergeDataLo + 1) {
-                        CharSequence columnName = metadata.getColumnName(i);
-                        long columnNameTxn = tableWriter.getColumnNameTxn(partitionTimestamp, i);
+                    if (columnTop < mergeDataHi + 1) {
                         TableUtils.setSinkForPartition(tableRootPath.trimTo(tableRootPathLen).slash(), tableWriter.getPartitionBy(), partitionTimestamp, srcNameTxn);
                         TableUtils.dFile(tableRootPath, columnName, columnNameTxn);
                         fd = TableUtils.openRO(ff, tableRootPath.$(), LOG);
@@ -856,6 +881,20 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                 }
             }
 
+            if (varSizeKeys) {
+                return VarSizeKeyDedup.mergeDedupTimestampWithLongIndex(
+                        srcTimestampAddr,
+                        mergeDataLo,
+                        mergeDataHi,
+                        sortedTimestampsAddr,
+                        mergeOOOLo,
+                        mergeOOOHi,
+                        tempIndexAddr,
+                        dedupCommitAddresses.getColumnCount(),
+                        dedupCommitAddresses.getAddress(dedupColSinkAddr),
+                        dedupCommitAddresses.getVarAddress(dedupColSinkAddr)
+                );
+            }
             return Vect.mergeDedupTimestampWithLongIndexIntKeys(
                     srcTimestampAddr,
                     mergeDataLo,
@@ -878,6 +917,17 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                 if (fd > 0) {
                     ff.close(fd);
                 }
+                if (varSizeKeys) {
+                    final long varMappedAddress = dedupCommitAddresses.getColVarReserved1(dedupColSinkAddr, i);
+                    final long varMappedAddressSize = dedupCommitAddresses.getColVarReserved2(dedupColSinkAddr, i);
+                    if (varMappedAddressSize > 0) {
+                        TableUtils.mapAppendColumnBufferRelease(ff, varMappedAddress, 0, varMappedAddressSize, mapMemTag);
+                    }
+                    final int varFd = (int) dedupCommitAddresses.getColVarReserved3(dedupColSinkAddr, i);
+                    if (varFd > 0) {
+                        ff.close(varFd);
+                    }
+                }
             }
         }
     }
@@ -1450,6 +1500,74 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
         }
     }
 
+    // maps aux and data vectors of var-size key column in the partition, aux vectors are set
+    // in the key record and data vectors are set in the var-size record of the key
+    private static void setVarSizeKeyValues(
+            FilesFacade ff,
+            Path tableRootPath,
+            int tableRootPathLen,
+            int partitionBy,
+            long partitionTimestamp,
+            long srcNameTxn,
+            CharSequence columnName,
+            long columnNameTxn,
+            int columnType,
+            long columnTop,
+            long mergeDataHi,
+            ReadOnlyObjList<? extends MemoryCR> oooColumns,
+            int primaryColumnIndex,
+            DedupColumnCommitAddresses dedupCommitAddresses,
+            long dedupColSinkAddr,
+            int dedupColumnIndex
+    ) {
+        final ColumnTypeDriver driver = ColumnType.getDriver(columnType);
+        final long rowCount = mergeDataHi + 1 - columnTop;
+        int auxFd = -1;
+        long auxMapSize = 0;
+        long auxMappedAddress = 0;
+        if (rowCount > 0) {
+            TableUtils.setSinkForPartition(tableRootPath.trimTo(tableRootPathLen).slash(), partitionBy, partitionTimestamp, srcNameTxn);
+            TableUtils.iFile(tableRootPath, columnName, columnNameTxn);
+            auxFd = TableUtils.openRO(ff, tableRootPath.$(), LOG);
+            auxMapSize = driver.getAuxVectorSize(rowCount);
+            auxMappedAddress = TableUtils.mapAppendColumnBuffer(ff, auxFd, 0, auxMapSize, false, MemoryTag.MMAP_O3);
+        }
+        dedupCommitAddresses.setArrayValues(
+                dedupColSinkAddr,
+                dedupColumnIndex,
+                columnType,
+                ColumnType.sizeOf(columnType),
+                columnTop,
+                Math.abs(auxMappedAddress) - driver.getAuxVectorOffset(columnTop),
+                oooColumns.get(primaryColumnIndex + 1).addressOf(0),
+                auxMappedAddress,
+                auxMapSize,
+                auxFd
+        );
+
+        int dataFd = -1;
+        long dataMapSize = 0;
+        long dataMappedAddress = 0;
+        if (rowCount > 0) {
+            TableUtils.setSinkForPartition(tableRootPath.trimTo(tableRootPathLen).slash(), partitionBy, partitionTimestamp, srcNameTxn);
+            TableUtils.dFile(tableRootPath, columnName, columnNameTxn);
+            dataFd = TableUtils.openRO(ff, tableRootPath.$(), LOG);
+            dataMapSize = driver.getDataVectorSizeAt(Math.abs(auxMappedAddress), rowCount - 1);
+            if (dataMapSize > 0) {
+                dataMappedAddress = TableUtils.mapAppendColumnBuffer(ff, dataFd, 0, dataMapSize, false, MemoryTag.MMAP_O3);
+            }
+        }
+        dedupCommitAddresses.setVarDataValues(
+                dedupColSinkAddr,
+                dedupColumnIndex,
+                Math.abs(dataMappedAddress),
+                oooColumns.get(primaryColumnIndex).addressOf(0),
+                dataMappedAddress,
+                dataMapSize,
+                dataFd
+        );
+    }
+
     @Override
     protected boolean doRun(int workerId, long cursor, RunStatus runStatus) {
         processPartition(queue.get(cursor), cursor, subSeq);
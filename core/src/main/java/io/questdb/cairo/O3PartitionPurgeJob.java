@@ -367,7 +367,7 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
                 TableToken lastToken = engine.getUpdatedTableToken(tableToken);
                 if (lastToken == tableToken) {
                     LOG.info().$(message).$(path).I$();
-                    ff.unlinkOrRemove(path, LOG);
+                    TableUtils.unlinkOrRemovePartition(ff, path, LOG);
                 } else {
                     // table is dropped and recreated since we started processing it.
                     // abort the table processing
@@ -0,0 +1,277 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+/**
+ * Skips partitions that can't match a conjunction of "column op constant" predicates,
+ * using partition stats written by the table writer, see {@link PartitionStatsWriter}.
+ * <p>
+ * Predicates are on fixed-size numeric columns. Nulls never match such predicates, so
+ * partitions with no non-null values in any of the predicate columns are skipped too.
+ * Partitions without stats, or with stale stats, are never skipped.
+ * <p>
+ * When partition stats include zone maps, row ranges of a partition are narrowed down to
+ * the blocks that may match, see {@link #ofRows(int, long, long, boolean)}.
+ */
+public class PartitionPruner implements QuietCloseable, Plannable {
+    public static final int OP_EQ = 0;
+    public static final int OP_GE = 1;
+    public static final int OP_GT = 2;
+    public static final int OP_LE = 3;
+    public static final int OP_LT = 4;
+    private static final String[] OP_NAMES = {"=", ">=", ">", "<=", "<"};
+    private final ObjList<String> columnNames = new ObjList<>();
+    private final IntList columnTypes = new IntList();
+    // stats entries of predicate columns in the loaded partition stats, -1 if there are none
+    private final IntList entries = new IntList();
+    private final FilesFacade ff;
+    private final IntList ops = new IntList();
+    private final Path path = new Path();
+    // lo, hi pairs of row ranges that may match the predicates
+    private final LongList rowRanges = new LongList();
+    private final String root;
+    private final PartitionStatsReader statsReader = new PartitionStatsReader();
+    private final LongList values = new LongList();
+    private final IntList writerIndexes = new IntList();
+    private int lastPartitionIndex = -1;
+    private boolean lastPartitionSkipped;
+    private TableReader reader;
+    private boolean rowRangesDescending;
+    private int rowRangeIndex;
+    private long rowsHi;
+    private long rowsLo;
+    private boolean statsLoaded;
+
+    public PartitionPruner(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.root = configuration.getRoot();
+    }
+
+    /**
+     * Adds predicate. Values of double columns are passed as raw bits.
+     */
+    public void add(CharSequence columnName, int writerIndex, int columnType, int op, long value) {
+        columnNames.add(Chars.toString(columnName));
+        writerIndexes.add(writerIndex);
+        columnTypes.add(columnType);
+        ops.add(op);
+        values.add(value);
+    }
+
+    public boolean canSkip(int partitionIndex) {
+        if (partitionIndex != lastPartitionIndex) {
+            lastPartitionSkipped = canSkip0(partitionIndex);
+            lastPartitionIndex = partitionIndex;
+        }
+        return lastPartitionSkipped;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(path);
+        Misc.free(statsReader);
+        reader = null;
+    }
+
+    public long getRowsHi() {
+        return rowsHi;
+    }
+
+    public long getRowsLo() {
+        return rowsLo;
+    }
+
+    /**
+     * Moves to the next row range set up by {@link #ofRows(int, long, long, boolean)}.
+     *
+     * @return false when there are no more row ranges, otherwise the range is available
+     * via {@link #getRowsLo()} and {@link #getRowsHi()}
+     */
+    public boolean nextRows() {
+        if (rowRangeIndex < 0 || rowRangeIndex >= rowRanges.size()) {
+            return false;
+        }
+        rowsLo = rowRanges.getQuick(rowRangeIndex);
+        rowsHi = rowRanges.getQuick(rowRangeIndex + 1);
+        rowRangeIndex += rowRangesDescending ? -2 : 2;
+        return true;
+    }
+
+    public void of(TableReader reader) {
+        this.reader = reader;
+        lastPartitionIndex = -1;
+        statsReader.clear();
+        statsLoaded = false;
+        toTop();
+    }
+
+    /**
+     * Splits [rowLo, rowHi) rows of the partition into ranges of zone map blocks that may
+     * match the predicates. Ranges are then iterated with {@link #nextRows()}, in descending
+     * order if requested. Without zone maps, the rows are returned as a single range.
+     */
+    public void ofRows(int partitionIndex, long rowLo, long rowHi, boolean descending) {
+        rowRanges.clear();
+        if (canSkip(partitionIndex)) {
+            rowRangeIndex = 0;
+            return;
+        }
+        final long blockRows = statsLoaded ? statsReader.getBlockRows() : 0;
+        if (blockRows > 0) {
+            long rangeLo = -1;
+            for (long block = rowLo / blockRows, blockHi = (rowHi - 1) / blockRows; block <= blockHi; block++) {
+                if (blockMayMatch(block)) {
+                    if (rangeLo == -1) {
+                        rangeLo = Math.max(block * blockRows, rowLo);
+                    }
+                } else if (rangeLo != -1) {
+                    rowRanges.add(rangeLo, block * blockRows);
+                    rangeLo = -1;
+                }
+            }
+            if (rangeLo != -1) {
+                rowRanges.add(rangeLo, rowHi);
+            }
+        } else {
+            rowRanges.add(rowLo, rowHi);
+        }
+        rowRangesDescending = descending;
+        rowRangeIndex = descending ? rowRanges.size() - 2 : 0;
+    }
+
+    public int size() {
+        return ops.size();
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val('[');
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            if (i > 0) {
+                sink.val(',');
+            }
+            sink.val(columnNames.getQuick(i)).val(OP_NAMES[ops.getQuick(i)]);
+            if (ColumnType.isDouble(columnTypes.getQuick(i))) {
+                sink.val(Double.longBitsToDouble(values.getQuick(i)));
+            } else {
+                sink.val(values.getQuick(i));
+            }
+        }
+        sink.val(']');
+    }
+
+    /**
+     * Discards remaining row ranges.
+     */
+    public void toTop() {
+        rowRanges.clear();
+        rowRangeIndex = 0;
+    }
+
+    private static boolean mayMatch(int op, long value, long min, long max) {
+        switch (op) {
+            case OP_EQ:
+                return value >= min && value <= max;
+            case OP_GE:
+                return max >= value;
+            case OP_GT:
+                return max > value;
+            case OP_LE:
+                return min <= value;
+            default:
+                return min < value;
+        }
+    }
+
+    private static boolean mayMatch(int op, double value, double min, double max) {
+        switch (op) {
+            case OP_EQ:
+                return value >= min && value <= max;
+            case OP_GE:
+                return max >= value;
+            case OP_GT:
+                return max > value;
+            case OP_LE:
+                return min <= value;
+            default:
+                return min < value;
+        }
+    }
+
+    private boolean blockMayMatch(long block) {
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            final int entry = entries.getQuick(i);
+            if (entry < 0) {
+                continue;
+            }
+            final boolean mayMatch = ColumnType.isDouble(columnTypes.getQuick(i))
+                    ? mayMatch(ops.getQuick(i), Double.longBitsToDouble(values.getQuick(i)), Double.longBitsToDouble(statsReader.getBlockMin(entry, block)), Double.longBitsToDouble(statsReader.getBlockMax(entry, block)))
+                    : mayMatch(ops.getQuick(i), values.getQuick(i), statsReader.getBlockMin(entry, block), statsReader.getBlockMax(entry, block));
+            if (!mayMatch) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean canSkip0(int partitionIndex) {
+        final TxReader txFile = reader.getTxFile();
+        final long partitionTimestamp = txFile.getPartitionTimestampByIndex(partitionIndex);
+        path.of(root).concat(reader.getTableToken().getDirName());
+        TableUtils.setPathForPartition(path, reader.getPartitionedBy(), partitionTimestamp, txFile.getPartitionNameTxn(partitionIndex));
+        path.concat(TableUtils.PARTITION_STATS_FILE_NAME);
+        entries.clear();
+        statsLoaded = statsReader.of(ff, path.$(), txFile.getPartitionSize(partitionIndex));
+        if (!statsLoaded) {
+            return false;
+        }
+
+        final ColumnVersionReader columnVersionReader = reader.getColumnVersionReader();
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            final int writerIndex = writerIndexes.getQuick(i);
+            final int columnType = columnTypes.getQuick(i);
+            final int entry = statsReader.findEntry(writerIndex, columnType, columnVersionReader.getColumnNameTxn(partitionTimestamp, writerIndex));
+            entries.add(entry);
+            if (entry < 0) {
+                continue;
+            }
+            if (statsReader.getNullCount(entry) == statsReader.getRowCount()) {
+                return true;
+            }
+            final boolean mayMatch = ColumnType.isDouble(columnType)
+                    ? mayMatch(ops.getQuick(i), Double.longBitsToDouble(values.getQuick(i)), Double.longBitsToDouble(statsReader.getMin(entry)), Double.longBitsToDouble(statsReader.getMax(entry)))
+                    : mayMatch(ops.getQuick(i), values.getQuick(i), statsReader.getMin(entry), statsReader.getMax(entry));
+            if (!mayMatch) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+
+/**
+ * Reads partition stats file written by {@link PartitionStatsWriter}.
+ * <p>
+ * The file consists of a header with the partition row count, the number of entries and
+ * the number of rows per zone map block, followed by an entry per fixed-size numeric column:
+ * <pre>
+ * long  - column type (low int) and writer index (high int)
+ * long  - column name txn
+ * long  - null count
+ * long  - min value, raw bits for double columns
+ * long  - max value, raw bits for double columns
+ * </pre>
+ * When the block size is not zero, entries are followed by zone maps, i.e. min/max pairs of
+ * each block of rows, for each entry in the same order. Blocks with no non-null values have
+ * min greater than max, or NaN min and max for double columns, so that nothing matches them.
+ * Stats are only valid while the partition keeps the row count they were computed for
+ * and column files keep their name txn. Callers are expected to verify both, stale
+ * stats must be ignored.
+ */
+public class PartitionStatsReader implements QuietCloseable {
+    public static final int ENTRY_LONGS = 5;
+    public static final int HEADER_LONGS = 3;
+    private static final int ENTRY_MAX_OFFSET = 4;
+    private static final int ENTRY_MIN_OFFSET = 3;
+    private static final int ENTRY_NAME_TXN_OFFSET = 1;
+    private static final int ENTRY_NULL_COUNT_OFFSET = 2;
+    private final DirectLongList buffer = new DirectLongList(HEADER_LONGS + 8 * ENTRY_LONGS, MemoryTag.NATIVE_DEFAULT);
+    private long blockCount;
+    private int entryCount;
+
+    public static boolean isSupportedColumnType(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public static long getBlockCount(long rowCount, long blockRows) {
+        return blockRows > 0 ? (rowCount + blockRows - 1) / blockRows : 0;
+    }
+
+    public void clear() {
+        entryCount = 0;
+        blockCount = 0;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(buffer);
+    }
+
+    /**
+     * Finds stats entry of the column.
+     *
+     * @return entry index or -1 if there are no valid stats for the column
+     */
+    public int findEntry(int writerIndex, int columnType, long columnNameTxn) {
+        for (int i = 0; i < entryCount; i++) {
+            final long offset = HEADER_LONGS + (long) i * ENTRY_LONGS;
+            final long typeAndIndex = buffer.get(offset);
+            if (Numbers.decodeHighInt(typeAndIndex) == writerIndex) {
+                if (Numbers.decodeLowInt(typeAndIndex) == columnType && buffer.get(offset + ENTRY_NAME_TXN_OFFSET) == columnNameTxn) {
+                    return i;
+                }
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    public long getBlockMax(int entryIndex, long blockIndex) {
+        return buffer.get(getBlockOffset(entryIndex, blockIndex) + 1);
+    }
+
+    public long getBlockMin(int entryIndex, long blockIndex) {
+        return buffer.get(getBlockOffset(entryIndex, blockIndex));
+    }
+
+    /**
+     * @return number of rows per zone map block or 0 if there are no zone maps
+     */
+    public long getBlockRows() {
+        return buffer.get(2);
+    }
+
+    public long getMax(int entryIndex) {
+        return buffer.get(HEADER_LONGS + (long) entryIndex * ENTRY_LONGS + ENTRY_MAX_OFFSET);
+    }
+
+    public long getMin(int entryIndex) {
+        return buffer.get(HEADER_LONGS + (long) entryIndex * ENTRY_LONGS + ENTRY_MIN_OFFSET);
+    }
+
+    public long getNullCount(int entryIndex) {
+        return buffer.get(HEADER_LONGS + (long) entryIndex * ENTRY_LONGS + ENTRY_NULL_COUNT_OFFSET);
+    }
+
+    public long getRowCount() {
+        return buffer.get(0);
+    }
+
+    /**
+     * Loads the stats file.
+     *
+     * @param ff            files facade
+     * @param path          path to the stats file
+     * @param partitionSize expected partition row count
+     * @return false if the file does not exist, is malformed or was written for a different row count
+     */
+    public boolean of(FilesFacade ff, LPSZ path, long partitionSize) {
+        clear();
+        final int fd = ff.openRO(path);
+        if (fd < 0) {
+            return false;
+        }
+        try {
+            final long len = ff.length(fd);
+            if (len < HEADER_LONGS * Long.BYTES || len % Long.BYTES != 0) {
+                return false;
+            }
+            final long longCount = len / Long.BYTES;
+            if (buffer.getCapacity() < longCount) {
+                buffer.setCapacity(longCount);
+            }
+            if (ff.read(fd, buffer.getAddress(), len, 0) != len) {
+                return false;
+            }
+            buffer.setPos(longCount);
+            final long entryCount = buffer.get(1);
+            final long blockCount = getBlockCount(partitionSize, buffer.get(2));
+            if (
+                    buffer.get(0) != partitionSize
+                            || entryCount < 0
+                            || buffer.get(2) < 0
+                            || longCount != HEADER_LONGS + entryCount * (ENTRY_LONGS + 2 * blockCount)
+            ) {
+                return false;
+            }
+            this.entryCount = (int) entryCount;
+            this.blockCount = blockCount;
+            return true;
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    private long getBlockOffset(int entryIndex, long blockIndex) {
+        return HEADER_LONGS + (long) entryCount * ENTRY_LONGS + 2 * (entryIndex * blockCount + blockIndex);
+    }
+}
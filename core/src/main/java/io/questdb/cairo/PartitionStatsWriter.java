@@ -0,0 +1,239 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.TableRecordMetadata;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import static io.questdb.cairo.PartitionStatsReader.*;
+
+/**
+ * Writes min/max values and null counts of fixed-size numeric columns of a partition
+ * into the partition stats file, optionally followed by zone maps, i.e. min/max values
+ * of fixed-size blocks of rows. Stats are computed from the column files as they are
+ * on disk, so the partition is expected to be committed.
+ * <p>
+ * The file is written to a temporary name and renamed, so that readers never observe
+ * a partially written file. Stale files are detected by readers, see {@link PartitionStatsReader}.
+ */
+public class PartitionStatsWriter implements QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(PartitionStatsWriter.class);
+    private final DirectLongList buffer = new DirectLongList(HEADER_LONGS + 8 * ENTRY_LONGS, MemoryTag.NATIVE_TABLE_WRITER);
+    private final Path other = new Path();
+    private final DirectLongList zoneMaps = new DirectLongList(64, MemoryTag.NATIVE_TABLE_WRITER);
+
+    @Override
+    public void close() {
+        Misc.free(buffer);
+        Misc.free(other);
+        Misc.free(zoneMaps);
+    }
+
+    /**
+     * Writes stats file of the partition.
+     *
+     * @param ff                  files facade
+     * @param path                path to the partition directory, it's restored to its original length on exit
+     * @param metadata            table writer metadata
+     * @param columnVersionReader column version reader, used to find column tops and column name txns
+     * @param partitionTimestamp  partition timestamp
+     * @param partitionSize       partition row count
+     * @param blockRows           number of rows per zone map block, 0 to skip zone maps
+     * @param fileOpenOpts        file open options
+     */
+    public void write(
+            FilesFacade ff,
+            Path path,
+            TableRecordMetadata metadata,
+            ColumnVersionReader columnVersionReader,
+            long partitionTimestamp,
+            long partitionSize,
+            long blockRows,
+            long fileOpenOpts
+    ) {
+        final int partitionPathLen = path.size();
+        try {
+            buffer.clear();
+            buffer.add(partitionSize);
+            buffer.add(0);
+            buffer.add(blockRows);
+            zoneMaps.clear();
+            int entryCount = 0;
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (!isSupportedColumnType(columnType)) {
+                    continue;
+                }
+
+                long columnTop = columnVersionReader.getColumnTop(partitionTimestamp, i);
+                if (columnTop < 0) {
+                    // column was added after the partition, all its values are null
+                    columnTop = partitionSize;
+                }
+                final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, i);
+                final long valueCount = partitionSize - columnTop;
+
+                buffer.add(Numbers.encodeLowHighInts(columnType, i));
+                buffer.add(columnNameTxn);
+                if (valueCount > 0) {
+                    TableUtils.dFile(path.trimTo(partitionPathLen), metadata.getColumnName(i), columnNameTxn);
+                    computeStats(ff, path, columnType, columnTop, valueCount, partitionSize, blockRows);
+                } else {
+                    buffer.add(partitionSize);
+                    buffer.add(0);
+                    buffer.add(0);
+                    for (long b = 0, blockCount = getBlockCount(partitionSize, blockRows); b < blockCount; b++) {
+                        addNullBlock(columnType);
+                    }
+                }
+                entryCount++;
+            }
+            buffer.set(1, entryCount);
+
+            path.trimTo(partitionPathLen).concat(TableUtils.PARTITION_STATS_FILE_NAME);
+            other.of(path).put(".tmp");
+            final long len = buffer.size() * Long.BYTES;
+            final long zoneMapsLen = zoneMaps.size() * Long.BYTES;
+            final int fd = TableUtils.openRW(ff, other.$(), LOG, fileOpenOpts);
+            try {
+                if (
+                        ff.write(fd, buffer.getAddress(), len, 0) != len
+                                || (zoneMapsLen > 0 && ff.write(fd, zoneMaps.getAddress(), zoneMapsLen, len) != zoneMapsLen)
+                ) {
+                    throw CairoException.critical(ff.errno()).put("could not write partition stats [file=").put(other).put(']');
+                }
+            } finally {
+                ff.close(fd);
+            }
+            // stats of merged partitions are rewritten, rename does not replace files on all platforms
+            ff.removeQuiet(path.$());
+            if (ff.rename(other.$(), path.$()) != Files.FILES_RENAME_OK) {
+                throw CairoException.critical(ff.errno()).put("could not rename partition stats [from=").put(other).put(", to=").put(path).put(']');
+            }
+        } finally {
+            path.trimTo(partitionPathLen);
+        }
+    }
+
+    private void addNullBlock(int columnType) {
+        if (ColumnType.isDouble(columnType)) {
+            zoneMaps.add(Double.doubleToLongBits(Double.NaN));
+            zoneMaps.add(Double.doubleToLongBits(Double.NaN));
+        } else {
+            zoneMaps.add(Long.MAX_VALUE);
+            zoneMaps.add(Long.MIN_VALUE);
+        }
+    }
+
+    private void addZoneMaps(long address, int columnType, long columnTop, long partitionSize, long blockRows) {
+        final int shift = ColumnType.pow2SizeOf(columnType);
+        for (long lo = 0; lo < partitionSize; lo += blockRows) {
+            // rows above column top are nulls and are not stored in the column file
+            final long valueLo = Math.max(lo, columnTop) - columnTop;
+            final long valueHi = Math.min(lo + blockRows, partitionSize) - columnTop;
+            if (valueHi <= valueLo) {
+                addNullBlock(columnType);
+                continue;
+            }
+            final long blockAddress = address + (valueLo << shift);
+            final long count = valueHi - valueLo;
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.INT:
+                    if (Vect.countInt(blockAddress, count) > 0) {
+                        zoneMaps.add(Vect.minInt(blockAddress, count));
+                        zoneMaps.add(Vect.maxInt(blockAddress, count));
+                    } else {
+                        addNullBlock(columnType);
+                    }
+                    break;
+                case ColumnType.DOUBLE:
+                    if (Vect.countDouble(blockAddress, count) > 0) {
+                        zoneMaps.add(Double.doubleToLongBits(Vect.minDouble(blockAddress, count)));
+                        zoneMaps.add(Double.doubleToLongBits(Vect.maxDouble(blockAddress, count)));
+                    } else {
+                        addNullBlock(columnType);
+                    }
+                    break;
+                default:
+                    if (Vect.countLong(blockAddress, count) > 0) {
+                        zoneMaps.add(Vect.minLong(blockAddress, count));
+                        zoneMaps.add(Vect.maxLong(blockAddress, count));
+                    } else {
+                        addNullBlock(columnType);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private void computeStats(FilesFacade ff, Path path, int columnType, long columnTop, long valueCount, long partitionSize, long blockRows) {
+        final long size = valueCount << ColumnType.pow2SizeOf(columnType);
+        final int fd = TableUtils.openRO(ff, path.$(), LOG);
+        long address = 0;
+        try {
+            address = TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_TABLE_WRITER);
+            final long nonNullCount;
+            long min = 0;
+            long max = 0;
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.INT:
+                    nonNullCount = Vect.countInt(address, valueCount);
+                    if (nonNullCount > 0) {
+                        min = Vect.minInt(address, valueCount);
+                        max = Vect.maxInt(address, valueCount);
+                    }
+                    break;
+                case ColumnType.DOUBLE:
+                    nonNullCount = Vect.countDouble(address, valueCount);
+                    if (nonNullCount > 0) {
+                        min = Double.doubleToLongBits(Vect.minDouble(address, valueCount));
+                        max = Double.doubleToLongBits(Vect.maxDouble(address, valueCount));
+                    }
+                    break;
+                default:
+                    nonNullCount = Vect.countLong(address, valueCount);
+                    if (nonNullCount > 0) {
+                        min = Vect.minLong(address, valueCount);
+                        max = Vect.maxLong(address, valueCount);
+                    }
+                    break;
+            }
+            buffer.add(columnTop + valueCount - nonNullCount);
+            buffer.add(min);
+            buffer.add(max);
+            if (blockRows > 0) {
+                addZoneMaps(address, columnType, columnTop, partitionSize, blockRows);
+            }
+        } finally {
+            if (address != 0) {
+                ff.munmap(address, size, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            ff.close(fd);
+        }
+    }
+}
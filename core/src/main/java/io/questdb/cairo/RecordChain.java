@@ -55,9 +55,21 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
             @NotNull RecordSink recordSink,
             long pageSize,
             int maxPages
+    ) {
+        this(columnTypes, recordSink, Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN));
+    }
+
+    /**
+     * Creates record chain on top of the given memory, e.g. a file-backed one used by
+     * queries that spill to disk. The chain takes ownership of the memory.
+     */
+    public RecordChain(
+            @Transient @NotNull ColumnTypes columnTypes,
+            @NotNull RecordSink recordSink,
+            @NotNull MemoryARW mem
     ) {
         try {
-            this.mem = Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN);
+            this.mem = mem;
             this.recordSink = recordSink;
             int count = columnTypes.getColumnCount();
             long varOffset = 0L;
@@ -122,11 +134,25 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         symbolTableResolver = null;
     }
 
+    /**
+     * Returns number of bytes occupied by the records appended to the chain.
+     */
+    public long getUsedSize() {
+        return varAppendOffset;
+    }
+
     @Override
     public long getAddress(long recordOffset, int columnIndex) {
         return addressOf(getOffsetOfColumn(recordOffset, columnIndex));
     }
 
+    /**
+     * Returns offset of the record linked after the given one, or -1 if it is the last record in its list.
+     */
+    public long getNextRecordOffset(long recordOffset) {
+        return mem.getLong(recordOffset);
+    }
+
     public long getOffsetOfColumn(long recordOffset, int columnIndex) {
         return rowToDataOffset(recordOffset) + varOffset + columnOffsets[columnIndex];
     }
@@ -161,6 +187,13 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         return false;
     }
 
+    /**
+     * Creates an extra record instance to be positioned via {@link #recordAt(Record, long)}.
+     */
+    public Record newRecord() {
+        return new RecordChainRecord();
+    }
+
     public void of(long nextRecordOffset) {
         this.nextRecordOffset = nextRecordOffset;
     }
@@ -25,8 +25,11 @@
 package io.questdb.cairo;
 
 import io.questdb.MessageBus;
+import io.questdb.cairo.parquet.Parquet;
 import io.questdb.cairo.sql.StaticSymbolTable;
 import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.MemoryCMRCompressedImpl;
+import io.questdb.cairo.vm.MemoryCMRParquetImpl;
 import io.questdb.cairo.vm.NullMemoryMR;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
@@ -834,17 +837,41 @@ public class TableReader implements Closeable, SymbolTableSource {
             ObjList<MemoryMR> columns,
             int primaryIndex,
             @Nullable MemoryMR mem,
-            long columnSize
+            long columnSize,
+            boolean compressed
     ) {
-        if (mem != null && mem != NullMemoryMR.INSTANCE) {
+        if (
+                mem != null
+                        && mem != NullMemoryMR.INSTANCE
+                        && !(mem instanceof MemoryCMRParquetImpl)
+                        && (mem instanceof MemoryCMRCompressedImpl) == compressed
+        ) {
             mem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_READER);
         } else {
-            mem = Vm.getMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER, true);
+            Misc.free(mem);
+            if (compressed) {
+                // compressed partition files are inflated lazily, on first access to the column
+                mem = Vm.getCompressedMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER);
+            } else {
+                mem = Vm.getMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER, true);
+            }
             columns.setQuick(primaryIndex, mem);
         }
         return mem;
     }
 
+    @NotNull
+    private MemoryCMRParquetImpl openParquetMemory(ObjList<MemoryMR> columns, int index) {
+        final MemoryMR mem = columns.getQuick(index);
+        if (mem instanceof MemoryCMRParquetImpl) {
+            return (MemoryCMRParquetImpl) mem;
+        }
+        Misc.free(mem);
+        final MemoryCMRParquetImpl parquetMem = Vm.getParquetMRInstance();
+        columns.setQuick(index, parquetMem);
+        return parquetMem;
+    }
+
     private long openPartition0(int partitionIndex) {
         final int offset = partitionIndex * PARTITIONS_SLOT_SIZE;
         final boolean isReopen = openPartitionInfo.getQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE) > -1L;
@@ -1068,6 +1095,9 @@ public class TableReader implements Closeable, SymbolTableSource {
                 columnTxn = columnVersionReader.getDefaultColumnNameTxn(writerIndex);
             }
             final long columnRowCount = partitionRowCount - columnTop;
+            final boolean compressed = txFile.isPartitionCompressed(partitionIndex);
+            // designated timestamp column file is kept in parquet partitions
+            final boolean parquet = txFile.isPartitionParquet(partitionIndex) && columnIndex != metadata.getTimestampIndex();
 
             // When column is added mid-table existence the top record is only
             // created in the current partition. Older partitions would simply have no
@@ -1077,12 +1107,30 @@ public class TableReader implements Closeable, SymbolTableSource {
                 final int columnType = metadata.getColumnType(columnIndex);
 
                 final MemoryMR dataMem = columns.getQuick(primaryIndex);
-                if (ColumnType.isVarSize(columnType)) {
+                if (parquet) {
+                    // parquet columns are decoded on first access, see MemoryCMRParquetImpl
+                    path.trimTo(plen).concat(Parquet.FILE_NAME);
+                    final MemoryCMRParquetImpl parquetDataMem = openParquetMemory(columns, primaryIndex);
+                    parquetDataMem.of(
+                            ff,
+                            path.$(),
+                            writerIndex,
+                            columnType,
+                            columnTop,
+                            null,
+                            ColumnType.isSymbol(columnType) ? symbolMapReaders.getQuick(columnIndex) : null
+                    );
+                    if (ColumnType.isVarSize(columnType)) {
+                        openParquetMemory(columns, secondaryIndex).of(ff, path.$(), writerIndex, columnType, columnTop, parquetDataMem, null);
+                    } else {
+                        Misc.free(columns.getAndSetQuick(secondaryIndex, null));
+                    }
+                } else if (ColumnType.isVarSize(columnType)) {
                     final ColumnTypeDriver columnTypeDriver = ColumnType.getDriver(columnType);
                     long auxSize = columnTypeDriver.getAuxVectorSize(columnRowCount);
                     TableUtils.iFile(path.trimTo(plen), name, columnTxn);
                     MemoryMR auxMem = columns.getQuick(secondaryIndex);
-                    auxMem = openOrCreateMemory(path, columns, secondaryIndex, auxMem, auxSize);
+                    auxMem = openOrCreateMemory(path, columns, secondaryIndex, auxMem, auxSize, compressed);
                     long dataSize = columnTypeDriver.getDataVectorSizeAt(auxMem.addressOf(0), columnRowCount - 1);
                     if (dataSize < columnTypeDriver.getDataVectorMinEntrySize() || dataSize >= (1L << 40)) {
                         LOG.critical().$("Invalid var len column size [column=").$(name).$(", size=").$(dataSize).$(", path=").$(path).I$();
@@ -1090,7 +1138,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                     }
                     if (columnRowCount > 0) {
                         TableUtils.dFile(path.trimTo(plen), name, columnTxn);
-                        openOrCreateMemory(path, columns, primaryIndex, dataMem, dataSize);
+                        openOrCreateMemory(path, columns, primaryIndex, dataMem, dataSize, compressed);
                     }
                 } else {
                     TableUtils.dFile(path.trimTo(plen), name, columnTxn);
@@ -1099,7 +1147,8 @@ public class TableReader implements Closeable, SymbolTableSource {
                             columns,
                             primaryIndex,
                             dataMem,
-                            columnRowCount << ColumnType.pow2SizeOf(columnType)
+                            columnRowCount << ColumnType.pow2SizeOf(columnType),
+                            compressed
                     );
                     Misc.free(columns.getAndSetQuick(secondaryIndex, null));
                 }
@@ -67,6 +67,7 @@ public final class TableUtils {
     public static final int LONGS_PER_TX_ATTACHED_PARTITION = 4;
     public static final int LONGS_PER_TX_ATTACHED_PARTITION_MSB = Numbers.msb(LONGS_PER_TX_ATTACHED_PARTITION);
     public static final long META_COLUMN_DATA_SIZE = 32;
+    public static final String MAT_VIEW_FILE_NAME = "_mv";
     public static final String META_FILE_NAME = "_meta";
     public static final long META_OFFSET_COLUMN_TYPES = 128;
     public static final long META_OFFSET_COUNT = 0;
@@ -101,6 +102,8 @@ public final class TableUtils {
     public static final String META_SWAP_FILE_NAME = "_meta.swp";
     public static final int MIN_INDEX_VALUE_BLOCK_SIZE = Numbers.ceilPow2(4);
     public static final int NULL_LEN = -1;
+    public static final String PARTITION_STATS_FILE_NAME = "_stats";
+    public static final String RETENTION_FILE_NAME = "_retention";
     public static final String SNAPSHOT_META_FILE_NAME = "_snapshot";
     public static final String SNAPSHOT_META_FILE_NAME_TXT = "_snapshot.txt";
     public static final String SYMBOL_KEY_REMAP_FILE_SUFFIX = ".r";
@@ -112,6 +115,9 @@ public final class TableUtils {
     public static final int TABLE_TYPE_NON_WAL = 0;
     public static final int TABLE_TYPE_WAL = 1;
     public static final String TAB_INDEX_FILE_NAME = "_tab_index.d";
+    // directory in a volume that holds copies of partitions moved to the volume,
+    // the copies are laid out as <volume>/_tiered/<table dir>/<partition dir>
+    public static final String TIERED_PARTITIONS_DIR_NAME = "_tiered";
     /**
      * TXN file structure
      * struct {
@@ -176,6 +182,7 @@ public final class TableUtils {
     private static final int MAX_SYMBOL_CAPACITY = Numbers.ceilPow2(Integer.MAX_VALUE);
     private static final int MAX_SYMBOL_CAPACITY_CACHED = Numbers.ceilPow2(30_000_000);
     private static final int MIN_SYMBOL_CAPACITY = 2;
+    private static final String TIERED_PARTITIONS_DIR_MARKER = Files.SEPARATOR + TIERED_PARTITIONS_DIR_NAME + Files.SEPARATOR;
 
     private TableUtils() {
     }
@@ -1556,6 +1563,33 @@ public final class TableUtils {
         return symbolKey == SymbolTable.VALUE_IS_NULL ? 0 : symbolKey + 1;
     }
 
+    /**
+     * Removes partition version directory. Partitions moved to a volume are soft links to a copy
+     * of the partition in the volume, the copy is removed along with the link.
+     *
+     * @param ff   files facade
+     * @param path path to partition version directory
+     * @param log  log to report the removal to
+     * @return true when the partition version is removed
+     */
+    public static boolean unlinkOrRemovePartition(FilesFacade ff, Path path, Log log) {
+        if (ff.isSoftLink(path)) {
+            final Path target = Path.getThreadLocal2("");
+            if (ff.readLink(path, target) && Utf8s.containsAscii(target, TIERED_PARTITIONS_DIR_MARKER)) {
+                if (ff.unlink(path) != 0) {
+                    return false;
+                }
+                if (!ff.rmdir(target)) {
+                    log.error().$("could not remove tiered partition copy [path=").$(target)
+                            .$(", errno=").$(ff.errno())
+                            .I$();
+                }
+                return true;
+            }
+        }
+        return ff.unlinkOrRemove(path, log);
+    }
+
     public static void validateIndexValueBlockSize(int position, int indexValueBlockSize) throws SqlException {
         if (indexValueBlockSize < MIN_INDEX_VALUE_BLOCK_SIZE) {
             throw SqlException.$(position, "min index block capacity is ").put(MIN_INDEX_VALUE_BLOCK_SIZE);
@@ -1730,8 +1764,8 @@ public final class TableUtils {
                 }
 
                 if (isColumnDedupKey(metaMem, i)) {
-                    if (ColumnType.isVarSize(type)) {
-                        throw validationException(metaMem).put("DEDUPLICATION KEY flag is only supported for fixed size column types").put(" at [").put(i).put(']');
+                    if (!ColumnType.isDedupKeySupported(type)) {
+                        throw validationException(metaMem).put("DEDUPLICATION KEY flag is not supported for column type ").put(ColumnType.nameOf(type)).put(" at [").put(i).put(']');
                     }
                 }
 
@@ -29,6 +29,9 @@ import io.questdb.Metrics;
 import io.questdb.cairo.frm.Frame;
 import io.questdb.cairo.frm.FrameAlgebra;
 import io.questdb.cairo.frm.file.PartitionFrameFactory;
+import io.questdb.cairo.parquet.Parquet;
+import io.questdb.cairo.parquet.PartitionParquetWriter;
+import io.questdb.cairo.retention.PartitionRetentionPolicy;
 import io.questdb.cairo.sql.AsyncWriterCommand;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.cairo.sql.TableMetadata;
@@ -153,6 +156,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final DateFormat partitionDirFmt;
     private final PartitionFrameFactory partitionFrameFactory;
     private final LongList partitionRemoveCandidates = new LongList();
+    // timestamps of partitions merged by O3 commit, their stats are rewritten after the commit
+    private final LongList partitionStatsO3Timestamps = new LongList();
     private final Path path;
     private final AtomicLong physicallyWrittenRowsSinceLastCommit = new AtomicLong();
     private final int rootLen;
@@ -198,6 +203,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private boolean lastOpenPartitionIsReadOnly;
     private long lastOpenPartitionTs = Long.MIN_VALUE;
     private long lastPartitionTimestamp;
+    private LatestByCacheRegistry latestByCacheRegistry;
     private LifecycleManager lifecycleManager;
     private int lockFd = -2;
     private long masterRef = 0L;
@@ -219,11 +225,14 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private long o3RowCount;
     private MemoryMAT o3TimestampMem;
     private MemoryARW o3TimestampMemCpy;
+    private long partitionStatsTimestampHi;
+    private PartitionStatsWriter partitionStatsWriter;
     private long partitionTimestampHi;
     private boolean performRecovery;
     private boolean processingQueue;
     private PurgingOperator purgingOperator;
     private boolean removeDirOnCancelRow = true;
+    private PartitionRetentionPolicy retentionPolicy;
     private int rowAction = ROW_ACTION_OPEN_PARTITION;
     private TableToken tableToken;
     private final ColumnTaskHandler cthAppendWalColumnToLastPartition = this::cthAppendWalColumnToLastPartition;
@@ -355,6 +364,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             configureAppendPosition();
             purgeUnusedPartitions();
             minSplitPartitionTimestamp = findMinSplitPartitionTimestamp();
+            // stats are written for partitions that stop being the last one while the writer is open
+            partitionStatsTimestampHi = txWriter.getPartitionCount() > 0 ? txWriter.getLastPartitionTimestamp() : Long.MIN_VALUE;
             clearTodoLog();
             this.slaveTxReader = new TxReader(ff);
             commandQueue = new RingQueue<>(
@@ -590,6 +601,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             throw CairoException.invalidMetadataRecoverable("column is already indexed", columnName);
         }
 
+        checkNoConvertedPartitions("add index", columnName);
+
         final int existingType = getColumnType(metaMem, columnIndex);
         LOG.info().$("adding index to '").utf8(columnName).$("' [").$(ColumnType.nameOf(existingType)).$(", path=").$(path).I$();
 
@@ -623,6 +636,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     public long apply(AbstractOperation operation, long seqTxn) {
         try {
             setSeqTxn(seqTxn);
+            invalidateLatestByCache();
             long txnBefore = getTxn();
             long rowsAffected = operation.apply(this, true);
             if (txnBefore == getTxn()) {
@@ -657,6 +671,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
 
     @Override
     public long apply(UpdateOperation operation) {
+        invalidateLatestByCache();
         return operation.apply(this, true);
     }
 
@@ -858,13 +873,14 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         ConvertOperatorImpl convertOperator = getConvertOperator();
         try {
             commit();
+            checkNoConvertedPartitions("change column type", columnName);
 
             LOG.info().$("converting column [table=").$(tableToken).$(", column=").utf8(columnName)
                     .$(", from=").$(ColumnType.nameOf(existingType))
                     .$(", to=").$(ColumnType.nameOf(newType)).I$();
 
             boolean isDedupKey = metadata.isDedupKey(existingColIndex);
-            boolean newColumnDedupKey = isDedupKey && !ColumnType.isVarSize(newType);
+            boolean newColumnDedupKey = isDedupKey && ColumnType.isDedupKeySupported(newType);
             int columnIndex = columnCount;
             long columnNameTxn = getTxn();
 
@@ -931,7 +947,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
 
                 if (isDeduplicationEnabled() && !newColumnDedupKey && isDedupKey) {
                     // Converting a column that used to be a dedup column
-                    // to a type that is not supported to be a dedup key (var size)
+                    // to a type that is not supported to be a dedup key (e.g. binary)
                     // effectively removes that column from being a dedup flag.
                     dedupColumnCommitAddresses.setDedupColumnCount(dedupColumnCommitAddresses.getColumnCount() - 1);
                 }
@@ -1041,6 +1057,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 .I$();
 
         final long committedRowCount = txWriter.getRowCount();
+        // rows older than the table's max timestamp are merged as O3, possibly replacing rows on deduplication
+        final boolean appendOnly = o3TimestampMin > txWriter.getMaxTimestamp();
         final long walSegmentId = walTxnDetails.getWalSegmentId(seqTxn);
         boolean isLastSegmentUsage = walTxnDetails.isLastSegmentUsage(seqTxn);
         boolean committed = processWalBlock(walPath, metadata.getTimestampIndex(), inOrder, rowLo, rowHi, o3TimestampMin, o3TimestampMax, mapDiffCursor, commitToTimestamp, walSegmentId, isLastSegmentUsage);
@@ -1059,9 +1077,12 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
 
             syncColumns();
             txWriter.setColumnVersion(columnVersionWriter.getVersion());
+            final long txnBefore = txWriter.getTxn();
             txWriter.commit(denseSymbolMapWriters);
+            updateLatestByCache(txnBefore, appendOnly);
 
             squashSplitPartitions(minSplitPartitionTimestamp, txWriter.maxTimestamp, configuration.getO3LastPartitionMaxSplits());
+            writePartitionStats();
 
             // Bookmark masterRef to track how many rows is in uncommitted state
             committedMasterRef = masterRef;
@@ -1081,6 +1102,410 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return 0L;
     }
 
+    /**
+     * Rewrites partition column files as deflated blocks, see {@link ColumnFileCompressor}. The compressed
+     * copy is written to a new partition version directory, the current version is purged once it is
+     * no longer used by readers. Compressed partitions are read-only, the active partition cannot be compressed.
+     *
+     * @param timestamp partition timestamp
+     * @return status of the conversion
+     */
+    public AttachDetachStatus compressPartition(long timestamp) {
+        // Should be checked by SQL compiler
+        assert metadata.getTimestampIndex() > -1;
+        assert PartitionBy.isPartitioned(partitionBy);
+
+        if (inTransaction()) {
+            LOG.info()
+                    .$("committing open transaction before applying compress partition command [table=")
+                    .utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(timestamp)
+                    .I$();
+            commit();
+        }
+
+        timestamp = txWriter.getLogicalPartitionTimestamp(timestamp);
+        if (timestamp == txWriter.getLogicalPartitionTimestamp(txWriter.getMaxTimestamp())) {
+            return AttachDetachStatus.CONVERT_ERR_ACTIVE;
+        }
+
+        final int partitionIndex = txWriter.getPartitionIndex(timestamp);
+        if (partitionIndex < 0) {
+            return AttachDetachStatus.CONVERT_ERR_MISSING_PARTITION;
+        }
+
+        if (txWriter.isPartitionCompressed(partitionIndex)) {
+            LOG.info().$("partition is already compressed [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(timestamp)
+                    .I$();
+            return AttachDetachStatus.OK;
+        }
+
+        if (snapshotAgent.isInProgress()) {
+            // the snapshot may be referencing the partition directory we are about to purge
+            return AttachDetachStatus.CONVERT_ERR_SNAPSHOT;
+        }
+
+        // compressed partition is written as a whole, squash it into single folder if required
+        squashPartitionForce(partitionIndex);
+
+        final long partitionNameTxn = txWriter.getPartitionNameTxn(partitionIndex);
+        final long partitionSize = txWriter.getPartitionSize(partitionIndex);
+        setPathForPartition(path.trimTo(rootLen), partitionBy, timestamp, partitionNameTxn);
+        setPathForPartition(other.trimTo(rootLen), partitionBy, timestamp, txWriter.txn);
+        try {
+            // link all partition files to the new partition version, this brings
+            // across index and stats files, column files are then replaced by compressed copies
+            if (ff.hardLinkDirRecursive(path, other, configuration.getMkDirMode()) != 0) {
+                if (!ff.isCrossDeviceCopyError(ff.errno()) || ff.copyRecursive(path, other, configuration.getMkDirMode()) != 0) {
+                    throw CairoException.critical(ff.errno()).put("could not copy partition [from=").put(path)
+                            .put(", to=").put(other)
+                            .put(']');
+                }
+            }
+
+            final int plen = path.size();
+            final int olen = other.size();
+            long uncompressedSize = 0;
+            long compressedSize = 0;
+            try (ColumnFileCompressor compressor = new ColumnFileCompressor(ColumnFileCompressor.DEFAULT_BLOCK_SIZE)) {
+                for (int i = 0; i < columnCount; i++) {
+                    final int columnType = metadata.getColumnType(i);
+                    if (columnType > 0) {
+                        final CharSequence columnName = metadata.getColumnName(i);
+                        final long columnNameTxn = columnVersionWriter.getColumnNameTxn(timestamp, i);
+                        dFile(path.trimTo(plen), columnName, columnNameTxn);
+                        if (ff.exists(path)) {
+                            uncompressedSize += ff.length(path);
+                            compressedSize += compressColumnFile(compressor, dFile(other.trimTo(olen), columnName, columnNameTxn));
+                        }
+                        if (ColumnType.isVarSize(columnType)) {
+                            iFile(path.trimTo(plen), columnName, columnNameTxn);
+                            if (ff.exists(path)) {
+                                uncompressedSize += ff.length(path);
+                                compressedSize += compressColumnFile(compressor, iFile(other.trimTo(olen), columnName, columnNameTxn));
+                            }
+                        }
+                    }
+                }
+            }
+
+            LOG.info().$("compressed partition [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$(formatPartitionForTimestamp(timestamp, txWriter.txn))
+                    .$(", uncompressedSize=").$(uncompressedSize)
+                    .$(", compressedSize=").$(compressedSize)
+                    .I$();
+        } catch (Throwable th) {
+            LOG.error().$("could not compress partition [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(timestamp)
+                    .$(", error=").$(th)
+                    .I$();
+            setPathForPartition(other.trimTo(rootLen), partitionBy, timestamp, txWriter.txn);
+            if (!ff.rmdir(other.$())) {
+                LOG.error().$("could not remove partition copy [path=").$(other).I$();
+            }
+            throw th;
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+
+        txWriter.updatePartitionSizeAndTxnByRawIndex(partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION, partitionSize);
+        txWriter.setPartitionCompressed(partitionIndex, true);
+        txWriter.setPartitionReadOnly(partitionIndex, true);
+        txWriter.bumpPartitionTableVersion();
+        partitionRemoveCandidates.add(timestamp, partitionNameTxn);
+        txWriter.commit(denseSymbolMapWriters);
+        processPartitionRemoveCandidates();
+        return AttachDetachStatus.OK;
+    }
+
+    /**
+     * Writes partition columns into a Parquet file, see {@link PartitionParquetWriter}. The file and the
+     * designated timestamp column file, index and stats files are kept in a new partition version directory,
+     * the current version is purged once it is no longer used by readers. Row groups have as many rows as
+     * page frames, partition stats, when enabled, are re-written with zone map blocks of the same size, so
+     * that row groups can be pruned by the zone maps. Parquet partitions are read-only, the active partition
+     * cannot be converted.
+     *
+     * @param timestamp partition timestamp
+     * @return status of the conversion
+     */
+    public AttachDetachStatus convertPartitionToParquet(long timestamp) {
+        // Should be checked by SQL compiler
+        assert metadata.getTimestampIndex() > -1;
+        assert PartitionBy.isPartitioned(partitionBy);
+
+        if (inTransaction()) {
+            LOG.info()
+                    .$("committing open transaction before applying convert partition to parquet command [table=")
+                    .utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(timestamp)
+                    .I$();
+            commit();
+        }
+
+        timestamp = txWriter.getLogicalPartitionTimestamp(timestamp);
+        if (timestamp == txWriter.getLogicalPartitionTimestamp(txWriter.getMaxTimestamp())) {
+            return AttachDetachStatus.CONVERT_ERR_ACTIVE;
+        }
+
+        final int partitionIndex = txWriter.getPartitionIndex(timestamp);
+        if (partitionIndex < 0) {
+            return AttachDetachStatus.CONVERT_ERR_MISSING_PARTITION;
+        }
+
+        if (txWriter.isPartitionParquet(partitionIndex)) {
+            LOG.info().$("partition is already converted to parquet [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(timestamp)
+                    .I$();
+            return AttachDetachStatus.OK;
+        }
+
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (columnType > 0 && !Parquet.isSupportedColumnType(columnType)) {
+                LOG.error().$("column type is not supported by parquet [table=").utf8(tableToken.getTableName())
+                        .$(", column=").utf8(metadata.getColumnName(i))
+                        .$(", type=").$(ColumnType.nameOf(columnType))
+                        .I$();
+                return AttachDetachStatus.CONVERT_ERR_UNSUPPORTED_TYPE;
+            }
+        }
+
+        if (snapshotAgent.isInProgress()) {
+            // the snapshot may be referencing the partition directory we are about to purge
+            return AttachDetachStatus.CONVERT_ERR_SNAPSHOT;
+        }
+
+        // parquet file is written for the partition as a whole, squash it into single folder if required
+        squashPartitionForce(partitionIndex);
+
+        final long partitionNameTxn = txWriter.getPartitionNameTxn(partitionIndex);
+        final long partitionSize = txWriter.getPartitionSize(partitionIndex);
+        final long rowGroupRows = configuration.getSqlPageFrameMaxRows();
+        setPathForPartition(path.trimTo(rootLen), partitionBy, timestamp, partitionNameTxn);
+        setPathForPartition(other.trimTo(rootLen), partitionBy, timestamp, txWriter.txn);
+        try {
+            // link all partition files to the new partition version, this brings
+            // across index and stats files, column files other than the designated
+            // timestamp are removed once the parquet file is written
+            if (ff.hardLinkDirRecursive(path, other, configuration.getMkDirMode()) != 0) {
+                if (!ff.isCrossDeviceCopyError(ff.errno()) || ff.copyRecursive(path, other, configuration.getMkDirMode()) != 0) {
+                    throw CairoException.critical(ff.errno()).put("could not copy partition [from=").put(path)
+                            .put(", to=").put(other)
+                            .put(']');
+                }
+            }
+
+            final int olen = other.size();
+            if (configuration.isPartitionStatsEnabled() && !txWriter.isPartitionCompressed(partitionIndex)) {
+                // align zone map blocks with row groups, stats file is re-written
+                // rather than updated in place, the source partition may share it
+                other.concat(PARTITION_STATS_FILE_NAME);
+                if (ff.exists(other.$()) && !ff.removeQuiet(other.$())) {
+                    throw CairoException.critical(ff.errno()).put("could not remove [file=").put(other).put(']');
+                }
+                if (partitionStatsWriter == null) {
+                    partitionStatsWriter = new PartitionStatsWriter();
+                }
+                partitionStatsWriter.write(
+                        ff,
+                        other.trimTo(olen),
+                        metadata,
+                        columnVersionWriter,
+                        timestamp,
+                        partitionSize,
+                        rowGroupRows,
+                        configuration.getWriterFileOpenOpts()
+                );
+            }
+
+            final long parquetSize;
+            try (
+                    TableReader reader = new TableReader(configuration, tableToken);
+                    PartitionParquetWriter parquetWriter = new PartitionParquetWriter()
+            ) {
+                final int readerPartitionIndex = reader.getPartitionIndexByTimestamp(timestamp);
+                if (readerPartitionIndex < 0 || reader.getPartitionTimestampByIndex(readerPartitionIndex) != timestamp) {
+                    throw CairoException.critical(0).put("partition is not found by reader [table=").put(tableToken.getTableName())
+                            .put(", partition=").ts(timestamp)
+                            .put(']');
+                }
+                parquetSize = parquetWriter.write(
+                        reader,
+                        readerPartitionIndex,
+                        ff,
+                        other.trimTo(olen).concat(Parquet.FILE_NAME).$(),
+                        rowGroupRows,
+                        configuration.getCommitMode()
+                );
+            }
+
+            long columnFilesSize = 0;
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (columnType > 0 && i != metadata.getTimestampIndex()) {
+                    final CharSequence columnName = metadata.getColumnName(i);
+                    final long columnNameTxn = columnVersionWriter.getColumnNameTxn(timestamp, i);
+                    columnFilesSize += removeColumnFileLink(dFile(other.trimTo(olen), columnName, columnNameTxn));
+                    if (ColumnType.isVarSize(columnType)) {
+                        columnFilesSize += removeColumnFileLink(iFile(other.trimTo(olen), columnName, columnNameTxn));
+                    }
+                }
+            }
+
+            LOG.info().$("converted partition to parquet [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$(formatPartitionForTimestamp(timestamp, txWriter.txn))
+                    .$(", columnFilesSize=").$(columnFilesSize)
+                    .$(", parquetSize=").$(parquetSize)
+                    .I$();
+        } catch (Throwable th) {
+            LOG.error().$("could not convert partition to parquet [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(timestamp)
+                    .$(", error=").$(th)
+                    .I$();
+            setPathForPartition(other.trimTo(rootLen), partitionBy, timestamp, txWriter.txn);
+            if (!ff.rmdir(other.$())) {
+                LOG.error().$("could not remove partition copy [path=").$(other).I$();
+            }
+            throw th;
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+
+        txWriter.updatePartitionSizeAndTxnByRawIndex(partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION, partitionSize);
+        txWriter.setPartitionParquet(partitionIndex, true);
+        txWriter.setPartitionReadOnly(partitionIndex, true);
+        txWriter.bumpPartitionTableVersion();
+        partitionRemoveCandidates.add(timestamp, partitionNameTxn);
+        txWriter.commit(denseSymbolMapWriters);
+        processPartitionRemoveCandidates();
+        return AttachDetachStatus.OK;
+    }
+
+    /**
+     * Moves partition to a volume. The partition directory is copied into the volume, the new partition
+     * version is a soft link to the copy and the current version is purged once it is no longer used by
+     * readers. Partitions on a volume are read-only, the active partition cannot be moved.
+     *
+     * @param timestamp   partition timestamp
+     * @param volumeAlias alias of the volume, see {@link io.questdb.VolumeDefinitions}
+     * @return status of the move
+     */
+    public AttachDetachStatus convertPartitionToVolume(long timestamp, CharSequence volumeAlias) {
+        // Should be checked by SQL compiler
+        assert metadata.getTimestampIndex() > -1;
+        assert PartitionBy.isPartitioned(partitionBy);
+
+        if (inTransaction()) {
+            LOG.info()
+                    .$("committing open transaction before applying convert partition to volume command [table=")
+                    .utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(timestamp)
+                    .I$();
+            commit();
+        }
+
+        timestamp = txWriter.getLogicalPartitionTimestamp(timestamp);
+        if (timestamp == txWriter.getLogicalPartitionTimestamp(txWriter.getMaxTimestamp())) {
+            return AttachDetachStatus.CONVERT_ERR_ACTIVE;
+        }
+
+        int partitionIndex = txWriter.getPartitionIndex(timestamp);
+        if (partitionIndex < 0) {
+            return AttachDetachStatus.CONVERT_ERR_MISSING_PARTITION;
+        }
+
+        final CharSequence volumePath = configuration.getVolumeDefinitions().resolveAlias(volumeAlias);
+        if (volumePath == null) {
+            LOG.error().$("volume alias is not defined [table=").utf8(tableToken.getTableName())
+                    .$(", alias=").$(volumeAlias)
+                    .I$();
+            return AttachDetachStatus.CONVERT_ERR_UNKNOWN_VOLUME;
+        }
+
+        Path tierPath = Path.getThreadLocal(volumePath).concat(TIERED_PARTITIONS_DIR_NAME).concat(tableToken.getDirName());
+        final int tierDirLen = tierPath.size();
+        try {
+            setPathForPartition(path.trimTo(rootLen), partitionBy, timestamp, txWriter.getPartitionNameTxn(partitionIndex));
+            if (ff.isSoftLink(path.$())) {
+                final Path linkTarget = Path.getThreadLocal2("");
+                if (ff.readLink(path, linkTarget) && Utf8s.startsWith(linkTarget, tierPath.slash())) {
+                    LOG.info().$("partition is already on the volume [table=").utf8(tableToken.getTableName())
+                            .$(", partition=").$ts(timestamp)
+                            .$(", volume=").$(volumeAlias)
+                            .I$();
+                    return AttachDetachStatus.OK;
+                }
+            }
+        } finally {
+            path.trimTo(rootLen);
+            tierPath.trimTo(tierDirLen);
+        }
+
+        if (snapshotAgent.isInProgress()) {
+            // the snapshot may be referencing the partition directory we are about to purge
+            return AttachDetachStatus.CONVERT_ERR_SNAPSHOT;
+        }
+
+        // partition is copied as a whole, squash it into single folder if required
+        squashPartitionForce(partitionIndex);
+        partitionIndex = txWriter.getPartitionIndex(timestamp);
+
+        final long partitionNameTxn = txWriter.getPartitionNameTxn(partitionIndex);
+        final long partitionSize = txWriter.getPartitionSize(partitionIndex);
+        tierPath = Path.getThreadLocal(volumePath).concat(TIERED_PARTITIONS_DIR_NAME).concat(tableToken.getDirName());
+        if (ff.mkdirs(tierPath.slash(), configuration.getMkDirMode()) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create volume directory [path=").put(tierPath).put(']');
+        }
+        setPathForPartition(path.trimTo(rootLen), partitionBy, timestamp, partitionNameTxn);
+        setPathForPartition(other.trimTo(rootLen), partitionBy, timestamp, txWriter.txn);
+        setPathForPartition(tierPath.trimTo(tierDirLen), partitionBy, timestamp, txWriter.txn);
+        try {
+            if (ff.copyRecursive(path, tierPath, configuration.getMkDirMode()) != 0) {
+                throw CairoException.critical(ff.errno()).put("could not copy partition [from=").put(path)
+                        .put(", to=").put(tierPath)
+                        .put(']');
+            }
+            if (ff.softLink(tierPath.$(), other.$()) != 0) {
+                throw CairoException.critical(ff.errno()).put("could not create soft link [src=").put(tierPath)
+                        .put(", softLink=").put(other)
+                        .put(']');
+            }
+            LOG.info().$("moved partition to volume [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$(formatPartitionForTimestamp(timestamp, txWriter.txn))
+                    .$(", volume=").$(volumeAlias)
+                    .$(", path=").$(tierPath)
+                    .I$();
+        } catch (Throwable th) {
+            LOG.error().$("could not move partition to volume [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(timestamp)
+                    .$(", volume=").$(volumeAlias)
+                    .$(", error=").$(th)
+                    .I$();
+            if (ff.isSoftLink(other.$()) && ff.unlink(other.$()) != 0) {
+                LOG.error().$("could not remove partition link [path=").$(other).I$();
+            }
+            if (!ff.rmdir(tierPath.$())) {
+                LOG.error().$("could not remove partition copy [path=").$(tierPath).I$();
+            }
+            throw th;
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+
+        txWriter.updatePartitionSizeAndTxnByRawIndex(partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION, partitionSize);
+        txWriter.setPartitionReadOnly(partitionIndex, true);
+        txWriter.bumpPartitionTableVersion();
+        partitionRemoveCandidates.add(timestamp, partitionNameTxn);
+        txWriter.commit(denseSymbolMapWriters);
+        processPartitionRemoveCandidates();
+        return AttachDetachStatus.OK;
+    }
+
     public void destroy() {
         // Closes all the files and makes this instance unusable e.g. it cannot return to the pool on close.
         LOG.info().$("closing table files [table=").utf8(tableToken.getTableName())
@@ -1114,6 +1539,14 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             return AttachDetachStatus.DETACH_ERR_MISSING_PARTITION;
         }
 
+        if (txWriter.isPartitionCompressed(partitionIndex)) {
+            return AttachDetachStatus.DETACH_ERR_COMPRESSED;
+        }
+
+        if (txWriter.isPartitionParquet(partitionIndex)) {
+            return AttachDetachStatus.DETACH_ERR_PARQUET;
+        }
+
         // To detach the partition, squash it into single folder if required
         squashPartitionForce(partitionIndex);
 
@@ -1343,7 +1776,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 }
 
                 int columnType = metadata.getColumnType(dedupColIndex);
-                if (ColumnType.isVarSize(columnType)) {
+                if (!ColumnType.isDedupKeySupported(columnType)) {
                     throw CairoException.critical(0).put("Unsupported column type used as deduplicate key [table=")
                             .put(tableToken.getTableName())
                             .put(", column=").put(getColumnNameSafe(dedupColIndex))
@@ -2209,6 +2642,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         txWriter.setExtensionListener(listener);
     }
 
+    public void setLatestByCacheRegistry(LatestByCacheRegistry latestByCacheRegistry) {
+        this.latestByCacheRegistry = latestByCacheRegistry;
+    }
+
     public void setLifecycleManager(LifecycleManager lifecycleManager) {
         this.lifecycleManager = lifecycleManager;
     }
@@ -2255,6 +2692,24 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    public void setRetentionTieringAge(long tieringAgeUs) {
+        final PartitionRetentionPolicy policy = readRetentionPolicy();
+        policy.setTieringAge(tieringAgeUs);
+        writeRetentionPolicy(policy);
+    }
+
+    public void setRetentionTieringVolume(CharSequence volumeAlias) {
+        final PartitionRetentionPolicy policy = readRetentionPolicy();
+        policy.setTieringVolume(volumeAlias);
+        writeRetentionPolicy(policy);
+    }
+
+    public void setRetentionTtl(long ttlUs) {
+        final PartitionRetentionPolicy policy = readRetentionPolicy();
+        policy.setTtl(ttlUs);
+        writeRetentionPolicy(policy);
+    }
+
     public void setSeqTxn(long seqTxn) {
         assert txWriter.getLagRowCount() == 0 && txWriter.getLagTxnCount() == 0;
         txWriter.setSeqTxn(seqTxn);
@@ -3120,6 +3575,19 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         throw new CairoError("Table '" + tableToken.getTableName() + "' is distressed");
     }
 
+    private void checkNoConvertedPartitions(CharSequence operation, CharSequence columnName) {
+        for (int i = 0, n = txWriter.getPartitionCount(); i < n; i++) {
+            final boolean compressed = txWriter.isPartitionCompressed(i);
+            if (compressed || txWriter.isPartitionParquet(i)) {
+                throw CairoException.nonCritical().put("cannot ").put(operation)
+                        .put(", table has ").put(compressed ? "compressed" : "parquet").put(" partitions [table=").put(tableToken.getTableName())
+                        .put(", column=").put(columnName)
+                        .put(", partition=").ts(txWriter.getPartitionTimestampByIndex(i))
+                        .put(']');
+            }
+        }
+    }
+
     private void checkO3Errors() {
         if (o3ErrorCount.get() > 0) {
             if (lastErrno == O3_ERRNO_FATAL) {
@@ -3286,10 +3754,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             syncColumns();
             columnVersionWriter.commit();
             txWriter.setColumnVersion(columnVersionWriter.getVersion());
+            final long txnBefore = txWriter.getTxn();
             txWriter.commit(denseSymbolMapWriters);
+            updateLatestByCache(txnBefore, !o3);
 
             // Check if partitions are split into too many pieces and merge few of them back.
             squashSplitPartitions(minSplitPartitionTimestamp, txWriter.getMaxTimestamp(), configuration.getO3LastPartitionMaxSplits());
+            writePartitionStats();
 
             // Bookmark masterRef to track how many rows is in uncommitted state
             this.committedMasterRef = masterRef;
@@ -3308,6 +3779,15 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return TableSequencer.NO_TXN;
     }
 
+    // compresses column file at "path" into "to", the latter may be hard linked to the former
+    private long compressColumnFile(ColumnFileCompressor compressor, LPSZ to) {
+        // remove the link first, compressor would otherwise truncate the source file
+        if (ff.exists(to) && !ff.removeQuiet(to)) {
+            throw CairoException.critical(ff.errno()).put("could not remove [file=").put(to).put(']');
+        }
+        return compressor.compress(ff, path, to, configuration.getCommitMode());
+    }
+
     private void configureAppendPosition() {
         final boolean partitioned = PartitionBy.isPartitioned(partitionBy);
         if (this.txWriter.getMaxTimestamp() > Long.MIN_VALUE || !partitioned) {
@@ -4259,12 +4739,18 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         LOG.info().$("WAL dedup sorted commit index [table=").$(tableToken).$(", totalRows=").$(longIndexLength).$(", lagRows=").$(lagRows).I$();
         int dedupKeyIndex = 0;
         long dedupCommitAddr = 0;
+        boolean varSizeKeys = false;
         try {
             if (dedupColumnCommitAddresses.getColumnCount() > 0) {
                 dedupCommitAddr = dedupColumnCommitAddresses.allocateBlock();
                 for (int i = 0; i < metadata.getColumnCount(); i++) {
                     int columnType = metadata.getColumnType(i);
                     if (i != metadata.getTimestampIndex() && columnType > 0 && metadata.isDedupKey(i)) {
+                        if (ColumnType.isVarSize(columnType)) {
+                            varSizeKeys = true;
+                            setVarSizeKeyValues(i, columnType, lagRows, dedupCommitAddr, dedupKeyIndex++);
+                            continue;
+                        }
                         int shl = ColumnType.pow2SizeOf(columnType);
                         long lagMemOffset = lagRows > 0 ? (txWriter.getTransientRowCount() - getColumnTop(i)) << shl : 0L;
                         long lagMapSize = lagRows << shl;
@@ -4290,6 +4776,17 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     }
                 }
             }
+            if (varSizeKeys) {
+                return VarSizeKeyDedup.dedupSortedTimestampIndexChecked(
+                        indexSrcAddr,
+                        longIndexLength,
+                        indexDstAddr,
+                        tempIndexAddr,
+                        dedupKeyIndex,
+                        dedupColumnCommitAddresses.getAddress(dedupCommitAddr),
+                        dedupColumnCommitAddresses.getVarAddress(dedupCommitAddr)
+                );
+            }
             return Vect.dedupSortedTimestampIndexIntKeysChecked(
                     indexSrcAddr,
                     longIndexLength,
@@ -4307,6 +4804,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     long mapSize = dedupColumnCommitAddresses.getColReserved3(dedupCommitAddr, i);
 
                     mapAppendColumnBufferRelease(lagAddr, lagMemOffset, mapSize);
+
+                    if (varSizeKeys) {
+                        long lagDataAddr = dedupColumnCommitAddresses.getColVarReserved1(dedupCommitAddr, i);
+                        long lagDataOffset = dedupColumnCommitAddresses.getColVarReserved2(dedupCommitAddr, i);
+                        long dataMapSize = dedupColumnCommitAddresses.getColVarReserved3(dedupCommitAddr, i);
+                        mapAppendColumnBufferRelease(lagDataAddr, lagDataOffset, dataMapSize);
+                    }
                 }
             }
             dedupColumnCommitAddresses.clear();
@@ -4384,6 +4888,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         closeWalFiles();
         updateOperatorImpl = Misc.free(updateOperatorImpl);
         convertOperatorImpl = Misc.free(convertOperatorImpl);
+        partitionStatsWriter = Misc.free(partitionStatsWriter);
         dropIndexOperator = null;
         noOpRowCount = 0L;
         lastOpenPartitionTs = Long.MIN_VALUE;
@@ -4416,6 +4921,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             LOG.error().$("partition is already removed [path=").$(path).$(", partitionTimestamp=").$ts(timestamp).I$();
             return false;
         }
+        invalidateLatestByCache();
 
         final long partitionNameTxn = txWriter.getPartitionNameTxnByPartitionTimestamp(timestamp);
 
@@ -4434,6 +4940,15 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             } else {
                 final int prevIndex = index - 1;
                 prevTimestamp = txWriter.getPartitionTimestampByIndex(prevIndex);
+                if (txWriter.isPartitionCompressed(prevIndex) || txWriter.isPartitionParquet(prevIndex)) {
+                    // the previous partition would become active, converted partitions cannot be appended to
+                    throw CairoException.nonCritical().put("cannot drop active partition, previous partition is ")
+                            .put(txWriter.isPartitionCompressed(prevIndex) ? "compressed" : "parquet")
+                            .put(" [table=")
+                            .put(tableToken.getTableName())
+                            .put(", partition=").ts(prevTimestamp)
+                            .put(']');
+                }
                 newTransientRowCount = txWriter.getPartitionSize(prevIndex);
                 try {
                     setPathForPartition(path.trimTo(rootLen), partitionBy, prevTimestamp, txWriter.getPartitionNameTxn(prevIndex));
@@ -4887,6 +5402,15 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         txWriter.initLastPartition(ts);
     }
 
+    private void invalidateLatestByCache() {
+        if (latestByCacheRegistry != null) {
+            final LatestByCache cache = latestByCacheRegistry.get(tableToken);
+            if (cache != null) {
+                cache.invalidate();
+            }
+        }
+    }
+
     private boolean isEmptyTable() {
         return txWriter.getPartitionCount() == 0 && txWriter.getLagRowCount() == 0;
     }
@@ -5329,6 +5853,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     partitionIndexRaw = txWriter.findAttachedPartitionRawIndexByLoTimestamp(partitionTimestamp);
                 }
 
+                if (partitionTimestamp < lastPartitionTimestamp && configuration.isPartitionStatsEnabled()) {
+                    partitionStatsO3Timestamps.add(partitionTimestamp);
+                }
+
                 if (partitionTimestamp == lastPartitionTimestamp && newPartitionTimestamp == partitionTimestamp) {
                     if (partitionMutates) {
                         // Last partition is rewritten.
@@ -6198,7 +6726,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                             txn
                     );
                     other.$();
-                    if (!ff.unlinkOrRemove(other, LOG)) {
+                    if (!unlinkOrRemovePartition(ff, other, LOG)) {
                         LOG.info()
                                 .$("could not purge partition version, async purge will be scheduled [path=").$(other)
                                 .$(", errno=").$(ff.errno()).I$();
@@ -6273,6 +6801,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         try {
             dFile(other, metadata.getColumnName(metadata.getTimestampIndex()), COLUMN_NAME_TXN_NONE);
             if (ff.exists(other)) {
+                if (txWriter.isPartitionCompressedByPartitionTimestamp(partitionTimestamp)) {
+                    try (MemoryMR mem = Vm.getCompressedMRInstance(ff, other, Long.BYTES, MemoryTag.MMAP_TABLE_WRITER)) {
+                        return mem.getLong(0);
+                    }
+                }
                 // read min timestamp value
                 final int fd = TableUtils.openRO(ff, other, LOG);
                 try {
@@ -6388,6 +6921,18 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
 
     // This method is useful for debugging, it's not used in production code.
     @SuppressWarnings("unused")
+    private PartitionRetentionPolicy readRetentionPolicy() {
+        if (retentionPolicy == null) {
+            retentionPolicy = new PartitionRetentionPolicy();
+        }
+        try {
+            retentionPolicy.read(ff, path.trimTo(rootLen).concat(RETENTION_FILE_NAME).$());
+        } finally {
+            path.trimTo(rootLen);
+        }
+        return retentionPolicy;
+    }
+
     private long readTimestampRaw(long transientRowCount) {
         long offset = (transientRowCount - 1) * 8;
         long addr = mapAppendColumnBuffer(getPrimaryColumn(metadata.getTimestampIndex()), offset, 8, false);
@@ -6586,6 +7131,18 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return o3ColumnOverrides;
     }
 
+    // removes link to column file from partition copy, returns the file size
+    private long removeColumnFileLink(LPSZ name) {
+        if (!ff.exists(name)) {
+            return 0;
+        }
+        final long size = ff.length(name);
+        if (!ff.removeQuiet(name)) {
+            throw CairoException.critical(ff.errno()).put("could not remove [file=").put(name).put(']');
+        }
+        return size;
+    }
+
     private void removeColumnFiles(int columnIndex, int columnType) {
         PurgingOperator purgingOperator = getPurgingOperator();
         long defaultNameTxn = columnVersionWriter.getDefaultColumnNameTxn(columnIndex);
@@ -7144,6 +7701,46 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         TableUtils.setPathForPartition(path, partitionBy, timestamp, partitionTxnName);
     }
 
+    // maps lag buffers of var-size dedup key column, aux vectors are set in the key record
+    // and data vectors are set in the var-size record of the key
+    private void setVarSizeKeyValues(int columnIndex, int columnType, long lagRows, long dedupCommitAddr, int dedupKeyIndex) {
+        final ColumnTypeDriver driver = ColumnType.getDriver(columnType);
+        final int primaryIndex = getPrimaryColumnIndex(columnIndex);
+        final int secondaryIndex = getSecondaryColumnIndex(columnIndex);
+
+        final long lagAuxOffset = lagRows > 0 ? driver.getAuxVectorOffset(txWriter.getTransientRowCount() - getColumnTop(columnIndex)) : 0L;
+        final long lagAuxSize = lagRows > 0 ? driver.getAuxVectorSize(lagRows) : 0L;
+        final long lagAuxAddr = lagRows > 0 ? mapAppendColumnBuffer(columns.get(secondaryIndex), lagAuxOffset, lagAuxSize, false) : 0L;
+        final long o3AuxAddr = o3Columns.get(secondaryIndex).addressOf(0);
+        assert o3AuxAddr != 0;
+        dedupColumnCommitAddresses.setArrayValues(
+                dedupCommitAddr,
+                dedupKeyIndex,
+                columnType,
+                ColumnType.sizeOf(columnType),
+                0L,
+                o3AuxAddr,
+                Math.abs(lagAuxAddr),
+                lagAuxAddr,
+                lagAuxOffset,
+                lagAuxSize
+        );
+
+        final long lagDataBegin = lagRows > 0 ? driver.getDataVectorOffset(Math.abs(lagAuxAddr), 0) : 0L;
+        final long lagDataSize = lagRows > 0 ? driver.getDataVectorSizeAt(Math.abs(lagAuxAddr), lagRows - 1) - lagDataBegin : 0L;
+        final long lagDataAddr = lagDataSize > 0 ? mapAppendColumnBuffer(columns.get(primaryIndex), lagDataBegin, lagDataSize, false) : 0L;
+        // aux vectors store data offsets from the beginning of the column file
+        dedupColumnCommitAddresses.setVarDataValues(
+                dedupCommitAddr,
+                dedupKeyIndex,
+                o3Columns.get(primaryIndex).addressOf(0),
+                Math.abs(lagDataAddr) - lagDataBegin,
+                lagDataAddr,
+                lagDataBegin,
+                lagDataSize
+        );
+    }
+
     private void shrinkO3Mem() {
         for (int i = 0, n = o3MemColumns1.size(); i < n; i++) {
             MemoryCARW o3mem = o3MemColumns1.getQuick(i);
@@ -7450,6 +8047,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
 
     private void truncate(boolean keepSymbolTables) {
         rollback();
+        invalidateLatestByCache();
 
         if (!keepSymbolTables) {
             // we do this before size check so that "old" corrupt symbol tables are brought back in line
@@ -7631,6 +8229,82 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    // Applies rows appended by the commit to the latest by cache of the table, if there is one.
+    // Commits that may have moved or replaced rows invalidate the cache instead.
+    private void updateLatestByCache(long txnBefore, boolean appendOnly) {
+        if (latestByCacheRegistry == null) {
+            return;
+        }
+        final LatestByCache cache = latestByCacheRegistry.get(tableToken);
+        if (cache == null) {
+            return;
+        }
+        synchronized (cache) {
+            if (cache.getTxn() == txWriter.getTxn()) {
+                // a query has already stored the cache at this txn
+                return;
+            }
+            if (!appendOnly || cache.getTxn() != txnBefore || !cache.isAppendedBy(txWriter)) {
+                cache.invalidate();
+                return;
+            }
+            try {
+                final int cachedCount = cache.getPartitionCount();
+                for (int i = Math.max(cachedCount - 1, 0), n = txWriter.getPartitionCount(); i < n; i++) {
+                    final long rowLo = i == cachedCount - 1 ? cache.getPartitionSize(i) : 0;
+                    final long rowHi = i == n - 1 ? txWriter.getTransientRowCount() : txWriter.getPartitionSize(i);
+                    if (rowLo < rowHi) {
+                        updateLatestByCache(cache, i, rowLo, rowHi);
+                    }
+                }
+                cache.saveState(txWriter);
+            } catch (CairoException e) {
+                // the cache is optional, the next query rebuilds it
+                cache.invalidate();
+                LOG.error().$("could not update latest by cache [table=").utf8(tableToken.getTableName())
+                        .$(", msg=").$(e.getFlyweightMessage())
+                        .$(", errno=").$(e.getErrno())
+                        .I$();
+            } finally {
+                path.trimTo(rootLen);
+            }
+        }
+    }
+
+    private void updateLatestByCache(LatestByCache cache, int partitionIndex, long rowLo, long rowHi) {
+        final int columnIndex = cache.getColumnIndex();
+        final long partitionTimestamp = txWriter.getPartitionTimestampByIndex(partitionIndex);
+        long columnTop = columnVersionWriter.getColumnTop(partitionTimestamp, columnIndex);
+        if (columnTop < 0 || columnTop > rowHi) {
+            // column was added after the partition, all its values are null
+            columnTop = rowHi;
+        }
+        if (rowLo < columnTop) {
+            cache.put(Numbers.INT_NULL, Rows.toRowID(partitionIndex, columnTop - 1));
+            rowLo = columnTop;
+        }
+        if (rowLo == rowHi) {
+            return;
+        }
+
+        setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, txWriter.getPartitionNameTxn(partitionIndex));
+        dFile(path, metadata.getColumnName(columnIndex), columnVersionWriter.getColumnNameTxn(partitionTimestamp, columnIndex));
+        final long size = (rowHi - columnTop) * Integer.BYTES;
+        final int fd = TableUtils.openRO(ff, path.$(), LOG);
+        long address = 0;
+        try {
+            address = TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_TABLE_WRITER);
+            for (long row = rowLo; row < rowHi; row++) {
+                cache.put(Unsafe.getUnsafe().getInt(address + (row - columnTop) * Integer.BYTES), Rows.toRowID(partitionIndex, row));
+            }
+        } finally {
+            if (address != 0) {
+                ff.munmap(address, size, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            ff.close(fd);
+        }
+    }
+
     private void updateMaxTimestamp(long timestamp) {
         txWriter.updateMaxTimestamp(timestamp);
         this.timestampSetter.accept(timestamp);
@@ -7811,6 +8485,66 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    // Writes stats of the partitions that are no longer the last one since the previous call.
+    // Stats are optional, so failures are logged rather than failing the commit.
+    private void writePartitionStats() {
+        if (!configuration.isPartitionStatsEnabled() || !PartitionBy.isPartitioned(partitionBy)) {
+            return;
+        }
+        final int partitionIndexHi = txWriter.getPartitionCount() - 1;
+        final long timestampHi = partitionStatsTimestampHi;
+        int partitionIndex = partitionIndexHi;
+        while (partitionIndex > 0 && txWriter.getPartitionTimestampByIndex(partitionIndex - 1) > timestampHi) {
+            partitionIndex--;
+        }
+        for (; partitionIndex < partitionIndexHi; partitionIndex++) {
+            writePartitionStats(partitionIndex);
+            partitionStatsTimestampHi = txWriter.getPartitionTimestampByIndex(partitionIndex);
+        }
+
+        // partitions merged by O3 have stale stats, if any, unless they were written above
+        for (int i = 0, n = partitionStatsO3Timestamps.size(); i < n; i++) {
+            final long partitionTimestamp = partitionStatsO3Timestamps.getQuick(i);
+            partitionIndex = txWriter.getPartitionIndex(partitionTimestamp);
+            if (partitionIndex > -1 && partitionIndex < partitionIndexHi && partitionTimestamp <= timestampHi) {
+                writePartitionStats(partitionIndex);
+            }
+        }
+        partitionStatsO3Timestamps.clear();
+    }
+
+    private void writePartitionStats(int partitionIndex) {
+        final long partitionTimestamp = txWriter.getPartitionTimestampByIndex(partitionIndex);
+        if (txWriter.isPartitionCompressed(partitionIndex) || txWriter.isPartitionParquet(partitionIndex)) {
+            // converted partition keeps the stats it had after the conversion
+            return;
+        }
+        try {
+            if (partitionStatsWriter == null) {
+                partitionStatsWriter = new PartitionStatsWriter();
+            }
+            setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, txWriter.getPartitionNameTxn(partitionIndex));
+            partitionStatsWriter.write(
+                    ff,
+                    path,
+                    metadata,
+                    columnVersionWriter,
+                    partitionTimestamp,
+                    txWriter.getPartitionSize(partitionIndex),
+                    configuration.getPartitionZoneMapBlockRows(),
+                    configuration.getWriterFileOpenOpts()
+            );
+        } catch (CairoException e) {
+            LOG.error().$("could not write partition stats [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(partitionTimestamp)
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     private void writeRestoreMetaTodo(CharSequence columnName) {
         try {
             writeRestoreMetaTodo();
@@ -7834,6 +8568,19 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         todoMem.sync(false);
     }
 
+    private void writeRetentionPolicy(PartitionRetentionPolicy policy) {
+        try {
+            policy.write(ff, path.trimTo(rootLen).concat(RETENTION_FILE_NAME).$(), configuration.getWriterFileOpenOpts());
+        } finally {
+            path.trimTo(rootLen);
+        }
+        LOG.info().$("changed retention policy [table=").utf8(tableToken.getTableName())
+                .$(", ttl=").$(policy.getTtl())
+                .$(", tieringAge=").$(policy.getTieringAge())
+                .$(", tieringVolume=").$(policy.getTieringVolume())
+                .I$();
+    }
+
     static void indexAndCountDown(ColumnIndexer indexer, long lo, long hi, SOCountDownLatch latch) {
         try {
             indexer.refreshSourceAndIndex(lo, hi);
@@ -0,0 +1,526 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+import static io.questdb.cairo.DedupColumnCommitAddresses.*;
+
+/**
+ * Deduplication of timestamp indexes with upsert keys which include var-size columns.
+ * Native deduplication routines in dedup.cpp compare fixed-size keys only, the routines
+ * here mirror them and compare keys of all supported types, see
+ * {@link ColumnType#isDedupKeySupported(int)}. Tables with fixed-size keys only keep
+ * using the native routines.
+ * <p>
+ * Key columns are described by {@link DedupColumnCommitAddresses} block. Var-size values
+ * are ordered by their size first and then by their bytes, which is cheaper than
+ * lexicographical order and is only used to find equal keys. Both routines have to use
+ * the same order, since the merge expects O3 rows with equal timestamps to be sorted by keys.
+ */
+public final class VarSizeKeyDedup {
+    private static final long INDEX_ENTRY_BYTES = 2 * Long.BYTES;
+    private static final long ROW_MASK = ~(1L << 63);
+
+    private VarSizeKeyDedup() {
+    }
+
+    /**
+     * Deduplicates sorted timestamp index, same as
+     * {@link Vect#dedupSortedTimestampIndexIntKeysChecked(long, long, long, long, int, long)}.
+     *
+     * @return row count of deduplicated index or -2 when there are no duplicate timestamps
+     */
+    public static long dedupSortedTimestampIndexChecked(
+            long indexSrcAddr,
+            long count,
+            long indexDstAddr,
+            long indexTmpAddr,
+            int dedupKeyCount,
+            long dedupCommitAddr,
+            long dedupVarAddr
+    ) {
+        long dedupCount = dedupSortedTimestampIndex(
+                indexSrcAddr,
+                count,
+                indexDstAddr,
+                indexTmpAddr,
+                dedupKeyCount,
+                dedupCommitAddr,
+                dedupVarAddr
+        );
+        assert dedupCount != -1 : "unsorted data passed to deduplication";
+        return dedupCount;
+    }
+
+    /**
+     * Merges partition timestamps with sorted O3 index, same as
+     * {@link Vect#mergeDedupTimestampWithLongIndexIntKeys(long, long, long, long, long, long, long, int, long)}.
+     * Partition rows with the same timestamp and keys as O3 rows are replaced with the O3 rows.
+     *
+     * @return row count of the merge index
+     */
+    public static long mergeDedupTimestampWithLongIndex(
+            long srcTimestampAddr,
+            long srcLo,
+            long srcHiInclusive,
+            long indexAddr,
+            long indexLo,
+            long indexHiInclusive,
+            long destIndexAddr,
+            int dedupKeyCount,
+            long dedupCommitAddr,
+            long dedupVarAddr
+    ) {
+        long srcPos = srcLo;
+        long indexPos = indexLo;
+        long dest = destIndexAddr;
+        // one byte per O3 row with conflicting timestamp, set when the row replaces a partition row
+        long usedAddr = 0;
+        long usedSize = 0;
+        try {
+            while (srcPos <= srcHiInclusive && indexPos <= indexHiInclusive) {
+                final long srcTs = Unsafe.getUnsafe().getLong(srcTimestampAddr + srcPos * Long.BYTES);
+                final long indexTs = getTimestamp(indexAddr, indexPos);
+                if (srcTs < indexTs) {
+                    putIndexEntry(dest, srcTs, srcPos | ~ROW_MASK);
+                    dest += INDEX_ENTRY_BYTES;
+                    srcPos++;
+                } else if (srcTs > indexTs) {
+                    copyIndexEntry(indexAddr, indexPos, dest);
+                    dest += INDEX_ENTRY_BYTES;
+                    indexPos++;
+                } else {
+                    final long conflictEnd = searchTimestampEnd(indexAddr, indexPos, indexHiInclusive, srcTs);
+                    final long conflictCount = conflictEnd - indexPos;
+                    if (conflictCount > usedSize) {
+                        usedAddr = Unsafe.realloc(usedAddr, usedSize, conflictCount, MemoryTag.NATIVE_O3);
+                        usedSize = conflictCount;
+                    }
+                    Vect.memset(usedAddr, conflictCount, 0);
+
+                    while (srcPos <= srcHiInclusive && Unsafe.getUnsafe().getLong(srcTimestampAddr + srcPos * Long.BYTES) == srcTs) {
+                        final long matched = searchKey(indexAddr, indexPos, conflictCount, srcPos, dedupKeyCount, dedupCommitAddr, dedupVarAddr);
+                        if (matched > -1) {
+                            Unsafe.getUnsafe().putByte(usedAddr + matched, (byte) 1);
+                            copyIndexEntry(indexAddr, indexPos + matched, dest);
+                        } else {
+                            putIndexEntry(dest, srcTs, srcPos | ~ROW_MASK);
+                        }
+                        dest += INDEX_ENTRY_BYTES;
+                        srcPos++;
+                    }
+
+                    // add all O3 rows with no matches
+                    for (long i = 0; i < conflictCount; i++) {
+                        if (Unsafe.getUnsafe().getByte(usedAddr + i) == 0) {
+                            copyIndexEntry(indexAddr, indexPos + i, dest);
+                            dest += INDEX_ENTRY_BYTES;
+                        }
+                    }
+                    indexPos = conflictEnd;
+                }
+            }
+
+            if (indexPos <= indexHiInclusive) {
+                final long len = (indexHiInclusive - indexPos + 1) * INDEX_ENTRY_BYTES;
+                Vect.memcpy(dest, indexAddr + indexPos * INDEX_ENTRY_BYTES, len);
+                dest += len;
+            } else {
+                for (; srcPos <= srcHiInclusive; srcPos++) {
+                    putIndexEntry(dest, Unsafe.getUnsafe().getLong(srcTimestampAddr + srcPos * Long.BYTES), srcPos | ~ROW_MASK);
+                    dest += INDEX_ENTRY_BYTES;
+                }
+            }
+            return (dest - destIndexAddr) / INDEX_ENTRY_BYTES;
+        } finally {
+            if (usedAddr != 0) {
+                Unsafe.free(usedAddr, usedSize, MemoryTag.NATIVE_O3);
+            }
+        }
+    }
+
+    private static int compareBytes(long lAddr, long rAddr, long len) {
+        long i = 0;
+        for (; i + 7 < len; i += Long.BYTES) {
+            final long l = Unsafe.getUnsafe().getLong(lAddr + i);
+            final long r = Unsafe.getUnsafe().getLong(rAddr + i);
+            if (l != r) {
+                return Long.compare(l, r);
+            }
+        }
+        for (; i < len; i++) {
+            final byte l = Unsafe.getUnsafe().getByte(lAddr + i);
+            final byte r = Unsafe.getUnsafe().getByte(rAddr + i);
+            if (l != r) {
+                return Byte.compare(l, r);
+            }
+        }
+        return 0;
+    }
+
+    private static int compareFixed(long lAddr, long rAddr, int valueSize) {
+        switch (valueSize) {
+            case Byte.BYTES:
+                return Byte.compare(Unsafe.getUnsafe().getByte(lAddr), Unsafe.getUnsafe().getByte(rAddr));
+            case Short.BYTES:
+                return Short.compare(Unsafe.getUnsafe().getShort(lAddr), Unsafe.getUnsafe().getShort(rAddr));
+            case Integer.BYTES:
+                return Integer.compare(Unsafe.getUnsafe().getInt(lAddr), Unsafe.getUnsafe().getInt(rAddr));
+            case Long.BYTES:
+                return Long.compare(Unsafe.getUnsafe().getLong(lAddr), Unsafe.getUnsafe().getLong(rAddr));
+            default:
+                // LONG128, UUID and LONG256, compare from the most significant long
+                for (int offset = valueSize - Long.BYTES; offset > -1; offset -= Long.BYTES) {
+                    final int diff = Long.compare(Unsafe.getUnsafe().getLong(lAddr + offset), Unsafe.getUnsafe().getLong(rAddr + offset));
+                    if (diff != 0) {
+                        return diff;
+                    }
+                }
+                return 0;
+        }
+    }
+
+    // compares keys of partition row and O3 row, mirrors MergeColumnComparer in dedup.cpp
+    private static int compareMergeKeys(long colRow, long o3Row, int dedupKeyCount, long dedupCommitAddr, long dedupVarAddr) {
+        for (int c = 0; c < dedupKeyCount; c++) {
+            final long col = dedupCommitAddr + (long) c * RECORD_BYTES;
+            final int columnType = Unsafe.getUnsafe().getInt(col + COL_TYPE_32);
+            final long columnTop = Unsafe.getUnsafe().getLong(col + COL_TOP_64);
+            final long colData = Unsafe.getUnsafe().getLong(col + COL_DATA_64);
+            final long o3Data = Unsafe.getUnsafe().getLong(col + O3_DATA_64);
+            final int diff;
+            if (ColumnType.isVarSize(columnType)) {
+                final long varCol = dedupVarAddr + (long) c * VAR_RECORD_BYTES;
+                final long colVarData = Unsafe.getUnsafe().getLong(varCol + VAR_COL_DATA_64);
+                final long o3VarData = Unsafe.getUnsafe().getLong(varCol + VAR_O3_DATA_64);
+                diff = compareVarSize(
+                        columnType,
+                        colRow >= columnTop,
+                        colData,
+                        colVarData,
+                        colRow,
+                        o3Data,
+                        o3VarData,
+                        o3Row
+                );
+            } else {
+                final int valueSize = Unsafe.getUnsafe().getInt(col + VAL_SIZE_32);
+                diff = compareFixed(
+                        colRow >= columnTop ? colData + colRow * valueSize : col + NULL_VAL_256,
+                        o3Data + o3Row * valueSize,
+                        valueSize
+                );
+            }
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    // compares keys of two rows of sorted index, mirrors SortColumnComparer in dedup.cpp
+    private static int compareSortKeys(long l, long r, int dedupKeyCount, long dedupCommitAddr, long dedupVarAddr) {
+        final long lRow = l & ROW_MASK;
+        final long rRow = r & ROW_MASK;
+        for (int c = 0; c < dedupKeyCount; c++) {
+            final long col = dedupCommitAddr + (long) c * RECORD_BYTES;
+            final int columnType = Unsafe.getUnsafe().getInt(col + COL_TYPE_32);
+            final long colData = Unsafe.getUnsafe().getLong(col + COL_DATA_64);
+            final long o3Data = Unsafe.getUnsafe().getLong(col + O3_DATA_64);
+            final int diff;
+            if (ColumnType.isVarSize(columnType)) {
+                final long varCol = dedupVarAddr + (long) c * VAR_RECORD_BYTES;
+                final long colVarData = Unsafe.getUnsafe().getLong(varCol + VAR_COL_DATA_64);
+                final long o3VarData = Unsafe.getUnsafe().getLong(varCol + VAR_O3_DATA_64);
+                diff = compareVarSize(
+                        columnType,
+                        true,
+                        l > -1 ? colData : o3Data,
+                        l > -1 ? colVarData : o3VarData,
+                        lRow,
+                        r > -1 ? colData : o3Data,
+                        r > -1 ? colVarData : o3VarData,
+                        rRow
+                );
+            } else {
+                final int valueSize = Unsafe.getUnsafe().getInt(col + VAL_SIZE_32);
+                diff = compareFixed(
+                        (l > -1 ? colData : o3Data) + lRow * valueSize,
+                        (r > -1 ? colData : o3Data) + rRow * valueSize,
+                        valueSize
+                );
+            }
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private static int compareVarSize(
+            int columnType,
+            boolean lNotNull,
+            long lAuxAddr,
+            long lDataAddr,
+            long lRow,
+            long rAuxAddr,
+            long rDataAddr,
+            long rRow
+    ) {
+        final long lSize = lNotNull ? getValueSize(columnType, lAuxAddr, lDataAddr, lRow) : TableUtils.NULL_LEN;
+        final long rSize = getValueSize(columnType, rAuxAddr, rDataAddr, rRow);
+        if (lSize != rSize) {
+            return Long.compare(lSize, rSize);
+        }
+        if (lSize < 1) {
+            return 0;
+        }
+        return compareBytes(
+                getValueAddress(columnType, lAuxAddr, lDataAddr, lRow),
+                getValueAddress(columnType, rAuxAddr, rDataAddr, rRow),
+                lSize
+        );
+    }
+
+    private static void copyIndexEntry(long indexAddr, long pos, long dest) {
+        final long src = indexAddr + pos * INDEX_ENTRY_BYTES;
+        Unsafe.getUnsafe().putLong(dest, Unsafe.getUnsafe().getLong(src));
+        Unsafe.getUnsafe().putLong(dest + Long.BYTES, Unsafe.getUnsafe().getLong(src + Long.BYTES));
+    }
+
+    // mirrors dedup_sorted_timestamp_index_with_keys in dedup.cpp
+    private static long dedupSortedTimestampIndex(
+            long indexSrcAddr,
+            long count,
+            long indexDstAddr,
+            long indexTmpAddr,
+            int dedupKeyCount,
+            long dedupCommitAddr,
+            long dedupVarAddr
+    ) {
+        if (count < 2) {
+            return -2;
+        }
+
+        // find duplicate ranges
+        long dupStart = -1;
+        long dupEnd = 0;
+        long tsIndex = 0;
+        for (long i = 1; i < count; i++) {
+            final long ts = getTimestamp(indexSrcAddr, i);
+            final long lastTs = getTimestamp(indexSrcAddr, tsIndex);
+            if (ts > lastTs) {
+                if (i > tsIndex + 1) {
+                    dupStart = dupStart > -1 ? dupStart : tsIndex;
+                    dupEnd = i;
+                }
+                tsIndex = i;
+            } else if (ts < lastTs) {
+                return -1;
+            }
+        }
+        if (tsIndex < count - 1 && getTimestamp(indexSrcAddr, tsIndex) == getTimestamp(indexSrcAddr, count - 1)) {
+            // last element is a duplicate with the previous one
+            dupStart = dupStart > -1 ? dupStart : tsIndex;
+            dupEnd = count;
+        } else if (dupStart == -1 || dupEnd - dupStart <= 0) {
+            // no timestamp duplicates
+            return -2;
+        }
+
+        // sort the duplicate range by timestamp and keys using stable merge sort
+        final long mergeResult = mergeSort(indexSrcAddr, indexDstAddr, indexTmpAddr, dupStart, dupEnd, dedupKeyCount, dedupCommitAddr, dedupVarAddr);
+
+        long copyTo = dupStart;
+        long last = dupStart;
+        for (long i = dupStart + 1; i < dupEnd; i++) {
+            final long ts = getTimestamp(mergeResult, i);
+            final long lastTs = getTimestamp(mergeResult, last);
+            if (ts > lastTs || compareSortKeys(getRow(mergeResult, last), getRow(mergeResult, i), dedupKeyCount, dedupCommitAddr, dedupVarAddr) != 0) {
+                copyIndexEntry(mergeResult, i - 1, indexDstAddr + copyTo++ * INDEX_ENTRY_BYTES);
+                last = i;
+            } else if (ts != lastTs) {
+                return -1;
+            }
+        }
+        copyIndexEntry(mergeResult, dupEnd - 1, indexDstAddr + copyTo * INDEX_ENTRY_BYTES);
+
+        // copy prefix and the tail if necessary
+        if (indexSrcAddr != indexDstAddr && dupStart > 0) {
+            Vect.memcpy(indexDstAddr, indexSrcAddr, dupStart * INDEX_ENTRY_BYTES);
+        }
+        final long tail = count - dupEnd;
+        if (tail > 0) {
+            Vect.memmove(indexDstAddr + (copyTo + 1) * INDEX_ENTRY_BYTES, indexSrcAddr + dupEnd * INDEX_ENTRY_BYTES, tail * INDEX_ENTRY_BYTES);
+        }
+        return copyTo + 1 + tail;
+    }
+
+    private static long getRow(long indexAddr, long pos) {
+        return Unsafe.getUnsafe().getLong(indexAddr + pos * INDEX_ENTRY_BYTES + Long.BYTES);
+    }
+
+    private static long getTimestamp(long indexAddr, long pos) {
+        return Unsafe.getUnsafe().getLong(indexAddr + pos * INDEX_ENTRY_BYTES);
+    }
+
+    private static long getValueAddress(int columnType, long auxAddr, long dataAddr, long row) {
+        if (ColumnType.isVarchar(columnType)) {
+            return VarcharTypeDriver.getValueAddress(auxAddr, dataAddr, row);
+        }
+        // STRING value is prefixed with its length in chars
+        return dataAddr + Unsafe.getUnsafe().getLong(auxAddr + (row << ColumnType.LEGACY_VAR_SIZE_AUX_SHL)) + Integer.BYTES;
+    }
+
+    // returns size of the value in bytes or NULL_LEN
+    private static long getValueSize(int columnType, long auxAddr, long dataAddr, long row) {
+        if (ColumnType.isVarchar(columnType)) {
+            return VarcharTypeDriver.getValueSize(auxAddr, row);
+        }
+        final int len = Unsafe.getUnsafe().getInt(dataAddr + Unsafe.getUnsafe().getLong(auxAddr + (row << ColumnType.LEGACY_VAR_SIZE_AUX_SHL)));
+        return len > 0 ? 2L * len : len;
+    }
+
+    // mirrors merge_sort in dedup.cpp, returns address of the sorted index, which is one of the destinations
+    private static long mergeSort(
+            long indexSrcAddr,
+            long indexDest1Addr,
+            long indexDest2Addr,
+            long start,
+            long end,
+            int dedupKeyCount,
+            long dedupCommitAddr,
+            long dedupVarAddr
+    ) {
+        long source = indexSrcAddr;
+        long dest;
+        final long len = end - start;
+        long sliceLen = 1;
+        int cycle = 0;
+        do {
+            // first write to the second destination, then to the first one
+            dest = cycle++ % 2 == 0 ? indexDest2Addr : indexDest1Addr;
+            final long twiceSlice = 2 * sliceLen;
+            for (long i = start; i < end; i += twiceSlice) {
+                mergeSortSlice(
+                        source + i * INDEX_ENTRY_BYTES,
+                        source + (i + sliceLen) * INDEX_ENTRY_BYTES,
+                        dest + i * INDEX_ENTRY_BYTES,
+                        Math.min(sliceLen, end - i),
+                        Math.max(0, Math.min(sliceLen, end - (i + sliceLen))),
+                        dedupKeyCount,
+                        dedupCommitAddr,
+                        dedupVarAddr
+                );
+            }
+            source = dest;
+            sliceLen = twiceSlice;
+        } while (sliceLen < len);
+        return dest;
+    }
+
+    private static void mergeSortSlice(
+            long src1Addr,
+            long src2Addr,
+            long destAddr,
+            long src1Len,
+            long src2Len,
+            int dedupKeyCount,
+            long dedupCommitAddr,
+            long dedupVarAddr
+    ) {
+        long i1 = 0;
+        long i2 = 0;
+        long dest = destAddr;
+        while (i1 < src1Len && i2 < src2Len) {
+            final long ts1 = getTimestamp(src1Addr, i1);
+            final long ts2 = getTimestamp(src2Addr, i2);
+            if (ts1 > ts2) {
+                copyIndexEntry(src2Addr, i2++, dest);
+            } else if (ts1 < ts2) {
+                copyIndexEntry(src1Addr, i1++, dest);
+            } else if (compareSortKeys(getRow(src1Addr, i1), getRow(src2Addr, i2), dedupKeyCount, dedupCommitAddr, dedupVarAddr) > 0) {
+                copyIndexEntry(src2Addr, i2++, dest);
+            } else {
+                copyIndexEntry(src1Addr, i1++, dest);
+            }
+            dest += INDEX_ENTRY_BYTES;
+        }
+
+        if (i1 < src1Len) {
+            Vect.memcpy(dest, src1Addr + i1 * INDEX_ENTRY_BYTES, (src1Len - i1) * INDEX_ENTRY_BYTES);
+        } else if (i2 < src2Len) {
+            Vect.memcpy(dest, src2Addr + i2 * INDEX_ENTRY_BYTES, (src2Len - i2) * INDEX_ENTRY_BYTES);
+        }
+    }
+
+    private static void putIndexEntry(long dest, long timestamp, long row) {
+        Unsafe.getUnsafe().putLong(dest, timestamp);
+        Unsafe.getUnsafe().putLong(dest + Long.BYTES, row);
+    }
+
+    // binary search of O3 row with the same keys as the partition row, O3 rows are sorted by keys
+    private static long searchKey(
+            long indexAddr,
+            long conflictLo,
+            long conflictCount,
+            long srcRow,
+            int dedupKeyCount,
+            long dedupCommitAddr,
+            long dedupVarAddr
+    ) {
+        long lo = 0;
+        long hi = conflictCount - 1;
+        while (lo <= hi) {
+            final long mid = (lo + hi) >>> 1;
+            final int diff = compareMergeKeys(srcRow, getRow(indexAddr, conflictLo + mid), dedupKeyCount, dedupCommitAddr, dedupVarAddr);
+            if (diff > 0) {
+                lo = mid + 1;
+            } else if (diff < 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // returns position of the first O3 row with timestamp greater than the given one
+    private static long searchTimestampEnd(long indexAddr, long lo, long hiInclusive, long timestamp) {
+        long hi = hiInclusive + 1;
+        while (lo < hi) {
+            final long mid = (lo + hi) >>> 1;
+            if (getTimestamp(indexAddr, mid) > timestamp) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+}
@@ -295,6 +295,25 @@ public class VarcharTypeDriver implements ColumnTypeDriver {
         return utf8SplitView.of(auxLo, dataLo, size, isAscii);
     }
 
+    /**
+     * Returns address of the first byte of a non-null UTF-8 value from a VARCHAR column.
+     * The value size can be obtained with {@link #getValueSize(long, long)}.
+     *
+     * @param auxAddr  base pointer of the auxiliary vector
+     * @param dataAddr base pointer of the data vector
+     * @param rowNum   the row number to read
+     * @return address of the value, either in the auxiliary vector when the value is inlined, or in the data vector
+     */
+    public static long getValueAddress(long auxAddr, long dataAddr, long rowNum) {
+        long auxEntry = auxAddr + VARCHAR_AUX_WIDTH_BYTES * rowNum;
+        int raw = Unsafe.getUnsafe().getInt(auxEntry);
+        assert !hasNullFlag(raw);
+        if (hasInlinedFlag(raw)) {
+            return auxEntry + FULLY_INLINED_STRING_OFFSET;
+        }
+        return dataAddr + getDataOffset(auxEntry);
+    }
+
     /**
      * Reads a UTF-8 value size from a VARCHAR column.
      *
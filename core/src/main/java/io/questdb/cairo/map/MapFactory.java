@@ -27,6 +27,7 @@ package io.questdb.cairo.map;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.ColumnTypes;
+import io.questdb.griffin.engine.groupby.GroupByAllocator;
 import io.questdb.std.Transient;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -71,6 +72,40 @@ public class MapFactory {
         );
     }
 
+    /**
+     * Creates a Map pre-allocated to a small capacity to be used in single-threaded GROUP BY queries.
+     * The returned map behaves like the map returned by {@link #createUnorderedMap(CairoConfiguration, ColumnTypes, ColumnTypes)}
+     * until its key-value memory, including the memory of the given allocator, exceeds the configured budget.
+     * After that, it spills its entries to disk, so the given merge function must be able to merge partial
+     * values of the same key.
+     */
+    public static Map createSpillableMap(
+            CairoConfiguration configuration,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Transient @Nullable ColumnTypes valueTypes,
+            @NotNull MapValueMergeFunction mergeFunction,
+            @Nullable GroupByAllocator allocator
+    ) {
+        // the spillable map owns the initial map, it closes the initial map on construction failure too
+        final SpillableOrderedMap map = new SpillableOrderedMap(
+                configuration.getFilesFacade(),
+                configuration.getSqlSpillRoot(),
+                configuration.getMkDirMode(),
+                configuration.getGroupBySpillMemoryBudget(),
+                configuration.getGroupBySpillPartitionCount(),
+                mergeFunction,
+                createUnorderedMap(configuration, keyTypes, valueTypes),
+                configuration.getSqlSmallMapPageSize(),
+                keyTypes,
+                valueTypes,
+                configuration.getSqlSmallMapKeyCapacity(),
+                configuration.getSqlFastMapLoadFactor(),
+                configuration.getSqlMapMaxResizes()
+        );
+        map.setAllocator(allocator);
+        return map;
+    }
+
     /**
      * Creates an unordered Map pre-allocated to a small capacity to be used in GROUP BY queries, but not only.
      * <p>
@@ -256,6 +256,29 @@ public class OrderedMap implements Map, Reopenable {
         }
     }
 
+    /**
+     * Looks up the key written to the given map with {@link #withKey()}. Unlike {@link MapKey#findValue()},
+     * the lookup only reads this map, so it may be run by multiple threads concurrently, each with its own
+     * key map, as long as this map isn't modified. Both maps must have the same key and value types.
+     * The returned value belongs to the key map.
+     */
+    public MapValue findValue(OrderedMap keyMap) {
+        assert keyMap.keySize == keySize && keyMap.valueSize == valueSize;
+        final Key srcKey = keyMap.key;
+        final long srcKeySize = srcKey.commit();
+        final int hashCodeLo = Numbers.decodeLowInt(srcKey.hash());
+        int index = hashCodeLo & mask;
+        long offset;
+        while ((offset = getOffset(offsets, index)) > -1) {
+            if (hashCodeLo == getHashCodeLo(offsets, index) && eq(offset, srcKey.startAddress, srcKeySize)) {
+                long startAddress = heapStart + offset;
+                return keyMap.value.of(startAddress, startAddress + keyOffset + srcKeySize, heapLimit, false);
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
     public long getAppendOffset() {
         return kPos;
     }
@@ -398,6 +421,15 @@ public class OrderedMap implements Map, Reopenable {
         return valueOf(keyWriter.startAddress, keyWriter.appendAddress, true, value);
     }
 
+    private boolean eq(long offset, long srcStartAddress, long srcKeySize) {
+        final long startAddress = heapStart + offset;
+        // var-size keys start with their length
+        if (keySize == -1 && Unsafe.getUnsafe().getInt(startAddress) != (int) srcKeySize) {
+            return false;
+        }
+        return Vect.memeq(startAddress + keyOffset, srcStartAddress + keyOffset, srcKeySize);
+    }
+
     private void mergeFixedSizeKey(OrderedMap srcMap, MapValueMergeFunction mergeFunc) {
         assert keySize >= 0;
 
@@ -585,10 +617,18 @@ public class OrderedMap implements Map, Reopenable {
         return value.of(startAddress, valueAddress, heapLimit, newValue);
     }
 
+    long heapStart() {
+        return heapStart;
+    }
+
     long keySize() {
         return keySize;
     }
 
+    OrderedMapValue rawValueOf(long startAddress, long valueAddress) {
+        return valueOf(startAddress, valueAddress, false, value3);
+    }
+
     long valueSize() {
         return valueSize;
     }
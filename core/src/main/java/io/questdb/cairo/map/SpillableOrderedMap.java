@@ -0,0 +1,639 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.map;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.griffin.engine.groupby.GroupByAllocator;
+import io.questdb.std.*;
+import io.questdb.std.bytes.Bytes;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Map wrapper that keeps the key-value memory within the given budget by spilling entries
+ * to disk. Used by single-threaded GROUP BY over high cardinality keys.
+ * <p>
+ * Until the first spill, all calls are delegated to the given in-memory map, e.g. the one
+ * that {@link MapFactory#createUnorderedMap} picks for the key and value types, so the map
+ * behaves exactly like it. Once the budget is exceeded, all key-value pairs are copied into an
+ * {@link OrderedMap} and written to spill files, one file per hash partition. From then on,
+ * the {@link OrderedMap} is used to accumulate new keys until the map is cleared. Since the same
+ * key may be spilled multiple times, partial values are merged with the given
+ * {@link MapValueMergeFunction} when partitions are read back. This means that map values must be
+ * mergeable, i.e. all GROUP BY functions must support
+ * {@link io.questdb.griffin.engine.functions.GroupByFunction#merge}.
+ * <p>
+ * The budget covers the key-value memory of the in-memory map and the memory the GROUP BY
+ * functions allocated from the {@link GroupByAllocator} since the last spill. Spilled values
+ * may point to allocator memory, so this memory is only released when the map is cleared.
+ * <p>
+ * Once there was a spill, the cursor returned by {@link #getCursor()} spills the remaining
+ * in-memory entries, then loads and aggregates one partition at a time. Records of the cursor
+ * are valid only within the current partition, so random access is not supported in this case.
+ * <p>
+ * Spill files contain key-value pairs in the same layout as {@link OrderedMap} heap, i.e. each
+ * pair is 8 byte aligned and var-size keys are prefixed with their length.
+ */
+public class SpillableOrderedMap implements Map {
+    private static final AtomicLong ID_SEQ = new AtomicLong();
+    private static final long PARTITION_BUFFER_SIZE = 64 * 1024;
+    private final FilesFacade ff;
+    private final long heapSize;
+    private final Map initialMap;
+    private final int keyCapacity;
+    private final ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+    private final double loadFactor;
+    private final int maxResizes;
+    private final long memoryBudget;
+    private final MapValueMergeFunction mergeFunction;
+    private final int mkDirMode;
+    private final int partitionBits;
+    private final int partitionCount;
+    private final SpillCursor spillCursor = new SpillCursor();
+    private final CharSequence spillRoot;
+    private final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+    private GroupByAllocator allocator;
+    private long[] bufferPositions;
+    private long[] buffers;
+    private long entrySize;
+    private long[] fileSizes;
+    private int[] fds;
+    private boolean isSpilled;
+    // the map currently receiving keys, either the initial map or the ordered one
+    private Map map;
+    private OrderedMap orderedMap;
+    private Path path;
+    private int pathRootLen;
+    // allocator memory referenced by the spilled values
+    private long spilledAllocatorSize;
+    private long valueSize;
+
+    /**
+     * @param initialMap in-memory map to be used until the first spill or null to use {@link OrderedMap} from the start;
+     *                   the map is owned, i.e. closed, by this map
+     */
+    public SpillableOrderedMap(
+            FilesFacade ff,
+            @Nullable CharSequence spillRoot,
+            int mkDirMode,
+            long memoryBudget,
+            int partitionCount,
+            @NotNull MapValueMergeFunction mergeFunction,
+            @Nullable Map initialMap,
+            long heapSize,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Transient @Nullable ColumnTypes valueTypes,
+            int keyCapacity,
+            double loadFactor,
+            int maxResizes
+    ) {
+        assert Numbers.isPow2(partitionCount);
+        this.ff = ff;
+        this.spillRoot = spillRoot;
+        this.mkDirMode = mkDirMode;
+        this.memoryBudget = memoryBudget;
+        this.partitionCount = partitionCount;
+        this.partitionBits = Numbers.msb(partitionCount);
+        this.mergeFunction = mergeFunction;
+        this.initialMap = initialMap;
+        this.heapSize = heapSize;
+        this.keyCapacity = keyCapacity;
+        this.loadFactor = loadFactor;
+        this.maxResizes = maxResizes;
+        try {
+            for (int i = 0, n = keyTypes.getColumnCount(); i < n; i++) {
+                final int columnType = keyTypes.getColumnType(i);
+                this.keyTypes.add(columnType);
+                // var-size keys are estimated with their pointer and length
+                entrySize += ColumnType.isVarSize(columnType) ? 2 * Long.BYTES : ColumnType.sizeOf(columnType);
+            }
+            if (valueTypes != null) {
+                for (int i = 0, n = valueTypes.getColumnCount(); i < n; i++) {
+                    final int columnType = valueTypes.getColumnType(i);
+                    this.valueTypes.add(columnType);
+                    entrySize += ColumnType.sizeOf(columnType);
+                }
+            }
+            if (initialMap == null) {
+                orderedMap = newOrderedMap();
+                map = orderedMap;
+            } else {
+                map = initialMap;
+            }
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (initialMap != null && map != initialMap) {
+            // release the ordered map memory and get back to the initial map
+            orderedMap.close();
+            map = initialMap;
+            initialMap.reopen();
+        }
+        map.clear();
+        releaseSpill();
+    }
+
+    @Override
+    public void close() {
+        Misc.free(initialMap);
+        Misc.free(orderedMap);
+        map = initialMap != null ? initialMap : orderedMap;
+        releaseSpill();
+        path = Misc.free(path);
+    }
+
+    @Override
+    public MapRecordCursor getCursor() {
+        if (!isSpilled) {
+            return map.getCursor();
+        }
+        if (!spillCursor.isReading) {
+            spill();
+            flushAll();
+            spillCursor.isReading = true;
+        }
+        spillCursor.toTop();
+        return spillCursor;
+    }
+
+    @Override
+    public long getHeapSize() {
+        return map.getHeapSize();
+    }
+
+    @Override
+    public int getKeyCapacity() {
+        return map.getKeyCapacity();
+    }
+
+    @Override
+    public MapRecord getRecord() {
+        return map.getRecord();
+    }
+
+    @Override
+    public long getUsedHeapSize() {
+        return map.getUsedHeapSize();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return map.isOpen();
+    }
+
+    /**
+     * Returns true if the map has written at least one key-value pair to disk since it was
+     * last cleared or closed.
+     */
+    public boolean isSpilled() {
+        return isSpilled;
+    }
+
+    /**
+     * Adds all entries of the source map to this map. The budget is checked before each added key,
+     * so the source map may be larger than the budget.
+     */
+    @Override
+    public void merge(Map srcMap, MapValueMergeFunction mergeFunc) {
+        assert this != srcMap;
+        final MapRecordCursor cursor = srcMap.getCursor();
+        final MapRecord record = cursor.getRecord();
+        while (cursor.hasNext()) {
+            final MapKey key = withKey();
+            copyKey(record, key);
+            final MapValue value = key.createValue();
+            if (value.isNew()) {
+                copyValue(record, value);
+            } else {
+                mergeFunc.merge(value, record.getValue());
+            }
+        }
+    }
+
+    @Override
+    public void reopen(int keyCapacity, long heapSize) {
+        map.reopen(keyCapacity, heapSize);
+    }
+
+    @Override
+    public void reopen() {
+        map.reopen();
+    }
+
+    @Override
+    public void restoreInitialCapacity() {
+        map.restoreInitialCapacity();
+    }
+
+    /**
+     * Sets the allocator used by the GROUP BY functions, so that its memory is counted against the budget.
+     */
+    public void setAllocator(@Nullable GroupByAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    @Override
+    public void setKeyCapacity(int keyCapacity) {
+        map.setKeyCapacity(keyCapacity);
+    }
+
+    /**
+     * Returns number of keys held in memory. Once the map is spilled, the total number of keys
+     * is unknown until all partitions are read back.
+     */
+    @Override
+    public long size() {
+        return map.size();
+    }
+
+    @Override
+    public MapValue valueAt(long address) {
+        return map.valueAt(address);
+    }
+
+    @Override
+    public MapKey withKey() {
+        if (usedMemory() > memoryBudget) {
+            assert !spillCursor.isReading;
+            spill();
+        }
+        return map.withKey();
+    }
+
+    private void copyKey(MapRecord record, MapKey key) {
+        final int valueColumnCount = valueTypes.getColumnCount();
+        for (int i = 0, n = keyTypes.getColumnCount(); i < n; i++) {
+            // map records have value columns first, then key columns
+            final int columnIndex = valueColumnCount + i;
+            final int columnType = keyTypes.getColumnType(i);
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.STRING:
+                    key.putStr(record.getStrA(columnIndex));
+                    break;
+                case ColumnType.VARCHAR:
+                    key.putVarchar(record.getVarcharA(columnIndex));
+                    break;
+                case ColumnType.BINARY:
+                    key.putBin(record.getBin(columnIndex));
+                    break;
+                default:
+                    switch (ColumnType.sizeOf(columnType)) {
+                        case Byte.BYTES:
+                            key.putByte(record.getByte(columnIndex));
+                            break;
+                        case Short.BYTES:
+                            key.putShort(record.getShort(columnIndex));
+                            break;
+                        case Integer.BYTES:
+                            key.putInt(record.getInt(columnIndex));
+                            break;
+                        case Long.BYTES:
+                            key.putLong(record.getLong(columnIndex));
+                            break;
+                        case 2 * Long.BYTES:
+                            key.putLong128(record.getLong128Lo(columnIndex), record.getLong128Hi(columnIndex));
+                            break;
+                        case 4 * Long.BYTES:
+                            key.putLong256(record.getLong256A(columnIndex));
+                            break;
+                        default:
+                            throw CairoException.nonCritical().put("key type is not supported: ").put(ColumnType.nameOf(columnType));
+                    }
+            }
+        }
+    }
+
+    private void copyValue(MapRecord record, MapValue value) {
+        for (int i = 0, n = valueTypes.getColumnCount(); i < n; i++) {
+            final int columnType = valueTypes.getColumnType(i);
+            switch (ColumnType.sizeOf(columnType)) {
+                case Byte.BYTES:
+                    value.putByte(i, record.getByte(i));
+                    break;
+                case Short.BYTES:
+                    value.putShort(i, record.getShort(i));
+                    break;
+                case Integer.BYTES:
+                    value.putInt(i, record.getInt(i));
+                    break;
+                case Long.BYTES:
+                    value.putLong(i, record.getLong(i));
+                    break;
+                case 2 * Long.BYTES:
+                    value.putLong128(i, record.getLong128Lo(i), record.getLong128Hi(i));
+                    break;
+                case 4 * Long.BYTES:
+                    value.putLong256(i, record.getLong256A(i));
+                    break;
+                default:
+                    throw CairoException.nonCritical().put("value type is not supported: ").put(ColumnType.nameOf(columnType));
+            }
+        }
+    }
+
+    private void flush(int partition) {
+        final long len = bufferPositions[partition];
+        if (len > 0) {
+            write(partition, buffers[partition], len);
+            bufferPositions[partition] = 0;
+        }
+    }
+
+    private void flushAll() {
+        for (int i = 0; i < partitionCount; i++) {
+            flush(i);
+        }
+    }
+
+    private void loadPartition(int partition) {
+        orderedMap.clear();
+        final long fileSize = fileSizes[partition];
+        if (fileSize == 0) {
+            return;
+        }
+
+        final long keySize = orderedMap.keySize();
+        final long addr = TableUtils.mapRO(ff, fds[partition], fileSize, MemoryTag.MMAP_DEFAULT);
+        try {
+            long p = addr;
+            final long lim = addr + fileSize;
+            while (p < lim) {
+                final long keyAddress;
+                final long keyLen;
+                if (keySize == -1) {
+                    keyLen = Unsafe.getUnsafe().getInt(p);
+                    keyAddress = p + OrderedMap.VAR_KEY_HEADER_SIZE;
+                } else {
+                    keyLen = keySize;
+                    keyAddress = p;
+                }
+                final long valueAddress = keyAddress + keyLen;
+
+                final OrderedMap.Key key = (OrderedMap.Key) orderedMap.withKey();
+                key.copyFromRawKey(keyAddress, keyLen);
+                final OrderedMapValue value = (OrderedMapValue) key.createValue();
+                if (value.isNew()) {
+                    value.copyRawValue(valueAddress);
+                } else {
+                    mergeFunction.merge(value, orderedMap.rawValueOf(p, valueAddress));
+                }
+                p = Bytes.align8b(valueAddress + valueSize);
+            }
+        } finally {
+            ff.munmap(addr, fileSize, MemoryTag.MMAP_DEFAULT);
+        }
+    }
+
+    private OrderedMap newOrderedMap() {
+        final OrderedMap orderedMap = new OrderedMap(heapSize, keyTypes, valueTypes, keyCapacity, loadFactor, maxResizes);
+        valueSize = orderedMap.valueSize();
+        return orderedMap;
+    }
+
+    private void openSpillFiles() {
+        if (spillRoot == null) {
+            throw CairoException.nonCritical().put("GROUP BY spill root is not configured");
+        }
+        if (path == null) {
+            path = new Path();
+        }
+        path.of(spillRoot).slash$();
+        if (!ff.exists(path) && ff.mkdirs(path, mkDirMode) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create GROUP BY spill directory [path=").put(path).put(']');
+        }
+        path.put("groupby_spill_").put(ID_SEQ.incrementAndGet()).put('_');
+        pathRootLen = path.size();
+
+        fds = new int[partitionCount];
+        buffers = new long[partitionCount];
+        bufferPositions = new long[partitionCount];
+        fileSizes = new long[partitionCount];
+        Arrays.fill(fds, -1);
+        for (int i = 0; i < partitionCount; i++) {
+            path.trimTo(pathRootLen).put(i).put(".d").$();
+            final int fd = ff.openRW(path, CairoConfiguration.O_NONE);
+            if (fd < 0 || !ff.truncate(fd, 0)) {
+                if (fd > -1) {
+                    ff.close(fd);
+                }
+                throw CairoException.critical(ff.errno()).put("could not open GROUP BY spill file [path=").put(path).put(']');
+            }
+            fds[i] = fd;
+            buffers[i] = Unsafe.malloc(PARTITION_BUFFER_SIZE, MemoryTag.NATIVE_FAST_MAP);
+        }
+    }
+
+    private void releaseSpill() {
+        if (fds != null) {
+            for (int i = 0; i < partitionCount; i++) {
+                if (fds[i] != -1) {
+                    ff.close(fds[i]);
+                    path.trimTo(pathRootLen).put(i).put(".d").$();
+                    ff.removeQuiet(path);
+                }
+                if (buffers[i] != 0) {
+                    Unsafe.free(buffers[i], PARTITION_BUFFER_SIZE, MemoryTag.NATIVE_FAST_MAP);
+                }
+            }
+            fds = null;
+            buffers = null;
+            bufferPositions = null;
+            fileSizes = null;
+        }
+        isSpilled = false;
+        spillCursor.isReading = false;
+        spilledAllocatorSize = 0;
+    }
+
+    /**
+     * Writes all in-memory key-value pairs to the partition buffers and clears the map.
+     * On the first spill, the entries of the initial map are moved to the ordered map.
+     */
+    private void spill() {
+        if (map.size() == 0) {
+            return;
+        }
+        if (fds == null) {
+            openSpillFiles();
+        }
+        isSpilled = true;
+
+        if (map == initialMap) {
+            if (orderedMap == null) {
+                orderedMap = newOrderedMap();
+            } else {
+                orderedMap.reopen();
+            }
+            final MapRecordCursor cursor = initialMap.getCursor();
+            final MapRecord record = cursor.getRecord();
+            while (cursor.hasNext()) {
+                if (orderedMap.getUsedHeapSize() > memoryBudget) {
+                    spillOrderedMap();
+                }
+                // keys of the initial map are unique, so the value is always new
+                final MapKey key = orderedMap.withKey();
+                copyKey(record, key);
+                copyValue(record, key.createValue());
+            }
+            initialMap.close();
+            map = orderedMap;
+        }
+        spillOrderedMap();
+        if (allocator != null) {
+            spilledAllocatorSize = allocator.allocated();
+        }
+    }
+
+    private void spillOrderedMap() {
+        final long keySize = orderedMap.keySize();
+        final long shift = Long.SIZE - partitionBits;
+        long p = orderedMap.heapStart();
+        final long lim = orderedMap.getAppendOffset();
+        while (p < lim) {
+            final long keyAddress;
+            final long keyLen;
+            if (keySize == -1) {
+                keyLen = Unsafe.getUnsafe().getInt(p);
+                keyAddress = p + OrderedMap.VAR_KEY_HEADER_SIZE;
+            } else {
+                keyLen = keySize;
+                keyAddress = p;
+            }
+            final long next = Bytes.align8b(keyAddress + keyLen + valueSize);
+            final long len = next - p;
+            // Use the highest hash code bits since the lowest ones are used for the hash table index.
+            final int partition = partitionBits > 0 ? (int) (Hash.hashMem64(keyAddress, keyLen) >>> shift) : 0;
+
+            if (bufferPositions[partition] + len > PARTITION_BUFFER_SIZE) {
+                flush(partition);
+            }
+            if (len > PARTITION_BUFFER_SIZE) {
+                write(partition, p, len);
+            } else {
+                Vect.memcpy(buffers[partition] + bufferPositions[partition], p, len);
+                bufferPositions[partition] += len;
+            }
+            p = next;
+        }
+        orderedMap.clear();
+    }
+
+    private long usedMemory() {
+        long used = map.getUsedHeapSize();
+        if (used < 0) {
+            // hash table maps keep their entries in place
+            used = map.size() * entrySize;
+        }
+        if (allocator != null) {
+            used += allocator.allocated() - spilledAllocatorSize;
+        }
+        return used;
+    }
+
+    private void write(int partition, long address, long len) {
+        final long offset = fileSizes[partition];
+        if (ff.write(fds[partition], address, len, offset) != len) {
+            throw CairoException.critical(ff.errno()).put("could not write GROUP BY spill file [fd=").put(fds[partition])
+                    .put(", offset=").put(offset)
+                    .put(", len=").put(len)
+                    .put(']');
+        }
+        fileSizes[partition] = offset + len;
+    }
+
+    private class SpillCursor implements MapRecordCursor {
+        private OrderedMapCursor cursor;
+        private boolean isReading;
+        private int partition;
+
+        @Override
+        public void calculateSize(SqlExecutionCircuitBreaker circuitBreaker, Counter counter) {
+            while (hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                counter.inc();
+            }
+        }
+
+        @Override
+        public void close() {
+            // no-op
+        }
+
+        @Override
+        public MapRecord getRecord() {
+            return orderedMap.getRecord();
+        }
+
+        @Override
+        public MapRecord getRecordB() {
+            return cursor.getRecordB();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!cursor.hasNext()) {
+                if (partition == partitionCount) {
+                    return false;
+                }
+                loadPartition(partition++);
+                cursor = (OrderedMapCursor) orderedMap.getCursor();
+            }
+            return true;
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            cursor.recordAt(record, atRowId);
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+            partition = 0;
+            orderedMap.clear();
+            cursor = (OrderedMapCursor) orderedMap.getCursor();
+        }
+    }
+}
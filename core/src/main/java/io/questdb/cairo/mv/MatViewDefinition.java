@@ -0,0 +1,307 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.mv;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.std.Chars;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Definition of a materialized view, i.e. a SAMPLE BY query over a single WAL base table
+ * whose result is kept in a WAL table with deduplication on the time bucket and key columns.
+ * <p>
+ * The definition also accumulates the timestamp range of base table rows committed since the
+ * last refresh. Refresh re-aggregates whole time buckets covering that range and upserts
+ * the result into the view table.
+ * <p>
+ * Definition is persisted in the view table directory, file layout is:
+ * <pre>
+ * int    - offset of base table name in the query text
+ * int    - offset of the first character after base table name in the query text
+ * int    - 1 when base table is aliased in the query, 0 otherwise
+ * int    - sampling interval
+ * int    - sampling unit
+ * string - base table name
+ * string - base table designated timestamp column name
+ * string - query text
+ * </pre>
+ */
+public class MatViewDefinition {
+    private final boolean baseTableAliased;
+    private final int baseTableHi;
+    private final int baseTableLo;
+    private final String baseTableName;
+    private final String baseTableTimestamp;
+    private final String query;
+    private final int samplingInterval;
+    private final char samplingUnit;
+    private final TableToken viewToken;
+    private long dirtyHi = Long.MIN_VALUE;
+    private long dirtyLo = Long.MAX_VALUE;
+
+    public MatViewDefinition(
+            TableToken viewToken,
+            String baseTableName,
+            String baseTableTimestamp,
+            String query,
+            int baseTableLo,
+            int baseTableHi,
+            boolean baseTableAliased,
+            int samplingInterval,
+            char samplingUnit
+    ) {
+        this.viewToken = viewToken;
+        this.baseTableName = baseTableName;
+        this.baseTableTimestamp = baseTableTimestamp;
+        this.query = query;
+        this.baseTableLo = baseTableLo;
+        this.baseTableHi = baseTableHi;
+        this.baseTableAliased = baseTableAliased;
+        this.samplingInterval = samplingInterval;
+        this.samplingUnit = samplingUnit;
+    }
+
+    /**
+     * Returns the start of the time bucket the timestamp belongs to. Bucket boundaries
+     * are the same as the ones produced by calendar aligned SAMPLE BY without offset,
+     * i.e. timestamp_floor() of the sampling interval.
+     */
+    public static long floor(long timestamp, int interval, char unit) {
+        switch (unit) {
+            case 'U':
+                return Timestamps.floorMC(timestamp, interval);
+            case 'T':
+                return Timestamps.floorMS(timestamp, interval);
+            case 's':
+                return Timestamps.floorSS(timestamp, interval);
+            case 'm':
+                return Timestamps.floorMI(timestamp, interval);
+            case 'h':
+                return Timestamps.floorHH(timestamp, interval);
+            case 'd':
+                return Timestamps.floorDD(timestamp, interval);
+            case 'M':
+                return Timestamps.floorMM(timestamp, interval);
+            case 'y':
+                return Timestamps.floorYYYY(timestamp, interval);
+            default:
+                throw CairoException.nonCritical().put("unsupported sampling unit [unit=").put(unit).put(']');
+        }
+    }
+
+    public static boolean isSupportedSamplingUnit(char unit) {
+        switch (unit) {
+            case 'U':
+            case 'T':
+            case 's':
+            case 'm':
+            case 'h':
+            case 'd':
+            case 'M':
+            case 'y':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public static long nextBucket(long bucketLo, int interval, char unit) {
+        return Timestamps.addPeriod(bucketLo, unit == 'U' ? 'u' : unit, interval);
+    }
+
+    /**
+     * Reads view definition from the view table directory.
+     *
+     * @return view definition or null when the table is not a materialized view
+     * or the definition file cannot be read
+     */
+    @Nullable
+    public static MatViewDefinition read(CairoConfiguration configuration, Path path, TableToken viewToken) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        path.of(configuration.getRoot()).concat(viewToken).concat(TableUtils.MAT_VIEW_FILE_NAME).$();
+        if (!ff.exists(path)) {
+            return null;
+        }
+        final MemoryCMR mem = Vm.getCMRInstance();
+        try {
+            mem.smallFile(ff, path, MemoryTag.MMAP_DEFAULT);
+            final long size = mem.size();
+            long offset = 5 * Integer.BYTES;
+            if (size < offset) {
+                return null;
+            }
+            final int baseTableLo = mem.getInt(0);
+            final int baseTableHi = mem.getInt(Integer.BYTES);
+            final boolean baseTableAliased = mem.getInt(2 * Integer.BYTES) == 1;
+            final int samplingInterval = mem.getInt(3 * Integer.BYTES);
+            final char samplingUnit = (char) mem.getInt(4 * Integer.BYTES);
+
+            final String baseTableName = readStr(mem, offset, size);
+            if (baseTableName == null) {
+                return null;
+            }
+            offset += Vm.getStorageLength(baseTableName);
+            final String baseTableTimestamp = readStr(mem, offset, size);
+            if (baseTableTimestamp == null) {
+                return null;
+            }
+            offset += Vm.getStorageLength(baseTableTimestamp);
+            final String query = readStr(mem, offset, size);
+            if (
+                    query == null
+                            || baseTableLo < 0
+                            || baseTableHi <= baseTableLo
+                            || baseTableHi > query.length()
+                            || samplingInterval < 1
+                            || !isSupportedSamplingUnit(samplingUnit)
+            ) {
+                return null;
+            }
+            return new MatViewDefinition(
+                    viewToken,
+                    baseTableName,
+                    baseTableTimestamp,
+                    query,
+                    baseTableLo,
+                    baseTableHi,
+                    baseTableAliased,
+                    samplingInterval,
+                    samplingUnit
+            );
+        } finally {
+            Misc.free(mem);
+        }
+    }
+
+    public String getBaseTableName() {
+        return baseTableName;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public TableToken getViewToken() {
+        return viewToken;
+    }
+
+    /**
+     * Extends the range of base table timestamps that need to be re-aggregated.
+     */
+    public synchronized void markDirty(long minTimestamp, long maxTimestamp) {
+        dirtyLo = Math.min(dirtyLo, minTimestamp);
+        dirtyHi = Math.max(dirtyHi, maxTimestamp);
+    }
+
+    /**
+     * Prints refresh SQL for the accumulated dirty range into the sink and resets the range.
+     * The base table in the view query is replaced with a sub-query that selects whole time
+     * buckets covering the dirty range.
+     *
+     * @return false when there is nothing to refresh
+     */
+    public boolean takeRefreshSql(StringSink sink) {
+        final long lo;
+        final long hi;
+        synchronized (this) {
+            if (dirtyLo > dirtyHi) {
+                return false;
+            }
+            lo = dirtyLo;
+            hi = dirtyHi;
+            dirtyLo = Long.MAX_VALUE;
+            dirtyHi = Long.MIN_VALUE;
+        }
+
+        final long bucketLo = floor(lo, samplingInterval, samplingUnit);
+        final long bucketHi = nextBucket(floor(hi, samplingInterval, samplingUnit), samplingInterval, samplingUnit);
+        if (bucketHi == Numbers.LONG_NULL) {
+            return false;
+        }
+
+        sink.clear();
+        sink.put("insert into \"").put(viewToken.getTableName()).put("\" ");
+        sink.put(query, 0, baseTableLo);
+        sink.put('(');
+        sink.put(query, baseTableLo, baseTableHi);
+        sink.put(" where \"").put(baseTableTimestamp).put("\" >= '");
+        TimestampFormatUtils.appendDateTimeUSec(sink, bucketLo);
+        sink.put("' and \"").put(baseTableTimestamp).put("\" < '");
+        TimestampFormatUtils.appendDateTimeUSec(sink, bucketHi);
+        sink.put("')");
+        if (!baseTableAliased) {
+            sink.put(' ');
+            sink.put(query, baseTableLo, baseTableHi);
+        }
+        sink.put(query, baseTableHi, query.length());
+        return true;
+    }
+
+    /**
+     * Writes view definition into the view table directory.
+     */
+    public void write(CairoConfiguration configuration, Path path) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        path.of(configuration.getRoot()).concat(viewToken).concat(TableUtils.MAT_VIEW_FILE_NAME).$();
+        try (MemoryCMARW mem = Vm.getSmallCMARWInstance(ff, path, MemoryTag.MMAP_DEFAULT, configuration.getWriterFileOpenOpts())) {
+            mem.putInt(baseTableLo);
+            mem.putInt(baseTableHi);
+            mem.putInt(baseTableAliased ? 1 : 0);
+            mem.putInt(samplingInterval);
+            mem.putInt(samplingUnit);
+            mem.putStr(baseTableName);
+            mem.putStr(baseTableTimestamp);
+            mem.putStr(query);
+            mem.sync(false);
+            mem.close(true, Vm.TRUNCATE_TO_POINTER);
+        }
+    }
+
+    @Nullable
+    private static String readStr(MemoryCMR mem, long offset, long size) {
+        if (offset + Vm.STRING_LENGTH_BYTES > size) {
+            return null;
+        }
+        final int len = mem.getInt(offset);
+        if (len < 0 || offset + Vm.getStorageLength(len) > size) {
+            return null;
+        }
+        return Chars.toString(mem.getStrA(offset));
+    }
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.mv;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.TableToken;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.Chars;
+import io.questdb.std.ConcurrentHashMap;
+import io.questdb.std.ObjHashSet;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.Path;
+
+/**
+ * Registry of materialized views keyed by view table directory name. WAL apply notifies the
+ * graph of committed base table timestamp ranges, the refresh job picks up views with
+ * pending ranges.
+ */
+public class MatViewGraph {
+    private static final Log LOG = LogFactory.getLog(MatViewGraph.class);
+    private final ConcurrentHashMap<MatViewDefinition> views = new ConcurrentHashMap<>();
+
+    public void addView(MatViewDefinition viewDefinition) {
+        views.put(viewDefinition.getViewToken().getDirName(), viewDefinition);
+    }
+
+    public void clear() {
+        views.clear();
+    }
+
+    public MatViewDefinition getView(TableToken viewToken) {
+        return views.get(viewToken.getDirName());
+    }
+
+    public void getViews(ObjList<MatViewDefinition> sink) {
+        sink.clear();
+        if (!views.isEmpty()) {
+            for (MatViewDefinition viewDefinition : views.values()) {
+                sink.add(viewDefinition);
+            }
+        }
+    }
+
+    /**
+     * Marks timestamp range of rows committed to the base table as dirty in all views
+     * built on top of the table.
+     */
+    public void notifyBaseTableCommit(TableToken baseTableToken, long minTimestamp, long maxTimestamp) {
+        if (views.isEmpty()) {
+            return;
+        }
+        for (MatViewDefinition viewDefinition : views.values()) {
+            if (Chars.equalsIgnoreCase(viewDefinition.getBaseTableName(), baseTableToken.getTableName())) {
+                viewDefinition.markDirty(minTimestamp, maxTimestamp);
+            }
+        }
+    }
+
+    /**
+     * Re-reads view definitions of all live WAL tables.
+     */
+    public void reload(CairoEngine engine) {
+        views.clear();
+        final CairoConfiguration configuration = engine.getConfiguration();
+        final ObjHashSet<TableToken> tableTokens = new ObjHashSet<>();
+        engine.getTableTokens(tableTokens, false);
+        final Path path = Path.getThreadLocal(configuration.getRoot());
+        for (int i = 0, n = tableTokens.size(); i < n; i++) {
+            final TableToken tableToken = tableTokens.get(i);
+            if (tableToken.isWal()) {
+                final MatViewDefinition viewDefinition = MatViewDefinition.read(configuration, path, tableToken);
+                if (viewDefinition != null) {
+                    addView(viewDefinition);
+                    LOG.info().$("loaded materialized view [view=").$(tableToken)
+                            .$(", baseTable=").utf8(viewDefinition.getBaseTableName()).I$();
+                }
+            }
+        }
+    }
+
+    public void removeView(TableToken viewToken) {
+        views.remove(viewToken.getDirName());
+    }
+}
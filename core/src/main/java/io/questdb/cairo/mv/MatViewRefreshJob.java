@@ -0,0 +1,111 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.mv;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableToken;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+
+/**
+ * Re-aggregates time buckets of materialized views touched by base table commits since
+ * the last run. Refreshed buckets are inserted into the view table, deduplication
+ * replaces previous versions of the buckets.
+ */
+public class MatViewRefreshJob extends SynchronizedJob implements Closeable {
+    private static final Log LOG = LogFactory.getLog(MatViewRefreshJob.class);
+    private final CairoEngine engine;
+    private final StringSink refreshSql = new StringSink();
+    private final ObjList<MatViewDefinition> views = new ObjList<>();
+    private SqlExecutionContextImpl sqlExecutionContext;
+
+    public MatViewRefreshJob(CairoEngine engine) {
+        this.engine = engine;
+        this.sqlExecutionContext = new SqlExecutionContextImpl(engine, 1);
+        this.sqlExecutionContext.with(
+                engine.getConfiguration().getFactoryProvider().getSecurityContextFactory().getRootContext(),
+                null,
+                null
+        );
+    }
+
+    @Override
+    public void close() {
+        sqlExecutionContext = Misc.free(sqlExecutionContext);
+    }
+
+    private boolean refresh(MatViewDefinition viewDefinition) {
+        if (!viewDefinition.takeRefreshSql(refreshSql)) {
+            return false;
+        }
+        try (SqlCompiler compiler = engine.getSqlCompiler()) {
+            CairoEngine.compile(compiler, refreshSql, sqlExecutionContext);
+            LOG.debug().$("refreshed materialized view [view=").$(viewDefinition.getViewToken()).I$();
+        } catch (SqlException e) {
+            LOG.error().$("could not refresh materialized view [view=").$(viewDefinition.getViewToken())
+                    .$(", sql=").$(refreshSql)
+                    .$(", position=").$(e.getPosition())
+                    .$(", error=").$(e.getFlyweightMessage())
+                    .I$();
+        } catch (CairoException e) {
+            LOG.error().$("could not refresh materialized view [view=").$(viewDefinition.getViewToken())
+                    .$(", sql=").$(refreshSql)
+                    .$(", error=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean runSerially() {
+        final MatViewGraph graph = engine.getMatViewGraph();
+        graph.getViews(views);
+        boolean useful = false;
+        for (int i = 0, n = views.size(); i < n; i++) {
+            final MatViewDefinition viewDefinition = views.getQuick(i);
+            final TableToken viewToken = viewDefinition.getViewToken();
+            if (!viewToken.equals(engine.getTableTokenIfExists(viewToken.getTableName()))) {
+                // view table has been dropped or renamed
+                graph.removeView(viewToken);
+                LOG.info().$("removed materialized view [view=").$(viewToken).I$();
+                continue;
+            }
+            useful |= refresh(viewDefinition);
+        }
+        views.clear();
+        return useful;
+    }
+}
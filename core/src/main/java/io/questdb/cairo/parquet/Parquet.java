@@ -0,0 +1,135 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.ColumnType;
+
+/**
+ * Parquet format constants and mapping of column types to Parquet types.
+ * <pre>
+ * BOOLEAN               - BOOLEAN, required
+ * BYTE, SHORT, CHAR     - INT32 (INT_8, INT_16, UINT_16), required
+ * INT                   - INT32, optional, null is INT_NULL
+ * LONG, DATE, TIMESTAMP - INT64 (none, TIMESTAMP_MILLIS, TIMESTAMP_MICROS), optional, null is LONG_NULL
+ * FLOAT, DOUBLE         - FLOAT, DOUBLE, optional, null is NaN
+ * SYMBOL, STRING        - BYTE_ARRAY (UTF8), optional
+ * VARCHAR               - BYTE_ARRAY (UTF8), optional
+ * BINARY                - BYTE_ARRAY, optional
+ * </pre>
+ * Other column types are not supported.
+ */
+public final class Parquet {
+    public static final int CODEC_UNCOMPRESSED = 0;
+    public static final int CONVERTED_TYPE_INT_16 = 16;
+    public static final int CONVERTED_TYPE_INT_8 = 15;
+    public static final int CONVERTED_TYPE_NONE = -1;
+    public static final int CONVERTED_TYPE_TIMESTAMP_MICROS = 10;
+    public static final int CONVERTED_TYPE_TIMESTAMP_MILLIS = 9;
+    public static final int CONVERTED_TYPE_UINT_16 = 12;
+    public static final int CONVERTED_TYPE_UTF8 = 0;
+    public static final int ENCODING_PLAIN = 0;
+    public static final int ENCODING_RLE = 3;
+    public static final String FILE_NAME = "data.parquet";
+    public static final int FOOTER_SIZE = 8;
+    // "PAR1" read as little-endian int
+    public static final int MAGIC = 0x31524150;
+    public static final int MAGIC_SIZE = 4;
+    public static final int PAGE_TYPE_DATA_PAGE = 0;
+    public static final int REPETITION_OPTIONAL = 1;
+    public static final int REPETITION_REQUIRED = 0;
+    public static final int TYPE_BOOLEAN = 0;
+    public static final int TYPE_BYTE_ARRAY = 6;
+    public static final int TYPE_DOUBLE = 5;
+    public static final int TYPE_FLOAT = 4;
+    public static final int TYPE_INT32 = 1;
+    public static final int TYPE_INT64 = 2;
+
+    private Parquet() {
+    }
+
+    public static int getConvertedType(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+                return CONVERTED_TYPE_INT_8;
+            case ColumnType.SHORT:
+                return CONVERTED_TYPE_INT_16;
+            case ColumnType.CHAR:
+                return CONVERTED_TYPE_UINT_16;
+            case ColumnType.DATE:
+                return CONVERTED_TYPE_TIMESTAMP_MILLIS;
+            case ColumnType.TIMESTAMP:
+                return CONVERTED_TYPE_TIMESTAMP_MICROS;
+            case ColumnType.SYMBOL:
+            case ColumnType.STRING:
+            case ColumnType.VARCHAR:
+                return CONVERTED_TYPE_UTF8;
+            default:
+                return CONVERTED_TYPE_NONE;
+        }
+    }
+
+    public static int getPhysicalType(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                return TYPE_BOOLEAN;
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+                return TYPE_INT32;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return TYPE_INT64;
+            case ColumnType.FLOAT:
+                return TYPE_FLOAT;
+            case ColumnType.DOUBLE:
+                return TYPE_DOUBLE;
+            case ColumnType.SYMBOL:
+            case ColumnType.STRING:
+            case ColumnType.VARCHAR:
+            case ColumnType.BINARY:
+                return TYPE_BYTE_ARRAY;
+            default:
+                return -1;
+        }
+    }
+
+    public static boolean isOptional(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    public static boolean isSupportedColumnType(int columnType) {
+        return getPhysicalType(columnType) != -1;
+    }
+}
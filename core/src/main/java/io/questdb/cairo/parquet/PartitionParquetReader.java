@@ -0,0 +1,744 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.VarcharTypeDriver;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectUtf8String;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8s;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.parquet.Parquet.*;
+
+/**
+ * Reads Parquet files written by {@link PartitionParquetWriter}. The footer is parsed
+ * when the file is opened, column chunks are decoded on request into the native column
+ * format, i.e. the same data and aux vectors the table writer would produce.
+ * <p>
+ * Only PLAIN encoded, uncompressed data pages of flat schemas are supported.
+ */
+public class PartitionParquetReader implements QuietCloseable {
+    private static final int CHUNK_DATA_PAGE_OFFSET = 0;
+    private static final int CHUNK_HAS_MIN_MAX = 4;
+    private static final int CHUNK_LONGS = 7;
+    private static final int CHUNK_MAX = 6;
+    private static final int CHUNK_MIN = 5;
+    private static final int CHUNK_NULL_COUNT = 3;
+    private static final int CHUNK_TOTAL_SIZE = 1;
+    private static final int CHUNK_VALUE_COUNT = 2;
+    private static final Log LOG = LogFactory.getLog(PartitionParquetReader.class);
+    // column chunk attributes, CHUNK_LONGS per chunk, row group after row group
+    private final LongList chunks = new LongList();
+    private final IntList fieldIds = new IntList();
+    private final IntList physicalTypes = new IntList();
+    private final IntList repetitions = new IntList();
+    private final LongList rowGroupRows = new LongList();
+    private final ThriftCompactReader thrift = new ThriftCompactReader();
+    private final StringSink utf16Sink = new StringSink();
+    private final DirectUtf8String utf8View = new DirectUtf8String();
+    private long addr;
+    private int bitPackedIndex;
+    private long defLevelsHi;
+    private long defLevelsPos;
+    private int fd = -1;
+    private FilesFacade ff;
+    private long fileSize;
+    private int memoryTag;
+    private boolean rleRun;
+    private int rleValue;
+    private long rowCount;
+    private long runRemaining;
+
+    @Override
+    public void close() {
+        if (addr != 0) {
+            ff.munmap(addr, fileSize, memoryTag);
+            addr = 0;
+        }
+        if (fd != -1) {
+            ff.close(fd);
+            fd = -1;
+        }
+        fileSize = 0;
+        rowCount = 0;
+        chunks.clear();
+        fieldIds.clear();
+        physicalTypes.clear();
+        repetitions.clear();
+        rowGroupRows.clear();
+    }
+
+    /**
+     * Decodes values of the column, starting from the given row, into native column format.
+     * Symbol values are mapped to keys of the symbol table.
+     *
+     * @param columnIndex index of the column in the file
+     * @param columnType  column type the values are decoded as, must map to the column's physical type
+     * @param rowLo       first row to decode, rows before it are skipped
+     * @param dataMem     data vector
+     * @param auxMem      aux vector of var-size columns, otherwise null
+     * @param symbolTable symbol table of symbol columns, otherwise null
+     */
+    public void decodeColumn(
+            int columnIndex,
+            int columnType,
+            long rowLo,
+            MemoryCARW dataMem,
+            @Nullable MemoryCARW auxMem,
+            @Nullable StaticSymbolTable symbolTable
+    ) {
+        if (physicalTypes.getQuick(columnIndex) != getPhysicalType(columnType)) {
+            throw CairoException.critical(0).put("parquet column type mismatch [fd=").put(fd)
+                    .put(", column=").put(columnIndex)
+                    .put(", type=").put(ColumnType.nameOf(columnType))
+                    .put(']');
+        }
+        final boolean optional = repetitions.getQuick(columnIndex) == REPETITION_OPTIONAL;
+        final int tag = ColumnType.tagOf(columnType);
+        if (auxMem != null && (tag == ColumnType.STRING || tag == ColumnType.BINARY)) {
+            // aux vector of string and binary columns starts with the offset of the first value
+            auxMem.putLong(0);
+        }
+
+        long row = 0;
+        for (int g = 0, n = rowGroupRows.size(); g < n; g++) {
+            final long groupRows = rowGroupRows.getQuick(g);
+            if (row + groupRows <= rowLo) {
+                // the whole row group is skipped without reading its pages
+                row += groupRows;
+                continue;
+            }
+            final int chunk = getChunkOffset(g, columnIndex);
+            long pos = addr + chunks.getQuick(chunk + CHUNK_DATA_PAGE_OFFSET);
+            final long chunkHi = pos + chunks.getQuick(chunk + CHUNK_TOTAL_SIZE);
+            long valuesRemaining = chunks.getQuick(chunk + CHUNK_VALUE_COUNT);
+            while (valuesRemaining > 0) {
+                thrift.of(pos, chunkHi);
+                int pageType = -1;
+                int pageSize = -1;
+                int valueCount = -1;
+                int encoding = -1;
+                thrift.structBegin();
+                while (thrift.nextField()) {
+                    switch (thrift.getFieldId()) {
+                        case 1:
+                            pageType = thrift.readI32();
+                            break;
+                        case 3:
+                            pageSize = thrift.readI32();
+                            break;
+                        case 5:
+                            thrift.structBegin();
+                            while (thrift.nextField()) {
+                                if (thrift.getFieldId() == 1) {
+                                    valueCount = thrift.readI32();
+                                } else if (thrift.getFieldId() == 2) {
+                                    encoding = thrift.readI32();
+                                } else {
+                                    thrift.skip(thrift.getFieldType());
+                                }
+                            }
+                            thrift.structEnd();
+                            break;
+                        default:
+                            thrift.skip(thrift.getFieldType());
+                            break;
+                    }
+                }
+                thrift.structEnd();
+
+                final long pageLo = thrift.getPosition();
+                if (pageType != PAGE_TYPE_DATA_PAGE || encoding != ENCODING_PLAIN) {
+                    throw CairoException.critical(0).put("unsupported parquet page [fd=").put(fd)
+                            .put(", column=").put(columnIndex)
+                            .put(", pageType=").put(pageType)
+                            .put(", encoding=").put(encoding)
+                            .put(']');
+                }
+                if (pageSize < 0 || valueCount < 0 || valueCount > valuesRemaining || pageSize > chunkHi - pageLo) {
+                    throw corruptPage(columnIndex);
+                }
+                decodePage(pageLo, pageLo + pageSize, valueCount, optional, tag, row, rowLo, dataMem, auxMem, symbolTable);
+                row += valueCount;
+                valuesRemaining -= valueCount;
+                pos = pageLo + pageSize;
+            }
+        }
+    }
+
+    public int getColumnCount() {
+        return fieldIds.size();
+    }
+
+    /**
+     * @return index of the column with given field id, i.e. writer index, or -1 if there is no such column
+     */
+    public int getColumnIndex(int fieldId) {
+        for (int i = 0, n = fieldIds.size(); i < n; i++) {
+            if (fieldIds.getQuick(i) == fieldId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getRowGroupCount() {
+        return rowGroupRows.size();
+    }
+
+    /**
+     * @return min value of numeric column in the row group, raw bits for float and double columns
+     */
+    public long getRowGroupMax(int rowGroupIndex, int columnIndex) {
+        return chunks.getQuick(getChunkOffset(rowGroupIndex, columnIndex) + CHUNK_MAX);
+    }
+
+    /**
+     * @return max value of numeric column in the row group, raw bits for float and double columns
+     */
+    public long getRowGroupMin(int rowGroupIndex, int columnIndex) {
+        return chunks.getQuick(getChunkOffset(rowGroupIndex, columnIndex) + CHUNK_MIN);
+    }
+
+    public long getRowGroupNullCount(int rowGroupIndex, int columnIndex) {
+        return chunks.getQuick(getChunkOffset(rowGroupIndex, columnIndex) + CHUNK_NULL_COUNT);
+    }
+
+    public long getRowGroupRowCount(int rowGroupIndex) {
+        return rowGroupRows.getQuick(rowGroupIndex);
+    }
+
+    public boolean hasRowGroupMinMax(int rowGroupIndex, int columnIndex) {
+        return chunks.getQuick(getChunkOffset(rowGroupIndex, columnIndex) + CHUNK_HAS_MIN_MAX) == 1;
+    }
+
+    /**
+     * Opens the file and parses its footer.
+     *
+     * @param ff        files facade
+     * @param path      path to Parquet file
+     * @param memoryTag memory tag of the file mapping
+     */
+    public void of(FilesFacade ff, LPSZ path, int memoryTag) {
+        close();
+        this.ff = ff;
+        this.memoryTag = memoryTag;
+        try {
+            fd = TableUtils.openRO(ff, path, LOG);
+            fileSize = ff.length(fd);
+            if (fileSize < MAGIC_SIZE + FOOTER_SIZE) {
+                throw CairoException.critical(0).put("parquet file is too short [file=").put(path)
+                        .put(", size=").put(fileSize)
+                        .put(']');
+            }
+            addr = TableUtils.mapRO(ff, fd, fileSize, memoryTag);
+            final long footerSize = Unsafe.getUnsafe().getInt(addr + fileSize - FOOTER_SIZE);
+            if (
+                    Unsafe.getUnsafe().getInt(addr) != MAGIC
+                            || Unsafe.getUnsafe().getInt(addr + fileSize - MAGIC_SIZE) != MAGIC
+                            || footerSize < 0
+                            || footerSize > fileSize - MAGIC_SIZE - FOOTER_SIZE
+            ) {
+                throw CairoException.critical(0).put("not a parquet file [file=").put(path).put(']');
+            }
+            final long footerHi = addr + fileSize - FOOTER_SIZE;
+            readFileMetadata(footerHi - footerSize, footerHi);
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    private static long readPlainValue(long address, long len) {
+        if (len == Integer.BYTES) {
+            return Unsafe.getUnsafe().getInt(address);
+        }
+        if (len == Long.BYTES) {
+            return Unsafe.getUnsafe().getLong(address);
+        }
+        return 0;
+    }
+
+    private void appendByteArray(
+            int tag,
+            boolean present,
+            long lo,
+            long hi,
+            MemoryCARW dataMem,
+            MemoryCARW auxMem,
+            StaticSymbolTable symbolTable
+    ) {
+        switch (tag) {
+            case ColumnType.SYMBOL:
+                if (present) {
+                    utf16Sink.clear();
+                    Utf8s.utf8ToUtf16(lo, hi, utf16Sink);
+                    final int key = symbolTable.keyOf(utf16Sink);
+                    if (key == SymbolTable.VALUE_NOT_FOUND) {
+                        throw CairoException.critical(0).put("symbol value is not found [fd=").put(fd)
+                                .put(", value=").put(utf16Sink)
+                                .put(']');
+                    }
+                    dataMem.putInt(key);
+                } else {
+                    dataMem.putInt(SymbolTable.VALUE_IS_NULL);
+                }
+                break;
+            case ColumnType.STRING:
+                if (present) {
+                    utf16Sink.clear();
+                    Utf8s.utf8ToUtf16(lo, hi, utf16Sink);
+                    auxMem.putLong(dataMem.putStr(utf16Sink));
+                } else {
+                    auxMem.putLong(dataMem.putNullStr());
+                }
+                break;
+            case ColumnType.VARCHAR:
+                if (present) {
+                    utf8View.of(lo, hi);
+                    utf8View.of(lo, hi, Utf8s.isAscii(utf8View));
+                    VarcharTypeDriver.appendValue(auxMem, dataMem, utf8View);
+                } else {
+                    VarcharTypeDriver.appendValue(auxMem, dataMem, null);
+                }
+                break;
+            default:
+                if (present) {
+                    // empty binary value is not null, it's stored with zero length
+                    final long len = hi - lo;
+                    final long valueAddr = dataMem.appendAddressFor(Long.BYTES + len);
+                    Unsafe.getUnsafe().putLong(valueAddr, len);
+                    Vect.memcpy(valueAddr + Long.BYTES, lo, len);
+                    auxMem.putLong(dataMem.getAppendOffset());
+                } else {
+                    auxMem.putLong(dataMem.putNullBin());
+                }
+                break;
+        }
+    }
+
+    private CairoException corruptPage(int columnIndex) {
+        return CairoException.critical(0).put("corrupt parquet page [fd=").put(fd)
+                .put(", column=").put(columnIndex)
+                .put(']');
+    }
+
+    private void decodePage(
+            long pageLo,
+            long pageHi,
+            int valueCount,
+            boolean optional,
+            int tag,
+            long row,
+            long rowLo,
+            MemoryCARW dataMem,
+            MemoryCARW auxMem,
+            StaticSymbolTable symbolTable
+    ) {
+        long valuesPos = pageLo;
+        if (optional) {
+            if (pageHi - pageLo < Integer.BYTES) {
+                throw corruptPage(-1);
+            }
+            final int defLevelsSize = Unsafe.getUnsafe().getInt(pageLo);
+            defLevelsPos = pageLo + Integer.BYTES;
+            defLevelsHi = defLevelsPos + defLevelsSize;
+            if (defLevelsSize < 0 || defLevelsHi > pageHi) {
+                throw corruptPage(-1);
+            }
+            runRemaining = 0;
+            valuesPos = defLevelsHi;
+        }
+
+        final long valuesLo = valuesPos;
+        for (int i = 0; i < valueCount; i++, row++) {
+            final boolean present = !optional || nextDefLevel() != 0;
+            final boolean skip = row < rowLo;
+            switch (tag) {
+                case ColumnType.BOOLEAN: {
+                    // bit-packed, values are required
+                    final long byteAddr = valuesLo + (i >>> 3);
+                    if (byteAddr >= pageHi) {
+                        throw corruptPage(-1);
+                    }
+                    if (!skip) {
+                        dataMem.putBool(((Unsafe.getUnsafe().getByte(byteAddr) >> (i & 7)) & 1) == 1);
+                    }
+                    break;
+                }
+                case ColumnType.BYTE:
+                case ColumnType.SHORT:
+                case ColumnType.CHAR:
+                case ColumnType.INT:
+                    if (present) {
+                        if (valuesPos + Integer.BYTES > pageHi) {
+                            throw corruptPage(-1);
+                        }
+                        if (!skip) {
+                            final int value = Unsafe.getUnsafe().getInt(valuesPos);
+                            if (tag == ColumnType.BYTE) {
+                                dataMem.putByte((byte) value);
+                            } else if (tag == ColumnType.SHORT) {
+                                dataMem.putShort((short) value);
+                            } else if (tag == ColumnType.CHAR) {
+                                dataMem.putChar((char) value);
+                            } else {
+                                dataMem.putInt(value);
+                            }
+                        }
+                        valuesPos += Integer.BYTES;
+                    } else if (!skip) {
+                        dataMem.putInt(Numbers.INT_NULL);
+                    }
+                    break;
+                case ColumnType.LONG:
+                case ColumnType.DATE:
+                case ColumnType.TIMESTAMP:
+                    if (present) {
+                        if (valuesPos + Long.BYTES > pageHi) {
+                            throw corruptPage(-1);
+                        }
+                        if (!skip) {
+                            dataMem.putLong(Unsafe.getUnsafe().getLong(valuesPos));
+                        }
+                        valuesPos += Long.BYTES;
+                    } else if (!skip) {
+                        dataMem.putLong(Numbers.LONG_NULL);
+                    }
+                    break;
+                case ColumnType.FLOAT:
+                    if (present) {
+                        if (valuesPos + Float.BYTES > pageHi) {
+                            throw corruptPage(-1);
+                        }
+                        if (!skip) {
+                            dataMem.putFloat(Unsafe.getUnsafe().getFloat(valuesPos));
+                        }
+                        valuesPos += Float.BYTES;
+                    } else if (!skip) {
+                        dataMem.putFloat(Float.NaN);
+                    }
+                    break;
+                case ColumnType.DOUBLE:
+                    if (present) {
+                        if (valuesPos + Double.BYTES > pageHi) {
+                            throw corruptPage(-1);
+                        }
+                        if (!skip) {
+                            dataMem.putDouble(Unsafe.getUnsafe().getDouble(valuesPos));
+                        }
+                        valuesPos += Double.BYTES;
+                    } else if (!skip) {
+                        dataMem.putDouble(Double.NaN);
+                    }
+                    break;
+                default: {
+                    // byte array values
+                    long lo = 0;
+                    long hi = 0;
+                    if (present) {
+                        if (valuesPos + Integer.BYTES > pageHi) {
+                            throw corruptPage(-1);
+                        }
+                        lo = valuesPos + Integer.BYTES;
+                        hi = lo + Unsafe.getUnsafe().getInt(valuesPos);
+                        if (hi < lo || hi > pageHi) {
+                            throw corruptPage(-1);
+                        }
+                        valuesPos = hi;
+                    }
+                    if (!skip) {
+                        appendByteArray(tag, present, lo, hi, dataMem, auxMem, symbolTable);
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    private int getChunkOffset(int rowGroupIndex, int columnIndex) {
+        return (rowGroupIndex * fieldIds.size() + columnIndex) * CHUNK_LONGS;
+    }
+
+    // definition levels are RLE/bit-packed hybrid encoded with bit width of 1
+    private int nextDefLevel() {
+        while (runRemaining == 0) {
+            if (defLevelsPos >= defLevelsHi) {
+                throw corruptPage(-1);
+            }
+            long header = 0;
+            for (int shift = 0; ; shift += 7) {
+                if (defLevelsPos >= defLevelsHi || shift > 35) {
+                    throw corruptPage(-1);
+                }
+                final byte b = Unsafe.getUnsafe().getByte(defLevelsPos++);
+                header |= (long) (b & 0x7f) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            rleRun = (header & 1) == 0;
+            if (rleRun) {
+                runRemaining = header >>> 1;
+                if (defLevelsPos >= defLevelsHi) {
+                    throw corruptPage(-1);
+                }
+                rleValue = Unsafe.getUnsafe().getByte(defLevelsPos++) & 1;
+            } else {
+                // groups of 8 values, one byte per group
+                runRemaining = (header >>> 1) * 8;
+                bitPackedIndex = 0;
+                if (defLevelsPos + (header >>> 1) > defLevelsHi) {
+                    throw corruptPage(-1);
+                }
+            }
+        }
+        runRemaining--;
+        if (rleRun) {
+            return rleValue;
+        }
+        final int value = (Unsafe.getUnsafe().getByte(defLevelsPos + (bitPackedIndex >>> 3)) >> (bitPackedIndex & 7)) & 1;
+        bitPackedIndex++;
+        if (runRemaining == 0) {
+            defLevelsPos += (bitPackedIndex + 7) >>> 3;
+        }
+        return value;
+    }
+
+    private void readColumnChunk(int chunkOffset) {
+        long dataPageOffset = -1;
+        long valueCount = 0;
+        long totalSize = 0;
+        long nullCount = 0;
+        long min = 0;
+        long max = 0;
+        boolean hasMin = false;
+        boolean hasMax = false;
+        int codec = CODEC_UNCOMPRESSED;
+        thrift.structBegin();
+        while (thrift.nextField()) {
+            if (thrift.getFieldId() == 3 && thrift.getFieldType() == ThriftCompactWriter.TYPE_STRUCT) {
+                // column metadata
+                thrift.structBegin();
+                while (thrift.nextField()) {
+                    switch (thrift.getFieldId()) {
+                        case 4:
+                            codec = thrift.readI32();
+                            break;
+                        case 5:
+                            valueCount = thrift.readI64();
+                            break;
+                        case 7:
+                            totalSize = thrift.readI64();
+                            break;
+                        case 9:
+                            dataPageOffset = thrift.readI64();
+                            break;
+                        case 12:
+                            // statistics
+                            thrift.structBegin();
+                            while (thrift.nextField()) {
+                                switch (thrift.getFieldId()) {
+                                    case 3:
+                                        nullCount = thrift.readI64();
+                                        break;
+                                    case 5: {
+                                        final long lo = thrift.readBinary();
+                                        max = readPlainValue(lo, thrift.getPosition() - lo);
+                                        hasMax = true;
+                                        break;
+                                    }
+                                    case 6: {
+                                        final long lo = thrift.readBinary();
+                                        min = readPlainValue(lo, thrift.getPosition() - lo);
+                                        hasMin = true;
+                                        break;
+                                    }
+                                    default:
+                                        thrift.skip(thrift.getFieldType());
+                                        break;
+                                }
+                            }
+                            thrift.structEnd();
+                            break;
+                        default:
+                            thrift.skip(thrift.getFieldType());
+                            break;
+                    }
+                }
+                thrift.structEnd();
+            } else {
+                thrift.skip(thrift.getFieldType());
+            }
+        }
+        thrift.structEnd();
+
+        if (codec != CODEC_UNCOMPRESSED) {
+            throw CairoException.critical(0).put("unsupported parquet compression codec [fd=").put(fd)
+                    .put(", codec=").put(codec)
+                    .put(']');
+        }
+        if (dataPageOffset < MAGIC_SIZE || totalSize < 0 || dataPageOffset + totalSize > fileSize - FOOTER_SIZE || valueCount < 0) {
+            throw CairoException.critical(0).put("corrupt parquet column chunk [fd=").put(fd).put(']');
+        }
+        chunks.setQuick(chunkOffset + CHUNK_DATA_PAGE_OFFSET, dataPageOffset);
+        chunks.setQuick(chunkOffset + CHUNK_TOTAL_SIZE, totalSize);
+        chunks.setQuick(chunkOffset + CHUNK_VALUE_COUNT, valueCount);
+        chunks.setQuick(chunkOffset + CHUNK_NULL_COUNT, nullCount);
+        chunks.setQuick(chunkOffset + CHUNK_HAS_MIN_MAX, hasMin && hasMax ? 1 : 0);
+        chunks.setQuick(chunkOffset + CHUNK_MIN, min);
+        chunks.setQuick(chunkOffset + CHUNK_MAX, max);
+    }
+
+    private void readFileMetadata(long lo, long hi) {
+        thrift.of(lo, hi);
+        thrift.structBegin();
+        while (thrift.nextField()) {
+            switch (thrift.getFieldId()) {
+                case 2:
+                    readSchema();
+                    break;
+                case 3:
+                    rowCount = thrift.readI64();
+                    break;
+                case 4: {
+                    final int rowGroupCount = thrift.readListBegin();
+                    final int columnCount = fieldIds.size();
+                    chunks.setPos((rowGroupCount * columnCount) * CHUNK_LONGS);
+                    for (int g = 0; g < rowGroupCount; g++) {
+                        readRowGroup(g, columnCount);
+                    }
+                    break;
+                }
+                default:
+                    thrift.skip(thrift.getFieldType());
+                    break;
+            }
+        }
+        thrift.structEnd();
+
+        long rows = 0;
+        for (int g = 0, n = rowGroupRows.size(); g < n; g++) {
+            rows += rowGroupRows.getQuick(g);
+        }
+        if (rows != rowCount) {
+            throw CairoException.critical(0).put("corrupt parquet row groups [fd=").put(fd)
+                    .put(", rowCount=").put(rowCount)
+                    .put(", rowGroupRows=").put(rows)
+                    .put(']');
+        }
+    }
+
+    private void readRowGroup(int rowGroupIndex, int columnCount) {
+        long rows = -1;
+        thrift.structBegin();
+        while (thrift.nextField()) {
+            switch (thrift.getFieldId()) {
+                case 1: {
+                    final int chunkCount = thrift.readListBegin();
+                    if (chunkCount != columnCount) {
+                        throw CairoException.critical(0).put("corrupt parquet row group [fd=").put(fd)
+                                .put(", columns=").put(chunkCount)
+                                .put(", expected=").put(columnCount)
+                                .put(']');
+                    }
+                    for (int i = 0; i < chunkCount; i++) {
+                        readColumnChunk(getChunkOffset(rowGroupIndex, i));
+                    }
+                    break;
+                }
+                case 3:
+                    rows = thrift.readI64();
+                    break;
+                default:
+                    thrift.skip(thrift.getFieldType());
+                    break;
+            }
+        }
+        thrift.structEnd();
+        if (rows < 0) {
+            throw CairoException.critical(0).put("corrupt parquet row group [fd=").put(fd).put(']');
+        }
+        rowGroupRows.add(rows);
+    }
+
+    private void readSchema() {
+        final int elementCount = thrift.readListBegin();
+        for (int e = 0; e < elementCount; e++) {
+            int type = -1;
+            int repetition = REPETITION_REQUIRED;
+            int childCount = 0;
+            int fieldId = -1;
+            thrift.structBegin();
+            while (thrift.nextField()) {
+                switch (thrift.getFieldId()) {
+                    case 1:
+                        type = thrift.readI32();
+                        break;
+                    case 3:
+                        repetition = thrift.readI32();
+                        break;
+                    case 5:
+                        childCount = thrift.readI32();
+                        break;
+                    case 9:
+                        fieldId = thrift.readI32();
+                        break;
+                    default:
+                        thrift.skip(thrift.getFieldType());
+                        break;
+                }
+            }
+            thrift.structEnd();
+            if (e == 0) {
+                // root element
+                if (childCount != elementCount - 1) {
+                    throw CairoException.critical(0).put("unsupported parquet schema, only flat schemas are supported [fd=").put(fd).put(']');
+                }
+                continue;
+            }
+            if (childCount != 0 || type == -1 || repetition > REPETITION_OPTIONAL) {
+                throw CairoException.critical(0).put("unsupported parquet schema, only flat schemas are supported [fd=").put(fd).put(']');
+            }
+            physicalTypes.add(type);
+            repetitions.add(repetition);
+            fieldIds.add(fieldId);
+        }
+    }
+}
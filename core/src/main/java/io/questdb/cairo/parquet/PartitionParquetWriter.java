@@ -0,0 +1,501 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.TableRecordMetadata;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectUtf8Sink;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Utf8Sequence;
+
+import static io.questdb.cairo.parquet.Parquet.*;
+
+/**
+ * Writes a partition of a table into a Parquet file. The file has a row group per
+ * every "rowGroupRows" rows of the partition, so that row groups line up with page frames
+ * and zone map blocks of the same size. Pages are PLAIN encoded and not compressed,
+ * definition levels of optional columns are RLE encoded. Column chunks carry null count
+ * and min/max statistics of numeric columns, which lets readers prune row groups.
+ * <p>
+ * Columns are stored in table reader metadata order. Each column has its writer index as
+ * the schema field id, readers match columns by the field id, so that renamed columns
+ * are still found. See {@link Parquet} for the type mapping.
+ */
+public class PartitionParquetWriter implements QuietCloseable {
+    public static final int DATA_PAGE_SIZE = 1024 * 1024;
+    private static final int CHUNK_DATA_PAGE_OFFSET = 0;
+    private static final int CHUNK_HAS_MIN_MAX = 3;
+    private static final int CHUNK_LONGS = 6;
+    private static final int CHUNK_MAX = 5;
+    private static final int CHUNK_MIN = 4;
+    private static final int CHUNK_NULL_COUNT = 2;
+    private static final int CHUNK_TOTAL_SIZE = 1;
+    private static final Log LOG = LogFactory.getLog(PartitionParquetWriter.class);
+    // column chunk attributes, CHUNK_LONGS per chunk, row group after row group
+    private final LongList chunks = new LongList();
+    private final MemoryCARW defLevels = Vm.getCARWInstance(4096, Integer.MAX_VALUE, MemoryTag.NATIVE_TABLE_WRITER);
+    private final MemoryCARW header = Vm.getCARWInstance(64 * 1024, Integer.MAX_VALUE, MemoryTag.NATIVE_TABLE_WRITER);
+    private final TableReaderRecord record = new TableReaderRecord();
+    private final LongList rowGroupRows = new LongList();
+    private final ThriftCompactWriter thrift = new ThriftCompactWriter();
+    private final DirectUtf8Sink utf8Sink = new DirectUtf8Sink(64);
+    private final MemoryCARW values = Vm.getCARWInstance(DATA_PAGE_SIZE, Integer.MAX_VALUE, MemoryTag.NATIVE_TABLE_WRITER);
+    private int boolBits;
+    private int boolCount;
+    private int defLevel;
+    private int defLevelRunLength;
+    private int fd = -1;
+    private FilesFacade ff;
+    private long fileOffset;
+    private boolean hasMinMax;
+    private double maxDouble;
+    private long maxLong;
+    private double minDouble;
+    private long minLong;
+    private long nullCount;
+    private int partitionIndex;
+    private LPSZ path;
+
+    @Override
+    public void close() {
+        Misc.free(defLevels);
+        Misc.free(header);
+        Misc.free(values);
+        Misc.free(utf8Sink);
+    }
+
+    /**
+     * Writes partition of the table reader into Parquet file, which is created or truncated.
+     *
+     * @param reader         table reader, the partition is opened if it is not open yet
+     * @param partitionIndex index of the partition
+     * @param ff             files facade
+     * @param path           path to the Parquet file
+     * @param rowGroupRows   number of rows per row group
+     * @param commitMode     the file is fsync-ed unless commit mode is NOSYNC
+     * @return size of the file
+     */
+    public long write(TableReader reader, int partitionIndex, FilesFacade ff, LPSZ path, long rowGroupRows, int commitMode) {
+        final TableRecordMetadata metadata = reader.getMetadata();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            if (!isSupportedColumnType(metadata.getColumnType(i))) {
+                throw CairoException.nonCritical().put("column type is not supported by parquet [column=").put(metadata.getColumnName(i))
+                        .put(", type=").put(ColumnType.nameOf(metadata.getColumnType(i)))
+                        .put(']');
+            }
+        }
+
+        final long partitionSize = reader.openPartition(partitionIndex);
+        this.ff = ff;
+        this.path = path;
+        this.partitionIndex = partitionIndex;
+        record.of(reader);
+        chunks.clear();
+        this.rowGroupRows.clear();
+        fd = TableUtils.openRW(ff, path, LOG, CairoConfiguration.O_NONE);
+        try {
+            if (!ff.truncate(fd, 0)) {
+                throw CairoException.critical(ff.errno()).put("could not truncate [file=").put(path).put(']');
+            }
+            fileOffset = 0;
+            header.jumpTo(0);
+            header.putInt(MAGIC);
+            write(header);
+
+            for (long lo = 0; lo < partitionSize; lo += rowGroupRows) {
+                final long hi = Math.min(lo + rowGroupRows, partitionSize);
+                for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                    writeColumnChunk(i, metadata.getColumnType(i), lo, hi);
+                }
+                this.rowGroupRows.add(hi - lo);
+            }
+
+            writeFooter(metadata, partitionSize);
+            if (commitMode != CommitMode.NOSYNC) {
+                ff.fsync(fd);
+            }
+            return fileOffset;
+        } finally {
+            ff.close(fd);
+            fd = -1;
+        }
+    }
+
+    private static void writeVarInt(MemoryCARW mem, long value) {
+        while ((value & ~0x7fL) != 0) {
+            mem.putByte((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        mem.putByte((byte) value);
+    }
+
+    private void addDefLevel(int level) {
+        if (level != defLevel) {
+            flushDefLevelRun();
+            defLevel = level;
+        }
+        defLevelRunLength++;
+    }
+
+    private void addNull() {
+        addDefLevel(0);
+        nullCount++;
+    }
+
+    private void addValue(int value) {
+        if (!hasMinMax || value < minLong) {
+            minLong = value;
+        }
+        if (!hasMinMax || value > maxLong) {
+            maxLong = value;
+        }
+        hasMinMax = true;
+        values.putInt(value);
+    }
+
+    private void addValue(long value) {
+        if (!hasMinMax || value < minLong) {
+            minLong = value;
+        }
+        if (!hasMinMax || value > maxLong) {
+            maxLong = value;
+        }
+        hasMinMax = true;
+        values.putLong(value);
+    }
+
+    private void appendValue(int columnIndex, int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                if (record.getBool(columnIndex)) {
+                    boolBits |= 1 << boolCount;
+                }
+                if (++boolCount == 8) {
+                    values.putByte((byte) boolBits);
+                    boolBits = 0;
+                    boolCount = 0;
+                }
+                break;
+            case ColumnType.BYTE:
+                addValue(record.getByte(columnIndex));
+                break;
+            case ColumnType.SHORT:
+                addValue(record.getShort(columnIndex));
+                break;
+            case ColumnType.CHAR:
+                addValue(record.getChar(columnIndex));
+                break;
+            case ColumnType.INT: {
+                final int value = record.getInt(columnIndex);
+                if (value != Numbers.INT_NULL) {
+                    addDefLevel(1);
+                    addValue(value);
+                } else {
+                    addNull();
+                }
+                break;
+            }
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP: {
+                final long value = record.getLong(columnIndex);
+                if (value != Numbers.LONG_NULL) {
+                    addDefLevel(1);
+                    addValue(value);
+                } else {
+                    addNull();
+                }
+                break;
+            }
+            case ColumnType.FLOAT: {
+                final float value = record.getFloat(columnIndex);
+                if (!Float.isNaN(value)) {
+                    addDefLevel(1);
+                    updateMinMax(value);
+                    values.putFloat(value);
+                } else {
+                    addNull();
+                }
+                break;
+            }
+            case ColumnType.DOUBLE: {
+                final double value = record.getDouble(columnIndex);
+                if (!Double.isNaN(value)) {
+                    addDefLevel(1);
+                    updateMinMax(value);
+                    values.putDouble(value);
+                } else {
+                    addNull();
+                }
+                break;
+            }
+            case ColumnType.SYMBOL:
+                appendUtf16(record.getSymA(columnIndex));
+                break;
+            case ColumnType.STRING:
+                appendUtf16(record.getStrA(columnIndex));
+                break;
+            case ColumnType.VARCHAR: {
+                final Utf8Sequence value = record.getVarcharA(columnIndex);
+                if (value != null) {
+                    addDefLevel(1);
+                    values.putInt(value.size());
+                    values.putVarchar(value, 0, value.size());
+                } else {
+                    addNull();
+                }
+                break;
+            }
+            default: {
+                final BinarySequence value = record.getBin(columnIndex);
+                if (value != null) {
+                    final long len = value.length();
+                    addDefLevel(1);
+                    values.putInt((int) len);
+                    value.copyTo(values.appendAddressFor(len), 0, len);
+                } else {
+                    addNull();
+                }
+                break;
+            }
+        }
+    }
+
+    private void appendUtf16(CharSequence value) {
+        if (value != null) {
+            addDefLevel(1);
+            utf8Sink.clear();
+            utf8Sink.put(value);
+            values.putInt(utf8Sink.size());
+            values.putBlockOfBytes(utf8Sink.ptr(), utf8Sink.size());
+        } else {
+            addNull();
+        }
+    }
+
+    private void flushDefLevelRun() {
+        if (defLevelRunLength > 0) {
+            // RLE run: header is run length shifted left by one, value is padded to a byte
+            writeVarInt(defLevels, (long) defLevelRunLength << 1);
+            defLevels.putByte((byte) defLevel);
+            defLevelRunLength = 0;
+        }
+    }
+
+    private void flushPage(int columnType, long rowCount) {
+        if (boolCount > 0) {
+            values.putByte((byte) boolBits);
+            boolBits = 0;
+            boolCount = 0;
+        }
+        final boolean optional = isOptional(columnType);
+        long defLevelsSize = 0;
+        if (optional) {
+            flushDefLevelRun();
+            defLevelsSize = defLevels.getAppendOffset();
+        }
+        final long pageSize = (optional ? Integer.BYTES + defLevelsSize : 0) + values.getAppendOffset();
+        if (pageSize > Integer.MAX_VALUE) {
+            throw CairoException.critical(0).put("parquet page is too large [file=").put(path)
+                    .put(", size=").put(pageSize)
+                    .put(']');
+        }
+
+        header.jumpTo(0);
+        thrift.of(header);
+        thrift.structBegin();
+        thrift.fieldI32(1, PAGE_TYPE_DATA_PAGE);
+        thrift.fieldI32(2, (int) pageSize);
+        thrift.fieldI32(3, (int) pageSize);
+        thrift.fieldStructBegin(5);
+        thrift.fieldI32(1, (int) rowCount);
+        thrift.fieldI32(2, ENCODING_PLAIN);
+        thrift.fieldI32(3, ENCODING_RLE);
+        thrift.fieldI32(4, ENCODING_RLE);
+        thrift.structEnd();
+        thrift.structEnd();
+        if (optional) {
+            header.putInt((int) defLevelsSize);
+            header.putBlockOfBytes(defLevels.getPageAddress(0), defLevelsSize);
+        }
+        write(header);
+        write(values);
+        values.jumpTo(0);
+        defLevels.jumpTo(0);
+    }
+
+    private void updateMinMax(double value) {
+        if (!hasMinMax || value < minDouble) {
+            minDouble = value;
+        }
+        if (!hasMinMax || value > maxDouble) {
+            maxDouble = value;
+        }
+        hasMinMax = true;
+    }
+
+    private void write(MemoryCARW mem) {
+        final long len = mem.getAppendOffset();
+        if (len > 0 && ff.write(fd, mem.getPageAddress(0), len, fileOffset) != len) {
+            throw CairoException.critical(ff.errno()).put("could not write parquet file [file=").put(path).put(']');
+        }
+        fileOffset += len;
+    }
+
+    private void writeColumnChunk(int columnIndex, int columnType, long lo, long hi) {
+        final long chunkOffset = fileOffset;
+        values.jumpTo(0);
+        defLevels.jumpTo(0);
+        defLevel = 1;
+        defLevelRunLength = 0;
+        boolBits = 0;
+        boolCount = 0;
+        nullCount = 0;
+        hasMinMax = false;
+
+        long pageLo = lo;
+        for (long row = lo; row < hi; row++) {
+            record.jumpTo(partitionIndex, row);
+            appendValue(columnIndex, columnType);
+            if (values.getAppendOffset() >= DATA_PAGE_SIZE) {
+                flushPage(columnType, row + 1 - pageLo);
+                pageLo = row + 1;
+            }
+        }
+        if (pageLo < hi) {
+            flushPage(columnType, hi - pageLo);
+        }
+
+        chunks.add(chunkOffset);
+        chunks.add(fileOffset - chunkOffset);
+        chunks.add(nullCount);
+        chunks.add(hasMinMax ? 1 : 0);
+        switch (getPhysicalType(columnType)) {
+            case TYPE_FLOAT:
+                chunks.add(Float.floatToRawIntBits((float) minDouble));
+                chunks.add(Float.floatToRawIntBits((float) maxDouble));
+                break;
+            case TYPE_DOUBLE:
+                chunks.add(Double.doubleToRawLongBits(minDouble));
+                chunks.add(Double.doubleToRawLongBits(maxDouble));
+                break;
+            default:
+                chunks.add(minLong);
+                chunks.add(maxLong);
+                break;
+        }
+    }
+
+    private void writeFooter(TableRecordMetadata metadata, long rowCount) {
+        final int columnCount = metadata.getColumnCount();
+        header.jumpTo(0);
+        thrift.of(header);
+        thrift.structBegin();
+        thrift.fieldI32(1, 1);
+
+        // schema is a flat list of columns under the root element
+        thrift.fieldListBegin(2, ThriftCompactWriter.TYPE_STRUCT, columnCount + 1);
+        thrift.structBegin();
+        thrift.fieldString(4, "schema");
+        thrift.fieldI32(5, columnCount);
+        thrift.structEnd();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            thrift.structBegin();
+            thrift.fieldI32(1, getPhysicalType(columnType));
+            thrift.fieldI32(3, isOptional(columnType) ? REPETITION_OPTIONAL : REPETITION_REQUIRED);
+            thrift.fieldString(4, metadata.getColumnName(i));
+            final int convertedType = getConvertedType(columnType);
+            if (convertedType != CONVERTED_TYPE_NONE) {
+                thrift.fieldI32(6, convertedType);
+            }
+            thrift.fieldI32(9, metadata.getWriterIndex(i));
+            thrift.structEnd();
+        }
+        thrift.fieldI64(3, rowCount);
+
+        final int rowGroupCount = rowGroupRows.size();
+        thrift.fieldListBegin(4, ThriftCompactWriter.TYPE_STRUCT, rowGroupCount);
+        for (int g = 0; g < rowGroupCount; g++) {
+            long rowGroupSize = 0;
+            thrift.structBegin();
+            thrift.fieldListBegin(1, ThriftCompactWriter.TYPE_STRUCT, columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                final int physicalType = getPhysicalType(columnType);
+                final int chunk = (g * columnCount + i) * CHUNK_LONGS;
+                final long dataPageOffset = chunks.getQuick(chunk + CHUNK_DATA_PAGE_OFFSET);
+                final long totalSize = chunks.getQuick(chunk + CHUNK_TOTAL_SIZE);
+                rowGroupSize += totalSize;
+
+                thrift.structBegin();
+                thrift.fieldI64(2, dataPageOffset);
+                thrift.fieldStructBegin(3);
+                thrift.fieldI32(1, physicalType);
+                thrift.fieldListBegin(2, ThriftCompactWriter.TYPE_I32, 2);
+                thrift.writeI32(ENCODING_PLAIN);
+                thrift.writeI32(ENCODING_RLE);
+                thrift.fieldListBegin(3, ThriftCompactWriter.TYPE_BINARY, 1);
+                thrift.writeString(metadata.getColumnName(i));
+                thrift.fieldI32(4, CODEC_UNCOMPRESSED);
+                thrift.fieldI64(5, rowGroupRows.getQuick(g));
+                thrift.fieldI64(6, totalSize);
+                thrift.fieldI64(7, totalSize);
+                thrift.fieldI64(9, dataPageOffset);
+                thrift.fieldStructBegin(12);
+                thrift.fieldI64(3, chunks.getQuick(chunk + CHUNK_NULL_COUNT));
+                if (chunks.getQuick(chunk + CHUNK_HAS_MIN_MAX) == 1) {
+                    final long min = chunks.getQuick(chunk + CHUNK_MIN);
+                    final long max = chunks.getQuick(chunk + CHUNK_MAX);
+                    if (physicalType == TYPE_INT32 || physicalType == TYPE_FLOAT) {
+                        thrift.fieldBinary(5, (int) max);
+                        thrift.fieldBinary(6, (int) min);
+                    } else {
+                        thrift.fieldBinary(5, max);
+                        thrift.fieldBinary(6, min);
+                    }
+                }
+                thrift.structEnd();
+                thrift.structEnd();
+                thrift.structEnd();
+            }
+            thrift.fieldI64(2, rowGroupSize);
+            thrift.fieldI64(3, rowGroupRows.getQuick(g));
+            thrift.structEnd();
+        }
+        thrift.fieldString(6, "QuestDB");
+        thrift.structEnd();
+
+        final long footerSize = header.getAppendOffset();
+        header.putInt((int) footerSize);
+        header.putInt(MAGIC);
+        write(header);
+    }
+}
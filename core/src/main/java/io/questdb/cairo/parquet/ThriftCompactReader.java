@@ -0,0 +1,232 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.std.IntStack;
+import io.questdb.std.Unsafe;
+
+import static io.questdb.cairo.parquet.ThriftCompactWriter.*;
+
+/**
+ * Minimal reader of Thrift compact protocol over native memory, counterpart of
+ * {@link ThriftCompactWriter}. Fields are iterated with {@link #nextField()}, unknown
+ * fields are skipped with {@link #skip(int)}.
+ */
+public class ThriftCompactReader {
+    private final IntStack fieldIds = new IntStack();
+    private int fieldId;
+    private int fieldType;
+    private long hi;
+    private int lastFieldId;
+    private int listElementType;
+    private long pos;
+
+    public int getFieldId() {
+        return fieldId;
+    }
+
+    public int getFieldType() {
+        return fieldType;
+    }
+
+    public int getListElementType() {
+        return listElementType;
+    }
+
+    public long getPosition() {
+        return pos;
+    }
+
+    /**
+     * Reads next field header of the current struct.
+     *
+     * @return false when the end of the struct is reached
+     */
+    public boolean nextField() {
+        final int b = readByte() & 0xff;
+        fieldType = b & 0x0f;
+        if (fieldType == TYPE_STOP) {
+            return false;
+        }
+        final int delta = b >>> 4;
+        fieldId = delta != 0 ? lastFieldId + delta : readI32();
+        lastFieldId = fieldId;
+        return true;
+    }
+
+    public ThriftCompactReader of(long lo, long hi) {
+        this.pos = lo;
+        this.hi = hi;
+        fieldIds.clear();
+        lastFieldId = 0;
+        return this;
+    }
+
+    /**
+     * Reads length of binary value and moves past its bytes.
+     *
+     * @return address of the value, length is available via {@link #getPosition()} minus the address
+     */
+    public long readBinary() {
+        final long len = readVarInt();
+        if (len < 0 || len > hi - pos) {
+            throw corrupt();
+        }
+        final long address = pos;
+        pos += len;
+        return address;
+    }
+
+    public boolean readBool() {
+        // boolean fields carry the value in their type, list elements are bytes
+        return fieldType == TYPE_BOOLEAN_TRUE;
+    }
+
+    public int readI32() {
+        final long v = readVarInt();
+        return (int) (v >>> 1) ^ -(int) (v & 1);
+    }
+
+    public long readI64() {
+        final long v = readVarInt();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * Reads list header.
+     *
+     * @return list size, element type is available via {@link #getListElementType()}
+     */
+    public int readListBegin() {
+        final int b = readByte() & 0xff;
+        listElementType = b & 0x0f;
+        int size = b >>> 4;
+        if (size == 15) {
+            final long n = readVarInt();
+            if (n < 0 || n > hi - pos) {
+                throw corrupt();
+            }
+            size = (int) n;
+        }
+        return size;
+    }
+
+    public void skip(int type) {
+        switch (type) {
+            case TYPE_BOOLEAN_TRUE:
+            case TYPE_BOOLEAN_FALSE:
+                // value is in the field type
+                break;
+            case TYPE_BYTE:
+                readByte();
+                break;
+            case TYPE_I16:
+            case TYPE_I32:
+            case TYPE_I64:
+                readVarInt();
+                break;
+            case TYPE_DOUBLE:
+                if (hi - pos < Double.BYTES) {
+                    throw corrupt();
+                }
+                pos += Double.BYTES;
+                break;
+            case TYPE_BINARY:
+                readBinary();
+                break;
+            case TYPE_LIST:
+            case TYPE_SET: {
+                final int size = readListBegin();
+                final int elementType = listElementType;
+                for (int i = 0; i < size; i++) {
+                    skipElement(elementType);
+                }
+                break;
+            }
+            case TYPE_MAP: {
+                final long size = readVarInt();
+                if (size > 0) {
+                    final int types = readByte() & 0xff;
+                    for (long i = 0; i < size; i++) {
+                        skipElement(types >>> 4);
+                        skipElement(types & 0x0f);
+                    }
+                }
+                break;
+            }
+            case TYPE_STRUCT:
+                structBegin();
+                while (nextField()) {
+                    skip(fieldType);
+                }
+                structEnd();
+                break;
+            default:
+                throw corrupt();
+        }
+    }
+
+    public void structBegin() {
+        fieldIds.push(lastFieldId);
+        lastFieldId = 0;
+    }
+
+    public void structEnd() {
+        lastFieldId = fieldIds.pop();
+    }
+
+    private CairoException corrupt() {
+        return CairoException.critical(0).put("corrupt thrift data [position=").put(pos).put(']');
+    }
+
+    private byte readByte() {
+        if (pos >= hi) {
+            throw corrupt();
+        }
+        return Unsafe.getUnsafe().getByte(pos++);
+    }
+
+    private long readVarInt() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = readByte();
+            result |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw corrupt();
+    }
+
+    private void skipElement(int type) {
+        if (type == TYPE_BOOLEAN_TRUE || type == TYPE_BOOLEAN_FALSE) {
+            // list elements of boolean type are single bytes
+            readByte();
+        } else {
+            skip(type);
+        }
+    }
+}
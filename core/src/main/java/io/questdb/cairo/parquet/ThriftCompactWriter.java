@@ -0,0 +1,188 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.parquet;
+
+import io.questdb.cairo.vm.api.MemoryA;
+import io.questdb.std.IntStack;
+import io.questdb.std.Mutable;
+
+/**
+ * Minimal writer of Thrift compact protocol, as used by Parquet file and page headers.
+ * Structs are written with {@link #structBegin()} and {@link #structEnd()}, fields are
+ * written with their ids in ascending order, as the protocol encodes field id deltas.
+ */
+public class ThriftCompactWriter implements Mutable {
+    public static final byte TYPE_BINARY = 8;
+    public static final byte TYPE_BOOLEAN_FALSE = 2;
+    public static final byte TYPE_BOOLEAN_TRUE = 1;
+    public static final byte TYPE_BYTE = 3;
+    public static final byte TYPE_DOUBLE = 7;
+    public static final byte TYPE_I16 = 4;
+    public static final byte TYPE_I32 = 5;
+    public static final byte TYPE_I64 = 6;
+    public static final byte TYPE_LIST = 9;
+    public static final byte TYPE_MAP = 11;
+    public static final byte TYPE_SET = 10;
+    public static final byte TYPE_STOP = 0;
+    public static final byte TYPE_STRUCT = 12;
+    private final IntStack fieldIds = new IntStack();
+    private int lastFieldId;
+    private MemoryA mem;
+
+    @Override
+    public void clear() {
+        fieldIds.clear();
+        lastFieldId = 0;
+    }
+
+    public void fieldBinary(int id, long lo, long len) {
+        fieldHeader(id, TYPE_BINARY);
+        writeBinary(lo, len);
+    }
+
+    // binary field with little-endian bytes of the value
+    public void fieldBinary(int id, int value) {
+        fieldHeader(id, TYPE_BINARY);
+        writeVarInt(Integer.BYTES);
+        mem.putInt(value);
+    }
+
+    // binary field with little-endian bytes of the value
+    public void fieldBinary(int id, long value) {
+        fieldHeader(id, TYPE_BINARY);
+        writeVarInt(Long.BYTES);
+        mem.putLong(value);
+    }
+
+    public void fieldBool(int id, boolean value) {
+        fieldHeader(id, value ? TYPE_BOOLEAN_TRUE : TYPE_BOOLEAN_FALSE);
+    }
+
+    public void fieldI32(int id, int value) {
+        fieldHeader(id, TYPE_I32);
+        writeI32(value);
+    }
+
+    public void fieldI64(int id, long value) {
+        fieldHeader(id, TYPE_I64);
+        writeI64(value);
+    }
+
+    public void fieldListBegin(int id, byte elementType, int size) {
+        fieldHeader(id, TYPE_LIST);
+        listBegin(elementType, size);
+    }
+
+    public void fieldString(int id, CharSequence value) {
+        fieldHeader(id, TYPE_BINARY);
+        writeString(value);
+    }
+
+    public void fieldStructBegin(int id) {
+        fieldHeader(id, TYPE_STRUCT);
+        structBegin();
+    }
+
+    public void listBegin(byte elementType, int size) {
+        if (size < 15) {
+            mem.putByte((byte) ((size << 4) | elementType));
+        } else {
+            mem.putByte((byte) (0xf0 | elementType));
+            writeVarInt(size);
+        }
+    }
+
+    public ThriftCompactWriter of(MemoryA mem) {
+        this.mem = mem;
+        clear();
+        return this;
+    }
+
+    public void structBegin() {
+        fieldIds.push(lastFieldId);
+        lastFieldId = 0;
+    }
+
+    public void structEnd() {
+        mem.putByte(TYPE_STOP);
+        lastFieldId = fieldIds.pop();
+    }
+
+    public void writeBinary(long lo, long len) {
+        writeVarInt(len);
+        mem.putBlockOfBytes(lo, len);
+    }
+
+    public void writeI32(int value) {
+        writeVarInt(Integer.toUnsignedLong((value << 1) ^ (value >> 31)));
+    }
+
+    public void writeI64(long value) {
+        writeVarInt((value << 1) ^ (value >> 63));
+    }
+
+    // encodes chars as UTF-8, the strings are schema and column names,
+    // which are not expected to contain surrogate pairs
+    public void writeString(CharSequence value) {
+        int len = 0;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            final char c = value.charAt(i);
+            len += c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+        }
+        writeVarInt(len);
+        for (int i = 0, n = value.length(); i < n; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                mem.putByte((byte) c);
+            } else if (c < 0x800) {
+                mem.putByte((byte) (0xc0 | (c >> 6)));
+                mem.putByte((byte) (0x80 | (c & 0x3f)));
+            } else {
+                mem.putByte((byte) (0xe0 | (c >> 12)));
+                mem.putByte((byte) (0x80 | ((c >> 6) & 0x3f)));
+                mem.putByte((byte) (0x80 | (c & 0x3f)));
+            }
+        }
+    }
+
+    private void fieldHeader(int id, byte type) {
+        final int delta = id - lastFieldId;
+        if (delta > 0 && delta < 16) {
+            mem.putByte((byte) ((delta << 4) | type));
+        } else {
+            mem.putByte(type);
+            writeI32(id);
+        }
+        lastFieldId = id;
+    }
+
+    private void writeVarInt(long value) {
+        while ((value & ~0x7fL) != 0) {
+            mem.putByte((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        mem.putByte((byte) value);
+    }
+}
@@ -295,6 +295,7 @@ public class WriterPool extends AbstractPool {
             } else {
                 e.writer = writer;
                 writer.setLifecycleManager(e);
+                writer.setLatestByCacheRegistry(engine.getLatestByCacheRegistry());
                 writer.transferLock(e.lockFd);
                 e.lockFd = -1;
                 e.ownershipReason = OWNERSHIP_REASON_NONE;
@@ -400,6 +401,7 @@ public class WriterPool extends AbstractPool {
                     engine.getSnapshotAgent(),
                     engine.getMetrics()
             );
+            e.writer.setLatestByCacheRegistry(engine.getLatestByCacheRegistry());
             e.ownershipReason = lockReason;
             return logAndReturn(e, PoolListener.EV_CREATE);
         } catch (CairoException ex) {
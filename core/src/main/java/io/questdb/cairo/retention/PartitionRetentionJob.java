@@ -0,0 +1,245 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.retention;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.PartitionBy;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.TxReader;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.CharSequenceLongHashMap;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjHashSet;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+
+/**
+ * Applies retention policies of tables, see {@link PartitionRetentionPolicy}. Expired partitions are
+ * dropped and partitions past tiering age are moved to the tiering volume with ALTER TABLE statements,
+ * so that WAL tables receive the changes through WAL and table writers keep the ordering with data
+ * commits. Replaced partition versions are purged by the writer once no reader uses them.
+ * <p>
+ * The job runs at a fixed interval and handles a limited number of partitions per run, which spreads
+ * retention I/O over time rather than issuing it in bursts. Tables are visited starting from a
+ * different table on each run, so that a table with a long backlog does not hold up the others.
+ * Statements that fail, e.g. because the table is busy, are retried on the next run.
+ */
+public class PartitionRetentionJob extends SynchronizedJob implements Closeable {
+    private static final Log LOG = LogFactory.getLog(PartitionRetentionJob.class);
+    private final long checkInterval;
+    private final MicrosecondClock clock;
+    private final CairoConfiguration configuration;
+    private final LongList dropPartitions = new LongList();
+    private final CairoEngine engine;
+    private final FilesFacade ff;
+    private final int maxPartitionsPerRun;
+    // sequencer txn of the last statement issued for WAL tables, by table directory name
+    private final CharSequenceLongHashMap pendingSeqTxns = new CharSequenceLongHashMap();
+    private final PartitionRetentionPolicy policy = new PartitionRetentionPolicy();
+    private final StringSink sql = new StringSink();
+    private final ObjHashSet<TableToken> tableTokens = new ObjHashSet<>();
+    private final LongList tierPartitions = new LongList();
+    private long last = 0;
+    private Path path = new Path();
+    private SqlExecutionContextImpl sqlExecutionContext;
+    private int tableOffset;
+
+    public PartitionRetentionJob(CairoEngine engine) {
+        this.engine = engine;
+        this.configuration = engine.getConfiguration();
+        this.ff = configuration.getFilesFacade();
+        this.clock = configuration.getMicrosecondClock();
+        this.checkInterval = configuration.getPartitionRetentionJobInterval() * 1000;
+        this.maxPartitionsPerRun = configuration.getPartitionRetentionMaxPartitionsPerRun();
+        this.sqlExecutionContext = new SqlExecutionContextImpl(engine, 1);
+        this.sqlExecutionContext.with(
+                configuration.getFactoryProvider().getSecurityContextFactory().getRootContext(),
+                null,
+                null
+        );
+    }
+
+    @Override
+    public void close() {
+        path = Misc.free(path);
+        sqlExecutionContext = Misc.free(sqlExecutionContext);
+    }
+
+    @Override
+    protected boolean runSerially() {
+        final long t = clock.getTicks();
+        if (t - last < checkInterval) {
+            return false;
+        }
+        last = t;
+
+        engine.getTableTokens(tableTokens, false);
+        final int n = tableTokens.size();
+        int remaining = maxPartitionsPerRun;
+        for (int i = 0; i < n && remaining > 0; i++) {
+            final TableToken tableToken = tableTokens.get((tableOffset + i) % n);
+            remaining -= applyPolicy(tableToken, t, remaining);
+        }
+        tableOffset = n > 0 ? (tableOffset + 1) % n : 0;
+        tableTokens.clear();
+        return remaining < maxPartitionsPerRun;
+    }
+
+    private static void putPartitionList(StringSink sink, int partitionBy, LongList partitionTimestamps) {
+        for (int i = 0, n = partitionTimestamps.size(); i < n; i++) {
+            if (i > 0) {
+                sink.put(',');
+            }
+            sink.put('\'');
+            PartitionBy.setSinkForPartition(sink, partitionBy, partitionTimestamps.getQuick(i));
+            sink.put('\'');
+        }
+    }
+
+    // returns number of partitions the statements were issued for
+    private int applyPolicy(TableToken tableToken, long now, int limit) {
+        path.of(configuration.getRoot()).concat(tableToken).concat(TableUtils.RETENTION_FILE_NAME);
+        if (!policy.read(ff, path.$()) || !policy.isActive()) {
+            return 0;
+        }
+        if (tableToken.isWal() && engine.getTableSequencerAPI().isSuspended(tableToken)) {
+            return 0;
+        }
+
+        CharSequence volumePath = null;
+        if (policy.isTieringActive()) {
+            volumePath = configuration.getVolumeDefinitions().resolveAlias(policy.getTieringVolume());
+            if (volumePath == null) {
+                LOG.error().$("tiering volume is not defined [table=").$(tableToken)
+                        .$(", volume=").$(policy.getTieringVolume())
+                        .I$();
+            }
+        }
+
+        dropPartitions.clear();
+        tierPartitions.clear();
+        final int partitionBy;
+        try (TableReader reader = engine.getReader(tableToken)) {
+            partitionBy = reader.getPartitionedBy();
+            if (!PartitionBy.isPartitioned(partitionBy)) {
+                return 0;
+            }
+            final TxReader txFile = reader.getTxFile();
+            if (tableToken.isWal()) {
+                final int index = pendingSeqTxns.keyIndex(tableToken.getDirName());
+                if (index < 0) {
+                    if (txFile.getSeqTxn() < pendingSeqTxns.valueAt(index)) {
+                        // statements issued by a previous run are not applied yet
+                        return 0;
+                    }
+                    pendingSeqTxns.removeAt(index);
+                }
+            }
+
+            final PartitionBy.PartitionCeilMethod ceilMethod = PartitionBy.getPartitionCeilMethod(partitionBy);
+            final long activePartitionTimestamp = txFile.getLogicalPartitionTimestamp(txFile.getMaxTimestamp());
+            long lastTimestamp = Long.MIN_VALUE;
+            for (int i = 0, n = reader.getPartitionCount(); i < n && dropPartitions.size() + tierPartitions.size() < limit; i++) {
+                final long timestamp = txFile.getLogicalPartitionTimestamp(reader.getPartitionTimestampByIndex(i));
+                if (timestamp == lastTimestamp || timestamp == activePartitionTimestamp) {
+                    // split of the partition we have seen already or the partition being written to
+                    continue;
+                }
+                lastTimestamp = timestamp;
+                // partition age is the time since the end of the partition interval
+                final long partitionHi = ceilMethod.ceil(timestamp);
+                if (policy.getTtl() > 0 && partitionHi <= now - policy.getTtl()) {
+                    dropPartitions.add(timestamp);
+                } else if (volumePath != null && partitionHi <= now - policy.getTieringAge() && !isSoftLink(tableToken, partitionBy, timestamp, txFile.getPartitionNameTxn(i))) {
+                    // soft-linked partitions are either moved already or attached from elsewhere
+                    tierPartitions.add(timestamp);
+                }
+            }
+        } catch (CairoException e) {
+            LOG.error().$("could not read partitions [table=").$(tableToken)
+                    .$(", error=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+            return 0;
+        }
+
+        if (dropPartitions.size() > 0) {
+            sql.clear();
+            sql.put("alter table \"").put(tableToken.getTableName()).put("\" drop partition list ");
+            putPartitionList(sql, partitionBy, dropPartitions);
+            execute(tableToken);
+        }
+        if (tierPartitions.size() > 0) {
+            sql.clear();
+            sql.put("alter table \"").put(tableToken.getTableName()).put("\" convert partition to volume '")
+                    .put(policy.getTieringVolume()).put("' list ");
+            putPartitionList(sql, partitionBy, tierPartitions);
+            execute(tableToken);
+        }
+        return dropPartitions.size() + tierPartitions.size();
+    }
+
+    private void execute(TableToken tableToken) {
+        try (SqlCompiler compiler = engine.getSqlCompiler()) {
+            CairoEngine.compile(compiler, sql, sqlExecutionContext);
+            if (tableToken.isWal()) {
+                pendingSeqTxns.put(tableToken.getDirName(), engine.getTableSequencerAPI().lastTxn(tableToken));
+            }
+            LOG.info().$("applied retention policy [table=").$(tableToken).$(", sql=").$(sql).I$();
+        } catch (SqlException e) {
+            LOG.error().$("could not apply retention policy [table=").$(tableToken)
+                    .$(", sql=").$(sql)
+                    .$(", position=").$(e.getPosition())
+                    .$(", error=").$(e.getFlyweightMessage())
+                    .I$();
+        } catch (CairoException e) {
+            LOG.error().$("could not apply retention policy [table=").$(tableToken)
+                    .$(", sql=").$(sql)
+                    .$(", error=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+        }
+    }
+
+    private boolean isSoftLink(TableToken tableToken, int partitionBy, long timestamp, long nameTxn) {
+        path.of(configuration.getRoot()).concat(tableToken);
+        TableUtils.setPathForPartition(path, partitionBy, timestamp, nameTxn);
+        return ff.isSoftLink(path.$());
+    }
+}
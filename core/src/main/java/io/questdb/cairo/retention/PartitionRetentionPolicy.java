@@ -0,0 +1,138 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.retention;
+
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.std.Chars;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+import io.questdb.std.str.LPSZ;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Retention policy of a partitioned table. Partitions are dropped once they are older than TTL
+ * and moved to the tiering volume once they are older than tiering age. Partition age is the time
+ * since the end of the partition interval, so that partitions are never dropped or moved while rows
+ * within the retention period may still be written to them.
+ * <p>
+ * Policy is persisted in the table directory, file layout is:
+ * <pre>
+ * long   - TTL in micros, 0 when partitions are not dropped
+ * long   - tiering age in micros, 0 when partitions are not moved
+ * string - tiering volume alias, null when partitions are not moved
+ * </pre>
+ */
+public class PartitionRetentionPolicy implements Mutable {
+    private static final long HEADER_SIZE = 2 * Long.BYTES;
+    private long tieringAge;
+    private String tieringVolume;
+    private long ttl;
+
+    @Override
+    public void clear() {
+        ttl = 0;
+        tieringAge = 0;
+        tieringVolume = null;
+    }
+
+    public long getTieringAge() {
+        return tieringAge;
+    }
+
+    @Nullable
+    public String getTieringVolume() {
+        return tieringVolume;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public boolean isActive() {
+        return ttl > 0 || isTieringActive();
+    }
+
+    public boolean isTieringActive() {
+        return tieringAge > 0 && tieringVolume != null;
+    }
+
+    /**
+     * Reads policy from the file, the policy is cleared when the file does not exist or cannot be read.
+     *
+     * @return false when there is no valid policy file
+     */
+    public boolean read(FilesFacade ff, LPSZ path) {
+        clear();
+        if (!ff.exists(path)) {
+            return false;
+        }
+        final MemoryCMR mem = Vm.getCMRInstance();
+        try {
+            mem.smallFile(ff, path, MemoryTag.MMAP_DEFAULT);
+            final long size = mem.size();
+            if (size < HEADER_SIZE + Vm.STRING_LENGTH_BYTES) {
+                return false;
+            }
+            final long ttl = mem.getLong(0);
+            final long tieringAge = mem.getLong(Long.BYTES);
+            final int len = mem.getInt(HEADER_SIZE);
+            if (ttl < 0 || tieringAge < 0 || HEADER_SIZE + Vm.getStorageLength(Math.max(len, 0)) > size) {
+                return false;
+            }
+            this.ttl = ttl;
+            this.tieringAge = tieringAge;
+            this.tieringVolume = Chars.toString(mem.getStrA(HEADER_SIZE));
+            return true;
+        } finally {
+            Misc.free(mem);
+        }
+    }
+
+    public void setTieringAge(long tieringAge) {
+        this.tieringAge = tieringAge;
+    }
+
+    public void setTieringVolume(@Nullable CharSequence tieringVolume) {
+        this.tieringVolume = Chars.toString(tieringVolume);
+    }
+
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+
+    public void write(FilesFacade ff, LPSZ path, long opts) {
+        try (MemoryCMARW mem = Vm.getSmallCMARWInstance(ff, path, MemoryTag.MMAP_DEFAULT, opts)) {
+            mem.putLong(ttl);
+            mem.putLong(tieringAge);
+            mem.putStr(tieringVolume);
+            mem.sync(false);
+            mem.close(true, Vm.TRUNCATE_TO_POINTER);
+        }
+    }
+}
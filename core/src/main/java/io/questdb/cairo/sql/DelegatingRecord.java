@@ -109,6 +109,16 @@ public class DelegatingRecord implements Record {
         return base.getLong(col);
     }
 
+    @Override
+    public long getLong128Hi(int col) {
+        return base.getLong128Hi(col);
+    }
+
+    @Override
+    public long getLong128Lo(int col) {
+        return base.getLong128Lo(col);
+    }
+
     @Override
     public void getLong256(int col, CharSink<?> sink) {
         base.getLong256(col, sink);
@@ -124,11 +134,21 @@ public class DelegatingRecord implements Record {
         return base.getLong256B(col);
     }
 
+    @Override
+    public long getLongIPv4(int col) {
+        return base.getLongIPv4(col);
+    }
+
     @Override
     public Record getRecord(int col) {
         return base.getRecord(col);
     }
 
+    @Override
+    public long getRowId() {
+        return base.getRowId();
+    }
+
     @Override
     public short getShort(int col) {
         return base.getShort(col);
@@ -169,6 +189,11 @@ public class DelegatingRecord implements Record {
         return base.getTimestamp(col);
     }
 
+    @Override
+    public long getUpdateRowId() {
+        return base.getUpdateRowId();
+    }
+
     @Override
     public void getVarchar(int col, Utf8Sink utf8Sink) {
         base.getVarchar(col, utf8Sink);
@@ -24,8 +24,10 @@
 
 package io.questdb.cairo.sql;
 
+import io.questdb.cairo.BitmapIndexReader;
 import io.questdb.cairo.DataUnavailableException;
 import io.questdb.std.QuietCloseable;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Cursor for time-based navigation. Supports lazy navigation in both directions
@@ -33,6 +35,18 @@ import io.questdb.std.QuietCloseable;
  */
 public interface TimeFrameRecordCursor extends QuietCloseable, SymbolTableSource {
 
+    /**
+     * Returns bitmap index reader for the given column in the given frame. The frame
+     * must have been opened.
+     *
+     * @param frameIndex  index of a previously open time frame
+     * @param columnIndex column index
+     * @param direction   index scan direction, see {@link BitmapIndexReader#DIR_BACKWARD} and {@link BitmapIndexReader#DIR_FORWARD}
+     * @return index reader or null when the column is not indexed
+     */
+    @Nullable
+    BitmapIndexReader getBitmapIndexReader(int frameIndex, int columnIndex, int direction);
+
     /**
      * @return record at current position
      */
@@ -51,6 +65,26 @@ public interface TimeFrameRecordCursor extends QuietCloseable, SymbolTableSource
      */
     TimeFrame getTimeFrame();
 
+    /**
+     * Positions the cursor at the given time frame, just like a sequence of {@link #next()}
+     * or {@link #prev()} calls would do. Used to restore cursor position after random
+     * frame navigation. The frame has to be opened before its rows are accessed.
+     *
+     * @param frameIndex frame index; -1 and frame count stand for the positions before
+     *                   the first frame and after the last frame respectively
+     */
+    void jumpTo(int frameIndex);
+
+    /**
+     * Creates a new record instance that may be positioned with {@link #recordAt(Record, long)}.
+     * Reading previously open frames with such records doesn't change the cursor state, so
+     * they may be used by multiple threads at the same time, as long as no frame is opened
+     * in the meantime.
+     *
+     * @return new record instance
+     */
+    Record newRecord();
+
     boolean next();
 
     /**
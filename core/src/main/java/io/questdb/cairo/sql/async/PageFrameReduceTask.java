@@ -40,12 +40,16 @@ public class PageFrameReduceTask implements Closeable {
     public static final byte TYPE_FILTER = 0;
     public static final byte TYPE_GROUP_BY = 1;
     public static final byte TYPE_GROUP_BY_NOT_KEYED = 2;
+    public static final byte TYPE_HASH_JOIN = 3;
+    public static final byte TYPE_SORT = 4;
+    public static final byte TYPE_TOP_K = 5;
+    public static final byte TYPE_ASOF_JOIN = 6;
     private static final String exceptionMessage = "unexpected filter error";
 
     // Used to pass the list of column page frame addresses to a JIT-compiled filter.
     private final DirectLongList columns;
     private final StringSink errorMsg = new StringSink();
-    private final DirectLongList filteredRows; // Used for TYPE_FILTER.
+    private final DirectLongList filteredRows; // Used for TYPE_FILTER, TYPE_HASH_JOIN, TYPE_SORT, TYPE_TOP_K and TYPE_ASOF_JOIN.
     private final long pageFrameQueueCapacity;
     private final DirectLongList varSizeAux;
     private int frameIndex = Integer.MAX_VALUE;
@@ -139,7 +143,7 @@ public class PageFrameReduceTask implements Closeable {
         this.frameIndex = frameIndex;
         errorMsg.clear();
         isCancelled = false;
-        if (type == TYPE_FILTER) {
+        if (type == TYPE_FILTER || type == TYPE_HASH_JOIN || type == TYPE_SORT || type == TYPE_TOP_K || type == TYPE_ASOF_JOIN) {
             filteredRows.clear();
         }
     }
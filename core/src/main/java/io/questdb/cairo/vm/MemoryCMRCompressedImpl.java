@@ -0,0 +1,261 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnFileCompressor;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.LPSZ;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// contiguous readable view of a block-compressed file, see ColumnFileCompressor for the file layout.
+// Blocks are inflated into a native buffer on first access to the memory, the buffer is kept
+// when memory is re-opened and is only released on close.
+public class MemoryCMRCompressedImpl extends AbstractMemoryCR implements MemoryCMR {
+    private static final Log LOG = LogFactory.getLog(MemoryCMRCompressedImpl.class);
+    private int blockCount;
+    private int blockSize;
+    private long bufferCapacity;
+    private long compressedAddress;
+    private long compressedSize;
+    private int fd = -1;
+    private byte[] inflated;
+    private long inflatedSize;
+    private Inflater inflater;
+    private byte[] input;
+    private int memoryTag = MemoryTag.MMAP_DEFAULT;
+    private long uncompressedSize;
+
+    public MemoryCMRCompressedImpl() {
+        super(true);
+    }
+
+    @Override
+    public long addressOf(long offset) {
+        inflate();
+        return super.addressOf(offset);
+    }
+
+    @Override
+    public void close() {
+        release();
+        if (bufferCapacity > 0) {
+            Unsafe.free(pageAddress, bufferCapacity, MemoryTag.NATIVE_TABLE_READER);
+            bufferCapacity = 0;
+        }
+        pageAddress = 0;
+        size = 0;
+        if (inflater != null) {
+            inflater.end();
+            inflater = null;
+        }
+        inflated = null;
+        input = null;
+    }
+
+    @Override
+    public int detachFdClose() {
+        int fd = this.fd;
+        this.fd = -1;
+        close();
+        return fd;
+    }
+
+    @Override
+    public void extend(long newSize) {
+        if (newSize > size) {
+            if (newSize > uncompressedSize) {
+                throw CairoException.critical(0).put("compressed column file is too short [fd=").put(fd)
+                        .put(", size=").put(uncompressedSize)
+                        .put(", required=").put(newSize)
+                        .put(']');
+            }
+            ensureCapacity(newSize);
+            size = newSize;
+        }
+    }
+
+    @Override
+    public int getFd() {
+        return fd;
+    }
+
+    @Override
+    public long getPageAddress(int pageIndex) {
+        inflate();
+        return pageAddress;
+    }
+
+    @Override
+    public int getPageCount() {
+        return size > 0 ? 1 : 0;
+    }
+
+    @Override
+    public void growToFileSize() {
+        // file length is the compressed size, grow to the size recorded in the header
+        extend(uncompressedSize);
+    }
+
+    @Override
+    public boolean isMapped(long offset, long len) {
+        return offset + len <= size();
+    }
+
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag, long opts, int madviseOpts) {
+        release();
+        this.ff = ff;
+        this.memoryTag = memoryTag;
+        try {
+            fd = TableUtils.openRO(ff, name, LOG);
+            compressedSize = ff.length(fd);
+            if (compressedSize < ColumnFileCompressor.HEADER_SIZE) {
+                throw CairoException.critical(0).put("compressed column file is too short [file=").put(name)
+                        .put(", size=").put(compressedSize)
+                        .put(']');
+            }
+            compressedAddress = TableUtils.mapRO(ff, fd, compressedSize, memoryTag);
+            uncompressedSize = Unsafe.getUnsafe().getLong(compressedAddress + ColumnFileCompressor.HEADER_UNCOMPRESSED_SIZE_OFFSET);
+            blockSize = Unsafe.getUnsafe().getInt(compressedAddress + ColumnFileCompressor.HEADER_BLOCK_SIZE_OFFSET);
+            blockCount = Unsafe.getUnsafe().getInt(compressedAddress + ColumnFileCompressor.HEADER_BLOCK_COUNT_OFFSET);
+            if (uncompressedSize < 0
+                    || blockSize < 1
+                    || blockCount != (uncompressedSize + blockSize - 1) / blockSize
+                    || ColumnFileCompressor.HEADER_SIZE + ColumnFileCompressor.getBlockIndexSize(blockCount) > compressedSize
+            ) {
+                throw CairoException.critical(0).put("corrupt compressed column file header [file=").put(name).put(']');
+            }
+            if (size < 0) {
+                size = uncompressedSize;
+            }
+            extend(size);
+            LOG.debug().$("open compressed [file=").$(name).$(", fd=").$(fd)
+                    .$(", compressedSize=").$(compressedSize)
+                    .$(", size=").$(this.size)
+                    .I$();
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public long resize(long size) {
+        extend(size);
+        return getPageAddress(0);
+    }
+
+    private void ensureCapacity(long newSize) {
+        // round up to the block boundary to always inflate whole blocks
+        final long capacity = Math.min(((newSize + blockSize - 1) / blockSize) * blockSize, uncompressedSize);
+        if (capacity > bufferCapacity) {
+            pageAddress = Unsafe.realloc(pageAddress, bufferCapacity, capacity, MemoryTag.NATIVE_TABLE_READER);
+            bufferCapacity = capacity;
+        }
+    }
+
+    private long getBlockOffset(long blockIndex) {
+        return Unsafe.getUnsafe().getLong(compressedAddress + ColumnFileCompressor.HEADER_SIZE + blockIndex * Long.BYTES);
+    }
+
+    private void inflate() {
+        if (inflatedSize >= size) {
+            return;
+        }
+        if (inflater == null) {
+            inflater = new Inflater();
+        }
+        if (inflated == null || inflated.length < blockSize) {
+            inflated = new byte[blockSize];
+        }
+
+        for (long block = inflatedSize / blockSize; inflatedSize < size; block++) {
+            final long lo = getBlockOffset(block);
+            final long hi = getBlockOffset(block + 1);
+            final long len = Math.min(blockSize, uncompressedSize - inflatedSize);
+            if (lo < 0 || hi < lo || hi > compressedSize || hi - lo > Integer.MAX_VALUE) {
+                throw CairoException.critical(0).put("corrupt compressed column block [fd=").put(fd)
+                        .put(", block=").put(block)
+                        .put(']');
+            }
+            final int compressedLen = (int) (hi - lo);
+            if (input == null || input.length < compressedLen) {
+                input = new byte[compressedLen];
+            }
+            Unsafe.getUnsafe().copyMemory(null, compressedAddress + lo, input, Unsafe.BYTE_OFFSET, compressedLen);
+            inflater.reset();
+            inflater.setInput(input, 0, compressedLen);
+            try {
+                int n = 0;
+                while (n < len && !inflater.finished()) {
+                    final int r = inflater.inflate(inflated, n, (int) len - n);
+                    if (r == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    n += r;
+                }
+                if (n != len) {
+                    throw CairoException.critical(0).put("corrupt compressed column block [fd=").put(fd)
+                            .put(", block=").put(block)
+                            .put(", expected=").put(len)
+                            .put(", actual=").put(n)
+                            .put(']');
+                }
+            } catch (DataFormatException e) {
+                throw CairoException.critical(0).put("could not inflate column block [fd=").put(fd)
+                        .put(", block=").put(block)
+                        .put(", error=").put(e.getMessage())
+                        .put(']');
+            }
+            Unsafe.getUnsafe().copyMemory(inflated, Unsafe.BYTE_OFFSET, null, pageAddress + inflatedSize, len);
+            inflatedSize += len;
+        }
+    }
+
+    private void release() {
+        clear();
+        if (compressedAddress != 0) {
+            ff.munmap(compressedAddress, compressedSize, memoryTag);
+            compressedAddress = 0;
+            compressedSize = 0;
+        }
+        if (ff != null && ff.close(fd)) {
+            LOG.debug().$("closed [fd=").$(fd).I$();
+            fd = -1;
+        }
+        size = 0;
+        inflatedSize = 0;
+        uncompressedSize = 0;
+    }
+}
@@ -0,0 +1,236 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.parquet.PartitionParquetReader;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Misc;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.Nullable;
+
+// contiguous readable view of a column stored in Parquet file of a partition. The column is
+// decoded into native column format on first access to the memory, so that columns which are not
+// read by a query are never decoded. Var-size columns use two instances, the data vector instance
+// decodes both vectors, the aux vector instance delegates to it. The decoded vector is kept
+// when memory is re-opened and is only released on close.
+public class MemoryCMRParquetImpl extends AbstractMemoryCR implements MemoryCMR {
+    private static final Log LOG = LogFactory.getLog(MemoryCMRParquetImpl.class);
+    private final Path parquetPath = new Path();
+    private MemoryCMRParquetImpl auxMem;
+    private long columnTop;
+    private int columnType;
+    private MemoryCARW decodedMem;
+    private boolean decoded;
+    private int fieldId;
+    private boolean opened;
+    private MemoryCMRParquetImpl primaryMem;
+    private StaticSymbolTable symbolTable;
+
+    public MemoryCMRParquetImpl() {
+        super(true);
+    }
+
+    @Override
+    public long addressOf(long offset) {
+        decode();
+        return super.addressOf(offset);
+    }
+
+    @Override
+    public void close() {
+        release();
+        decodedMem = Misc.free(decodedMem);
+        Misc.free(parquetPath);
+    }
+
+    @Override
+    public int detachFdClose() {
+        close();
+        return -1;
+    }
+
+    @Override
+    public void extend(long newSize) {
+        decode();
+        if (newSize > size) {
+            throw CairoException.critical(0).put("parquet column is too short [file=").put(parquetPath)
+                    .put(", fieldId=").put(fieldId)
+                    .put(", size=").put(size)
+                    .put(", required=").put(newSize)
+                    .put(']');
+        }
+    }
+
+    @Override
+    public int getFd() {
+        return -1;
+    }
+
+    @Override
+    public long getPageAddress(int pageIndex) {
+        decode();
+        return pageAddress;
+    }
+
+    @Override
+    public int getPageCount() {
+        return size() > 0 ? 1 : 0;
+    }
+
+    @Override
+    public void growToFileSize() {
+        // parquet partitions are read-only, the column is always decoded in full
+        decode();
+    }
+
+    @Override
+    public boolean isMapped(long offset, long len) {
+        return offset + len <= size();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return opened;
+    }
+
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag, long opts, int madviseOpts) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Points memory at a column of the Parquet file. The file is not read until the memory is accessed.
+     *
+     * @param ff          files facade
+     * @param parquetPath path to Parquet file of the partition
+     * @param fieldId     writer index of the column, which is the field id of the column in the file
+     * @param columnType  column type
+     * @param columnTop   column top in the partition, rows before the top are not decoded
+     * @param primaryMem  data vector memory when this memory is aux vector of var-size column, otherwise null
+     * @param symbolTable symbol table of symbol columns, otherwise null
+     */
+    public void of(
+            FilesFacade ff,
+            LPSZ parquetPath,
+            int fieldId,
+            int columnType,
+            long columnTop,
+            @Nullable MemoryCMRParquetImpl primaryMem,
+            @Nullable StaticSymbolTable symbolTable
+    ) {
+        release();
+        this.ff = ff;
+        this.parquetPath.of(parquetPath);
+        this.fieldId = fieldId;
+        this.columnType = columnType;
+        this.columnTop = columnTop;
+        this.primaryMem = primaryMem;
+        this.symbolTable = symbolTable;
+        if (primaryMem != null) {
+            primaryMem.auxMem = this;
+        }
+        this.opened = true;
+    }
+
+    @Override
+    public long resize(long size) {
+        extend(size);
+        return getPageAddress(0);
+    }
+
+    @Override
+    public long size() {
+        decode();
+        return size;
+    }
+
+    private void decode() {
+        if (decoded || !opened) {
+            return;
+        }
+        if (primaryMem != null) {
+            primaryMem.decode();
+            return;
+        }
+        if (decodedMem == null) {
+            decodedMem = Vm.getCARWInstance(ff.getPageSize(), Integer.MAX_VALUE, MemoryTag.NATIVE_TABLE_READER);
+        }
+        decodedMem.jumpTo(0);
+        MemoryCARW auxDecodedMem = null;
+        if (auxMem != null) {
+            if (auxMem.decodedMem == null) {
+                auxMem.decodedMem = Vm.getCARWInstance(ff.getPageSize(), Integer.MAX_VALUE, MemoryTag.NATIVE_TABLE_READER);
+            }
+            auxDecodedMem = auxMem.decodedMem;
+            auxDecodedMem.jumpTo(0);
+        }
+
+        try (PartitionParquetReader reader = new PartitionParquetReader()) {
+            reader.of(ff, parquetPath.$(), MemoryTag.MMAP_TABLE_READER);
+            final int columnIndex = reader.getColumnIndex(fieldId);
+            if (columnIndex == -1) {
+                throw CairoException.critical(0).put("column is not found in parquet file [file=").put(parquetPath)
+                        .put(", fieldId=").put(fieldId)
+                        .put(']');
+            }
+            reader.decodeColumn(columnIndex, columnType, columnTop, decodedMem, auxDecodedMem, symbolTable);
+        }
+
+        pageAddress = decodedMem.getPageAddress(0);
+        size = decodedMem.getAppendOffset();
+        decoded = true;
+        if (auxMem != null) {
+            auxMem.pageAddress = auxDecodedMem.getPageAddress(0);
+            auxMem.size = auxDecodedMem.getAppendOffset();
+            auxMem.decoded = true;
+        }
+        LOG.debug().$("decoded parquet column [file=").$(parquetPath)
+                .$(", fieldId=").$(fieldId)
+                .$(", size=").$(size)
+                .I$();
+    }
+
+    private void release() {
+        clear();
+        if (primaryMem != null && primaryMem.auxMem == this) {
+            primaryMem.auxMem = null;
+        }
+        pageAddress = 0;
+        size = 0;
+        decoded = false;
+        opened = false;
+        auxMem = null;
+        primaryMem = null;
+        symbolTable = null;
+    }
+}
@@ -112,6 +112,12 @@ public class Vm {
         return new MemoryCMARWImpl(ff, name, extendSegmentSize, size, memoryTag, opts);
     }
 
+    public static MemoryMR getCompressedMRInstance(FilesFacade ff, LPSZ name, long size, int memoryTag) {
+        final MemoryMR mem = new MemoryCMRCompressedImpl();
+        mem.of(ff, name, size, size, memoryTag);
+        return mem;
+    }
+
     public static MemoryMR getMRInstance() {
         return new MemoryCMRImpl();
     }
@@ -135,6 +141,10 @@ public class Vm {
         return new MemoryCMORImpl();
     }
 
+    public static MemoryCMRParquetImpl getParquetMRInstance() {
+        return new MemoryCMRParquetImpl();
+    }
+
     public static MemoryCMARW getSmallCMARWInstance(FilesFacade ff, LPSZ name, int memoryTag, long opts) {
         return new MemoryCMARWImpl(ff, name, ff.getPageSize(), -1, memoryTag, opts);
     }
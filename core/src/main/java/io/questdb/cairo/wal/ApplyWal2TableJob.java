@@ -75,6 +75,8 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
     private final WalEventReader walEventReader;
     private final Telemetry<TelemetryWalTask> walTelemetry;
     private final WalTelemetryFacade walTelemetryFacade;
+    private long committedMaxTimestamp;
+    private long committedMinTimestamp;
 
     public ApplyWal2TableJob(CairoEngine engine, int workerCount, int sharedWorkerCount) {
         super(engine.getMessageBus().getWalTxnNotificationQueue(), engine.getMessageBus().getWalTxnNotificationSubSequence());
@@ -227,6 +229,8 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                 long insertTimespan = 0;
 
                 tempPath.of(engine.getConfiguration().getRoot()).concat(tableToken).slash();
+                committedMinTimestamp = Long.MAX_VALUE;
+                committedMaxTimestamp = Long.MIN_VALUE;
 
                 // Populate transactionMeta with timestamps of future transactions
                 // to avoid O3 commits by pre-calculating safe to commit timestamp for every commit.
@@ -353,6 +357,11 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                     writer.commitSeqTxn();
                 }
 
+                if (committedMinTimestamp <= committedMaxTimestamp) {
+                    // let materialized views know which time buckets of the table have changed
+                    engine.getMatViewGraph().notifyBaseTableCommit(tableToken, committedMinTimestamp, committedMaxTimestamp);
+                }
+
                 if (totalTransactionCount > 0) {
                     LOG.info().$("job ")
                             .$(finishedAll ? "finished" : "ejected")
@@ -408,6 +417,8 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                                 dataInfo,
                                 seqTxn
                         );
+                        committedMinTimestamp = Math.min(committedMinTimestamp, dataInfo.getMinTimestamp());
+                        committedMaxTimestamp = Math.max(committedMaxTimestamp, dataInfo.getMaxTimestamp());
                         final long latency = microClock.getTicks() - start;
                         long physicalRowCount = writer.getPhysicallyWrittenRowsSinceLastCommit();
                         metrics.addApplyRowsWritten(rowCount, physicalRowCount, latency);
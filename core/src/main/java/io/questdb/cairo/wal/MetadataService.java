@@ -89,6 +89,12 @@ public interface MetadataService {
 
     void changeCacheFlag(int columnIndex, boolean isCacheOn);
 
+    AttachDetachStatus compressPartition(long partitionTimestamp);
+
+    AttachDetachStatus convertPartitionToParquet(long partitionTimestamp);
+
+    AttachDetachStatus convertPartitionToVolume(long partitionTimestamp, CharSequence volumeAlias);
+
     AttachDetachStatus detachPartition(long partitionTimestamp);
 
     void disableDeduplication();
@@ -125,6 +131,12 @@ public interface MetadataService {
 
     void setMetaO3MaxLag(long o3MaxLagUs);
 
+    void setRetentionTieringAge(long tieringAgeUs);
+
+    void setRetentionTieringVolume(CharSequence volumeAlias);
+
+    void setRetentionTtl(long ttlUs);
+
     void squashPartitions();
 
     void tick();
@@ -48,6 +48,21 @@ public interface MetadataServiceStub extends MetadataService {
         throw CairoException.critical(0).put("change cache flag does not update sequencer metadata");
     }
 
+    @Override
+    default AttachDetachStatus compressPartition(long partitionTimestamp) {
+        throw CairoException.critical(0).put("compress partition does not update sequencer metadata");
+    }
+
+    @Override
+    default AttachDetachStatus convertPartitionToParquet(long partitionTimestamp) {
+        throw CairoException.critical(0).put("convert partition to parquet does not update sequencer metadata");
+    }
+
+    @Override
+    default AttachDetachStatus convertPartitionToVolume(long partitionTimestamp, CharSequence volumeAlias) {
+        throw CairoException.critical(0).put("convert partition to volume does not update sequencer metadata");
+    }
+
     @Override
     default AttachDetachStatus detachPartition(long partitionTimestamp) {
         throw CairoException.critical(0).put("detach partition does not update sequencer metadata");
@@ -101,6 +116,21 @@ public interface MetadataServiceStub extends MetadataService {
         throw CairoException.critical(0).put("change of o3MaxLag does not update sequencer metadata");
     }
 
+    @Override
+    default void setRetentionTieringAge(long tieringAgeUs) {
+        throw CairoException.critical(0).put("change of tiering age does not update sequencer metadata");
+    }
+
+    @Override
+    default void setRetentionTieringVolume(CharSequence volumeAlias) {
+        throw CairoException.critical(0).put("change of tiering volume does not update sequencer metadata");
+    }
+
+    @Override
+    default void setRetentionTtl(long ttlUs) {
+        throw CairoException.critical(0).put("change of ttl does not update sequencer metadata");
+    }
+
     @Override
     default void squashPartitions() {
         throw CairoException.critical(0).put("partition squash does not update sequencer metadata");
@@ -549,6 +549,7 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
         int candidateSigArgTypeScore = -1;
         int bestMatch = MATCH_NO_MATCH;
         boolean isWindowContext = !sqlExecutionContext.getWindowContext().isEmpty();
+        FunctionFactory noArgCandidate = null;
 
         // If a bind variable of unknown type appears inside a cast expression, we should
         // assign a default type to it. Otherwise, since casting is a heavily overloaded
@@ -614,9 +615,16 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
                 sigArgCount--;
             }
 
-            // this is no-arg function, match right away
+            // this is no-arg function, match right away unless
+            // there is a window overload, e.g. count(), to prefer
             if (argCount == 0 && sigArgCount == 0) {
-                return checkAndCreateFunction(factory, args, argPositions, node, configuration);
+                if (isWindowContext == factory.isWindow()) {
+                    return checkAndCreateFunction(factory, args, argPositions, node, configuration);
+                }
+                if (noArgCandidate == null) {
+                    noArgCandidate = factory;
+                }
+                continue;
             }
 
             if (candidateDescriptor == null) {
@@ -763,10 +771,13 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
                     continue;
                 }
 
+                // window overload that needs casting may be beaten by a closer window overload, e.g. max(L) over max(D) for int argument
+                boolean windowOverload = false;
                 if (factory.isWindow()) {
                     // prefer window functions in window context, otherwise non-window functions
                     if (isWindowContext) {
                         // choose window-ed avg(D) over group by implementation that matches arg type better
+                        windowOverload = match != MATCH_EXACT_MATCH;
                         match = MATCH_EXACT_MATCH;
                         sigArgTypeScore -= 10;
                     } else {
@@ -795,13 +806,18 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
                         }
                         bestMatch = match;
                     } else {
+                        if (isWindowContext && candidate != null && candidate.isWindow()
+                                && (!factory.isWindow() || (windowOverload && candidateSigArgTypeScore <= sigArgTypeScore))) {
+                            continue;
+                        }
                         candidate = factory;
                         candidateDescriptor = descriptor;
                         candidateSigArgCount = sigArgCount;
                         candidateSigVarArg = sigVarArg;
                         candidateSigVarArgConst = sigVarArgConst;
+                        candidateSigArgTypeScore = sigArgTypeScore;
                         bestMatch = match;
-                        if (isWindowContext == factory.isWindow()) {
+                        if (isWindowContext == factory.isWindow() && !windowOverload) {
                             break;
                         }
                     }
@@ -809,6 +825,10 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
             }
         }
 
+        if (candidate == null && noArgCandidate != null) {
+            return checkAndCreateFunction(noArgCandidate, args, argPositions, node, configuration);
+        }
+
         if (candidate == null) {
             // no signature match
             throw invalidArgument(node, args, candidateDescriptor);
@@ -45,15 +45,20 @@ import io.questdb.griffin.engine.groupby.*;
 import io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory;
 import io.questdb.griffin.engine.groupby.vect.*;
 import io.questdb.griffin.engine.join.*;
+import io.questdb.griffin.engine.orderby.AsyncSortAtom;
+import io.questdb.griffin.engine.orderby.AsyncSortRecordCursorFactory;
+import io.questdb.griffin.engine.orderby.AsyncTopKRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.LimitedSizeSortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
 import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.SortedRecordCursorFactory;
 import io.questdb.griffin.engine.table.*;
 import io.questdb.griffin.engine.union.*;
+import io.questdb.griffin.engine.window.AsyncWindowRecordCursorFactory;
 import io.questdb.griffin.engine.window.CachedWindowRecordCursorFactory;
 import io.questdb.griffin.engine.window.WindowFunction;
 import io.questdb.griffin.engine.window.WindowRecordCursorFactory;
+import io.questdb.griffin.engine.window.WindowShard;
 import io.questdb.griffin.model.*;
 import io.questdb.jit.CompiledFilter;
 import io.questdb.jit.CompiledFilterIRSerializer;
@@ -82,6 +87,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     private static final FullFatJoinGenerator CREATE_FULL_FAT_AS_OF_JOIN = SqlCodeGenerator::createFullFatAsOfJoin;
     private static final FullFatJoinGenerator CREATE_FULL_FAT_LT_JOIN = SqlCodeGenerator::createFullFatLtJoin;
     private static final Log LOG = LogFactory.getLog(SqlCodeGenerator.class);
+    // lag() and lead() take value, offset and default
+    private static final int MAX_WINDOW_FUNCTION_ARGS = 3;
     private static final ModelOperator RESTORE_WHERE_CLAUSE = QueryModel::restoreWhereClause;
     private static final SetRecordCursorFactoryConstructor SET_EXCEPT_ALL_CONSTRUCTOR = ExceptAllRecordCursorFactory::new;
     private static final SetRecordCursorFactoryConstructor SET_EXCEPT_CONSTRUCTOR = ExceptRecordCursorFactory::new;
@@ -375,6 +382,21 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         );
     }
 
+    private static int flipPartitionPrunerOp(int op) {
+        switch (op) {
+            case PartitionPruner.OP_GE:
+                return PartitionPruner.OP_LE;
+            case PartitionPruner.OP_GT:
+                return PartitionPruner.OP_LT;
+            case PartitionPruner.OP_LE:
+                return PartitionPruner.OP_GE;
+            case PartitionPruner.OP_LT:
+                return PartitionPruner.OP_GT;
+            default:
+                return op;
+        }
+    }
+
     private static int getOrderByDirectionOrDefault(QueryModel model, int index) {
         IntList direction = model.getOrderByDirectionAdvice();
         if (index >= direction.size()) {
@@ -383,6 +405,44 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return model.getOrderByDirectionAdvice().getQuick(index);
     }
 
+    private static int getPartitionPrunerOp(CharSequence token) {
+        if (Chars.equals(token, '=')) {
+            return PartitionPruner.OP_EQ;
+        }
+        if (Chars.equals(token, '<')) {
+            return PartitionPruner.OP_LT;
+        }
+        if (Chars.equals(token, "<=")) {
+            return PartitionPruner.OP_LE;
+        }
+        if (Chars.equals(token, '>')) {
+            return PartitionPruner.OP_GT;
+        }
+        if (Chars.equals(token, ">=")) {
+            return PartitionPruner.OP_GE;
+        }
+        return -1;
+    }
+
+    // Returns the model holding a WINDOW JOIN, if it's the only join under the group-by model,
+    // either directly or through a select-choose model.
+    @Nullable
+    private static QueryModel getWindowJoinModel(@Nullable QueryModel nested) {
+        if (nested == null) {
+            return null;
+        }
+        if (nested.getSelectModelType() == QueryModel.SELECT_MODEL_CHOOSE && nested.getNestedModel() != null) {
+            final QueryModel joinModel = nested.getNestedModel();
+            if (joinModel.getJoinModels().size() == 2 && joinModel.getJoinModels().getQuick(1).getJoinType() == JOIN_WINDOW) {
+                return joinModel;
+            }
+        }
+        if (nested.getJoinModels().size() == 2 && nested.getJoinModels().getQuick(1).getJoinType() == JOIN_WINDOW) {
+            return nested;
+        }
+        return null;
+    }
+
     private static boolean isSingleColumnFunction(ExpressionNode ast, CharSequence name) {
         return ast.type == FUNCTION && ast.paramCount == 1 && Chars.equalsIgnoreCase(ast.token, name) && ast.rhs.type == LITERAL;
     }
@@ -543,6 +603,91 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return null;
     }
 
+    private WindowFunction compileWindowFunction(
+            RecordCursorFactory base,
+            WindowColumn ac,
+            RecordMetadata chainMetadata,
+            boolean dismissOrder,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final ExpressionNode ast = ac.getAst();
+        if (ast.paramCount > MAX_WINDOW_FUNCTION_ARGS) {
+            throw SqlException.$(ast.position, "too many arguments");
+        }
+
+        ObjList<Function> partitionByFunctions = null;
+        try {
+            int psz = ac.getPartitionBy().size();
+            if (psz > 0) {
+                partitionByFunctions = new ObjList<>(psz);
+                for (int j = 0; j < psz; j++) {
+                    final Function function = functionParser.parseFunction(ac.getPartitionBy().getQuick(j), chainMetadata, executionContext);
+                    partitionByFunctions.add(function);
+                    if (function instanceof GroupByFunction) {
+                        throw SqlException.$(ast.position, "aggregate functions in partition by are not supported");
+                    }
+                }
+            }
+
+            final VirtualRecord partitionByRecord;
+            final RecordSink partitionBySink;
+
+            if (partitionByFunctions != null) {
+                partitionByRecord = new VirtualRecord(partitionByFunctions);
+                keyTypes.clear();
+                final int partitionByCount = partitionByFunctions.size();
+
+                for (int j = 0; j < partitionByCount; j++) {
+                    keyTypes.add(partitionByFunctions.getQuick(j).getType());
+                }
+                entityColumnFilter.of(partitionByCount);
+                // create sink
+                partitionBySink = RecordSinkFactory.getInstance(
+                        asm,
+                        keyTypes,
+                        entityColumnFilter,
+                        false
+                );
+            } else {
+                partitionByRecord = null;
+                partitionBySink = null;
+            }
+
+            final int osz = ac.getOrderBy().size();
+            executionContext.configureWindowContext(
+                    partitionByRecord,
+                    partitionBySink,
+                    keyTypes,
+                    osz > 0,
+                    dismissOrder ? base.getScanDirection() : RecordCursorFactory.SCAN_DIRECTION_OTHER,
+                    osz > 0 ? ac.getOrderBy().getQuick(0).position : -1,
+                    base.recordCursorSupportsRandomAccess(),
+                    ac.getFramingMode(),
+                    ac.getRowsLo(),
+                    ac.getRowsLoKindPos(),
+                    ac.getRowsHi(),
+                    ac.getRowsHiKindPos(),
+                    ac.getExclusionKind(),
+                    ac.getExclusionKindPos(),
+                    chainMetadata.getTimestampIndex()
+            );
+            try {
+                // function needs to resolve args against chain metadata
+                final Function f = functionParser.parseFunction(ast, chainMetadata, executionContext);
+                if (!(f instanceof WindowFunction)) {
+                    Misc.free(f);
+                    throw SqlException.$(ast.position, "non-window function called in window context");
+                }
+                return (WindowFunction) f;
+            } finally {
+                executionContext.clearWindowContext();
+            }
+        } catch (Throwable th) {
+            Misc.freeObjList(partitionByFunctions);
+            throw th;
+        }
+    }
+
     private @Nullable ObjList<Function> compileWorkerFilterConditionally(
             SqlExecutionContext executionContext,
             @Nullable Function filter,
@@ -794,7 +939,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             RecordCursorFactory slave,
             int joinType,
             Function filter,
-            JoinContext context
+            JoinContext context,
+            SqlExecutionContext executionContext
     ) {
         /*
          * JoinContext provides the following information:
@@ -830,8 +976,48 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         valueTypes.add(ColumnType.LONG);
         valueTypes.add(ColumnType.LONG); // record count for the key
 
-        if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
+        final boolean isGraceJoin = joinType == JOIN_INNER && isHashJoinSpillEnabled();
+        if (joinType == JOIN_INNER && !isGraceJoin && configuration.isSqlParallelHashJoinEnabled() && master.supportsPageFrameCursor()) {
+            entityColumnFilter.of(slaveMetadata.getColumnCount());
+            return new AsyncHashJoinRecordCursorFactory(
+                    configuration,
+                    executionContext.getMessageBus(),
+                    metadata,
+                    master,
+                    slave,
+                    keyTypes,
+                    valueTypes,
+                    masterKeySink,
+                    slaveKeySink,
+                    RecordSinkFactory.getInstance(
+                            asm,
+                            slaveMetadata,
+                            entityColumnFilter,
+                            false
+                    ),
+                    reduceTaskFactory,
+                    masterMetadata.getColumnCount(),
+                    context,
+                    executionContext.getSharedWorkerCount()
+            );
+        }
+
+        if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins && !isGraceJoin) {
             if (joinType == JOIN_INNER) {
+                if (isSymbolKeyHashJoin(master, slave)) {
+                    return new HashJoinSymbolLightRecordCursorFactory(
+                            configuration,
+                            metadata,
+                            master,
+                            slave,
+                            valueTypes,
+                            masterMetadata.getColumnCount(),
+                            listColumnFilterB.getColumnIndexFactored(0),
+                            listColumnFilterA.getColumnIndexFactored(0),
+                            context
+                    );
+                }
+
                 return new HashJoinLightRecordCursorFactory(
                         configuration,
                         metadata,
@@ -842,7 +1028,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                         masterKeySink,
                         slaveKeySink,
                         masterMetadata.getColumnCount(),
-                        context
+                        context,
+                        createHashJoinKeyFilter(masterMetadata, slaveMetadata)
                 );
             }
 
@@ -885,6 +1072,16 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         );
 
         if (joinType == JOIN_INNER) {
+            RecordSink masterSink = null;
+            if (isGraceJoin) {
+                entityColumnFilter.of(masterMetadata.getColumnCount());
+                masterSink = RecordSinkFactory.getInstance(
+                        asm,
+                        masterMetadata,
+                        entityColumnFilter,
+                        false
+                );
+            }
             return new HashJoinRecordCursorFactory(
                     configuration,
                     metadata,
@@ -895,6 +1092,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     masterKeySink,
                     slaveKeySink,
                     slaveSink,
+                    masterSink,
                     masterMetadata.getColumnCount(),
                     context
             );
@@ -932,6 +1130,26 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         );
     }
 
+    // Returns min/max and Bloom filter of the build side keys for light hash joins on
+    // a single integer key of the same type on both sides, or null if not applicable.
+    @Nullable
+    private JoinKeyFilter createHashJoinKeyFilter(RecordMetadata masterMetadata, RecordMetadata slaveMetadata) {
+        if (!configuration.isSqlHashJoinKeyFilterEnabled() || keyTypes.getColumnCount() != 1) {
+            return null;
+        }
+        final int masterKeyIndex = listColumnFilterB.getColumnIndexFactored(0);
+        final int keyType = keyTypes.getColumnType(0);
+        if (
+                !JoinKeyFilter.isSupportedKeyType(keyType)
+                        || masterMetadata.getColumnType(masterKeyIndex) != keyType
+                        || slaveMetadata.getColumnType(listColumnFilterA.getColumnIndexFactored(0)) != keyType
+        ) {
+            return null;
+        }
+        // map record has value columns first, followed by key columns
+        return new JoinKeyFilter(keyType, valueTypes.getColumnCount(), masterKeyIndex);
+    }
+
     @NotNull
     private JoinRecordMetadata createJoinMetadata(
             CharSequence masterAlias,
@@ -1003,6 +1221,60 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         );
     }
 
+    // Collects "column op constant" predicates on fixed-size numeric columns from the top-level
+    // conjunction of the filter, so that partitions that can't match are skipped using partition stats.
+    @Nullable
+    private PartitionPruner createPartitionPruner(@Nullable ExpressionNode filter, TableRecordMetadata metadata, int partitionBy) {
+        if (filter == null || !configuration.isPartitionStatsEnabled() || !PartitionBy.isPartitioned(partitionBy)) {
+            return null;
+        }
+
+        PartitionPruner pruner = null;
+        sqlNodeStack.clear();
+        ExpressionNode node = filter;
+        while (node != null) {
+            if (node.type == OPERATION && SqlKeywords.isAndKeyword(node.token) && node.paramCount == 2) {
+                sqlNodeStack.push(node.lhs);
+                sqlNodeStack.push(node.rhs);
+            } else if (node.type == OPERATION && node.paramCount == 2) {
+                int op = getPartitionPrunerOp(node.token);
+                ExpressionNode column = node.lhs;
+                ExpressionNode constant = node.rhs;
+                if (column.type == CONSTANT && constant.type == LITERAL) {
+                    column = node.rhs;
+                    constant = node.lhs;
+                    op = flipPartitionPrunerOp(op);
+                }
+                final int columnIndex = column.type == LITERAL ? metadata.getColumnIndexQuiet(column.token) : -1;
+                if (op != -1 && columnIndex > -1 && constant.type == CONSTANT) {
+                    final int columnType = metadata.getColumnType(columnIndex);
+                    if (PartitionStatsReader.isSupportedColumnType(columnType)) {
+                        try {
+                            final long value;
+                            if (ColumnType.isDouble(columnType)) {
+                                final double d = Numbers.parseDouble(constant.token);
+                                value = Double.isNaN(d) ? Numbers.LONG_NULL : Double.doubleToLongBits(d);
+                            } else {
+                                final long l = Numbers.parseLong(constant.token);
+                                value = ColumnType.isInt(columnType) && l == Numbers.INT_NULL ? Numbers.LONG_NULL : l;
+                            }
+                            if (value != Numbers.LONG_NULL) {
+                                if (pruner == null) {
+                                    pruner = new PartitionPruner(configuration);
+                                }
+                                pruner.add(metadata.getColumnName(columnIndex), metadata.getWriterIndex(columnIndex), columnType, op, value);
+                            }
+                        } catch (NumericException ignore) {
+                            // not a numeric constant, the predicate can't be used for pruning
+                        }
+                    }
+                }
+            }
+            node = sqlNodeStack.poll();
+        }
+        return pruner;
+    }
+
     private RecordCursorFactory createSpliceJoin(
             RecordMetadata metadata,
             RecordCursorFactory master,
@@ -1032,6 +1304,114 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         );
     }
 
+    private RecordCursorFactory generateAsyncWindow(
+            QueryModel model,
+            RecordCursorFactory base,
+            RecordSink recordSink,
+            GenericRecordMetadata factoryMetadata,
+            ArrayColumnTypes chainTypes,
+            GenericRecordMetadata chainMetadata,
+            ObjList<RecordComparator> comparators,
+            ObjList<ObjList<WindowFunction>> functionGroups,
+            @Nullable ObjList<WindowFunction> naturalOrderFunctions,
+            IntList columnIndexes,
+            ObjList<IntList> keys,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final ObjList<QueryColumn> columns = model.getColumns();
+        final int workerCount = executionContext.getSharedWorkerCount();
+        // the owner thread evaluates shards too
+        final int shardCount = Numbers.ceilPow2(workerCount + 1);
+        final ObjList<WindowShard> shards = new ObjList<>(shardCount);
+        final ObjList<WindowFunction> shardFunctions = new ObjList<>();
+        ObjList<Function> partitionByFunctions = null;
+        try {
+            // the first shard takes the functions compiled for the single-threaded factory,
+            // the others get their own copies
+            shards.add(new WindowShard(configuration, comparators, functionGroups, naturalOrderFunctions));
+            for (int s = 1; s < shardCount; s++) {
+                final ObjList<RecordComparator> shardComparators = new ObjList<>(keys.size());
+                final ObjList<ObjList<WindowFunction>> shardFunctionGroups = new ObjList<>(keys.size());
+                for (int i = 0, n = keys.size(); i < n; i++) {
+                    shardComparators.add(recordComparatorCompiler.compile(chainTypes, keys.getQuick(i)));
+                    shardFunctionGroups.add(new ObjList<>());
+                }
+                ObjList<WindowFunction> shardNaturalOrderFunctions = null;
+
+                for (int i = 0, n = columns.size(); i < n; i++) {
+                    final QueryColumn qc = columns.getQuick(i);
+                    if (!qc.isWindowColumn()) {
+                        continue;
+                    }
+                    final WindowColumn ac = (WindowColumn) qc;
+                    final boolean dismissOrder = isWindowOrderDismissed(model, base, ac);
+                    final WindowFunction windowFunction = compileWindowFunction(base, ac, chainMetadata, dismissOrder, executionContext);
+                    shardFunctions.add(windowFunction);
+
+                    if (ac.getOrderBy().size() > 0 && !dismissOrder) {
+                        IntList order = toOrderIndices(chainMetadata, ac.getOrderBy(), ac.getOrderByDirection());
+                        windowFunction.initRecordComparator(recordComparatorCompiler, chainTypes, order);
+                        shardFunctionGroups.getQuick(keys.indexOf(order)).add(windowFunction);
+                    } else {
+                        if (shardNaturalOrderFunctions == null) {
+                            shardNaturalOrderFunctions = new ObjList<>();
+                        }
+                        shardNaturalOrderFunctions.add(windowFunction);
+                    }
+                    windowFunction.setColumnIndex(i);
+                }
+                shards.add(new WindowShard(configuration, shardComparators, shardFunctionGroups, shardNaturalOrderFunctions));
+            }
+
+            // all window functions share the partition key, the first one is used to hash it
+            WindowColumn firstWindowColumn = null;
+            for (int i = 0, n = columns.size(); i < n && firstWindowColumn == null; i++) {
+                if (columns.getQuick(i).isWindowColumn()) {
+                    firstWindowColumn = (WindowColumn) columns.getQuick(i);
+                }
+            }
+            assert firstWindowColumn != null;
+            final ObjList<ExpressionNode> partitionBy = firstWindowColumn.getPartitionBy();
+            final int partitionByCount = partitionBy.size();
+            partitionByFunctions = new ObjList<>(partitionByCount);
+            final ArrayColumnTypes partitionByKeyTypes = new ArrayColumnTypes();
+            for (int i = 0; i < partitionByCount; i++) {
+                final Function function = functionParser.parseFunction(partitionBy.getQuick(i), chainMetadata, executionContext);
+                partitionByFunctions.add(function);
+                partitionByKeyTypes.add(function.getType());
+            }
+            entityColumnFilter.of(partitionByCount);
+            final RecordSink partitionBySink = RecordSinkFactory.getInstance(
+                    asm,
+                    partitionByKeyTypes,
+                    entityColumnFilter,
+                    false
+            );
+
+            return new AsyncWindowRecordCursorFactory(
+                    configuration,
+                    executionContext.getMessageBus(),
+                    base,
+                    recordSink,
+                    factoryMetadata,
+                    chainTypes,
+                    shards,
+                    partitionByFunctions,
+                    partitionBySink,
+                    partitionByKeyTypes,
+                    columnIndexes,
+                    keys,
+                    chainMetadata,
+                    workerCount
+            );
+        } catch (Throwable th) {
+            Misc.freeObjList(shards);
+            Misc.freeObjList(shardFunctions);
+            Misc.freeObjList(partitionByFunctions);
+            throw th;
+        }
+    }
+
     private ObjList<Function> generateCastFunctions(
             RecordMetadata castToMetadata,
             RecordMetadata castFromMetadata,
@@ -1660,6 +2040,49 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return castFunctions;
     }
 
+    private RecordCursorFactory generateFill(RecordCursorFactory factory, QueryModel model, SqlExecutionContext executionContext) throws SqlException {
+        final ExpressionNode fillStride = model.getFillStride();
+        if (fillStride == null) {
+            return factory;
+        }
+
+        Function timezoneFunc = null;
+        try {
+            if (factory.getMetadata().getTimestampIndex() == -1 || !factory.recordCursorSupportsRandomAccess()) {
+                throw SqlException.$(model.getModelPosition(), "fill requires random access cursor ordered by timestamp");
+            }
+
+            // fill values are validated against the columns, in the same way as serial sample by does it
+            final ObjList<QueryColumn> columns = model.getColumns();
+            recordFunctionPositions.clear();
+            for (int i = 0, n = factory.getMetadata().getColumnCount(); i < n; i++) {
+                recordFunctionPositions.add(i < columns.size() ? columns.getQuick(i).getAst().position : 0);
+            }
+
+            final ExpressionNode timezone = model.getFillTimezone();
+            if (timezone != null) {
+                timezoneFunc = functionParser.parseFunction(timezone, EmptyRecordMetadata.INSTANCE, executionContext);
+                if (ColumnType.isUndefined(timezoneFunc.getType())) {
+                    timezoneFunc.assignType(ColumnType.STRING, executionContext.getBindVariableService());
+                }
+            }
+
+            return new SampleByGapFillRecordCursorFactory(
+                    factory,
+                    TimestampSamplerFactory.getInstance(fillStride.token, fillStride.position),
+                    fillStride,
+                    timezoneFunc,
+                    timezone != null ? timezone.position : 0,
+                    model.getFillValues(),
+                    recordFunctionPositions
+            );
+        } catch (Throwable th) {
+            Misc.free(timezoneFunc);
+            Misc.free(factory);
+            throw th;
+        }
+    }
+
     private RecordCursorFactory generateFilter(RecordCursorFactory factory, QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         return model.getWhereClause() == null ? factory : generateFilter0(factory, model, executionContext);
     }
@@ -1924,35 +2347,75 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 );
                                 masterAlias = null;
                                 break;
+                            case JOIN_WINDOW:
+                                throw SqlException.$(slaveModel.getJoinKeywordPosition(), "WINDOW JOIN must be the only join in the query and requires aggregate functions");
                             case JOIN_ASOF:
                                 validateBothTimestamps(slaveModel, masterMetadata, slaveMetadata);
                                 validateOuterJoinExpressions(slaveModel, "ASOF");
                                 processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
                                 if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
                                     if (isKeyedTemporalJoin(masterMetadata, slaveMetadata)) {
-                                        master = createAsOfJoin(
-                                                createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
-                                                master,
-                                                RecordSinkFactory.getInstance(
-                                                        asm,
-                                                        masterMetadata,
-                                                        listColumnFilterB,
-                                                        true,
-                                                        writeStringAsVarcharB
-                                                ),
-                                                slave,
-                                                RecordSinkFactory.getInstance(
-                                                        asm,
-                                                        slaveMetadata,
-                                                        listColumnFilterA,
-                                                        true,
-                                                        writeStringAsVarcharA
-                                                ),
-                                                masterMetadata.getColumnCount(),
-                                                slaveModel.getContext()
-                                        );
+                                        if (
+                                                configuration.isSqlAsOfJoinKeyedFastEnabled()
+                                                        && slave.supportsTimeFrameCursor()
+                                                        && listColumnFilterA.getColumnCount() == 1
+                                                        && AsOfJoinFastRecordCursorFactory.isSupportedKey(
+                                                        masterMetadata.getColumnType(listColumnFilterB.getColumnIndexFactored(0)),
+                                                        slaveMetadata.getColumnType(listColumnFilterA.getColumnIndexFactored(0))
+                                                )
+                                        ) {
+                                            master = new AsOfJoinFastRecordCursorFactory(
+                                                    configuration,
+                                                    createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                    master,
+                                                    slave,
+                                                    masterMetadata.getColumnCount(),
+                                                    listColumnFilterB.getColumnIndexFactored(0),
+                                                    listColumnFilterA.getColumnIndexFactored(0),
+                                                    slaveModel.getContext()
+                                            );
+                                        } else {
+                                            master = createAsOfJoin(
+                                                    createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                    master,
+                                                    RecordSinkFactory.getInstance(
+                                                            asm,
+                                                            masterMetadata,
+                                                            listColumnFilterB,
+                                                            true,
+                                                            writeStringAsVarcharB
+                                                    ),
+                                                    slave,
+                                                    RecordSinkFactory.getInstance(
+                                                            asm,
+                                                            slaveMetadata,
+                                                            listColumnFilterA,
+                                                            true,
+                                                            writeStringAsVarcharA
+                                                    ),
+                                                    masterMetadata.getColumnCount(),
+                                                    slaveModel.getContext()
+                                            );
+                                        }
                                     } else {
-                                        if (slave.supportsTimeFrameCursor()) {
+                                        if (
+                                                slave.supportsTimeFrameCursor()
+                                                        && configuration.isSqlParallelAsOfJoinEnabled()
+                                                        && master.supportsPageFrameCursor()
+                                                        && master.getScanDirection() == RecordCursorFactory.SCAN_DIRECTION_FORWARD
+                                        ) {
+                                            master = new AsyncAsOfJoinRecordCursorFactory(
+                                                    configuration,
+                                                    executionContext.getMessageBus(),
+                                                    createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                    master,
+                                                    slave,
+                                                    reduceTaskFactory,
+                                                    masterMetadata.getColumnCount(),
+                                                    false,
+                                                    executionContext.getSharedWorkerCount()
+                                            );
+                                        } else if (slave.supportsTimeFrameCursor()) {
                                             master = new AsOfJoinNoKeyFastRecordCursorFactory(
                                                     configuration,
                                                     createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
@@ -2015,7 +2478,24 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                                 slaveModel.getContext()
                                         );
                                     } else {
-                                        if (slave.supportsTimeFrameCursor()) {
+                                        if (
+                                                slave.supportsTimeFrameCursor()
+                                                        && configuration.isSqlParallelAsOfJoinEnabled()
+                                                        && master.supportsPageFrameCursor()
+                                                        && master.getScanDirection() == RecordCursorFactory.SCAN_DIRECTION_FORWARD
+                                        ) {
+                                            master = new AsyncAsOfJoinRecordCursorFactory(
+                                                    configuration,
+                                                    executionContext.getMessageBus(),
+                                                    createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
+                                                    master,
+                                                    slave,
+                                                    reduceTaskFactory,
+                                                    masterMetadata.getColumnCount(),
+                                                    true,
+                                                    executionContext.getSharedWorkerCount()
+                                            );
+                                        } else if (slave.supportsTimeFrameCursor()) {
                                             master = new LtJoinNoKeyFastRecordCursorFactory(
                                                     configuration,
                                                     createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
@@ -2093,7 +2573,14 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                             default:
                                 processJoinContext(index == 1, slaveModel.getContext(), masterMetadata, slaveMetadata);
 
-                                joinMetadata = createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata);
+                                // grace hash join emits rows partition by partition, so the master order is lost
+                                joinMetadata = createJoinMetadata(
+                                        masterAlias,
+                                        masterMetadata,
+                                        slaveModel.getName(),
+                                        slaveMetadata,
+                                        joinType == JOIN_INNER && isHashJoinSpillEnabled() ? -1 : masterMetadata.getTimestampIndex()
+                                );
                                 if (slaveModel.getOuterJoinExpressionClause() != null) {
                                     filter = compileJoinFilter(slaveModel.getOuterJoinExpressionClause(), joinMetadata, executionContext);
                                 }
@@ -2114,7 +2601,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                         slave,
                                         joinType,
                                         filter,
-                                        slaveModel.getContext()
+                                        slaveModel.getContext(),
+                                        executionContext
                                 );
                                 masterAlias = null;
                                 break;
@@ -2514,6 +3002,16 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         assert intrinsicModel.keyValueFuncs.size() == 0;
         // get the latest rows for all values of "latest by" column
 
+        if (filter == null && prefixes.size() == 0 && !intrinsicModel.hasIntervalFilters() && configuration.isSqlLatestByCacheEnabled()) {
+            return new LatestByAllCachedRecordCursorFactory(
+                    metadata,
+                    configuration,
+                    dataFrameCursorFactory,
+                    latestByIndex,
+                    columnIndexes
+            );
+        }
+
         if (indexed && filter == null) {
             return new LatestByAllIndexedRecordCursorFactory(
                     metadata,
@@ -2670,7 +3168,21 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 final Function hiFunc = getHiFunction(model, executionContext);
 
                 if (recordCursorFactory.recordCursorSupportsRandomAccess()) {
-                    if (canSortAndLimitBeOptimized(model, executionContext, loFunc, hiFunc)) {
+                    if (model.getFillStride() == null && canSortAndLimitBeOptimized(model, executionContext, loFunc, hiFunc)) {
+                        if (!preSortedByTs && configuration.isSqlParallelTopKEnabled()) {
+                            final RecordCursorFactory topKFactory = generateOrderByTopK(
+                                    recordCursorFactory,
+                                    orderedMetadata,
+                                    model,
+                                    loFunc,
+                                    hiFunc,
+                                    executionContext
+                            );
+                            if (topKFactory != null) {
+                                model.setLimitImplemented(true);
+                                return topKFactory;
+                            }
+                        }
                         model.setLimitImplemented(true);
                         int baseCursorTimestampIndex = preSortedByTs ? timestampIndex : -1;
                         return new LimitedSizeSortedLightRecordCursorFactory(
@@ -2683,7 +3195,23 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 listColumnFilterA.copy(),
                                 baseCursorTimestampIndex
                         );
-                    } else {
+                    } else if (
+                            !preSortedByTs
+                                    && listColumnFilterA.size() == 1
+                                    && configuration.isSqlParallelSortEnabled()
+                                    && recordCursorFactory.supportsPageFrameCursor()
+                                    && AsyncSortAtom.isSupportedKeyType(metadata.getColumnType(listColumnFilterA.getColumnIndexFactored(0)))
+                    ) {
+                        return new AsyncSortRecordCursorFactory(
+                                configuration,
+                                executionContext.getMessageBus(),
+                                orderedMetadata,
+                                recordCursorFactory,
+                                reduceTaskFactory,
+                                listColumnFilterA.copy(),
+                                executionContext.getSharedWorkerCount()
+                        );
+                    } else if (!isSortSpillEnabled()) {
                         return new SortedLightRecordCursorFactory(
                                 configuration,
                                 orderedMetadata,
@@ -2695,6 +3223,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 }
 
                 // when base record cursor does not support random access
+                // or when the sort may spill to disk
                 // we have to copy entire record into ordered structure
 
                 entityColumnFilter.of(orderedMetadata.getColumnCount());
@@ -2720,6 +3249,74 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         }
     }
 
+    // returns null when the query doesn't qualify for parallel top-K
+    private @Nullable RecordCursorFactory generateOrderByTopK(
+            RecordCursorFactory factory,
+            RecordMetadata orderedMetadata,
+            QueryModel model,
+            Function loFunc,
+            Function hiFunc,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        if (listColumnFilterA.size() != 1 || loFunc == null || !loFunc.isConstant() || (hiFunc != null && !hiFunc.isConstant())) {
+            return null;
+        }
+        loFunc.init(null, executionContext);
+        final long lo = loFunc.getLong(null);
+        if (lo < 0) {
+            return null;
+        }
+        if (hiFunc != null) {
+            hiFunc.init(null, executionContext);
+            if (hiFunc.getLong(null) < lo) {
+                return null;
+            }
+        }
+        if (!AsyncSortAtom.isSupportedKeyType(factory.getMetadata().getColumnType(listColumnFilterA.getColumnIndexFactored(0)))) {
+            return null;
+        }
+
+        RecordCursorFactory base = factory;
+        CompiledFilter compiledFilter = null;
+        MemoryCARW bindVarMemory = null;
+        ObjList<Function> bindVarFunctions = null;
+        Function filter = null;
+        if (!factory.supportsPageFrameCursor()) {
+            // Try to steal the filter from the nested factory, if possible.
+            if (!(factory instanceof StealableFilterRecordCursorFactory)) {
+                return null;
+            }
+            final StealableFilterRecordCursorFactory filterFactory = (StealableFilterRecordCursorFactory) factory;
+            // the filter is shared by the workers, so it has to be thread-safe
+            if (!filterFactory.supportsFilterStealing() || !filterFactory.getFilter().isReadThreadSafe()) {
+                return null;
+            }
+            base = factory.getBaseFactory();
+            assert base.supportsPageFrameCursor();
+            compiledFilter = filterFactory.getCompiledFilter();
+            bindVarMemory = filterFactory.getBindVarMemory();
+            bindVarFunctions = filterFactory.getBindVarFunctions();
+            filter = filterFactory.getFilter();
+            filterFactory.halfClose();
+        }
+
+        return new AsyncTopKRecordCursorFactory(
+                configuration,
+                executionContext.getMessageBus(),
+                orderedMetadata,
+                base,
+                reduceTaskFactory,
+                listColumnFilterA.copy(),
+                loFunc,
+                hiFunc,
+                compiledFilter,
+                bindVarMemory,
+                bindVarFunctions,
+                filter,
+                executionContext.getSharedWorkerCount()
+        );
+    }
+
     private RecordCursorFactory generateQuery(QueryModel model, SqlExecutionContext executionContext, boolean processJoins) throws SqlException {
         RecordCursorFactory factory = generateQuery0(model, executionContext, processJoins);
         if (model.getUnionModel() != null) {
@@ -2730,18 +3327,22 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
     private RecordCursorFactory generateQuery0(QueryModel model, SqlExecutionContext executionContext, boolean processJoins) throws SqlException {
         return generateLimit(
-                generateOrderBy(
-                        generateLatestBy(
-                                generateFilter(
-                                        generateSelect(
+                generateFill(
+                        generateOrderBy(
+                                generateLatestBy(
+                                        generateFilter(
+                                                generateSelect(
+                                                        model,
+                                                        executionContext,
+                                                        processJoins
+                                                ),
                                                 model,
-                                                executionContext,
-                                                processJoins
+                                                executionContext
                                         ),
-                                        model,
-                                        executionContext
+                                        model
                                 ),
-                                model
+                                model,
+                                executionContext
                         ),
                         model,
                         executionContext
@@ -3439,6 +4040,16 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             return generateSampleBy(model, executionContext, sampleByNode, model.getSampleByUnit());
         }
 
+        final QueryModel windowJoinModel = getWindowJoinModel(model.getNestedModel());
+        if (windowJoinModel != null) {
+            return generateWindowJoin(
+                    model,
+                    windowJoinModel != model.getNestedModel() ? model.getNestedModel() : null,
+                    windowJoinModel,
+                    executionContext
+            );
+        }
+
         RecordCursorFactory factory = null;
         try {
             ObjList<QueryColumn> columns;
@@ -4001,7 +4612,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 if (qc.isWindowColumn()) {
                     final WindowColumn ac = (WindowColumn) qc;
                     final ExpressionNode ast = qc.getAst();
-                    if (ast.paramCount > 1) {
+                    if (ast.paramCount > MAX_WINDOW_FUNCTION_ARGS) {
                         throw SqlException.$(ast.position, "too many arguments");
                     }
 
@@ -4231,110 +4842,9 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 final QueryColumn qc = columns.getQuick(i);
                 if (qc.isWindowColumn()) {
                     final WindowColumn ac = (WindowColumn) qc;
-                    final ExpressionNode ast = qc.getAst();
-                    if (ast.paramCount > 1) {
-                        throw SqlException.$(ast.position, "too many arguments");
-                    }
-
-                    partitionByFunctions = null;
-                    int psz = ac.getPartitionBy().size();
-                    if (psz > 0) {
-                        partitionByFunctions = new ObjList<>(psz);
-                        for (int j = 0; j < psz; j++) {
-                            final Function function = functionParser.parseFunction(ac.getPartitionBy().getQuick(j), chainMetadata, executionContext);
-                            partitionByFunctions.add(function);
-                            if (function instanceof GroupByFunction) {
-                                throw SqlException.$(ast.position, "aggregate functions in partition by are not supported");
-                            }
-                        }
-                    }
-
-                    final VirtualRecord partitionByRecord;
-                    final RecordSink partitionBySink;
-
-                    if (partitionByFunctions != null) {
-                        partitionByRecord = new VirtualRecord(partitionByFunctions);
-                        keyTypes.clear();
-                        final int partitionByCount = partitionByFunctions.size();
-
-                        for (int j = 0; j < partitionByCount; j++) {
-                            keyTypes.add(partitionByFunctions.getQuick(j).getType());
-                        }
-                        entityColumnFilter.of(partitionByCount);
-                        // create sink
-                        partitionBySink = RecordSinkFactory.getInstance(
-                                asm,
-                                keyTypes,
-                                entityColumnFilter,
-                                false
-                        );
-                    } else {
-                        partitionByRecord = null;
-                        partitionBySink = null;
-                    }
-
                     final int osz = ac.getOrderBy().size();
-
-                    // analyze order by clause on the current model and optimise out
-                    // order by on window function if it matches the one on the model
-                    final LowerCaseCharSequenceIntHashMap orderHash = model.getOrderHash();
-                    boolean dismissOrder = false;
-                    int timestampIdx = base.getMetadata().getTimestampIndex();
-                    int orderByPos = osz > 0 ? ac.getOrderBy().getQuick(0).position : -1;
-
-                    if (base.followedOrderByAdvice() && osz > 0 && orderHash.size() > 0) {
-                        dismissOrder = true;
-                        for (int j = 0; j < osz; j++) {
-                            ExpressionNode node = ac.getOrderBy().getQuick(j);
-                            int direction = ac.getOrderByDirection().getQuick(j);
-                            if (!Chars.equalsIgnoreCase(node.token, orderHash.keys().get(j))
-                                    || orderHash.get(node.token) != direction) {
-                                dismissOrder = false;
-                                break;
-                            }
-                        }
-                    }
-                    if (osz == 1 && timestampIdx != -1 && orderHash.size() < 2) {
-                        ExpressionNode orderByNode = ac.getOrderBy().getQuick(0);
-                        int orderByDirection = ac.getOrderByDirection().getQuick(0);
-
-                        if (baseMetadata.getColumnIndexQuiet(orderByNode.token) == timestampIdx
-                                && ((orderByDirection == ORDER_ASC && base.getScanDirection() == RecordCursorFactory.SCAN_DIRECTION_FORWARD)
-                                || (orderByDirection == ORDER_DESC && base.getScanDirection() == RecordCursorFactory.SCAN_DIRECTION_BACKWARD))) {
-                            dismissOrder = true;
-                        }
-                    }
-
-                    executionContext.configureWindowContext(
-                            partitionByRecord,
-                            partitionBySink,
-                            keyTypes,
-                            osz > 0,
-                            dismissOrder ? base.getScanDirection() : RecordCursorFactory.SCAN_DIRECTION_OTHER,
-                            orderByPos,
-                            base.recordCursorSupportsRandomAccess(),
-                            ac.getFramingMode(),
-                            ac.getRowsLo(),
-                            ac.getRowsLoKindPos(),
-                            ac.getRowsHi(),
-                            ac.getRowsHiKindPos(),
-                            ac.getExclusionKind(),
-                            ac.getExclusionKindPos(),
-                            chainMetadata.getTimestampIndex()
-                    );
-                    final Function f;
-                    try {
-                        // function needs to resolve args against chain metadata
-                        f = functionParser.parseFunction(ast, chainMetadata, executionContext);
-                        if (!(f instanceof WindowFunction)) {
-                            Misc.free(f);
-                            throw SqlException.$(ast.position, "non-window function called in window context");
-                        }
-                    } finally {
-                        executionContext.clearWindowContext();
-                    }
-
-                    WindowFunction windowFunction = (WindowFunction) f;
+                    final boolean dismissOrder = isWindowOrderDismissed(model, base, ac);
+                    final WindowFunction windowFunction = compileWindowFunction(base, ac, chainMetadata, dismissOrder, executionContext);
 
                     if (osz > 0 && !dismissOrder) {
                         IntList order = toOrderIndices(chainMetadata, ac.getOrderBy(), ac.getOrderByDirection());
@@ -4393,6 +4903,23 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     listColumnFilterB
             );
 
+            if (isWindowParallelizable(columns, chainMetadata, keys, executionContext)) {
+                return generateAsyncWindow(
+                        model,
+                        base,
+                        recordSink,
+                        factoryMetadata,
+                        chainTypes,
+                        chainMetadata,
+                        windowComparators,
+                        functionGroups,
+                        naturalOrderFunctions,
+                        columnIndexes,
+                        keys,
+                        executionContext
+                );
+            }
+
             return new CachedWindowRecordCursorFactory(
                     configuration,
                     base,
@@ -4772,7 +5299,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 return new EmptyTableRecordCursorFactory(myMeta);
             }
 
-            DataFrameCursorFactory dfcFactory;
+            AbstractDataFrameCursorFactory dfcFactory;
 
             if (latestByColumnCount > 0) {
                 Function filter = compileFilter(intrinsicModel, myMeta, executionContext);
@@ -4836,6 +5363,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 }
                 intervalHitsOnlyOnePartition = reader.getPartitionedBy() == PartitionBy.NONE;
             }
+            dfcFactory.setPartitionPruner(createPartitionPruner(intrinsicModel.filter, metadata, reader.getPartitionedBy()));
 
             if (intrinsicModel.keyColumn != null) {
                 // existence of column would have been already validated
@@ -5156,6 +5684,19 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         // listColumnFilterA = latest by column indexes
         if (latestByColumnCount == 1) {
             int latestByColumnIndex = listColumnFilterA.getColumnIndexFactored(0);
+            if (prefixes.size() == 0
+                    && ColumnType.isSymbol(myMeta.getColumnType(latestByColumnIndex))
+                    && myMeta.isSymbolTableStatic(latestByColumnIndex)
+                    && configuration.isSqlLatestByCacheEnabled()) {
+                return new LatestByAllCachedRecordCursorFactory(
+                        myMeta,
+                        configuration,
+                        new FullBwdDataFrameCursorFactory(tableToken, model.getMetadataVersion(), dfcFactoryMeta),
+                        latestByColumnIndex,
+                        columnIndexes
+                );
+            }
+
             if (myMeta.isColumnIndexed(latestByColumnIndex)) {
                 return new LatestByAllIndexedRecordCursorFactory(
                         myMeta,
@@ -5284,6 +5825,182 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return unionFactory;
     }
 
+    private RecordCursorFactory generateWindowJoin(
+            QueryModel model,
+            @Nullable QueryModel chooseModel,
+            QueryModel joinModel,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final QueryModel slaveModel = joinModel.getJoinModels().getQuick(1);
+        final int joinPosition = slaveModel.getJoinKeywordPosition();
+        if (slaveModel.getPostJoinWhereClause() != null) {
+            throw SqlException.$(slaveModel.getPostJoinWhereClause().position, "WINDOW JOIN does not support filters on the right-hand table, use a sub-query instead");
+        }
+        validateOuterJoinExpressions(slaveModel, "WINDOW");
+
+        RecordCursorFactory master = null;
+        RecordCursorFactory slave = null;
+        JoinRecordMetadata joinMetadata = null;
+        final ObjList<Function> functions = new ObjList<>();
+        try {
+            executionContext.pushTimestampRequiredFlag(true);
+            try {
+                master = generateQuery(joinModel, executionContext, false);
+                slave = generateQuery(slaveModel, executionContext, true);
+            } finally {
+                executionContext.popTimestampRequiredFlag();
+            }
+
+            final RecordMetadata masterMetadata = master.getMetadata();
+            final RecordMetadata slaveMetadata = slave.getMetadata();
+            validateBothTimestamps(slaveModel, masterMetadata, slaveMetadata);
+            validateBothTimestampOrders(master, slave, joinPosition);
+            if (!slave.supportsTimeFrameCursor()) {
+                throw SqlException.$(joinPosition, "right side of WINDOW JOIN must be a table with designated timestamp");
+            }
+
+            ArrayColumnTypes joinKeyTypes = null;
+            RecordSink masterKeySink = null;
+            RecordSink slaveKeySink = null;
+            if (slaveModel.getContext() != null) {
+                processJoinContext(true, slaveModel.getContext(), masterMetadata, slaveMetadata);
+                if (isKeyedTemporalJoin(masterMetadata, slaveMetadata)) {
+                    joinKeyTypes = new ArrayColumnTypes().addAll(keyTypes);
+                    masterKeySink = RecordSinkFactory.getInstance(asm, masterMetadata, listColumnFilterB, true, writeStringAsVarcharB);
+                    slaveKeySink = RecordSinkFactory.getInstance(asm, slaveMetadata, listColumnFilterA, true, writeStringAsVarcharA);
+                }
+            }
+
+            // aggregates are computed over the columns selected from the join
+            final int columnSplit = masterMetadata.getColumnCount();
+            joinMetadata = createJoinMetadata(joinModel.getName(), masterMetadata, slaveModel.getName(), slaveMetadata);
+            final GenericRecordMetadata chooseMetadata = new GenericRecordMetadata();
+            final IntList chooseCrossIndex = new IntList();
+            if (chooseModel != null) {
+                final ObjList<QueryColumn> chooseColumns = chooseModel.getColumns();
+                for (int i = 0, n = chooseColumns.size(); i < n; i++) {
+                    final QueryColumn column = chooseColumns.getQuick(i);
+                    final int index = joinMetadata.getColumnIndexQuiet(column.getAst().token);
+                    if (index < 0) {
+                        throw SqlException.invalidColumn(column.getAst().position, column.getAst().token);
+                    }
+                    chooseCrossIndex.add(index);
+                    chooseMetadata.add(
+                            new TableColumnMetadata(
+                                    Chars.toString(column.getName()),
+                                    joinMetadata.getColumnType(index),
+                                    false,
+                                    0,
+                                    joinMetadata.isSymbolTableStatic(index),
+                                    joinMetadata.getMetadata(index)
+                            )
+                    );
+                    if (index == masterMetadata.getTimestampIndex()) {
+                        chooseMetadata.setTimestampIndex(i);
+                    }
+                }
+            } else {
+                for (int i = 0, n = joinMetadata.getColumnCount(); i < n; i++) {
+                    chooseCrossIndex.add(i);
+                    chooseMetadata.add(joinMetadata.getColumnMetadata(i));
+                }
+                chooseMetadata.setTimestampIndex(masterMetadata.getTimestampIndex());
+            }
+
+            // non-aggregate columns are evaluated against the master row, so they
+            // must not reference slave columns
+            final ObjList<QueryColumn> columns = model.getColumns();
+            boolean isWindowReusable = joinKeyTypes == null;
+            valueTypes.clear();
+            for (int i = 0, n = columns.size(); i < n; i++) {
+                final ExpressionNode node = columns.getQuick(i).getAst();
+                final Function function = functionParser.parseFunction(node, chooseMetadata, executionContext);
+                functions.add(function);
+                if (function instanceof GroupByFunction) {
+                    ((GroupByFunction) function).initValueTypes(valueTypes);
+                    isWindowReusable &= !referencesJoinColumns(node, chooseMetadata, chooseCrossIndex, 0, columnSplit);
+                } else if (referencesJoinColumns(node, chooseMetadata, chooseCrossIndex, columnSplit, Integer.MAX_VALUE)) {
+                    int position = node.position;
+                    if (chooseModel != null && node.type == LITERAL) {
+                        // literals are rewritten by the optimiser, report the original column position
+                        position = chooseModel.getColumns().getQuick(chooseMetadata.getColumnIndex(node.token)).getAst().position;
+                    }
+                    throw SqlException.$(position, "WINDOW JOIN columns must either be aggregates or reference the left-hand table only");
+                }
+            }
+
+            final ObjList<Function> keyFunctions = new ObjList<>();
+            final ObjList<GroupByFunction> groupByFunctions = new ObjList<>();
+            int keyCount = 0;
+            for (int i = 0, n = functions.size(); i < n; i++) {
+                if (!(functions.getQuick(i) instanceof GroupByFunction)) {
+                    keyCount++;
+                }
+            }
+            final IntList outputCrossIndex = new IntList(columns.size());
+            final GenericRecordMetadata metadata = new GenericRecordMetadata();
+            for (int i = 0, n = columns.size(); i < n; i++) {
+                final Function function = functions.getQuick(i);
+                final ExpressionNode node = columns.getQuick(i).getAst();
+                if (function instanceof GroupByFunction) {
+                    outputCrossIndex.add(keyCount + groupByFunctions.size());
+                    groupByFunctions.add((GroupByFunction) function);
+                } else {
+                    outputCrossIndex.add(keyFunctions.size());
+                    keyFunctions.add(function);
+                    if (
+                            node.type == LITERAL
+                                    && chooseMetadata.getTimestampIndex() != -1
+                                    && chooseMetadata.getColumnIndexQuiet(node.token) == chooseMetadata.getTimestampIndex()
+                    ) {
+                        metadata.setTimestampIndex(i);
+                    }
+                }
+                final int type = function.getType();
+                metadata.add(
+                        new TableColumnMetadata(
+                                Chars.toString(columns.getQuick(i).getName()),
+                                type,
+                                false,
+                                0,
+                                ColumnType.isSymbol(type) && ((SymbolFunction) function).isSymbolTableStatic(),
+                                function.getMetadata()
+                        )
+                );
+            }
+
+            final RecordCursorFactory factory = new WindowJoinRecordCursorFactory(
+                    asm,
+                    configuration,
+                    metadata,
+                    master,
+                    slave,
+                    joinKeyTypes != null ? slaveModel.getContext() : null,
+                    columnSplit,
+                    chooseMetadata,
+                    chooseCrossIndex,
+                    keyFunctions,
+                    groupByFunctions,
+                    outputCrossIndex,
+                    valueTypes,
+                    joinKeyTypes,
+                    masterKeySink,
+                    slaveKeySink,
+                    slaveModel.getWindowJoinLo(),
+                    slaveModel.getWindowJoinHi(),
+                    isWindowReusable
+            );
+            Misc.free(joinMetadata);
+            return factory;
+        } catch (Throwable e) {
+            Misc.freeObjList(functions);
+            Misc.free(joinMetadata);
+            Misc.free(master);
+            Misc.free(slave);
+            throw e;
+        }
+    }
+
     @Nullable
     private Function getHiFunction(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         return toLimitFunction(executionContext, model.getLimitHi(), null);
@@ -5350,6 +6067,10 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         }
     }
 
+    private boolean isHashJoinSpillEnabled() {
+        return configuration.getSqlHashJoinSpillThreshold() > 0 && configuration.getSqlSpillRoot() != null;
+    }
+
     private boolean isKeyedTemporalJoin(RecordMetadata masterMetadata, RecordMetadata slaveMetadata) {
         // Check if we can simplify ASOF JOIN ON (ts) to ASOF JOIN.
         if (listColumnFilterA.size() == 1 && listColumnFilterB.size() == 1) {
@@ -5370,6 +6091,114 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 getOrderByDirectionOrDefault(model, 0) == ORDER_DIRECTION_DESCENDING;
     }
 
+    private boolean isSortSpillEnabled() {
+        return configuration.getSqlSortSpillMemoryBudget() > 0 && configuration.getSqlSpillRoot() != null;
+    }
+
+    // Checks if the hash join is on a single symbol-to-symbol key, so that the hash table
+    // may be keyed by master symbol keys. Master symbol table has to support key lookups.
+    private boolean isSymbolKeyHashJoin(RecordCursorFactory master, RecordCursorFactory slave) {
+        if (!configuration.isSqlHashJoinSymbolKeysEnabled() || listColumnFilterA.getColumnCount() != 1 || !master.supportsPageFrameCursor()) {
+            return false;
+        }
+        final int masterKeyIndex = listColumnFilterB.getColumnIndexFactored(0);
+        final int slaveKeyIndex = listColumnFilterA.getColumnIndexFactored(0);
+        return ColumnType.isSymbol(master.getMetadata().getColumnType(masterKeyIndex))
+                && master.getMetadata().isSymbolTableStatic(masterKeyIndex)
+                && ColumnType.isSymbol(slave.getMetadata().getColumnType(slaveKeyIndex));
+    }
+
+    private boolean isWindowOrderDismissed(QueryModel model, RecordCursorFactory base, WindowColumn ac) {
+        // analyze order by clause on the current model and optimise out
+        // order by on window function if it matches the one on the model
+        final int osz = ac.getOrderBy().size();
+        final LowerCaseCharSequenceIntHashMap orderHash = model.getOrderHash();
+        final RecordMetadata baseMetadata = base.getMetadata();
+        final int timestampIdx = baseMetadata.getTimestampIndex();
+
+        if (base.followedOrderByAdvice() && osz > 0 && orderHash.size() > 0) {
+            boolean dismissOrder = true;
+            for (int j = 0; j < osz; j++) {
+                ExpressionNode node = ac.getOrderBy().getQuick(j);
+                int direction = ac.getOrderByDirection().getQuick(j);
+                if (!Chars.equalsIgnoreCase(node.token, orderHash.keys().get(j))
+                        || orderHash.get(node.token) != direction) {
+                    dismissOrder = false;
+                    break;
+                }
+            }
+            if (dismissOrder) {
+                return true;
+            }
+        }
+        if (osz == 1 && timestampIdx != -1 && orderHash.size() < 2) {
+            ExpressionNode orderByNode = ac.getOrderBy().getQuick(0);
+            int orderByDirection = ac.getOrderByDirection().getQuick(0);
+
+            return baseMetadata.getColumnIndexQuiet(orderByNode.token) == timestampIdx
+                    && ((orderByDirection == ORDER_ASC && base.getScanDirection() == RecordCursorFactory.SCAN_DIRECTION_FORWARD)
+                    || (orderByDirection == ORDER_DESC && base.getScanDirection() == RecordCursorFactory.SCAN_DIRECTION_BACKWARD));
+        }
+        return false;
+    }
+
+    /**
+     * Window functions that share a PARTITION BY clause made of plain columns may be evaluated in
+     * parallel, each shard of partitions on its own. Order by symbols is excluded since comparing
+     * symbols resolves them through the symbol tables, which are not safe for concurrent use.
+     */
+    private boolean isWindowParallelizable(
+            ObjList<QueryColumn> columns,
+            RecordMetadata chainMetadata,
+            ObjList<IntList> orderKeys,
+            SqlExecutionContext executionContext
+    ) {
+        if (!configuration.isSqlParallelWindowEnabled() || executionContext.getSharedWorkerCount() < 1) {
+            return false;
+        }
+
+        ObjList<ExpressionNode> partitionBy = null;
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final QueryColumn qc = columns.getQuick(i);
+            if (!qc.isWindowColumn()) {
+                continue;
+            }
+            final ObjList<ExpressionNode> nodes = ((WindowColumn) qc).getPartitionBy();
+            if (nodes.size() == 0) {
+                return false;
+            }
+            if (partitionBy == null) {
+                for (int j = 0, m = nodes.size(); j < m; j++) {
+                    if (nodes.getQuick(j).type != LITERAL) {
+                        return false;
+                    }
+                }
+                partitionBy = nodes;
+            } else {
+                if (partitionBy.size() != nodes.size()) {
+                    return false;
+                }
+                for (int j = 0, m = nodes.size(); j < m; j++) {
+                    if (!Chars.equalsIgnoreCase(partitionBy.getQuick(j).token, nodes.getQuick(j).token)) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        for (int i = 0, n = orderKeys.size(); i < n; i++) {
+            final IntList keys = orderKeys.getQuick(i);
+            for (int j = 0, m = keys.size(); j < m; j++) {
+                final int key = keys.getQuick(j);
+                final int columnIndex = (key > 0 ? key : -key) - 1;
+                if (ColumnType.isSymbol(chainMetadata.getColumnType(columnIndex))) {
+                    return false;
+                }
+            }
+        }
+        return partitionBy != null;
+    }
+
     private void lookupColumnIndexes(
             ListColumnFilter filter,
             ObjList<ExpressionNode> columnNames,
@@ -5531,6 +6360,37 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         }
     }
 
+    // Checks if the expression references any column that maps to the [lo, hi) range of join columns.
+    private boolean referencesJoinColumns(ExpressionNode node, RecordMetadata metadata, IntList crossIndex, int lo, int hi) {
+        sqlNodeStack.clear();
+        while (node != null) {
+            if (node.type == LITERAL) {
+                final int index = metadata.getColumnIndexQuiet(node.token);
+                if (index > -1) {
+                    final int joinIndex = crossIndex.getQuick(index);
+                    if (joinIndex >= lo && joinIndex < hi) {
+                        return true;
+                    }
+                }
+            }
+
+            if (node.paramCount < 3) {
+                if (node.lhs != null) {
+                    sqlNodeStack.push(node.lhs);
+                }
+                if (node.rhs != null) {
+                    sqlNodeStack.push(node.rhs);
+                }
+            } else {
+                for (int i = 0, n = node.paramCount; i < n; i++) {
+                    sqlNodeStack.push(node.args.getQuick(i));
+                }
+            }
+            node = sqlNodeStack.poll();
+        }
+        return false;
+    }
+
     private void restoreWhereClause(ExpressionNode node) {
         processNodeQueryModels(node, RESTORE_WHERE_CLAUSE);
     }
@@ -5755,6 +6615,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         joinsRequiringTimestamp[JOIN_SPLICE] = true;
         joinsRequiringTimestamp[JOIN_LT] = true;
         joinsRequiringTimestamp[JOIN_ONE] = false;
+        joinsRequiringTimestamp[JOIN_WINDOW] = true;
     }
 
     static {
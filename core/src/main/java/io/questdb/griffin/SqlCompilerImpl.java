@@ -29,6 +29,7 @@ import io.questdb.PropServerConfiguration;
 import io.questdb.TelemetryOrigin;
 import io.questdb.TelemetrySystemEvent;
 import io.questdb.cairo.*;
+import io.questdb.cairo.mv.MatViewDefinition;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.vm.Vm;
@@ -36,6 +37,7 @@ import io.questdb.cairo.vm.api.MemoryMARW;
 import io.questdb.cairo.wal.WalUtils;
 import io.questdb.cairo.wal.WalWriterMetadata;
 import io.questdb.griffin.engine.QueryProgress;
+import io.questdb.griffin.engine.groupby.TimestampSamplerFactory;
 import io.questdb.griffin.engine.ops.*;
 import io.questdb.griffin.model.*;
 import io.questdb.log.Log;
@@ -548,7 +550,7 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         final SecurityContext securityContext = executionContext.getSecurityContext();
 
         try (TableRecordMetadata tableMetadata = executionContext.getMetadataForWrite(tableToken)) {
-            final String expectedTokenDescription = "'add', 'alter', 'attach', 'detach', 'drop', 'resume', 'rename', 'set' or 'squash'";
+            final String expectedTokenDescription = "'add', 'alter', 'attach', 'convert', 'detach', 'drop', 'resume', 'rename', 'set' or 'squash'";
             tok = expectToken(lexer, expectedTokenDescription);
 
             if (SqlKeywords.isAddKeyword(tok)) {
@@ -560,7 +562,7 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                     alterTableDropColumn(executionContext.getSecurityContext(), tableNamePosition, tableToken, tableMetadata);
                 } else if (SqlKeywords.isPartitionKeyword(tok)) {
                     securityContext.authorizeAlterTableDropPartition(tableToken);
-                    alterTableDropDetachOrAttachPartition(tableMetadata, tableToken, PartitionAction.DROP, executionContext);
+                    alterTableDropDetachOrAttachPartition(tableMetadata, tableToken, PartitionAction.DROP, null, executionContext);
                 } else {
                     throw SqlException.$(lexer.lastTokenPosition(), "'column' or 'partition' expected");
                 }
@@ -575,7 +577,29 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                 tok = expectToken(lexer, "'partition'");
                 if (SqlKeywords.isPartitionKeyword(tok)) {
                     securityContext.authorizeAlterTableAttachPartition(tableToken);
-                    alterTableDropDetachOrAttachPartition(tableMetadata, tableToken, PartitionAction.ATTACH, executionContext);
+                    alterTableDropDetachOrAttachPartition(tableMetadata, tableToken, PartitionAction.ATTACH, null, executionContext);
+                } else {
+                    throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
+                }
+            } else if (SqlKeywords.isConvertKeyword(tok)) {
+                tok = expectToken(lexer, "'partition'");
+                if (SqlKeywords.isPartitionKeyword(tok)) {
+                    expectKeyword(lexer, "to");
+                    tok = expectToken(lexer, "'compressed', 'parquet' or 'volume'");
+                    final int partitionAction;
+                    String volumeAlias = null;
+                    if (SqlKeywords.isCompressedKeyword(tok)) {
+                        partitionAction = PartitionAction.COMPRESS;
+                    } else if (SqlKeywords.isParquetKeyword(tok)) {
+                        partitionAction = PartitionAction.PARQUET;
+                    } else if (SqlKeywords.isVolumeKeyword(tok)) {
+                        partitionAction = PartitionAction.VOLUME;
+                        volumeAlias = expectVolumeAlias();
+                    } else {
+                        throw SqlException.$(lexer.lastTokenPosition(), "'compressed', 'parquet' or 'volume' expected");
+                    }
+                    securityContext.authorizeAlterTableConvertPartition(tableToken);
+                    alterTableDropDetachOrAttachPartition(tableMetadata, tableToken, partitionAction, volumeAlias, executionContext);
                 } else {
                     throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
                 }
@@ -583,7 +607,7 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                 tok = expectToken(lexer, "'partition'");
                 if (SqlKeywords.isPartitionKeyword(tok)) {
                     securityContext.authorizeAlterTableDetachPartition(tableToken);
-                    alterTableDropDetachOrAttachPartition(tableMetadata, tableToken, PartitionAction.DETACH, executionContext);
+                    alterTableDropDetachOrAttachPartition(tableMetadata, tableToken, PartitionAction.DETACH, null, executionContext);
                 } else {
                     throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
                 }
@@ -856,16 +880,16 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         int existingColumnType = tableMetadata.getColumnType(columnIndex);
         int newColumnType = addColumnWithType(changeColumn, columnName, columnNamePosition);
         if (tableMetadata.isWalEnabled()
-                && ColumnType.isVarSize(newColumnType)
-                && !ColumnType.isVarSize(existingColumnType)
+                && !ColumnType.isDedupKeySupported(newColumnType)
+                && ColumnType.isDedupKeySupported(existingColumnType)
         ) {
-            // This may remove deduplication from the column since var len columns don't support deduplication.
+            // This may remove deduplication from the column since not all var size types support deduplication.
             // Check for it.
             try (TableReader reader = executionContext.getReader(tableToken)) {
                 if (reader.getMetadata().isDedupKey(columnIndex)) {
                     throw SqlException.$(lexer.lastTokenPosition(), "cannot change type of deduplicated key column '").put(columnName)
-                            .put("' to variable size type '").put(ColumnType.nameOf(newColumnType))
-                            .put("', deduplication is only supported for fixed size types");
+                            .put("' to type '").put(ColumnType.nameOf(newColumnType))
+                            .put("', deduplication is only supported for fixed size, STRING and VARCHAR types");
                 }
             }
         }
@@ -1022,8 +1046,8 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                     tsIncludedInDedupColumns = true;
                 } else {
                     int columnType = tableMetadata.getColumnType(colIndex);
-                    if (ColumnType.isVarSize(columnType) || columnType < 0) {
-                        throw SqlException.position(lexer.lastTokenPosition()).put("deduplicate key column can only be fixed size column [column=").put(columnName)
+                    if (!ColumnType.isDedupKeySupported(columnType) || columnType < 0) {
+                        throw SqlException.position(lexer.lastTokenPosition()).put("deduplicate key column type is not supported [column=").put(columnName)
                                 .put(", type=").put(ColumnType.nameOf(columnType)).put(']');
                     }
                 }
@@ -1093,6 +1117,7 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
             TableRecordMetadata tableMetadata,
             TableToken tableToken,
             int action,
+            @Nullable CharSequence volumeAlias,
             SqlExecutionContext executionContext
     ) throws SqlException {
         final int pos = lexer.lastTokenPosition();
@@ -1108,7 +1133,7 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
 
             final CharSequence tok = expectToken(lexer, "'list' or 'where'");
             if (SqlKeywords.isListKeyword(tok)) {
-                alterTableDropDetachOrAttachPartitionByList(tableMetadata, tableToken, reader, pos, action);
+                alterTableDropDetachOrAttachPartitionByList(tableMetadata, tableToken, reader, pos, action, volumeAlias);
             } else if (SqlKeywords.isWhereKeyword(tok)) {
                 AlterOperationBuilder alterOperationBuilder;
                 switch (action) {
@@ -1118,8 +1143,17 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                     case PartitionAction.DETACH:
                         alterOperationBuilder = this.alterOperationBuilder.ofDetachPartition(pos, tableToken, tableMetadata.getTableId());
                         break;
+                    case PartitionAction.COMPRESS:
+                        alterOperationBuilder = this.alterOperationBuilder.ofCompressPartition(pos, tableToken, tableMetadata.getTableId());
+                        break;
+                    case PartitionAction.PARQUET:
+                        alterOperationBuilder = this.alterOperationBuilder.ofConvertPartitionToParquet(pos, tableToken, tableMetadata.getTableId());
+                        break;
+                    case PartitionAction.VOLUME:
+                        alterOperationBuilder = this.alterOperationBuilder.ofConvertPartitionToVolume(pos, tableToken, tableMetadata.getTableId(), volumeAlias);
+                        break;
                     default:
-                        throw SqlException.$(pos, "WHERE clause can only be used with command DROP PARTITION, or DETACH PARTITION");
+                        throw SqlException.$(pos, "WHERE clause can only be used with command DROP PARTITION, DETACH PARTITION or CONVERT PARTITION");
                 }
 
                 final int functionPosition = lexer.getPosition();
@@ -1166,7 +1200,8 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
             TableToken tableToken,
             @Nullable TableReader reader,
             int pos,
-            int action
+            int action,
+            @Nullable CharSequence volumeAlias
     ) throws SqlException {
         final AlterOperationBuilder alterOperationBuilder;
         switch (action) {
@@ -1180,6 +1215,15 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                 // attach
                 alterOperationBuilder = this.alterOperationBuilder.ofAttachPartition(pos, tableToken, tableMetadata.getTableId());
                 break;
+            case PartitionAction.COMPRESS:
+                alterOperationBuilder = this.alterOperationBuilder.ofCompressPartition(pos, tableToken, tableMetadata.getTableId());
+                break;
+            case PartitionAction.PARQUET:
+                alterOperationBuilder = this.alterOperationBuilder.ofConvertPartitionToParquet(pos, tableToken, tableMetadata.getTableId());
+                break;
+            case PartitionAction.VOLUME:
+                alterOperationBuilder = this.alterOperationBuilder.ofConvertPartitionToVolume(pos, tableToken, tableMetadata.getTableId(), volumeAlias);
+                break;
             default:
                 alterOperationBuilder = null;
                 assert false;
@@ -1325,6 +1369,24 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
                 throw SqlException.$(paramNamePosition, "o3MaxLag must be non negative");
             }
             compiledQuery.ofAlter(alterOperationBuilder.ofSetO3MaxLag(tableNamePosition, tableToken, tableId, o3MaxLag).build());
+        } else if (isTtlKeyword(paramName)) {
+            long ttl = SqlUtil.expectMicros(value, paramNamePosition);
+            if (ttl < 0) {
+                throw SqlException.$(paramNamePosition, "ttl must be non negative");
+            }
+            compiledQuery.ofAlter(alterOperationBuilder.ofSetTtl(tableNamePosition, tableToken, tableId, ttl).build());
+        } else if (isTieringAgeKeyword(paramName)) {
+            long tieringAge = SqlUtil.expectMicros(value, paramNamePosition);
+            if (tieringAge < 0) {
+                throw SqlException.$(paramNamePosition, "tieringAge must be non negative");
+            }
+            compiledQuery.ofAlter(alterOperationBuilder.ofSetTieringAge(tableNamePosition, tableToken, tableId, tieringAge).build());
+        } else if (isTieringVolumeKeyword(paramName)) {
+            final String volumeAlias = Chars.toString(GenericLexer.unquote(value));
+            if (configuration.getVolumeDefinitions().resolveAlias(volumeAlias) == null) {
+                throw SqlException.$(paramNamePosition, "volume alias is not allowed [alias=").put(volumeAlias).put(']');
+            }
+            compiledQuery.ofAlter(alterOperationBuilder.ofSetTieringVolume(tableNamePosition, tableToken, tableId, volumeAlias).build());
         } else {
             throw SqlException.$(paramNamePosition, "unknown parameter '").put(paramName).put('\'');
         }
@@ -1450,6 +1512,17 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         );
     }
 
+    private void compileCreate(SqlExecutionContext executionContext) throws SqlException {
+        final int createPosition = lexer.lastTokenPosition();
+        final CharSequence tok = SqlUtil.fetchNext(lexer);
+        if (tok != null && isMaterializedKeyword(tok)) {
+            createMatView(executionContext);
+        } else {
+            // not a materialized view, rewind the lexer and let the parser handle the statement
+            lexer.backTo(createPosition, null);
+        }
+    }
+
     private void compileDeallocate(SqlExecutionContext executionContext) throws SqlException {
         CharSequence statementName = GenericLexer.unquote(expectToken(lexer, "statement name"));
         CharSequence tok = SqlUtil.fetchNext(lexer);
@@ -1660,6 +1733,21 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         }
     }
 
+    private boolean containsGroupByFunction(ExpressionNode node) {
+        if (node == null) {
+            return false;
+        }
+        if (node.type == ExpressionNode.FUNCTION && functionParser.getFunctionFactoryCache().isGroupBy(node.token)) {
+            return true;
+        }
+        for (int i = 0, n = node.args.size(); i < n; i++) {
+            if (containsGroupByFunction(node.args.getQuick(i))) {
+                return true;
+            }
+        }
+        return containsGroupByFunction(node.lhs) || containsGroupByFunction(node.rhs);
+    }
+
     private void copy(SqlExecutionContext executionContext, CopyModel copyModel) throws SqlException {
         if (!copyModel.isCancel() && Chars.equalsLowerCaseAscii(copyModel.getFileName().token, "stdin")) {
             // no-op implementation
@@ -1955,6 +2043,211 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         return rowCount;
     }
 
+    private void createMatView(SqlExecutionContext executionContext) throws SqlException {
+        CharSequence tok = expectToken(lexer, "'view'");
+        if (!isViewKeyword(tok)) {
+            throw SqlException.$(lexer.lastTokenPosition(), "'view' expected");
+        }
+
+        tok = expectToken(lexer, "view name");
+        boolean ifNotExists = false;
+        if (isIfKeyword(tok)) {
+            tok = expectToken(lexer, "'not'");
+            if (!isNotKeyword(tok)) {
+                throw SqlException.$(lexer.lastTokenPosition(), "'not' expected");
+            }
+            tok = expectToken(lexer, "'exists'");
+            if (!isExistsKeyword(tok)) {
+                throw SqlException.$(lexer.lastTokenPosition(), "'exists' expected");
+            }
+            ifNotExists = true;
+            tok = expectToken(lexer, "view name");
+        }
+        final int viewNamePosition = lexer.lastTokenPosition();
+        SqlKeywords.assertTableNameIsQuotedOrNotAKeyword(tok, viewNamePosition);
+        final String viewName = Chars.toString(GenericLexer.assertNoDotsAndSlashes(GenericLexer.unquote(tok), viewNamePosition));
+
+        tok = expectToken(lexer, "'as'");
+        if (!isAsKeyword(tok)) {
+            throw SqlException.$(lexer.lastTokenPosition(), "'as' expected");
+        }
+        tok = expectToken(lexer, "'('");
+        if (!Chars.equals(tok, '(')) {
+            throw SqlException.$(lexer.lastTokenPosition(), "'(' expected");
+        }
+
+        // find the query text, it spans up to the matching closing brace
+        final int queryLo = lexer.getPosition();
+        int queryHi = -1;
+        int depth = 1;
+        while ((tok = SqlUtil.fetchNext(lexer)) != null) {
+            if (Chars.equals(tok, '(')) {
+                depth++;
+            } else if (Chars.equals(tok, ')') && --depth == 0) {
+                queryHi = lexer.lastTokenPosition();
+                break;
+            }
+        }
+        if (queryHi == -1) {
+            throw SqlException.$(lexer.getPosition(), "')' expected");
+        }
+
+        int partitionBy = -1;
+        tok = SqlUtil.fetchNext(lexer);
+        if (tok != null && isPartitionKeyword(tok)) {
+            tok = expectToken(lexer, "'by'");
+            if (!isByKeyword(tok)) {
+                throw SqlException.$(lexer.lastTokenPosition(), "'by' expected");
+            }
+            tok = expectToken(lexer, "partition unit");
+            partitionBy = PartitionBy.fromString(tok);
+            if (!PartitionBy.isPartitioned(partitionBy)) {
+                throw SqlException.$(lexer.lastTokenPosition(), "'HOUR', 'DAY', 'MONTH' or 'YEAR' expected");
+            }
+            tok = SqlUtil.fetchNext(lexer);
+        }
+        if (tok != null && !Chars.equals(tok, ';')) {
+            throw SqlException.$(lexer.lastTokenPosition(), "unexpected token [").put(tok).put(']');
+        }
+
+        TableToken viewToken = executionContext.getTableTokenIfExists(viewName);
+        if (viewToken != null) {
+            if (ifNotExists) {
+                compiledQuery.ofCreateTable(viewToken);
+                return;
+            }
+            throw SqlException.$(viewNamePosition, "table already exists");
+        }
+
+        // parse the query on its own to find out the base table and the key columns
+        final CharSequence sqlText = lexer.getContent();
+        lexer.of(sqlText, queryLo, queryHi);
+        final ExecutionModel executionModel = parser.parse(lexer, executionContext, this);
+        if (executionModel.getModelType() != ExecutionModel.QUERY) {
+            throw SqlException.$(queryLo, "SELECT query expected");
+        }
+        final QueryModel queryModel = (QueryModel) executionModel;
+        final QueryModel nestedModel = queryModel.getNestedModel();
+        if (
+                nestedModel == null
+                        || queryModel.getUnionModel() != null
+                        || queryModel.getWithClauses().size() > 0
+                        || nestedModel.getNestedModel() != null
+                        || nestedModel.getJoinModels().size() > 1
+                        || nestedModel.getTableNameExpr() == null
+                        || nestedModel.getTableNameExpr().type != ExpressionNode.LITERAL
+        ) {
+            throw SqlException.$(queryLo, "materialized view query must select from a single table");
+        }
+
+        final ExpressionNode sampleBy = nestedModel.getSampleBy();
+        if (sampleBy == null) {
+            throw SqlException.$(queryLo, "materialized view query requires SAMPLE BY");
+        }
+        if (nestedModel.getSampleByUnit() != null || nestedModel.getSampleByFill().size() > 0) {
+            throw SqlException.$(sampleBy.position, "FILL and SAMPLE BY bind variables are not supported in materialized views");
+        }
+        if (
+                nestedModel.getSampleByTimezoneName() != null
+                        || nestedModel.getSampleByOffset() == null
+                        || !isZeroOffset(nestedModel.getSampleByOffset().token)
+        ) {
+            throw SqlException.$(sampleBy.position, "materialized view requires SAMPLE BY aligned to calendar without time zone and offset");
+        }
+        // validates the interval
+        TimestampSamplerFactory.getInstance(sampleBy.token, sampleBy.position);
+        final int samplingUnitIndex = sampleBy.token.length() - 1;
+        final char samplingUnit = sampleBy.token.charAt(samplingUnitIndex);
+        if (!MatViewDefinition.isSupportedSamplingUnit(samplingUnit)) {
+            throw SqlException.$(sampleBy.position + samplingUnitIndex, "unsupported interval qualifier");
+        }
+        int samplingInterval = 1;
+        if (samplingUnitIndex > 0) {
+            try {
+                samplingInterval = Numbers.parseInt(sampleBy.token, 0, samplingUnitIndex);
+            } catch (NumericException e) {
+                throw SqlException.$(sampleBy.position, "invalid interval");
+            }
+        }
+
+        final ExpressionNode tableNameExpr = nestedModel.getTableNameExpr();
+        final TableToken baseTableToken = executionContext.getTableTokenIfExists(tableNameExpr.token);
+        if (baseTableToken == null) {
+            throw SqlException.tableDoesNotExist(tableNameExpr.position, tableNameExpr.token);
+        }
+        if (!baseTableToken.isWal()) {
+            throw SqlException.$(tableNameExpr.position, "materialized view base table must be a WAL table");
+        }
+        final String baseTableTimestamp;
+        try (TableReader reader = executionContext.getReader(baseTableToken)) {
+            final TableReaderMetadata baseMetadata = reader.getMetadata();
+            baseTableTimestamp = baseMetadata.getColumnName(baseMetadata.getTimestampIndex());
+            if (partitionBy == -1) {
+                partitionBy = baseMetadata.getPartitionBy();
+            }
+        }
+
+        // table name token boundaries within the query text, the refresh job replaces
+        // the table with a sub-query over the refreshed time range
+        final int baseTableLo = tableNameExpr.position;
+        int baseTableHi = baseTableLo + tableNameExpr.token.length();
+        final char quote = sqlText.charAt(baseTableLo);
+        if (quote == '"' || quote == '\'' || quote == '`') {
+            baseTableHi = Chars.indexOf(sqlText, baseTableLo + 1, queryHi, quote) + 1;
+        }
+
+        final ObjList<QueryColumn> columns = queryModel.getBottomUpColumns();
+        final String query = Chars.toString(sqlText, queryLo, queryHi);
+        try (SqlCompiler compiler = engine.getSqlCompiler()) {
+            final StringSink sink = new StringSink();
+            sink.put("create table \"").put(viewName).put("\" as (").put(query).put(") timestamp(\"");
+            try (RecordCursorFactory factory = compiler.compile(query, executionContext).getRecordCursorFactory()) {
+                final RecordMetadata metadata = factory.getMetadata();
+                final int timestampIndex = metadata.getTimestampIndex();
+                if (timestampIndex == -1) {
+                    throw SqlException.$(queryLo, "materialized view query must select the designated timestamp");
+                }
+                if (metadata.getColumnCount() != columns.size()) {
+                    throw SqlException.$(queryLo, "materialized view query must list its columns explicitly");
+                }
+                sink.put(metadata.getColumnName(timestampIndex)).put("\") partition by ").put(PartitionBy.toString(partitionBy));
+                sink.put(" wal dedup upsert keys(\"").put(metadata.getColumnName(timestampIndex)).put('"');
+                // the view is keyed by time bucket and all non-aggregate columns
+                for (int i = 0, n = columns.size(); i < n; i++) {
+                    final QueryColumn column = columns.getQuick(i);
+                    if (i == timestampIndex || containsGroupByFunction(column.getAst())) {
+                        continue;
+                    }
+                    final int columnType = metadata.getColumnType(i);
+                    if (!ColumnType.isDedupKeySupported(columnType)) {
+                        throw SqlException.$(column.getAst().position, "materialized view key column type is not supported [column=")
+                                .put(metadata.getColumnName(i)).put(", type=").put(ColumnType.nameOf(columnType)).put(']');
+                    }
+                    sink.put(", \"").put(metadata.getColumnName(i)).put('"');
+                }
+                sink.put(')');
+            }
+            final CompiledQuery createQuery = compiler.compile(sink, executionContext);
+            viewToken = createQuery.getTableToken();
+            final long rowCount = createQuery.getAffectedRowsCount();
+
+            final MatViewDefinition viewDefinition = new MatViewDefinition(
+                    viewToken,
+                    baseTableToken.getTableName(),
+                    baseTableTimestamp,
+                    query,
+                    baseTableLo - queryLo,
+                    baseTableHi - queryLo,
+                    nestedModel.getAlias() != null,
+                    samplingInterval,
+                    samplingUnit
+            );
+            viewDefinition.write(configuration, path);
+            engine.getMatViewGraph().addView(viewDefinition);
+            compiledQuery.ofCreateTableAsSelect(viewToken, rowCount);
+        }
+    }
+
     private void createTable(final ExecutionModel model, SqlExecutionContext executionContext) throws SqlException {
         final CreateTableModel createTableModel = (CreateTableModel) model;
         final ExpressionNode name = createTableModel.getName();
@@ -2152,6 +2445,15 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         throw SqlException.position(0).put("underlying cursor is extremely volatile");
     }
 
+    private String expectVolumeAlias() throws SqlException {
+        final CharSequence tok = expectToken(lexer, "volume alias");
+        final String volumeAlias = Chars.toString(GenericLexer.unquote(tok));
+        if (configuration.getVolumeDefinitions().resolveAlias(volumeAlias) == null) {
+            throw SqlException.$(lexer.lastTokenPosition(), "volume alias is not allowed [alias=").put(volumeAlias).put(']');
+        }
+        return volumeAlias;
+    }
+
     private int filterPartitions(
             Function function,
             int functionPosition,
@@ -3066,6 +3368,7 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         final KeywordBasedExecutor compileSet = this::compileSet;
         final KeywordBasedExecutor compileBegin = this::compileBegin;
         final KeywordBasedExecutor compileCommit = this::compileCommit;
+        final KeywordBasedExecutor compileCreate = this::compileCreate;
         final KeywordBasedExecutor compileRollback = this::compileRollback;
         final KeywordBasedExecutor truncateTables = this::truncateTables;
         final KeywordBasedExecutor alterTable = this::alterTable;
@@ -3094,6 +3397,7 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
         keywordBasedExecutors.put("snapshot", snapshotDatabase);
         keywordBasedExecutors.put("deallocate", compileDeallocate);
         keywordBasedExecutors.put("cancel", cancelQuery);
+        keywordBasedExecutors.put("create", compileCreate);
     }
 
     protected void unknownAlterStatement(SqlExecutionContext executionContext, CharSequence tok) throws SqlException {
@@ -3141,8 +3445,11 @@ public class SqlCompilerImpl implements SqlCompiler, Closeable, SqlParserCallbac
 
     public final static class PartitionAction {
         public static final int ATTACH = 2;
+        public static final int COMPRESS = 4;
         public static final int DETACH = 3;
         public static final int DROP = 1;
+        public static final int PARQUET = 5;
+        public static final int VOLUME = 6;
     }
 
     private static class TableStructureAdapter implements TableStructure {
@@ -68,7 +68,7 @@ public class SqlOptimiser implements Mutable {
     // list of join types that don't support all optimisations (e.g. pushing table-specific predicates to both left and right table)
     private static final IntHashSet joinBarriers;
     private static final CharSequenceIntHashMap joinOps = new CharSequenceIntHashMap();
-    private static final boolean[] joinsRequiringTimestamp = {false, false, false, false, true, true, true};
+    private static final boolean[] joinsRequiringTimestamp = {false, false, false, false, true, true, true, false, false, true};
     private static final IntHashSet limitTypes = new IntHashSet();
     private static final CharSequenceIntHashMap notOps = new CharSequenceIntHashMap();
     private static final CharSequenceHashSet nullConstants = new CharSequenceHashSet();
@@ -224,6 +224,10 @@ public class SqlOptimiser implements Mutable {
                 && Chars.equals(model.getOrderBy().getQuick(0).token, model.getTimestamp().token);
     }
 
+    private static boolean isStringConstant(ExpressionNode node) {
+        return node.type == CONSTANT && Chars.isQuoted(node.token);
+    }
+
     private static boolean isSymbolColumn(ExpressionNode countDistinctExpr, QueryModel nested) {
         return countDistinctExpr.rhs.type == LITERAL
                 && nested.getAliasToColumnMap().get(countDistinctExpr.rhs.token) != null
@@ -2299,6 +2303,7 @@ public class SqlOptimiser implements Mutable {
                 m.setJoinType(QueryModel.JOIN_CROSS_LEFT);
             } else if (m.getJoinType() != QueryModel.JOIN_ASOF &&
                     m.getJoinType() != QueryModel.JOIN_SPLICE &&
+                    m.getJoinType() != QueryModel.JOIN_WINDOW &&
                     (c == null || c.parents.size() == 0)
             ) {
                 m.setJoinType(QueryModel.JOIN_CROSS);
@@ -2333,6 +2338,57 @@ public class SqlOptimiser implements Mutable {
         return true;
     }
 
+    /**
+     * Checks if gaps of "sample by" can be filled on top of the parallel group-by result.
+     * This is the case when "sample by" is not keyed, the select clause consists of the
+     * designated timestamp and aggregate functions only, and the fill values can be
+     * matched with the aggregates.
+     */
+    private boolean isFillRewriteSupported(QueryModel model, QueryModel nested, CharSequence timestamp, ObjList<ExpressionNode> fill) {
+        if (model.isDistinct() || nested.getGroupBy().size() > 0 || nested.getOrderBy().size() > 0) {
+            return false;
+        }
+
+        boolean linear = false;
+        for (int i = 0, n = fill.size(); i < n; i++) {
+            final CharSequence token = fill.getQuick(i).token;
+            if (SqlKeywords.isNoneKeyword(token)) {
+                return false;
+            }
+            linear |= SqlKeywords.isLinearKeyword(token);
+        }
+
+        int timestampCount = 0;
+        int aggregateCount = 0;
+        final ObjList<QueryColumn> columns = model.getColumns();
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final ExpressionNode ast = columns.getQuick(i).getAst();
+            if (ast.type == LITERAL) {
+                final int dot = Chars.indexOf(ast.token, '.');
+                if (!Chars.equalsIgnoreCase(timestamp, ast.token, dot + 1, ast.token.length()) || ++timestampCount > 1) {
+                    // keyed sample by or multiple timestamp references
+                    return false;
+                }
+            } else if (ast.type == FUNCTION && functionParser.getFunctionFactoryCache().isGroupBy(ast.token)) {
+                // two-point interpolation of haversine distance is only supported by serial fill
+                if (linear && Chars.equalsLowerCaseAscii(ast.token, "haversine_dist_deg")) {
+                    return false;
+                }
+                aggregateCount++;
+            } else {
+                return false;
+            }
+        }
+
+        final int fillCount = fill.size();
+        if (fillCount == 1) {
+            final CharSequence token = fill.getQuick(0).token;
+            return aggregateCount == 1
+                    || (aggregateCount > 0 && (SqlKeywords.isNullKeyword(token) || SqlKeywords.isPrevKeyword(token) || SqlKeywords.isLinearKeyword(token)));
+        }
+        return fillCount == aggregateCount;
+    }
+
     private boolean isIntegerConstant(ExpressionNode n) {
         if (n.type != CONSTANT) {
             return false;
@@ -2724,6 +2780,35 @@ public class SqlOptimiser implements Mutable {
         return SqlUtil.nextColumn(queryColumnPool, expressionNodePool, alias, column);
     }
 
+    private ExpressionNode nextFunction(CharSequence token, ExpressionNode lhs, ExpressionNode rhs) {
+        final ExpressionNode node = expressionNodePool.next().of(FUNCTION, token, 0, 0);
+        node.paramCount = 2;
+        node.lhs = lhs;
+        node.rhs = rhs;
+        return node;
+    }
+
+    private ExpressionNode nextFunction(CharSequence token, ExpressionNode arg0, ExpressionNode arg1, ExpressionNode arg2) {
+        final ExpressionNode node = expressionNodePool.next().of(FUNCTION, token, 0, 0);
+        node.paramCount = 3;
+        // function arguments are stored in reverse order
+        node.args.add(arg2);
+        node.args.add(arg1);
+        node.args.add(arg0);
+        return node;
+    }
+
+    private ExpressionNode nextFunction(CharSequence token, ExpressionNode arg0, ExpressionNode arg1, ExpressionNode arg2, ExpressionNode arg3) {
+        final ExpressionNode node = expressionNodePool.next().of(FUNCTION, token, 0, 0);
+        node.paramCount = 4;
+        // function arguments are stored in reverse order
+        node.args.add(arg3);
+        node.args.add(arg2);
+        node.args.add(arg1);
+        node.args.add(arg0);
+        return node;
+    }
+
     private ExpressionNode nextLiteral(CharSequence token, int position) {
         return SqlUtil.nextLiteral(expressionNodePool, token, position);
     }
@@ -3068,8 +3153,11 @@ public class SqlOptimiser implements Mutable {
                 break;
             default:
                 // sub-query ordering is not needed, but we'd like to propagate order by advice (if possible)
-                model.getOrderBy().clear();
-                if (model.getSampleBy() != null) {
+                if (model.getFillStride() == null) {
+                    model.getOrderBy().clear();
+                }
+                // gap fill of rewritten sample by streams over the ordered group-by result
+                if (model.getSampleBy() != null || model.getFillStride() != null) {
                     orderByMnemonic = OrderByMnemonic.ORDER_BY_REQUIRED;
                 } else {
                     orderByMnemonic = OrderByMnemonic.ORDER_BY_INVARIANT;
@@ -4415,8 +4503,13 @@ public class SqlOptimiser implements Mutable {
     /**
      * Recursive. Replaces "sample by" models with group-by. Not all forms of "sample by"
      * can be implemented via this method. Therefore, the rewrite avoids the following:
-     * - fills
-     * - custom non-wall-clock alignments
+     * - keyed fills and fills mixed with non-aggregate expressions
+     * - alignment to the first observation
+     * <p>
+     * Calendar offset is folded into the bucket key, i.e. timestamp_floor(stride, ts, offset).
+     * Time zone, other than UTC, is folded into the key as timestamp_floor(stride, ts, offset, tz),
+     * which aligns buckets in local time. Such time zone and offset must be string literals. Non-keyed fills are recorded on the model and applied
+     * as a streaming stage on top of the ordered group-by output.
      *
      * @param model the input model, it is expected to be very early in optimisation process
      *              the typical sample by model consists of two objects, the outer one with the
@@ -4441,11 +4534,13 @@ public class SqlOptimiser implements Mutable {
             ExpressionNode sampleByUnit = nested.getSampleByUnit();
             ExpressionNode timestamp = nested.getTimestamp();
 
+            final boolean isFillNone = sampleByFill.size() == 0 || (sampleByFill.size() == 1 && SqlKeywords.isNoneKeyword(sampleByFill.getQuick(0).token));
             if (
                     sampleBy != null
                             && timestamp != null
-                            && (sampleByOffset != null && SqlKeywords.isZeroOffset(sampleByOffset.token) && (sampleByTimezoneName == null || SqlKeywords.isUTC(sampleByTimezoneName.token)))
-                            && (sampleByFill.size() == 0 || (sampleByFill.size() == 1 && SqlKeywords.isNoneKeyword(sampleByFill.getQuick(0).token)))
+                            && sampleByOffset != null
+                            && (sampleByTimezoneName == null || SqlKeywords.isUTC(sampleByTimezoneName.token) || isStringConstant(sampleByTimezoneName) && isStringConstant(sampleByOffset))
+                            && (isFillNone || isFillRewriteSupported(model, nested, timestamp.token, sampleByFill))
                             && sampleByUnit == null
             ) {
                 // Validate that the model does not have wildcard column names.
@@ -4581,27 +4676,31 @@ public class SqlOptimiser implements Mutable {
                 int timestampPos = model.getColumnAliasIndex(timestampAlias);
 
                 // create function ast
-                final ExpressionNode timestampFunc = expressionNodePool.next();
-                timestampFunc.token = "timestamp_floor";
-                timestampFunc.paramCount = 2;
-                timestampFunc.type = FUNCTION;
-
                 CharacterStoreEntry characterStoreEntry = characterStore.newEntry();
                 characterStoreEntry.put('\'').put(sampleBy.token).put('\'');
 
-                final ExpressionNode lhs = expressionNodePool.next();
-                lhs.token = characterStoreEntry.toImmutable();
-                lhs.paramCount = 0;
-                lhs.type = CONSTANT;
-
-                final ExpressionNode rhs = expressionNodePool.next();
-                rhs.token = timestampColumn;
-                rhs.position = timestamp.position;
-                rhs.paramCount = 0;
-                rhs.type = LITERAL;
-
-                timestampFunc.lhs = lhs;
-                timestampFunc.rhs = rhs;
+                final ExpressionNode stride = expressionNodePool.next();
+                stride.token = characterStoreEntry.toImmutable();
+                stride.paramCount = 0;
+                stride.type = CONSTANT;
+
+                final ExpressionNode timestampNode = expressionNodePool.next();
+                timestampNode.token = timestampColumn;
+                timestampNode.position = timestamp.position;
+                timestampNode.paramCount = 0;
+                timestampNode.type = LITERAL;
+
+                final ExpressionNode timestampFunc;
+                final ExpressionNode timezone = sampleByTimezoneName == null || SqlKeywords.isUTC(sampleByTimezoneName.token)
+                        ? null
+                        : sampleByTimezoneName;
+                if (timezone != null) {
+                    timestampFunc = nextFunction("timestamp_floor", stride, timestampNode, sampleByOffset, timezone);
+                } else if (SqlKeywords.isZeroOffset(sampleByOffset.token)) {
+                    timestampFunc = nextFunction("timestamp_floor", stride, timestampNode);
+                } else {
+                    timestampFunc = nextFunction("timestamp_floor", stride, timestampNode, sampleByOffset);
+                }
 
                 model.getBottomUpColumns().setQuick(
                         timestampPos,
@@ -4624,9 +4723,13 @@ public class SqlOptimiser implements Mutable {
                     nested.setTimestamp(nextLiteral(timestamp.token));
                 }
 
+                if (!isFillNone) {
+                    // gaps are filled on top of the ordered group-by result
+                    model.setFill(sampleBy, timezone, sampleByFill);
+                }
+
                 // clear sample by
-                nested.setSampleBy(null);
-                nested.setSampleByOffset(null);
+                nested.clearSampleBy();
 
                 if ((wrapAction & SAMPLE_BY_REWRITE_WRAP_ADD_TIMESTAMP_COPIES) != 0) {
                     model = wrapWithSelectModel(model, tempList, insetColumnAliases, timestampAlias);
@@ -5352,6 +5455,7 @@ public class SqlOptimiser implements Mutable {
         }
 
         if (model != root) {
+            root.moveFillFrom(model);
             root.setUnionModel(model.getUnionModel());
             root.setSetOperationType(model.getSetOperationType());
             root.setModelPosition(model.getModelPosition());
@@ -5966,6 +6070,7 @@ public class SqlOptimiser implements Mutable {
         joinBarriers.add(QueryModel.JOIN_ASOF);
         joinBarriers.add(QueryModel.JOIN_SPLICE);
         joinBarriers.add(QueryModel.JOIN_LT);
+        joinBarriers.add(QueryModel.JOIN_WINDOW);
 
         nullConstants.add("null");
         nullConstants.add("NaN");
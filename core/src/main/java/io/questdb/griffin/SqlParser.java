@@ -399,6 +399,21 @@ public class SqlParser {
         return false;
     }
 
+    // "window" is not a reserved word: it starts a window join only when "join" follows it,
+    // otherwise it is an alias; the lexer is left at the same token either way
+    private boolean isWindowJoin(GenericLexer lexer, CharSequence tok) throws SqlException {
+        if (!isWindowKeyword(tok) || lexer.hasUnparsed()) {
+            return false;
+        }
+        final int tokenLo = lexer.lastTokenPosition();
+        final int tokenHi = lexer.getTokenHi();
+        final int position = lexer.getPosition();
+        final CharSequence next = SqlUtil.fetchNext(lexer);
+        final boolean windowJoin = next != null && !isNotJoinKeyword(next);
+        lexer.backTo(tokenLo, tokenHi, position, tok);
+        return windowJoin;
+    }
+
     private ExpressionNode literal(GenericLexer lexer, CharSequence name) {
         return literal(name, lexer.lastTokenPosition());
     }
@@ -765,8 +780,8 @@ public class SqlParser {
                         timestampColumnFound = true;
                     } else {
                         int columnType = model.getColumnType(colIndex);
-                        if (ColumnType.isVarSize(columnType)) {
-                            throw SqlException.position(lexer.lastTokenPosition()).put("deduplicate key column can only be fixed size column [column=").put(columnName)
+                        if (!ColumnType.isDedupKeySupported(columnType)) {
+                            throw SqlException.position(lexer.lastTokenPosition()).put("deduplicate key column type is not supported [column=").put(columnName)
                                     .put(", type=").put(ColumnType.nameOf(columnType)).put(']');
                         }
                     }
@@ -1346,7 +1361,7 @@ public class SqlParser {
 
             // do not collapse aliased sub-queries or those that have timestamp()
             // select * from (table) x
-            if (tok == null || (tableAliasStop.contains(tok) && !SqlKeywords.isTimestampKeyword(tok))) {
+            if (tok == null || (tableAliasStop.contains(tok) && !SqlKeywords.isTimestampKeyword(tok)) || isWindowJoin(lexer, tok)) {
                 final QueryModel target = proposedNested.getNestedModel();
                 // when * is artificial, there is no union, there is no "where" clause inside sub-query,
                 // e.g. there was no "select * from" we should collapse sub-query to a regular table
@@ -1745,36 +1760,24 @@ public class SqlParser {
             case QueryModel.JOIN_INNER:
             case QueryModel.JOIN_OUTER:
                 expectTok(lexer, tok, "on");
-                try {
-                    expressionParser.parseExpr(lexer, expressionTreeBuilder, sqlParserCallback);
-                    ExpressionNode expr;
-                    switch (expressionTreeBuilder.size()) {
-                        case 0:
-                            throw SqlException.$(lexer.lastTokenPosition(), "Expression expected");
-                        case 1:
-                            expr = expressionTreeBuilder.poll();
-                            if (expr.type == ExpressionNode.LITERAL) {
-                                do {
-                                    joinModel.addJoinColumn(expr);
-                                } while ((expr = expressionTreeBuilder.poll()) != null);
-                            } else {
-                                joinModel.setJoinCriteria(rewriteKnownStatements(expr));
-                            }
-                            break;
-                        default:
-                            // this code handles "join on (a,b,c)", e.g. list of columns
-                            while ((expr = expressionTreeBuilder.poll()) != null) {
-                                if (expr.type != ExpressionNode.LITERAL) {
-                                    throw SqlException.$(lexer.lastTokenPosition(), "Column name expected");
-                                }
-                                joinModel.addJoinColumn(expr);
-                            }
-                            break;
-                    }
-                } catch (SqlException e) {
-                    expressionTreeBuilder.reset();
-                    throw e;
+                parseJoinCriteria(lexer, joinModel, sqlParserCallback);
+                break;
+            case QueryModel.JOIN_WINDOW:
+                if (tok != null && isOnKeyword(tok)) {
+                    parseJoinCriteria(lexer, joinModel, sqlParserCallback);
+                    tok = optTok(lexer);
+                } else if (
+                        tok != null
+                                && isBetweenKeyword(tok)
+                                && joinModel.getAlias() != null
+                                && isRangeKeyword(joinModel.getAlias().token)
+                ) {
+                    // "range" is not reserved, so without ON and an alias it is parsed as the alias
+                    joinModel.setAlias(null);
+                    lexer.unparseLast();
+                    tok = "range";
                 }
+                parseWindowJoinRange(lexer, joinModel, tok);
                 break;
             default:
                 lexer.unparseLast();
@@ -1784,6 +1787,39 @@ public class SqlParser {
         return joinModel;
     }
 
+    private void parseJoinCriteria(GenericLexer lexer, QueryModel joinModel, SqlParserCallback sqlParserCallback) throws SqlException {
+        try {
+            expressionParser.parseExpr(lexer, expressionTreeBuilder, sqlParserCallback);
+            ExpressionNode expr;
+            switch (expressionTreeBuilder.size()) {
+                case 0:
+                    throw SqlException.$(lexer.lastTokenPosition(), "Expression expected");
+                case 1:
+                    expr = expressionTreeBuilder.poll();
+                    if (expr.type == ExpressionNode.LITERAL) {
+                        do {
+                            joinModel.addJoinColumn(expr);
+                        } while ((expr = expressionTreeBuilder.poll()) != null);
+                    } else {
+                        joinModel.setJoinCriteria(rewriteKnownStatements(expr));
+                    }
+                    break;
+                default:
+                    // this code handles "join on (a,b,c)", e.g. list of columns
+                    while ((expr = expressionTreeBuilder.poll()) != null) {
+                        if (expr.type != ExpressionNode.LITERAL) {
+                            throw SqlException.$(lexer.lastTokenPosition(), "Column name expected");
+                        }
+                        joinModel.addJoinColumn(expr);
+                    }
+                    break;
+            }
+        } catch (SqlException e) {
+            expressionTreeBuilder.reset();
+            throw e;
+        }
+    }
+
     private void parseLatestBy(GenericLexer lexer, QueryModel model) throws SqlException {
         CharSequence tok = optTok(lexer);
         if (tok != null) {
@@ -2450,6 +2486,42 @@ public class SqlParser {
         }
     }
 
+    private long parseWindowJoinBound(GenericLexer lexer) throws SqlException {
+        CharSequence tok = tok(lexer, "'current' or time offset");
+        if (isCurrentRow(lexer, tok)) {
+            return 0;
+        }
+        lexer.unparseLast();
+        final long value = expectLong(lexer);
+        long timeUnit = parseTimeUnit(lexer);
+        if (timeUnit == -1) {
+            timeUnit = WindowColumn.TIME_UNIT_MICROSECOND;
+        }
+        tok = tok(lexer, "'preceding' or 'following'");
+        if (SqlKeywords.isPrecedingKeyword(tok)) {
+            return -value * timeUnit;
+        }
+        if (SqlKeywords.isFollowingKeyword(tok)) {
+            return value * timeUnit;
+        }
+        throw SqlException.$(lexer.lastTokenPosition(), "'preceding' or 'following' expected");
+    }
+
+    private void parseWindowJoinRange(GenericLexer lexer, QueryModel joinModel, CharSequence tok) throws SqlException {
+        if (tok == null || !isRangeKeyword(tok)) {
+            throw SqlException.$(tok == null ? lexer.getPosition() : lexer.lastTokenPosition(), "'range' expected");
+        }
+        expectTok(lexer, "between");
+        final int pos = lexer.lastTokenPosition();
+        final long lo = parseWindowJoinBound(lexer);
+        expectTok(lexer, "and");
+        final long hi = parseWindowJoinBound(lexer);
+        if (lo > hi) {
+            throw SqlException.$(pos, "start of the window join range must not be after its end");
+        }
+        joinModel.setWindowJoinRange(lo, hi);
+    }
+
     @NotNull
     private ExecutionModel parseWith(GenericLexer lexer, SqlParserCallback sqlParserCallback) throws SqlException {
         parseWithClauses(lexer, topLevelWithModel, sqlParserCallback);
@@ -2703,7 +2775,7 @@ public class SqlParser {
 
     private CharSequence setModelAliasAndGetOptTok(GenericLexer lexer, QueryModel joinModel) throws SqlException {
         CharSequence tok = optTok(lexer);
-        if (tok != null && tableAliasStop.excludes(tok)) {
+        if (tok != null && tableAliasStop.excludes(tok) && !isWindowJoin(lexer, tok)) {
             checkSupportedJoinType(lexer, tok);
             if (SqlKeywords.isAsKeyword(tok)) {
                 tok = tok(lexer, "alias");
@@ -2940,6 +3012,7 @@ public class SqlParser {
         joinStartSet.put("asof", QueryModel.JOIN_ASOF);
         joinStartSet.put("splice", QueryModel.JOIN_SPLICE);
         joinStartSet.put("lt", QueryModel.JOIN_LT);
+        joinStartSet.put("window", QueryModel.JOIN_WINDOW);
         joinStartSet.put(",", QueryModel.JOIN_CROSS);
         //
         setOperations.add("union");
@@ -92,6 +92,18 @@ public interface GroupByFunction extends Function, Mutable {
      */
     void initValueTypes(ArrayColumnTypes columnTypes);
 
+    /**
+     * Called for group by function cloned to be used in different threads of parallel execution,
+     * right after {@link #initValueIndex(int)}. Functions that keep their state on heap rather than
+     * in {@link GroupByAllocator} memory may use it to share that state with the original function,
+     * so that partial results of all workers can be merged.
+     *
+     * @param ownerFunction the original function the worker function was cloned from
+     */
+    default void initWorker(GroupByFunction ownerFunction) {
+        // no-op
+    }
+
     default void interpolateBoundary(
             MapValue mapValue1,
             MapValue mapValue2,
@@ -119,6 +131,16 @@ public interface GroupByFunction extends Function, Mutable {
         return false;
     }
 
+    /**
+     * Returns true when {@link #merge(MapValue, MapValue)} neither modifies the source value nor makes
+     * the destination value share its state, so that the same partial result can be merged many times,
+     * e.g. by a sliding window. Functions keeping their state in memory referenced by the map value
+     * must return false.
+     */
+    default boolean isRepeatableMergeSupported() {
+        return supportsParallelism();
+    }
+
     default boolean isScalar() {
         return true;
     }
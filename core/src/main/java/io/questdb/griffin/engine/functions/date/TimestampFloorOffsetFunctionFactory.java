@@ -0,0 +1,158 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.date;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.BinaryFunction;
+import io.questdb.griffin.engine.functions.TimestampFunction;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.griffin.engine.groupby.TimestampSamplerFactory;
+import io.questdb.std.Chars;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.datetime.microtime.Timestamps;
+
+/**
+ * Floors timestamp to the SAMPLE BY bucket that starts at the given offset, e.g.
+ * timestamp_floor('1h', ts, '00:15') returns the start of the 1-hour bucket aligned
+ * to quarter past the hour. The bucket arithmetic is the same as in
+ * {@link TimestampSampler}, so that SAMPLE BY ... ALIGN TO CALENDAR WITH OFFSET
+ * can be rewritten into a GROUP BY without changing the results.
+ */
+public class TimestampFloorOffsetFunctionFactory implements FunctionFactory {
+
+    @Override
+    public String getSignature() {
+        return "timestamp_floor(sNS)";
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final CharSequence unit = args.getQuick(0).getStrA(null);
+        final TimestampSampler sampler = TimestampSamplerFactory.getInstance(unit, argPositions.getQuick(0));
+        final Function timestampFunc = args.getQuick(1);
+        final Function offsetFunc = args.getQuick(2);
+        final int offsetPos = argPositions.getQuick(2);
+
+        if (offsetFunc.isConstant()) {
+            final long offset = parseOffset(offsetFunc.getStrA(null));
+            if (offset == Numbers.LONG_NULL) {
+                throw SqlException.$(offsetPos, "invalid offset: ").put(offsetFunc.getStrA(null));
+            }
+            sampler.setStart(offset);
+        } else if (!offsetFunc.isRuntimeConstant()) {
+            throw SqlException.$(offsetPos, "offset must be a constant expression of STRING or CHAR type");
+        }
+        return new TimestampFloorOffsetFunction(Chars.toString(unit), sampler, timestampFunc, offsetFunc, offsetPos);
+    }
+
+    private static class TimestampFloorOffsetFunction extends TimestampFunction implements BinaryFunction {
+        private final Function offsetFunc;
+        private final int offsetPos;
+        private final TimestampSampler sampler;
+        private final Function timestampFunc;
+        private final String unit;
+
+        public TimestampFloorOffsetFunction(
+                String unit,
+                TimestampSampler sampler,
+                Function timestampFunc,
+                Function offsetFunc,
+                int offsetPos
+        ) {
+            this.unit = unit;
+            this.sampler = sampler;
+            this.timestampFunc = timestampFunc;
+            this.offsetFunc = offsetFunc;
+            this.offsetPos = offsetPos;
+        }
+
+        @Override
+        public void close() {
+            Misc.free(timestampFunc);
+            Misc.free(offsetFunc);
+        }
+
+        @Override
+        public Function getLeft() {
+            return timestampFunc;
+        }
+
+        @Override
+        public Function getRight() {
+            return offsetFunc;
+        }
+
+        @Override
+        public long getTimestamp(Record rec) {
+            final long timestamp = timestampFunc.getTimestamp(rec);
+            return timestamp == Numbers.LONG_NULL ? Numbers.LONG_NULL : sampler.round(timestamp);
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            BinaryFunction.super.init(symbolTableSource, executionContext);
+            if (offsetFunc.isRuntimeConstant()) {
+                final CharSequence offsetStr = offsetFunc.getStrA(null);
+                final long offset = parseOffset(offsetStr);
+                if (offset == Numbers.LONG_NULL) {
+                    throw SqlException.$(offsetPos, "invalid offset: ").put(offsetStr);
+                }
+                sampler.setStart(offset);
+            }
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val("timestamp_floor('").val(unit).val("',").val(timestampFunc).val(',').val(offsetFunc).val(')');
+        }
+    }
+
+    private static long parseOffset(CharSequence offset) {
+        if (offset == null) {
+            return 0;
+        }
+        final long val = Timestamps.parseOffset(offset);
+        if (val == Numbers.LONG_NULL) {
+            return Numbers.LONG_NULL;
+        }
+        return Numbers.decodeLowInt(val) * Timestamps.MINUTE_MICROS;
+    }
+}
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.date;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.TernaryFunction;
+import io.questdb.griffin.engine.functions.TimestampFunction;
+import io.questdb.griffin.engine.groupby.TimeZoneConverter;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.griffin.engine.groupby.TimestampSamplerFactory;
+import io.questdb.std.Chars;
+import io.questdb.std.IntList;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+import io.questdb.std.datetime.microtime.Timestamps;
+
+/**
+ * Floors UTC timestamp to the SAMPLE BY bucket in the local time of the given time zone
+ * and returns the bucket start in UTC, e.g. timestamp_floor('1d', ts, '00:00', 'Europe/London')
+ * returns the UTC time of the London midnight. Buckets are aligned in local time, so
+ * they follow DST transitions: a day bucket may be 23 or 25 hours long.
+ */
+public class TimestampFloorOffsetTimezoneFunctionFactory implements FunctionFactory {
+
+    @Override
+    public String getSignature() {
+        return "timestamp_floor(sNSS)";
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final CharSequence unit = args.getQuick(0).getStrA(null);
+        final TimestampSampler sampler = TimestampSamplerFactory.getInstance(unit, argPositions.getQuick(0));
+        final Function timestampFunc = args.getQuick(1);
+        final Function offsetFunc = args.getQuick(2);
+        final int offsetPos = argPositions.getQuick(2);
+        final Function timezoneFunc = args.getQuick(3);
+        final int timezonePos = argPositions.getQuick(3);
+
+        if (!offsetFunc.isConstant() && !offsetFunc.isRuntimeConstant()) {
+            throw SqlException.$(offsetPos, "offset must be a constant expression of STRING or CHAR type");
+        }
+        if (!timezoneFunc.isConstant() && !timezoneFunc.isRuntimeConstant()) {
+            throw SqlException.$(timezonePos, "timezone must be a constant expression of STRING or CHAR type");
+        }
+
+        final TimestampFloorOffsetTimezoneFunction function = new TimestampFloorOffsetTimezoneFunction(
+                Chars.toString(unit),
+                sampler,
+                timestampFunc,
+                offsetFunc,
+                offsetPos,
+                timezoneFunc,
+                timezonePos
+        );
+        if (offsetFunc.isConstant() && timezoneFunc.isConstant()) {
+            // validate the arguments early
+            function.initOffsetAndTimezone();
+        }
+        return function;
+    }
+
+    private static class TimestampFloorOffsetTimezoneFunction extends TimestampFunction implements TernaryFunction {
+        private final TimeZoneConverter converter = new TimeZoneConverter();
+        private final Function offsetFunc;
+        private final int offsetPos;
+        private final TimestampSampler sampler;
+        private final Function timestampFunc;
+        private final Function timezoneFunc;
+        private final int timezonePos;
+        private final String unit;
+
+        public TimestampFloorOffsetTimezoneFunction(
+                String unit,
+                TimestampSampler sampler,
+                Function timestampFunc,
+                Function offsetFunc,
+                int offsetPos,
+                Function timezoneFunc,
+                int timezonePos
+        ) {
+            this.unit = unit;
+            this.sampler = sampler;
+            this.timestampFunc = timestampFunc;
+            this.offsetFunc = offsetFunc;
+            this.offsetPos = offsetPos;
+            this.timezoneFunc = timezoneFunc;
+            this.timezonePos = timezonePos;
+        }
+
+        @Override
+        public Function getCenter() {
+            return offsetFunc;
+        }
+
+        @Override
+        public Function getLeft() {
+            return timestampFunc;
+        }
+
+        @Override
+        public Function getRight() {
+            return timezoneFunc;
+        }
+
+        @Override
+        public long getTimestamp(Record rec) {
+            final long timestamp = timestampFunc.getTimestamp(rec);
+            if (timestamp == Numbers.LONG_NULL) {
+                return Numbers.LONG_NULL;
+            }
+            final long offset = converter.getOffset(timestamp);
+            return converter.toUtc(sampler.round(timestamp + offset), offset);
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            TernaryFunction.super.init(symbolTableSource, executionContext);
+            initOffsetAndTimezone();
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val("timestamp_floor('").val(unit).val("',").val(timestampFunc).val(',').val(offsetFunc).val(',').val(timezoneFunc).val(')');
+        }
+
+        private void initOffsetAndTimezone() throws SqlException {
+            final CharSequence offsetStr = offsetFunc.getStrA(null);
+            long offset = 0;
+            if (offsetStr != null) {
+                final long val = Timestamps.parseOffset(offsetStr);
+                if (val == Numbers.LONG_NULL) {
+                    throw SqlException.$(offsetPos, "invalid offset: ").put(offsetStr);
+                }
+                offset = Numbers.decodeLowInt(val) * Timestamps.MINUTE_MICROS;
+            }
+            sampler.setStart(offset);
+            converter.of(timezoneFunc.getStrA(null), timezonePos);
+        }
+    }
+}
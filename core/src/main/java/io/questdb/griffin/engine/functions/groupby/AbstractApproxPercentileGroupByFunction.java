@@ -0,0 +1,208 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.BinaryFunction;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+
+/**
+ * Base class of the approx_percentile functions. Map values hold a handle of a heap histogram
+ * kept in a {@link HistogramRegistry}, which is shared with the per-worker clones of the function.
+ *
+ * @param <T> histogram type
+ */
+public abstract class AbstractApproxPercentileGroupByFunction<T> extends DoubleFunction implements GroupByFunction, BinaryFunction {
+    protected final Function exprFunc;
+    protected final int precision;
+    private final int funcPosition;
+    private final Function percentileFunc;
+    private int histogramIndex;
+    private ObjList<T> histograms;
+    private HistogramRegistry<T> registry;
+    private int slot;
+    private int valueIndex;
+
+    protected AbstractApproxPercentileGroupByFunction(Function exprFunc, Function percentileFunc, int precision, int funcPosition) {
+        assert precision >= 0 && precision <= 5;
+        this.exprFunc = exprFunc;
+        this.percentileFunc = percentileFunc;
+        this.precision = precision;
+        this.funcPosition = funcPosition;
+        this.registry = new HistogramRegistry<>();
+        this.slot = registry.addSlot();
+        this.histograms = registry.getSlot(slot);
+    }
+
+    @Override
+    public void clear() {
+        if (slot == 0) {
+            // the original function also releases histograms of its per-worker clones
+            registry.clear();
+        } else {
+            histograms.clear();
+        }
+        histogramIndex = 0;
+    }
+
+    @Override
+    public void computeFirst(MapValue mapValue, Record record, long rowId) {
+        final T histogram;
+        if (histograms.size() <= histogramIndex) {
+            histograms.extendAndSet(histogramIndex, histogram = newHistogram());
+        } else {
+            histogram = histograms.getQuick(histogramIndex);
+            resetHistogram(histogram);
+        }
+        recordValue(histogram, record);
+        mapValue.putLong(valueIndex, HistogramRegistry.handle(slot, histogramIndex++));
+    }
+
+    @Override
+    public void computeNext(MapValue mapValue, Record record, long rowId) {
+        recordValue(registry.get(mapValue.getLong(valueIndex)), record);
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        final long handle = rec.getLong(valueIndex);
+        if (handle == Numbers.LONG_NULL) {
+            return Double.NaN;
+        }
+        return getValueAtPercentile(registry.get(handle), percentileFunc.getDouble(null) * 100);
+    }
+
+    @Override
+    public Function getLeft() {
+        return exprFunc;
+    }
+
+    @Override
+    public String getName() {
+        return "approx_percentile";
+    }
+
+    @Override
+    public Function getRight() {
+        return percentileFunc;
+    }
+
+    @Override
+    public int getValueIndex() {
+        return valueIndex;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        BinaryFunction.super.init(symbolTableSource, executionContext);
+
+        final double percentile = percentileFunc.getDouble(null);
+        if (Numbers.isNull(percentile) || percentile < 0 || percentile > 1) {
+            throw SqlException.$(funcPosition, "percentile must be between 0.0 and 1.0");
+        }
+    }
+
+    @Override
+    public void initValueIndex(int valueIndex) {
+        this.valueIndex = valueIndex;
+    }
+
+    @Override
+    public void initValueTypes(ArrayColumnTypes columnTypes) {
+        valueIndex = columnTypes.getColumnCount();
+        columnTypes.add(ColumnType.LONG);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void initWorker(GroupByFunction ownerFunction) {
+        // share the histograms with the owner function, so that it can merge our partial results
+        registry = ((AbstractApproxPercentileGroupByFunction<T>) ownerFunction).registry;
+        slot = registry.addSlot();
+        histograms = registry.getSlot(slot);
+    }
+
+    @Override
+    public boolean isConstant() {
+        return false;
+    }
+
+    @Override
+    public boolean isReadThreadSafe() {
+        return false;
+    }
+
+    @Override
+    public boolean isRepeatableMergeSupported() {
+        return false;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        final long srcHandle = srcValue.getLong(valueIndex);
+        if (srcHandle == Numbers.LONG_NULL) {
+            return;
+        }
+        final long destHandle = destValue.getLong(valueIndex);
+        if (destHandle == Numbers.LONG_NULL) {
+            destValue.putLong(valueIndex, srcHandle);
+            return;
+        }
+        mergeHistograms(registry.get(destHandle), registry.get(srcHandle));
+    }
+
+    @Override
+    public void setNull(MapValue mapValue) {
+        mapValue.putLong(valueIndex, Numbers.LONG_NULL);
+    }
+
+    @Override
+    public boolean supportsParallelism() {
+        return BinaryFunction.super.supportsParallelism();
+    }
+
+    /**
+     * Returns the value at the given percentile or NaN when the histogram is empty.
+     */
+    protected abstract double getValueAtPercentile(T histogram, double percentile);
+
+    protected abstract void mergeHistograms(T dest, T src);
+
+    protected abstract T newHistogram();
+
+    protected abstract void recordValue(T histogram, Record record);
+
+    protected abstract void resetHistogram(T histogram);
+}
@@ -110,6 +110,39 @@ public abstract class AbstractCovarGroupByFunction extends DoubleFunction implem
         return false;
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        long srcCount = srcValue.getLong(valueIndex + 3);
+        if (srcCount == 0) {
+            return;
+        }
+        long destCount = destValue.getLong(valueIndex + 3);
+        double srcMeanX = srcValue.getDouble(valueIndex);
+        double srcMeanY = srcValue.getDouble(valueIndex + 1);
+        double srcSumXY = srcValue.getDouble(valueIndex + 2);
+        if (destCount == 0) {
+            destValue.putDouble(valueIndex, srcMeanX);
+            destValue.putDouble(valueIndex + 1, srcMeanY);
+            destValue.putDouble(valueIndex + 2, srcSumXY);
+            destValue.putLong(valueIndex + 3, srcCount);
+            return;
+        }
+        double destMeanX = destValue.getDouble(valueIndex);
+        double destMeanY = destValue.getDouble(valueIndex + 1);
+        double destSumXY = destValue.getDouble(valueIndex + 2);
+
+        // pairwise co-moment update, see Chan et al.
+        long count = destCount + srcCount;
+        double deltaX = srcMeanX - destMeanX;
+        double deltaY = srcMeanY - destMeanY;
+        double weight = ((double) destCount * srcCount) / count;
+        destValue.putDouble(valueIndex, destMeanX + deltaX * srcCount / count);
+        destValue.putDouble(valueIndex + 1, destMeanY + deltaY * srcCount / count);
+        destValue.putDouble(valueIndex + 2, destSumXY + srcSumXY + deltaX * deltaY * weight);
+        destValue.putLong(valueIndex + 3, count);
+    }
+
+
     @Override
     public void setDouble(MapValue mapValue, double value) {
         mapValue.putDouble(valueIndex + 2, value);
@@ -126,7 +159,7 @@ public abstract class AbstractCovarGroupByFunction extends DoubleFunction implem
 
     @Override
     public boolean supportsParallelism() {
-        return false;
+        return BinaryFunction.super.supportsParallelism();
     }
 
     protected void aggregate(MapValue mapValue, double x, double y) {
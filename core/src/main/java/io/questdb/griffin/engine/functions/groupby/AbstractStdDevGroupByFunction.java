@@ -97,6 +97,35 @@ public abstract class AbstractStdDevGroupByFunction extends DoubleFunction imple
         return false;
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        long srcCount = srcValue.getLong(valueIndex + 2);
+        if (srcCount == 0) {
+            return;
+        }
+        long destCount = destValue.getLong(valueIndex + 2);
+        double srcMean = srcValue.getDouble(valueIndex);
+        double srcSum = srcValue.getDouble(valueIndex + 1);
+        if (destCount == 0) {
+            destValue.putDouble(valueIndex, srcMean);
+            destValue.putDouble(valueIndex + 1, srcSum);
+            destValue.putLong(valueIndex + 2, srcCount);
+            return;
+        }
+        double destMean = destValue.getDouble(valueIndex);
+        double destSum = destValue.getDouble(valueIndex + 1);
+
+        // Chan et al. pairwise update: the partial sums of squares are combined
+        // with a correction term for the difference of the partial means
+        long count = destCount + srcCount;
+        double delta = srcMean - destMean;
+        double weight = ((double) destCount * srcCount) / count;
+        destValue.putDouble(valueIndex, destMean + delta * srcCount / count);
+        destValue.putDouble(valueIndex + 1, destSum + srcSum + delta * delta * weight);
+        destValue.putLong(valueIndex + 2, count);
+    }
+
+
     @Override
     public void setDouble(MapValue mapValue, double value) {
         mapValue.putDouble(valueIndex, value);
@@ -112,7 +141,7 @@ public abstract class AbstractStdDevGroupByFunction extends DoubleFunction imple
 
     @Override
     public boolean supportsParallelism() {
-        return false;
+        return UnaryFunction.super.supportsParallelism();
     }
 
     protected void aggregate(MapValue mapValue, double value) {
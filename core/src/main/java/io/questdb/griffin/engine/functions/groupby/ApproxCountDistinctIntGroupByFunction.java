@@ -148,6 +148,11 @@ public class ApproxCountDistinctIntGroupByFunction extends LongFunction implemen
         return false;
     }
 
+    @Override
+    public boolean isRepeatableMergeSupported() {
+        return false;
+    }
+
     @Override
     public void merge(MapValue destValue, MapValue srcValue) {
         if (srcValue.getBool(overwrittenFlagIndex)) {
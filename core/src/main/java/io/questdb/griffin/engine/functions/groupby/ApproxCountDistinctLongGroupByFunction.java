@@ -148,6 +148,11 @@ public class ApproxCountDistinctLongGroupByFunction extends LongFunction impleme
         return false;
     }
 
+    @Override
+    public boolean isRepeatableMergeSupported() {
+        return false;
+    }
+
     @Override
     public void merge(MapValue destValue, MapValue srcValue) {
         if (srcValue.getBool(overwrittenFlagIndex)) {
@@ -133,6 +133,47 @@ public class CorrGroupByFunction extends DoubleFunction implements GroupByFuncti
         return false;
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        long srcCount = srcValue.getLong(valueIndex + 5);
+        if (srcCount == 0) {
+            return;
+        }
+        long destCount = destValue.getLong(valueIndex + 5);
+        double srcMeanX = srcValue.getDouble(valueIndex);
+        double srcSumX = srcValue.getDouble(valueIndex + 1);
+        double srcMeanY = srcValue.getDouble(valueIndex + 2);
+        double srcSumY = srcValue.getDouble(valueIndex + 3);
+        double srcSumXY = srcValue.getDouble(valueIndex + 4);
+        if (destCount == 0) {
+            destValue.putDouble(valueIndex, srcMeanX);
+            destValue.putDouble(valueIndex + 1, srcSumX);
+            destValue.putDouble(valueIndex + 2, srcMeanY);
+            destValue.putDouble(valueIndex + 3, srcSumY);
+            destValue.putDouble(valueIndex + 4, srcSumXY);
+            destValue.putLong(valueIndex + 5, srcCount);
+            return;
+        }
+        double destMeanX = destValue.getDouble(valueIndex);
+        double destSumX = destValue.getDouble(valueIndex + 1);
+        double destMeanY = destValue.getDouble(valueIndex + 2);
+        double destSumY = destValue.getDouble(valueIndex + 3);
+        double destSumXY = destValue.getDouble(valueIndex + 4);
+
+        // pairwise update of the second moments and the co-moment, see Chan et al.
+        long count = destCount + srcCount;
+        double deltaX = srcMeanX - destMeanX;
+        double deltaY = srcMeanY - destMeanY;
+        double weight = ((double) destCount * srcCount) / count;
+        destValue.putDouble(valueIndex, destMeanX + deltaX * srcCount / count);
+        destValue.putDouble(valueIndex + 1, destSumX + srcSumX + deltaX * deltaX * weight);
+        destValue.putDouble(valueIndex + 2, destMeanY + deltaY * srcCount / count);
+        destValue.putDouble(valueIndex + 3, destSumY + srcSumY + deltaY * deltaY * weight);
+        destValue.putDouble(valueIndex + 4, destSumXY + srcSumXY + deltaX * deltaY * weight);
+        destValue.putLong(valueIndex + 5, count);
+    }
+
+
     @Override
     public void setDouble(MapValue mapValue, double value) {
         mapValue.putDouble(valueIndex + 4, value);
@@ -151,7 +192,7 @@ public class CorrGroupByFunction extends DoubleFunction implements GroupByFuncti
 
     @Override
     public boolean supportsParallelism() {
-        return false;
+        return BinaryFunction.super.supportsParallelism();
     }
 
     protected void aggregate(MapValue mapValue, double x, double y) {
@@ -124,6 +124,11 @@ public class CountDistinctIPv4GroupByFunction extends LongFunction implements Un
         return false;
     }
 
+    @Override
+    public boolean isRepeatableMergeSupported() {
+        return false;
+    }
+
     @Override
     public void merge(MapValue destValue, MapValue srcValue) {
         long srcCount = srcValue.getLong(valueIndex);
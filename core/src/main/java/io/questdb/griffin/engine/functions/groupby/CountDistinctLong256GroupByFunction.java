@@ -151,6 +151,11 @@ public class CountDistinctLong256GroupByFunction extends LongFunction implements
         return false;
     }
 
+    @Override
+    public boolean isRepeatableMergeSupported() {
+        return false;
+    }
+
     @Override
     public void merge(MapValue destValue, MapValue srcValue) {
         long srcCount = srcValue.getLong(valueIndex);
@@ -128,6 +128,11 @@ public class CountDistinctLongGroupByFunction extends LongFunction implements Un
         return false;
     }
 
+    @Override
+    public boolean isRepeatableMergeSupported() {
+        return false;
+    }
+
     @Override
     public void merge(MapValue destValue, MapValue srcValue) {
         long srcCount = srcValue.getLong(valueIndex);
@@ -137,6 +137,11 @@ public final class CountDistinctUuidGroupByFunction extends LongFunction impleme
         return false;
     }
 
+    @Override
+    public boolean isRepeatableMergeSupported() {
+        return false;
+    }
+
     @Override
     public void merge(MapValue destValue, MapValue srcValue) {
         long srcCount = srcValue.getLong(valueIndex);
@@ -123,6 +123,11 @@ public class FirstStrGroupByFunction extends StrFunction implements GroupByFunct
         return false;
     }
 
+    @Override
+    public boolean isRepeatableMergeSupported() {
+        return false;
+    }
+
     @Override
     public boolean isScalar() {
         return false;
@@ -131,6 +131,11 @@ public class FirstVarcharGroupByFunction extends VarcharFunction implements Grou
         return false;
     }
 
+    @Override
+    public boolean isRepeatableMergeSupported() {
+        return false;
+    }
+
     @Override
     public boolean isScalar() {
         return false;
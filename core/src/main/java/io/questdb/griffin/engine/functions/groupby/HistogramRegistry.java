@@ -0,0 +1,63 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.std.ObjList;
+
+/**
+ * Heap histograms of an approx_percentile function shared between the original function
+ * and its per-worker clones. Each function instance owns a slot and creates histograms
+ * only in that slot, while any instance may read histograms of other slots when merging
+ * partial results. Map values refer to histograms with a handle that is a combination
+ * of the slot and the histogram index within the slot. The original function owns the
+ * registry and clears all slots when it is cleared.
+ */
+final class HistogramRegistry<T> {
+    private final ObjList<ObjList<T>> slots = new ObjList<>();
+
+    static long handle(int slot, int index) {
+        return ((long) slot << 32) | index;
+    }
+
+    int addSlot() {
+        slots.add(new ObjList<>());
+        return slots.size() - 1;
+    }
+
+    void clear() {
+        for (int i = 0, n = slots.size(); i < n; i++) {
+            slots.getQuick(i).clear();
+        }
+    }
+
+    T get(long handle) {
+        return slots.getQuick((int) (handle >>> 32)).getQuick((int) handle);
+    }
+
+    ObjList<T> getSlot(int slot) {
+        return slots.getQuick(slot);
+    }
+}
@@ -127,6 +127,11 @@ public class MaxStrGroupByFunction extends StrFunction implements GroupByFunctio
         return false;
     }
 
+    @Override
+    public boolean isRepeatableMergeSupported() {
+        return false;
+    }
+
     @Override
     public boolean isScalar() {
         return false;
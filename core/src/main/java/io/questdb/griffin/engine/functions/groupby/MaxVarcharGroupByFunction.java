@@ -139,6 +139,11 @@ public final class MaxVarcharGroupByFunction extends VarcharFunction implements
         return false;
     }
 
+    @Override
+    public boolean isRepeatableMergeSupported() {
+        return false;
+    }
+
     @Override
     public boolean isScalar() {
         return false;
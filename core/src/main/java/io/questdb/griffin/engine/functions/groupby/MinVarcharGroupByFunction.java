@@ -138,6 +138,11 @@ public final class MinVarcharGroupByFunction extends VarcharFunction implements
         return false;
     }
 
+    @Override
+    public boolean isRepeatableMergeSupported() {
+        return false;
+    }
+
     @Override
     public boolean isScalar() {
         return false;
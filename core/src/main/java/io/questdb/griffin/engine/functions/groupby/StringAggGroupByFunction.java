@@ -22,6 +22,7 @@
  *
  ******************************************************************************/
 
+
 package io.questdb.griffin.engine.functions.groupby;
 
 import io.questdb.cairo.ArrayColumnTypes;
@@ -33,18 +34,14 @@ import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.StrFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
-import io.questdb.std.Misc;
-import io.questdb.std.ObjList;
-import io.questdb.std.str.DirectUtf16Sink;
+import io.questdb.griffin.engine.groupby.GroupByAllocator;
+import io.questdb.griffin.engine.groupby.GroupByCharSink;
 
 class StringAggGroupByFunction extends StrFunction implements UnaryFunction, GroupByFunction {
-    // Cleared function retains up to INITIAL_SINK_CAPACITY * LIST_CLEAR_THRESHOLD bytes.
-    private static final int INITIAL_SINK_CAPACITY = 512;
-    private static final int LIST_CLEAR_THRESHOLD = 64;
     private final Function arg;
     private final char delimiter;
-    private final ObjList<DirectUtf16Sink> sinks = new ObjList<>();
-    private int sinkIndex = 0;
+    private final GroupByCharSink sinkA = new GroupByCharSink();
+    private final GroupByCharSink sinkB = new GroupByCharSink();
     private int valueIndex;
 
     public StringAggGroupByFunction(Function arg, char delimiter) {
@@ -54,59 +51,33 @@ class StringAggGroupByFunction extends StrFunction implements UnaryFunction, Gro
 
     @Override
     public void clear() {
-        // Free extra sinks.
-        if (sinks.size() > LIST_CLEAR_THRESHOLD) {
-            for (int i = sinks.size() - 1; i > LIST_CLEAR_THRESHOLD - 1; i--) {
-                Misc.free(sinks.getQuick(i));
-                sinks.remove(i);
-            }
-        }
-        // Reset capacity on the remaining ones.
-        for (int i = 0, n = sinks.size(); i < n; i++) {
-            DirectUtf16Sink sink = sinks.getQuick(i);
-            if (sink != null) {
-                sink.resetCapacity();
-            }
-        }
-        sinkIndex = 0;
-    }
-
-    @Override
-    public void close() {
-        Misc.freeObjListAndClear(sinks);
+        sinkA.of(0);
+        sinkB.of(0);
     }
 
     @Override
     public void computeFirst(MapValue mapValue, Record record, long rowId) {
-        final DirectUtf16Sink sink;
-        if (sinks.size() <= sinkIndex) {
-            sinks.extendAndSet(sinkIndex, sink = new DirectUtf16Sink(INITIAL_SINK_CAPACITY));
-        } else {
-            sink = sinks.getQuick(sinkIndex);
-            sink.clear();
-        }
-
         final CharSequence str = arg.getStrA(record);
         if (str != null) {
-            sink.put(str);
-            mapValue.putBool(valueIndex + 1, false);
+            sinkA.of(0).put(str);
+            mapValue.putLong(valueIndex, sinkA.ptr());
         } else {
-            mapValue.putBool(valueIndex + 1, true);
+            mapValue.putLong(valueIndex, 0);
         }
-        mapValue.putInt(valueIndex, sinkIndex++);
     }
 
     @Override
     public void computeNext(MapValue mapValue, Record record, long rowId) {
-        final DirectUtf16Sink sink = sinks.getQuick(mapValue.getInt(valueIndex));
         final CharSequence str = arg.getStrA(record);
         if (str != null) {
-            final boolean nullValue = mapValue.getBool(valueIndex + 1);
-            if (!nullValue) {
-                sink.putAscii(delimiter);
+            final long ptr = mapValue.getLong(valueIndex);
+            if (ptr != 0) {
+                sinkA.of(ptr).putAscii(delimiter);
+            } else {
+                sinkA.of(0);
             }
-            sink.put(str);
-            mapValue.putBool(valueIndex + 1, false);
+            sinkA.put(str);
+            mapValue.putLong(valueIndex, sinkA.ptr());
         }
     }
 
@@ -117,16 +88,14 @@ class StringAggGroupByFunction extends StrFunction implements UnaryFunction, Gro
 
     @Override
     public CharSequence getStrA(Record rec) {
-        final boolean nullValue = rec.getBool(valueIndex + 1);
-        if (nullValue) {
-            return null;
-        }
-        return sinks.getQuick(rec.getInt(valueIndex));
+        final long ptr = rec.getLong(valueIndex);
+        return ptr != 0 ? sinkA.of(ptr) : null;
     }
 
     @Override
     public CharSequence getStrB(Record rec) {
-        return getStrA(rec);
+        final long ptr = rec.getLong(valueIndex);
+        return ptr != 0 ? sinkB.of(ptr) : null;
     }
 
     @Override
@@ -142,8 +111,7 @@ class StringAggGroupByFunction extends StrFunction implements UnaryFunction, Gro
     @Override
     public void initValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
-        columnTypes.add(ColumnType.INT); // sink index
-        columnTypes.add(ColumnType.BOOLEAN); // null flag
+        columnTypes.add(ColumnType.LONG); // GroupByCharSink pointer
     }
 
     @Override
@@ -151,18 +119,32 @@ class StringAggGroupByFunction extends StrFunction implements UnaryFunction, Gro
         return false;
     }
 
+    @Override
+    public boolean isReadThreadSafe() {
+        return false;
+    }
+
     @Override
     public boolean isScalar() {
         return false;
     }
 
+    @Override
+    public void setAllocator(GroupByAllocator allocator) {
+        sinkA.setAllocator(allocator);
+        sinkB.setAllocator(allocator);
+    }
+
     @Override
     public void setNull(MapValue mapValue) {
-        mapValue.putBool(valueIndex + 1, true);
+        mapValue.putLong(valueIndex, 0);
     }
 
     @Override
     public boolean supportsParallelism() {
+        // Worker partials cover interleaved page frames, so they can't be
+        // concatenated in the row order. Keep the function serial to produce
+        // the same output on every run.
         return false;
     }
 
@@ -170,10 +152,4 @@ class StringAggGroupByFunction extends StrFunction implements UnaryFunction, Gro
     public void toPlan(PlanSink sink) {
         sink.val("string_agg(").val(arg).val(',').val(delimiter).val(')');
     }
-
-    @Override
-    public void toTop() {
-        UnaryFunction.super.toTop();
-        sinkIndex = 0;
-    }
 }
@@ -0,0 +1,761 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.window.WindowContext;
+import io.questdb.griffin.engine.window.WindowFunction;
+import io.questdb.griffin.model.WindowColumn;
+import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Base factory of window functions backed by {@link SlidingWindowFrame}, i.e. max(), min(),
+ * last_value() and count(). Frames are computed in a single streaming pass, in O(1) amortized
+ * time per row, except for frames spanning the whole partition or result set, which take two passes.
+ * Values are read with the type returned by {@link #getValueType()}, which is also the type of
+ * max(), min() and last_value() results.
+ */
+public abstract class AbstractSlidingFrameWindowFunctionFactory implements FunctionFactory {
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final WindowContext windowContext = sqlExecutionContext.getWindowContext();
+        if (windowContext.isEmpty()) {
+            throw SqlException.emptyWindowContext(position);
+        }
+
+        long rowsLo = windowContext.getRowsLo();
+        long rowsHi = windowContext.getRowsHi();
+
+        if (!windowContext.isDefaultFrame()) {
+            if (rowsLo > 0) {
+                throw SqlException.$(windowContext.getRowsLoKindPos(), "frame start supports UNBOUNDED PRECEDING, _number_ PRECEDING and CURRENT ROW only");
+            }
+            if (rowsHi > 0) {
+                if (rowsHi != Long.MAX_VALUE) {
+                    throw SqlException.$(windowContext.getRowsHiKindPos(), "frame end supports _number_ PRECEDING and CURRENT ROW only");
+                } else if (rowsLo != Long.MIN_VALUE) {
+                    throw SqlException.$(windowContext.getRowsHiKindPos(), "frame end supports UNBOUNDED FOLLOWING only when frame start is UNBOUNDED PRECEDING");
+                }
+            }
+        }
+
+        int exclusionKind = windowContext.getExclusionKind();
+        int exclusionKindPos = windowContext.getExclusionKindPos();
+        if (exclusionKind != WindowColumn.EXCLUDE_NO_OTHERS
+                && exclusionKind != WindowColumn.EXCLUDE_CURRENT_ROW) {
+            throw SqlException.$(exclusionKindPos, "only EXCLUDE NO OTHERS and EXCLUDE CURRENT ROW exclusion modes are supported");
+        }
+
+        if (exclusionKind == WindowColumn.EXCLUDE_CURRENT_ROW) {
+            // assumes frame doesn't use 'following'
+            if (rowsHi == Long.MAX_VALUE) {
+                throw SqlException.$(exclusionKindPos, "EXCLUDE CURRENT ROW not supported with UNBOUNDED FOLLOWING frame boundary");
+            }
+
+            if (rowsHi == 0) {
+                rowsHi = -1;
+            }
+            if (rowsHi < rowsLo) {
+                throw SqlException.$(exclusionKindPos, "end of window is higher than start of window due to exclusion mode");
+            }
+        }
+
+        int framingMode = windowContext.getFramingMode();
+        if (framingMode == WindowColumn.FRAMING_GROUPS) {
+            throw SqlException.$(position, "function not implemented for given window parameters");
+        }
+
+        final boolean wholePartition;
+        int timestampIndex = -1;
+        if (framingMode == WindowColumn.FRAMING_RANGE) {
+            // no order by and default frame or (order by, unbounded preceding to unbounded following)
+            wholePartition = windowContext.isDefaultFrame() && (!windowContext.isOrdered() || windowContext.getRowsHi() == Long.MAX_VALUE);
+            // between unbounded preceding and current row is computed as for rows, because
+            // calculation stops at current row even if there are 'equal' following rows
+            if (!wholePartition && (rowsLo != Long.MIN_VALUE || rowsHi != 0)) {
+                if (windowContext.isOrdered() && !windowContext.isOrderedByDesignatedTimestamp()) {
+                    throw SqlException.$(windowContext.getOrderByPos(), "RANGE is supported only for queries ordered by designated timestamp");
+                }
+                timestampIndex = windowContext.getTimestampIndex();
+            }
+        } else {
+            wholePartition = rowsLo == Long.MIN_VALUE && rowsHi == Long.MAX_VALUE;
+        }
+
+        final int kind = getKind();
+        final int valueType = getValueType();
+        final Function arg = args != null && args.size() > 0 ? args.getQuick(0) : null;
+        final RecordSink partitionBySink = windowContext.getPartitionBySink();
+        final ColumnTypes partitionByKeyTypes = windowContext.getPartitionByKeyTypes();
+        final VirtualRecord partitionByRecord = windowContext.getPartitionByRecord();
+
+        if (wholePartition) {
+            if (partitionByRecord != null) {
+                Map map = MapFactory.createUnorderedMap(
+                        configuration,
+                        partitionByKeyTypes,
+                        SlidingWindowFrame.COLUMN_TYPES
+                );
+                return kind == SlidingWindowFrame.KIND_COUNT
+                        ? new CountOverPartitionFunction(getName(), valueType, map, partitionByRecord, partitionBySink, arg)
+                        : WindowFunctionUtils.wrap(new ValueOverPartitionFunction(getName(), kind, valueType, map, partitionByRecord, partitionBySink, arg), valueType);
+            }
+            return kind == SlidingWindowFrame.KIND_COUNT
+                    ? new CountOverWholeResultSetFunction(getName(), valueType, arg)
+                    : WindowFunctionUtils.wrap(new ValueOverWholeResultSetFunction(getName(), kind, valueType, arg), valueType);
+        }
+
+        final SlidingWindowFrame frame = new SlidingWindowFrame(kind, valueType, rowsLo, rowsHi);
+        final int initialBufferSize = configuration.getSqlWindowInitialRangeBufferSize();
+        Map map = null;
+        MemoryARW mem = null;
+        try {
+            mem = Vm.getARWInstance(
+                    configuration.getSqlWindowStorePageSize(),
+                    configuration.getSqlWindowStoreMaxPages(),
+                    MemoryTag.NATIVE_CIRCULAR_BUFFER
+            );
+            if (partitionByRecord != null) {
+                map = MapFactory.createUnorderedMap(
+                        configuration,
+                        partitionByKeyTypes,
+                        SlidingWindowFrame.COLUMN_TYPES
+                );
+                return kind == SlidingWindowFrame.KIND_COUNT
+                        ? new CountOverPartitionFrameFunction(getName(), map, partitionByRecord, partitionBySink, arg, frame, mem, initialBufferSize, timestampIndex)
+                        : WindowFunctionUtils.wrap(new ValueOverPartitionFrameFunction(getName(), map, partitionByRecord, partitionBySink, arg, frame, mem, initialBufferSize, timestampIndex), valueType);
+            }
+            return kind == SlidingWindowFrame.KIND_COUNT
+                    ? new CountOverFrameFunction(getName(), arg, frame, mem, initialBufferSize, timestampIndex)
+                    : WindowFunctionUtils.wrap(new ValueOverFrameFunction(getName(), arg, frame, mem, initialBufferSize, timestampIndex), valueType);
+        } catch (Throwable th) {
+            Misc.free(map);
+            Misc.free(mem);
+            throw th;
+        }
+    }
+
+    private static void addValue(SlidingWindowFrame frame, int timestampIndex, Record record, @Nullable Function arg) {
+        // count(*) counts all rows, 0 stands for any non-null value
+        final long value = arg != null ? WindowFunctionUtils.getValue(arg, record, frame.getValueType()) : 0;
+        if (timestampIndex != -1) {
+            frame.add(record.getTimestamp(timestampIndex), value);
+        } else {
+            frame.addRow(value);
+        }
+    }
+
+    private static void toFramePlan(PlanSink sink, SlidingWindowFrame frame, int timestampIndex) {
+        sink.val(timestampIndex != -1 ? "range" : "rows");
+        sink.val(" between ");
+        if (frame.isFrameLoBounded()) {
+            sink.val(frame.maxDiff());
+        } else {
+            sink.val("unbounded");
+        }
+        sink.val(" preceding and ");
+        if (frame.minDiff() == 0) {
+            sink.val("current row");
+        } else {
+            sink.val(frame.minDiff()).val(" preceding");
+        }
+        sink.val(')');
+    }
+
+    protected abstract int getKind();
+
+    protected abstract String getName();
+
+    protected int getValueType() {
+        return ColumnType.DOUBLE;
+    }
+
+    // handles count() over ([order by o] [rows | range] between [unbounded | x] preceding and [y preceding | current row]), there's no partition by
+    static class CountOverFrameFunction extends BaseLongWindowFunction implements Reopenable {
+        private final SlidingWindowFrame frame;
+        private final int initialBufferSize;
+        private final MemoryARW memory;
+        private final String name;
+        private final int timestampIndex;
+        private long count;
+
+        CountOverFrameFunction(String name, Function arg, SlidingWindowFrame frame, MemoryARW memory, int initialBufferSize, int timestampIndex) {
+            super(arg);
+            this.name = name;
+            this.frame = frame.of(memory, initialBufferSize);
+            this.memory = memory;
+            this.initialBufferSize = initialBufferSize;
+            this.timestampIndex = timestampIndex;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            memory.close();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            addValue(frame, timestampIndex, record, arg);
+            count = frame.getCount();
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return count;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), count);
+        }
+
+        @Override
+        public void reopen() {
+            count = 0;
+            frame.clear();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+            frame.of(memory, initialBufferSize).clear();
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(name);
+            sinkArg(sink);
+            sink.val(" over (");
+            toFramePlan(sink, frame, timestampIndex);
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            count = 0;
+            memory.truncate();
+            frame.of(memory, initialBufferSize).clear();
+        }
+    }
+
+    // handles count() over (partition by x [order by o] [rows | range] between [unbounded | y] preceding and [z preceding | current row])
+    static class CountOverPartitionFrameFunction extends BasePartitionedLongWindowFunction {
+        private final SlidingWindowFrame frame;
+        private final int initialBufferSize;
+        private final MemoryARW memory;
+        private final String name;
+        private final int timestampIndex;
+        private long count;
+
+        CountOverPartitionFrameFunction(
+                String name,
+                Map map,
+                VirtualRecord partitionByRecord,
+                RecordSink partitionBySink,
+                Function arg,
+                SlidingWindowFrame frame,
+                MemoryARW memory,
+                int initialBufferSize,
+                int timestampIndex
+        ) {
+            super(map, partitionByRecord, partitionBySink, arg);
+            this.name = name;
+            this.frame = frame.of(memory, initialBufferSize);
+            this.memory = memory;
+            this.initialBufferSize = initialBufferSize;
+            this.timestampIndex = timestampIndex;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            memory.close();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue value = key.createValue();
+            frame.load(value);
+            addValue(frame, timestampIndex, record, arg);
+            frame.save(value);
+            count = frame.getCount();
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return count;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), count);
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+            frame.of(memory, initialBufferSize);
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(name);
+            sinkArg(sink);
+            sink.val(" over (");
+            sink.val("partition by ");
+            sink.val(partitionByRecord.getFunctions());
+            sink.val(' ');
+            toFramePlan(sink, frame, timestampIndex);
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            memory.truncate();
+            frame.of(memory, initialBufferSize);
+        }
+    }
+
+    // handles count() over (partition by x), the frame is the whole partition
+    static class CountOverPartitionFunction extends BasePartitionedLongWindowFunction {
+        private final SlidingWindowFrame frame;
+        private final String name;
+
+        CountOverPartitionFunction(String name, int valueType, Map map, VirtualRecord partitionByRecord, RecordSink partitionBySink, Function arg) {
+            super(map, partitionByRecord, partitionBySink, arg);
+            this.name = name;
+            this.frame = new SlidingWindowFrame(SlidingWindowFrame.KIND_COUNT, valueType, Long.MIN_VALUE, 0);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.TWO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue value = key.createValue();
+            frame.load(value);
+            addValue(frame, -1, record, arg);
+            frame.save(value);
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue value = key.findValue();
+            long count = 0;
+            if (value != null) {
+                frame.load(value);
+                count = frame.getCount();
+            }
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), count);
+        }
+    }
+
+    // count() over () - the frame is the whole result set
+    static class CountOverWholeResultSetFunction extends BaseLongWindowFunction {
+        private final String name;
+        private final int valueType;
+        private long count;
+
+        CountOverWholeResultSetFunction(String name, int valueType, Function arg) {
+            super(arg);
+            this.name = name;
+            this.valueType = valueType;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.TWO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            if (arg == null || !WindowFunctionUtils.isNull(WindowFunctionUtils.getValue(arg, record, valueType), valueType)) {
+                count++;
+            }
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), count);
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            count = 0;
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            count = 0;
+        }
+    }
+
+    // handles max(), min() and last_value() over ([order by o] [rows | range] between [unbounded | x] preceding and [y preceding | current row]), there's no partition by
+    static class ValueOverFrameFunction extends BaseLongWindowFunction implements Reopenable {
+        private final SlidingWindowFrame frame;
+        private final int initialBufferSize;
+        private final MemoryARW memory;
+        private final String name;
+        private final int timestampIndex;
+        private long value;
+
+        ValueOverFrameFunction(String name, Function arg, SlidingWindowFrame frame, MemoryARW memory, int initialBufferSize, int timestampIndex) {
+            super(arg);
+            this.name = name;
+            this.frame = frame.of(memory, initialBufferSize);
+            this.memory = memory;
+            this.initialBufferSize = initialBufferSize;
+            this.timestampIndex = timestampIndex;
+            this.value = frame.getValue();
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            memory.close();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            addValue(frame, timestampIndex, record, arg);
+            value = frame.getValue();
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return value;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), value);
+        }
+
+        @Override
+        public void reopen() {
+            value = WindowFunctionUtils.getNull(frame.getValueType());
+            frame.clear();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+            frame.of(memory, initialBufferSize).clear();
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(name);
+            sink.val('(').val(arg).val(')');
+            sink.val(" over (");
+            toFramePlan(sink, frame, timestampIndex);
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            value = WindowFunctionUtils.getNull(frame.getValueType());
+            memory.truncate();
+            frame.of(memory, initialBufferSize).clear();
+        }
+    }
+
+    // handles max(), min() and last_value() over (partition by x [order by o] [rows | range] between [unbounded | y] preceding and [z preceding | current row])
+    static class ValueOverPartitionFrameFunction extends BasePartitionedLongWindowFunction {
+        private final SlidingWindowFrame frame;
+        private final int initialBufferSize;
+        private final MemoryARW memory;
+        private final String name;
+        private final int timestampIndex;
+        private long value;
+
+        ValueOverPartitionFrameFunction(
+                String name,
+                Map map,
+                VirtualRecord partitionByRecord,
+                RecordSink partitionBySink,
+                Function arg,
+                SlidingWindowFrame frame,
+                MemoryARW memory,
+                int initialBufferSize,
+                int timestampIndex
+        ) {
+            super(map, partitionByRecord, partitionBySink, arg);
+            this.name = name;
+            this.frame = frame.of(memory, initialBufferSize);
+            this.memory = memory;
+            this.initialBufferSize = initialBufferSize;
+            this.timestampIndex = timestampIndex;
+            this.value = frame.getValue();
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            memory.close();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue mapValue = key.createValue();
+            frame.load(mapValue);
+            addValue(frame, timestampIndex, record, arg);
+            frame.save(mapValue);
+            value = frame.getValue();
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return value;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), value);
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+            frame.of(memory, initialBufferSize);
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(name);
+            sink.val('(').val(arg).val(')');
+            sink.val(" over (");
+            sink.val("partition by ");
+            sink.val(partitionByRecord.getFunctions());
+            sink.val(' ');
+            toFramePlan(sink, frame, timestampIndex);
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            value = WindowFunctionUtils.getNull(frame.getValueType());
+            memory.truncate();
+            frame.of(memory, initialBufferSize);
+        }
+    }
+
+    // handles max(), min() and last_value() over (partition by x), the frame is the whole partition
+    static class ValueOverPartitionFunction extends BasePartitionedLongWindowFunction {
+        private final SlidingWindowFrame frame;
+        private final String name;
+
+        ValueOverPartitionFunction(String name, int kind, int valueType, Map map, VirtualRecord partitionByRecord, RecordSink partitionBySink, Function arg) {
+            super(map, partitionByRecord, partitionBySink, arg);
+            this.name = name;
+            this.frame = new SlidingWindowFrame(kind, valueType, Long.MIN_VALUE, 0);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.TWO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue value = key.createValue();
+            frame.load(value);
+            addValue(frame, -1, record, arg);
+            frame.save(value);
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue value = key.findValue();
+            long val = WindowFunctionUtils.getNull(frame.getValueType());
+            if (value != null) {
+                frame.load(value);
+                val = frame.getValue();
+            }
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), val);
+        }
+    }
+
+    // max(), min() and last_value() over () - the frame is the whole result set
+    static class ValueOverWholeResultSetFunction extends BaseLongWindowFunction {
+        private final SlidingWindowFrame frame;
+        private final String name;
+
+        ValueOverWholeResultSetFunction(String name, int kind, int valueType, Function arg) {
+            super(arg);
+            this.name = name;
+            this.frame = new SlidingWindowFrame(kind, valueType, Long.MIN_VALUE, 0);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.TWO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            frame.addRow(WindowFunctionUtils.getValue(arg, record, frame.getValueType()));
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), frame.getValue());
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            frame.clear();
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            frame.clear();
+        }
+    }
+}
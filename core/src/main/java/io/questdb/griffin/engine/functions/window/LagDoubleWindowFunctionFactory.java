@@ -0,0 +1,409 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.window.WindowContext;
+import io.questdb.griffin.engine.window.WindowFunction;
+import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
+
+public class LagDoubleWindowFunctionFactory implements FunctionFactory {
+
+    static final ArrayColumnTypes LAG_COLUMN_TYPES;
+    private static final String NAME = "lag";
+    private static final String SIGNATURE = NAME + "(DV)";
+
+    @Override
+    public String getSignature() {
+        return SIGNATURE;
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final WindowContext windowContext = sqlExecutionContext.getWindowContext();
+        if (windowContext.isEmpty()) {
+            throw SqlException.emptyWindowContext(position);
+        }
+
+        final long offset = getOffset(args, argPositions);
+        final Function defaultValue = getDefaultValue(args, argPositions, getValueType());
+        final int valueType = getValueType(getValueType(), defaultValue);
+
+        Map map = null;
+        MemoryARW mem = null;
+        try {
+            mem = Vm.getARWInstance(
+                    configuration.getSqlWindowStorePageSize(),
+                    configuration.getSqlWindowStoreMaxPages(),
+                    MemoryTag.NATIVE_CIRCULAR_BUFFER
+            );
+            if (windowContext.getPartitionByRecord() != null) {
+                map = MapFactory.createUnorderedMap(
+                        configuration,
+                        windowContext.getPartitionByKeyTypes(),
+                        LAG_COLUMN_TYPES
+                );
+                return WindowFunctionUtils.wrap(
+                        new LagOverPartitionFunction(
+                                map,
+                                windowContext.getPartitionByRecord(),
+                                windowContext.getPartitionBySink(),
+                                args.getQuick(0),
+                                valueType,
+                                offset,
+                                defaultValue,
+                                mem
+                        ),
+                        valueType
+                );
+            }
+            return WindowFunctionUtils.wrap(new LagFunction(args.getQuick(0), valueType, offset, defaultValue, mem), valueType);
+        } catch (Throwable th) {
+            Misc.free(map);
+            Misc.free(mem);
+            throw th;
+        }
+    }
+
+    static @Nullable Function getDefaultValue(ObjList<Function> args, IntList argPositions, int valueType) throws SqlException {
+        if (args.size() < 3) {
+            return null;
+        }
+        final Function defaultValue = args.getQuick(2);
+        switch (ColumnType.tagOf(defaultValue.getType())) {
+            case ColumnType.NULL:
+                return defaultValue;
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                if (valueType != ColumnType.TIMESTAMP) {
+                    return defaultValue;
+                }
+                break;
+            case ColumnType.TIMESTAMP:
+                if (valueType == ColumnType.TIMESTAMP) {
+                    return defaultValue;
+                }
+                break;
+            default:
+                break;
+        }
+        if (valueType == ColumnType.TIMESTAMP) {
+            throw SqlException.position(argPositions.getQuick(2)).put("default value must be a timestamp");
+        }
+        throw SqlException.position(argPositions.getQuick(2)).put("default value must be numeric");
+    }
+
+    static long getOffset(ObjList<Function> args, IntList argPositions) throws SqlException {
+        if (args.size() > 3) {
+            throw SqlException.position(argPositions.getQuick(3)).put("too many arguments");
+        }
+        if (args.size() < 2) {
+            return 1;
+        }
+        final Function offsetFunc = args.getQuick(1);
+        final int offsetPosition = argPositions.getQuick(1);
+        if (!offsetFunc.isConstant()) {
+            throw SqlException.position(offsetPosition).put("offset must be a constant");
+        }
+        final long offset;
+        switch (ColumnType.tagOf(offsetFunc.getType())) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+                offset = offsetFunc.getLong(null);
+                break;
+            default:
+                throw SqlException.position(offsetPosition).put("offset must be an integer");
+        }
+        if (offset < 0 || offset == Numbers.LONG_NULL) {
+            throw SqlException.position(offsetPosition).put("offset must be a non-negative integer");
+        }
+        return offset;
+    }
+
+    // long values with a fractional default value are returned as doubles
+    static int getValueType(int valueType, @Nullable Function defaultValue) {
+        if (valueType == ColumnType.LONG && defaultValue != null) {
+            final short defaultType = ColumnType.tagOf(defaultValue.getType());
+            if (defaultType == ColumnType.FLOAT || defaultType == ColumnType.DOUBLE) {
+                return ColumnType.DOUBLE;
+            }
+        }
+        return valueType;
+    }
+
+    static void toPlan(PlanSink sink, String name, Function arg, long offset, @Nullable Function defaultValue) {
+        sink.val(name);
+        sink.val('(').val(arg).val(", ").val(offset);
+        if (defaultValue != null) {
+            sink.val(", ").val(defaultValue);
+        }
+        sink.val(')');
+    }
+
+    protected int getValueType() {
+        return ColumnType.DOUBLE;
+    }
+
+    // lag() over () - previous values are kept in a queue no longer than the offset
+    static class LagFunction extends BaseLongWindowFunction implements Reopenable {
+        private final LongLongDeque buffer = new LongLongDeque();
+        private final Function defaultValue;
+        private final MemoryARW memory;
+        private final long offset;
+        private final int valueType;
+        private long value;
+
+        LagFunction(Function arg, int valueType, long offset, @Nullable Function defaultValue, MemoryARW memory) {
+            super(arg);
+            this.valueType = valueType;
+            this.offset = offset;
+            this.defaultValue = defaultValue;
+            this.memory = memory;
+            buffer.of(memory, Math.min(offset + 1, 1024));
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            Misc.free(defaultValue);
+            memory.close();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            buffer.addLast(0, WindowFunctionUtils.getValue(arg, record, valueType));
+            if (buffer.size() > offset) {
+                value = buffer.peekFirstValue();
+                buffer.pollFirst();
+            } else {
+                value = defaultValue != null ? WindowFunctionUtils.getValue(defaultValue, record, valueType) : WindowFunctionUtils.getNull(valueType);
+            }
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return value;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            super.init(symbolTableSource, executionContext);
+            if (defaultValue != null) {
+                defaultValue.init(symbolTableSource, executionContext);
+            }
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), value);
+        }
+
+        @Override
+        public void reopen() {
+            buffer.clear();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+            buffer.reset();
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            LagDoubleWindowFunctionFactory.toPlan(sink, NAME, arg, offset, defaultValue);
+            sink.val(" over ()");
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            memory.truncate();
+            buffer.reset();
+        }
+    }
+
+    // lag() over (partition by x) - previous values of each partition are kept in its own queue
+    static class LagOverPartitionFunction extends BasePartitionedLongWindowFunction {
+        private final LongLongDeque buffer = new LongLongDeque();
+        private final Function defaultValue;
+        private final MemoryARW memory;
+        private final long offset;
+        private final int valueType;
+        private long value;
+
+        LagOverPartitionFunction(
+                Map map,
+                VirtualRecord partitionByRecord,
+                RecordSink partitionBySink,
+                Function arg,
+                int valueType,
+                long offset,
+                @Nullable Function defaultValue,
+                MemoryARW memory
+        ) {
+            super(map, partitionByRecord, partitionBySink, arg);
+            this.valueType = valueType;
+            this.offset = offset;
+            this.defaultValue = defaultValue;
+            this.memory = memory;
+            buffer.of(memory, Math.min(offset + 1, 16));
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            Misc.free(defaultValue);
+            memory.close();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue mapValue = key.createValue();
+            if (mapValue.isNew()) {
+                buffer.reset();
+            } else {
+                buffer.load(mapValue, 0);
+            }
+            buffer.addLast(0, WindowFunctionUtils.getValue(arg, record, valueType));
+            if (buffer.size() > offset) {
+                value = buffer.peekFirstValue();
+                buffer.pollFirst();
+            } else {
+                value = defaultValue != null ? WindowFunctionUtils.getValue(defaultValue, record, valueType) : WindowFunctionUtils.getNull(valueType);
+            }
+            buffer.save(mapValue, 0);
+        }
+
+        @Override
+        public long getLong(Record rec) {
+            return value;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ZERO_PASS;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            super.init(symbolTableSource, executionContext);
+            if (defaultValue != null) {
+                defaultValue.init(symbolTableSource, executionContext);
+            }
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), value);
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            LagDoubleWindowFunctionFactory.toPlan(sink, NAME, arg, offset, defaultValue);
+            sink.val(" over (");
+            sink.val("partition by ");
+            sink.val(partitionByRecord.getFunctions());
+            sink.val(')');
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            memory.truncate();
+        }
+    }
+
+    static {
+        LAG_COLUMN_TYPES = new ArrayColumnTypes();
+        for (int i = 0; i < LongLongDeque.STATE_LONGS; i++) {
+            LAG_COLUMN_TYPES.add(ColumnType.LONG); // queue state
+        }
+    }
+}
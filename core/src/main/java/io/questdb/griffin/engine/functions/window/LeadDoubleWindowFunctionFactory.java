@@ -0,0 +1,311 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.window.WindowContext;
+import io.questdb.griffin.engine.window.WindowFunction;
+import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
+
+public class LeadDoubleWindowFunctionFactory implements FunctionFactory {
+
+    private static final String NAME = "lead";
+    private static final String SIGNATURE = NAME + "(DV)";
+
+    @Override
+    public String getSignature() {
+        return SIGNATURE;
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final WindowContext windowContext = sqlExecutionContext.getWindowContext();
+        if (windowContext.isEmpty()) {
+            throw SqlException.emptyWindowContext(position);
+        }
+
+        final long offset = LagDoubleWindowFunctionFactory.getOffset(args, argPositions);
+        final Function defaultValue = LagDoubleWindowFunctionFactory.getDefaultValue(args, argPositions, getValueType());
+        final int valueType = LagDoubleWindowFunctionFactory.getValueType(getValueType(), defaultValue);
+
+        Map map = null;
+        MemoryARW mem = null;
+        try {
+            mem = Vm.getARWInstance(
+                    configuration.getSqlWindowStorePageSize(),
+                    configuration.getSqlWindowStoreMaxPages(),
+                    MemoryTag.NATIVE_CIRCULAR_BUFFER
+            );
+            if (windowContext.getPartitionByRecord() != null) {
+                map = MapFactory.createUnorderedMap(
+                        configuration,
+                        windowContext.getPartitionByKeyTypes(),
+                        LagDoubleWindowFunctionFactory.LAG_COLUMN_TYPES
+                );
+                return WindowFunctionUtils.wrap(
+                        new LeadOverPartitionFunction(
+                                map,
+                                windowContext.getPartitionByRecord(),
+                                windowContext.getPartitionBySink(),
+                                args.getQuick(0),
+                                valueType,
+                                offset,
+                                defaultValue,
+                                mem
+                        ),
+                        valueType
+                );
+            }
+            return WindowFunctionUtils.wrap(new LeadFunction(args.getQuick(0), valueType, offset, defaultValue, mem), valueType);
+        } catch (Throwable th) {
+            Misc.free(map);
+            Misc.free(mem);
+            throw th;
+        }
+    }
+
+    // Writes the default value to the current row first. Offsets of the rows that wait for their
+    // lead value are kept in a queue, and the value of the current row is written to the row
+    // that is offset rows behind it.
+    private static void pass1(
+            LongLongDeque buffer,
+            Function arg,
+            int valueType,
+            long offset,
+            @Nullable Function defaultValue,
+            Record record,
+            long recordOffset,
+            WindowSPI spi,
+            int columnIndex
+    ) {
+        final long value = WindowFunctionUtils.getValue(arg, record, valueType);
+        if (offset == 0) {
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), value);
+            return;
+        }
+        final long defaultVal = defaultValue != null ? WindowFunctionUtils.getValue(defaultValue, record, valueType) : WindowFunctionUtils.getNull(valueType);
+        Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), defaultVal);
+        buffer.addLast(recordOffset, 0);
+        if (buffer.size() > offset) {
+            Unsafe.getUnsafe().putLong(spi.getAddress(buffer.peekFirstKey(), columnIndex), value);
+            buffer.pollFirst();
+        }
+    }
+
+    protected int getValueType() {
+        return ColumnType.DOUBLE;
+    }
+
+    // lead() over ()
+    static class LeadFunction extends BaseLongWindowFunction implements Reopenable {
+        private final LongLongDeque buffer = new LongLongDeque();
+        private final Function defaultValue;
+        private final MemoryARW memory;
+        private final long offset;
+        private final int valueType;
+
+        LeadFunction(Function arg, int valueType, long offset, @Nullable Function defaultValue, MemoryARW memory) {
+            super(arg);
+            this.valueType = valueType;
+            this.offset = offset;
+            this.defaultValue = defaultValue;
+            this.memory = memory;
+            buffer.of(memory, Math.min(offset + 1, 1024));
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            Misc.free(defaultValue);
+            memory.close();
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ONE_PASS;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            super.init(symbolTableSource, executionContext);
+            if (defaultValue != null) {
+                defaultValue.init(symbolTableSource, executionContext);
+            }
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            LeadDoubleWindowFunctionFactory.pass1(buffer, arg, valueType, offset, defaultValue, record, recordOffset, spi, columnIndex);
+        }
+
+        @Override
+        public void reopen() {
+            buffer.clear();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+            buffer.reset();
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            LagDoubleWindowFunctionFactory.toPlan(sink, NAME, arg, offset, defaultValue);
+            sink.val(" over ()");
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            memory.truncate();
+            buffer.reset();
+        }
+    }
+
+    // lead() over (partition by x)
+    static class LeadOverPartitionFunction extends BasePartitionedLongWindowFunction {
+        private final LongLongDeque buffer = new LongLongDeque();
+        private final Function defaultValue;
+        private final MemoryARW memory;
+        private final long offset;
+        private final int valueType;
+
+        LeadOverPartitionFunction(
+                Map map,
+                VirtualRecord partitionByRecord,
+                RecordSink partitionBySink,
+                Function arg,
+                int valueType,
+                long offset,
+                @Nullable Function defaultValue,
+                MemoryARW memory
+        ) {
+            super(map, partitionByRecord, partitionBySink, arg);
+            this.valueType = valueType;
+            this.offset = offset;
+            this.defaultValue = defaultValue;
+            this.memory = memory;
+            buffer.of(memory, Math.min(offset + 1, 16));
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            Misc.free(defaultValue);
+            memory.close();
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.ONE_PASS;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            super.init(symbolTableSource, executionContext);
+            if (defaultValue != null) {
+                defaultValue.init(symbolTableSource, executionContext);
+            }
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue mapValue = key.createValue();
+            if (mapValue.isNew()) {
+                buffer.reset();
+            } else {
+                buffer.load(mapValue, 0);
+            }
+            LeadDoubleWindowFunctionFactory.pass1(buffer, arg, valueType, offset, defaultValue, record, recordOffset, spi, columnIndex);
+            buffer.save(mapValue, 0);
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            memory.close();
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            LagDoubleWindowFunctionFactory.toPlan(sink, NAME, arg, offset, defaultValue);
+            sink.val(" over (");
+            sink.val("partition by ");
+            sink.val(partitionByRecord.getFunctions());
+            sink.val(')');
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            memory.truncate();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.std.Vect;
+
+/**
+ * Flyweight double-ended queue of (long key, long value) entries kept in a ring buffer
+ * within the given memory. The key is either a row number or a timestamp, the value holds
+ * the raw bits of a long, timestamp or double value, see {@link WindowFunctionUtils}. Entries are
+ * appended at the tail and removed at both ends, which is what monotonic deques used by
+ * sliding window aggregates need.
+ * <p>
+ * The state of the deque is four longs (offset, capacity, head and size), so that
+ * per-partition deques may be kept in map values. The buffer is allocated on first insert
+ * and doubles when full; the old buffer is abandoned until the memory is truncated.
+ */
+final class LongLongDeque {
+    static final int STATE_LONGS = 4;
+    private static final int ENTRY_SIZE = 2 * Long.BYTES;
+    private long capacity;
+    private long head;
+    private long initialCapacity;
+    private MemoryARW memory;
+    private long offset;
+    private long size;
+
+    void addLast(long key, long value) {
+        if (size == capacity) {
+            grow();
+        }
+        final long entryOffset = entryOffset(size);
+        memory.putLong(entryOffset, key);
+        memory.putLong(entryOffset + Long.BYTES, value);
+        size++;
+    }
+
+    void clear() {
+        // keeps the buffer, if any
+        head = 0;
+        size = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void load(MapValue value, int index) {
+        offset = value.getLong(index);
+        capacity = value.getLong(index + 1);
+        head = value.getLong(index + 2);
+        size = value.getLong(index + 3);
+    }
+
+    /**
+     * Makes the deque empty. The buffer is allocated in the memory on first insert.
+     */
+    void of(MemoryARW memory, long initialCapacity) {
+        this.memory = memory;
+        this.initialCapacity = Math.max(initialCapacity, 1);
+        offset = 0;
+        capacity = 0;
+        head = 0;
+        size = 0;
+    }
+
+    long peekFirstKey() {
+        return memory.getLong(entryOffset(0));
+    }
+
+    long peekFirstValue() {
+        return memory.getLong(entryOffset(0) + Long.BYTES);
+    }
+
+    long peekLastKey() {
+        return memory.getLong(entryOffset(size - 1));
+    }
+
+    long peekLastValue() {
+        return memory.getLong(entryOffset(size - 1) + Long.BYTES);
+    }
+
+    void pollFirst() {
+        head = (head + 1) % capacity;
+        size--;
+    }
+
+    void pollLast() {
+        size--;
+    }
+
+    /**
+     * Detaches the deque from its buffer, the next insert allocates a new one.
+     */
+    void reset() {
+        offset = 0;
+        capacity = 0;
+        head = 0;
+        size = 0;
+    }
+
+    void save(MapValue value, int index) {
+        value.putLong(index, offset);
+        value.putLong(index + 1, capacity);
+        value.putLong(index + 2, head);
+        value.putLong(index + 3, size);
+    }
+
+    long size() {
+        return size;
+    }
+
+    private long entryOffset(long index) {
+        return offset + ((head + index) % capacity) * ENTRY_SIZE;
+    }
+
+    private void grow() {
+        if (capacity == 0) {
+            capacity = initialCapacity;
+            offset = memory.appendAddressFor(capacity * ENTRY_SIZE) - memory.getPageAddress(0);
+            return;
+        }
+        final long newCapacity = capacity << 1;
+        final long newAddress = memory.appendAddressFor(newCapacity * ENTRY_SIZE);
+        // the call above may remap the memory, so the old address is computed after it
+        final long oldAddress = memory.getPageAddress(0) + offset;
+        final long firstPieceSize = (capacity - head) * ENTRY_SIZE;
+        Vect.memcpy(newAddress, oldAddress + head * ENTRY_SIZE, firstPieceSize);
+        Vect.memcpy(newAddress + firstPieceSize, oldAddress, head * ENTRY_SIZE);
+        offset = newAddress - memory.getPageAddress(0);
+        capacity = newCapacity;
+        head = 0;
+    }
+}
@@ -0,0 +1,197 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.window.WindowContext;
+import io.questdb.griffin.engine.window.WindowFunction;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+public class NtileFunctionFactory implements FunctionFactory {
+
+    private static final ArrayColumnTypes NTILE_COLUMN_TYPES;
+    private static final String NAME = "ntile";
+    private static final String SIGNATURE = NAME + "(i)";
+
+    @Override
+    public String getSignature() {
+        return SIGNATURE;
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final WindowContext windowContext = sqlExecutionContext.getWindowContext();
+        if (windowContext.isEmpty()) {
+            throw SqlException.emptyWindowContext(position);
+        }
+
+        final long buckets = args.getQuick(0).getInt(null);
+        if (buckets <= 0) {
+            throw SqlException.$(argPositions.getQuick(0), "bucket count must be a positive integer");
+        }
+
+        if (windowContext.getPartitionByRecord() != null) {
+            Map map = MapFactory.createUnorderedMap(configuration, windowContext.getPartitionByKeyTypes(), NTILE_COLUMN_TYPES);
+            return new NtileOverPartitionFunction(
+                    map,
+                    windowContext.getPartitionByRecord(),
+                    windowContext.getPartitionBySink(),
+                    args.getQuick(0),
+                    buckets
+            );
+        }
+        return new NtileFunction(args.getQuick(0), buckets);
+    }
+
+    // Returns 1-based bucket of the row with the given 0-based number out of rowCount rows.
+    // Bucket sizes differ by at most one, and larger buckets come first.
+    static long bucketOf(long rowNumber, long rowCount, long buckets) {
+        final long size = rowCount / buckets;
+        final long remainder = rowCount % buckets;
+        final long largeBucketRows = remainder * (size + 1);
+        if (rowNumber < largeBucketRows) {
+            return rowNumber / (size + 1) + 1;
+        }
+        return remainder + (rowNumber - largeBucketRows) / size + 1;
+    }
+
+    // ntile(n) over () - pass1 stores the row number in the output column, pass2 replaces it with the bucket
+    static class NtileFunction extends BaseLongWindowFunction {
+        private final long buckets;
+        private long rowCount;
+
+        NtileFunction(Function arg, long buckets) {
+            super(arg);
+            this.buckets = buckets;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.TWO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), rowCount++);
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            final long address = spi.getAddress(recordOffset, columnIndex);
+            Unsafe.getUnsafe().putLong(address, bucketOf(Unsafe.getUnsafe().getLong(address), rowCount, buckets));
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            rowCount = 0;
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            rowCount = 0;
+        }
+    }
+
+    // ntile(n) over (partition by x) - same as above with row counts kept per partition
+    static class NtileOverPartitionFunction extends BasePartitionedLongWindowFunction {
+        private final long buckets;
+
+        NtileOverPartitionFunction(Map map, VirtualRecord partitionByRecord, RecordSink partitionBySink, Function arg, long buckets) {
+            super(map, partitionByRecord, partitionBySink, arg);
+            this.buckets = buckets;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public int getPassCount() {
+            return WindowFunction.TWO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue value = key.createValue();
+            final long rowNumber = value.isNew() ? 0 : value.getLong(0);
+            value.putLong(0, rowNumber + 1);
+            Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), rowNumber);
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            partitionByRecord.of(record);
+            MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            MapValue value = key.findValue();
+            final long address = spi.getAddress(recordOffset, columnIndex);
+            Unsafe.getUnsafe().putLong(address, bucketOf(Unsafe.getUnsafe().getLong(address), value.getLong(0), buckets));
+        }
+    }
+
+    static {
+        NTILE_COLUMN_TYPES = new ArrayColumnTypes();
+        NTILE_COLUMN_TYPES.add(ColumnType.LONG); // number of rows in partition
+    }
+}
@@ -0,0 +1,236 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.vm.api.MemoryARW;
+
+/**
+ * State of a [x preceding | unbounded preceding] to [y preceding | current row] frame for window
+ * functions that depend on the maximum, the minimum, the last or the number of values in the frame.
+ * Frame keys are row numbers in ROWS mode and timestamps in RANGE mode.
+ * <p>
+ * Values that are not yet in the frame wait in the pending queue. Once they enter the frame they
+ * move to the frame deque: max() and min() keep it monotonic, so that the frame value is always
+ * at its head and every value is added and removed once, last_value() keeps the single newest
+ * value and count() keeps all of them. When the frame start is unbounded nothing ever leaves
+ * the frame, and a single running value is kept instead of the frame deque.
+ * <p>
+ * Values are kept as raw longs of the given value type, see {@link WindowFunctionUtils}. The state
+ * may be saved to and loaded from a map value, see {@link #COLUMN_TYPES}, so that one instance
+ * serves all partitions.
+ */
+final class SlidingWindowFrame {
+    static final ArrayColumnTypes COLUMN_TYPES;
+    static final int KIND_COUNT = 0;
+    static final int KIND_LAST = 1;
+    static final int KIND_MAX = 2;
+    static final int KIND_MIN = 3;
+    private static final int AGGREGATE_INDEX = 1;
+    private static final int COUNT_INDEX = 2;
+    private static final int FRAME_INDEX = COUNT_INDEX + 1 + LongLongDeque.STATE_LONGS;
+    private static final int PENDING_INDEX = COUNT_INDEX + 1;
+    private static final int ROW_INDEX = 0;
+    private final LongLongDeque frame = new LongLongDeque();
+    private final boolean frameLoBounded;
+    private final int kind;
+    private final long maxDiff;
+    private final long minDiff;
+    private final long nullValue;
+    private final LongLongDeque pending = new LongLongDeque();
+    private final int valueType;
+    // running value of the frame when its start is unbounded
+    private long aggregate;
+    private long count;
+    private long rowCount;
+
+    SlidingWindowFrame(int kind, int valueType, long rowsLo, long rowsHi) {
+        this.kind = kind;
+        this.valueType = valueType;
+        nullValue = WindowFunctionUtils.getNull(valueType);
+        frameLoBounded = rowsLo != Long.MIN_VALUE;
+        maxDiff = frameLoBounded ? Math.abs(rowsLo) : Long.MAX_VALUE;
+        minDiff = Math.abs(rowsHi);
+        clear();
+    }
+
+    /**
+     * Adds the current row to a RANGE frame and slides the frame to it.
+     *
+     * @param key   timestamp of the current row
+     * @param value value of the current row, null values are not counted by count(), max() and min()
+     */
+    void add(long key, long value) {
+        if (kind == KIND_LAST || !WindowFunctionUtils.isNull(value, valueType)) {
+            if (minDiff == 0) {
+                enter(key, value);
+            } else {
+                pending.addLast(key, value);
+            }
+        }
+
+        final long hi = key - minDiff;
+        while (!pending.isEmpty() && pending.peekFirstKey() <= hi) {
+            enter(pending.peekFirstKey(), pending.peekFirstValue());
+            pending.pollFirst();
+        }
+
+        if (frameLoBounded) {
+            final long lo = key - maxDiff;
+            while (!frame.isEmpty() && frame.peekFirstKey() < lo) {
+                frame.pollFirst();
+            }
+        }
+    }
+
+    /**
+     * Adds the current row to a ROWS frame and slides the frame to it.
+     */
+    void addRow(long value) {
+        add(rowCount++, value);
+    }
+
+    void clear() {
+        aggregate = nullValue;
+        count = 0;
+        rowCount = 0;
+        frame.clear();
+        pending.clear();
+    }
+
+    long getCount() {
+        return frameLoBounded ? frame.size() : count;
+    }
+
+    /**
+     * Returns raw value of the frame, i.e. its maximum, minimum or last value.
+     */
+    long getValue() {
+        if (frameLoBounded) {
+            return frame.isEmpty() ? nullValue : frame.peekFirstValue();
+        }
+        return aggregate;
+    }
+
+    int getValueType() {
+        return valueType;
+    }
+
+    boolean isFrameLoBounded() {
+        return frameLoBounded;
+    }
+
+    void load(MapValue value) {
+        if (value.isNew()) {
+            clear();
+            frame.reset();
+            pending.reset();
+        } else {
+            rowCount = value.getLong(ROW_INDEX);
+            aggregate = value.getLong(AGGREGATE_INDEX);
+            count = value.getLong(COUNT_INDEX);
+            pending.load(value, PENDING_INDEX);
+            frame.load(value, FRAME_INDEX);
+        }
+    }
+
+    long maxDiff() {
+        return maxDiff;
+    }
+
+    long minDiff() {
+        return minDiff;
+    }
+
+    SlidingWindowFrame of(MemoryARW memory, long initialCapacity) {
+        frame.of(memory, initialCapacity);
+        pending.of(memory, initialCapacity);
+        return this;
+    }
+
+    void save(MapValue value) {
+        value.putLong(ROW_INDEX, rowCount);
+        value.putLong(AGGREGATE_INDEX, aggregate);
+        value.putLong(COUNT_INDEX, count);
+        pending.save(value, PENDING_INDEX);
+        frame.save(value, FRAME_INDEX);
+    }
+
+    private void enter(long key, long value) {
+        if (!frameLoBounded) {
+            switch (kind) {
+                case KIND_COUNT:
+                    count++;
+                    break;
+                case KIND_LAST:
+                    aggregate = value;
+                    break;
+                case KIND_MAX:
+                    if (aggregate == nullValue || WindowFunctionUtils.isGreater(value, aggregate, valueType)) {
+                        aggregate = value;
+                    }
+                    break;
+                default:
+                    if (aggregate == nullValue || WindowFunctionUtils.isGreater(aggregate, value, valueType)) {
+                        aggregate = value;
+                    }
+                    break;
+            }
+            return;
+        }
+
+        switch (kind) {
+            case KIND_LAST:
+                frame.clear();
+                break;
+            case KIND_MAX:
+                // values that are not greater than the new one will never be the frame maximum again
+                while (!frame.isEmpty() && !WindowFunctionUtils.isGreater(frame.peekLastValue(), value, valueType)) {
+                    frame.pollLast();
+                }
+                break;
+            case KIND_MIN:
+                while (!frame.isEmpty() && !WindowFunctionUtils.isGreater(value, frame.peekLastValue(), valueType)) {
+                    frame.pollLast();
+                }
+                break;
+            default:
+                break;
+        }
+        frame.addLast(key, value);
+    }
+
+    static {
+        COLUMN_TYPES = new ArrayColumnTypes();
+        COLUMN_TYPES.add(ColumnType.LONG);   // number of rows seen in the partition, ROWS mode key
+        COLUMN_TYPES.add(ColumnType.LONG);   // running raw value when frame start is unbounded
+        COLUMN_TYPES.add(ColumnType.LONG);   // running count when frame start is unbounded
+        for (int i = 0; i < 2 * LongLongDeque.STATE_LONGS; i++) {
+            COLUMN_TYPES.add(ColumnType.LONG); // pending queue and frame deque state
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.window;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.ScalarFunction;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.TimestampFunction;
+import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
+import io.questdb.griffin.engine.window.WindowFunction;
+import io.questdb.std.IntList;
+import io.questdb.std.Numbers;
+
+/**
+ * Window functions that only move values around, such as max(), min(), last_value(), lag()
+ * and lead(), are implemented once for long, timestamp and double arguments. They keep
+ * values as raw 64-bit longs: longs and timestamps as they are and doubles as their bits,
+ * so that long and timestamp values above 2^53 are not rounded. The function computing
+ * the raw value is a long function, and {@link #wrap(BaseLongWindowFunction, int)} gives
+ * it the type of the value.
+ */
+final class WindowFunctionUtils {
+    private static final long DOUBLE_NULL = Double.doubleToRawLongBits(Double.NaN);
+
+    private WindowFunctionUtils() {
+    }
+
+    static long getNull(int valueType) {
+        return valueType == ColumnType.DOUBLE ? DOUBLE_NULL : Numbers.LONG_NULL;
+    }
+
+    static long getValue(Function arg, Record record, int valueType) {
+        switch (valueType) {
+            case ColumnType.DOUBLE:
+                return Double.doubleToRawLongBits(arg.getDouble(record));
+            case ColumnType.TIMESTAMP:
+                return arg.getTimestamp(record);
+            default:
+                return arg.getLong(record);
+        }
+    }
+
+    static boolean isGreater(long value, long other, int valueType) {
+        if (valueType == ColumnType.DOUBLE) {
+            return Double.longBitsToDouble(value) > Double.longBitsToDouble(other);
+        }
+        return value > other;
+    }
+
+    static boolean isNull(long value, int valueType) {
+        if (valueType == ColumnType.DOUBLE) {
+            return !Numbers.isFinite(Double.longBitsToDouble(value));
+        }
+        return value == Numbers.LONG_NULL;
+    }
+
+    static Function wrap(BaseLongWindowFunction function, int valueType) {
+        switch (valueType) {
+            case ColumnType.DOUBLE:
+                return new DoubleWindowFunction(function);
+            case ColumnType.TIMESTAMP:
+                return new TimestampWindowFunction(function);
+            default:
+                return function;
+        }
+    }
+
+    private static class DoubleWindowFunction extends DoubleFunction implements WindowFunction, ScalarFunction, Reopenable {
+        private final BaseLongWindowFunction function;
+
+        private DoubleWindowFunction(BaseLongWindowFunction function) {
+            this.function = function;
+        }
+
+        @Override
+        public void close() {
+            function.close();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            function.computeNext(record);
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return Double.longBitsToDouble(function.getLong(rec));
+        }
+
+        @Override
+        public String getName() {
+            return function.getName();
+        }
+
+        @Override
+        public int getPassCount() {
+            return function.getPassCount();
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            function.init(symbolTableSource, executionContext);
+        }
+
+        @Override
+        public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+            function.initRecordComparator(recordComparatorCompiler, chainTypes, order);
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            function.pass1(record, recordOffset, spi);
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            function.pass2(record, recordOffset, spi);
+        }
+
+        @Override
+        public void preparePass2() {
+            function.preparePass2();
+        }
+
+        @Override
+        public void reopen() {
+            if (function instanceof Reopenable) {
+                ((Reopenable) function).reopen();
+            }
+        }
+
+        @Override
+        public void reset() {
+            function.reset();
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            function.setColumnIndex(columnIndex);
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            function.toPlan(sink);
+        }
+
+        @Override
+        public void toTop() {
+            function.toTop();
+        }
+    }
+
+    private static class TimestampWindowFunction extends TimestampFunction implements WindowFunction, ScalarFunction, Reopenable {
+        private final BaseLongWindowFunction function;
+
+        private TimestampWindowFunction(BaseLongWindowFunction function) {
+            this.function = function;
+        }
+
+        @Override
+        public void close() {
+            function.close();
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            function.computeNext(record);
+        }
+
+        @Override
+        public String getName() {
+            return function.getName();
+        }
+
+        @Override
+        public int getPassCount() {
+            return function.getPassCount();
+        }
+
+        @Override
+        public long getTimestamp(Record rec) {
+            return function.getLong(rec);
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            function.init(symbolTableSource, executionContext);
+        }
+
+        @Override
+        public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+            function.initRecordComparator(recordComparatorCompiler, chainTypes, order);
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, WindowSPI spi) {
+            function.pass1(record, recordOffset, spi);
+        }
+
+        @Override
+        public void pass2(Record record, long recordOffset, WindowSPI spi) {
+            function.pass2(record, recordOffset, spi);
+        }
+
+        @Override
+        public void preparePass2() {
+            function.preparePass2();
+        }
+
+        @Override
+        public void reopen() {
+            if (function instanceof Reopenable) {
+                ((Reopenable) function).reopen();
+            }
+        }
+
+        @Override
+        public void reset() {
+            function.reset();
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            function.setColumnIndex(columnIndex);
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            function.toPlan(sink);
+        }
+
+        @Override
+        public void toTop() {
+            function.toTop();
+        }
+    }
+}
@@ -25,7 +25,6 @@
 package io.questdb.griffin.engine.groupby;
 
 import io.questdb.std.QuietCloseable;
-import org.jetbrains.annotations.TestOnly;
 
 /**
  * Specialized allocator used in GROUP BY functions.
@@ -37,7 +36,6 @@ public interface GroupByAllocator extends QuietCloseable {
     /**
      * @return allocated chunks total (bytes).
      */
-    @TestOnly
     long allocated();
 
     /**
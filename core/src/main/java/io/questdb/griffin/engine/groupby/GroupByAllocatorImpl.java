@@ -26,7 +26,6 @@ package io.questdb.griffin.engine.groupby;
 
 import io.questdb.std.ObjList;
 import io.questdb.std.ThreadLocal;
-import org.jetbrains.annotations.TestOnly;
 
 /**
  * Thread-safe allocator implementation. Uses thread-local {@link GroupByAllocatorArena}s.
@@ -54,7 +53,6 @@ public class GroupByAllocatorImpl implements GroupByAllocator {
      * Returns allocated chunks total, in bytes. This method is not thread-safe
      * and shouldn't be called concurrently with any alloc/free calls.
      */
-    @TestOnly
     @Override
     public long allocated() {
         long allocated = 0;
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+/**
+ * Specialized flyweight bit set used in {@link io.questdb.griffin.engine.functions.GroupByFunction}s.
+ * Suits dense non-negative int keys, e.g. symbol keys.
+ * <p>
+ * Uses provided {@link GroupByAllocatorImpl} to allocate the underlying buffer. Grows the buffer when needed.
+ * <p>
+ * Buffer layout is the following:
+ * <pre>
+ * | capacity (in longs) | size (in set bits) | long array |
+ * +---------------------+--------------------+------------+
+ * |       4 bytes       |       4 bytes      |     -      |
+ * +---------------------+--------------------+------------+
+ * </pre>
+ */
+public class GroupByBitSet {
+    private static final long HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int MIN_INITIAL_CAPACITY = 4;
+    private static final long SIZE_OFFSET = Integer.BYTES;
+    private final int initialCapacity;
+    private GroupByAllocator allocator;
+    private long ptr;
+
+    public GroupByBitSet(int initialCapacity) {
+        this.initialCapacity = Numbers.ceilPow2(Math.max(initialCapacity, MIN_INITIAL_CAPACITY));
+    }
+
+    public int capacity() {
+        return ptr != 0 ? Unsafe.getUnsafe().getInt(ptr) : 0;
+    }
+
+    public boolean get(int bit) {
+        final int wordIndex = bit >>> 6;
+        return wordIndex < capacity() && (wordAt(wordIndex) & (1L << bit)) != 0;
+    }
+
+    /**
+     * Sets all bits that are set in the given bit set.
+     *
+     * @param srcSet bit set to be merged into this one.
+     */
+    public void merge(GroupByBitSet srcSet) {
+        final int srcCapacity = srcSet.capacity();
+        if (capacity() < srcCapacity) {
+            resize(srcCapacity);
+        }
+
+        int size = size();
+        for (int i = 0; i < srcCapacity; i++) {
+            final long srcWord = srcSet.wordAt(i);
+            if (srcWord != 0) {
+                final long word = wordAt(i);
+                size += Long.bitCount(srcWord & ~word);
+                setWordAt(i, word | srcWord);
+            }
+        }
+        Unsafe.getUnsafe().putInt(ptr + SIZE_OFFSET, size);
+    }
+
+    public GroupByBitSet of(long ptr) {
+        if (ptr == 0) {
+            this.ptr = allocator.malloc(HEADER_SIZE + 8L * initialCapacity);
+            Vect.memset(this.ptr + HEADER_SIZE, 8L * initialCapacity, 0);
+            Unsafe.getUnsafe().putInt(this.ptr, initialCapacity);
+            Unsafe.getUnsafe().putInt(this.ptr + SIZE_OFFSET, 0);
+        } else {
+            this.ptr = ptr;
+        }
+        return this;
+    }
+
+    public long ptr() {
+        return ptr;
+    }
+
+    public void resetPtr() {
+        ptr = 0;
+    }
+
+    /**
+     * Sets the given bit.
+     *
+     * @param bit non-negative bit index.
+     * @return false if the bit is already set and true otherwise.
+     */
+    public boolean set(int bit) {
+        final int wordIndex = bit >>> 6;
+        int capacity = capacity();
+        if (wordIndex >= capacity) {
+            while (capacity <= wordIndex) {
+                capacity <<= 1;
+            }
+            resize(capacity);
+        }
+        final long word = wordAt(wordIndex);
+        final long mask = 1L << bit;
+        if ((word & mask) != 0) {
+            return false;
+        }
+        setWordAt(wordIndex, word | mask);
+        Unsafe.getUnsafe().putInt(ptr + SIZE_OFFSET, size() + 1);
+        return true;
+    }
+
+    public void setAllocator(GroupByAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    public int size() {
+        return ptr != 0 ? Unsafe.getUnsafe().getInt(ptr + SIZE_OFFSET) : 0;
+    }
+
+    private void resize(int newCapacity) {
+        if (newCapacity < 0) {
+            throw CairoException.nonCritical().put("bit set capacity overflow");
+        }
+        final int oldCapacity = capacity();
+        ptr = allocator.realloc(ptr, HEADER_SIZE + 8L * oldCapacity, HEADER_SIZE + 8L * newCapacity);
+        Vect.memset(ptr + HEADER_SIZE + 8L * oldCapacity, 8L * (newCapacity - oldCapacity), 0);
+        Unsafe.getUnsafe().putInt(ptr, newCapacity);
+    }
+
+    private void setWordAt(int index, long word) {
+        Unsafe.getUnsafe().putLong(ptr + HEADER_SIZE + 8L * index, word);
+    }
+
+    private long wordAt(int index) {
+        return Unsafe.getUnsafe().getLong(ptr + HEADER_SIZE + 8L * index);
+    }
+}
@@ -46,6 +46,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
     protected final RecordCursorFactory base;
     private final GroupByRecordCursor cursor;
     private final ObjList<GroupByFunction> groupByFunctions;
+    private final boolean isSpillEnabled;
     private final ObjList<Function> keyFunctions;
     // this sink is used to copy recordKeyMap keys to dataMap
     private final RecordSink mapSink;
@@ -72,6 +73,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             // sink will be storing record columns to map key
             this.mapSink = RecordSinkFactory.getInstance(asm, base.getMetadata(), listColumnFilter, keyFunctions, false);
             final GroupByFunctionsUpdater updater = GroupByFunctionsUpdaterFactory.getInstance(asm, groupByFunctions);
+            this.isSpillEnabled = isSpillEnabled(configuration, groupByFunctions);
             this.cursor = new GroupByRecordCursor(configuration, recordFunctions, groupByFunctions, updater, keyTypes, valueTypes);
         } catch (Throwable e) {
             close();
@@ -113,7 +115,8 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
 
     @Override
     public boolean recordCursorSupportsRandomAccess() {
-        return true;
+        // records of a spilled map are only valid within the current partition
+        return !isSpillEnabled;
     }
 
     @Override
@@ -135,6 +138,19 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
         return base.usesIndex();
     }
 
+    private static boolean isSpillEnabled(CairoConfiguration configuration, ObjList<GroupByFunction> groupByFunctions) {
+        if (configuration.getGroupBySpillMemoryBudget() <= 0 || configuration.getSqlSpillRoot() == null) {
+            return false;
+        }
+        // partial values of spilled keys have to be merged, so all functions must support merge
+        for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+            if (!groupByFunctions.getQuick(i).supportsParallelism()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     protected void _close() {
         Misc.freeObjList(recordFunctions); // groupByFunctions are included in recordFunctions
@@ -163,9 +179,11 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             super(functions);
             try {
                 this.isOpen = true;
-                this.dataMap = MapFactory.createUnorderedMap(configuration, keyTypes, valueTypes);
-                this.groupByFunctionsUpdater = groupByFunctionsUpdater;
                 this.allocator = GroupByAllocatorFactory.createThreadUnsafeAllocator(configuration);
+                this.dataMap = isSpillEnabled
+                        ? MapFactory.createSpillableMap(configuration, keyTypes, valueTypes, groupByFunctionsUpdater, allocator)
+                        : MapFactory.createUnorderedMap(configuration, keyTypes, valueTypes);
+                this.groupByFunctionsUpdater = groupByFunctionsUpdater;
                 GroupByUtils.setAllocator(groupByFunctions, allocator);
             } catch (Throwable th) {
                 close();
@@ -118,6 +118,15 @@ public final class GroupByUtf8Sink implements Utf8Sink, Utf8Sequence {
         return this;
     }
 
+    @Override
+    public Utf8Sink putAscii(char c) {
+        checkCapacity(1);
+        final int size = size();
+        Unsafe.getUnsafe().putByte(ptr + HEADER_SIZE + size, (byte) c);
+        Unsafe.getUnsafe().putInt(ptr + SIZE_OFFSET, size + 1);
+        return this;
+    }
+
     @Override
     public Utf8Sink putNonAscii(long lo, long hi) {
         throw new UnsupportedOperationException("not implemented");
@@ -291,6 +291,7 @@ public class GroupByUtils {
             final GroupByFunction workerGroupByFunction = workerGroupByFunctions.getQuick(i);
             final GroupByFunction groupByFunction = groupByFunctions.getQuick(i);
             workerGroupByFunction.initValueIndex(groupByFunction.getValueIndex());
+            workerGroupByFunction.initWorker(groupByFunction);
         }
     }
 
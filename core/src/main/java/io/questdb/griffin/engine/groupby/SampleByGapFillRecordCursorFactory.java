@@ -0,0 +1,764 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.NoRandomAccessRecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.std.BinarySequence;
+import io.questdb.std.Chars;
+import io.questdb.std.IntList;
+import io.questdb.std.Long256;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import io.questdb.std.str.CharSink;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8Sequence;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.griffin.SqlKeywords.*;
+
+/**
+ * Fills gaps between the rows of the non-keyed SAMPLE BY that was rewritten into
+ * a parallel GROUP BY. Base factory must return rows ordered by the bucket timestamp,
+ * so that the gap rows can be streamed without buffering. Leading and trailing gaps
+ * are not filled, this matches the behaviour of the non-keyed serial fill cursors.
+ * When SAMPLE BY has a time zone, gap buckets are stepped in the local time and
+ * converted back to UTC, same as the group-by key.
+ */
+public class SampleByGapFillRecordCursorFactory extends AbstractRecordCursorFactory {
+    static final int FILL_CONSTANT = 1;
+    static final int FILL_LINEAR = 3;
+    static final int FILL_PREV = 2;
+    static final int FILL_TIMESTAMP = 0;
+    private final RecordCursorFactory base;
+    private final SampleByGapFillRecordCursor cursor;
+    private final String fill;
+    private final ObjList<Function> fillFunctions;
+    private final IntList fillModes;
+    private final String stride;
+    private final Function timezoneFunc;
+
+    public SampleByGapFillRecordCursorFactory(
+            RecordCursorFactory base,
+            @NotNull TimestampSampler sampler,
+            @NotNull @Transient ExpressionNode stride,
+            @Nullable Function timezoneFunc,
+            int timezonePos,
+            @NotNull @Transient ObjList<ExpressionNode> fillValues,
+            @Transient IntList columnPositions
+    ) throws SqlException {
+        super(base.getMetadata());
+        assert base.recordCursorSupportsRandomAccess();
+        final RecordMetadata metadata = base.getMetadata();
+        final int timestampIndex = metadata.getTimestampIndex();
+        final int columnCount = metadata.getColumnCount();
+        this.base = base;
+        this.stride = Chars.toString(stride.token);
+        this.timezoneFunc = timezoneFunc;
+        this.fill = toFillString(fillValues);
+        this.fillModes = new IntList(columnCount);
+        this.fillFunctions = new ObjList<>(columnCount);
+        try {
+            int fillIndex = 0;
+            for (int i = 0; i < columnCount; i++) {
+                if (i == timestampIndex) {
+                    fillModes.add(FILL_TIMESTAMP);
+                    fillFunctions.add(null);
+                    continue;
+                }
+                // single fill value applies to all aggregates
+                final ExpressionNode fillNode = fillValues.getQuick(fillValues.size() == 1 ? 0 : fillIndex++);
+                final int type = metadata.getColumnType(i);
+                if (isNullKeyword(fillNode.token)) {
+                    fillModes.add(FILL_CONSTANT);
+                    fillFunctions.add(SampleByFillNullRecordCursorFactory.createPlaceHolderFunction(columnPositions, i, type));
+                } else if (isPrevKeyword(fillNode.token)) {
+                    fillModes.add(FILL_PREV);
+                    fillFunctions.add(null);
+                } else if (isLinearKeyword(fillNode.token)) {
+                    switch (ColumnType.tagOf(type)) {
+                        case ColumnType.BYTE:
+                        case ColumnType.SHORT:
+                        case ColumnType.INT:
+                        case ColumnType.LONG:
+                        case ColumnType.FLOAT:
+                        case ColumnType.DOUBLE:
+                            fillModes.add(FILL_LINEAR);
+                            break;
+                        default:
+                            if (fillValues.size() == 1) {
+                                throw SqlException.$(columnPositions.getQuick(i), "Unsupported interpolation type: ").put(ColumnType.nameOf(type));
+                            }
+                            // value list fill interpolates chars and carries other values forward,
+                            // same as serial sample by
+                            fillModes.add(ColumnType.tagOf(type) == ColumnType.CHAR ? FILL_LINEAR : FILL_PREV);
+                            break;
+                    }
+                    fillFunctions.add(null);
+                } else {
+                    fillModes.add(FILL_CONSTANT);
+                    fillFunctions.add(SampleByFillValueRecordCursorFactory.createPlaceHolderFunction(columnPositions, i, type, fillNode));
+                }
+            }
+            this.cursor = new SampleByGapFillRecordCursor(sampler, timezoneFunc, timezonePos, timestampIndex, fillModes, fillFunctions);
+        } catch (Throwable th) {
+            Misc.freeObjList(fillFunctions);
+            throw th;
+        }
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            cursor.of(baseCursor, executionContext);
+            return cursor;
+        } catch (Throwable th) {
+            cursor.close();
+            throw th;
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Fill");
+        sink.attr("stride").val(stride);
+        if (timezoneFunc != null) {
+            sink.attr("timezone").val(timezoneFunc);
+        }
+        sink.attr("fill").val(fill);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    public boolean usesIndex() {
+        return base.usesIndex();
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        Misc.free(cursor);
+        Misc.freeObjList(fillFunctions);
+        Misc.free(timezoneFunc);
+    }
+
+    private static String toFillString(ObjList<ExpressionNode> fillValues) {
+        if (fillValues.size() == 1) {
+            return Chars.toString(fillValues.getQuick(0).token);
+        }
+        final StringSink sink = new StringSink();
+        sink.put('[');
+        for (int i = 0, n = fillValues.size(); i < n; i++) {
+            if (i > 0) {
+                sink.put(',');
+            }
+            sink.put(fillValues.getQuick(i).token);
+        }
+        sink.put(']');
+        return sink.toString();
+    }
+
+    private static class SampleByGapFillRecordCursor implements NoRandomAccessRecordCursor {
+        private final TimeZoneConverter converter = new TimeZoneConverter();
+        private final ObjList<Function> fillFunctions;
+        private final IntList fillModes;
+        private final GapFillRecord record = new GapFillRecord();
+        private final TimestampSampler sampler;
+        private final int timestampIndex;
+        private final Function timezoneFunc;
+        private final int timezonePos;
+        private RecordCursor baseCursor;
+        private Record baseRecord;
+        private SqlExecutionCircuitBreaker circuitBreaker;
+        // timestamp of the last emitted row, either real or filled
+        private long fillTimestamp;
+        private boolean hasPendingRow;
+        private boolean hasPrevRow;
+        private boolean isGap;
+        private boolean isPrevRecordPositioned;
+        private long pendingTimestamp;
+        private Record prevRecord;
+        private long prevRowId;
+        private long prevTimestamp;
+
+        public SampleByGapFillRecordCursor(
+                TimestampSampler sampler,
+                @Nullable Function timezoneFunc,
+                int timezonePos,
+                int timestampIndex,
+                IntList fillModes,
+                ObjList<Function> fillFunctions
+        ) {
+            this.sampler = sampler;
+            this.timezoneFunc = timezoneFunc;
+            this.timezonePos = timezonePos;
+            this.timestampIndex = timestampIndex;
+            this.fillModes = fillModes;
+            this.fillFunctions = fillFunctions;
+        }
+
+        @Override
+        public void close() {
+            baseCursor = Misc.free(baseCursor);
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return baseCursor.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!hasPendingRow) {
+                if (!baseCursor.hasNext()) {
+                    return false;
+                }
+                hasPendingRow = true;
+                pendingTimestamp = baseRecord.getTimestamp(timestampIndex);
+            }
+
+            if (hasPrevRow) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                // buckets are already aligned by the group-by key, so we can step from the last one;
+                // with a time zone, the step is made in local time to follow DST transitions
+                final long offset = converter.getOffset(fillTimestamp);
+                long nextLocal = sampler.nextTimestamp(fillTimestamp + offset);
+                long next = converter.toUtc(nextLocal, offset);
+                while (next <= fillTimestamp) {
+                    // bucket that starts in the DST gap is merged into the preceding one
+                    nextLocal = sampler.nextTimestamp(nextLocal);
+                    next = converter.toUtc(nextLocal, offset);
+                }
+                if (next < pendingTimestamp) {
+                    if (!isPrevRecordPositioned) {
+                        baseCursor.recordAt(prevRecord, prevRowId);
+                        isPrevRecordPositioned = true;
+                    }
+                    fillTimestamp = next;
+                    isGap = true;
+                    return true;
+                }
+            }
+
+            isGap = false;
+            hasPendingRow = false;
+            hasPrevRow = true;
+            isPrevRecordPositioned = false;
+            prevRowId = baseRecord.getRowId();
+            prevTimestamp = pendingTimestamp;
+            fillTimestamp = pendingTimestamp;
+            return true;
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            return baseCursor.newSymbolTable(columnIndex);
+        }
+
+        public void of(RecordCursor baseCursor, SqlExecutionContext executionContext) throws SqlException {
+            this.baseCursor = baseCursor;
+            this.baseRecord = baseCursor.getRecord();
+            this.prevRecord = baseCursor.getRecordB();
+            this.circuitBreaker = executionContext.getCircuitBreaker();
+            if (timezoneFunc != null) {
+                timezoneFunc.init(baseCursor, executionContext);
+                converter.of(timezoneFunc.getStrA(null), timezonePos);
+            } else {
+                converter.of(null, 0);
+            }
+            for (int i = 0, n = fillFunctions.size(); i < n; i++) {
+                final Function function = fillFunctions.getQuick(i);
+                if (function != null) {
+                    function.init(baseCursor, executionContext);
+                }
+            }
+            toTop();
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+            baseCursor.toTop();
+            hasPendingRow = false;
+            hasPrevRow = false;
+            isGap = false;
+            isPrevRecordPositioned = false;
+        }
+
+        private static double interpolate(long x, long x1, double y1, long x2, double y2) {
+            return InterpolationUtil.interpolate(x, x1, y1, x2, y2);
+        }
+
+        private class GapFillRecord implements Record {
+
+            @Override
+            public BinarySequence getBin(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getBin(null);
+                        case FILL_PREV:
+                            return prevRecord.getBin(col);
+                    }
+                }
+                return baseRecord.getBin(col);
+            }
+
+            @Override
+            public long getBinLen(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getBinLen(null);
+                        case FILL_PREV:
+                            return prevRecord.getBinLen(col);
+                    }
+                }
+                return baseRecord.getBinLen(col);
+            }
+
+            @Override
+            public boolean getBool(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getBool(null);
+                        case FILL_PREV:
+                            return prevRecord.getBool(col);
+                    }
+                }
+                return baseRecord.getBool(col);
+            }
+
+            @Override
+            public byte getByte(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getByte(null);
+                        case FILL_PREV:
+                            return prevRecord.getByte(col);
+                        case FILL_LINEAR:
+                            return (byte) interpolate(fillTimestamp, prevTimestamp, prevRecord.getByte(col), pendingTimestamp, baseRecord.getByte(col));
+                    }
+                }
+                return baseRecord.getByte(col);
+            }
+
+            @Override
+            public char getChar(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getChar(null);
+                        case FILL_PREV:
+                            return prevRecord.getChar(col);
+                        case FILL_LINEAR:
+                            return (char) interpolate(fillTimestamp, prevTimestamp, prevRecord.getChar(col), pendingTimestamp, baseRecord.getChar(col));
+                    }
+                }
+                return baseRecord.getChar(col);
+            }
+
+            @Override
+            public long getDate(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getDate(null);
+                        case FILL_PREV:
+                            return prevRecord.getDate(col);
+                    }
+                }
+                return baseRecord.getDate(col);
+            }
+
+            @Override
+            public double getDouble(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getDouble(null);
+                        case FILL_PREV:
+                            return prevRecord.getDouble(col);
+                        case FILL_LINEAR:
+                            return interpolate(fillTimestamp, prevTimestamp, prevRecord.getDouble(col), pendingTimestamp, baseRecord.getDouble(col));
+                    }
+                }
+                return baseRecord.getDouble(col);
+            }
+
+            @Override
+            public float getFloat(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getFloat(null);
+                        case FILL_PREV:
+                            return prevRecord.getFloat(col);
+                        case FILL_LINEAR:
+                            return (float) interpolate(fillTimestamp, prevTimestamp, prevRecord.getFloat(col), pendingTimestamp, baseRecord.getFloat(col));
+                    }
+                }
+                return baseRecord.getFloat(col);
+            }
+
+            @Override
+            public byte getGeoByte(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getGeoByte(null);
+                        case FILL_PREV:
+                            return prevRecord.getGeoByte(col);
+                    }
+                }
+                return baseRecord.getGeoByte(col);
+            }
+
+            @Override
+            public int getGeoInt(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getGeoInt(null);
+                        case FILL_PREV:
+                            return prevRecord.getGeoInt(col);
+                    }
+                }
+                return baseRecord.getGeoInt(col);
+            }
+
+            @Override
+            public long getGeoLong(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getGeoLong(null);
+                        case FILL_PREV:
+                            return prevRecord.getGeoLong(col);
+                    }
+                }
+                return baseRecord.getGeoLong(col);
+            }
+
+            @Override
+            public short getGeoShort(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getGeoShort(null);
+                        case FILL_PREV:
+                            return prevRecord.getGeoShort(col);
+                    }
+                }
+                return baseRecord.getGeoShort(col);
+            }
+
+            @Override
+            public int getIPv4(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getIPv4(null);
+                        case FILL_PREV:
+                            return prevRecord.getIPv4(col);
+                    }
+                }
+                return baseRecord.getIPv4(col);
+            }
+
+            @Override
+            public int getInt(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getInt(null);
+                        case FILL_PREV:
+                            return prevRecord.getInt(col);
+                        case FILL_LINEAR:
+                            return (int) interpolate(fillTimestamp, prevTimestamp, prevRecord.getInt(col), pendingTimestamp, baseRecord.getInt(col));
+                    }
+                }
+                return baseRecord.getInt(col);
+            }
+
+            @Override
+            public long getLong(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getLong(null);
+                        case FILL_PREV:
+                            return prevRecord.getLong(col);
+                        case FILL_LINEAR:
+                            return (long) interpolate(fillTimestamp, prevTimestamp, prevRecord.getLong(col), pendingTimestamp, baseRecord.getLong(col));
+                    }
+                }
+                return baseRecord.getLong(col);
+            }
+
+            @Override
+            public long getLong128Hi(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getLong128Hi(null);
+                        case FILL_PREV:
+                            return prevRecord.getLong128Hi(col);
+                    }
+                }
+                return baseRecord.getLong128Hi(col);
+            }
+
+            @Override
+            public long getLong128Lo(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getLong128Lo(null);
+                        case FILL_PREV:
+                            return prevRecord.getLong128Lo(col);
+                    }
+                }
+                return baseRecord.getLong128Lo(col);
+            }
+
+            @Override
+            public void getLong256(int col, CharSink<?> sink) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            fillFunctions.getQuick(col).getLong256(null, sink);
+                            return;
+                        case FILL_PREV:
+                            prevRecord.getLong256(col, sink);
+                            return;
+                    }
+                }
+                baseRecord.getLong256(col, sink);
+            }
+
+            @Override
+            public Long256 getLong256A(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getLong256A(null);
+                        case FILL_PREV:
+                            return prevRecord.getLong256A(col);
+                    }
+                }
+                return baseRecord.getLong256A(col);
+            }
+
+            @Override
+            public Long256 getLong256B(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getLong256B(null);
+                        case FILL_PREV:
+                            return prevRecord.getLong256B(col);
+                    }
+                }
+                return baseRecord.getLong256B(col);
+            }
+
+            @Override
+            public short getShort(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getShort(null);
+                        case FILL_PREV:
+                            return prevRecord.getShort(col);
+                        case FILL_LINEAR:
+                            return (short) interpolate(fillTimestamp, prevTimestamp, prevRecord.getShort(col), pendingTimestamp, baseRecord.getShort(col));
+                    }
+                }
+                return baseRecord.getShort(col);
+            }
+
+            @Override
+            public CharSequence getStrA(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getStrA(null);
+                        case FILL_PREV:
+                            return prevRecord.getStrA(col);
+                    }
+                }
+                return baseRecord.getStrA(col);
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getStrB(null);
+                        case FILL_PREV:
+                            return prevRecord.getStrB(col);
+                    }
+                }
+                return baseRecord.getStrB(col);
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getStrLen(null);
+                        case FILL_PREV:
+                            return prevRecord.getStrLen(col);
+                    }
+                }
+                return baseRecord.getStrLen(col);
+            }
+
+            @Override
+            public CharSequence getSymA(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getSymbol(null);
+                        case FILL_PREV:
+                            return prevRecord.getSymA(col);
+                    }
+                }
+                return baseRecord.getSymA(col);
+            }
+
+            @Override
+            public CharSequence getSymB(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getSymbolB(null);
+                        case FILL_PREV:
+                            return prevRecord.getSymB(col);
+                    }
+                }
+                return baseRecord.getSymB(col);
+            }
+
+            @Override
+            public long getTimestamp(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_TIMESTAMP:
+                            return fillTimestamp;
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getTimestamp(null);
+                        case FILL_PREV:
+                            return prevRecord.getTimestamp(col);
+                    }
+                }
+                return baseRecord.getTimestamp(col);
+            }
+
+            @Override
+            public Utf8Sequence getVarcharA(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getVarcharA(null);
+                        case FILL_PREV:
+                            return prevRecord.getVarcharA(col);
+                    }
+                }
+                return baseRecord.getVarcharA(col);
+            }
+
+            @Override
+            public Utf8Sequence getVarcharB(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getVarcharB(null);
+                        case FILL_PREV:
+                            return prevRecord.getVarcharB(col);
+                    }
+                }
+                return baseRecord.getVarcharB(col);
+            }
+
+            @Override
+            public int getVarcharSize(int col) {
+                if (isGap) {
+                    switch (fillModes.getQuick(col)) {
+                        case FILL_CONSTANT:
+                            return fillFunctions.getQuick(col).getVarcharSize(null);
+                        case FILL_PREV:
+                            return prevRecord.getVarcharSize(col);
+                    }
+                }
+                return baseRecord.getVarcharSize(col);
+            }
+        }
+    }
+}
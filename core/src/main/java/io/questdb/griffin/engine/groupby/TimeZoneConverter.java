@@ -0,0 +1,96 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.griffin.SqlException;
+import io.questdb.std.Numbers;
+import io.questdb.std.NumericException;
+import io.questdb.std.datetime.TimeZoneRules;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.datetime.microtime.Timestamps;
+
+import static io.questdb.std.datetime.TimeZoneRuleFactory.RESOLUTION_MICROS;
+
+/**
+ * Converts timestamps between UTC and local time of the SAMPLE BY time zone. The time zone
+ * is either a numeric offset, e.g. '+01:30', or a name with DST rules, e.g. 'Europe/London'.
+ */
+public class TimeZoneConverter {
+    private long fixedOffset;
+    private TimeZoneRules rules;
+
+    public void of(CharSequence timezone, int position) throws SqlException {
+        rules = null;
+        fixedOffset = 0;
+        if (timezone == null) {
+            return;
+        }
+        try {
+            final long offset = Timestamps.parseOffset(timezone);
+            if (offset == Long.MIN_VALUE) {
+                rules = TimestampFormatUtils.EN_LOCALE.getZoneRules(
+                        Numbers.decodeLowInt(TimestampFormatUtils.EN_LOCALE.matchZone(timezone, 0, timezone.length())),
+                        RESOLUTION_MICROS
+                );
+            } else {
+                fixedOffset = Numbers.decodeLowInt(offset) * Timestamps.MINUTE_MICROS;
+            }
+        } catch (NumericException e) {
+            throw SqlException.$(position, "invalid timezone: ").put(timezone);
+        }
+    }
+
+    public long getOffset(long utc) {
+        return rules != null ? rules.getOffset(utc) : fixedOffset;
+    }
+
+    /**
+     * Converts local time to UTC. Local times that repeat when clocks go back are resolved
+     * with the offset hint, which is the offset of a nearby UTC timestamp, e.g. the one being
+     * floored. Local times that are skipped when clocks go forward are converted with the
+     * offset in effect after the transition, so that a bucket starting in the gap is merged
+     * into the preceding one.
+     *
+     * @param local      local timestamp
+     * @param offsetHint offset to try first
+     * @return UTC timestamp
+     */
+    public long toUtc(long local, long offsetHint) {
+        if (rules == null) {
+            return local - fixedOffset;
+        }
+        final long utc = local - offsetHint;
+        final long offset = rules.getOffset(utc);
+        if (offset == offsetHint) {
+            return utc;
+        }
+        final long otherUtc = local - offset;
+        if (rules.getOffset(otherUtc) == offset) {
+            return otherUtc;
+        }
+        // local time falls into the DST gap
+        return local - Math.max(offsetHint, offset);
+    }
+}
@@ -0,0 +1,280 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.model.JoinContext;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Rows;
+
+/**
+ * ASOF JOIN on a single symbol key that navigates the slave table with the time frame cursor.
+ * <p>
+ * The latest slave row with the timestamp not greater than the master one is found with
+ * the same binary search as in {@link AsOfJoinNoKeyFastRecordCursorFactory}. Then slave rows
+ * are walked backwards until the master key is met. When the slave key column is indexed,
+ * the walk is done with the bitmap index. For each key, the cursor remembers the range of rows
+ * that were searched already, so that the rows are not searched again for the subsequent
+ * master rows.
+ */
+public class AsOfJoinFastRecordCursorFactory extends AbstractJoinRecordCursorFactory {
+    private final AsOfJoinKeyedFastRecordCursor cursor;
+    private final boolean isSlaveKeyIndexed;
+
+    public AsOfJoinFastRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordMetadata metadata,
+            RecordCursorFactory masterFactory,
+            RecordCursorFactory slaveFactory,
+            int columnSplit,
+            int masterKeyIndex,
+            int slaveKeyIndex,
+            JoinContext joinContext
+    ) {
+        super(metadata, joinContext, masterFactory, slaveFactory);
+        assert slaveFactory.supportsTimeFrameCursor();
+        assert ColumnType.isSymbol(slaveFactory.getMetadata().getColumnType(slaveKeyIndex));
+        this.isSlaveKeyIndexed = slaveFactory.getMetadata().isColumnIndexed(slaveKeyIndex);
+        this.cursor = new AsOfJoinKeyedFastRecordCursor(
+                columnSplit,
+                NullRecordFactory.getInstance(slaveFactory.getMetadata()),
+                masterFactory.getMetadata().getTimestampIndex(),
+                slaveFactory.getMetadata().getTimestampIndex(),
+                configuration.getSqlAsOfJoinLookAhead(),
+                masterKeyIndex,
+                ColumnType.isSymbol(masterFactory.getMetadata().getColumnType(masterKeyIndex)),
+                slaveKeyIndex
+        );
+    }
+
+    /**
+     * Returns true when the join key is supported by this factory, i.e. it's a single
+     * slave symbol column matched against a master symbol or string column.
+     */
+    public static boolean isSupportedKey(int masterKeyType, int slaveKeyType) {
+        return ColumnType.isSymbol(slaveKeyType) && (ColumnType.isSymbol(masterKeyType) || ColumnType.isString(masterKeyType));
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return masterFactory.followedOrderByAdvice();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        RecordCursor masterCursor = masterFactory.getCursor(executionContext);
+        TimeFrameRecordCursor slaveCursor = null;
+        try {
+            slaveCursor = slaveFactory.getTimeFrameCursor(executionContext);
+            cursor.of(masterCursor, slaveCursor);
+            return cursor;
+        } catch (Throwable e) {
+            Misc.free(slaveCursor);
+            Misc.free(masterCursor);
+            throw e;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return masterFactory.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(isSlaveKeyIndexed ? "AsOf Join Indexed Scan" : "AsOf Join Fast Scan");
+        sink.attr("condition").val(joinContext);
+        sink.child(masterFactory);
+        sink.child(slaveFactory);
+    }
+
+    @Override
+    protected void _close() {
+        Misc.freeIfCloseable(getMetadata());
+        Misc.free(masterFactory);
+        Misc.free(slaveFactory);
+    }
+
+    private static class AsOfJoinKeyedFastRecordCursor extends AbstractAsOfJoinFastRecordCursor {
+        // per slave index key: the latest row id with the key among the searched rows or -1
+        private final LongList foundRowIds = new LongList();
+        private final boolean isMasterKeySymbol;
+        private final OuterJoinRecord keyedRecord;
+        private final int masterKeyIndex;
+        // per slave index key: the rows up to this row id, inclusive, have been searched already
+        private final LongList searchedRowIds = new LongList();
+        private final int slaveKeyIndex;
+        private StaticSymbolTable slaveSymbolTable;
+
+        public AsOfJoinKeyedFastRecordCursor(
+                int columnSplit,
+                Record nullRecord,
+                int masterTimestampIndex,
+                int slaveTimestampIndex,
+                int lookahead,
+                int masterKeyIndex,
+                boolean isMasterKeySymbol,
+                int slaveKeyIndex
+        ) {
+            super(columnSplit, nullRecord, masterTimestampIndex, slaveTimestampIndex, lookahead);
+            this.keyedRecord = new OuterJoinRecord(columnSplit, nullRecord);
+            this.masterKeyIndex = masterKeyIndex;
+            this.isMasterKeySymbol = isMasterKeySymbol;
+            this.slaveKeyIndex = slaveKeyIndex;
+        }
+
+        @Override
+        public Record getRecord() {
+            return keyedRecord;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (isMasterHasNextPending) {
+                masterHasNext = masterCursor.hasNext();
+                isMasterHasNextPending = false;
+            }
+            if (masterHasNext) {
+                final long masterTimestamp = masterRecord.getTimestamp(masterTimestampIndex);
+                if (masterTimestamp >= lookaheadTimestamp) {
+                    nextSlave(masterTimestamp);
+                }
+                isMasterHasNextPending = true;
+                // record tracks the latest slave row regardless of the key
+                keyedRecord.hasSlave(record.hasSlave() && findKeyedSlave());
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void of(RecordCursor masterCursor, TimeFrameRecordCursor slaveCursor) {
+            slaveSymbolTable = (StaticSymbolTable) slaveCursor.getSymbolTable(slaveKeyIndex);
+            // index keys are symbol keys shifted by one to make room for null
+            final int indexKeyCount = slaveSymbolTable.getSymbolCount() + 1;
+            searchedRowIds.setAll(indexKeyCount, -1);
+            foundRowIds.setAll(indexKeyCount, -1);
+            super.of(masterCursor, slaveCursor);
+            keyedRecord.of(masterRecord, slaveRecA);
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            keyedRecord.hasSlave(false);
+            searchedRowIds.setAll(searchedRowIds.size(), -1);
+            foundRowIds.setAll(foundRowIds.size(), -1);
+        }
+
+        private boolean findKeyedSlave() {
+            final CharSequence masterKey = isMasterKeySymbol ? masterRecord.getSymA(masterKeyIndex) : masterRecord.getStrA(masterKeyIndex);
+            final int slaveKey = slaveSymbolTable.keyOf(masterKey);
+            if (slaveKey == SymbolTable.VALUE_NOT_FOUND) {
+                return false;
+            }
+
+            final int indexKey = TableUtils.toIndexKey(slaveKey);
+            final long latestRowId = slaveRecB.getRowId();
+            final long searchedRowId = searchedRowIds.getQuick(indexKey);
+            long foundRowId = -1;
+            if (latestRowId > searchedRowId) {
+                foundRowId = searchBackward(slaveKey, indexKey, searchedRowId, latestRowId);
+                searchedRowIds.setQuick(indexKey, latestRowId);
+            }
+            if (foundRowId == -1) {
+                foundRowId = foundRowIds.getQuick(indexKey);
+            } else {
+                foundRowIds.setQuick(indexKey, foundRowId);
+            }
+
+            if (foundRowId == -1) {
+                return false;
+            }
+            slaveCursor.recordAt(slaveRecA, foundRowId);
+            return true;
+        }
+
+        // Searches (rowIdLo, rowIdHi] range for the latest row with the given key.
+        private long searchBackward(int slaveKey, int indexKey, long rowIdLo, long rowIdHi) {
+            final TimeFrame frame = slaveCursor.getTimeFrame();
+            final int savedFrameIndex = frame.getIndex();
+            final boolean savedFrameOpen = frame.isOpen();
+            final int frameIndexLo = rowIdLo < 0 ? 0 : Rows.toPartitionIndex(rowIdLo);
+            final int frameIndexHi = Rows.toPartitionIndex(rowIdHi);
+            long foundRowId = -1;
+            try {
+                for (int frameIndex = frameIndexHi; frameIndex >= frameIndexLo && foundRowId == -1; frameIndex--) {
+                    slaveCursor.jumpTo(frameIndex);
+                    if (slaveCursor.open() < 1) {
+                        continue;
+                    }
+                    final long rowLo = rowIdLo > -1 && frameIndex == frameIndexLo ? Rows.toLocalRowID(rowIdLo) + 1 : frame.getRowLo();
+                    final long rowHi = frameIndex == frameIndexHi ? Rows.toLocalRowID(rowIdHi) : frame.getRowHi() - 1;
+                    if (rowLo <= rowHi) {
+                        foundRowId = searchFrame(frameIndex, slaveKey, indexKey, rowLo, rowHi);
+                    }
+                }
+            } finally {
+                // restore the frame, so that the binary search may carry on
+                slaveCursor.jumpTo(savedFrameIndex);
+                if (savedFrameOpen) {
+                    slaveCursor.open();
+                }
+            }
+            return foundRowId;
+        }
+
+        // Both rowLo and rowHi are inclusive.
+        private long searchFrame(int frameIndex, int slaveKey, int indexKey, long rowLo, long rowHi) {
+            final BitmapIndexReader indexReader = slaveCursor.getBitmapIndexReader(frameIndex, slaveKeyIndex, BitmapIndexReader.DIR_BACKWARD);
+            if (indexReader != null) {
+                final RowCursor rowCursor = indexReader.getCursor(true, indexKey, rowLo, rowHi);
+                return rowCursor.hasNext() ? Rows.toRowID(frameIndex, rowCursor.next()) : -1;
+            }
+            for (long row = rowHi; row >= rowLo; row--) {
+                final long rowId = Rows.toRowID(frameIndex, row);
+                slaveCursor.recordAt(slaveRecA, rowId);
+                if (slaveRecA.getInt(slaveKeyIndex) == slaveKey) {
+                    return rowId;
+                }
+            }
+            return -1;
+        }
+    }
+}
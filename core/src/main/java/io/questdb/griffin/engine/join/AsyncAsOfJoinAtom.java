@@ -0,0 +1,195 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.TimeFrame;
+import io.questdb.cairo.sql.TimeFrameRecordCursor;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.std.LongList;
+import io.questdb.std.ObjList;
+import io.questdb.std.Rows;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Shared state of {@link AsyncAsOfJoinRecordCursorFactory}.
+ * <p>
+ * All non-empty slave time frames are opened on the query owner thread before any master
+ * frame is dispatched. Their bounds are kept in a flat list, so that a reduce task may seek
+ * the slave to the first timestamp of its master frame with a binary search over the frames
+ * and then over the rows of a single frame. Since open frames are read-only, each worker slot
+ * reads the slave timestamps with its own record.
+ */
+public class AsyncAsOfJoinAtom implements StatefulAtom {
+    // frame index, row count, first timestamp, last timestamp
+    private static final int FRAME_STRIDE = 4;
+    private final boolean isStrict;
+    private final int lookahead;
+    private final int masterTimestampIndex;
+    private final PerWorkerLocks perWorkerLocks;
+    private final ObjList<Record> perWorkerRecords;
+    private final LongList slaveFrames = new LongList();
+    private final int slaveTimestampIndex;
+    private final int slotCount;
+    private TimeFrameRecordCursor slaveCursor;
+
+    public AsyncAsOfJoinAtom(
+            @NotNull CairoConfiguration configuration,
+            int masterTimestampIndex,
+            int slaveTimestampIndex,
+            boolean isStrict,
+            int workerCount
+    ) {
+        this.masterTimestampIndex = masterTimestampIndex;
+        this.slaveTimestampIndex = slaveTimestampIndex;
+        this.isStrict = isStrict;
+        this.lookahead = configuration.getSqlAsOfJoinLookAhead();
+        this.slotCount = Math.max(1, workerCount);
+        this.perWorkerLocks = new PerWorkerLocks(configuration, slotCount);
+        this.perWorkerRecords = new ObjList<>(slotCount);
+    }
+
+    public int acquire(int workerId, SqlExecutionCircuitBreaker circuitBreaker) {
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    @Override
+    public void clear() {
+        slaveFrames.clear();
+        perWorkerRecords.clear();
+        slaveCursor = null;
+    }
+
+    /**
+     * Finds the latest slave row with the timestamp not greater than the given one, or strictly
+     * less than the given one in case of LT JOIN. Must be called between
+     * {@link #acquire(int, SqlExecutionCircuitBreaker)} and {@link #release(int)} calls.
+     *
+     * @param slotId          worker slot id
+     * @param masterTimestamp master row timestamp
+     * @param position        position of the previous match as returned by this method, or -1;
+     *                        the timestamps are expected to grow between the calls
+     * @return position of the found row to be used with {@link #toRowId(long)} or -1 if there is none
+     */
+    public long find(int slotId, long masterTimestamp, long position) {
+        final long bound = isStrict ? masterTimestamp - 1 : masterTimestamp;
+        final int frameCount = slaveFrames.size() / FRAME_STRIDE;
+        final int prevFrame = position > -1 ? Rows.toPartitionIndex(position) : 0;
+
+        // last frame starting at or before the bound
+        int frameLo = prevFrame;
+        int frameHi = frameCount - 1;
+        int frame = -1;
+        while (frameLo <= frameHi) {
+            final int mid = (frameLo + frameHi) >>> 1;
+            if (slaveFrames.getQuick(mid * FRAME_STRIDE + 2) <= bound) {
+                frame = mid;
+                frameLo = mid + 1;
+            } else {
+                frameHi = mid - 1;
+            }
+        }
+        if (frame == -1) {
+            return position;
+        }
+
+        final int offset = frame * FRAME_STRIDE;
+        final long rowCount = slaveFrames.getQuick(offset + 1);
+        if (slaveFrames.getQuick(offset + 3) <= bound) {
+            return Rows.toRowID(frame, rowCount - 1);
+        }
+
+        // the frame contains a row past the bound, so there is no need to check the row count
+        final Record record = perWorkerRecords.getQuick(slotId);
+        final int frameIndex = (int) slaveFrames.getQuick(offset);
+        long row = frame == prevFrame && position > -1 ? Rows.toLocalRowID(position) : 0;
+        // scan a few rows to speed up the case of similar timestamp distributions
+        for (long scanHi = row + lookahead; row < scanHi; row++) {
+            if (timestampAt(record, frameIndex, row + 1) > bound) {
+                return Rows.toRowID(frame, row);
+            }
+        }
+        long lo = row;
+        long hi = rowCount - 1;
+        // invariant: row lo is at or before the bound, row hi is past the bound
+        while (hi - lo > 1) {
+            final long mid = (lo + hi) >>> 1;
+            if (timestampAt(record, frameIndex, mid) <= bound) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return Rows.toRowID(frame, lo);
+    }
+
+    public int getMasterTimestampIndex() {
+        return masterTimestampIndex;
+    }
+
+    /**
+     * Opens slave time frames and collects their bounds. Must be called on the query
+     * owner thread before any master frame is dispatched.
+     */
+    public void of(TimeFrameRecordCursor slaveCursor) {
+        this.slaveCursor = slaveCursor;
+        slaveFrames.clear();
+        slaveCursor.toTop();
+        final TimeFrame frame = slaveCursor.getTimeFrame();
+        while (slaveCursor.next()) {
+            if (slaveCursor.open() < 1) {
+                continue;
+            }
+            slaveFrames.add(frame.getIndex());
+            slaveFrames.add(frame.getRowHi());
+            slaveFrames.add(frame.getTimestampLo());
+            slaveFrames.add(frame.getTimestampHi() - 1);
+        }
+        perWorkerRecords.clear();
+        for (int i = 0; i < slotCount; i++) {
+            perWorkerRecords.add(slaveCursor.newRecord());
+        }
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    /**
+     * Converts position returned by {@link #find(int, long, long)} to the slave row id.
+     */
+    public long toRowId(long position) {
+        final int frame = Rows.toPartitionIndex(position);
+        return Rows.toRowID((int) slaveFrames.getQuick(frame * FRAME_STRIDE), Rows.toLocalRowID(position));
+    }
+
+    private long timestampAt(Record record, int frameIndex, long row) {
+        slaveCursor.recordAt(record, Rows.toRowID(frameIndex, row));
+        return record.getTimestamp(slaveTimestampIndex);
+    }
+}
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * Non-keyed ASOF and LT JOIN that looks up slave rows for master page frames on the shared
+ * worker pool.
+ * <p>
+ * Each reduce task seeks the slave to the first timestamp of its master frame and then walks
+ * forward along with the master rows, publishing the matching slave row id for each of them.
+ * The owner thread consumes the frames in order, so the master order is preserved.
+ */
+public class AsyncAsOfJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory {
+    private static final PageFrameReducer REDUCER = AsyncAsOfJoinRecordCursorFactory::findSlaveRows;
+
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncAsOfJoinRecordCursor cursor;
+    private final PageFrameSequence<AsyncAsOfJoinAtom> frameSequence;
+    private final boolean isLtJoin;
+    private final int workerCount;
+
+    public AsyncAsOfJoinRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory masterFactory,
+            @NotNull RecordCursorFactory slaveFactory,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            int columnSplit,
+            boolean isLtJoin,
+            int workerCount
+    ) {
+        super(metadata, null, masterFactory, slaveFactory);
+        assert slaveFactory.supportsTimeFrameCursor();
+        assert masterFactory.supportsPageFrameCursor();
+        final AsyncAsOfJoinAtom atom = new AsyncAsOfJoinAtom(
+                configuration,
+                masterFactory.getMetadata().getTimestampIndex(),
+                slaveFactory.getMetadata().getTimestampIndex(),
+                isLtJoin,
+                workerCount
+        );
+        try {
+            this.frameSequence = new PageFrameSequence<>(configuration, messageBus, atom, REDUCER, reduceTaskFactory, PageFrameReduceTask.TYPE_ASOF_JOIN);
+        } catch (Throwable th) {
+            Misc.free(atom);
+            throw th;
+        }
+        this.cursor = new AsyncAsOfJoinRecordCursor(columnSplit, NullRecordFactory.getInstance(slaveFactory.getMetadata()));
+        this.isLtJoin = isLtJoin;
+        this.workerCount = workerCount;
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return masterFactory.followedOrderByAdvice();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final TimeFrameRecordCursor slaveCursor = slaveFactory.getTimeFrameCursor(executionContext);
+        try {
+            cursor.of(frameSequence.of(masterFactory, executionContext, collectSubSeq, ORDER_ASC), slaveCursor);
+            return cursor;
+        } catch (Throwable th) {
+            Misc.free(slaveCursor);
+            throw th;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return masterFactory.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(isLtJoin ? "Async Lt Join" : "Async AsOf Join");
+        sink.meta("workers").val(workerCount);
+        sink.child(masterFactory);
+        sink.child(slaveFactory);
+    }
+
+    private static void findSlaveRows(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final DirectLongList slaveRowIds = task.getFilteredRows();
+        final long frameRowCount = task.getFrameRowCount();
+        final AsyncAsOfJoinAtom atom = task.getFrameSequence(AsyncAsOfJoinAtom.class).getAtom();
+        final int masterTimestampIndex = atom.getMasterTimestampIndex();
+
+        slaveRowIds.clear();
+        if (slaveRowIds.getCapacity() < frameRowCount) {
+            slaveRowIds.setCapacity(frameRowCount);
+        }
+        slaveRowIds.setPos(frameRowCount);
+
+        final int slotId = atom.acquire(workerId, circuitBreaker);
+        try {
+            long position = -1;
+            for (long r = 0; r < frameRowCount; r++) {
+                record.setRowIndex(r);
+                position = atom.find(slotId, record.getTimestamp(masterTimestampIndex), position);
+                slaveRowIds.set(r, position);
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.freeIfCloseable(getMetadata());
+        Misc.free(frameSequence);
+        cursor.freeRecords();
+        Misc.free(masterFactory);
+        Misc.free(slaveFactory);
+    }
+}
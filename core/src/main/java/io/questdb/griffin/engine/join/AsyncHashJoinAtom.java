@@ -0,0 +1,156 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.OrderedMap;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Shared state of {@link AsyncHashJoinRecordCursorFactory}.
+ * <p>
+ * The slave (build) side is inserted into the owner hash table and record chain on the query
+ * owner thread before any frame is dispatched. After that, the owner hash table is only read:
+ * each worker slot writes master keys into its own key map and probes the owner hash table with
+ * {@link OrderedMap#findValue(OrderedMap)}, which doesn't modify the probed map. The record chain
+ * is shared as well and only read on the owner thread.
+ */
+public class AsyncHashJoinAtom implements StatefulAtom {
+    private final RecordSink masterKeySink;
+    private final OrderedMap ownerMap;
+    private final ObjList<OrderedMap> perWorkerKeyMaps;
+    private final PerWorkerLocks perWorkerLocks;
+    private final RecordChain slaveChain;
+    private final RecordSink slaveKeySink;
+
+    public AsyncHashJoinAtom(
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ColumnTypes joinColumnTypes,
+            @Transient @NotNull ColumnTypes valueTypes,
+            @NotNull RecordMetadata slaveMetadata,
+            @NotNull RecordSink masterKeySink,
+            @NotNull RecordSink slaveKeySink,
+            @NotNull RecordSink slaveChainSink,
+            int workerCount
+    ) {
+        this.masterKeySink = masterKeySink;
+        this.slaveKeySink = slaveKeySink;
+        final int slotCount = Math.max(1, workerCount);
+        this.perWorkerLocks = new PerWorkerLocks(configuration, slotCount);
+        this.perWorkerKeyMaps = new ObjList<>(slotCount);
+        OrderedMap ownerMap = null;
+        RecordChain slaveChain = null;
+        try {
+            // the map has to be ordered: read-only lookups are only supported by OrderedMap
+            ownerMap = (OrderedMap) MapFactory.createOrderedMap(configuration, joinColumnTypes, valueTypes);
+            slaveChain = new RecordChain(
+                    slaveMetadata,
+                    slaveChainSink,
+                    configuration.getSqlHashJoinValuePageSize(),
+                    configuration.getSqlHashJoinValueMaxPages()
+            );
+            for (int i = 0; i < slotCount; i++) {
+                perWorkerKeyMaps.extendAndSet(i, (OrderedMap) MapFactory.createOrderedMap(configuration, joinColumnTypes, valueTypes));
+            }
+        } catch (Throwable th) {
+            Misc.free(ownerMap);
+            Misc.free(slaveChain);
+            Misc.freeObjList(perWorkerKeyMaps);
+            throw th;
+        }
+        this.ownerMap = ownerMap;
+        this.slaveChain = slaveChain;
+    }
+
+    public int acquire(int workerId, SqlExecutionCircuitBreaker circuitBreaker) {
+        // The owner thread has to take a slot as well, since key maps are not thread-safe.
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    /**
+     * Builds the hash table for the slave side. Must be called on the query owner thread
+     * before any frame is dispatched.
+     */
+    public void build(RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+        ownerMap.reopen();
+        ownerMap.clear();
+        slaveChain.clear();
+        slaveChain.setSymbolTableResolver(slaveCursor);
+        TableUtils.populateRecordHashMap(circuitBreaker, slaveCursor, ownerMap, slaveKeySink, slaveChain);
+    }
+
+    @Override
+    public void clear() {
+        Misc.free(ownerMap);
+        Misc.free(slaveChain);
+        Misc.freeObjListAndKeepObjects(perWorkerKeyMaps);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ownerMap);
+        Misc.free(slaveChain);
+        Misc.freeObjList(perWorkerKeyMaps);
+    }
+
+    /**
+     * Looks up the master record's join key in the slave hash table. Must be called between
+     * {@link #acquire(int, SqlExecutionCircuitBreaker)} and {@link #release(int)} calls.
+     *
+     * @return slave chain offset or -1 if there is no matching slave row
+     */
+    public long findSlaveChainOffset(int slotId, Record masterRecord) {
+        final OrderedMap keyMap = perWorkerKeyMaps.getQuick(slotId);
+        keyMap.reopen();
+        final MapKey key = keyMap.withKey();
+        key.put(masterRecord, masterKeySink);
+        final MapValue value = ownerMap.findValue(keyMap);
+        return value != null ? value.getLong(0) : -1;
+    }
+
+    public RecordChain getSlaveChain() {
+        return slaveChain;
+    }
+
+    public void release(int slotId) {
+        perWorkerLocks.releaseSlot(slotId);
+    }
+}
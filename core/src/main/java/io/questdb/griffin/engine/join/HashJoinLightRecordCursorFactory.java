@@ -34,14 +34,19 @@ import io.questdb.cairo.sql.*;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.AsyncFilteredRecordCursorFactory;
 import io.questdb.griffin.model.JoinContext;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
+import org.jetbrains.annotations.Nullable;
 
 public class HashJoinLightRecordCursorFactory extends AbstractJoinRecordCursorFactory {
     private final HashJoinRecordCursor cursor;
+    // true when the key filter is checked by the master's parallel filter
+    private final boolean isKeyFilterPushedDown;
     private final RecordSink masterSink;
     private final RecordSink slaveKeySink;
+    private JoinKeyFilter keyFilter;
 
     public HashJoinLightRecordCursorFactory(
             CairoConfiguration configuration,
@@ -53,9 +58,18 @@ public class HashJoinLightRecordCursorFactory extends AbstractJoinRecordCursorFa
             RecordSink masterSink,
             RecordSink slaveKeySink,
             int columnSplit,
-            JoinContext joinContext
+            JoinContext joinContext,
+            @Nullable JoinKeyFilter keyFilter
     ) {
         super(metadata, joinContext, masterFactory, slaveFactory);
+        this.keyFilter = keyFilter;
+        if (keyFilter != null && masterFactory instanceof AsyncFilteredRecordCursorFactory) {
+            // let the workers drop the master rows without a match along with the filtered out ones
+            ((AsyncFilteredRecordCursorFactory) masterFactory).setKeyFilter(keyFilter);
+            this.isKeyFilterPushedDown = true;
+        } else {
+            this.isKeyFilterPushedDown = false;
+        }
         try {
             this.masterSink = masterSink;
             this.slaveKeySink = slaveKeySink;
@@ -104,6 +118,9 @@ public class HashJoinLightRecordCursorFactory extends AbstractJoinRecordCursorFa
     @Override
     public void toPlan(PlanSink sink) {
         sink.type("Hash Join Light");
+        if (keyFilter != null) {
+            sink.meta("keyFilter").val(true);
+        }
         sink.attr("condition").val(joinContext);
         sink.child(masterFactory);
         sink.child("Hash", slaveFactory);
@@ -115,6 +132,7 @@ public class HashJoinLightRecordCursorFactory extends AbstractJoinRecordCursorFa
         Misc.free(masterFactory);
         Misc.free(slaveFactory);
         Misc.free(cursor);
+        keyFilter = Misc.free(keyFilter);
     }
 
     private class HashJoinRecordCursor extends AbstractJoinCursor {
@@ -149,6 +167,7 @@ public class HashJoinLightRecordCursorFactory extends AbstractJoinRecordCursorFa
                 size = -1;
                 Misc.free(joinKeyMap);
                 Misc.free(slaveChain);
+                Misc.clear(keyFilter);
                 super.close();
             }
         }
@@ -168,6 +187,9 @@ public class HashJoinLightRecordCursorFactory extends AbstractJoinRecordCursorFa
             }
 
             while (masterCursor.hasNext()) {
+                if (keyFilter != null && !isKeyFilterPushedDown && !keyFilter.accept(masterRecord)) {
+                    continue;
+                }
                 MapKey key = joinKeyMap.withKey();
                 key.put(masterRecord, masterSink);
                 MapValue value = key.findValue();
@@ -206,6 +228,9 @@ public class HashJoinLightRecordCursorFactory extends AbstractJoinRecordCursorFa
         private void buildMapOfSlaveRecords() {
             if (!isMapBuilt) {
                 TableUtils.populateRowIDHashMap(circuitBreaker, slaveCursor, joinKeyMap, slaveKeySink, slaveChain);
+                if (keyFilter != null) {
+                    keyFilter.of(joinKeyMap);
+                }
                 isMapBuilt = true;
             }
         }
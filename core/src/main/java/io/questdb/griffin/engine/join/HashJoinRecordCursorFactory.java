@@ -35,12 +35,31 @@ import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.model.JoinContext;
-import io.questdb.std.Misc;
-import io.questdb.std.Transient;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Inner hash join that keeps the slave (build) side in a hash map and a record chain.
+ * <p>
+ * When {@link CairoConfiguration#getSqlHashJoinSpillThreshold()} is set and the slave chain
+ * grows beyond it, the cursor switches to the grace mode: both sides are partitioned by the join key
+ * hash into file-backed record chains, and then partitions are joined one by one, so that only
+ * a single slave partition has to be kept in memory at a time. Rows are then no longer returned
+ * in the master order.
+ */
 public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory {
+    private static final AtomicLong ID_SEQ = new AtomicLong();
     private final HashJoinRecordCursor cursor;
+    private final RecordSink masterChainSink;
     private final RecordSink masterSink;
+    private final RecordSink slaveChainSink;
     private final RecordSink slaveKeySink;
 
     public HashJoinRecordCursorFactory(
@@ -53,6 +72,7 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
             RecordSink masterSink,
             RecordSink slaveKeySink,
             RecordSink slaveChainSink,
+            @Nullable RecordSink masterChainSink, // used to spill master records in grace mode, null means no spilling
             int columnSplit,
             JoinContext joinContext
     ) {
@@ -64,7 +84,9 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
             slaveChain = new RecordChain(slaveFactory.getMetadata(), slaveChainSink, configuration.getSqlHashJoinValuePageSize(), configuration.getSqlHashJoinValueMaxPages());
             this.masterSink = masterSink;
             this.slaveKeySink = slaveKeySink;
-            cursor = new HashJoinRecordCursor(columnSplit, joinKeyMap, slaveChain);
+            this.slaveChainSink = slaveChainSink;
+            this.masterChainSink = masterChainSink;
+            cursor = new HashJoinRecordCursor(configuration, columnSplit, joinKeyMap, slaveChain);
         } catch (Throwable th) {
             Misc.free(joinKeyMap);
             Misc.free(slaveChain);
@@ -75,7 +97,7 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
 
     @Override
     public boolean followedOrderByAdvice() {
-        return masterFactory.followedOrderByAdvice();
+        return !cursor.isSpillEnabled && masterFactory.followedOrderByAdvice();
     }
 
     @Override
@@ -95,7 +117,7 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
 
     @Override
     public int getScanDirection() {
-        return masterFactory.getScanDirection();
+        return cursor.isSpillEnabled ? SCAN_DIRECTION_OTHER : masterFactory.getScanDirection();
     }
 
     @Override
@@ -105,13 +127,16 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
 
     @Override
     public boolean supportsUpdateRowId(TableToken tableToken) {
-        return masterFactory.supportsUpdateRowId(tableToken);
+        return !cursor.isSpillEnabled && masterFactory.supportsUpdateRowId(tableToken);
     }
 
     @Override
     public void toPlan(PlanSink sink) {
         sink.type("Hash Join");
         sink.attr("condition").val(joinContext);
+        if (cursor.isSpillEnabled) {
+            sink.attr("spill").val(true);
+        }
         sink.child(masterFactory);
         sink.child("Hash", slaveFactory);
     }
@@ -125,28 +150,57 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
     }
 
     private class HashJoinRecordCursor extends AbstractJoinCursor {
+        private final FilesFacade ff;
+        private final boolean isSpillEnabled;
         private final Map joinKeyMap;
+        private final long[] masterPartitionTails;
+        private final ObjList<RecordChain> masterPartitions = new ObjList<>();
+        private final int mkDirMode;
+        private final int partitionBits;
+        private final int partitionCount;
         private final JoinRecord recordA;
         private final RecordChain slaveChain;
+        private final long[] slavePartitionTails;
+        private final ObjList<RecordChain> slavePartitions = new ObjList<>();
+        private final long spillPageSize;
+        private final CharSequence spillRoot;
+        private final long spillThreshold;
         private SqlExecutionCircuitBreaker circuitBreaker;
         private boolean isMapBuilt;
         private boolean isOpen;
+        private boolean isSpilled;
+        private RecordChain masterPartition;
         private Record masterRecord;
+        private int partitionIndex;
+        private Path path;
         private long size = -1;
+        private long spillId;
         private boolean useSlaveCursor;
 
-        public HashJoinRecordCursor(int columnSplit, Map joinKeyMap, RecordChain slaveChain) {
+        public HashJoinRecordCursor(CairoConfiguration configuration, int columnSplit, Map joinKeyMap, RecordChain slaveChain) {
             super(columnSplit);
             this.recordA = new JoinRecord(columnSplit);
             this.joinKeyMap = joinKeyMap;
             this.slaveChain = slaveChain;
             this.isOpen = true;
+            this.ff = configuration.getFilesFacade();
+            this.mkDirMode = configuration.getMkDirMode();
+            this.spillRoot = configuration.getSqlSpillRoot();
+            this.spillThreshold = configuration.getSqlHashJoinSpillThreshold();
+            this.spillPageSize = configuration.getSqlHashJoinValuePageSize();
+            this.isSpillEnabled = masterChainSink != null && spillThreshold > 0 && spillRoot != null;
+            this.partitionCount = Numbers.ceilPow2(Math.max(1, configuration.getSqlHashJoinSpillPartitionCount()));
+            this.partitionBits = Numbers.msb(partitionCount);
+            this.masterPartitionTails = new long[partitionCount];
+            this.slavePartitionTails = new long[partitionCount];
         }
 
         @Override
         public void close() {
             if (isOpen) {
                 isOpen = false;
+                releaseSpill();
+                path = Misc.free(path);
                 joinKeyMap.close();
                 slaveChain.close();
                 super.close();
@@ -166,6 +220,10 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
                 return true;
             }
 
+            if (isSpilled) {
+                return hasNextSpilled();
+            }
+
             while (masterCursor.hasNext()) {
                 MapKey key = joinKeyMap.withKey();
                 key.put(masterRecord, masterSink);
@@ -188,13 +246,21 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
                 return size;
             }
             buildMapOfSlaveRecords();
+            if (isSpilled) {
+                return -1;
+            }
             return size = TableUtils.computeCursorSizeFromMap(masterCursor, joinKeyMap, masterSink);
         }
 
         @Override
         public void toTop() {
-            masterCursor.toTop();
             useSlaveCursor = false;
+            if (isSpilled) {
+                partitionIndex = -1;
+                masterPartition = null;
+                return;
+            }
+            masterCursor.toTop();
             if (!isMapBuilt) {
                 slaveCursor.toTop();
                 joinKeyMap.clear();
@@ -204,17 +270,79 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
 
         private void buildMapOfSlaveRecords() {
             if (!isMapBuilt) {
-                TableUtils.populateRecordHashMap(circuitBreaker, slaveCursor, joinKeyMap, slaveKeySink, slaveChain);
+                if (isSpillEnabled) {
+                    populateOrSpill();
+                } else {
+                    TableUtils.populateRecordHashMap(circuitBreaker, slaveCursor, joinKeyMap, slaveKeySink, slaveChain);
+                }
                 isMapBuilt = true;
             }
         }
 
+        private RecordChain createPartition(RecordMetadata metadata, RecordSink sink, char side, int index) {
+            final MemoryARW mem = Vm.getCMARWInstance(
+                    ff,
+                    partitionPath(side, index),
+                    spillPageSize,
+                    -1,
+                    MemoryTag.MMAP_DEFAULT,
+                    CairoConfiguration.O_NONE
+            );
+            // the chain owns the memory from now on
+            return new RecordChain(metadata, sink, mem);
+        }
+
+        private void freePartitions(ObjList<RecordChain> partitions, char side) {
+            for (int i = 0, n = partitions.size(); i < n; i++) {
+                Misc.free(partitions.getQuick(i));
+                ff.removeQuiet(partitionPath(side, i));
+            }
+            partitions.clear();
+        }
+
+        private boolean hasNextSpilled() {
+            while (true) {
+                if (masterPartition != null) {
+                    final Record record = masterPartition.getRecord();
+                    while (masterPartition.hasNext()) {
+                        MapKey key = joinKeyMap.withKey();
+                        key.put(record, masterSink);
+                        MapValue value = key.findValue();
+                        if (value != null) {
+                            slaveChain.of(value.getLong(0));
+                            slaveChain.hasNext();
+                            useSlaveCursor = true;
+                            return true;
+                        }
+                    }
+                }
+
+                if (++partitionIndex >= partitionCount) {
+                    partitionIndex = partitionCount;
+                    masterPartition = null;
+                    return false;
+                }
+
+                // build hash table for the next slave partition
+                joinKeyMap.clear();
+                slaveChain.clear();
+                final RecordChain slavePartition = slavePartitions.getQuick(partitionIndex);
+                slavePartition.toTop();
+                TableUtils.populateRecordHashMap(circuitBreaker, slavePartition, joinKeyMap, slaveKeySink, slaveChain);
+
+                masterPartition = masterPartitions.getQuick(partitionIndex);
+                masterPartition.toTop();
+                recordA.of(masterPartition.getRecord(), slaveChain.getRecord());
+            }
+        }
+
         private void of(RecordCursor masterCursor, RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
             if (!isOpen) {
                 isOpen = true;
                 joinKeyMap.reopen();
                 slaveChain.reopen();
             }
+            releaseSpill();
             this.masterCursor = masterCursor;
             this.slaveCursor = slaveCursor;
             this.circuitBreaker = circuitBreaker;
@@ -226,5 +354,89 @@ public class HashJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory
             size = -1;
             isMapBuilt = false;
         }
+
+        private void openPartitions() {
+            if (path == null) {
+                path = new Path();
+            }
+            path.of(spillRoot).slash$();
+            if (!ff.exists(path.$()) && ff.mkdirs(path, mkDirMode) != 0) {
+                throw CairoException.critical(ff.errno()).put("could not create hash join spill directory [path=").put(path).put(']');
+            }
+            spillId = ID_SEQ.incrementAndGet();
+            for (int i = 0; i < partitionCount; i++) {
+                final RecordChain slavePartition = createPartition(slaveFactory.getMetadata(), slaveChainSink, 's', i);
+                slavePartitions.add(slavePartition);
+                slavePartition.setSymbolTableResolver(slaveCursor);
+                final RecordChain masterPartition = createPartition(masterFactory.getMetadata(), masterChainSink, 'm', i);
+                masterPartitions.add(masterPartition);
+                masterPartition.setSymbolTableResolver(masterCursor);
+            }
+            Arrays.fill(slavePartitionTails, -1);
+            Arrays.fill(masterPartitionTails, -1);
+        }
+
+        private void partition(RecordCursor cursor, RecordSink keySink, ObjList<RecordChain> partitions, long[] tails) {
+            final Record record = cursor.getRecord();
+            while (cursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+
+                MapKey key = joinKeyMap.withKey();
+                key.put(record, keySink);
+                key.commit();
+                // use the high bits of the hash code since the map relies on the low ones
+                final int index = partitionBits > 0 ? (int) (key.hash() >>> (64 - partitionBits)) : 0;
+                tails[index] = partitions.getQuick(index).put(record, tails[index]);
+            }
+        }
+
+        private LPSZ partitionPath(char side, int index) {
+            return path.of(spillRoot).concat("hashjoin_spill_").put(spillId).put('_').put(side).put('_').put(index).put(".d").$();
+        }
+
+        private void populateOrSpill() {
+            final Record record = slaveCursor.getRecord();
+            while (slaveCursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+
+                if (slaveChain.getUsedSize() > spillThreshold) {
+                    spill();
+                    return;
+                }
+
+                MapKey key = joinKeyMap.withKey();
+                key.put(record, slaveKeySink);
+                MapValue value = key.createValue();
+                if (value.isNew()) {
+                    long offset = slaveChain.put(record, -1);
+                    value.putLong(0, offset);
+                    value.putLong(1, offset);
+                    value.putLong(2, 1);
+                } else {
+                    value.putLong(1, slaveChain.put(record, value.getLong(1)));
+                    value.addLong(2, 1);
+                }
+            }
+        }
+
+        private void releaseSpill() {
+            freePartitions(slavePartitions, 's');
+            freePartitions(masterPartitions, 'm');
+            isSpilled = false;
+            masterPartition = null;
+        }
+
+        private void spill() {
+            // start over: both sides are written to the partitions from scratch
+            joinKeyMap.clear();
+            slaveChain.clear();
+            slaveCursor.toTop();
+            openPartitions();
+            partition(slaveCursor, slaveKeySink, slavePartitions, slavePartitionTails);
+            partition(masterCursor, masterSink, masterPartitions, masterPartitionTails);
+            isSpilled = true;
+            partitionIndex = -1;
+            masterPartition = null;
+        }
     }
 }
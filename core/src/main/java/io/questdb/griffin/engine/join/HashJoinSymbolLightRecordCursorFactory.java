@@ -0,0 +1,307 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.SingleColumnType;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.model.JoinContext;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.Transient;
+
+/**
+ * Light inner hash join on a single symbol-to-symbol key.
+ * <p>
+ * Unlike {@link HashJoinLightRecordCursorFactory}, the hash table is keyed by int symbol
+ * keys of the master column, so that neither slave nor master rows need their symbol values
+ * to be copied, hashed and compared. Slave symbol keys are translated to master ones with
+ * a single lookup per distinct slave key; slave rows with symbols unknown to the master
+ * column are skipped as they can't match anything.
+ */
+public class HashJoinSymbolLightRecordCursorFactory extends AbstractJoinRecordCursorFactory {
+    private static final SingleColumnType KEY_TYPES = new SingleColumnType(ColumnType.INT);
+    private final HashJoinRecordCursor cursor;
+    private final int masterKeyIndex;
+    private final int slaveKeyIndex;
+
+    public HashJoinSymbolLightRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordMetadata metadata,
+            RecordCursorFactory masterFactory,
+            RecordCursorFactory slaveFactory,
+            @Transient ColumnTypes valueTypes, // this expected to be just LONGs, we store chain references in map
+            int columnSplit,
+            int masterKeyIndex,
+            int slaveKeyIndex,
+            JoinContext joinContext
+    ) {
+        super(metadata, joinContext, masterFactory, slaveFactory);
+        assert ColumnType.isSymbol(masterFactory.getMetadata().getColumnType(masterKeyIndex));
+        assert ColumnType.isSymbol(slaveFactory.getMetadata().getColumnType(slaveKeyIndex));
+        try {
+            this.masterKeyIndex = masterKeyIndex;
+            this.slaveKeyIndex = slaveKeyIndex;
+            this.cursor = new HashJoinRecordCursor(columnSplit, configuration, valueTypes);
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return masterFactory.followedOrderByAdvice();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        RecordCursor slaveCursor = slaveFactory.getCursor(executionContext);
+        RecordCursor masterCursor = null;
+        try {
+            masterCursor = masterFactory.getCursor(executionContext);
+            cursor.of(masterCursor, slaveCursor, executionContext.getCircuitBreaker());
+            return cursor;
+        } catch (Throwable e) {
+            Misc.free(slaveCursor);
+            Misc.free(masterCursor);
+            throw e;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return masterFactory.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsUpdateRowId(TableToken tableToken) {
+        return masterFactory.supportsUpdateRowId(tableToken);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Hash Join Light");
+        sink.meta("symbolKeys").val(true);
+        sink.attr("condition").val(joinContext);
+        sink.child(masterFactory);
+        sink.child("Hash", slaveFactory);
+    }
+
+    @Override
+    protected void _close() {
+        Misc.freeIfCloseable(getMetadata());
+        Misc.free(masterFactory);
+        Misc.free(slaveFactory);
+        Misc.free(cursor);
+    }
+
+    private class HashJoinRecordCursor extends AbstractJoinCursor {
+        // slave symbol key that wasn't translated to the master one yet
+        private static final int KEY_UNKNOWN = -3;
+        private final Map joinKeyMap;
+        private final JoinRecord record;
+        private final LongChain slaveChain;
+        // slave symbol key -> master symbol key
+        private final IntList slaveToMasterKeys = new IntList();
+        private SqlExecutionCircuitBreaker circuitBreaker;
+        private boolean isMapBuilt;
+        private boolean isOpen;
+        private Record masterRecord;
+        private long size = -1;
+        private LongChain.TreeCursor slaveChainCursor;
+        private Record slaveRecord;
+
+        public HashJoinRecordCursor(int columnSplit, CairoConfiguration configuration, ColumnTypes valueTypes) {
+            super(columnSplit);
+            try {
+                isOpen = true;
+                record = new JoinRecord(columnSplit);
+                joinKeyMap = MapFactory.createUnorderedMap(configuration, KEY_TYPES, valueTypes);
+                slaveChain = new LongChain(configuration.getSqlHashJoinLightValuePageSize(), configuration.getSqlHashJoinLightValueMaxPages());
+            } catch (Throwable th) {
+                close();
+                throw th;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (isOpen) {
+                isOpen = false;
+                size = -1;
+                Misc.free(joinKeyMap);
+                Misc.free(slaveChain);
+                super.close();
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            buildMapOfSlaveRecords();
+
+            if (slaveChainCursor != null && slaveChainCursor.hasNext()) {
+                slaveCursor.recordAt(slaveRecord, slaveChainCursor.next());
+                return true;
+            }
+
+            while (masterCursor.hasNext()) {
+                MapKey key = joinKeyMap.withKey();
+                key.putInt(masterRecord.getInt(masterKeyIndex));
+                MapValue value = key.findValue();
+                if (value != null) {
+                    slaveChainCursor = slaveChain.getCursor(value.getLong(0));
+                    // we know cursor has values
+                    // advance to get the first value
+                    slaveChainCursor.hasNext();
+                    slaveCursor.recordAt(slaveRecord, slaveChainCursor.next());
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public long size() {
+            if (size > -1) {
+                return size;
+            }
+            buildMapOfSlaveRecords();
+            long size = 0;
+            try {
+                masterCursor.toTop();
+                while (masterCursor.hasNext()) {
+                    MapKey key = joinKeyMap.withKey();
+                    key.putInt(masterRecord.getInt(masterKeyIndex));
+                    MapValue value = key.findValue();
+                    if (value != null) {
+                        size += value.getLong(2);
+                    }
+                }
+            } finally {
+                masterCursor.toTop();
+            }
+            return this.size = size;
+        }
+
+        @Override
+        public void toTop() {
+            masterCursor.toTop();
+            slaveChainCursor = null;
+            if (!isMapBuilt) {
+                slaveCursor.toTop();
+                joinKeyMap.clear();
+                slaveChain.clear();
+            }
+        }
+
+        private void buildMapOfSlaveRecords() {
+            if (!isMapBuilt) {
+                final StaticSymbolTable masterSymbolTable = (StaticSymbolTable) masterCursor.getSymbolTable(masterKeyIndex);
+                final SymbolTable slaveSymbolTable = slaveCursor.getSymbolTable(slaveKeyIndex);
+                final Record record = slaveCursor.getRecord();
+                slaveToMasterKeys.clear();
+                while (slaveCursor.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+
+                    final int masterKey = toMasterKey(record.getInt(slaveKeyIndex), masterSymbolTable, slaveSymbolTable);
+                    if (masterKey == SymbolTable.VALUE_NOT_FOUND) {
+                        continue;
+                    }
+                    MapKey key = joinKeyMap.withKey();
+                    key.putInt(masterKey);
+                    MapValue value = key.createValue();
+                    if (value.isNew()) {
+                        final long offset = slaveChain.put(record.getRowId(), -1);
+                        value.putLong(0, offset);
+                        value.putLong(1, offset);
+                        value.putLong(2, 1);
+                    } else {
+                        value.putLong(1, slaveChain.put(record.getRowId(), value.getLong(1)));
+                        value.addLong(2, 1);
+                    }
+                }
+                isMapBuilt = true;
+            }
+        }
+
+        private void of(RecordCursor masterCursor, RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+            if (!isOpen) {
+                isOpen = true;
+                joinKeyMap.reopen();
+                slaveChain.reopen();
+            }
+            this.masterCursor = masterCursor;
+            this.slaveCursor = slaveCursor;
+            this.circuitBreaker = circuitBreaker;
+            masterRecord = masterCursor.getRecord();
+            slaveRecord = slaveCursor.getRecordB();
+            record.of(masterRecord, slaveRecord);
+            slaveChainCursor = null;
+            size = -1;
+            isMapBuilt = false;
+        }
+
+        private int toMasterKey(int slaveKey, StaticSymbolTable masterSymbolTable, SymbolTable slaveSymbolTable) {
+            if (slaveKey == SymbolTable.VALUE_IS_NULL) {
+                return SymbolTable.VALUE_IS_NULL;
+            }
+            final int size = slaveToMasterKeys.size();
+            if (slaveKey >= size) {
+                slaveToMasterKeys.setPos(slaveKey + 1);
+                for (int i = size; i <= slaveKey; i++) {
+                    slaveToMasterKeys.setQuick(i, KEY_UNKNOWN);
+                }
+            }
+            int masterKey = slaveToMasterKeys.getQuick(slaveKey);
+            if (masterKey == KEY_UNKNOWN) {
+                masterKey = masterSymbolTable.keyOf(slaveSymbolTable.valueOf(slaveKey));
+                slaveToMasterKeys.setQuick(slaveKey, masterKey);
+            }
+            return masterKey;
+        }
+    }
+}
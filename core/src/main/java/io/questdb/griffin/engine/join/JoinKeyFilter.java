@@ -0,0 +1,182 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapRecord;
+import io.questdb.cairo.map.MapRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.std.*;
+
+/**
+ * Min/max and Bloom filter over the single integer key of a hash join map.
+ * <p>
+ * The filter is built once the map of the build side is complete. Probe side rows
+ * rejected by the filter are known to have no match, so that they can be skipped
+ * before their key is copied to the map and hashed. The Bloom filter is only built
+ * when the map is small enough to keep its false positive rate low; min/max bounds
+ * are checked regardless. Until the filter is built, it accepts all keys.
+ * <p>
+ * Once built, the filter is read-only, so that it may be checked by several threads,
+ * e.g. by the workers of a parallel filter on the probe side.
+ */
+public class JoinKeyFilter implements QuietCloseable, Mutable {
+    // 8 bits per key with two hash functions gives ~5% false positives
+    private static final int BITS_PER_KEY = 8;
+    private static final long MAX_BLOOM_KEYS = 1 << 20;
+    private static final long MIN_BLOOM_LONGS = 16;
+    private final DirectLongList bloom;
+    private final int keyType;
+    private final int mapKeyIndex;
+    private final int probeKeyIndex;
+    private long bloomMask;
+    private long max;
+    private long min;
+
+    /**
+     * @param keyType       type of the key column, the same on both sides of the join
+     * @param mapKeyIndex   index of the key column in the map record
+     * @param probeKeyIndex index of the key column in the probe side record
+     */
+    public JoinKeyFilter(int keyType, int mapKeyIndex, int probeKeyIndex) {
+        assert isSupportedKeyType(keyType);
+        this.keyType = keyType;
+        this.mapKeyIndex = mapKeyIndex;
+        this.probeKeyIndex = probeKeyIndex;
+        this.bloom = new DirectLongList(MIN_BLOOM_LONGS, MemoryTag.NATIVE_JOIN_MAP);
+        acceptAll();
+    }
+
+    public static boolean isSupportedKeyType(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public boolean accept(Record probeRecord) {
+        final long key = getKey(probeRecord, probeKeyIndex);
+        if (key < min || key > max) {
+            return false;
+        }
+        if (bloomMask == -1) {
+            return true;
+        }
+        final long hash = Hash.hashLong64(key);
+        return isBitSet(hash) && isBitSet(hash >>> 32);
+    }
+
+    @Override
+    public void clear() {
+        acceptAll();
+        bloom.resetCapacity();
+    }
+
+    @Override
+    public void close() {
+        Misc.free(bloom);
+    }
+
+    /**
+     * Builds the filter from the keys of the given map. The filter must not be checked
+     * concurrently while it's being built.
+     */
+    public void of(Map map) {
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+        bloomMask = -1;
+
+        final long keyCount = map.size();
+        final MapRecordCursor cursor = map.getCursor();
+        final MapRecord record = cursor.getRecord();
+        while (cursor.hasNext()) {
+            final long key = getKey(record, mapKeyIndex);
+            min = Math.min(min, key);
+            max = Math.max(max, key);
+        }
+
+        if (keyCount > 0 && keyCount <= MAX_BLOOM_KEYS) {
+            final long longCount = Math.max(MIN_BLOOM_LONGS, Numbers.ceilPow2(keyCount * BITS_PER_KEY) >>> 6);
+            if (bloom.getCapacity() < longCount) {
+                bloom.setCapacity(longCount);
+            }
+            bloom.setPos(longCount);
+            bloom.zero(0);
+            bloomMask = (longCount << 6) - 1;
+
+            cursor.toTop();
+            while (cursor.hasNext()) {
+                final long hash = Hash.hashLong64(getKey(record, mapKeyIndex));
+                setBit(hash);
+                setBit(hash >>> 32);
+            }
+        }
+    }
+
+    private void acceptAll() {
+        min = Long.MIN_VALUE;
+        max = Long.MAX_VALUE;
+        bloomMask = -1;
+    }
+
+    private long getKey(Record record, int columnIndex) {
+        switch (ColumnType.tagOf(keyType)) {
+            case ColumnType.BYTE:
+                return record.getByte(columnIndex);
+            case ColumnType.SHORT:
+                return record.getShort(columnIndex);
+            case ColumnType.CHAR:
+                return record.getChar(columnIndex);
+            case ColumnType.INT:
+                return record.getInt(columnIndex);
+            case ColumnType.DATE:
+                return record.getDate(columnIndex);
+            case ColumnType.TIMESTAMP:
+                return record.getTimestamp(columnIndex);
+            default:
+                return record.getLong(columnIndex);
+        }
+    }
+
+    private boolean isBitSet(long hash) {
+        final long bit = hash & bloomMask;
+        return (bloom.get(bit >>> 6) & (1L << bit)) != 0;
+    }
+
+    private void setBit(long hash) {
+        final long bit = hash & bloomMask;
+        final long index = bit >>> 6;
+        bloom.set(index, bloom.get(index) | (1L << bit));
+    }
+}
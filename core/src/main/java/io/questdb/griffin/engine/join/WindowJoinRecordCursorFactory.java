@@ -0,0 +1,704 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.SingleColumnType;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.SymbolFunction;
+import io.questdb.griffin.engine.groupby.*;
+import io.questdb.griffin.engine.table.SelectedRecord;
+import io.questdb.griffin.model.JoinContext;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * WINDOW JOIN aggregates, for each master row, the slave rows with timestamps in the
+ * [masterTimestamp + lo, masterTimestamp + hi] range, optionally matching the join key.
+ * <p>
+ * Both master and slave are ordered by their designated timestamps, so the window bounds
+ * only move forward. The bounds are kept as (frame, row) positions over slave time frames
+ * and are moved with a binary search in each frame, while the frames that are entirely out
+ * of the window are skipped based on their timestamp estimates without being opened.
+ * The aggregates are computed with group-by functions over the rows within the bounds.
+ * <p>
+ * When the aggregates depend on slave columns only and all functions support repeatable
+ * merge, the window is aggregated incrementally with two stacks, since group-by functions
+ * can't remove rows. The front part of the window keeps suffix aggregates, one per row,
+ * so that the rows leaving the window are dropped by moving to the next suffix, while
+ * the rows entering the window are added to a single back aggregate. The window aggregate
+ * is the merge of the two. Once the window start passes the front part, the whole window
+ * becomes the new front part and its suffix aggregates are built in reverse order, so each
+ * slave row is aggregated at most twice. Otherwise, the window is aggregated anew for each
+ * master row, unless it's the same set of rows as for the previous one and the aggregates
+ * don't depend on master columns.
+ */
+public class WindowJoinRecordCursorFactory extends AbstractJoinRecordCursorFactory {
+    private static final long BACK_KEY = -1;
+    private static final SingleColumnType LONG_COLUMN_TYPE = new SingleColumnType(ColumnType.LONG);
+    private static final long OUTPUT_KEY = -2;
+    private final RecordMetadata chooseMetadata;
+    private final WindowJoinRecordCursor cursor;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final long hi;
+    private final ObjList<Function> keyFunctions;
+    private final long lo;
+
+    public WindowJoinRecordCursorFactory(
+            @Transient @NotNull BytecodeAssembler asm,
+            CairoConfiguration configuration,
+            RecordMetadata metadata,
+            RecordCursorFactory masterFactory,
+            RecordCursorFactory slaveFactory,
+            @Nullable JoinContext joinContext,
+            int columnSplit,
+            RecordMetadata chooseMetadata,
+            IntList chooseCrossIndex,
+            ObjList<Function> keyFunctions,
+            ObjList<GroupByFunction> groupByFunctions,
+            IntList outputCrossIndex,
+            @Transient @NotNull ColumnTypes valueTypes,
+            @Transient @Nullable ColumnTypes joinKeyTypes,
+            @Nullable RecordSink masterKeySink,
+            @Nullable RecordSink slaveKeySink,
+            long lo,
+            long hi,
+            boolean isWindowReusable
+    ) {
+        super(metadata, joinContext, masterFactory, slaveFactory);
+        assert slaveFactory.supportsTimeFrameCursor();
+        try {
+            this.chooseMetadata = chooseMetadata;
+            this.keyFunctions = keyFunctions;
+            this.groupByFunctions = groupByFunctions;
+            this.lo = lo;
+            this.hi = hi;
+            this.cursor = new WindowJoinRecordCursor(
+                    configuration,
+                    GroupByFunctionsUpdaterFactory.getInstance(asm, groupByFunctions),
+                    columnSplit,
+                    chooseCrossIndex,
+                    outputCrossIndex,
+                    valueTypes.getColumnCount(),
+                    joinKeyTypes != null ? MapFactory.createOrderedMap(configuration, joinKeyTypes) : null,
+                    isWindowReusable && isRepeatableMergeSupported(groupByFunctions)
+                            ? MapFactory.createOrderedMap(configuration, LONG_COLUMN_TYPE, valueTypes)
+                            : null,
+                    masterKeySink,
+                    slaveKeySink,
+                    masterFactory.getMetadata().getTimestampIndex(),
+                    slaveFactory.getMetadata().getTimestampIndex(),
+                    isWindowReusable
+            );
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return masterFactory.followedOrderByAdvice();
+    }
+
+    @Override
+    public String getBaseColumnName(int idx) {
+        return chooseMetadata.getColumnName(idx);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        RecordCursor masterCursor = masterFactory.getCursor(executionContext);
+        TimeFrameRecordCursor slaveCursor = null;
+        try {
+            slaveCursor = slaveFactory.getTimeFrameCursor(executionContext);
+            cursor.of(masterCursor, slaveCursor, executionContext);
+            return cursor;
+        } catch (Throwable e) {
+            Misc.free(slaveCursor);
+            Misc.free(masterCursor);
+            throw e;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return masterFactory.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Window Join");
+        sink.attr("range").val('[').val(lo).val(',').val(hi).val(']');
+        sink.optAttr("condition", joinContext);
+        sink.optAttr("keys", keyFunctions, true);
+        sink.optAttr("values", groupByFunctions, true);
+        sink.child(masterFactory);
+        sink.child(slaveFactory);
+    }
+
+    private static boolean isRepeatableMergeSupported(ObjList<GroupByFunction> groupByFunctions) {
+        for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+            if (!groupByFunctions.getQuick(i).isRepeatableMergeSupported()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(cursor);
+        Misc.freeObjList(keyFunctions);
+        Misc.freeObjList(groupByFunctions);
+        Misc.free(masterFactory);
+        Misc.free(slaveFactory);
+    }
+
+    private class WindowJoinRecordCursor implements NoRandomAccessRecordCursor {
+        private final GroupByAllocator allocator;
+        private final IntList chooseCrossIndex;
+        private final SelectedRecord chooseRecord;
+        private final SymbolTableSource chooseSymbolTableSource = new ChooseSymbolTableSource();
+        private final int columnSplit;
+        // opened non-empty slave frames: (frame index, row lo, row hi, ordinal of row lo) quadruplets;
+        // the ordinal is the row's number among the rows of the opened frames
+        private final LongList frames = new LongList();
+        private final GroupByFunctionsUpdater groupByFunctionsUpdater;
+        private final boolean isWindowReusable;
+        private final JoinRecord joinRecord;
+        private final Map joinKeyMap;
+        private final RecordSink masterKeySink;
+        private final int masterTimestampIndex;
+        private final IntList outputCrossIndex;
+        private final SelectedRecord record;
+        private final SimpleMapValue simpleMapValue;
+        private final RecordSink slaveKeySink;
+        private final int slaveTimestampIndex;
+        // suffix aggregates of the front part keyed by row ordinal, along with
+        // the back aggregate and the window aggregate under the reserved keys
+        private final Map slidingMap;
+        private final VirtualRecord valueRecord;
+        // ordinal of the next row to be added to the back aggregate
+        private long appendOrdinal;
+        private long backRowCount;
+        private SqlExecutionCircuitBreaker circuitBreaker;
+        private int frameCount;
+        // window end position, exclusive; frame position equal to the frame count
+        // stands for the beginning of the next, not yet opened, frame
+        private int hiFramePos;
+        private long hiRow;
+        private boolean isOpen;
+        private boolean isSlaveExhausted;
+        private boolean isSlaveFramePending;
+        private boolean isValueSet;
+        // window start position, inclusive
+        private int loFramePos;
+        private long loRow;
+        private RecordCursor masterCursor;
+        private Record masterRecord;
+        // ordinal of the first back part row, the front part ends here
+        private long midOrdinal;
+        private long openedRowCount;
+        private int prevHiFramePos;
+        private long prevHiRow;
+        private int prevLoFramePos;
+        private long prevLoRow;
+        private TimeFrameRecordCursor slaveCursor;
+        private Record slaveRecord;
+        private Record slaveSearchRecord;
+
+        public WindowJoinRecordCursor(
+                CairoConfiguration configuration,
+                GroupByFunctionsUpdater groupByFunctionsUpdater,
+                int columnSplit,
+                IntList chooseCrossIndex,
+                IntList outputCrossIndex,
+                int valueCount,
+                @Nullable Map joinKeyMap,
+                @Nullable Map slidingMap,
+                @Nullable RecordSink masterKeySink,
+                @Nullable RecordSink slaveKeySink,
+                int masterTimestampIndex,
+                int slaveTimestampIndex,
+                boolean isWindowReusable
+        ) {
+            this.groupByFunctionsUpdater = groupByFunctionsUpdater;
+            this.columnSplit = columnSplit;
+            this.chooseCrossIndex = chooseCrossIndex;
+            this.outputCrossIndex = outputCrossIndex;
+            this.joinKeyMap = joinKeyMap;
+            this.slidingMap = slidingMap;
+            this.masterKeySink = masterKeySink;
+            this.slaveKeySink = slaveKeySink;
+            this.masterTimestampIndex = masterTimestampIndex;
+            this.slaveTimestampIndex = slaveTimestampIndex;
+            this.isWindowReusable = isWindowReusable;
+            this.isOpen = true;
+            this.joinRecord = new JoinRecord(columnSplit);
+            this.chooseRecord = new SelectedRecord(chooseCrossIndex);
+            this.chooseRecord.of(joinRecord);
+            this.simpleMapValue = new SimpleMapValue(valueCount);
+            this.valueRecord = new VirtualRecordNoRowid(groupByFunctions);
+            this.valueRecord.of(simpleMapValue);
+            final VirtualRecord keyRecord = new VirtualRecord(keyFunctions);
+            keyRecord.of(chooseRecord);
+            final JoinRecord outputRecord = new JoinRecord(keyFunctions.size());
+            outputRecord.of(keyRecord, valueRecord);
+            this.record = new SelectedRecord(outputCrossIndex);
+            this.record.of(outputRecord);
+            this.allocator = GroupByAllocatorFactory.createThreadUnsafeAllocator(configuration);
+            GroupByUtils.setAllocator(groupByFunctions, allocator);
+        }
+
+        @Override
+        public void calculateSize(SqlExecutionCircuitBreaker circuitBreaker, Counter counter) {
+            masterCursor.calculateSize(circuitBreaker, counter);
+        }
+
+        @Override
+        public void close() {
+            if (isOpen) {
+                isOpen = false;
+                Misc.free(joinKeyMap);
+                Misc.free(slidingMap);
+                Misc.free(allocator);
+                Misc.clearObjList(groupByFunctions);
+                masterCursor = Misc.free(masterCursor);
+                slaveCursor = Misc.free(slaveCursor);
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return (SymbolTable) getOutputFunction(columnIndex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!masterCursor.hasNext()) {
+                return false;
+            }
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            final long masterTimestamp = masterRecord.getTimestamp(masterTimestampIndex);
+            advanceHi(masterTimestamp + lo, masterTimestamp + hi);
+            advanceLo(masterTimestamp + lo);
+            aggregate();
+            return true;
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            return ((SymbolFunction) getOutputFunction(columnIndex)).newSymbolTable();
+        }
+
+        public void of(RecordCursor masterCursor, TimeFrameRecordCursor slaveCursor, SqlExecutionContext executionContext) throws SqlException {
+            if (!isOpen) {
+                isOpen = true;
+                if (joinKeyMap != null) {
+                    joinKeyMap.reopen();
+                }
+                if (slidingMap != null) {
+                    slidingMap.reopen();
+                }
+            }
+            this.masterCursor = masterCursor;
+            this.slaveCursor = slaveCursor;
+            masterRecord = masterCursor.getRecord();
+            slaveRecord = slaveCursor.getRecord();
+            slaveSearchRecord = slaveCursor.getRecordB();
+            joinRecord.of(masterRecord, slaveRecord);
+            circuitBreaker = executionContext.getCircuitBreaker();
+            Function.init(keyFunctions, chooseSymbolTableSource, executionContext);
+            Function.init(groupByFunctions, chooseSymbolTableSource, executionContext);
+            toTop();
+        }
+
+        @Override
+        public long size() {
+            return masterCursor.size();
+        }
+
+        @Override
+        public void toTop() {
+            masterCursor.toTop();
+            slaveCursor.toTop();
+            frames.clear();
+            frameCount = 0;
+            openedRowCount = 0;
+            midOrdinal = 0;
+            appendOrdinal = 0;
+            backRowCount = 0;
+            if (slidingMap != null) {
+                slidingMap.clear();
+            }
+            loFramePos = 0;
+            loRow = 0;
+            hiFramePos = 0;
+            hiRow = 0;
+            isSlaveExhausted = false;
+            isSlaveFramePending = false;
+            isValueSet = false;
+            GroupByUtils.toTop(keyFunctions);
+            GroupByUtils.toTop(groupByFunctions);
+        }
+
+        // Moves the window end to the first row with the timestamp greater than the given one.
+        private void advanceHi(long loTimestamp, long hiTimestamp) {
+            while (true) {
+                if (hiFramePos == frameCount && !openNextFrame(loTimestamp, hiTimestamp)) {
+                    return;
+                }
+                final long rowHi = frameRowHi(hiFramePos);
+                hiRow = searchFirstAbove(hiFramePos, hiRow, rowHi, hiTimestamp);
+                if (hiRow < rowHi) {
+                    return;
+                }
+                hiFramePos++;
+            }
+        }
+
+        // Moves the window start to the first row with the timestamp not less than the given one.
+        // The start never goes beyond the window end.
+        private void advanceLo(long loTimestamp) {
+            while (loFramePos < frameCount) {
+                final long rowHi = loFramePos == hiFramePos ? hiRow : frameRowHi(loFramePos);
+                loRow = searchFirstNotBelow(loFramePos, loRow, rowHi, loTimestamp);
+                if (loRow < rowHi || loFramePos == hiFramePos) {
+                    return;
+                }
+                loFramePos++;
+                if (loFramePos < frameCount) {
+                    loRow = frameRowLo(loFramePos);
+                }
+            }
+        }
+
+        private void aggregate() {
+            if (
+                    isValueSet
+                            && isWindowReusable
+                            && loFramePos == prevLoFramePos
+                            && loRow == prevLoRow
+                            && hiFramePos == prevHiFramePos
+                            && hiRow == prevHiRow
+            ) {
+                return;
+            }
+            prevLoFramePos = loFramePos;
+            prevLoRow = loRow;
+            prevHiFramePos = hiFramePos;
+            prevHiRow = hiRow;
+            isValueSet = true;
+
+            if (slidingMap != null) {
+                slide();
+                return;
+            }
+
+            if (joinKeyMap != null) {
+                joinKeyMap.clear();
+                final MapKey key = joinKeyMap.withKey();
+                key.put(masterRecord, masterKeySink);
+                key.createValue();
+            }
+
+            allocator.close();
+            long rowId = 0;
+            for (int framePos = loFramePos; framePos <= hiFramePos && framePos < frameCount; framePos++) {
+                final int frameIndex = frameIndex(framePos);
+                final long rowLo = framePos == loFramePos ? loRow : frameRowLo(framePos);
+                final long rowHi = framePos == hiFramePos ? hiRow : frameRowHi(framePos);
+                for (long row = rowLo; row < rowHi; row++) {
+                    slaveCursor.recordAt(slaveRecord, Rows.toRowID(frameIndex, row));
+                    if (joinKeyMap != null) {
+                        final MapKey key = joinKeyMap.withKey();
+                        key.put(slaveRecord, slaveKeySink);
+                        if (key.findValue() == null) {
+                            continue;
+                        }
+                    }
+                    if (rowId == 0) {
+                        groupByFunctionsUpdater.updateNew(simpleMapValue, chooseRecord, rowId++);
+                    } else {
+                        groupByFunctionsUpdater.updateExisting(simpleMapValue, chooseRecord, rowId++);
+                    }
+                }
+            }
+            if (rowId == 0) {
+                groupByFunctionsUpdater.updateEmpty(simpleMapValue);
+            }
+        }
+
+        // Adds the rows in the [ordinalLo, ordinalHi) range to the back aggregate.
+        private void appendRows(long ordinalLo, long ordinalHi) {
+            int framePos = loFramePos;
+            while (frameOrdinal(framePos) + frameRowHi(framePos) - frameRowLo(framePos) <= ordinalLo) {
+                framePos++;
+            }
+            MapKey key = slidingMap.withKey();
+            key.putLong(BACK_KEY);
+            final MapValue backValue = key.createValue();
+            for (long ordinal = ordinalLo; ordinal < ordinalHi; framePos++) {
+                final int frameIndex = frameIndex(framePos);
+                final long rowLo = frameRowLo(framePos) + ordinal - frameOrdinal(framePos);
+                final long rowHi = Math.min(frameRowHi(framePos), rowLo + ordinalHi - ordinal);
+                for (long row = rowLo; row < rowHi; row++) {
+                    final long rowId = Rows.toRowID(frameIndex, row);
+                    slaveCursor.recordAt(slaveRecord, rowId);
+                    if (backRowCount++ == 0) {
+                        groupByFunctionsUpdater.updateNew(backValue, chooseRecord, rowId);
+                    } else {
+                        groupByFunctionsUpdater.updateExisting(backValue, chooseRecord, rowId);
+                    }
+                }
+                ordinal += rowHi - rowLo;
+            }
+        }
+
+        // Makes the [ordinalLo, ordinalHi) range the front part with the suffix aggregate
+        // for each row. The rows are visited in reverse order, so that each suffix aggregate
+        // is the row itself merged with the next suffix aggregate.
+        private void buildFront(long ordinalLo, long ordinalHi) {
+            slidingMap.clear();
+            int framePos = Math.min(hiFramePos, frameCount - 1);
+            for (long ordinal = ordinalHi; ordinal > ordinalLo; framePos--) {
+                final long frameOrdinal = frameOrdinal(framePos);
+                if (frameOrdinal >= ordinal) {
+                    continue;
+                }
+                final int frameIndex = frameIndex(framePos);
+                final long rowLo = frameRowLo(framePos) + Math.max(ordinalLo - frameOrdinal, 0);
+                final long rowHi = frameRowLo(framePos) + ordinal - frameOrdinal;
+                for (long row = rowHi - 1; row >= rowLo; row--) {
+                    final long rowId = Rows.toRowID(frameIndex, row);
+                    slaveCursor.recordAt(slaveRecord, rowId);
+                    MapKey key = slidingMap.withKey();
+                    key.putLong(--ordinal);
+                    final MapValue value = key.createValue();
+                    groupByFunctionsUpdater.updateNew(value, chooseRecord, rowId);
+                    if (ordinal + 1 < ordinalHi) {
+                        key = slidingMap.withKey();
+                        key.putLong(ordinal + 1);
+                        groupByFunctionsUpdater.merge(value, key.findValue2());
+                    }
+                }
+            }
+            midOrdinal = ordinalHi;
+            appendOrdinal = ordinalHi;
+            backRowCount = 0;
+        }
+
+        private int frameIndex(int framePos) {
+            return (int) frames.getQuick(4 * framePos);
+        }
+
+        private long frameOrdinal(int framePos) {
+            return frames.getQuick(4 * framePos + 3);
+        }
+
+        private long frameRowHi(int framePos) {
+            return frames.getQuick(4 * framePos + 2);
+        }
+
+        private long frameRowLo(int framePos) {
+            return frames.getQuick(4 * framePos + 1);
+        }
+
+        private Function getOutputFunction(int columnIndex) {
+            final int index = outputCrossIndex.getQuick(columnIndex);
+            final int keyCount = keyFunctions.size();
+            return index < keyCount ? keyFunctions.getQuick(index) : groupByFunctions.getQuick(index - keyCount);
+        }
+
+        // Opens the next non-empty slave frame that may have rows within the window.
+        // Returns false when there is no such frame at the moment.
+        private boolean openNextFrame(long loTimestamp, long hiTimestamp) {
+            final TimeFrame frame = slaveCursor.getTimeFrame();
+            while (true) {
+                if (!isSlaveFramePending) {
+                    if (isSlaveExhausted || !slaveCursor.next()) {
+                        isSlaveExhausted = true;
+                        return false;
+                    }
+                    isSlaveFramePending = true;
+                }
+                if (frame.getTimestampEstimateLo() > hiTimestamp) {
+                    // the frame is after the window, leave it for the subsequent master rows
+                    return false;
+                }
+                isSlaveFramePending = false;
+                if (frame.getTimestampEstimateHi() <= loTimestamp) {
+                    // the frame is before the window, no need to open it
+                    continue;
+                }
+                if (slaveCursor.open() < 1) {
+                    continue;
+                }
+                frames.add(frame.getIndex());
+                frames.add(frame.getRowLo());
+                frames.add(frame.getRowHi());
+                frames.add(openedRowCount);
+                openedRowCount += frame.getRowHi() - frame.getRowLo();
+                if (loFramePos == frameCount) {
+                    loRow = frame.getRowLo();
+                }
+                if (hiFramePos == frameCount) {
+                    hiRow = frame.getRowLo();
+                }
+                frameCount++;
+                return true;
+            }
+        }
+
+        private long ordinal(int framePos, long row) {
+            return framePos < frameCount ? frameOrdinal(framePos) + row - frameRowLo(framePos) : openedRowCount;
+        }
+
+        private long readTimestamp(int frameIndex, long row) {
+            slaveCursor.recordAt(slaveSearchRecord, Rows.toRowID(frameIndex, row));
+            return slaveSearchRecord.getTimestamp(slaveTimestampIndex);
+        }
+
+        // Returns the first row in the [rowLo, rowHi) range with the timestamp greater
+        // than the given one or rowHi if there is no such row.
+        private long searchFirstAbove(int framePos, long rowLo, long rowHi, long timestamp) {
+            final int frameIndex = frameIndex(framePos);
+            long low = rowLo;
+            long high = rowHi;
+            // most of the time the window end moves by a few rows only
+            if (low < high && readTimestamp(frameIndex, low) > timestamp) {
+                return low;
+            }
+            while (low < high) {
+                final long mid = (low + high) >>> 1;
+                if (readTimestamp(frameIndex, mid) > timestamp) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        // Returns the first row in the [rowLo, rowHi) range with the timestamp not less
+        // than the given one or rowHi if there is no such row.
+        private long searchFirstNotBelow(int framePos, long rowLo, long rowHi, long timestamp) {
+            final int frameIndex = frameIndex(framePos);
+            long low = rowLo;
+            long high = rowHi;
+            if (low < high && readTimestamp(frameIndex, low) >= timestamp) {
+                return low;
+            }
+            while (low < high) {
+                final long mid = (low + high) >>> 1;
+                if (readTimestamp(frameIndex, mid) >= timestamp) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        // Computes the window aggregate incrementally, see the class comment.
+        private void slide() {
+            final long loOrdinal = ordinal(loFramePos, loRow);
+            final long hiOrdinal = ordinal(hiFramePos, hiRow);
+            if (loOrdinal >= midOrdinal) {
+                buildFront(loOrdinal, hiOrdinal);
+            } else if (appendOrdinal < hiOrdinal) {
+                appendRows(appendOrdinal, hiOrdinal);
+                appendOrdinal = hiOrdinal;
+            }
+
+            // create the output value first, the map may grow and move the other values
+            MapKey key = slidingMap.withKey();
+            key.putLong(OUTPUT_KEY);
+            final MapValue value = key.createValue();
+            if (loOrdinal < midOrdinal) {
+                key = slidingMap.withKey();
+                key.putLong(loOrdinal);
+                value.copyFrom(key.findValue2());
+            }
+            if (backRowCount > 0) {
+                key = slidingMap.withKey();
+                key.putLong(BACK_KEY);
+                if (loOrdinal < midOrdinal) {
+                    groupByFunctionsUpdater.merge(value, key.findValue2());
+                } else {
+                    value.copyFrom(key.findValue2());
+                }
+            } else if (loOrdinal >= midOrdinal) {
+                groupByFunctionsUpdater.updateEmpty(value);
+            }
+            valueRecord.of(value);
+        }
+
+        private class ChooseSymbolTableSource implements SymbolTableSource {
+
+            @Override
+            public SymbolTable getSymbolTable(int columnIndex) {
+                final int index = chooseCrossIndex.getQuick(columnIndex);
+                if (index < columnSplit) {
+                    return masterCursor.getSymbolTable(index);
+                }
+                return slaveCursor.getSymbolTable(index - columnSplit);
+            }
+
+            @Override
+            public SymbolTable newSymbolTable(int columnIndex) {
+                final int index = chooseCrossIndex.getQuick(columnIndex);
+                if (index < columnSplit) {
+                    return masterCursor.newSymbolTable(index);
+                }
+                return slaveCursor.newSymbolTable(index - columnSplit);
+            }
+        }
+    }
+}
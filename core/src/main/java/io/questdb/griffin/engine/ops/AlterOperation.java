@@ -60,6 +60,12 @@ public class AlterOperation extends AbstractOperation implements Mutable {
     public final static short SET_DEDUP_ENABLE = RENAME_TABLE + 1; // 15
     public final static short SET_DEDUP_DISABLE = SET_DEDUP_ENABLE + 1; // 16
     public final static short CHANGE_COLUMN_TYPE = SET_DEDUP_DISABLE + 1; // 17
+    public final static short COMPRESS_PARTITION = CHANGE_COLUMN_TYPE + 1; // 18
+    public final static short CONVERT_PARTITION_TO_PARQUET = COMPRESS_PARTITION + 1; // 19
+    public final static short CONVERT_PARTITION_TO_VOLUME = CONVERT_PARTITION_TO_PARQUET + 1; // 20
+    public final static short SET_PARAM_TTL = CONVERT_PARTITION_TO_VOLUME + 1; // 21
+    public final static short SET_PARAM_TIERING_AGE = SET_PARAM_TTL + 1; // 22
+    public final static short SET_PARAM_TIERING_VOLUME = SET_PARAM_TIERING_AGE + 1; // 23
     private static final long BIT_INDEXED = 0x1L;
     private static final long BIT_DEDUP_KEY = BIT_INDEXED << 1;
     private final static Log LOG = LogFactory.getLog(AlterOperation.class);
@@ -125,6 +131,15 @@ public class AlterOperation extends AbstractOperation implements Mutable {
                 case DETACH_PARTITION:
                     applyDetachPartition(svc);
                     break;
+                case COMPRESS_PARTITION:
+                    applyCompressPartition(svc);
+                    break;
+                case CONVERT_PARTITION_TO_PARQUET:
+                    applyConvertPartitionToParquet(svc);
+                    break;
+                case CONVERT_PARTITION_TO_VOLUME:
+                    applyConvertPartitionToVolume(svc);
+                    break;
                 case ATTACH_PARTITION:
                     applyAttachPartition(svc);
                     break;
@@ -146,6 +161,15 @@ public class AlterOperation extends AbstractOperation implements Mutable {
                 case SET_PARAM_COMMIT_LAG:
                     applyParamO3MaxLag(svc);
                     break;
+                case SET_PARAM_TTL:
+                    svc.setRetentionTtl(extraInfo.get(0));
+                    break;
+                case SET_PARAM_TIERING_AGE:
+                    svc.setRetentionTieringAge(extraInfo.get(0));
+                    break;
+                case SET_PARAM_TIERING_VOLUME:
+                    svc.setRetentionTieringVolume(activeExtraStrInfo.getStrA(0));
+                    break;
                 case RENAME_TABLE:
                     applyRenameTable(svc);
                     break;
@@ -408,6 +432,55 @@ public class AlterOperation extends AbstractOperation implements Mutable {
         }
     }
 
+    private void applyCompressPartition(MetadataService svc) {
+        for (int i = 0, n = extraInfo.size() / 2; i < n; i++) {
+            final long partitionTimestamp = extraInfo.getQuick(i * 2);
+            AttachDetachStatus attachDetachStatus = svc.compressPartition(partitionTimestamp);
+            if (AttachDetachStatus.OK != attachDetachStatus) {
+                throw attachDetachStatus.getException(
+                        (int) extraInfo.getQuick(i * 2 + 1),
+                        attachDetachStatus,
+                        tableToken,
+                        svc.getPartitionBy(),
+                        partitionTimestamp
+                );
+            }
+        }
+    }
+
+    private void applyConvertPartitionToParquet(MetadataService svc) {
+        for (int i = 0, n = extraInfo.size() / 2; i < n; i++) {
+            final long partitionTimestamp = extraInfo.getQuick(i * 2);
+            AttachDetachStatus attachDetachStatus = svc.convertPartitionToParquet(partitionTimestamp);
+            if (AttachDetachStatus.OK != attachDetachStatus) {
+                throw attachDetachStatus.getException(
+                        (int) extraInfo.getQuick(i * 2 + 1),
+                        attachDetachStatus,
+                        tableToken,
+                        svc.getPartitionBy(),
+                        partitionTimestamp
+                );
+            }
+        }
+    }
+
+    private void applyConvertPartitionToVolume(MetadataService svc) {
+        final CharSequence volumeAlias = activeExtraStrInfo.getStrA(0);
+        for (int i = 0, n = extraInfo.size() / 2; i < n; i++) {
+            final long partitionTimestamp = extraInfo.getQuick(i * 2);
+            AttachDetachStatus attachDetachStatus = svc.convertPartitionToVolume(partitionTimestamp, volumeAlias);
+            if (AttachDetachStatus.OK != attachDetachStatus) {
+                throw attachDetachStatus.getException(
+                        (int) extraInfo.getQuick(i * 2 + 1),
+                        attachDetachStatus,
+                        tableToken,
+                        svc.getPartitionBy(),
+                        partitionTimestamp
+                );
+            }
+        }
+    }
+
     private void applyDetachPartition(MetadataService svc) {
         for (int i = 0, n = extraInfo.size() / 2; i < n; i++) {
             final long partitionTimestamp = extraInfo.getQuick(i * 2);
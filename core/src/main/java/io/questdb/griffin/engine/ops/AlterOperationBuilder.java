@@ -153,6 +153,31 @@ public class AlterOperationBuilder {
         return this;
     }
 
+    public AlterOperationBuilder ofCompressPartition(int tableNamePosition, TableToken tableToken, int tableId) {
+        this.command = COMPRESS_PARTITION;
+        this.tableNamePosition = tableNamePosition;
+        this.tableToken = tableToken;
+        this.tableId = tableId;
+        return this;
+    }
+
+    public AlterOperationBuilder ofConvertPartitionToParquet(int tableNamePosition, TableToken tableToken, int tableId) {
+        this.command = CONVERT_PARTITION_TO_PARQUET;
+        this.tableNamePosition = tableNamePosition;
+        this.tableToken = tableToken;
+        this.tableId = tableId;
+        return this;
+    }
+
+    public AlterOperationBuilder ofConvertPartitionToVolume(int tableNamePosition, TableToken tableToken, int tableId, CharSequence volumeAlias) {
+        this.command = CONVERT_PARTITION_TO_VOLUME;
+        this.tableNamePosition = tableNamePosition;
+        this.tableToken = tableToken;
+        this.tableId = tableId;
+        this.extraStrInfo.add(volumeAlias);
+        return this;
+    }
+
     public AlterOperationBuilder ofDedupDisable(int tableNamePosition, TableToken tableToken) {
         this.command = SET_DEDUP_DISABLE;
         this.tableNamePosition = tableNamePosition;
@@ -248,6 +273,33 @@ public class AlterOperationBuilder {
         return this;
     }
 
+    public AlterOperationBuilder ofSetTieringAge(int tableNamePosition, TableToken tableToken, int tableId, long tieringAge) {
+        this.command = SET_PARAM_TIERING_AGE;
+        this.tableNamePosition = tableNamePosition;
+        this.tableToken = tableToken;
+        this.extraInfo.add(tieringAge);
+        this.tableId = tableId;
+        return this;
+    }
+
+    public AlterOperationBuilder ofSetTieringVolume(int tableNamePosition, TableToken tableToken, int tableId, CharSequence volumeAlias) {
+        this.command = SET_PARAM_TIERING_VOLUME;
+        this.tableNamePosition = tableNamePosition;
+        this.tableToken = tableToken;
+        this.extraStrInfo.add(volumeAlias);
+        this.tableId = tableId;
+        return this;
+    }
+
+    public AlterOperationBuilder ofSetTtl(int tableNamePosition, TableToken tableToken, int tableId, long ttl) {
+        this.command = SET_PARAM_TTL;
+        this.tableNamePosition = tableNamePosition;
+        this.tableToken = tableToken;
+        this.extraInfo.add(ttl);
+        this.tableId = tableId;
+        return this;
+    }
+
     public AlterOperationBuilder ofSquashPartitions(int tableNamePosition, TableToken tableToken) {
         this.command = SQUASH_PARTITIONS;
         this.tableNamePosition = tableNamePosition;
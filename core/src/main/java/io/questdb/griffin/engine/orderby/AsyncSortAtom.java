@@ -0,0 +1,162 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Chars;
+import io.questdb.std.IntComparator;
+import io.questdb.std.IntList;
+import io.questdb.std.Numbers;
+
+/**
+ * Shared state of {@link AsyncSortRecordCursorFactory}.
+ * <p>
+ * Maps values of the sort key column to unsigned longs that preserve the ORDER BY order,
+ * so that page frames can be radix sorted as (key, row index) pairs. Symbol keys are mapped
+ * to ranks of their values, which are computed on the query owner thread by sorting symbol keys
+ * with a comparator over the symbol table.
+ */
+public class AsyncSortAtom implements StatefulAtom {
+    private final boolean descending;
+    private final boolean forwardScan;
+    private final int keyColumnIndex;
+    private final int keyColumnType;
+    private final IntList symbolKeys = new IntList();
+    private final IntList symbolRanks = new IntList();
+    private final IntComparator symbolValueComparator = this::compareSymbolValues;
+    private StaticSymbolTable symbolTable;
+
+    public AsyncSortAtom(int keyColumnIndex, int keyColumnType, boolean descending, boolean forwardScan) {
+        this.keyColumnIndex = keyColumnIndex;
+        this.keyColumnType = keyColumnType;
+        this.descending = descending;
+        this.forwardScan = forwardScan;
+    }
+
+    public static boolean isSupportedKeyType(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.DOUBLE:
+            case ColumnType.SYMBOL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void clear() {
+        symbolKeys.clear();
+        symbolRanks.clear();
+        symbolTable = null;
+    }
+
+    /**
+     * Returns the sort key of the current record. Keys compare as unsigned longs.
+     */
+    public long encodeKey(Record record) {
+        final long key;
+        switch (ColumnType.tagOf(keyColumnType)) {
+            case ColumnType.BYTE:
+                key = record.getByte(keyColumnIndex) ^ Long.MIN_VALUE;
+                break;
+            case ColumnType.SHORT:
+                key = record.getShort(keyColumnIndex) ^ Long.MIN_VALUE;
+                break;
+            case ColumnType.INT:
+                key = record.getInt(keyColumnIndex) ^ Long.MIN_VALUE;
+                break;
+            case ColumnType.DATE:
+                key = record.getDate(keyColumnIndex) ^ Long.MIN_VALUE;
+                break;
+            case ColumnType.TIMESTAMP:
+                key = record.getTimestamp(keyColumnIndex) ^ Long.MIN_VALUE;
+                break;
+            case ColumnType.DOUBLE:
+                key = encodeDouble(record.getDouble(keyColumnIndex));
+                break;
+            case ColumnType.SYMBOL:
+                final int symbolKey = record.getInt(keyColumnIndex);
+                // null symbol goes first, just like null string
+                key = (symbolKey < 0 ? -1 : symbolRanks.getQuick(symbolKey)) ^ Long.MIN_VALUE;
+                break;
+            default:
+                key = record.getLong(keyColumnIndex) ^ Long.MIN_VALUE;
+                break;
+        }
+        return descending ? ~key : key;
+    }
+
+    /**
+     * Page frame rows are read in reverse order on backward scan, so that equal keys
+     * keep the order of the base cursor.
+     */
+    public boolean isForwardScan() {
+        return forwardScan;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (ColumnType.isSymbol(keyColumnType)) {
+            symbolTable = (StaticSymbolTable) symbolTableSource.getSymbolTable(keyColumnIndex);
+            final int symbolCount = symbolTable.getSymbolCount();
+            // sort symbol keys by their values, so that no strings have to be materialized
+            symbolKeys.setPos(symbolCount);
+            for (int i = 0; i < symbolCount; i++) {
+                symbolKeys.setQuick(i, i);
+            }
+            symbolKeys.sort(symbolValueComparator);
+            symbolRanks.setPos(symbolCount);
+            for (int i = 0; i < symbolCount; i++) {
+                symbolRanks.setQuick(symbolKeys.getQuick(i), i);
+            }
+        }
+    }
+
+    private static long encodeDouble(double value) {
+        // nulls (NaN and infinities) go last, just like in Numbers.compare()
+        if (Numbers.isNull(value)) {
+            return -1L;
+        }
+        // -0.0 and 0.0 are equal
+        final long bits = Double.doubleToRawLongBits(value == 0 ? 0.0 : value);
+        return bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+    }
+
+    private int compareSymbolValues(int keyA, int keyB) {
+        return Chars.compare(symbolTable.valueOf(keyA), symbolTable.valueBOf(keyB));
+    }
+}
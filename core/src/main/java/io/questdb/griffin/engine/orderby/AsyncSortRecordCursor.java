@@ -0,0 +1,313 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+
+/**
+ * Collects (key, row index) runs sorted by the workers, one run per page frame, and k-way merges
+ * them with a binary heap on the query owner thread. Runs are merged in frame order on equal keys,
+ * so the sort is stable. The merge may be limited to a range of rows, which is what top-K
+ * queries need.
+ */
+class AsyncSortRecordCursor implements RecordCursor {
+    private static final Log LOG = LogFactory.getLog(AsyncSortRecordCursor.class);
+    private final IntList heap = new IntList();
+    private final PageAddressCacheRecord record;
+    private final IntList runFrameIndexes = new IntList();
+    private final LongList runOffsets = new LongList();
+    // run boundaries in the runs list, the last element is the end of the last run
+    private final LongList runStarts = new LongList();
+    private final DirectLongList runs;
+    private boolean allFramesActive;
+    private long cursor = -1;
+    private int frameLimit;
+    private PageFrameSequence<? extends AsyncSortAtom> frameSequence;
+    private boolean isOpen;
+    private boolean isSorted;
+    private PageAddressCacheRecord recordB;
+    private long rowCount;
+    private long rowsHi;
+    private long rowsLo;
+
+    public AsyncSortRecordCursor(long initialCapacity) {
+        this.record = new PageAddressCacheRecord();
+        this.runs = new DirectLongList(initialCapacity, MemoryTag.NATIVE_LONG_LIST);
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            if (frameSequence != null) {
+                LOG.debug()
+                        .$("closing [shard=").$(frameSequence.getShard())
+                        .$(", frameCount=").$(frameSequence.getFrameCount())
+                        .$(", frameId=").$(frameSequence.getId())
+                        .$(", cursor=").$(cursor)
+                        .I$();
+
+                collectCursor(true);
+                if (frameLimit > -1) {
+                    frameSequence.await();
+                }
+                frameSequence.clear();
+            }
+            // keep the runs buffer allocated, so that it's reused by the next execution;
+            // it's freed along with the factory
+            runs.clear();
+            isOpen = false;
+        }
+    }
+
+    public void freeRecords() {
+        Misc.free(record);
+        Misc.free(recordB);
+        Misc.free(runs);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public Record getRecordB() {
+        if (recordB != null) {
+            return recordB;
+        }
+        recordB = new PageAddressCacheRecord(record);
+        return recordB;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isSorted) {
+            collectRuns();
+            isSorted = true;
+            initMerge();
+        }
+        return rowCount < rowsHi && nextRow();
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        ((PageAddressCacheRecord) record).setFrameIndex(Rows.toPartitionIndex(atRowId));
+        ((PageAddressCacheRecord) record).setRowIndex(Rows.toLocalRowID(atRowId));
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        if (isSorted) {
+            initMerge();
+        }
+    }
+
+    private void collectCursor(boolean forceCollect) {
+        if (cursor > -1) {
+            frameSequence.collect(cursor, forceCollect);
+            // It is necessary to clear 'cursor' value
+            // because we updated frameIndex and loop can exit due to lack of frames.
+            // Non-update of 'cursor' could cause double-free.
+            cursor = -1;
+        }
+    }
+
+    private void collectRuns() {
+        frameSequence.prepareForDispatch();
+        frameLimit = frameSequence.getFrameCount() - 1;
+        int frameIndex = -1;
+        try {
+            while (frameIndex < frameLimit) {
+                cursor = frameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", frameId=").$(frameSequence.getId())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+
+                    if (task.hasError()) {
+                        throw CairoException.nonCritical().put(task.getErrorMsg())
+                                .setCancellation(task.isCancelled()).setInterruption(task.isCancelled());
+                    }
+
+                    allFramesActive &= frameSequence.isActive();
+                    frameIndex = task.getFrameIndex();
+                    final DirectLongList pairs = task.getFilteredRows();
+                    if (pairs.size() > 0 && frameSequence.isActive()) {
+                        runFrameIndexes.add(frameIndex);
+                        runStarts.add(runs.size());
+                        runs.addAll(pairs);
+                    }
+                    collectCursor(false);
+                } else if (cursor == -2) {
+                    break; // No frames to sort
+                } else {
+                    Os.pause();
+                }
+            }
+        } catch (Throwable e) {
+            if (e instanceof CairoException) {
+                CairoException ce = (CairoException) e;
+                if (ce.isInterruption() || ce.isCancellation()) {
+                    LOG.error().$("sort error [ex=").$(ce.getFlyweightMessage()).I$();
+                    throwTimeoutException();
+                } else {
+                    LOG.error().$("sort error [ex=").$(e).I$();
+                    throw ce;
+                }
+            }
+            LOG.error().$("sort error [ex=").$(e).I$();
+            throw CairoException.nonCritical().put(e.getMessage());
+        }
+
+        if (!allFramesActive) {
+            throwTimeoutException();
+        }
+        runStarts.add(runs.size());
+    }
+
+    private int compareRuns(int runA, int runB) {
+        final int cmp = Long.compareUnsigned(runs.get(runOffsets.getQuick(runA)), runs.get(runOffsets.getQuick(runB)));
+        // earlier frames go first to keep the sort stable
+        return cmp != 0 ? cmp : Integer.compare(runA, runB);
+    }
+
+    private void initMerge() {
+        final int runCount = runFrameIndexes.size();
+        heap.clear();
+        runOffsets.clear();
+        for (int i = 0; i < runCount; i++) {
+            runOffsets.add(runStarts.getQuick(i));
+            heap.add(i);
+        }
+        for (int i = runCount / 2 - 1; i >= 0; i--) {
+            siftDown(i, runCount);
+        }
+        rowCount = 0;
+        while (rowCount < rowsLo && nextRow()) {
+            // skip rows below the lower bound
+        }
+    }
+
+    private boolean nextRow() {
+        int heapSize = heap.size();
+        if (heapSize == 0) {
+            return false;
+        }
+
+        final int run = heap.getQuick(0);
+        final long offset = runOffsets.getQuick(run);
+        record.setFrameIndex(runFrameIndexes.getQuick(run));
+        record.setRowIndex(runs.get(offset + 1));
+
+        final long nextOffset = offset + 2;
+        if (nextOffset < runStarts.getQuick(run + 1)) {
+            runOffsets.setQuick(run, nextOffset);
+        } else {
+            heap.setQuick(0, heap.getQuick(--heapSize));
+            heap.setPos(heapSize);
+        }
+        if (heapSize > 1) {
+            siftDown(0, heapSize);
+        }
+        rowCount++;
+        return true;
+    }
+
+    private void siftDown(int index, int heapSize) {
+        final int run = heap.getQuick(index);
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && compareRuns(heap.getQuick(child + 1), heap.getQuick(child)) < 0) {
+                child++;
+            }
+            final int childRun = heap.getQuick(child);
+            if (compareRuns(run, childRun) <= 0) {
+                break;
+            }
+            heap.setQuick(index, childRun);
+            index = child;
+        }
+        heap.setQuick(index, run);
+    }
+
+    private void throwTimeoutException() {
+        if (frameSequence.getCancelReason() == SqlExecutionCircuitBreaker.STATE_CANCELLED) {
+            throw CairoException.queryCancelled();
+        } else {
+            throw CairoException.queryTimedOut();
+        }
+    }
+
+    void of(PageFrameSequence<? extends AsyncSortAtom> frameSequence, long rowsLo, long rowsHi) {
+        isOpen = true;
+        this.frameSequence = frameSequence;
+        this.rowsLo = rowsLo;
+        this.rowsHi = rowsHi;
+        frameLimit = -1;
+        isSorted = false;
+        allFramesActive = true;
+        runs.reopen();
+        runs.clear();
+        runStarts.clear();
+        runOffsets.clear();
+        runFrameIndexes.clear();
+        heap.clear();
+        record.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        if (recordB != null) {
+            recordB.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_DESC;
+
+/**
+ * ORDER BY on a single fixed-size column that sorts page frames on the shared worker pool.
+ * <p>
+ * Each reduce task radix sorts (key, row index) pairs of a single page frame. The sorted runs
+ * are then merged on the query owner thread, see {@link AsyncSortRecordCursor}.
+ */
+public class AsyncSortRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final PageFrameReducer REDUCER = AsyncSortRecordCursorFactory::sortFrame;
+
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncSortRecordCursor cursor;
+    private final PageFrameSequence<AsyncSortAtom> frameSequence;
+    private final ListColumnFilter sortColumnFilter;
+    private final int workerCount;
+
+    public AsyncSortRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory base,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            @NotNull ListColumnFilter sortColumnFilter,
+            int workerCount
+    ) {
+        super(metadata);
+        final int keyColumnIndex = sortColumnFilter.getColumnIndexFactored(0);
+        final AsyncSortAtom atom = new AsyncSortAtom(
+                keyColumnIndex,
+                base.getMetadata().getColumnType(keyColumnIndex),
+                sortColumnFilter.getColumnIndex(0) < 0,
+                base.getScanDirection() != SCAN_DIRECTION_BACKWARD
+        );
+        try {
+            this.frameSequence = new PageFrameSequence<>(configuration, messageBus, atom, REDUCER, reduceTaskFactory, PageFrameReduceTask.TYPE_SORT);
+        } catch (Throwable th) {
+            Misc.free(atom);
+            throw th;
+        }
+        this.base = base;
+        this.sortColumnFilter = sortColumnFilter;
+        this.cursor = new AsyncSortRecordCursor(configuration.getSqlSortLightValuePageSize() / Long.BYTES);
+        this.workerCount = workerCount;
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final int order = base.getScanDirection() == SCAN_DIRECTION_BACKWARD ? ORDER_DESC : ORDER_ASC;
+        cursor.of(frameSequence.of(base, executionContext, collectSubSeq, order), 0, Long.MAX_VALUE);
+        return cursor;
+    }
+
+    @Override
+    public int getScanDirection() {
+        return SortedRecordCursorFactory.getScanDirection(sortColumnFilter);
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Sort");
+        sink.meta("workers").val(workerCount);
+        SortedLightRecordCursorFactory.addSortKeys(sink, sortColumnFilter);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    public boolean usesIndex() {
+        return base.usesIndex();
+    }
+
+    private static void sortFrame(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final DirectLongList pairs = task.getFilteredRows();
+        final long frameRowCount = task.getFrameRowCount();
+        final AsyncSortAtom atom = task.getFrameSequence(AsyncSortAtom.class).getAtom();
+
+        pairs.clear();
+        // the second half of the buffer is used by radix sort as a scratch space
+        final long capacity = 4 * frameRowCount;
+        if (pairs.getCapacity() < capacity) {
+            pairs.setCapacity(capacity);
+        }
+
+        final long address = pairs.getAddress();
+        final boolean forwardScan = atom.isForwardScan();
+        for (long i = 0; i < frameRowCount; i++) {
+            final long r = forwardScan ? i : frameRowCount - i - 1;
+            record.setRowIndex(r);
+            Unsafe.getUnsafe().putLong(address + 16 * i, atom.encodeKey(record));
+            Unsafe.getUnsafe().putLong(address + 16 * i + 8, r);
+        }
+        Vect.radixSortLongIndexAscInPlace(address, frameRowCount, address + 16 * frameRowCount);
+        pairs.setPos(2 * frameRowCount);
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        Misc.free(frameSequence);
+        cursor.freeRecords();
+    }
+}
@@ -0,0 +1,317 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReduceTaskFactory;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_DESC;
+import static io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory.applyCompiledFilter;
+import static io.questdb.griffin.engine.table.AsyncGroupByNotKeyedRecordCursorFactory.applyFilter;
+
+/**
+ * ORDER BY ... LIMIT on a single fixed-size column that runs on the shared worker pool.
+ * <p>
+ * Each reduce task filters a single page frame, if there is a filter, and keeps the top rows
+ * of the frame in a bounded binary heap of (key, row index) pairs. The heap is then sorted
+ * in place, so that the query owner thread only has to merge short sorted runs,
+ * see {@link AsyncSortRecordCursor}.
+ */
+public class AsyncTopKRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final PageFrameReducer REDUCER = AsyncTopKRecordCursorFactory::filterAndSelect;
+
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncSortRecordCursor cursor;
+    private final PageFrameSequence<AsyncTopKAtom> frameSequence;
+    private final Function hiFunction;
+    private final Function loFunction;
+    private final ListColumnFilter sortColumnFilter;
+    private final int workerCount;
+
+    public AsyncTopKRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory base,
+            @NotNull PageFrameReduceTaskFactory reduceTaskFactory,
+            @NotNull ListColumnFilter sortColumnFilter,
+            @NotNull Function loFunction,
+            @Nullable Function hiFunction,
+            @Nullable CompiledFilter compiledFilter,
+            @Nullable MemoryCARW bindVarMemory,
+            @Nullable ObjList<Function> bindVarFunctions,
+            @Nullable Function filter,
+            int workerCount
+    ) {
+        super(metadata);
+        final int keyColumnIndex = sortColumnFilter.getColumnIndexFactored(0);
+        final AsyncTopKAtom atom = new AsyncTopKAtom(
+                keyColumnIndex,
+                base.getMetadata().getColumnType(keyColumnIndex),
+                sortColumnFilter.getColumnIndex(0) < 0,
+                base.getScanDirection() != SCAN_DIRECTION_BACKWARD,
+                compiledFilter,
+                bindVarMemory,
+                bindVarFunctions,
+                filter
+        );
+        try {
+            this.frameSequence = new PageFrameSequence<>(configuration, messageBus, atom, REDUCER, reduceTaskFactory, PageFrameReduceTask.TYPE_TOP_K);
+        } catch (Throwable th) {
+            Misc.free(atom);
+            throw th;
+        }
+        this.base = base;
+        this.sortColumnFilter = sortColumnFilter;
+        this.loFunction = loFunction;
+        this.hiFunction = hiFunction;
+        this.cursor = new AsyncSortRecordCursor(configuration.getSqlSortLightValuePageSize() / Long.BYTES);
+        this.workerCount = workerCount;
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        // the code generator makes sure that the limit is non-negative
+        loFunction.init(null, executionContext);
+        long rowsLo = loFunction.getLong(null);
+        long rowsHi;
+        if (hiFunction != null) {
+            hiFunction.init(null, executionContext);
+            rowsHi = hiFunction.getLong(null);
+        } else {
+            rowsHi = rowsLo;
+            rowsLo = 0;
+        }
+        frameSequence.getAtom().setLimit(rowsHi);
+
+        final int order = base.getScanDirection() == SCAN_DIRECTION_BACKWARD ? ORDER_DESC : ORDER_ASC;
+        cursor.of(frameSequence.of(base, executionContext, collectSubSeq, order), rowsLo, rowsHi);
+        return cursor;
+    }
+
+    @Override
+    public int getScanDirection() {
+        return SortedRecordCursorFactory.getScanDirection(sortColumnFilter);
+    }
+
+    @Override
+    public boolean implementsLimit() {
+        return true;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        if (usesCompiledFilter()) {
+            sink.type("Async JIT Top K");
+        } else {
+            sink.type("Async Top K");
+        }
+        sink.meta("workers").val(workerCount);
+        sink.meta("lo").val(loFunction);
+        if (hiFunction != null) {
+            sink.meta("hi").val(hiFunction);
+        }
+        sink.optAttr("filter", frameSequence.getAtom().getFilter(), true);
+        SortedLightRecordCursorFactory.addSortKeys(sink, sortColumnFilter);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return frameSequence.getAtom().getCompiledFilter() != null;
+    }
+
+    @Override
+    public boolean usesIndex() {
+        return base.usesIndex();
+    }
+
+    private static int compare(long addressA, long addressB, boolean forwardScan) {
+        final int cmp = Long.compareUnsigned(Unsafe.getUnsafe().getLong(addressA), Unsafe.getUnsafe().getLong(addressB));
+        if (cmp != 0) {
+            return cmp;
+        }
+        // rows that come first in the scan order win on equal keys
+        final long rowA = Unsafe.getUnsafe().getLong(addressA + Long.BYTES);
+        final long rowB = Unsafe.getUnsafe().getLong(addressB + Long.BYTES);
+        return forwardScan ? Long.compare(rowA, rowB) : Long.compare(rowB, rowA);
+    }
+
+    private static void filterAndSelect(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final DirectLongList rows = task.getFilteredRows();
+        final PageAddressCache pageAddressCache = task.getPageAddressCache();
+        final long frameRowCount = task.getFrameRowCount();
+        final AsyncTopKAtom atom = task.getFrameSequence(AsyncTopKAtom.class).getAtom();
+
+        rows.clear();
+
+        final Function filter = atom.getFilter();
+        final long rowCount;
+        if (filter != null) {
+            final CompiledFilter compiledFilter = atom.getCompiledFilter();
+            if (compiledFilter == null || pageAddressCache.hasColumnTops(task.getFrameIndex())) {
+                // Use Java-based filter when there is no compiled filter or in case of a page frame with column tops.
+                applyFilter(filter, rows, record, frameRowCount);
+            } else {
+                applyCompiledFilter(compiledFilter, atom.getBindVarMemory(), atom.getBindVarFunctions(), task);
+            }
+            rowCount = rows.size();
+        } else {
+            rowCount = frameRowCount;
+        }
+
+        final long heapCapacity = Math.min(atom.getLimit(), rowCount);
+        if (heapCapacity < 1) {
+            rows.clear();
+            return;
+        }
+
+        // the heap goes right after the filtered rows
+        final long heapLo = filter != null ? rowCount : 0;
+        if (rows.getCapacity() < heapLo + 2 * heapCapacity) {
+            rows.setCapacity(heapLo + 2 * heapCapacity);
+        }
+        final long rowsAddress = rows.getAddress();
+        final long heapAddress = rowsAddress + heapLo * Long.BYTES;
+        final boolean forwardScan = atom.isForwardScan();
+
+        long heapSize = 0;
+        for (long i = 0; i < rowCount; i++) {
+            final long p = forwardScan ? i : rowCount - i - 1;
+            final long r = filter != null ? Unsafe.getUnsafe().getLong(rowsAddress + p * Long.BYTES) : p;
+            record.setRowIndex(r);
+            final long key = atom.encodeKey(record);
+            if (heapSize < heapCapacity) {
+                final long address = heapAddress + 16 * heapSize;
+                Unsafe.getUnsafe().putLong(address, key);
+                Unsafe.getUnsafe().putLong(address + Long.BYTES, r);
+                siftUp(heapAddress, heapSize++, forwardScan);
+            } else {
+                final long topKey = Unsafe.getUnsafe().getLong(heapAddress);
+                // later rows lose on equal keys, so only strictly smaller keys replace the top
+                if (Long.compareUnsigned(key, topKey) < 0) {
+                    Unsafe.getUnsafe().putLong(heapAddress, key);
+                    Unsafe.getUnsafe().putLong(heapAddress + Long.BYTES, r);
+                    siftDown(heapAddress, 0, heapSize, forwardScan);
+                }
+            }
+        }
+
+        // heap sort, the largest pairs go to the end
+        for (long n = heapSize - 1; n > 0; n--) {
+            swap(heapAddress, heapAddress + 16 * n);
+            siftDown(heapAddress, 0, n, forwardScan);
+        }
+
+        if (heapLo > 0) {
+            Vect.memmove(rowsAddress, heapAddress, 16 * heapSize);
+        }
+        rows.setPos(2 * heapSize);
+    }
+
+    private static void siftDown(long heapAddress, long index, long heapSize, boolean forwardScan) {
+        while (true) {
+            long child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && compare(heapAddress + 16 * (child + 1), heapAddress + 16 * child, forwardScan) > 0) {
+                child++;
+            }
+            final long address = heapAddress + 16 * index;
+            final long childAddress = heapAddress + 16 * child;
+            if (compare(address, childAddress, forwardScan) >= 0) {
+                break;
+            }
+            swap(address, childAddress);
+            index = child;
+        }
+    }
+
+    private static void siftUp(long heapAddress, long index, boolean forwardScan) {
+        while (index > 0) {
+            final long parent = (index - 1) / 2;
+            final long address = heapAddress + 16 * index;
+            final long parentAddress = heapAddress + 16 * parent;
+            if (compare(parentAddress, address, forwardScan) >= 0) {
+                break;
+            }
+            swap(address, parentAddress);
+            index = parent;
+        }
+    }
+
+    private static void swap(long addressA, long addressB) {
+        final long key = Unsafe.getUnsafe().getLong(addressA);
+        final long row = Unsafe.getUnsafe().getLong(addressA + Long.BYTES);
+        Unsafe.getUnsafe().putLong(addressA, Unsafe.getUnsafe().getLong(addressB));
+        Unsafe.getUnsafe().putLong(addressA + Long.BYTES, Unsafe.getUnsafe().getLong(addressB + Long.BYTES));
+        Unsafe.getUnsafe().putLong(addressB, key);
+        Unsafe.getUnsafe().putLong(addressB + Long.BYTES, row);
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        Misc.free(frameSequence);
+        cursor.freeRecords();
+        Misc.free(loFunction);
+        Misc.free(hiFunction);
+    }
+}
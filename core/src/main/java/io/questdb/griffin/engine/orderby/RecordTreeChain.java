@@ -97,6 +97,13 @@ public class RecordTreeChain implements Closeable, Mutable, Reopenable {
         return cursor;
     }
 
+    /**
+     * Returns number of bytes occupied by the tree nodes and the records.
+     */
+    public long getUsedSize() {
+        return mem.size() + recordChain.getUsedSize();
+    }
+
     public void put(Record record) {
         if (root == -1) {
             putParent(record);
@@ -24,21 +24,79 @@
 
 package io.questdb.griffin.engine.orderby;
 
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
 import io.questdb.griffin.SqlExecutionContext;
-import io.questdb.std.Misc;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sorts base cursor records in a red-black tree chain.
+ * <p>
+ * When {@link CairoConfiguration#getSqlSortSpillMemoryBudget()} is set and the tree outgrows it,
+ * the tree is written to a spill file as a sorted run and cleared. Once the base cursor is exhausted,
+ * the remaining records become the last run and all runs are k-way merged while iterating.
+ * Records that compare as equal keep the base cursor order.
+ */
 class SortedRecordCursor implements DelegatingRecordCursor {
+    private static final AtomicLong ID_SEQ = new AtomicLong();
     private final RecordTreeChain chain;
+    private final SpillRecord recordA;
+    private final SpillRecord recordB;
+    private final ColumnTypes columnTypes;
+    private final RecordComparator comparator;
+    private final FilesFacade ff;
+    private final IntList heap = new IntList();
+    private final int mkDirMode;
+    private final RecordSink recordSink;
+    private final LongList runHeads = new LongList();
+    private final LongList runOffsets = new LongList();
+    private final long spillMemoryBudget;
+    private final long spillPageSize;
+    private final CharSequence spillRoot;
     private RecordCursor base;
     private RecordTreeChain.TreeCursor chainCursor;
     private SqlExecutionCircuitBreaker circuitBreaker;
     private boolean isChainBuilt;
     private boolean isOpen;
+    private Record leftRecord;
+    private Path path;
+    private Record rightRecord;
+    private RecordChain spillChain;
+    private long spillId;
+    private Record spillRecord;
 
-    public SortedRecordCursor(RecordTreeChain chain) {
+    public SortedRecordCursor(
+            CairoConfiguration configuration,
+            RecordTreeChain chain,
+            ColumnTypes columnTypes,
+            RecordSink recordSink,
+            RecordComparator comparator
+    ) {
         this.chain = chain;
+        this.columnTypes = columnTypes;
+        this.recordSink = recordSink;
+        this.comparator = comparator;
+        this.ff = configuration.getFilesFacade();
+        this.mkDirMode = configuration.getMkDirMode();
+        this.spillRoot = configuration.getSqlSpillRoot();
+        this.spillMemoryBudget = spillRoot != null ? configuration.getSqlSortSpillMemoryBudget() : 0;
+        this.spillPageSize = configuration.getSqlSortValuePageSize();
+        // the sort may switch to the spill file after the caller has obtained the records,
+        // so in that case the records delegate to whichever storage holds the rows
+        this.recordA = spillMemoryBudget > 0 ? new SpillRecord() : null;
+        this.recordB = spillMemoryBudget > 0 ? new SpillRecord() : null;
         this.isOpen = true;
     }
 
@@ -46,20 +104,22 @@ class SortedRecordCursor implements DelegatingRecordCursor {
     public void close() {
         if (isOpen) {
             isOpen = false;
+            releaseSpill();
             Misc.free(chainCursor); // this call also closes base
             Misc.free(chain);
+            path = Misc.free(path);
             base = null;
         }
     }
 
     @Override
     public Record getRecord() {
-        return chainCursor.getRecord();
+        return recordA != null ? recordA : chainCursor.getRecord();
     }
 
     @Override
     public Record getRecordB() {
-        return chainCursor.getRecordB();
+        return recordB != null ? recordB : chainCursor.getRecordB();
     }
 
     @Override
@@ -73,7 +133,11 @@ class SortedRecordCursor implements DelegatingRecordCursor {
             buildChain();
             isChainBuilt = true;
         }
-        return chainCursor.hasNext();
+        return spillChain != null ? hasNextMerged() : chainCursor.hasNext();
+    }
+
+    public boolean isSpillEnabled() {
+        return spillMemoryBudget > 0;
     }
 
     @Override
@@ -88,15 +152,27 @@ class SortedRecordCursor implements DelegatingRecordCursor {
             this.chain.reopen();
         }
 
+        releaseSpill();
         this.base = base;
         chainCursor = chain.getCursor(base);
+        if (recordA != null) {
+            recordA.of(chainCursor.getRecord());
+            recordB.of(chainCursor.getRecordB());
+        }
         circuitBreaker = executionContext.getCircuitBreaker();
         isChainBuilt = false;
     }
 
     @Override
     public void recordAt(Record record, long atRowId) {
-        chainCursor.recordAt(record, atRowId);
+        if (record instanceof SpillRecord) {
+            record = ((SpillRecord) record).getBase();
+        }
+        if (spillChain != null) {
+            spillChain.recordAt(record, atRowId);
+        } else {
+            chainCursor.recordAt(record, atRowId);
+        }
     }
 
     @Override
@@ -106,7 +182,11 @@ class SortedRecordCursor implements DelegatingRecordCursor {
 
     @Override
     public void toTop() {
-        chainCursor.toTop();
+        if (spillChain != null) {
+            initMerge();
+        } else {
+            chainCursor.toTop();
+        }
     }
 
     private void buildChain() {
@@ -118,7 +198,147 @@ class SortedRecordCursor implements DelegatingRecordCursor {
             // own record instance in case base cursor keeps
             // state in the record it returns.
             chain.put(record);
+            if (spillMemoryBudget > 0 && chain.getUsedSize() > spillMemoryBudget) {
+                spillRun();
+            }
+        }
+        if (spillChain != null) {
+            // the remaining records become the last run
+            spillRun();
+            recordA.of(spillRecord);
+            recordB.of(spillChain.getRecordB());
         }
         toTop();
     }
+
+    private int compareRuns(int runA, int runB) {
+        spillChain.recordAt(leftRecord, runOffsets.getQuick(runA));
+        spillChain.recordAt(rightRecord, runOffsets.getQuick(runB));
+        comparator.setLeft(leftRecord);
+        final int cmp = comparator.compare(rightRecord);
+        // earlier runs go first to keep the sort stable
+        return cmp != 0 ? cmp : Integer.compare(runA, runB);
+    }
+
+    private boolean hasNextMerged() {
+        int heapSize = heap.size();
+        if (heapSize == 0) {
+            return false;
+        }
+
+        final int run = heap.getQuick(0);
+        final long offset = runOffsets.getQuick(run);
+        spillChain.recordAt(spillRecord, offset);
+
+        final long nextOffset = spillChain.getNextRecordOffset(offset);
+        if (nextOffset != -1) {
+            runOffsets.setQuick(run, nextOffset);
+        } else {
+            heap.setQuick(0, heap.getQuick(--heapSize));
+            heap.setPos(heapSize);
+        }
+        if (heapSize > 1) {
+            siftDown(0, heapSize);
+        }
+        return true;
+    }
+
+    private void initMerge() {
+        final int runCount = runHeads.size();
+        heap.clear();
+        runOffsets.clear();
+        for (int i = 0; i < runCount; i++) {
+            runOffsets.add(runHeads.getQuick(i));
+            heap.add(i);
+        }
+        for (int i = runCount / 2 - 1; i >= 0; i--) {
+            siftDown(i, runCount);
+        }
+    }
+
+    private void openSpill() {
+        if (path == null) {
+            path = new Path();
+        }
+        path.of(spillRoot).slash$();
+        if (!ff.exists(path.$()) && ff.mkdirs(path, mkDirMode) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create sort spill directory [path=").put(path).put(']');
+        }
+        spillId = ID_SEQ.incrementAndGet();
+        final MemoryARW mem = Vm.getCMARWInstance(
+                ff,
+                spillPath(),
+                spillPageSize,
+                -1,
+                MemoryTag.MMAP_DEFAULT,
+                CairoConfiguration.O_NONE
+        );
+        // the chain owns the memory from now on
+        spillChain = new RecordChain(columnTypes, recordSink, mem);
+        spillChain.setSymbolTableResolver(base);
+        spillRecord = spillChain.newRecord();
+        leftRecord = spillChain.newRecord();
+        rightRecord = spillChain.newRecord();
+    }
+
+    private void releaseSpill() {
+        if (spillChain != null) {
+            spillChain = Misc.free(spillChain);
+            ff.removeQuiet(spillPath());
+        }
+        runHeads.clear();
+        runOffsets.clear();
+        heap.clear();
+    }
+
+    private void siftDown(int index, int heapSize) {
+        final int run = heap.getQuick(index);
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && compareRuns(heap.getQuick(child + 1), heap.getQuick(child)) < 0) {
+                child++;
+            }
+            final int childRun = heap.getQuick(child);
+            if (compareRuns(run, childRun) <= 0) {
+                break;
+            }
+            heap.setQuick(index, childRun);
+            index = child;
+        }
+        heap.setQuick(index, run);
+    }
+
+    private LPSZ spillPath() {
+        return path.of(spillRoot).concat("sort_spill_").put(spillId).put(".d").$();
+    }
+
+    private void spillRun() {
+        if (spillChain == null) {
+            openSpill();
+        }
+        long head = -1;
+        long tail = -1;
+        chainCursor.toTop();
+        final Record record = chainCursor.getRecord();
+        while (chainCursor.hasNext()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            tail = spillChain.put(record, tail);
+            if (head == -1) {
+                head = tail;
+            }
+        }
+        if (head != -1) {
+            runHeads.add(head);
+        }
+        chain.clear();
+    }
+
+    private static class SpillRecord extends DelegatingRecord {
+        Record getBase() {
+            return base;
+        }
+    }
 }
@@ -62,7 +62,7 @@ public class SortedRecordCursorFactory extends AbstractRecordCursorFactory {
                 configuration.getSqlSortValueMaxPages()
         );
         this.base = base;
-        this.cursor = new SortedRecordCursor(chain);
+        this.cursor = new SortedRecordCursor(configuration, chain, metadata, recordSink, comparator);
         this.sortColumnFilter = sortColumnFilter;
     }
 
@@ -97,6 +97,9 @@ public class SortedRecordCursorFactory extends AbstractRecordCursorFactory {
     public void toPlan(PlanSink sink) {
         sink.type("Sort");
         SortedLightRecordCursorFactory.addSortKeys(sink, sortColumnFilter);
+        if (cursor.isSpillEnabled()) {
+            sink.attr("spill").val(true);
+        }
         sink.child(base);
     }
 
@@ -32,6 +32,7 @@ import io.questdb.griffin.Plannable;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.PerWorkerLocks;
+import io.questdb.griffin.engine.join.JoinKeyFilter;
 import io.questdb.std.*;
 import io.questdb.std.str.Utf8Sequence;
 import org.jetbrains.annotations.NotNull;
@@ -48,6 +49,8 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable, Plannable {
     private final ObjList<Function> perWorkerFilters;
     private final PerWorkerLocks perWorkerLocks;
     private final IntList preTouchColumnTypes;
+    // not owned by the atom, it's built and freed by the hash join consuming the filtered rows
+    private JoinKeyFilter keyFilter;
     private boolean preTouchEnabled;
 
     public AsyncFilterAtom(
@@ -89,6 +92,10 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable, Plannable {
         return perWorkerFilters.getQuick(filterId);
     }
 
+    public @Nullable JoinKeyFilter getKeyFilter() {
+        return keyFilter;
+    }
+
     @Override
     public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
         filter.init(symbolTableSource, executionContext);
@@ -218,6 +225,10 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable, Plannable {
         }
     }
 
+    public void setKeyFilter(@Nullable JoinKeyFilter keyFilter) {
+        this.keyFilter = keyFilter;
+    }
+
     @Override
     public void toPlan(PlanSink sink) {
         sink.val(filter);
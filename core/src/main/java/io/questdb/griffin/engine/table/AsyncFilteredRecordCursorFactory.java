@@ -36,6 +36,7 @@ import io.questdb.cairo.sql.async.PageFrameSequence;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.join.JoinKeyFilter;
 import io.questdb.mp.SCSequence;
 import io.questdb.std.*;
 import org.jetbrains.annotations.NotNull;
@@ -166,6 +167,15 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
         return base.recordCursorSupportsRandomAccess();
     }
 
+    /**
+     * Sets the filter of the hash join keys to be checked before the row filter. The join
+     * builds the key filter before it fetches the first row, i.e. before any page frame
+     * is dispatched to the workers, and it keeps the ownership of the key filter.
+     */
+    public void setKeyFilter(@Nullable JoinKeyFilter keyFilter) {
+        frameSequence.getAtom().setKeyFilter(keyFilter);
+    }
+
     @Override
     public boolean supportsFilterStealing() {
         return limitLoFunction == null;
@@ -224,11 +234,21 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
         final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
         final int filterId = atom.acquireFilter(workerId, owner, circuitBreaker);
         final Function filter = atom.getFilter(filterId);
+        final JoinKeyFilter keyFilter = atom.getKeyFilter();
         try {
-            for (long r = 0; r < frameRowCount; r++) {
-                record.setRowIndex(r);
-                if (filter.getBool(record)) {
-                    rows.add(r);
+            if (keyFilter != null) {
+                for (long r = 0; r < frameRowCount; r++) {
+                    record.setRowIndex(r);
+                    if (keyFilter.accept(record) && filter.getBool(record)) {
+                        rows.add(r);
+                    }
+                }
+            } else {
+                for (long r = 0; r < frameRowCount; r++) {
+                    record.setRowIndex(r);
+                    if (filter.getBool(record)) {
+                        rows.add(r);
+                    }
                 }
             }
         } finally {
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.LatestByCache;
+import io.questdb.cairo.LatestByCacheRegistry;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.IntList;
+import io.questdb.std.Numbers;
+import io.questdb.std.Rows;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * LATEST BY a single symbol column backed by the engine-wide {@link LatestByCache} of the table.
+ * The table writer keeps the cache current on appends, so a query finds the latest row ids
+ * without scanning the table. When the cache is not at the txn of the reader, for example after
+ * O3 merge, UPDATE, partition drop or truncate, the query falls back to the regular backward
+ * scan and stores its result in the cache.
+ */
+class LatestByAllCachedRecordCursor extends AbstractDescendingRecordListCursor {
+    private static final long SLOT_EMPTY = -1;
+    private final int columnIndex;
+    // latest row id per symbol key found by the backward scan; slot 0 is reserved for null
+    private final DirectLongList slots;
+    private LatestByCacheRegistry latestByCacheRegistry;
+
+    public LatestByAllCachedRecordCursor(
+            int columnIndex,
+            @NotNull DirectLongList rows,
+            @NotNull DirectLongList slots,
+            @NotNull IntList columnIndexes
+    ) {
+        super(rows, columnIndexes);
+        this.columnIndex = columnIndex;
+        this.slots = slots;
+    }
+
+    @Override
+    public void of(DataFrameCursor dataFrameCursor, SqlExecutionContext executionContext) throws SqlException {
+        latestByCacheRegistry = executionContext.getCairoEngine().getLatestByCacheRegistry();
+        super.of(dataFrameCursor, executionContext);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Row cached scan").meta("on").putColumnName(columnIndex);
+    }
+
+    private int ensureSlot(int key) {
+        final int slot = key == Numbers.INT_NULL ? 0 : key + 1;
+        while (slots.size() <= slot) {
+            slots.add(SLOT_EMPTY);
+        }
+        return slot;
+    }
+
+    private void scan(TableReader reader, int symbolCount) {
+        slots.clear();
+        for (int i = 0; i <= symbolCount; i++) {
+            slots.add(SLOT_EMPTY);
+        }
+
+        final long slotCount = slots.size();
+        long foundCount = 0;
+        for (int partitionIndex = reader.getPartitionCount() - 1; partitionIndex > -1 && foundCount < slotCount; partitionIndex--) {
+            final long rowHi = reader.openPartition(partitionIndex) - 1;
+            if (rowHi < 0) {
+                continue;
+            }
+
+            recordA.jumpTo(partitionIndex, rowHi);
+            for (long row = rowHi; row >= 0; row--) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                recordA.setRecordIndex(row);
+                final int slot = ensureSlot(recordA.getInt(columnIndex));
+                if (slots.get(slot) == SLOT_EMPTY) {
+                    slots.set(slot, Rows.toRowID(partitionIndex, row));
+                    if (++foundCount == slotCount) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void buildTreeMap() {
+        final TableReader reader = dataFrameCursor.getTableReader();
+        final int writerIndex = reader.getMetadata().getWriterIndex(columnIndex);
+        final LatestByCache cache = latestByCacheRegistry.getOrCreate(reader.getTableToken());
+        if (!cache.copyTo(reader.getTxn(), writerIndex, rows)) {
+            scan(reader, getSymbolTable(columnIndex).getSymbolCount());
+            cache.store(writerIndex, reader.getTxFile(), slots);
+            for (long i = 0, n = slots.size(); i < n; i++) {
+                final long rowId = slots.get(i);
+                if (rowId != SLOT_EMPTY) {
+                    rows.add(rowId);
+                }
+            }
+        }
+        rows.sortAsUnsigned();
+
+        // rows are consumed from the end, so keep them in descending order
+        for (long lo = 0, hi = rows.size() - 1; lo <= hi; lo++, hi--) {
+            final long rowLo = rows.get(lo);
+            final long rowHi = rows.get(hi);
+            rows.set(lo, rowHi);
+            rows.set(hi, rowLo);
+        }
+
+        // the reader may not have the cached partitions open
+        int lastPartitionIndex = -1;
+        for (long i = 0, n = rows.size(); i < n; i++) {
+            final int partitionIndex = Rows.toPartitionIndex(rows.get(i));
+            if (partitionIndex != lastPartitionIndex) {
+                reader.openPartition(partitionIndex);
+                lastPartitionIndex = partitionIndex;
+            }
+        }
+    }
+}
@@ -33,7 +33,7 @@ import io.questdb.std.str.Utf16Sink;
 import io.questdb.std.str.Utf8Sequence;
 import io.questdb.std.str.Utf8Sink;
 
-class SelectedRecord implements Record {
+public class SelectedRecord implements Record {
     private final IntList columnCrossIndex;
     private Record base;
 
@@ -224,7 +224,7 @@ class SelectedRecord implements Record {
         return base;
     }
 
-    void of(Record record) {
+    public void of(Record record) {
         this.base = record;
     }
 }
@@ -59,6 +59,15 @@ public class TableReaderTimeFrameCursor implements TimeFrameRecordCursor {
         dataFrameCursor = Misc.free(dataFrameCursor);
     }
 
+    @Override
+    public BitmapIndexReader getBitmapIndexReader(int frameIndex, int columnIndex, int direction) {
+        final int readerColumnIndex = columnIndexes.getQuick(columnIndex);
+        if (!reader.getMetadata().isColumnIndexed(readerColumnIndex)) {
+            return null;
+        }
+        return reader.getBitmapIndexReader(frameIndex, readerColumnIndex, direction);
+    }
+
     @Override
     public Record getRecord() {
         return recordA;
@@ -84,13 +93,27 @@ public class TableReaderTimeFrameCursor implements TimeFrameRecordCursor {
         return reader.newSymbolTable(columnIndexes.getQuick(columnIndex));
     }
 
+    @Override
+    public void jumpTo(int frameIndex) {
+        if (frameIndex > -1 && frameIndex < partitionHi) {
+            ofPartition(frameIndex);
+        } else {
+            timeFrame.of(frameIndex < 0 ? -1 : partitionHi, Long.MIN_VALUE, Long.MIN_VALUE);
+        }
+    }
+
+    @Override
+    public Record newRecord() {
+        final TableReaderSelectedColumnRecord record = new TableReaderSelectedColumnRecord(columnIndexes);
+        record.of(reader);
+        return record;
+    }
+
     @Override
     public boolean next() {
         int partitionIndex = timeFrame.partitionIndex;
         if (++partitionIndex < partitionHi) {
-            long timestampLo = reader.getPartitionTimestampByIndex(partitionIndex);
-            long maxTimestampHi = partitionIndex < partitionHi - 2 ? reader.getPartitionTimestampByIndex(partitionIndex + 1) : Long.MAX_VALUE;
-            timeFrame.of(partitionIndex, timestampLo, estimatePartitionHi(timestampLo, maxTimestampHi));
+            ofPartition(partitionIndex);
             return true;
         }
         // Update frame index in case of subsequent prev() call.
@@ -136,9 +159,7 @@ public class TableReaderTimeFrameCursor implements TimeFrameRecordCursor {
     public boolean prev() {
         int partitionIndex = timeFrame.partitionIndex;
         if (--partitionIndex >= 0) {
-            long timestampLo = reader.getPartitionTimestampByIndex(partitionIndex);
-            long maxTimestampHi = partitionIndex < partitionHi - 2 ? reader.getPartitionTimestampByIndex(partitionIndex + 1) : Long.MAX_VALUE;
-            timeFrame.of(partitionIndex, timestampLo, estimatePartitionHi(timestampLo, maxTimestampHi));
+            ofPartition(partitionIndex);
             return true;
         }
         // Update frame index in case of subsequent next() call.
@@ -164,6 +185,12 @@ public class TableReaderTimeFrameCursor implements TimeFrameRecordCursor {
         return Math.min(partitionHi, maxTimestampHi);
     }
 
+    private void ofPartition(int partitionIndex) {
+        long timestampLo = reader.getPartitionTimestampByIndex(partitionIndex);
+        long maxTimestampHi = partitionIndex < partitionHi - 2 ? reader.getPartitionTimestampByIndex(partitionIndex + 1) : Long.MAX_VALUE;
+        timeFrame.of(partitionIndex, timestampLo, estimatePartitionHi(timestampLo, maxTimestampHi));
+    }
+
     private static class TableReaderTimeFrame implements TimeFrame, Mutable {
         private long estimateTimestampHi;
         private long estimateTimestampLo;
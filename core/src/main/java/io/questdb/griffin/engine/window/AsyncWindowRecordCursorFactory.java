@@ -0,0 +1,437 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.window;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.MCSequence;
+import io.questdb.mp.MPSequence;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.std.*;
+import io.questdb.tasks.WindowShardTask;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Evaluates window functions that share the same PARTITION BY clause on the shared worker pool.
+ * <p>
+ * The owner thread copies the base cursor into a record chain and hashes the partition key of
+ * each row to pick one of the shards. Since all rows of a partition land in the same shard,
+ * the shards hold independent workloads: each of them sorts its rows and runs the window
+ * function passes with its own copies of the functions. The result is the same record chain
+ * {@link CachedWindowRecordCursorFactory} would have built.
+ */
+public class AsyncWindowRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final Log LOG = LogFactory.getLog(AsyncWindowRecordCursorFactory.class);
+    private final RecordCursorFactory base;
+    private final GenericRecordMetadata chainMetadata;
+    private final AsyncWindowRecordCursor cursor;
+    private final MessageBus messageBus;
+    private final ObjList<Function> partitionByFunctions;
+    private final Map partitionByKeyMap;
+    private final VirtualRecord partitionByRecord;
+    private final RecordSink partitionBySink;
+    private final int shardMask;
+    private final ObjList<WindowShard> shards;
+    private final ObjList<IntList> sortKeys;
+    private final int workerCount;
+
+    public AsyncWindowRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordCursorFactory base,
+            @NotNull RecordSink recordSink,
+            @NotNull GenericRecordMetadata metadata,
+            @Transient @NotNull ColumnTypes chainTypes,
+            @NotNull ObjList<WindowShard> shards,
+            @NotNull ObjList<Function> partitionByFunctions,
+            @NotNull RecordSink partitionBySink,
+            @Transient @NotNull ColumnTypes partitionByKeyTypes,
+            @NotNull IntList columnIndexes,
+            @NotNull ObjList<IntList> sortKeys,
+            @NotNull GenericRecordMetadata chainMetadata,
+            int workerCount
+    ) {
+        super(metadata);
+        assert Numbers.isPow2(shards.size());
+        try {
+            this.base = base;
+            this.messageBus = messageBus;
+            this.shards = shards;
+            this.shardMask = shards.size() - 1;
+            this.partitionByFunctions = partitionByFunctions;
+            this.partitionByRecord = new VirtualRecord(partitionByFunctions);
+            this.partitionBySink = partitionBySink;
+            this.partitionByKeyMap = MapFactory.createOrderedMap(configuration, partitionByKeyTypes);
+            this.sortKeys = sortKeys;
+            this.chainMetadata = chainMetadata;
+            this.workerCount = workerCount;
+            final RecordChain recordChain = new RecordChain(
+                    chainTypes,
+                    recordSink,
+                    configuration.getSqlWindowStorePageSize(),
+                    configuration.getSqlWindowStoreMaxPages()
+            );
+            for (int i = 0, n = shards.size(); i < n; i++) {
+                shards.getQuick(i).of(recordChain);
+            }
+            this.cursor = new AsyncWindowRecordCursor(columnIndexes, recordChain);
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return base.followedOrderByAdvice();
+    }
+
+    @Override
+    public String getBaseColumnName(int idx) {
+        return chainMetadata.getColumnName(idx);
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            cursor.of(baseCursor, executionContext);
+            return cursor;
+        } catch (Throwable th) {
+            cursor.close();
+            throw th;
+        }
+    }
+
+    @Override
+    public int getScanDirection() {
+        return base.getScanDirection();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async CachedWindow");
+        sink.meta("workers").val(workerCount);
+        sink.attr("shards").val(shards.size());
+
+        // all shards hold copies of the same functions, so the first one describes them
+        final WindowShard shard = shards.getQuick(0);
+        final ObjList<ObjList<WindowFunction>> orderedFunctions = shard.getOrderedFunctions();
+        boolean oldVal = sink.getUseBaseMetadata();
+        try {
+            if (orderedFunctions.size() > 0) {
+                sink.attr("orderedFunctions");
+                sink.val("[");
+
+                sink.useBaseMetadata(true);
+
+                for (int i = 0, n = orderedFunctions.size(); i < n; i++) {
+                    if (i > 0) {
+                        sink.val(',');
+                    }
+                    sink.val('[');
+
+                    addSortKeys(sink, sortKeys.getQuick(i));
+
+                    sink.val("] => [");
+                    ObjList<WindowFunction> functions = orderedFunctions.getQuick(i);
+                    for (int j = 0, k = functions.size(); j < k; j++) {
+                        if (j > 0) {
+                            sink.val(',');
+                        }
+                        sink.val(functions.getQuick(j));
+                    }
+
+                    sink.val("]");
+                }
+                sink.val(']');
+            }
+
+            sink.optAttr("unorderedFunctions", shard.getUnorderedFunctions(), true);
+        } finally {
+            sink.useBaseMetadata(oldVal);
+        }
+
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    public boolean usesIndex() {
+        return base.usesIndex();
+    }
+
+    private void addSortKeys(PlanSink sink, IntList list) {
+        for (int i = 0, n = list.size(); i < n; i++) {
+            int colIdx = list.get(i);
+            int col = (colIdx > 0 ? colIdx : -colIdx) - 1;
+            if (i > 0) {
+                sink.val(", ");
+            }
+            sink.val(chainMetadata.getColumnName(col));
+            if (colIdx < 0) {
+                sink.val(" ").val("desc");
+            }
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        Misc.free(cursor);
+        Misc.free(partitionByKeyMap);
+        Misc.freeObjList(partitionByFunctions);
+        if (shards != null) {
+            for (int i = 0, n = shards.size(); i < n; i++) {
+                final WindowShard shard = shards.getQuick(i);
+                Misc.free(shard);
+                Misc.freeObjList(shard.getFunctions());
+            }
+        }
+    }
+
+    class AsyncWindowRecordCursor implements RecordCursor {
+        private final IntList columnIndexes; // Used for symbol table lookups.
+        private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+        private final RecordChain recordChain;
+        private final AtomicBooleanCircuitBreaker sharedCircuitBreaker = new AtomicBooleanCircuitBreaker();
+        private RecordCursor baseCursor;
+        private SqlExecutionCircuitBreaker circuitBreaker;
+        private boolean isOpen;
+        private boolean isRecordChainBuilt;
+        private long recordChainOffset;
+
+        AsyncWindowRecordCursor(IntList columnIndexes, RecordChain recordChain) {
+            this.columnIndexes = columnIndexes;
+            this.recordChain = recordChain;
+            this.recordChain.setSymbolTableResolver(this);
+            this.isOpen = true;
+        }
+
+        @Override
+        public void calculateSize(SqlExecutionCircuitBreaker circuitBreaker, RecordCursor.Counter counter) {
+            if (!isRecordChainBuilt) {
+                buildRecordChain();
+            }
+            recordChain.calculateSize(circuitBreaker, counter);
+        }
+
+        @Override
+        public void close() {
+            if (isOpen) {
+                Misc.free(baseCursor);
+                Misc.free(recordChain);
+                partitionByKeyMap.close();
+                for (int i = 0, n = shards.size(); i < n; i++) {
+                    Misc.free(shards.getQuick(i));
+                }
+                isOpen = false;
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return recordChain.getRecord();
+        }
+
+        @Override
+        public Record getRecordB() {
+            return recordChain.getRecordB();
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return baseCursor.getSymbolTable(columnIndexes.getQuick(columnIndex));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!isRecordChainBuilt) {
+                buildRecordChain();
+            }
+            return recordChain.hasNext();
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            return baseCursor.newSymbolTable(columnIndexes.getQuick(columnIndex));
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            recordChain.recordAt(record, atRowId);
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+            recordChain.toTop();
+        }
+
+        private void buildRecordChain() {
+            // step #1: copy the base cursor into the record chain and assign each row
+            // to the shard its partition key hashes to
+            final Record record = baseCursor.getRecord();
+            final Record chainRecord = recordChain.getRecord();
+            partitionByRecord.of(chainRecord);
+            while (baseCursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                recordChainOffset = recordChain.put(record, recordChainOffset);
+                recordChain.recordAt(chainRecord, recordChainOffset);
+                final MapKey key = partitionByKeyMap.withKey();
+                key.put(partitionByRecord, partitionBySink);
+                key.commit();
+                shards.getQuick((int) (key.hash() & shardMask)).addRow(recordChainOffset);
+            }
+
+            // step #2: sort and evaluate the shards in parallel
+            evaluateShards();
+
+            recordChain.toTop();
+            isRecordChainBuilt = true;
+        }
+
+        private void evaluateShards() {
+            sharedCircuitBreaker.reset();
+            doneLatch.reset();
+
+            final RingQueue<WindowShardTask> queue = messageBus.getWindowShardQueue();
+            final MPSequence pubSeq = messageBus.getWindowShardPubSeq();
+            final MCSequence subSeq = messageBus.getWindowShardSubSeq();
+
+            int queuedCount = 0;
+            int ownCount = 0;
+            int reclaimed = 0;
+
+            try {
+                for (int i = 0, n = shards.size(); i < n; i++) {
+                    final WindowShard shard = shards.getQuick(i);
+                    if (shard.getRowCount() == 0) {
+                        continue;
+                    }
+                    long cursor = pubSeq.next();
+                    if (cursor < 0) {
+                        circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+                        shard.evaluate(circuitBreaker);
+                        ownCount++;
+                    } else {
+                        queue.get(cursor).of(sharedCircuitBreaker, doneLatch, shard);
+                        pubSeq.done(cursor);
+                        queuedCount++;
+                    }
+                }
+            } catch (Throwable e) {
+                sharedCircuitBreaker.cancel();
+                throw e;
+            } finally {
+                // Consume the queue while waiting for the workers. The latch tells us when
+                // all tasks of this query are done, the queue may hold tasks of other queries.
+                while (!doneLatch.done(queuedCount)) {
+                    if (circuitBreaker.checkIfTripped()) {
+                        sharedCircuitBreaker.cancel();
+                    }
+
+                    long cursor = subSeq.next();
+                    if (cursor > -1) {
+                        WindowShardJob.run(queue.get(cursor), subSeq, cursor);
+                        reclaimed++;
+                    } else {
+                        Os.pause();
+                    }
+                }
+            }
+
+            if (sharedCircuitBreaker.checkIfTripped()) {
+                circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+                for (int i = 0, n = shards.size(); i < n; i++) {
+                    final Throwable error = shards.getQuick(i).getError();
+                    if (error instanceof RuntimeException) {
+                        throw (RuntimeException) error;
+                    }
+                    if (error != null) {
+                        throw CairoException.nonCritical().put("window function evaluation failed [error=").put(error.getMessage()).put(']');
+                    }
+                }
+                throw CairoException.queryCancelled();
+            }
+
+            LOG.debug().$("window shards done [shards=").$(shards.size())
+                    .$(", ownCount=").$(ownCount)
+                    .$(", reclaimed=").$(reclaimed)
+                    .$(", queuedCount=").$(queuedCount).I$();
+        }
+
+        private void of(RecordCursor baseCursor, SqlExecutionContext executionContext) throws SqlException {
+            this.baseCursor = baseCursor;
+            isRecordChainBuilt = false;
+            recordChainOffset = -1;
+            circuitBreaker = executionContext.getCircuitBreaker();
+            if (!isOpen) {
+                isOpen = true;
+                recordChain.reopen();
+                recordChain.setSymbolTableResolver(this);
+                partitionByKeyMap.reopen();
+                for (int i = 0, n = shards.size(); i < n; i++) {
+                    shards.getQuick(i).reopen();
+                }
+            }
+            for (int i = 0, n = shards.size(); i < n; i++) {
+                final WindowShard shard = shards.getQuick(i);
+                shard.clear();
+                Function.init(shard.getFunctions(), this, executionContext);
+            }
+            Function.init(partitionByFunctions, this, executionContext);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.window;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.WindowSPI;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.griffin.engine.orderby.LongTreeChain;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Window function workload for the partitions that hash to a single shard. Each shard owns its
+ * copies of the window functions along with their sort trees and comparators, so shards can be
+ * evaluated concurrently. The record chain is shared: it is only read while shards are evaluated,
+ * and every shard writes window function values to the rows of its own partitions.
+ */
+public class WindowShard implements WindowSPI, Reopenable {
+    private static final long INITIAL_ROW_CAPACITY = 1024;
+    private final ObjList<WindowFunction> allFunctions = new ObjList<>();
+    private final ObjList<RecordComparator> comparators;
+    private final ObjList<ObjList<WindowFunction>> ordered2PassFunctions = new ObjList<>();
+    private final ObjList<ObjList<WindowFunction>> orderedFunctions;
+    private final int orderedGroupCount;
+    private final ObjList<LongTreeChain> orderedSources = new ObjList<>();
+    private final DirectLongList rowOffsets;
+    private final ObjList<WindowFunction> unordered2PassFunctions = new ObjList<>();
+    @Nullable
+    private final ObjList<WindowFunction> unorderedFunctions;
+    private Record chainRecord;
+    private Record chainRightRecord;
+    private volatile Throwable error;
+    private RecordChain recordChain;
+    private Record spiRecord;
+
+    public WindowShard(
+            @NotNull CairoConfiguration configuration,
+            @NotNull ObjList<RecordComparator> comparators,
+            @NotNull ObjList<ObjList<WindowFunction>> orderedFunctions,
+            @Nullable ObjList<WindowFunction> unorderedFunctions
+    ) {
+        this.comparators = comparators;
+        this.orderedFunctions = orderedFunctions;
+        this.unorderedFunctions = unorderedFunctions;
+        this.orderedGroupCount = comparators.size();
+        assert orderedGroupCount == orderedFunctions.size();
+
+        for (int i = 0; i < orderedGroupCount; i++) {
+            final ObjList<WindowFunction> functions = orderedFunctions.getQuick(i);
+            allFunctions.addAll(functions);
+            ObjList<WindowFunction> twoPassFunctions = null;
+            for (int j = 0, k = functions.size(); j < k; j++) {
+                final WindowFunction function = functions.getQuick(j);
+                if (function.getPassCount() > WindowFunction.ONE_PASS) {
+                    if (twoPassFunctions == null) {
+                        twoPassFunctions = new ObjList<>();
+                    }
+                    twoPassFunctions.add(function);
+                }
+            }
+            ordered2PassFunctions.add(twoPassFunctions);
+        }
+
+        if (unorderedFunctions != null) {
+            allFunctions.addAll(unorderedFunctions);
+            for (int i = 0, n = unorderedFunctions.size(); i < n; i++) {
+                final WindowFunction function = unorderedFunctions.getQuick(i);
+                if (function.getPassCount() > WindowFunction.ONE_PASS) {
+                    unordered2PassFunctions.add(function);
+                }
+            }
+        }
+
+        try {
+            for (int i = 0; i < orderedGroupCount; i++) {
+                orderedSources.add(
+                        new LongTreeChain(
+                                configuration.getSqlWindowTreeKeyPageSize(),
+                                configuration.getSqlWindowTreeKeyMaxPages(),
+                                configuration.getSqlWindowRowIdPageSize(),
+                                configuration.getSqlWindowRowIdMaxPages()
+                        )
+                );
+            }
+            this.rowOffsets = new DirectLongList(INITIAL_ROW_CAPACITY, MemoryTag.NATIVE_LONG_LIST);
+        } catch (Throwable th) {
+            Misc.freeObjList(orderedSources);
+            throw th;
+        }
+    }
+
+    public void addRow(long recordOffset) {
+        rowOffsets.add(recordOffset);
+    }
+
+    public void clear() {
+        rowOffsets.clear();
+        error = null;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(rowOffsets);
+        Misc.freeObjList(orderedSources);
+        for (int i = 0, n = allFunctions.size(); i < n; i++) {
+            allFunctions.getQuick(i).reset();
+        }
+        error = null;
+    }
+
+    /**
+     * Sorts the rows of this shard for each ordered function group and runs all window
+     * function passes over them. Unordered functions see the rows in the record chain order.
+     */
+    public void evaluate(SqlExecutionCircuitBreaker circuitBreaker) {
+        final long rowCount = rowOffsets.size();
+        final RecordChain recordChain = this.recordChain;
+        final Record chainRecord = this.chainRecord;
+
+        // step #1: sort row offsets of the shard, one tree per ordered group
+        for (int i = 0; i < orderedGroupCount; i++) {
+            final LongTreeChain tree = orderedSources.getQuick(i);
+            final RecordComparator comparator = comparators.getQuick(i);
+            for (long r = 0; r < rowCount; r++) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                recordChain.recordAt(chainRecord, rowOffsets.get(r));
+                tree.put(chainRecord, recordChain, chainRightRecord, comparator);
+            }
+        }
+
+        // step #2: run pass1 for ordered functions in the order of the respective tree
+        long offset;
+        for (int i = 0; i < orderedGroupCount; i++) {
+            final ObjList<WindowFunction> functions = orderedFunctions.getQuick(i);
+            final LongTreeChain.TreeCursor cursor = orderedSources.getQuick(i).getCursor();
+            final int functionCount = functions.size();
+            while (cursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                offset = cursor.next();
+                recordChain.recordAt(chainRecord, offset);
+                for (int j = 0; j < functionCount; j++) {
+                    functions.getQuick(j).pass1(chainRecord, offset, this);
+                }
+            }
+        }
+
+        // run pass1 for unordered functions
+        if (unorderedFunctions != null) {
+            for (int j = 0, n = unorderedFunctions.size(); j < n; j++) {
+                final WindowFunction f = unorderedFunctions.getQuick(j);
+                for (long r = 0; r < rowCount; r++) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    offset = rowOffsets.get(r);
+                    recordChain.recordAt(chainRecord, offset);
+                    f.pass1(chainRecord, offset, this);
+                }
+            }
+        }
+
+        // step #3: prepare and run pass2
+        for (int i = 0, n = allFunctions.size(); i < n; i++) {
+            final WindowFunction f = allFunctions.getQuick(i);
+            if (f.getPassCount() > WindowFunction.ONE_PASS) {
+                f.preparePass2();
+            }
+        }
+
+        for (int i = 0; i < orderedGroupCount; i++) {
+            final ObjList<WindowFunction> functions = ordered2PassFunctions.getQuick(i);
+            if (functions == null) {
+                continue;
+            }
+            final LongTreeChain.TreeCursor cursor = orderedSources.getQuick(i).getCursor();
+            final int functionCount = functions.size();
+            while (cursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                offset = cursor.next();
+                recordChain.recordAt(chainRecord, offset);
+                for (int j = 0; j < functionCount; j++) {
+                    functions.getQuick(j).pass2(chainRecord, offset, this);
+                }
+            }
+        }
+
+        for (int j = 0, n = unordered2PassFunctions.size(); j < n; j++) {
+            final WindowFunction f = unordered2PassFunctions.getQuick(j);
+            for (long r = 0; r < rowCount; r++) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                offset = rowOffsets.get(r);
+                recordChain.recordAt(chainRecord, offset);
+                f.pass2(chainRecord, offset, this);
+            }
+        }
+    }
+
+    @Override
+    public long getAddress(long recordOffset, int columnIndex) {
+        return recordChain.getAddress(recordOffset, columnIndex);
+    }
+
+    public @Nullable Throwable getError() {
+        return error;
+    }
+
+    public ObjList<WindowFunction> getFunctions() {
+        return allFunctions;
+    }
+
+    public ObjList<ObjList<WindowFunction>> getOrderedFunctions() {
+        return orderedFunctions;
+    }
+
+    @Override
+    public Record getRecordAt(long recordOffset) {
+        recordChain.recordAt(spiRecord, recordOffset);
+        return spiRecord;
+    }
+
+    public long getRowCount() {
+        return rowOffsets.size();
+    }
+
+    public @Nullable ObjList<WindowFunction> getUnorderedFunctions() {
+        return unorderedFunctions;
+    }
+
+    public void of(RecordChain recordChain) {
+        if (this.recordChain != recordChain) {
+            this.recordChain = recordChain;
+            this.chainRecord = recordChain.newRecord();
+            this.chainRightRecord = recordChain.newRecord();
+            this.spiRecord = recordChain.newRecord();
+        }
+    }
+
+    @Override
+    public void reopen() {
+        rowOffsets.reopen();
+        for (int i = 0, n = orderedSources.size(); i < n; i++) {
+            orderedSources.getQuick(i).reopen();
+        }
+        for (int i = 0, n = allFunctions.size(); i < n; i++) {
+            if (allFunctions.getQuick(i) instanceof Reopenable) {
+                ((Reopenable) allFunctions.getQuick(i)).reopen();
+            }
+        }
+    }
+
+    public void setError(Throwable error) {
+        this.error = error;
+    }
+}
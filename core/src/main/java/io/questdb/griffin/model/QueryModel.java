@@ -54,10 +54,11 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
     public static final int JOIN_CROSS_LEFT = 8;
     public static final int JOIN_INNER = 1;
     public static final int JOIN_LT = 6;
-    public static final int JOIN_MAX = JOIN_CROSS_LEFT;
+    public static final int JOIN_MAX = QueryModel.JOIN_WINDOW;
     public static final int JOIN_ONE = 7;
     public static final int JOIN_OUTER = 2;
     public static final int JOIN_SPLICE = 5;
+    public static final int JOIN_WINDOW = 9;
     public static final int LATEST_BY_DEPRECATED = 1;
     public static final int LATEST_BY_NEW = 2;
     public static final int LATEST_BY_NONE = 0;
@@ -101,6 +102,8 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
     private final LowerCaseCharSequenceObjHashMap<CharSequence> columnNameToAliasMap = new LowerCaseCharSequenceObjHashMap<>();
     private final IntHashSet dependencies = new IntHashSet();
     private final ObjList<ExpressionNode> expressionModels = new ObjList<>();
+    // gap fill values of SAMPLE BY that was rewritten into GROUP BY
+    private final ObjList<ExpressionNode> fillValues = new ObjList<>();
     private final ObjList<ExpressionNode> groupBy = new ObjList<>();
     private final ObjList<ExpressionNode> joinColumns = new ObjList<>(4);
     private final ObjList<QueryModel> joinModels = new ObjList<>();
@@ -139,6 +142,8 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
     private JoinContext context;
     private boolean distinct = false;
     private boolean explicitTimestamp;
+    private ExpressionNode fillStride;
+    private ExpressionNode fillTimezone;
     //simple flag to mark when limit x,y in current model (part of query) is already taken care of by existing factories e.g. LimitedSizeSortedLightRecordCursorFactory
     //and doesn't need to be enforced by LimitRecordCursor. We need it to detect whether current factory implements limit from this or inner query .
     private boolean isLimitImplemented;
@@ -184,6 +189,9 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
     private QueryModel updateTableModel;
     private TableToken updateTableToken;
     private ExpressionNode whereClause;
+    // window join range, in microseconds relative to the master row timestamp
+    private long windowJoinHi;
+    private long windowJoinLo;
 
     private QueryModel() {
         joinModels.add(this);
@@ -366,6 +374,7 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         joinModels.clear();
         joinModels.add(this);
         clearSampleBy();
+        clearFill();
         orderBy.clear();
         orderByDirection.clear();
         orderByAdvice.clear();
@@ -387,6 +396,8 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         joinCriteria = null;
         joinType = JOIN_INNER;
         joinKeywordPosition = 0;
+        windowJoinLo = 0;
+        windowJoinHi = 0;
         orderedJoinModels1.clear();
         orderedJoinModels2.clear();
         parsedWhereConstants.clear();
@@ -442,6 +453,12 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         this.bottomUpColumns.clear();
     }
 
+    public void clearFill() {
+        fillStride = null;
+        fillTimezone = null;
+        fillValues.clear();
+    }
+
     public void clearOrderBy() {
         orderBy.clear();
         orderByDirection.clear();
@@ -556,6 +573,8 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
                 && metadataVersion == that.metadataVersion
                 && joinType == that.joinType
                 && joinKeywordPosition == that.joinKeywordPosition
+                && windowJoinLo == that.windowJoinLo
+                && windowJoinHi == that.windowJoinHi
                 && limitPosition == that.limitPosition
                 && isLimitImplemented == that.isLimitImplemented
                 && isSelectTranslation == that.isSelectTranslation
@@ -590,6 +609,7 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
                 && Objects.equals(orderHash, that.orderHash)
                 && Objects.equals(joinColumns, that.joinColumns)
                 && Objects.equals(sampleByFill, that.sampleByFill)
+                && Objects.equals(fillValues, that.fillValues)
                 && Objects.equals(latestBy, that.latestBy)
                 && Objects.equals(orderByAdvice, that.orderByAdvice)
                 && Objects.equals(orderByDirectionAdvice, that.orderByDirectionAdvice)
@@ -599,6 +619,8 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
                 && Objects.equals(updateTableColumnNames, that.updateTableColumnNames)
                 && Objects.equals(sampleByTimezoneName, that.sampleByTimezoneName)
                 && Objects.equals(sampleByOffset, that.sampleByOffset)
+                && Objects.equals(fillStride, that.fillStride)
+                && Objects.equals(fillTimezone, that.fillTimezone)
                 && Objects.equals(whereClause, that.whereClause)
                 && Objects.equals(backupWhereClause, that.backupWhereClause)
                 && Objects.equals(postJoinWhereClause, that.postJoinWhereClause)
@@ -681,6 +703,18 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         return expressionModels;
     }
 
+    public ExpressionNode getFillStride() {
+        return fillStride;
+    }
+
+    public ExpressionNode getFillTimezone() {
+        return fillTimezone;
+    }
+
+    public ObjList<ExpressionNode> getFillValues() {
+        return fillValues;
+    }
+
     public ObjList<ExpressionNode> getGroupBy() {
         return groupBy;
     }
@@ -904,6 +938,14 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         return whereClause;
     }
 
+    public long getWindowJoinHi() {
+        return windowJoinHi;
+    }
+
+    public long getWindowJoinLo() {
+        return windowJoinLo;
+    }
+
     public LowerCaseCharSequenceObjHashMap<WithClauseModel> getWithClauses() {
         return withClauseModel;
     }
@@ -931,16 +973,17 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
                 dependencies, orderedJoinModels1, orderedJoinModels2,
                 columnAliasIndexes, modelAliasIndexes, expressionModels,
                 parsedWhere, parsedWhereConstants,
-                orderHash, joinColumns, sampleByFill,
+                orderHash, joinColumns, sampleByFill, fillValues,
                 latestBy, orderByAdvice, orderByDirectionAdvice,
                 withClauseModel, updateSetColumns, updateTableColumnTypes,
                 updateTableColumnNames, sampleByTimezoneName, sampleByOffset,
+                fillStride, fillTimezone,
                 latestByType, whereClause, backupWhereClause,
                 postJoinWhereClause, outerJoinExpressionClause, constWhereClause, nestedModel,
                 tableNameExpr, metadataVersion, tableNameFunction,
                 alias, timestamp, sampleBy,
                 sampleByUnit, context, joinCriteria,
-                joinType, joinKeywordPosition, orderedJoinModels,
+                joinType, joinKeywordPosition, windowJoinLo, windowJoinHi, orderedJoinModels,
                 limitLo, limitHi, limitPosition,
                 limitAdviceLo, limitAdviceHi, isLimitImplemented,
                 isSelectTranslation, selectModelType, nestedModelIsSubQuery,
@@ -1056,6 +1099,16 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         }
     }
 
+    public void moveFillFrom(QueryModel model) {
+        this.fillStride = model.fillStride;
+        this.fillTimezone = model.fillTimezone;
+        this.fillValues.clear();
+        this.fillValues.addAll(model.fillValues);
+
+        // clear the source
+        model.clearFill();
+    }
+
     public void moveGroupByFrom(QueryModel model) {
         groupBy.addAll(model.groupBy);
         // clear the source
@@ -1180,6 +1233,13 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         this.explicitTimestamp = explicitTimestamp;
     }
 
+    public void setFill(ExpressionNode fillStride, ExpressionNode fillTimezone, ObjList<ExpressionNode> fillValues) {
+        this.fillStride = fillStride;
+        this.fillTimezone = fillTimezone;
+        this.fillValues.clear();
+        this.fillValues.addAll(fillValues);
+    }
+
     public void setIsUpdate(boolean isUpdate) {
         this.isUpdateModel = isUpdate;
     }
@@ -1320,6 +1380,11 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         this.whereClause = whereClause;
     }
 
+    public void setWindowJoinRange(long lo, long hi) {
+        this.windowJoinLo = lo;
+        this.windowJoinHi = hi;
+    }
+
     @Override
     public void toSink(@NotNull CharSink<?> sink) {
         if (modelType == ExecutionModel.QUERY) {
@@ -1605,6 +1670,9 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
                             case JOIN_LT:
                                 sink.putAscii(" lt join ");
                                 break;
+                            case JOIN_WINDOW:
+                                sink.putAscii(" window join ");
+                                break;
                             default:
                                 sink.putAscii(" join ");
                                 break;
@@ -1637,6 +1705,11 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
                             }
                         }
 
+                        if (model.getJoinType() == JOIN_WINDOW) {
+                            sink.putAscii(" range between ").put(model.getWindowJoinLo())
+                                    .putAscii(" and ").put(model.getWindowJoinHi());
+                        }
+
                         if (model.getOuterJoinExpressionClause() != null) {
                             sink.putAscii(" outer-join-expression ");
                             model.getOuterJoinExpressionClause().toSink(sink);
@@ -1743,6 +1816,18 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
             }
         }
 
+        if (fillStride != null) {
+            sink.putAscii(" fill(");
+            for (int i = 0, n = fillValues.size(); i < n; i++) {
+                if (i > 0) {
+                    sink.putAscii(',');
+                }
+                sink.put(fillValues.getQuick(i));
+            }
+            sink.putAscii(") stride ");
+            fillStride.toSink(sink);
+        }
+
         if (getLimitLo() != null || getLimitHi() != null) {
             sink.putAscii(" limit ");
             if (getLimitLo() != null) {
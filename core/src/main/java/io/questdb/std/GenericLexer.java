@@ -120,6 +120,16 @@ public class GenericLexer implements ImmutableIterator<CharSequence> {
         next = null;
     }
 
+    /**
+     * Returns the lexer to the state it had right after reading a token, including the bounds
+     * of the token, so that the flyweight sequence returned for that token is valid again.
+     */
+    public void backTo(int tokenLo, int tokenHi, int position, CharSequence lastSeen) {
+        backTo(position, lastSeen);
+        _lo = tokenLo;
+        _hi = tokenHi;
+    }
+
     public final void defineSymbol(String token) {
         char c0 = token.charAt(0);
         ObjList<CharSequence> l;
@@ -33,6 +33,7 @@ import java.util.Arrays;
 
 public class IntList implements Mutable, Sinkable {
     private static final int DEFAULT_ARRAY_SIZE = 16;
+    private static final int INSERTION_SORT_THRESHOLD = 47;
     private static final int NO_ENTRY_VALUE = -1;
     private final int initialCapacity;
     private int[] data;
@@ -244,6 +245,13 @@ public class IntList implements Mutable, Sinkable {
         return pos;
     }
 
+    /**
+     * Sorts the list with the given comparator. The sort is not stable.
+     */
+    public void sort(IntComparator comparator) {
+        sort(comparator, 0, pos - 1);
+    }
+
     @Override
     public void toSink(@NotNull CharSink<?> sink) {
         sink.putAscii('[');
@@ -322,4 +330,58 @@ public class IntList implements Mutable, Sinkable {
         }
         return -(high + 1);
     }
+
+    private void sort(IntComparator comparator, int lo, int hi) {
+        while (hi - lo >= INSERTION_SORT_THRESHOLD) {
+            // median of three
+            final int mid = (lo + hi) >>> 1;
+            if (comparator.compare(data[mid], data[lo]) < 0) {
+                swap(lo, mid);
+            }
+            if (comparator.compare(data[hi], data[lo]) < 0) {
+                swap(lo, hi);
+            }
+            if (comparator.compare(data[hi], data[mid]) < 0) {
+                swap(mid, hi);
+            }
+            final int pivot = data[mid];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (comparator.compare(data[i], pivot) < 0) {
+                    i++;
+                }
+                while (comparator.compare(data[j], pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            // recurse into the smaller part to keep the stack shallow
+            if (j - lo < hi - i) {
+                sort(comparator, lo, j);
+                lo = i;
+            } else {
+                sort(comparator, i, hi);
+                hi = j;
+            }
+        }
+
+        for (int i = lo + 1; i <= hi; i++) {
+            final int value = data[i];
+            int j = i - 1;
+            while (j >= lo && comparator.compare(data[j], value) > 0) {
+                data[j + 1] = data[j];
+                j--;
+            }
+            data[j + 1] = value;
+        }
+    }
+
+    private void swap(int a, int b) {
+        final int tmp = data[a];
+        data[a] = data[b];
+        data[b] = tmp;
+    }
 }
@@ -38,6 +38,7 @@ open module io.questdb {
     exports io.questdb.cairo.map;
     exports io.questdb.cairo.sql;
     exports io.questdb.cairo.pool;
+    exports io.questdb.cairo.parquet;
     exports io.questdb.cairo.pool.ex;
     exports io.questdb.cairo.security;
 
@@ -106,6 +107,8 @@ open module io.questdb {
     exports io.questdb.griffin.engine.functions.long128;
     exports io.questdb.cairo.wal;
     exports io.questdb.cairo.wal.seq;
+    exports io.questdb.cairo.mv;
+    exports io.questdb.cairo.retention;
     exports io.questdb.cutlass.auth;
     exports io.questdb.cutlass.line.tcp.auth;
     exports io.questdb.cairo.frm;
@@ -310,6 +313,8 @@ open module io.questdb {
             io.questdb.griffin.engine.functions.uuid.LongsToUuidFunctionFactory,
             io.questdb.griffin.engine.functions.date.TimestampShuffleFunctionFactory,
             io.questdb.griffin.engine.functions.date.TimestampFloorFunctionFactory,
+            io.questdb.griffin.engine.functions.date.TimestampFloorOffsetFunctionFactory,
+            io.questdb.griffin.engine.functions.date.TimestampFloorOffsetTimezoneFunctionFactory,
             io.questdb.griffin.engine.functions.date.TimestampCeilFunctionFactory,
             io.questdb.griffin.engine.functions.date.DateTruncFunctionFactory,
             io.questdb.griffin.engine.functions.rnd.RndByteCCFunctionFactory,
@@ -943,6 +948,27 @@ open module io.questdb {
             io.questdb.griffin.engine.functions.window.AvgDoubleWindowFunctionFactory,
             io.questdb.griffin.engine.functions.window.FirstValueDoubleWindowFunctionFactory,
             io.questdb.griffin.engine.functions.window.SumDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.DenseRankFunctionFactory,
+            io.questdb.griffin.engine.functions.window.MaxDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.MinDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.LastValueDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.CountDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.CountWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.LagDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.LeadDoubleWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.MaxLongWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.MaxTimestampWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.MinLongWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.MinTimestampWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.LastValueLongWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.LastValueTimestampWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.CountLongWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.CountTimestampWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.LagLongWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.LagTimestampWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.LeadLongWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.LeadTimestampWindowFunctionFactory,
+            io.questdb.griffin.engine.functions.window.NtileFunctionFactory,
 
             // metadata functions
             io.questdb.griffin.engine.functions.metadata.BuildFunctionFactory,
@@ -789,6 +789,96 @@ public class OrderedMapTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testFindValueWithKeyMapFixedSizeKey() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            keyTypes.add(ColumnType.INT);
+            keyTypes.add(ColumnType.LONG);
+
+            ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+            valueTypes.add(ColumnType.LONG);
+
+            try (
+                    OrderedMap map = new OrderedMap(1024, keyTypes, valueTypes, 64, 0.8, 24);
+                    OrderedMap keyMap = new OrderedMap(1024, keyTypes, valueTypes, 16, 0.8, 24)
+            ) {
+                final int N = 10000;
+                for (int i = 0; i < N; i++) {
+                    MapKey key = map.withKey();
+                    key.putInt(i);
+                    key.putLong(i + 1);
+                    MapValue value = key.createValue();
+                    Assert.assertTrue(value.isNew());
+                    value.putLong(0, i + 2);
+                }
+
+                final long usedHeapSize = map.getUsedHeapSize();
+                for (int i = 0; i < 2 * N; i++) {
+                    MapKey key = keyMap.withKey();
+                    key.putInt(i);
+                    key.putLong(i + 1);
+                    MapValue value = map.findValue(keyMap);
+                    if (i < N) {
+                        Assert.assertNotNull(value);
+                        Assert.assertEquals(i + 2, value.getLong(0));
+                    } else {
+                        Assert.assertNull(value);
+                    }
+                }
+                // lookups don't modify the probed map
+                Assert.assertEquals(N, map.size());
+                Assert.assertEquals(usedHeapSize, map.getUsedHeapSize());
+                Assert.assertEquals(0, keyMap.size());
+            }
+        });
+    }
+
+    @Test
+    public void testFindValueWithKeyMapVarSizeKey() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            keyTypes.add(ColumnType.INT);
+            keyTypes.add(ColumnType.STRING);
+
+            ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+            valueTypes.add(ColumnType.LONG);
+
+            try (
+                    OrderedMap map = new OrderedMap(1024, keyTypes, valueTypes, 64, 0.8, 24);
+                    OrderedMap keyMap = new OrderedMap(1024, keyTypes, valueTypes, 16, 0.8, 24)
+            ) {
+                final int N = 10000;
+                for (int i = 0; i < N; i++) {
+                    MapKey key = map.withKey();
+                    key.putInt(i);
+                    key.putStr(Chars.repeat("a", i % 10));
+                    MapValue value = key.createValue();
+                    Assert.assertTrue(value.isNew());
+                    value.putLong(0, i + 2);
+                }
+
+                final long usedHeapSize = map.getUsedHeapSize();
+                for (int i = 0; i < N; i++) {
+                    MapKey key = keyMap.withKey();
+                    key.putInt(i);
+                    key.putStr(Chars.repeat("a", i % 10));
+                    MapValue value = map.findValue(keyMap);
+                    Assert.assertNotNull(value);
+                    Assert.assertEquals(i + 2, value.getLong(0));
+
+                    // same int, different string length
+                    key = keyMap.withKey();
+                    key.putInt(i);
+                    key.putStr(Chars.repeat("a", i % 10 + 1));
+                    Assert.assertNull(map.findValue(keyMap));
+                }
+                Assert.assertEquals(N, map.size());
+                Assert.assertEquals(usedHeapSize, map.getUsedHeapSize());
+            }
+        });
+    }
+
     @Test
     public void testFixedSizeKeyOnly() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -0,0 +1,341 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.cairo.map;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.*;
+import io.questdb.griffin.engine.groupby.GroupByAllocator;
+import io.questdb.griffin.engine.groupby.GroupByAllocatorArena;
+import io.questdb.std.Chars;
+import io.questdb.std.Numbers;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+public class SpillableOrderedMapTest extends AbstractCairoTest {
+    private static final MapValueMergeFunction SUM_MERGE_FUNCTION = (destValue, srcValue) -> {
+        destValue.addLong(0, srcValue.getLong(0));
+        destValue.addLong(1, srcValue.getLong(1));
+    };
+
+    @Test
+    public void testAllocatorMemoryCountedInBudget() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            keyTypes.add(ColumnType.INT);
+
+            try (
+                    GroupByAllocator allocator = new GroupByAllocatorArena(1024, Numbers.SIZE_1GB);
+                    SpillableOrderedMap map = createMap(keyTypes, 64 * 1024, 4)
+            ) {
+                map.setAllocator(allocator);
+                for (int i = 0; i < 10; i++) {
+                    MapKey key = map.withKey();
+                    key.putInt(i);
+                    addValue(key.createValue(), i);
+                }
+                Assert.assertFalse(map.isSpilled());
+
+                // the keys alone fit into the budget, but the allocator memory doesn't
+                allocator.malloc(128 * 1024);
+                MapKey key = map.withKey();
+                key.putInt(42);
+                addValue(key.createValue(), 42);
+                Assert.assertTrue(map.isSpilled());
+                Assert.assertEquals(1, map.size());
+
+                // the spilled allocator memory is not counted again
+                key = map.withKey();
+                key.putInt(43);
+                addValue(key.createValue(), 43);
+                Assert.assertEquals(2, map.size());
+
+                MapRecordCursor cursor = map.getCursor();
+                MapRecord record = cursor.getRecord();
+                int size = 0;
+                while (cursor.hasNext()) {
+                    Assert.assertEquals(1, record.getLong(0));
+                    size++;
+                }
+                Assert.assertEquals(12, size);
+            }
+        });
+    }
+
+    @Test
+    public void testFixedSizeKey() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            keyTypes.add(ColumnType.LONG);
+
+            try (SpillableOrderedMap map = createMap(keyTypes, 1024, 4)) {
+                final int N = 10_000;
+                final int keyCount = 2_500;
+                for (int i = 0; i < N; i++) {
+                    MapKey key = map.withKey();
+                    key.putLong(i % keyCount);
+                    addValue(key.createValue(), i);
+                }
+                Assert.assertTrue(map.isSpilled());
+
+                HashMap<Long, Long> counts = new HashMap<>();
+                HashMap<Long, Long> sums = new HashMap<>();
+                for (int i = 0; i < N; i++) {
+                    counts.merge((long) (i % keyCount), 1L, Long::sum);
+                    sums.merge((long) (i % keyCount), (long) i, Long::sum);
+                }
+
+                // iterate twice to make sure that toTop() reloads the partitions
+                for (int j = 0; j < 2; j++) {
+                    MapRecordCursor cursor = map.getCursor();
+                    Assert.assertEquals(-1, cursor.size());
+                    MapRecord record = cursor.getRecord();
+                    int size = 0;
+                    while (cursor.hasNext()) {
+                        long k = record.getLong(2);
+                        Assert.assertEquals((long) counts.get(k), record.getLong(0));
+                        Assert.assertEquals((long) sums.get(k), record.getLong(1));
+                        size++;
+                    }
+                    Assert.assertEquals(keyCount, size);
+                }
+
+                map.clear();
+                Assert.assertFalse(map.isSpilled());
+                Assert.assertEquals(0, map.size());
+            }
+        });
+    }
+
+    @Test
+    public void testInitialMapKeptUntilSpill() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            keyTypes.add(ColumnType.LONG);
+
+            try (SpillableOrderedMap map = createMap(keyTypes, 16 * 1024, 4, true)) {
+                for (int j = 0; j < 2; j++) {
+                    final int keyCount = 100;
+                    for (int i = 0; i < keyCount; i++) {
+                        MapKey key = map.withKey();
+                        key.putLong(i);
+                        addValue(key.createValue(), i);
+                    }
+                    Assert.assertFalse(map.isSpilled());
+                    // hash table map, i.e. not the ordered one, has no heap
+                    Assert.assertEquals(-1, map.getUsedHeapSize());
+
+                    final int N = 10_000;
+                    for (int i = keyCount; i < N; i++) {
+                        MapKey key = map.withKey();
+                        key.putLong(i % 2_000);
+                        addValue(key.createValue(), i);
+                    }
+                    Assert.assertTrue(map.isSpilled());
+                    Assert.assertTrue(map.getUsedHeapSize() > 0);
+
+                    HashMap<Long, Long> sums = new HashMap<>();
+                    for (int i = 0; i < N; i++) {
+                        sums.merge((long) (i < keyCount ? i : i % 2_000), (long) i, Long::sum);
+                    }
+
+                    MapRecordCursor cursor = map.getCursor();
+                    MapRecord record = cursor.getRecord();
+                    int size = 0;
+                    while (cursor.hasNext()) {
+                        Assert.assertEquals((long) sums.get(record.getLong(2)), record.getLong(1));
+                        size++;
+                    }
+                    Assert.assertEquals(2_000, size);
+
+                    // clear() gets back to the initial map
+                    map.clear();
+                    Assert.assertFalse(map.isSpilled());
+                    Assert.assertEquals(0, map.size());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            keyTypes.add(ColumnType.INT);
+            keyTypes.add(ColumnType.STRING);
+
+            try (
+                    Map srcMap = new OrderedMap(1024, keyTypes, newValueTypes(), 16, 0.7, Integer.MAX_VALUE);
+                    SpillableOrderedMap map = createMap(keyTypes, 4096, 4)
+            ) {
+                final int keyCount = 1_000;
+                for (int i = 0; i < keyCount; i++) {
+                    MapKey key = map.withKey();
+                    key.putInt(i);
+                    key.putStr("k" + i);
+                    addValue(key.createValue(), i);
+                }
+                for (int i = keyCount / 2; i < 2 * keyCount; i++) {
+                    MapKey key = srcMap.withKey();
+                    key.putInt(i);
+                    key.putStr("k" + i);
+                    addValue(key.createValue(), i);
+                }
+
+                map.merge(srcMap, SUM_MERGE_FUNCTION);
+                Assert.assertTrue(map.isSpilled());
+
+                MapRecordCursor cursor = map.getCursor();
+                MapRecord record = cursor.getRecord();
+                int size = 0;
+                while (cursor.hasNext()) {
+                    final int k = record.getInt(2);
+                    TestUtils.assertEquals("k" + k, record.getStrA(3));
+                    final long expectedCount = k >= keyCount / 2 && k < keyCount ? 2 : 1;
+                    Assert.assertEquals(expectedCount, record.getLong(0));
+                    Assert.assertEquals(expectedCount * k, record.getLong(1));
+                    size++;
+                }
+                Assert.assertEquals(2 * keyCount, size);
+            }
+        });
+    }
+
+    @Test
+    public void testNoSpillWithinBudget() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            keyTypes.add(ColumnType.INT);
+
+            try (SpillableOrderedMap map = createMap(keyTypes, 1024 * 1024, 4)) {
+                final int N = 1_000;
+                for (int i = 0; i < N; i++) {
+                    MapKey key = map.withKey();
+                    key.putInt(i % 100);
+                    addValue(key.createValue(), i);
+                }
+                Assert.assertFalse(map.isSpilled());
+                Assert.assertEquals(100, map.size());
+
+                MapRecordCursor cursor = map.getCursor();
+                Assert.assertEquals(100, cursor.size());
+                MapRecord record = cursor.getRecord();
+                int expectedKey = 0;
+                while (cursor.hasNext()) {
+                    // no spill, so the insertion order is preserved
+                    Assert.assertEquals(expectedKey++, record.getInt(2));
+                    Assert.assertEquals(10, record.getLong(0));
+                }
+                Assert.assertEquals(100, expectedKey);
+            }
+        });
+    }
+
+    @Test
+    public void testVarSizeKey() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            keyTypes.add(ColumnType.STRING);
+
+            try (SpillableOrderedMap map = createMap(keyTypes, 4096, 8)) {
+                final int N = 20_000;
+                final int keyCount = 3_000;
+                for (int i = 0; i < N; i++) {
+                    MapKey key = map.withKey();
+                    key.putStr("key_" + (i % keyCount) + "_" + padding(i % keyCount % 17));
+                    addValue(key.createValue(), i);
+                }
+                Assert.assertTrue(map.isSpilled());
+
+                HashMap<String, Long> counts = new HashMap<>();
+                for (int i = 0; i < N; i++) {
+                    counts.merge("key_" + (i % keyCount) + "_" + padding(i % keyCount % 17), 1L, Long::sum);
+                }
+
+                MapRecordCursor cursor = map.getCursor();
+                MapRecord record = cursor.getRecord();
+                int size = 0;
+                while (cursor.hasNext()) {
+                    String k = Chars.toString(record.getStrA(2));
+                    Assert.assertEquals((long) counts.get(k), record.getLong(0));
+                    size++;
+                }
+                Assert.assertEquals(keyCount, size);
+            }
+        });
+    }
+
+    private static void addValue(MapValue value, long v) {
+        if (value.isNew()) {
+            value.putLong(0, 1);
+            value.putLong(1, v);
+        } else {
+            value.addLong(0, 1);
+            value.addLong(1, v);
+        }
+    }
+
+    private static ArrayColumnTypes newValueTypes() {
+        ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+        valueTypes.add(ColumnType.LONG);
+        valueTypes.add(ColumnType.LONG);
+        return valueTypes;
+    }
+
+    private static String padding(int len) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < len; i++) {
+            sb.append('x');
+        }
+        return sb.toString();
+    }
+
+    private static SpillableOrderedMap createMap(ArrayColumnTypes keyTypes, long memoryBudget, int partitionCount) {
+        return createMap(keyTypes, memoryBudget, partitionCount, false);
+    }
+
+    private static SpillableOrderedMap createMap(ArrayColumnTypes keyTypes, long memoryBudget, int partitionCount, boolean unorderedInitialMap) {
+        ArrayColumnTypes valueTypes = newValueTypes();
+        return new SpillableOrderedMap(
+                configuration.getFilesFacade(),
+                root,
+                configuration.getMkDirMode(),
+                memoryBudget,
+                partitionCount,
+                SUM_MERGE_FUNCTION,
+                unorderedInitialMap ? MapFactory.createUnorderedMap(configuration, keyTypes, valueTypes) : null,
+                1024,
+                keyTypes,
+                valueTypes,
+                16,
+                0.7,
+                Integer.MAX_VALUE
+        );
+    }
+}
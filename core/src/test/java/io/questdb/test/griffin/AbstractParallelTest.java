@@ -0,0 +1,101 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.Chars;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+
+/**
+ * Base class for tests comparing results of parallel query execution with the serial one.
+ * Page frames are kept small, so that the test tables span multiple frames.
+ */
+public abstract class AbstractParallelTest extends AbstractCairoTest {
+    protected static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    protected static final int PAGE_FRAME_MAX_ROWS = 100;
+    protected static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+
+    @Override
+    @Before
+    public void setUp() {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, PAGE_FRAME_MAX_ROWS);
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 2);
+        setProperty(PropertyKey.CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY, PAGE_FRAME_COUNT);
+        super.setUp();
+    }
+
+    /**
+     * Runs each query with the given parallel execution property disabled and enabled on a worker pool,
+     * and asserts that both runs return the same result. The plan of the parallel run must include
+     * the given factory, while the plan of the serial run must not.
+     */
+    protected void assertParallelQueries(
+            PropertyKey parallelEnabledKey,
+            String parallelFactoryName,
+            TableCreator tableCreator,
+            String... queries
+    ) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool((() -> 4));
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> {
+                        tableCreator.create(engine, sqlExecutionContext);
+                        final StringSink sinkB = new StringSink();
+                        final StringSink planSink = new StringSink();
+                        for (String query : queries) {
+                            node1.setProperty(parallelEnabledKey, false);
+                            TestUtils.printSql(engine, sqlExecutionContext, "explain " + query, planSink);
+                            Assert.assertFalse(planSink.toString(), Chars.contains(planSink, parallelFactoryName));
+                            TestUtils.printSql(engine, sqlExecutionContext, query, sink);
+
+                            node1.setProperty(parallelEnabledKey, true);
+                            TestUtils.printSql(engine, sqlExecutionContext, "explain " + query, planSink);
+                            TestUtils.assertContains(planSink, parallelFactoryName);
+                            TestUtils.printSql(engine, sqlExecutionContext, query, sinkB);
+                            TestUtils.assertEquals(sink, sinkB);
+                        }
+                    },
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @FunctionalInterface
+    protected interface TableCreator {
+        void create(CairoEngine engine, SqlExecutionContext sqlExecutionContext) throws SqlException;
+    }
+}
@@ -555,7 +555,7 @@ public class AlterTableChangeColumnTypeTest extends AbstractCairoTest {
     }
 
     @Test
-    public void testConvertFromSymbolToStringDedupFlagNotAllowed() throws Exception {
+    public void testConvertFromSymbolToVarcharKeepsDedupFlag() throws Exception {
         assumeWal();
         assertMemoryLeak(() -> {
             createX();
@@ -564,37 +564,29 @@ public class AlterTableChangeColumnTypeTest extends AbstractCairoTest {
             drainWalQueue();
             checkDedupSet("x", "ik", true);
 
-            try {
-                ddl("alter table x alter column ik type varchar");
-                Assert.fail();
-            } catch (SqlException ex) {
-                TestUtils.assertContains(ex.getFlyweightMessage(), "cannot change type of deduplicated key column 'ik' to variable size type 'VARCHAR', deduplication is only supported for fixed size types");
-                Assert.assertEquals(35, ex.getPosition());
-            }
-
-            ddl("alter table x dedup disable");
-            drainWalQueue();
-
-            // In one go, enable dedup and change type
-            ddl("alter table x dedup enable upsert keys(timestamp, ik)");
             ddl("alter table x alter column ik type varchar");
             drainWalQueue();
-
-            checkDedupSet("x", "ik", false);
+            checkDedupSet("x", "ik", true);
 
             engine.releaseInactive();
-            checkDedupSet("x", "ik", false);
+            checkDedupSet("x", "ik", true);
 
             insert("insert into x(ik, d, timestamp) values('abc', 2, '2044-02-24')", sqlExecutionContext);
             insert("insert into x(ik, d, timestamp) values('abc', 3, '2044-02-25')", sqlExecutionContext);
             insert("insert into x(ik, d, timestamp) values('def', 4, '2044-02-25')", sqlExecutionContext);
+            insert("insert into x(ik, d, timestamp) values('abc', 5, '2044-02-25')", sqlExecutionContext);
 
             drainWalQueue();
 
             assertSql("timestamp\td\tik\n" +
                     "2018-01-01T02:00:00.000000Z\t0.04488373772232379\tCPSW\n" +
                     "2044-02-24T00:00:00.000000Z\t2.0\tabc\n" +
-                    "2044-02-25T00:00:00.000000Z\t4.0\tdef\n", "select timestamp, d, ik from x limit -3");
+                    "2044-02-25T00:00:00.000000Z\t4.0\tdef\n" +
+                    "2044-02-25T00:00:00.000000Z\t5.0\tabc\n", "select timestamp, d, ik from x limit -4");
+
+            ddl("alter table x alter column ik type string");
+            drainWalQueue();
+            checkDedupSet("x", "ik", true);
         });
     }
 
@@ -0,0 +1,467 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.PartitionBy;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.parquet.Parquet;
+import io.questdb.cairo.parquet.PartitionParquetReader;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AlterTableConvertPartitionTest extends AbstractCairoTest {
+
+    @Test
+    public void testCannotAddIndex() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            ddl("alter table x convert partition to compressed list '2024-01-01'");
+            assertException(
+                    "alter table x alter column sym add index",
+                    12,
+                    "cannot add index, table has compressed partitions"
+            );
+        });
+    }
+
+    @Test
+    public void testCannotAddIndexToParquetTable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            ddl("alter table x convert partition to parquet list '2024-01-01'");
+            assertException(
+                    "alter table x alter column sym add index",
+                    12,
+                    "cannot add index, table has parquet partitions"
+            );
+        });
+    }
+
+    @Test
+    public void testCannotConvertActivePartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            assertException(
+                    "alter table x convert partition to compressed list '2024-01-04'",
+                    51,
+                    "CONVERT_ERR_ACTIVE"
+            );
+        });
+    }
+
+    @Test
+    public void testCannotConvertUnsupportedTypeToParquet() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            ddl("alter table x add column l256 long256");
+            assertException(
+                    "alter table x convert partition to parquet list '2024-01-01'",
+                    48,
+                    "CONVERT_ERR_UNSUPPORTED_TYPE"
+            );
+            assertParquet(false, false, false, false);
+        });
+    }
+
+    @Test
+    public void testCannotDetachCompressedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            ddl("alter table x convert partition to compressed list '2024-01-01'");
+            assertException(
+                    "alter table x detach partition list '2024-01-01'",
+                    36,
+                    "DETACH_ERR_COMPRESSED"
+            );
+        });
+    }
+
+    @Test
+    public void testCannotDetachParquetPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            ddl("alter table x convert partition to parquet list '2024-01-01'");
+            assertException(
+                    "alter table x detach partition list '2024-01-01'",
+                    36,
+                    "DETACH_ERR_PARQUET"
+            );
+        });
+    }
+
+    @Test
+    public void testCannotDropActivePartitionAfterCompressedOne() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            ddl("alter table x convert partition to compressed list '2024-01-03'");
+            assertException(
+                    "alter table x drop partition list '2024-01-04'",
+                    0,
+                    "cannot drop active partition, previous partition is compressed"
+            );
+        });
+    }
+
+    @Test
+    public void testCannotDropActivePartitionAfterParquetOne() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            ddl("alter table x convert partition to parquet list '2024-01-03'");
+            assertException(
+                    "alter table x drop partition list '2024-01-04'",
+                    0,
+                    "cannot drop active partition, previous partition is parquet"
+            );
+        });
+    }
+
+    @Test
+    public void testConvertByList() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            final String expected = queryAll();
+            final long diskSize = partitionDiskSize("2024-01-02");
+
+            ddl("alter table x convert partition to compressed list '2024-01-01', '2024-01-02'");
+
+            assertCompressed(true, true, false, false);
+            assertSql(expected, "x");
+            assertQueriesMatch();
+            Assert.assertTrue(partitionDiskSize("2024-01-02") < diskSize);
+            assertSql(
+                    "name\treadOnly\n" +
+                            "2024-01-01\ttrue\n" +
+                            "2024-01-02\ttrue\n" +
+                            "2024-01-03\tfalse\n" +
+                            "2024-01-04\tfalse\n",
+                    "select name, readOnly from table_partitions('x')"
+            );
+
+            // conversion is idempotent
+            ddl("alter table x convert partition to compressed list '2024-01-02'");
+            assertSql(expected, "x");
+        });
+    }
+
+    @Test
+    public void testConvertByWhere() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            final String expected = queryAll();
+
+            ddl("alter table x convert partition to compressed where ts < '2024-01-03'");
+
+            assertCompressed(true, true, false, false);
+            assertSql(expected, "x");
+            assertQueriesMatch();
+        });
+    }
+
+    @Test
+    public void testConvertCompressedPartitionToParquet() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            final String expected = queryAll();
+
+            ddl("alter table x convert partition to compressed list '2024-01-01', '2024-01-02'");
+            ddl("alter table x convert partition to parquet list '2024-01-02'");
+
+            assertCompressed(true, true, false, false);
+            assertParquet(false, true, false, false);
+            assertSql(expected, "x");
+            assertQueriesMatch();
+        });
+    }
+
+    @Test
+    public void testConvertToParquetByList() throws Exception {
+        // several row groups per partition
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 500);
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            final String expected = queryAll();
+
+            ddl("alter table x convert partition to parquet list '2024-01-01', '2024-01-02'");
+
+            assertParquet(true, true, false, false);
+            assertSql(expected, "x");
+            assertQueriesMatch();
+            assertSql(
+                    "name\treadOnly\n" +
+                            "2024-01-01\ttrue\n" +
+                            "2024-01-02\ttrue\n" +
+                            "2024-01-03\tfalse\n" +
+                            "2024-01-04\tfalse\n",
+                    "select name, readOnly from table_partitions('x')"
+            );
+
+            // conversion is idempotent
+            ddl("alter table x convert partition to parquet list '2024-01-02'");
+            assertSql(expected, "x");
+        });
+    }
+
+    @Test
+    public void testConvertToParquetByWhere() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            final String expected = queryAll();
+
+            ddl("alter table x convert partition to parquet where ts < '2024-01-03'");
+
+            assertParquet(true, true, false, false);
+            assertSql(expected, "x");
+            assertQueriesMatch();
+        });
+    }
+
+    @Test
+    public void testConvertToParquetColumnTop() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            ddl("alter table x add column k int");
+            ddl("alter table y add column k int");
+            insert("insert into x (i, k, ts) values (1, 10, '2024-01-02T23:59:00.000000Z'), (2, 20, '2024-01-04T23:59:00.000000Z')");
+            insert("insert into y (i, k, ts) values (1, 10, '2024-01-02T23:59:00.000000Z'), (2, 20, '2024-01-04T23:59:00.000000Z')");
+
+            ddl("alter table x convert partition to parquet list '2024-01-01', '2024-01-02'");
+
+            assertParquet(true, true, false, false);
+            assertSql(
+                    "i\tk\tts\n" +
+                            "1\t10\t2024-01-02T23:59:00.000000Z\n" +
+                            "2\t20\t2024-01-04T23:59:00.000000Z\n",
+                    "select i, k, ts from x where k != null"
+            );
+            assertQueriesMatch();
+        });
+    }
+
+    @Test
+    public void testConvertToParquetWalTable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "WAL");
+            drainWalQueue();
+            final String expected = queryAll();
+
+            ddl("alter table x convert partition to parquet list '2024-01-02'");
+            drainWalQueue();
+
+            assertParquet(false, true, false, false);
+            assertSql(expected, "x");
+
+            // rows into parquet partition are not applied, partition is read-only
+            insert("insert into x (i, ts) values (42, '2024-01-02T10:00:00.000000Z')");
+            insert("insert into x (i, ts) values (43, '2024-01-04T23:00:00.000000Z')");
+            drainWalQueue();
+            assertSql(
+                    "i\tts\n" +
+                            "43\t2024-01-04T23:00:00.000000Z\n",
+                    "select i, ts from x where i in (42, 43)"
+            );
+        });
+    }
+
+    @Test
+    public void testConvertWalTable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "WAL");
+            drainWalQueue();
+            final String expected = queryAll();
+
+            ddl("alter table x convert partition to compressed list '2024-01-02'");
+            drainWalQueue();
+
+            assertCompressed(false, true, false, false);
+            assertSql(expected, "x");
+
+            // rows into compressed partition are not applied, partition is read-only
+            insert("insert into x (i, ts) values (42, '2024-01-02T10:00:00.000000Z')");
+            insert("insert into x (i, ts) values (43, '2024-01-04T23:00:00.000000Z')");
+            drainWalQueue();
+            assertSql(
+                    "i\tts\n" +
+                            "43\t2024-01-04T23:00:00.000000Z\n",
+                    "select i, ts from x where i in (42, 43)"
+            );
+        });
+    }
+
+    @Test
+    public void testDropPartitionBeforeCompressedOne() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            ddl("alter table x convert partition to compressed list '2024-01-02'");
+            ddl("alter table x drop partition list '2024-01-01'");
+            assertSql(
+                    "min\tcount\n" +
+                            "2024-01-02T00:00:00.000000Z\t3560\n",
+                    "select min(ts), count() from x"
+            );
+            assertCompressed(true, false, false);
+        });
+    }
+
+    @Test
+    public void testParquetFile() throws Exception {
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 1000);
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            ddl("alter table x convert partition to parquet list '2024-01-02'");
+
+            try (
+                    TableReader reader = getReader("x");
+                    Path path = new Path();
+                    PartitionParquetReader parquetReader = new PartitionParquetReader()
+            ) {
+                final long partitionTimestamp = reader.getPartitionTimestampByIndex(1);
+                path.of(configuration.getRoot()).concat(reader.getTableToken());
+                TableUtils.setPathForPartition(path, PartitionBy.DAY, partitionTimestamp, reader.getTxFile().getPartitionNameTxn(1));
+                final int partitionPathLen = path.size();
+                // only the designated timestamp column file is kept
+                Assert.assertTrue(configuration.getFilesFacade().exists(TableUtils.dFile(path, "ts")));
+                Assert.assertFalse(configuration.getFilesFacade().exists(TableUtils.dFile(path.trimTo(partitionPathLen), "i")));
+                Assert.assertFalse(configuration.getFilesFacade().exists(TableUtils.iFile(path.trimTo(partitionPathLen), "s")));
+                path.trimTo(partitionPathLen).concat(Parquet.FILE_NAME);
+                parquetReader.of(configuration.getFilesFacade(), path.$(), MemoryTag.MMAP_DEFAULT);
+
+                Assert.assertEquals(1440, parquetReader.getRowCount());
+                Assert.assertEquals(2, parquetReader.getRowGroupCount());
+                Assert.assertEquals(1000, parquetReader.getRowGroupRowCount(0));
+                Assert.assertEquals(440, parquetReader.getRowGroupRowCount(1));
+
+                // columns are identified by writer index
+                final int timestampIndex = parquetReader.getColumnIndex(reader.getMetadata().getTimestampIndex());
+                Assert.assertEquals(reader.getMetadata().getColumnCount(), parquetReader.getColumnCount());
+                Assert.assertTrue(parquetReader.hasRowGroupMinMax(1, timestampIndex));
+                Assert.assertEquals(partitionTimestamp, parquetReader.getRowGroupMin(0, timestampIndex));
+                Assert.assertEquals(partitionTimestamp + 999 * 60000000L, parquetReader.getRowGroupMax(0, timestampIndex));
+                Assert.assertEquals(partitionTimestamp + 1000 * 60000000L, parquetReader.getRowGroupMin(1, timestampIndex));
+                Assert.assertEquals(0, parquetReader.getRowGroupNullCount(1, timestampIndex));
+
+                // null counts of var-size columns
+                final int stringIndex = parquetReader.getColumnIndex(reader.getMetadata().getWriterIndex(reader.getMetadata().getColumnIndex("s")));
+                Assert.assertFalse(parquetReader.hasRowGroupMinMax(0, stringIndex));
+                Assert.assertTrue(parquetReader.getRowGroupNullCount(0, stringIndex) > 0);
+                Assert.assertEquals(ColumnType.STRING, reader.getMetadata().getColumnType("s"));
+            }
+        });
+    }
+
+    @Test
+    public void testParquetPartitionPruning() throws Exception {
+        // zone map blocks line up with row groups
+        node1.setProperty(PropertyKey.CAIRO_PARTITION_STATS_ENABLED, true);
+        setProperty(PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 500);
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            ddl("alter table x convert partition to parquet list '2024-01-01', '2024-01-02'");
+            assertParquet(true, true, false, false);
+            assertQueriesMatch();
+            final String[] queries = {
+                    "select count(), sum(i) from %s where i > 0",
+                    "select * from %s where d > 0.99",
+                    "select * from %s where i = 0",
+            };
+            for (String query : queries) {
+                final StringSink expected = new StringSink();
+                TestUtils.printSql(engine, sqlExecutionContext, String.format(query, "y"), expected);
+                assertSql(expected, String.format(query, "x"));
+            }
+        });
+    }
+
+    private void assertCompressed(boolean... expected) {
+        try (TableReader reader = getReader("x")) {
+            Assert.assertEquals(expected.length, reader.getPartitionCount());
+            for (int i = 0; i < expected.length; i++) {
+                Assert.assertEquals(expected[i], reader.getTxFile().isPartitionCompressed(i));
+            }
+        }
+    }
+
+    private void assertParquet(boolean... expected) {
+        try (TableReader reader = getReader("x")) {
+            Assert.assertEquals(expected.length, reader.getPartitionCount());
+            for (int i = 0; i < expected.length; i++) {
+                Assert.assertEquals(expected[i], reader.getTxFile().isPartitionParquet(i));
+            }
+        }
+    }
+
+    private void assertQueriesMatch() throws Exception {
+        final String[] queries = {
+                "select sym, count(), sum(i), max(d), min(s), max(v) from %s order by sym",
+                "select ts, count(), avg(d) from %s sample by 6h",
+                "select * from %s where v like 'A%%' and ts in '2024-01-02'",
+                "select s, b, v from %s latest on ts partition by sym",
+        };
+        for (String query : queries) {
+            final StringSink expected = new StringSink();
+            TestUtils.printSql(engine, sqlExecutionContext, String.format(query, "y"), expected);
+            assertSql(expected, String.format(query, "x"));
+        }
+    }
+
+    private void createTable(String tableName, String walMode) throws Exception {
+        final String select = "select" +
+                " rnd_int() i," +
+                " rnd_symbol('a', 'b', 'c') sym," +
+                " rnd_str(5, 10, 1) s," +
+                " rnd_varchar(5, 10, 1) v," +
+                " rnd_double() d," +
+                " rnd_bin(5, 10, 1) b," +
+                " timestamp_sequence('2024-01-01', 60000000L) ts" +
+                " from long_sequence(5000)";
+        ddl("create table " + tableName + " as (" + select + ") timestamp(ts) partition by DAY " + walMode);
+        // uncompressed copy to compare query results with
+        ddl("create table y as (select * from " + tableName + ") timestamp(ts) partition by DAY BYPASS WAL");
+    }
+
+    private long partitionDiskSize(String partitionName) throws Exception {
+        final StringSink sink = new StringSink();
+        TestUtils.printSql(
+                engine,
+                sqlExecutionContext,
+                "select diskSize from table_partitions('x') where name = '" + partitionName + "'",
+                sink
+        );
+        return Long.parseLong(sink.toString().split("\n")[1]);
+    }
+
+    private String queryAll() throws Exception {
+        final StringSink sink = new StringSink();
+        TestUtils.printSql(engine, sqlExecutionContext, "x", sink);
+        return sink.toString();
+    }
+}
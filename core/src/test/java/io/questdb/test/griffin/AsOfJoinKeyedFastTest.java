@@ -0,0 +1,174 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Test;
+
+public class AsOfJoinKeyedFastTest extends AbstractCairoTest {
+
+    @Test
+    public void testEmptySlave() throws Exception {
+        assertMemoryLeak(() -> {
+            createMaster();
+            ddl("create table y (k symbol, v int, ts timestamp) timestamp(ts) partition by hour");
+            assertQueries(
+                    "select x.ts, x.k, y.k, y.v, y.ts from x asof join y on (k)"
+            );
+        });
+    }
+
+    @Test
+    public void testIndexedSlave() throws Exception {
+        assertMemoryLeak(() -> {
+            createMaster();
+            createSlave(true);
+            assertQueries(
+                    "select x.ts, x.k, x.i, y.k, y.v, y.ts from x asof join y on (k)",
+                    "select x.k, count(), sum(y.v), max(y.ts) from x asof join y on (k) order by 1",
+                    "select x.ts, x.k, y.v from x asof join y on (k) where x.i > 400"
+            );
+        });
+    }
+
+    @Test
+    public void testMissingAndNullKeys() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl(
+                    "create table x as (select" +
+                            " rnd_symbol('a','b','z',null) k," +
+                            " timestamp_sequence(0, 900000000) ts" +
+                            " from long_sequence(200)) timestamp(ts) partition by hour"
+            );
+            ddl(
+                    "create table y as (select" +
+                            " rnd_symbol('a','b','c',null) k," +
+                            " x v," +
+                            " timestamp_sequence(1000000, 4000000000) ts" +
+                            " from long_sequence(40)) timestamp(ts) partition by hour"
+            );
+            assertQueries(
+                    "select x.ts, x.k, y.k, y.v, y.ts from x asof join y on (k)"
+            );
+        });
+    }
+
+    @Test
+    public void testNonIndexedSlave() throws Exception {
+        assertMemoryLeak(() -> {
+            createMaster();
+            createSlave(false);
+            assertQueries(
+                    "select x.ts, x.k, x.i, y.k, y.v, y.ts from x asof join y on (k)",
+                    "select x.k, count(), sum(y.v), max(y.ts) from x asof join y on (k) order by 1",
+                    "select x.ts, x.k, y.v from x asof join y on (k) where x.i > 400"
+            );
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_ASOF_JOIN_KEYED_FAST_ENABLED, true);
+            createMaster();
+            createSlave(true);
+            ddl("create table z as (select * from y) timestamp(ts) partition by hour");
+            assertPlanNoLeakCheck(
+                    "select * from x asof join y on (k)",
+                    "SelectedRecord\n" +
+                            "    AsOf Join Indexed Scan\n" +
+                            "      condition: y.k=x.k\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: x\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: y\n"
+            );
+            assertPlanNoLeakCheck(
+                    "select * from x asof join z on (k)",
+                    "SelectedRecord\n" +
+                            "    AsOf Join Fast Scan\n" +
+                            "      condition: z.k=x.k\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: x\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: z\n"
+            );
+        });
+    }
+
+    @Test
+    public void testStringMasterKey() throws Exception {
+        assertMemoryLeak(() -> {
+            createMaster();
+            createSlave(true);
+            assertQueries(
+                    "select x.ts, x.s, y.k, y.v, y.ts from x asof join y on x.s = y.k"
+            );
+        });
+    }
+
+    private static void createMaster() throws Exception {
+        ddl(
+                "create table x as (select" +
+                        " rnd_symbol('a','b','c','d','e','f',null) k," +
+                        " rnd_str('a','c','e','g',null) s," +
+                        " rnd_int(0, 500, 0) i," +
+                        " timestamp_sequence(0, 10000000) ts" +
+                        " from long_sequence(2000)) timestamp(ts) partition by hour"
+        );
+    }
+
+    private static void createSlave(boolean indexed) throws Exception {
+        // rare keys are spread thinly, so that they are searched across partitions
+        ddl(
+                "create table y as (select" +
+                        " case when x % 97 = 0 then 'f' when x % 13 = 0 then null else rnd_symbol('a','b','c','d') end::symbol k," +
+                        " x::int v," +
+                        " timestamp_sequence(5000000, 7000000) ts" +
+                        " from long_sequence(3000))" +
+                        (indexed ? ", index(k)" : "") +
+                        " timestamp(ts) partition by hour"
+        );
+    }
+
+    private void assertQueries(String... queries) throws Exception {
+        final StringSink sinkB = new StringSink();
+        for (String query : queries) {
+            node1.setProperty(PropertyKey.CAIRO_SQL_ASOF_JOIN_KEYED_FAST_ENABLED, false);
+            printSql(query);
+            final String expected = sink.toString();
+            node1.setProperty(PropertyKey.CAIRO_SQL_ASOF_JOIN_KEYED_FAST_ENABLED, true);
+            TestUtils.printSql(engine, sqlExecutionContext, query, sinkB);
+            TestUtils.assertEquals(expected, sinkB);
+        }
+    }
+}
@@ -118,13 +118,13 @@ public class CreateTableDedupTest extends AbstractCairoTest {
     @Test
     public void testAlterTableSetTypeSqlSyntaxErrors() throws Exception {
         assertMemoryLeak(ff, () -> {
-            ddl("create table a (ts timestamp, i int, s symbol, l long, str string) timestamp(ts) partition by day wal");
+            ddl("create table a (ts timestamp, i int, s symbol, l long, bin binary) timestamp(ts) partition by day wal");
             String alterPrefix = "alter table a ";
 
             assertException(
-                    alterPrefix + "deduplicate UPSERT KEYS(ts, str);",
+                    alterPrefix + "deduplicate UPSERT KEYS(ts, bin);",
                     42,
-                    "deduplicate key column can only be fixed size column [column=str, type=STRING]"
+                    "deduplicate key column type is not supported [column=bin, type=BINARY]"
             );
             assertException(
                     alterPrefix + "deduplicate UPSERT KEYS",
@@ -167,16 +167,16 @@ public class CreateTableDedupTest extends AbstractCairoTest {
     @Test
     public void testCreateTableSetTypeSqlSyntaxErrors() throws Exception {
         assertMemoryLeak(ff, () -> {
-            String createPrefix = "create table a (ts timestamp, i int, s symbol, l long, str string)";
+            String createPrefix = "create table a (ts timestamp, i int, s symbol, l long, bin binary)";
             assertException(
                     createPrefix + " timestamp(ts) partition by day bypass wal deduplicate UPSERT KEYS(l);",
                     121,
                     "deduplication is possible only on WAL tables"
             );
             assertException(
-                    createPrefix + " timestamp(ts) partition by day wal deduplicate UPSERT KEYS (l, str);",
+                    createPrefix + " timestamp(ts) partition by day wal deduplicate UPSERT KEYS (l, bin);",
                     130,
-                    "deduplicate key column can only be fixed size column [column=str, type=STRING]"
+                    "deduplicate key column type is not supported [column=bin, type=BINARY]"
             );
             assertException(
                     createPrefix + " timestamp(ts) partition by day wal deduplicate UPSERT KEYS (;",
@@ -52,6 +52,8 @@ import io.questdb.griffin.engine.functions.lt.LtStrIPv4FunctionFactory;
 import io.questdb.griffin.engine.functions.rnd.LongSequenceFunctionFactory;
 import io.questdb.griffin.engine.functions.rnd.RndIPv4CCFunctionFactory;
 import io.questdb.griffin.engine.functions.test.TestSumXDoubleGroupByFunctionFactory;
+import io.questdb.griffin.engine.functions.window.LagDoubleWindowFunctionFactory;
+import io.questdb.griffin.engine.functions.window.LeadDoubleWindowFunctionFactory;
 import io.questdb.griffin.engine.table.DataFrameRecordCursorFactory;
 import io.questdb.griffin.model.WindowColumn;
 import io.questdb.jit.JitUtil;
@@ -2324,6 +2326,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
                                         sigArgType = ColumnType.DOUBLE;
                                     } else if (factory instanceof LevelTwoPriceFunctionFactory) {
                                         sigArgType = ColumnType.DOUBLE;
+                                    } else if (factory instanceof LagDoubleWindowFunctionFactory || factory instanceof LeadDoubleWindowFunctionFactory) {
+                                        // offset
+                                        sigArgType = ColumnType.LONG;
                                     } else {
                                         sigArgType = ColumnType.STRING;
                                     }
@@ -2356,6 +2361,16 @@ public class ExplainPlanTest extends AbstractCairoTest {
                                     args.add(new StrConstant("123.456"));
                                 } else if (factory instanceof TimestampFloorFunctionFactory && p == 0) {
                                     args.add(new StrConstant("d"));
+                                } else if (factory instanceof TimestampFloorOffsetFunctionFactory && p == 0) {
+                                    args.add(new StrConstant("d"));
+                                } else if (factory instanceof TimestampFloorOffsetFunctionFactory && p == 2) {
+                                    args.add(new StrConstant("00:30"));
+                                } else if (factory instanceof TimestampFloorOffsetTimezoneFunctionFactory && p == 0) {
+                                    args.add(new StrConstant("d"));
+                                } else if (factory instanceof TimestampFloorOffsetTimezoneFunctionFactory && p == 2) {
+                                    args.add(new StrConstant("00:30"));
+                                } else if (factory instanceof TimestampFloorOffsetTimezoneFunctionFactory && p == 3) {
+                                    args.add(new StrConstant("Europe/London"));
                                 } else if (factory instanceof DateTruncFunctionFactory && p == 0) {
                                     args.add(new StrConstant("year"));
                                 } else if (factory instanceof ToUTCTimestampFunctionFactory && p == 1) {
@@ -3049,6 +3064,21 @@ public class ExplainPlanTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testGroupByStringAgg() throws Exception {
+        // string_agg() must concatenate values in the row order, so it stays single-threaded
+        assertPlan(
+                "create table a (s1 string, s2 string, v varchar)",
+                "select s1, string_agg(s2, ','), string_agg(v, ',') from a",
+                "GroupBy vectorized: false\n" +
+                        "  keys: [s1]\n" +
+                        "  values: [string_agg(s2,,),string_agg(v,,)]\n" +
+                        "    DataFrame\n" +
+                        "        Row forward scan\n" +
+                        "        Frame forward scan on: a\n"
+        );
+    }
+
     @Test
     public void testGroupByStringFunction() throws Exception {
         assertPlan(
@@ -6429,12 +6459,19 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select first(i) from a sample by 1h fill(linear) align to calendar",
-                    "SampleBy\n" +
-                            "  fill: linear\n" +
-                            "  values: [first(i)]\n" +
-                            "    DataFrame\n" +
-                            "        Row forward scan\n" +
-                            "        Frame forward scan on: a\n"
+                    "SelectedRecord\n" +
+                            "    Fill\n" +
+                            "      stride: 1h\n" +
+                            "      fill: linear\n" +
+                            "        Sort light\n" +
+                            "          keys: [ts]\n" +
+                            "            Async Group By workers: 1\n" +
+                            "              keys: [ts]\n" +
+                            "              values: [first(i)]\n" +
+                            "              filter: null\n" +
+                            "                DataFrame\n" +
+                            "                    Row forward scan\n" +
+                            "                    Frame forward scan on: a\n"
             );
         });
     }
@@ -6455,12 +6492,19 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select first(i) from a sample by 1h fill(null) align to calendar",
-                    "SampleBy\n" +
-                            "  fill: null\n" +
-                            "  values: [first(i)]\n" +
-                            "    DataFrame\n" +
-                            "        Row forward scan\n" +
-                            "        Frame forward scan on: a\n"
+                    "SelectedRecord\n" +
+                            "    Fill\n" +
+                            "      stride: 1h\n" +
+                            "      fill: null\n" +
+                            "        Sort light\n" +
+                            "          keys: [ts]\n" +
+                            "            Async Group By workers: 1\n" +
+                            "              keys: [ts]\n" +
+                            "              values: [first(i)]\n" +
+                            "              filter: null\n" +
+                            "                DataFrame\n" +
+                            "                    Row forward scan\n" +
+                            "                    Frame forward scan on: a\n"
             );
         });
     }
@@ -6508,11 +6552,19 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select first(i) from a sample by 1h fill(prev) align to calendar",
-                    "SampleByFillPrev\n" +
-                            "  values: [first(i)]\n" +
-                            "    DataFrame\n" +
-                            "        Row forward scan\n" +
-                            "        Frame forward scan on: a\n"
+                    "SelectedRecord\n" +
+                            "    Fill\n" +
+                            "      stride: 1h\n" +
+                            "      fill: prev\n" +
+                            "        Sort light\n" +
+                            "          keys: [ts]\n" +
+                            "            Async Group By workers: 1\n" +
+                            "              keys: [ts]\n" +
+                            "              values: [first(i)]\n" +
+                            "              filter: null\n" +
+                            "                DataFrame\n" +
+                            "                    Row forward scan\n" +
+                            "                    Frame forward scan on: a\n"
             );
         });
     }
@@ -6561,12 +6613,19 @@ public class ExplainPlanTest extends AbstractCairoTest {
 
             assertPlanNoLeakCheck(
                     "select first(i) from a sample by 1h fill(1) align to calendar",
-                    "SampleBy\n" +
-                            "  fill: value\n" +
-                            "  values: [first(i)]\n" +
-                            "    DataFrame\n" +
-                            "        Row forward scan\n" +
-                            "        Frame forward scan on: a\n"
+                    "SelectedRecord\n" +
+                            "    Fill\n" +
+                            "      stride: 1h\n" +
+                            "      fill: 1\n" +
+                            "        Sort light\n" +
+                            "          keys: [ts]\n" +
+                            "            Async Group By workers: 1\n" +
+                            "              keys: [ts]\n" +
+                            "              values: [first(i)]\n" +
+                            "              filter: null\n" +
+                            "                DataFrame\n" +
+                            "                    Row forward scan\n" +
+                            "                    Frame forward scan on: a\n"
             );
         });
     }
@@ -7051,8 +7110,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table tab ( s symbol, ts timestamp);",
                 "select count_distinct(s) from tab",
-                "GroupBy vectorized: false\n" +
+                "Async Group By workers: 1\n" +
                         "  values: [count_distinct(s)]\n" +
+                        "  filter: null\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: tab\n"
@@ -7064,8 +7124,9 @@ public class ExplainPlanTest extends AbstractCairoTest {
         assertPlan(
                 "create table tab ( s symbol index, ts timestamp);",
                 "select count_distinct(s) from tab",
-                "GroupBy vectorized: false\n" +
+                "Async Group By workers: 1\n" +
                         "  values: [count_distinct(s)]\n" +
+                        "  filter: null\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: tab\n"
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+
+public class ExternalSortTest extends AbstractCairoTest {
+
+    @Test
+    public void testOrderByMatchesInMemorySort() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSpilledSortMatches(
+                    "select * from x order by sym, i desc",
+                    "select * from x order by v, ts desc",
+                    "select k, sym from x order by k desc",
+                    "select i, sym from x order by i limit 1000, 1100",
+                    "select * from (select sym, i, k from x where i % 3 = 0) order by sym desc, k"
+            );
+            assertNoSpillFilesLeft();
+        });
+    }
+
+    @Test
+    public void testOrderByPlan() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_SQL_SORT_SPILL_MEMORY_BUDGET, 1024);
+        assertMemoryLeak(() -> {
+            createTable();
+            assertPlanNoLeakCheck(
+                    "select * from x order by i",
+                    "Sort\n" +
+                            "  keys: [i]\n" +
+                            "  spill: true\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testOrderByRandomAccess() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_SQL_SORT_SPILL_MEMORY_BUDGET, 1024);
+        assertMemoryLeak(() -> {
+            ddl("create table y as (select cast(x % 7 as int) i, x l from long_sequence(200))");
+            assertQueryNoLeakCheck(
+                    "i\tl\n" +
+                            "6\t6\n" +
+                            "6\t13\n" +
+                            "6\t20\n" +
+                            "6\t27\n" +
+                            "6\t34\n" +
+                            "5\t5\n" +
+                            "5\t12\n" +
+                            "5\t19\n" +
+                            "5\t26\n" +
+                            "5\t33\n" +
+                            "5\t40\n" +
+                            "4\t4\n" +
+                            "4\t11\n" +
+                            "4\t18\n" +
+                            "4\t25\n" +
+                            "4\t32\n" +
+                            "4\t39\n" +
+                            "3\t3\n" +
+                            "3\t10\n" +
+                            "3\t17\n" +
+                            "3\t24\n" +
+                            "3\t31\n" +
+                            "3\t38\n" +
+                            "2\t2\n" +
+                            "2\t9\n" +
+                            "2\t16\n" +
+                            "2\t23\n" +
+                            "2\t30\n" +
+                            "2\t37\n" +
+                            "1\t1\n" +
+                            "1\t8\n" +
+                            "1\t15\n" +
+                            "1\t22\n" +
+                            "1\t29\n" +
+                            "1\t36\n" +
+                            "0\t7\n" +
+                            "0\t14\n" +
+                            "0\t21\n" +
+                            "0\t28\n" +
+                            "0\t35\n",
+                    "select i, l from y where l <= 40 order by i desc",
+                    null,
+                    true,
+                    false
+            );
+            assertNoSpillFilesLeft();
+        });
+    }
+
+    private static void assertNoSpillFilesLeft() {
+        final String[] files = new File(configuration.getSqlSpillRoot().toString()).list((dir, name) -> name.startsWith("sort_spill_"));
+        Assert.assertTrue(files == null || files.length == 0);
+    }
+
+    private static void assertSpilledSortMatches(String... queries) throws Exception {
+        final StringSink sinkB = new StringSink();
+        for (String query : queries) {
+            node1.setProperty(PropertyKey.CAIRO_SQL_SORT_SPILL_MEMORY_BUDGET, 0);
+            TestUtils.printSql(engine, sqlExecutionContext, query, sink);
+            // small budget makes the sort write many runs to disk
+            node1.setProperty(PropertyKey.CAIRO_SQL_SORT_SPILL_MEMORY_BUDGET, 4096);
+            TestUtils.printSql(engine, sqlExecutionContext, query, sinkB);
+            TestUtils.assertEquals(sink, sinkB);
+        }
+    }
+
+    private static void createTable() throws Exception {
+        ddl(
+                "create table x as (select" +
+                        " rnd_symbol('a','b','c','d','e') sym," +
+                        " rnd_int(0, 100, 0) i," +
+                        " rnd_long(0, 1000, 1) k," +
+                        " rnd_str(1,3,1)::varchar v," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(5000)) timestamp(ts) partition by hour"
+        );
+    }
+}
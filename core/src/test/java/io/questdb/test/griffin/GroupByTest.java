@@ -23,6 +23,7 @@
  ******************************************************************************/
 package io.questdb.test.griffin;
 
+import io.questdb.PropertyKey;
 import io.questdb.griffin.SqlException;
 import io.questdb.test.AbstractCairoTest;
 import org.junit.Assert;
@@ -1435,6 +1436,75 @@ public class GroupByTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testGroupByWithSpillToDisk() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ENABLED, "false");
+        node1.setProperty(PropertyKey.CAIRO_SQL_GROUPBY_SPILL_MEMORY_BUDGET, 1024);
+        node1.setProperty(PropertyKey.CAIRO_SQL_GROUPBY_SPILL_PARTITION_COUNT, 4);
+        assertMemoryLeak(() -> {
+            ddl("create table t as (select x, 'k' || (x % 1000) k, ('v' || (x % 7))::varchar v from long_sequence(10000))");
+
+            assertPlanNoLeakCheck(
+                    "select k, v, count(), sum(x), min(x), max(x) from t",
+                    "GroupBy vectorized: false\n" +
+                            "  keys: [k,v]\n" +
+                            "  values: [count(*),sum(x),min(x),max(x)]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: t\n"
+            );
+
+            assertSql(
+                    "count\tsum\tsum1\tmin\tmax\n" +
+                            "7000\t10000\t50005000\t1\t10000\n",
+                    "select count(), sum(c), sum(s), min(mn), max(mx) from (" +
+                            "select k, v, count() c, sum(x) s, min(x) mn, max(x) mx from t" +
+                            ")"
+            );
+
+            assertQueryNoLeakCheck(
+                    "k\tv\tcount\tsum\tmin\tmax\n" +
+                            "k0\tv0\t1\t7000\t7000\t7000\n" +
+                            "k0\tv1\t1\t6000\t6000\t6000\n" +
+                            "k0\tv2\t1\t5000\t5000\t5000\n",
+                    "select k, v, count(), sum(x), min(x), max(x) from t order by k, v limit 3",
+                    null,
+                    true,
+                    false
+            );
+        });
+    }
+
+    @Test
+    public void testGroupByWithSpillToDiskFixedSizeKey() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ENABLED, "false");
+        node1.setProperty(PropertyKey.CAIRO_SQL_GROUPBY_SPILL_MEMORY_BUDGET, 4096);
+        node1.setProperty(PropertyKey.CAIRO_SQL_GROUPBY_SPILL_PARTITION_COUNT, 4);
+        assertMemoryLeak(() -> {
+            // long key starts with a hash table map, count_distinct() state lives in the allocator memory
+            ddl("create table t as (select x, x % 1000 k from long_sequence(10000))");
+
+            assertSql(
+                    "count\tsum\tsum1\n" +
+                            "1000\t7000\t50005000\n",
+                    "select count(), sum(cd), sum(s) from (" +
+                            "select k, count_distinct(x % 7) cd, sum(x) s from t" +
+                            ")"
+            );
+
+            assertQueryNoLeakCheck(
+                    "k\tcount_distinct\tsum\n" +
+                            "0\t7\t55000\n" +
+                            "1\t7\t45010\n" +
+                            "2\t7\t45020\n",
+                    "select k, count_distinct(x % 7), sum(x) from t order by k limit 3",
+                    null,
+                    true,
+                    false
+            );
+        });
+    }
+
     @Test
     public void testLatestByImplicitGroupBy1() throws Exception {
         assertMemoryLeak(() -> {
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.SqlJitMode;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HashJoinKeyFilterTest extends AbstractCairoTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        node1.setProperty(PropertyKey.CAIRO_SQL_HASH_JOIN_KEY_FILTER_ENABLED, true);
+        super.setUp();
+    }
+
+    @Test
+    public void testEmptyBuildSide() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table fact as (select x::int k, x v from long_sequence(100))");
+            ddl("create table dim (k int, name string)");
+            assertQueryNoLeakCheck(
+                    "k\tv\tk1\tname\n",
+                    "select * from fact join dim on k",
+                    null,
+                    false,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testFuzzInt() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table fact as (select rnd_int(0, 100000, 5) k, x v from long_sequence(20000))");
+            ddl("create table dim as (select rnd_int(0, 100000, 5) k, x id from long_sequence(300))");
+            assertQueries(
+                    "select fact.v, dim.id from fact join dim on k",
+                    "select count(), sum(fact.v), sum(dim.id) from fact join dim on k"
+            );
+        });
+    }
+
+    @Test
+    public void testFuzzLong() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table fact as (select rnd_long(-1000, 1000, 5) k, x v from long_sequence(20000))");
+            ddl("create table dim as (select rnd_long(0, 500, 5) k, x id from long_sequence(50))");
+            assertQueries(
+                    "select fact.v, dim.id from fact join dim on k",
+                    "select count(), sum(fact.v), sum(dim.id) from fact join dim on k"
+            );
+        });
+    }
+
+    @Test
+    public void testFuzzTimestamp() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table fact as (select timestamp_sequence(0, rnd_long(0, 3, 0)) k, x v from long_sequence(20000))");
+            ddl("create table dim as (select timestamp_sequence(5000, rnd_long(1, 10, 0)) k, x id from long_sequence(100))");
+            assertQueries("select fact.v, dim.id from fact join dim on k");
+        });
+    }
+
+    @Test
+    public void testFuzzParallelFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            ddl(
+                    "create table fact as (" +
+                            "select timestamp_sequence(0, 1000000) ts, rnd_int(0, 100000, 5) k, x v from long_sequence(20000)" +
+                            ") timestamp(ts) partition by hour"
+            );
+            ddl("create table dim as (select rnd_int(0, 100000, 5) k, x id from long_sequence(300))");
+            assertPlanNoLeakCheck(
+                    "select fact.v, dim.id from fact join dim on k where fact.v % 3 <> 0",
+                    "SelectedRecord\n" +
+                            "    Hash Join Light keyFilter: true\n" +
+                            "      condition: dim.k=fact.k\n" +
+                            "        Async Filter workers: 1\n" +
+                            "          filter: v%3!=0\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: fact\n" +
+                            "        Hash\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: dim\n"
+            );
+            assertQueries(
+                    "select fact.v, dim.id from fact join dim on k where fact.v % 3 <> 0",
+                    "select count(), sum(fact.v), sum(dim.id) from fact join dim on k where fact.v % 3 <> 0"
+            );
+        });
+    }
+
+    @Test
+    public void testJoin() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table fact (k int, v long)");
+            insert("insert into fact values (1, 10), (5, 20), (null, 30), (7, 40), (100, 50), (5, 60)");
+            ddl("create table dim (k int, name string)");
+            insert("insert into dim values (5, 'five'), (7, 'seven'), (null, 'none'), (8, 'eight')");
+            assertQueryNoLeakCheck(
+                    "k\tv\tk1\tname\n" +
+                            "5\t20\t5\tfive\n" +
+                            "null\t30\tnull\tnone\n" +
+                            "7\t40\t7\tseven\n" +
+                            "5\t60\t5\tfive\n",
+                    "select * from fact join dim on k",
+                    null,
+                    false,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table fact (k long, v long)");
+            ddl("create table dim (k long, name string)");
+            assertPlanNoLeakCheck(
+                    "select * from fact join dim on k",
+                    "SelectedRecord\n" +
+                            "    Hash Join Light keyFilter: true\n" +
+                            "      condition: dim.k=fact.k\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: fact\n" +
+                            "        Hash\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: dim\n"
+            );
+        });
+    }
+
+    @Test
+    public void testPlanUnsupportedKey() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table fact (k string, v long)");
+            ddl("create table dim (k string, name string)");
+            assertPlanNoLeakCheck(
+                    "select * from fact join dim on k",
+                    "SelectedRecord\n" +
+                            "    Hash Join Light\n" +
+                            "      condition: dim.k=fact.k\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: fact\n" +
+                            "        Hash\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: dim\n"
+            );
+        });
+    }
+
+    private void assertQueries(String... queries) throws Exception {
+        final StringSink sinkB = new StringSink();
+        for (String query : queries) {
+            node1.setProperty(PropertyKey.CAIRO_SQL_HASH_JOIN_KEY_FILTER_ENABLED, false);
+            printSql(query);
+            final String expected = sink.toString();
+            node1.setProperty(PropertyKey.CAIRO_SQL_HASH_JOIN_KEY_FILTER_ENABLED, true);
+            TestUtils.printSql(engine, sqlExecutionContext, query, sinkB);
+            TestUtils.assertEquals(expected, sinkB);
+        }
+    }
+}
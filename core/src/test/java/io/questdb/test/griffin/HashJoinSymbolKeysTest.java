@@ -0,0 +1,159 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HashJoinSymbolKeysTest extends AbstractCairoTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        node1.setProperty(PropertyKey.CAIRO_SQL_HASH_JOIN_SYMBOL_KEYS_ENABLED, true);
+        super.setUp();
+    }
+
+    @Test
+    public void testDisjointSymbols() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table t1 as (select x, rnd_symbol('a','b') s from long_sequence(10))");
+            ddl("create table t2 as (select x, rnd_symbol('c','d') s from long_sequence(10))");
+            assertQueryNoLeakCheck(
+                    "x\ts\tx1\ts1\n",
+                    "select * from t1 join t2 on s",
+                    null,
+                    false,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testFuzz() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table t1 as (select x, rnd_symbol(20, 1, 2, 5) s from long_sequence(1000))");
+            ddl("create table t2 as (select x, rnd_symbol(40, 1, 2, 5) s from long_sequence(2000))");
+            // reference slave table keeps the same values as strings, so that the join hashes them as is
+            ddl("create table t3 as (select x, s::string s from t2)");
+            assertSqlCursors(
+                    "select t1.x, t1.s, t3.x, t3.s::symbol s1 from t1 join t3 on s",
+                    "select t1.x, t1.s, t2.x, t2.s s1 from t1 join t2 on s"
+            );
+            assertSqlCursors(
+                    "select count(), sum(t1.x), sum(t3.x) from t1 join t3 on s",
+                    "select count(), sum(t1.x), sum(t2.x) from t1 join t2 on s"
+            );
+        });
+    }
+
+    @Test
+    public void testJoin() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table t1 (x int, s symbol)");
+            insert("insert into t1 values (1, 'a'), (2, 'b'), (3, null), (4, 'c'), (5, 'a')");
+            ddl("create table t2 (y int, s symbol)");
+            insert("insert into t2 values (10, 'x'), (20, 'a'), (30, 'c'), (40, null), (50, 'a'), (60, 'y')");
+            assertQueryNoLeakCheck(
+                    "x\ts\ty\ts1\n" +
+                            "1\ta\t20\ta\n" +
+                            "1\ta\t50\ta\n" +
+                            "3\t\t40\t\n" +
+                            "4\tc\t30\tc\n" +
+                            "5\ta\t20\ta\n" +
+                            "5\ta\t50\ta\n",
+                    "select * from t1 join t2 on s",
+                    null,
+                    false,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table t1 (x int, s symbol)");
+            ddl("create table t2 (y int, s symbol)");
+            assertPlanNoLeakCheck(
+                    "select * from t1 join t2 on s",
+                    "SelectedRecord\n" +
+                            "    Hash Join Light symbolKeys: true\n" +
+                            "      condition: t2.s=t1.s\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: t1\n" +
+                            "        Hash\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: t2\n"
+            );
+        });
+    }
+
+    @Test
+    public void testPlanMultipleKeys() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table t1 (x int, s symbol)");
+            ddl("create table t2 (x int, s symbol)");
+            assertPlanNoLeakCheck(
+                    "select * from t1 join t2 on t1.s = t2.s and t1.x = t2.x",
+                    "SelectedRecord\n" +
+                            "    Hash Join Light\n" +
+                            "      condition: t2.x=t1.x and t2.s=t1.s\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: t1\n" +
+                            "        Hash\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: t2\n"
+            );
+        });
+    }
+
+    @Test
+    public void testPlanStringKey() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table t1 (x int, s symbol)");
+            ddl("create table t2 (y int, s string)");
+            assertPlanNoLeakCheck(
+                    "select * from t1 join t2 on s",
+                    "SelectedRecord\n" +
+                            "    Hash Join Light\n" +
+                            "      condition: t2.s=t1.s\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: t1\n" +
+                            "        Hash\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: t2\n"
+            );
+        });
+    }
+}
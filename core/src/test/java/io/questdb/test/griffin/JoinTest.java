@@ -24,6 +24,7 @@
 
 package io.questdb.test.griffin;
 
+import io.questdb.PropertyKey;
 import io.questdb.cairo.CairoException;
 import io.questdb.cairo.CursorPrinter;
 import io.questdb.cairo.ImplicitCastException;
@@ -2150,6 +2151,70 @@ public class JoinTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testJoinInnerGraceHashJoin() throws Exception {
+        // small threshold makes the hash join partition both sides to disk
+        node1.setProperty(PropertyKey.CAIRO_SQL_HASH_JOIN_SPILL_THRESHOLD, 1024);
+        node1.setProperty(PropertyKey.CAIRO_SQL_HASH_JOIN_SPILL_PARTITION_COUNT, 4);
+        assertMemoryLeak(() -> {
+            ddl("create table x as (select rnd_symbol('a','b','c','d','e','f','g') s, cast(x % 100 as int) k, rnd_str(3,5,0) v, timestamp_sequence(0, 1000000) ts from long_sequence(1000)) timestamp(ts)");
+            ddl("create table y as (select rnd_symbol('a','b','c','d','e','f','h') s, cast(x % 50 as int) k, rnd_str(3,5,0)::varchar w from long_sequence(500))");
+
+            assertPlanNoLeakCheck(
+                    "select x.k, y.k from x join y on (k)",
+                    "SelectedRecord\n" +
+                            "    Hash Join\n" +
+                            "      condition: y.k=x.k\n" +
+                            "      spill: true\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: x\n" +
+                            "        Hash\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: y\n"
+            );
+
+            assertQueryNoLeakCheck(
+                    "count\tsum\tsum1\tsum2\n" +
+                            "5000\t122500\t19610\t19900\n",
+                    "select count(), sum(x.k), sum(length(v)), sum(length(w)) from x join y on (k)",
+                    null,
+                    false,
+                    true
+            );
+
+            assertQueryNoLeakCheck(
+                    "s\tcount\tsum\tsum1\n" +
+                            "a\t8750\t404040\t34625\n" +
+                            "b\t10074\t529851\t39420\n" +
+                            "c\t9333\t465918\t38403\n" +
+                            "d\t12760\t645304\t49590\n" +
+                            "e\t9306\t452232\t37365\n" +
+                            "f\t10564\t487616\t42534\n",
+                    "select x.s, count(), sum(x.k), sum(length(w)) from x join y on (s) order by x.s",
+                    null,
+                    true,
+                    true,
+                    true
+            );
+
+            assertQueryNoLeakCheck(
+                    "s\tk\tv\tw\n" +
+                            "a\t1\tWCPS\tSBB\n" +
+                            "f\t3\tXGZ\tMWBYS\n" +
+                            "f\t3\tXGZ\tNRGL\n" +
+                            "f\t3\tXGZ\tOCUL\n" +
+                            "d\t4\tXIB\tOWOS\n",
+                    "select x.s, x.k, x.v, y.w from x join y on (s, k) order by x.ts, y.w limit 5",
+                    null,
+                    true,
+                    true,
+                    true
+            );
+        });
+    }
+
     @Test
     public void testJoinInnerInnerFilter() throws Exception {
         assertMemoryLeak(() -> {
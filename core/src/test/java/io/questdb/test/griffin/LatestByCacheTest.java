@@ -0,0 +1,255 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.LatestByCache;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatestByCacheTest extends AbstractCairoTest {
+    private static final String QUERY = "select * from x latest on ts partition by sym";
+    private final StringSink expected = new StringSink();
+
+    @Test
+    public void testCacheCatchesUpWithAppends() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(" timestamp(ts) partition by day");
+            try (RecordCursorFactory factory = compileCached()) {
+                assertCachedEqualsUncached(factory);
+
+                // append to the last partition
+                insertRows(1000, "rnd_symbol('a','b','c',null)", 600_000_000_000L, 1_000_000);
+                assertCachedEqualsUncached(factory);
+
+                // new partitions and new symbol values
+                insertRows(5000, "rnd_symbol('d','e','f','g')", 700_000_000_000L, 60_000_000);
+                assertCachedEqualsUncached(factory);
+
+                // nothing changed
+                assertCachedEqualsUncached(factory);
+            }
+        });
+    }
+
+    @Test
+    public void testCacheEmptyTable() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (sym symbol, v long, ts timestamp) timestamp(ts) partition by day");
+            try (RecordCursorFactory factory = compileCached()) {
+                assertCachedEqualsUncached(factory);
+                insertRows(100, "rnd_symbol('a','b',null)", 0, 1_000_000);
+                assertCachedEqualsUncached(factory);
+            }
+        });
+    }
+
+    @Test
+    public void testCacheIndexedColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(", index(sym) timestamp(ts) partition by day");
+            try (RecordCursorFactory factory = compileCached()) {
+                assertCachedEqualsUncached(factory);
+                insertRows(3000, "rnd_symbol('b','z',null)", 700_000_000_000L, 3_600_000_000L);
+                assertCachedEqualsUncached(factory);
+            }
+        });
+    }
+
+    @Test
+    public void testCacheRebuildsOnRewrite() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(" timestamp(ts) partition by day");
+            try (RecordCursorFactory factory = compileCached()) {
+                assertCachedEqualsUncached(factory);
+
+                // out-of-order rows land in an already cached partition
+                insertRows(500, "rnd_symbol('a','b','h')", 86_400_000_000L, 1_000_000);
+                assertCachedEqualsUncached(factory);
+
+                compile("update x set v = v + 1 where sym = 'a'");
+                assertCachedEqualsUncached(factory);
+
+                compile("alter table x drop partition where ts < '1970-01-03'");
+                assertCachedEqualsUncached(factory);
+
+                compile("truncate table x");
+                assertCachedEqualsUncached(factory);
+
+                insertRows(100, "rnd_symbol('k','l')", 0, 1_000_000);
+                assertCachedEqualsUncached(factory);
+            }
+        });
+    }
+
+    @Test
+    public void testCachePlan() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_LATEST_BY_CACHE_ENABLED, true);
+            createTable(" timestamp(ts) partition by day");
+            assertPlanNoLeakCheck(
+                    QUERY,
+                    "LatestByAllCached\n" +
+                            "    Row cached scan on: sym\n" +
+                            "    Frame backward scan on: x\n"
+            );
+            // the cache does not apply to filtered queries
+            assertPlanNoLeakCheck(
+                    "select * from x where v > 0 latest on ts partition by sym",
+                    "LatestByDeferredListValuesFiltered\n" +
+                            "  filter: 0<v\n" +
+                            "    Frame backward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testWalWriterKeepsCacheOnAppends() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(" timestamp(ts) partition by day wal dedup upsert keys(ts, sym)");
+            drainWalQueue();
+            try (RecordCursorFactory factory = compileCached()) {
+                assertCachedEqualsUncached(factory);
+                assertCacheCurrent(true);
+
+                insertRows(1000, "rnd_symbol('a','b','c',null)", 600_000_000_000L, 1_000_000);
+                drainWalQueue();
+                assertCacheCurrent(true);
+                assertCachedEqualsUncached(factory);
+
+                insertRows(5000, "rnd_symbol('d','e','f','g')", 700_000_000_000L, 60_000_000);
+                drainWalQueue();
+                assertCacheCurrent(true);
+                assertCachedEqualsUncached(factory);
+
+                // deduplicated rows replace the existing ones
+                compile("insert into x select sym, v + 1, ts from x where ts > 900000000000");
+                drainWalQueue();
+                assertCacheCurrent(false);
+                assertCachedEqualsUncached(factory);
+                assertCacheCurrent(true);
+
+                compile("update x set v = v + 1 where sym = 'a'");
+                drainWalQueue();
+                assertCacheCurrent(false);
+                assertCachedEqualsUncached(factory);
+            }
+        });
+    }
+
+    @Test
+    public void testWriterKeepsCacheOnAppends() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(" timestamp(ts) partition by day");
+            try (RecordCursorFactory factory = compileCached()) {
+                assertCachedEqualsUncached(factory);
+                assertCacheCurrent(true);
+
+                // appends to the last partition and new partitions keep the cache current
+                insertRows(1000, "rnd_symbol('a','b','c',null)", 600_000_000_000L, 1_000_000);
+                assertCacheCurrent(true);
+                assertCachedEqualsUncached(factory);
+
+                insertRows(5000, "rnd_symbol('d','e','f','g')", 700_000_000_000L, 60_000_000);
+                assertCacheCurrent(true);
+                assertCachedEqualsUncached(factory);
+
+                // O3 invalidates the cache
+                insertRows(500, "rnd_symbol('a','b','h')", 86_400_000_000L, 1_000_000);
+                assertCacheCurrent(false);
+                assertCachedEqualsUncached(factory);
+                assertCacheCurrent(true);
+
+                compile("update x set v = v + 1 where sym = 'a'");
+                assertCacheCurrent(false);
+                assertCachedEqualsUncached(factory);
+
+                compile("alter table x drop partition where ts < '1970-01-03'");
+                assertCacheCurrent(false);
+                assertCachedEqualsUncached(factory);
+
+                compile("truncate table x");
+                assertCacheCurrent(false);
+                assertCachedEqualsUncached(factory);
+
+                insertRows(100, "rnd_symbol('k','l')", 0, 1_000_000);
+                assertCacheCurrent(true);
+                assertCachedEqualsUncached(factory);
+            }
+        });
+    }
+
+    private void assertCacheCurrent(boolean current) {
+        try (
+                TableReader reader = getReader("x");
+                DirectLongList rows = new DirectLongList(16, MemoryTag.NATIVE_DEFAULT)
+        ) {
+            final LatestByCache cache = engine.getLatestByCacheRegistry().get(reader.getTableToken());
+            Assert.assertNotNull(cache);
+            final int columnIndex = reader.getMetadata().getColumnIndex("sym");
+            Assert.assertEquals(current, cache.copyTo(reader.getTxn(), reader.getMetadata().getWriterIndex(columnIndex), rows));
+        }
+    }
+
+    private void assertCachedEqualsUncached(RecordCursorFactory factory) throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_SQL_LATEST_BY_CACHE_ENABLED, false);
+        TestUtils.printSql(engine, sqlExecutionContext, QUERY, expected);
+        node1.setProperty(PropertyKey.CAIRO_SQL_LATEST_BY_CACHE_ENABLED, true);
+        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+            println(factory, cursor);
+        }
+        TestUtils.assertEquals(expected, sink);
+    }
+
+    private RecordCursorFactory compileCached() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_SQL_LATEST_BY_CACHE_ENABLED, true);
+        return select(QUERY);
+    }
+
+    private void createTable(String suffix) throws Exception {
+        ddl(
+                "create table x as (select" +
+                        " rnd_symbol('a','b','c',null) sym," +
+                        " rnd_long() v," +
+                        " timestamp_sequence(0, 60000000) ts" +
+                        " from long_sequence(10000))" + suffix
+        );
+    }
+
+    private void insertRows(int count, String symbol, long start, long step) throws Exception {
+        compile(
+                "insert into x select " + symbol + ", rnd_long(), timestamp_sequence(" + start + ", " + step + ")" +
+                        " from long_sequence(" + count + ")"
+        );
+    }
+}
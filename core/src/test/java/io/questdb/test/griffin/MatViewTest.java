@@ -0,0 +1,263 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.mv.MatViewRefreshJob;
+import io.questdb.std.Files;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MatViewTest extends AbstractCairoTest {
+
+    @Test
+    public void testBaseTableMustBeWal() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table base_price (sym symbol, price double, ts timestamp) timestamp(ts) partition by DAY BYPASS WAL");
+            assertException(
+                    "create materialized view price_1h as (select sym, last(price) as price, ts from base_price sample by 1h)",
+                    80,
+                    "materialized view base table must be a WAL table"
+            );
+        });
+    }
+
+    @Test
+    public void testCreateIfNotExists() throws Exception {
+        assertMemoryLeak(() -> {
+            createBaseTable();
+            final String viewSql = "create materialized view if not exists price_1h as (" +
+                    "select sym, last(price) as price, ts from base_price sample by 1h" +
+                    ")";
+            ddl(viewSql);
+            ddl(viewSql);
+            assertException(
+                    "create materialized view price_1h as (select sym, last(price) as price, ts from base_price sample by 1h)",
+                    25,
+                    "table already exists"
+            );
+        });
+    }
+
+    @Test
+    public void testCreateTableStillWorks() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (a int)");
+            ddl("create table if not exists x (a int)");
+            assertSql("a\n", "x");
+        });
+    }
+
+    @Test
+    public void testDropView() throws Exception {
+        assertMemoryLeak(() -> {
+            createBaseTable();
+            ddl("create materialized view price_1h as (select sym, last(price) as price, ts from base_price sample by 1h)");
+            drainWalQueue();
+            final TableToken viewToken = engine.verifyTableName("price_1h");
+            Assert.assertNotNull(engine.getMatViewGraph().getView(viewToken));
+
+            drop("drop table price_1h");
+            drainWalQueue();
+            try (MatViewRefreshJob refreshJob = new MatViewRefreshJob(engine)) {
+                refreshJob.run(0);
+            }
+            Assert.assertNull(engine.getMatViewGraph().getView(viewToken));
+        });
+    }
+
+    @Test
+    public void testIncrementalRefresh() throws Exception {
+        assertMemoryLeak(() -> {
+            createBaseTable();
+            ddl("create materialized view price_1h as (select sym, last(price) as price, ts from base_price sample by 1h) partition by DAY");
+            drainWalQueue();
+            assertViewMatchesQuery();
+
+            insert(
+                    "insert into base_price values" +
+                            "('gbpusd', 1.325, '2024-09-10T12:05')" +
+                            ",('jpyusd', 103.7, '2024-09-10T13:30')" +
+                            ",('gbpusd', 1.330, '2024-09-10T14:15')"
+            );
+            drainWalQueue();
+            refreshView();
+            assertSql(
+                    "sym\tprice\tts\n" +
+                            "gbpusd\t1.325\t2024-09-10T12:00:00.000000Z\n" +
+                            "jpyusd\t103.21\t2024-09-10T12:00:00.000000Z\n" +
+                            "gbpusd\t1.321\t2024-09-10T13:00:00.000000Z\n" +
+                            "jpyusd\t103.7\t2024-09-10T13:00:00.000000Z\n" +
+                            "gbpusd\t1.33\t2024-09-10T14:00:00.000000Z\n",
+                    "price_1h order by ts, sym"
+            );
+            assertViewMatchesQuery();
+        });
+    }
+
+    @Test
+    public void testOutOfOrderInsertRefreshesOldBuckets() throws Exception {
+        assertMemoryLeak(() -> {
+            createBaseTable();
+            ddl("create materialized view price_1h as (select sym, max(price) as price, ts from base_price p sample by 1h)");
+            drainWalQueue();
+
+            insert("insert into base_price values ('gbpusd', 1.5, '2024-09-10T12:59:59')");
+            drainWalQueue();
+            refreshView();
+            assertSql(
+                    "sym\tprice\tts\n" +
+                            "gbpusd\t1.5\t2024-09-10T12:00:00.000000Z\n" +
+                            "jpyusd\t103.21\t2024-09-10T12:00:00.000000Z\n" +
+                            "gbpusd\t1.321\t2024-09-10T13:00:00.000000Z\n",
+                    "price_1h order by ts, sym"
+            );
+            assertSql(
+                    "sym\tprice\tts\n" +
+                            "gbpusd\t1.5\t2024-09-10T12:00:00.000000Z\n" +
+                            "jpyusd\t103.21\t2024-09-10T12:00:00.000000Z\n" +
+                            "gbpusd\t1.321\t2024-09-10T13:00:00.000000Z\n",
+                    "(select sym, max(price) as price, ts from base_price sample by 1h) order by ts, sym"
+            );
+        });
+    }
+
+    @Test
+    public void testReloadDefinition() throws Exception {
+        assertMemoryLeak(() -> {
+            createBaseTable();
+            ddl("create materialized view price_1h as (select sym, last(price) as price, ts from base_price sample by 1h)");
+            drainWalQueue();
+            final TableToken viewToken = engine.verifyTableName("price_1h");
+            try (Path path = new Path()) {
+                path.of(configuration.getRoot()).concat(viewToken).concat(TableUtils.MAT_VIEW_FILE_NAME);
+                Assert.assertTrue(Files.exists(path.$()));
+            }
+
+            engine.getMatViewGraph().clear();
+            engine.reloadTableNames();
+            Assert.assertNotNull(engine.getMatViewGraph().getView(viewToken));
+
+            insert("insert into base_price values ('jpyusd', 104.5, '2024-09-10T15:00')");
+            drainWalQueue();
+            refreshView();
+            assertViewMatchesQuery();
+        });
+    }
+
+    @Test
+    public void testUnsupportedQueries() throws Exception {
+        assertMemoryLeak(() -> {
+            createBaseTable();
+            assertException(
+                    "create materialized view v as (select sym, last(price) as price from base_price)",
+                    31,
+                    "materialized view query requires SAMPLE BY"
+            );
+            assertException(
+                    "create materialized view v as (select sym, last(price) as price, ts from base_price sample by 1h fill(null))",
+                    94,
+                    "FILL and SAMPLE BY bind variables are not supported in materialized views"
+            );
+            assertException(
+                    "create materialized view v as (select sym, last(price) as price, ts from base_price sample by 1h align to first observation)",
+                    94,
+                    "materialized view requires SAMPLE BY aligned to calendar without time zone and offset"
+            );
+            assertException(
+                    "create materialized view v as (select sym, last(price) as price from base_price sample by 1h)",
+                    31,
+                    "materialized view query must select the designated timestamp"
+            );
+            assertException(
+                    "create materialized view v as (select b.sym, last(b.price) as price, b.ts from base_price b join base_price c on (sym) sample by 1h)",
+                    31,
+                    "materialized view query must select from a single table"
+            );
+        });
+    }
+
+    @Test
+    public void testVarcharKeyColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table base_price (sym varchar, price double, ts timestamp) timestamp(ts) partition by DAY WAL");
+            insert(
+                    "insert into base_price values" +
+                            "('gbpusd', 1.320, '2024-09-10T12:01')" +
+                            ",('gbpusd', 1.323, '2024-09-10T12:02')" +
+                            ",('jpyusd', 103.21, '2024-09-10T12:02')" +
+                            ",('gbpusd', 1.321, '2024-09-10T13:02')"
+            );
+            ddl("create materialized view price_1h as (select sym, last(price) as price, ts from base_price sample by 1h) partition by DAY");
+            drainWalQueue();
+
+            insert(
+                    "insert into base_price values" +
+                            "('gbpusd', 1.325, '2024-09-10T12:05')" +
+                            ",('jpyusd', 103.7, '2024-09-10T13:30')"
+            );
+            drainWalQueue();
+            refreshView();
+            assertSql(
+                    "sym\tprice\tts\n" +
+                            "gbpusd\t1.325\t2024-09-10T12:00:00.000000Z\n" +
+                            "jpyusd\t103.21\t2024-09-10T12:00:00.000000Z\n" +
+                            "gbpusd\t1.321\t2024-09-10T13:00:00.000000Z\n" +
+                            "jpyusd\t103.7\t2024-09-10T13:00:00.000000Z\n",
+                    "price_1h order by ts, sym"
+            );
+            assertViewMatchesQuery();
+        });
+    }
+
+    private static void refreshView() {
+        try (MatViewRefreshJob refreshJob = new MatViewRefreshJob(engine)) {
+            Assert.assertTrue(refreshJob.run(0));
+        }
+        drainWalQueue();
+    }
+
+    private void assertViewMatchesQuery() throws Exception {
+        assertSqlCursors(
+                "(select sym, last(price) as price, ts from base_price sample by 1h) order by ts, sym",
+                "price_1h order by ts, sym"
+        );
+    }
+
+    private void createBaseTable() throws Exception {
+        ddl("create table base_price (sym symbol, price double, ts timestamp) timestamp(ts) partition by DAY WAL");
+        insert(
+                "insert into base_price values" +
+                        "('gbpusd', 1.320, '2024-09-10T12:01')" +
+                        ",('gbpusd', 1.323, '2024-09-10T12:02')" +
+                        ",('jpyusd', 103.21, '2024-09-10T12:02')" +
+                        ",('gbpusd', 1.321, '2024-09-10T13:02')"
+        );
+        drainWalQueue();
+    }
+}
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelAsOfJoinTest extends AbstractParallelTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        // keep the lookahead short to exercise the binary search
+        setProperty(PropertyKey.CAIRO_SQL_ASOF_JOIN_LOOKAHEAD, 2);
+        super.setUp();
+    }
+
+    @Test
+    public void testParallelAsOfJoin() throws Exception {
+        testParallelAsOfJoin(
+                "select x.ts, x.i, y.ts, y.v from x asof join y",
+                "select count(*), sum(y.v), max(y.ts) from x asof join y"
+        );
+    }
+
+    @Test
+    public void testParallelAsOfJoinDenseMaster() throws Exception {
+        testParallelAsOfJoin("select y.ts, y.v, x.ts, x.i from y asof join x");
+    }
+
+    @Test
+    public void testParallelAsOfJoinIntervalMaster() throws Exception {
+        testParallelAsOfJoin("select x.ts, x.i, y.ts, y.v from x asof join y where x.ts in '1970-01-01T02'");
+    }
+
+    @Test
+    public void testParallelAsOfJoinPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_ASOF_JOIN_ENABLED, true);
+            createTables(engine, sqlExecutionContext);
+            assertPlanNoLeakCheck(
+                    "select x.i, y.v from x asof join y",
+                    "SelectedRecord\n" +
+                            "    Async AsOf Join workers: 1\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: x\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: y\n"
+            );
+            assertPlanNoLeakCheck(
+                    "select x.i, y.v from x lt join y",
+                    "SelectedRecord\n" +
+                            "    Async Lt Join workers: 1\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: x\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: y\n"
+            );
+        });
+    }
+
+    @Test
+    public void testParallelLtJoin() throws Exception {
+        testParallelLtJoin(
+                "select x.ts, x.i, y.ts, y.v from x lt join y",
+                "select count(*), sum(y.v), max(y.ts) from x lt join y"
+        );
+    }
+
+    @Test
+    public void testParallelLtJoinDenseMaster() throws Exception {
+        testParallelLtJoin("select y.ts, y.v, x.ts, x.i from y lt join x");
+    }
+
+    @Test
+    public void testParallelLtJoinIntervalMaster() throws Exception {
+        testParallelLtJoin("select x.ts, x.i, y.ts, y.v from x lt join y where x.ts in '1970-01-01T03'");
+    }
+
+    private static void createTables(CairoEngine engine, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        engine.ddl(
+                "create table x as (select" +
+                        " rnd_int(0, 500, 0) i," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+        // The slave starts after the master and has gaps, so that some of the master
+        // rows have no match and some of the partitions have no rows. Timestamps are
+        // duplicated to tell ASOF from LT JOIN.
+        engine.ddl(
+                "create table y as (select" +
+                        " x::int v," +
+                        " ((case when x % 2 = 0 then x - 1 else x end) * 7000000 + 5000000 + (x / 300) * 3600000000L)::timestamp ts" +
+                        " from long_sequence(600)) timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+    }
+
+    private void testParallelAsOfJoin(String... queries) throws Exception {
+        assertParallelQueries(
+                PropertyKey.CAIRO_SQL_PARALLEL_ASOF_JOIN_ENABLED,
+                "Async AsOf Join",
+                ParallelAsOfJoinTest::createTables,
+                queries
+        );
+    }
+
+    private void testParallelLtJoin(String... queries) throws Exception {
+        assertParallelQueries(
+                PropertyKey.CAIRO_SQL_PARALLEL_ASOF_JOIN_ENABLED,
+                "Async Lt Join",
+                ParallelAsOfJoinTest::createTables,
+                queries
+        );
+    }
+}
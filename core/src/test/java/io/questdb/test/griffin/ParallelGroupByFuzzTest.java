@@ -1168,6 +1168,18 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testParallelNonKeyedGroupByWithApproxPercentileFunctions() throws Exception {
+        // This query doesn't use filter, so we don't care about JIT.
+        Assume.assumeTrue(enableJitCompiler);
+        testParallelNonKeyedGroupBy(
+                "SELECT approx_percentile(price, 0.5), approx_percentile(price, 0.99, 3), " +
+                        "approx_percentile(quantity::long, 0.9), approx_percentile(quantity::long, 0.1, 4) FROM tab",
+                "approx_percentile\tapprox_percentile1\tapprox_percentile2\tapprox_percentile3\n" +
+                        "2047.9375\t3985.9990234375\t3327.0\t19.0\n"
+        );
+    }
+
     @Test
     public void testParallelNonKeyedGroupByWithBindVariablesInFilter() throws Exception {
         testParallelGroupByAllTypes(
@@ -1223,6 +1235,17 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testParallelNonKeyedGroupByWithCountDistinctSymbolFunction() throws Exception {
+        // This query doesn't use filter, so we don't care about JIT.
+        Assume.assumeTrue(enableJitCompiler);
+        testParallelGroupByAllTypes(
+                "SELECT count_distinct(asymbol) FROM tab",
+                "count_distinct\n" +
+                        "4\n"
+        );
+    }
+
     @Test
     public void testParallelNonKeyedGroupByWithCountDistinctTimestampFunction() throws Exception {
         // This query doesn't use filter, so we don't care about JIT.
@@ -1445,6 +1468,28 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testParallelNonKeyedGroupByWithVarianceFunctions() throws Exception {
+        // This query doesn't use filter, so we don't care about JIT.
+        Assume.assumeTrue(enableJitCompiler);
+        testParallelNonKeyedGroupBy(
+                "SELECT round(stddev_samp(price), 6) stddev, round(var_pop(price), 6) var, " +
+                        "round(covar_samp(price, quantity), 6) covar_samp, round(covar_pop(price, quantity), 6) covar_pop, " +
+                        "round(corr(price, quantity), 6) corr FROM tab",
+                "stddev\tvar\tcovar_samp\tcovar_pop\tcorr\n" +
+                        "1155.043296\t1333958.25\t692157.51969\t692071.0\t0.463949\n"
+        );
+    }
+
+    @Test
+    public void testParallelNonKeyedStringAggFunctionFuzz() throws Exception {
+        // This query doesn't use filter, so we don't care about JIT.
+        Assume.assumeTrue(enableJitCompiler);
+        testOrderSensitiveFunctionFuzz(
+                "SELECT count_distinct(asymbol), string_agg(astring, ','), string_agg(astring::varchar, ',') FROM tab"
+        );
+    }
+
     @Test
     public void testParallelOperationKeyGroupBy() throws Exception {
         // This query doesn't use filter, so we don't care about JIT.
@@ -1680,6 +1725,19 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testParallelSingleKeyGroupByWithCountDistinctSymbolFunction() throws Exception {
+        testParallelGroupByAllTypes(
+                "SELECT key, count_distinct(asymbol) FROM tab ORDER BY key",
+                "key\tcount_distinct\n" +
+                        "k0\t4\n" +
+                        "k1\t4\n" +
+                        "k2\t4\n" +
+                        "k3\t4\n" +
+                        "k4\t4\n"
+        );
+    }
+
     @Test
     public void testParallelSingleKeyGroupByWithTwoApproxCountDistinctIPv4Functions() throws Exception {
         testParallelGroupByAllTypes(
@@ -2160,7 +2218,7 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
     public void testParallelStringKeyedFirstFunctionFuzz() throws Exception {
         // This query doesn't use filter, so we don't care about JIT.
         Assume.assumeTrue(enableJitCompiler);
-        testFirstLastFunctionFuzz(
+        testOrderSensitiveFunctionFuzz(
                 "SELECT key, " +
                         " first(aboolean) aboolean, first(abyte) abyte, first(ageobyte) ageobyte, " +
                         " first(ashort) ashort, first(ageoshort) ageoshort, first(achar) achar, " +
@@ -2198,7 +2256,7 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
     public void testParallelStringKeyedFirstNotNullFunctionFuzz() throws Exception {
         // This query doesn't use filter, so we don't care about JIT.
         Assume.assumeTrue(enableJitCompiler);
-        testFirstLastFunctionFuzz(
+        testOrderSensitiveFunctionFuzz(
                 "SELECT key, " +
                         " first_not_null(ageobyte) ageobyte, " +
                         " first_not_null(ageoshort) ageoshort, first_not_null(achar) achar, " +
@@ -2252,7 +2310,7 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
     public void testParallelStringKeyedLastFunctionFuzz() throws Exception {
         // This query doesn't use filter, so we don't care about JIT.
         Assume.assumeTrue(enableJitCompiler);
-        testFirstLastFunctionFuzz(
+        testOrderSensitiveFunctionFuzz(
                 "SELECT key, " +
                         " last(aboolean) aboolean, last(abyte) abyte, last(ageobyte) ageobyte, " +
                         " last(ashort) ashort, last(ageoshort) ageoshort, last(achar) achar, " +
@@ -2290,7 +2348,7 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
     public void testParallelStringKeyedLastNotNullFunctionFuzz() throws Exception {
         // This query doesn't use filter, so we don't care about JIT.
         Assume.assumeTrue(enableJitCompiler);
-        testFirstLastFunctionFuzz(
+        testOrderSensitiveFunctionFuzz(
                 "SELECT key, " +
                         " last_not_null(ageobyte) ageobyte, " +
                         " last_not_null(ageoshort) ageoshort, last_not_null(achar) achar, " +
@@ -2302,6 +2360,16 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testParallelStringKeyedStringAggFunctionFuzz() throws Exception {
+        // This query doesn't use filter, so we don't care about JIT.
+        Assume.assumeTrue(enableJitCompiler);
+        testOrderSensitiveFunctionFuzz(
+                "SELECT key, count_distinct(asymbol), string_agg(astring, ','), string_agg(astring::varchar, ',') " +
+                        "FROM tab ORDER BY key"
+        );
+    }
+
     @Test
     public void testParallelSymbolKeyGroupBy() throws Exception {
         // This query doesn't use filter, so we don't care about JIT.
@@ -2345,6 +2413,22 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testParallelSymbolKeyGroupByWithApproxPercentileFunctions() throws Exception {
+        // This query doesn't use filter, so we don't care about JIT.
+        Assume.assumeTrue(enableJitCompiler);
+        testParallelSymbolKeyGroupBy(
+                "SELECT key, approx_percentile(price, 0.5), approx_percentile(price, 0.99, 3), " +
+                        "approx_percentile(quantity, 0.9), approx_percentile(quantity, 0.1, 4) FROM tab ORDER BY key",
+                "key\tapprox_percentile\tapprox_percentile1\tapprox_percentile2\tapprox_percentile3\n" +
+                        "k0\t2047.75\t3985.99609375\t3711.0\t425.0\n" +
+                        "k1\t2047.9375\t3981.9990234375\t3711.0\t421.0\n" +
+                        "k2\t2047.875\t3983.998046875\t3711.0\t422.0\n" +
+                        "k3\t2047.875\t3983.998046875\t3711.0\t423.0\n" +
+                        "k4\t2047.75\t3985.99609375\t3711.0\t424.0\n"
+        );
+    }
+
     @Test
     public void testParallelSymbolKeyGroupByWithLimit() throws Exception {
         // This query doesn't use filter, so we don't care about JIT.
@@ -2427,6 +2511,23 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         );
     }
 
+    @Test
+    public void testParallelSymbolKeyGroupByWithVarianceFunctions() throws Exception {
+        // This query doesn't use filter, so we don't care about JIT.
+        Assume.assumeTrue(enableJitCompiler);
+        testParallelSymbolKeyGroupBy(
+                "SELECT key, round(stddev_samp(price), 6) stddev, round(var_pop(price), 6) var, " +
+                        "round(covar_samp(price, quantity), 6) covar_samp, round(covar_pop(price, quantity), 6) covar_pop, " +
+                        "round(corr(price, quantity), 6) corr FROM tab ORDER BY key",
+                "key\tstddev\tvar\tcovar_samp\tcovar_pop\tcorr\n" +
+                        "k0\t1155.3313349999999\t1333956.25\t1334790.494059\t1333956.25\t1.0\n" +
+                        "k1\t1155.3313349999999\t1333956.25\t1334790.494059\t1333956.25\t1.0\n" +
+                        "k2\t1155.3313349999999\t1333956.25\t1334790.494059\t1333956.25\t1.0\n" +
+                        "k3\t1155.3313349999999\t1333956.25\t1334790.494059\t1333956.25\t1.0\n" +
+                        "k4\t1155.3313349999999\t1333956.25\t1334790.494059\t1333956.25\t1.0\n"
+        );
+    }
+
     @Test
     public void testParallelSymbolKeyGroupByWithWithReadThreadSafeFilter() throws Exception {
         testParallelSymbolKeyGroupBy(
@@ -2533,9 +2634,9 @@ public class ParallelGroupByFuzzTest extends AbstractCairoTest {
         }
     }
 
-    private void testFirstLastFunctionFuzz(String query) throws Exception {
-        // With this test, we aim to verify correctness of merge() method
-        // implementation in first/last functions.
+    private void testOrderSensitiveFunctionFuzz(String query) throws Exception {
+        // With this test, we aim to verify that functions sensitive to the row order,
+        // such as first/last and string_agg, produce the same result as single-threaded GROUP BY.
 
         // This test controls sets enable parallel GROUP BY flag on its own.
         Assume.assumeTrue(enableParallelGroupBy);
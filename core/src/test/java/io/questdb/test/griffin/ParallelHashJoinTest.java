@@ -0,0 +1,142 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import org.junit.Test;
+
+public class ParallelHashJoinTest extends AbstractParallelTest {
+
+    @Test
+    public void testParallelHashJoinDescending() throws Exception {
+        testParallelHashJoin(
+                "select x.ts, x.i, y.v from x join y on (k) order by x.ts desc limit 20",
+                "select x.ts, x.i, y.v from x join y on (k) order by x.ts desc limit -20"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinFilteredMasterIsSerial() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, true);
+            createTables(engine, sqlExecutionContext);
+            // filtered master doesn't support page frames, so the join stays single-threaded
+            assertPlanNoLeakCheck(
+                    "select x.i, y.v from (x where i % 3 = 0) x join y on (k)",
+                    "SelectedRecord\n" +
+                            "    Hash Join Light\n" +
+                            "      condition: y.k=x.k\n" +
+                            "        Async Filter workers: 1\n" +
+                            "          filter: i%3=0\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: x\n" +
+                            "        Hash\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: y\n"
+            );
+        });
+    }
+
+    @Test
+    public void testParallelHashJoinIntKey() throws Exception {
+        testParallelHashJoin(
+                "select count(*), sum(x.i), sum(y.v) from x join y on x.i = y.v",
+                "select x.ts, x.i, y.v, y.s from x join y on x.i = y.v limit 50"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, true);
+            createTables(engine, sqlExecutionContext);
+            assertPlanNoLeakCheck(
+                    "select x.i, y.v from x join y on (k)",
+                    "SelectedRecord\n" +
+                            "    Async Hash Join workers: 1\n" +
+                            "      condition: y.k=x.k\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: x\n" +
+                            "        Hash\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: y\n"
+            );
+        });
+    }
+
+    @Test
+    public void testParallelHashJoinSymbolKey() throws Exception {
+        testParallelHashJoin(
+                "select count(*), sum(x.i), sum(y.v) from x join y on (k)",
+                "select x.k, count(*), sum(y.v) from x join y on (k) order by 1",
+                "select x.ts, x.k, x.i, y.v, y.s from x join y on (k) limit 50"
+        );
+    }
+
+    @Test
+    public void testParallelHashJoinVarcharKey() throws Exception {
+        testParallelHashJoin(
+                "select count(*), sum(x.i), sum(y.v) from x join y on x.s = y.s",
+                "select x.ts, x.s, y.v from x join y on x.s = y.s limit 50"
+        );
+    }
+
+    private static void createTables(CairoEngine engine, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        engine.ddl(
+                "create table x as (select" +
+                        " rnd_symbol('a','b','c','d','e','f','g') k," +
+                        " rnd_int(0, 500, 0) i," +
+                        " rnd_str(1,2,0)::varchar s," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+        engine.ddl(
+                "create table y as (select" +
+                        " rnd_symbol('a','b','c','d','e','f','h') k," +
+                        " rnd_int(0, 500, 0) v," +
+                        " rnd_str(1,2,0)::varchar s" +
+                        " from long_sequence(300))",
+                sqlExecutionContext
+        );
+    }
+
+    private void testParallelHashJoin(String... queries) throws Exception {
+        assertParallelQueries(
+                PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED,
+                "Async Hash Join",
+                ParallelHashJoinTest::createTables,
+                queries
+        );
+    }
+}
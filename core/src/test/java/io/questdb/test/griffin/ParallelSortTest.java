@@ -0,0 +1,166 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import org.junit.Test;
+
+public class ParallelSortTest extends AbstractParallelTest {
+
+    @Test
+    public void testParallelSortBackwardScan() throws Exception {
+        testParallelSort(
+                "select * from (x order by ts desc) order by i",
+                "select * from (x order by ts desc) order by k desc"
+        );
+    }
+
+    @Test
+    public void testParallelSortDoubleKey() throws Exception {
+        testParallelSort(
+                "select * from x order by d",
+                "select * from x order by d desc"
+        );
+    }
+
+    @Test
+    public void testParallelSortFilteredBaseIsSerial() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_SORT_ENABLED, true);
+            createTable(engine, sqlExecutionContext);
+            // filtered base doesn't support page frames, so it's sorted on the query thread
+            assertPlanNoLeakCheck(
+                    "select * from x where i % 3 = 0 order by l desc",
+                    "Sort light\n" +
+                            "  keys: [l desc]\n" +
+                            "    Async Filter workers: 1\n" +
+                            "      filter: i%3=0\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testParallelSortIntKey() throws Exception {
+        testParallelSort(
+                "select * from x order by i",
+                "select * from x order by i desc"
+        );
+    }
+
+    @Test
+    public void testParallelSortLongKey() throws Exception {
+        testParallelSort(
+                "select * from x order by l",
+                "select * from x order by l desc"
+        );
+    }
+
+    @Test
+    public void testParallelSortPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_SORT_ENABLED, true);
+            createTable(engine, sqlExecutionContext);
+            assertPlanNoLeakCheck(
+                    "select * from x order by l desc",
+                    "Async Sort workers: 1\n" +
+                            "  keys: [l desc]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+            // multiple keys are sorted on the query thread
+            assertPlanNoLeakCheck(
+                    "select * from x order by l, i",
+                    "Sort light\n" +
+                            "  keys: [l, i]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testParallelSortRandomAccess() throws Exception {
+        testParallelSort(
+                "select * from (x order by l) a join (x order by i) b on (k) limit 100",
+                "select * from (select * from x order by i) order by d"
+        );
+    }
+
+    @Test
+    public void testParallelSortSymbolKey() throws Exception {
+        testParallelSort(
+                "select * from x order by k",
+                "select * from x order by k desc"
+        );
+    }
+
+    @Test
+    public void testParallelSortSymbolKeyManyValues() throws Exception {
+        testParallelSort(
+                "select k2, i from x order by k2",
+                "select k2, i from x order by k2 desc"
+        );
+    }
+
+    @Test
+    public void testParallelSortTimestampKey() throws Exception {
+        testParallelSort(
+                "select * from x order by t",
+                "select * from x order by t desc"
+        );
+    }
+
+    private static void createTable(CairoEngine engine, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        engine.ddl(
+                "create table x as (select" +
+                        " rnd_symbol('d','a','f',null,'c','b','e') k," +
+                        " rnd_symbol(1000,1,8,0) k2," +
+                        " rnd_int(0, 500, 2) i," +
+                        " rnd_long(-100000, 100000, 3) l," +
+                        " rnd_double(2) * 100 - 50 d," +
+                        " rnd_timestamp(to_timestamp('2024-01-01', 'yyyy-MM-dd'), to_timestamp('2024-01-02', 'yyyy-MM-dd'), 2) t," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+    }
+
+    private void testParallelSort(String... queries) throws Exception {
+        assertParallelQueries(
+                PropertyKey.CAIRO_SQL_PARALLEL_SORT_ENABLED,
+                "Async Sort",
+                ParallelSortTest::createTable,
+                queries
+        );
+    }
+}
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import org.junit.Test;
+
+public class ParallelTopKTest extends AbstractParallelTest {
+
+    @Test
+    public void testParallelTopKBackwardScan() throws Exception {
+        testParallelTopK(
+                "select * from (x order by ts desc) order by i limit 25",
+                "select k from (x order by ts desc) order by k desc limit 25"
+        );
+    }
+
+    @Test
+    public void testParallelTopKDoubleKey() throws Exception {
+        testParallelTopK(
+                "select * from x order by d limit 30",
+                "select * from x order by d desc limit 30"
+        );
+    }
+
+    @Test
+    public void testParallelTopKFilter() throws Exception {
+        testParallelTopK(
+                "select * from x where i % 3 = 0 order by l desc limit 20",
+                "select * from x where i > 100 and l < 0 order by i limit 40",
+                "select * from x where i < 300 and l > 0 order by d desc limit 40",
+                "select * from x where abs(l) % 7 = 1 order by l limit 15"
+        );
+    }
+
+    @Test
+    public void testParallelTopKLimitLargerThanTable() throws Exception {
+        testParallelTopK(
+                "select * from x where i < 10 order by l desc limit 100000",
+                "select * from x order by i limit 0"
+        );
+    }
+
+    @Test
+    public void testParallelTopKLoHi() throws Exception {
+        testParallelTopK(
+                "select * from x order by l limit 10, 30",
+                "select * from x where i % 2 = 0 order by d desc limit 5, 6",
+                "select * from x order by i desc limit 2000, 2100"
+        );
+    }
+
+    @Test
+    public void testParallelTopKPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_SQL_PARALLEL_TOP_K_ENABLED, true);
+            createTable(engine, sqlExecutionContext);
+            assertPlanNoLeakCheck(
+                    "select * from x order by l desc limit 10",
+                    "Async Top K workers: 1 lo: 10\n" +
+                            "  keys: [l desc]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+            assertPlanNoLeakCheck(
+                    "select * from x where i > 100 order by l limit 5, 10",
+                    "Async JIT Top K workers: 1 lo: 5 hi: 10\n" +
+                            "  filter: 100<i\n" +
+                            "  keys: [l]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+            // symbol filters are not thread-safe, so they are left to the single-threaded factory
+            assertPlanNoLeakCheck(
+                    "select * from x where k = 'c' and i > 100 order by i limit 40",
+                    "Sort light lo: 40\n" +
+                            "  keys: [i]\n" +
+                            "    Async JIT Filter workers: 1\n" +
+                            "      filter: (k='c' and 100<i)\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: x\n"
+            );
+            // negative limits are left to the single-threaded factory
+            assertPlanNoLeakCheck(
+                    "select * from x order by l desc limit -10",
+                    "Sort light lo: -10\n" +
+                            "  keys: [l desc]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testParallelTopKSymbolKey() throws Exception {
+        testParallelTopK(
+                "select k from x order by k limit 700",
+                "select k, count() from (x order by k desc limit 1000)"
+        );
+    }
+
+    private static void createTable(CairoEngine engine, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        engine.ddl(
+                "create table x as (select" +
+                        " rnd_symbol('d','a','f',null,'c','b','e') k," +
+                        // sort keys are unique, so that the result doesn't depend on the order of equal keys
+                        " case when x = 42 then null else ((x * 7919) % 10007)::int end i," +
+                        " case when x = 43 then null else (x * 104723) % 1000003 - 500000 end l," +
+                        " case when x = 44 then null else ((x * 3571) % 4001 - 2000) / 7.0 end d," +
+                        " rnd_str(1,3,1)::varchar s," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+    }
+
+    private void testParallelTopK(String... queries) throws Exception {
+        assertParallelQueries(
+                PropertyKey.CAIRO_SQL_PARALLEL_TOP_K_ENABLED,
+                "Top K",
+                ParallelTopKTest::createTable,
+                queries
+        );
+    }
+}
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelWindowTest extends AbstractParallelTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        // the flag must be set before the pool starts for the workers to pick up shard tasks
+        setProperty(PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, "true");
+        super.setUp();
+    }
+
+    @Test
+    public void testParallelWindowMovingAverage() throws Exception {
+        testParallelWindow(
+                "select ts, sym, v, avg(v) over (partition by sym order by v rows between 100 preceding and current row) from x",
+                "select ts, sym, v, avg(v) over (partition by sym order by ts desc rows between 10 preceding and current row) from x"
+        );
+    }
+
+    @Test
+    public void testParallelWindowMultipleKeys() throws Exception {
+        testParallelWindow(
+                "select ts, sym, k, row_number() over (partition by sym, k order by v), sum(v) over (partition by sym, k) from x",
+                "select ts, sym, k, max(v) over (partition by k, sym order by v rows between 3 preceding and current row) from x where k > 1"
+        );
+    }
+
+    @Test
+    public void testParallelWindowMultipleOrderGroups() throws Exception {
+        testParallelWindow(
+                "select ts, sym, v," +
+                        " rank() over (partition by sym order by v desc)," +
+                        " dense_rank() over (partition by sym order by k)," +
+                        " first_value(v) over (partition by sym order by ts)," +
+                        " lag(v) over (partition by sym)," +
+                        " lead(v, 2) over (partition by sym)" +
+                        " from x"
+        );
+    }
+
+    @Test
+    public void testParallelWindowPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(engine, sqlExecutionContext);
+            assertPlanNoLeakCheck(
+                    "select sym, avg(v) over (partition by sym order by v rows between 100 preceding and current row) from x",
+                    "Async CachedWindow workers: 1\n" +
+                            "  shards: 2\n" +
+                            "  orderedFunctions: [[v] => [avg(v) over (partition by [sym] rows between 100 preceding and current row)]]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+            // window functions with different partition keys stay single-threaded
+            assertPlanNoLeakCheck(
+                    "select sym, avg(v) over (partition by sym order by v), avg(v) over (partition by k order by v) from x",
+                    "CachedWindow\n" +
+                            "  orderedFunctions: [[v] => [avg(v) over (partition by [sym] rows between unbounded preceding and current row )," +
+                            "avg(v) over (partition by [k] rows between unbounded preceding and current row )]]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+            // frames ordered by designated timestamp are computed by the streaming window factory
+            assertPlanNoLeakCheck(
+                    "select ts, sym, avg(v) over (partition by sym order by ts range between 1 minute preceding and current row) from x",
+                    "Window\n" +
+                            "  functions: [avg(v) over (partition by [sym] range between 60000000 preceding and current row)]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testParallelWindowTwoPass() throws Exception {
+        testParallelWindow(
+                "select ts, sym, v," +
+                        " ntile(4) over (partition by sym order by v)," +
+                        " last_value(v) over (partition by sym)," +
+                        " count(*) over (partition by sym)" +
+                        " from x"
+        );
+    }
+
+    private static void createTable(CairoEngine engine, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        engine.ddl(
+                "create table x as (select" +
+                        " rnd_symbol(50, 4, 8, 0) sym," +
+                        " rnd_int(0, 5, 0) k," +
+                        " rnd_double(2) v," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(" + ROW_COUNT + ")) timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+    }
+
+    private void testParallelWindow(String... queries) throws Exception {
+        assertParallelQueries(PropertyKey.CAIRO_SQL_PARALLEL_WINDOW_ENABLED, "Async CachedWindow", ParallelWindowTest::createTable, queries);
+    }
+}
@@ -0,0 +1,310 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.retention.PartitionRetentionJob;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.std.Os;
+import io.questdb.std.datetime.microtime.TimestampFormatUtils;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.std.str.Path;
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+
+public class PartitionRetentionTest extends AbstractCairoTest {
+
+    @Test
+    public void testCannotConvertActivePartitionToVolume() throws Exception {
+        Assume.assumeFalse(Os.isWindows());
+        assertMemoryLeak(() -> {
+            defineVolume();
+            createTable("x", "BYPASS WAL");
+            assertException(
+                    "alter table x convert partition to volume 'cold' list '2024-01-05'",
+                    54,
+                    "CONVERT_ERR_ACTIVE"
+            );
+        });
+    }
+
+    @Test
+    public void testCannotConvertPartitionToUnknownVolume() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            assertException(
+                    "alter table x convert partition to volume 'hot' list '2024-01-01'",
+                    42,
+                    "volume alias is not allowed [alias=hot]"
+            );
+        });
+    }
+
+    @Test
+    public void testConvertPartitionToVolume() throws Exception {
+        Assume.assumeFalse(Os.isWindows());
+        assertMemoryLeak(() -> {
+            final File volume = defineVolume();
+            createTable("x", "BYPASS WAL");
+            ddl("alter table x convert partition to volume 'cold' list '2024-01-01', '2024-01-02'");
+            // converting the same partition again is a no-op
+            ddl("alter table x convert partition to volume 'cold' list '2024-01-01'");
+
+            final TableToken tableToken = engine.verifyTableName("x");
+            Assert.assertEquals(2, tieredPartitionCount(volume, tableToken));
+            assertSql(
+                    "name\treadOnly\n" +
+                            "2024-01-01\ttrue\n" +
+                            "2024-01-02\ttrue\n" +
+                            "2024-01-03\tfalse\n" +
+                            "2024-01-04\tfalse\n" +
+                            "2024-01-05\tfalse\n",
+                    "select name, readOnly from table_partitions('x')"
+            );
+            assertSqlCursors("y", "x");
+
+            // dropped partition takes its copy on the volume with it
+            ddl("alter table x drop partition list '2024-01-01'");
+            Assert.assertEquals(1, tieredPartitionCount(volume, tableToken));
+            assertSqlCursors("y where ts >= '2024-01-02'", "x");
+        });
+    }
+
+    @Test
+    public void testInvalidParams() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            assertException(
+                    "alter table x set param ttl = 3x",
+                    26,
+                    "invalid interval qualifier 3x"
+            );
+            assertException(
+                    "alter table x set param tieringAge = d",
+                    25,
+                    "invalid interval qualifier d"
+            );
+            assertException(
+                    "alter table x set param tieringVolume = 'hot'",
+                    24,
+                    "volume alias is not allowed [alias=hot]"
+            );
+        });
+    }
+
+    @Test
+    public void testMaxPartitionsPerRun() throws Exception {
+        node1.setProperty(PropertyKey.CAIRO_PARTITION_RETENTION_MAX_PARTITIONS_PER_RUN, 1);
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            ddl("alter table x set param ttl = 2d");
+
+            currentMicros = TimestampFormatUtils.parseTimestamp("2024-01-06T00:00:00.000Z");
+            try (PartitionRetentionJob job = new PartitionRetentionJob(engine)) {
+                Assert.assertTrue(job.run(0));
+                assertPartitions("2024-01-02\n2024-01-03\n2024-01-04\n2024-01-05\n");
+
+                // the job does not run again until the interval elapses
+                Assert.assertFalse(job.run(0));
+                assertPartitions("2024-01-02\n2024-01-03\n2024-01-04\n2024-01-05\n");
+
+                currentMicros += Timestamps.MINUTE_MICROS;
+                Assert.assertTrue(job.run(0));
+                assertPartitions("2024-01-03\n2024-01-04\n2024-01-05\n");
+
+                currentMicros += Timestamps.MINUTE_MICROS;
+                Assert.assertTrue(job.run(0));
+                assertPartitions("2024-01-04\n2024-01-05\n");
+
+                currentMicros += Timestamps.MINUTE_MICROS;
+                Assert.assertFalse(job.run(0));
+                assertPartitions("2024-01-04\n2024-01-05\n");
+            }
+        });
+    }
+
+    @Test
+    public void testNoPolicy() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            currentMicros = TimestampFormatUtils.parseTimestamp("2025-01-01T00:00:00.000Z");
+            try (PartitionRetentionJob job = new PartitionRetentionJob(engine)) {
+                Assert.assertFalse(job.run(0));
+            }
+            assertSqlCursors("y", "x");
+
+            // zero TTL disables the policy
+            ddl("alter table x set param ttl = 2d");
+            ddl("alter table x set param ttl = 0d");
+            try (PartitionRetentionJob job = new PartitionRetentionJob(engine)) {
+                Assert.assertFalse(job.run(0));
+            }
+            assertSqlCursors("y", "x");
+        });
+    }
+
+    @Test
+    public void testTiering() throws Exception {
+        Assume.assumeFalse(Os.isWindows());
+        assertMemoryLeak(() -> {
+            final File volume = defineVolume();
+            createTable("x", "BYPASS WAL");
+            ddl("alter table x set param tieringAge = 2d");
+            ddl("alter table x set param tieringVolume = 'cold'");
+            ddl("alter table x set param ttl = 4d");
+
+            final TableToken tableToken = engine.verifyTableName("x");
+            currentMicros = TimestampFormatUtils.parseTimestamp("2024-01-06T00:00:00.000Z");
+            try (
+                    TableReader reader = getReader("x");
+                    PartitionRetentionJob job = new PartitionRetentionJob(engine)
+            ) {
+                Assert.assertTrue(job.run(0));
+
+                // reader opened before the move keeps reading the partition versions it has
+                final RecordCursor cursor = reader.getCursor();
+                long count = 0;
+                while (cursor.hasNext()) {
+                    count++;
+                }
+                Assert.assertEquals(3600, count);
+            }
+
+            Assert.assertEquals(2, tieredPartitionCount(volume, tableToken));
+            assertSql(
+                    "name\treadOnly\n" +
+                            "2024-01-02\ttrue\n" +
+                            "2024-01-03\ttrue\n" +
+                            "2024-01-04\tfalse\n" +
+                            "2024-01-05\tfalse\n",
+                    "select name, readOnly from table_partitions('x')"
+            );
+            assertSqlCursors("y where ts >= '2024-01-02'", "x");
+
+            // moved partitions are dropped once they expire
+            currentMicros += Timestamps.DAY_MICROS;
+            try (PartitionRetentionJob job = new PartitionRetentionJob(engine)) {
+                Assert.assertTrue(job.run(0));
+            }
+            Assert.assertEquals(2, tieredPartitionCount(volume, tableToken));
+            assertPartitions("2024-01-03\n2024-01-04\n2024-01-05\n");
+            assertSqlCursors("y where ts >= '2024-01-03'", "x");
+        });
+    }
+
+    @Test
+    public void testTtl() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            ddl("alter table x set param ttl = 2d");
+
+            currentMicros = TimestampFormatUtils.parseTimestamp("2024-01-06T00:00:00.000Z");
+            try (PartitionRetentionJob job = new PartitionRetentionJob(engine)) {
+                Assert.assertTrue(job.run(0));
+            }
+            assertPartitions("2024-01-04\n2024-01-05\n");
+            assertSqlCursors("y where ts >= '2024-01-04'", "x");
+        });
+    }
+
+    @Test
+    public void testTtlDoesNotDropActivePartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "BYPASS WAL");
+            ddl("alter table x set param ttl = 1h");
+
+            currentMicros = TimestampFormatUtils.parseTimestamp("2024-02-01T00:00:00.000Z");
+            try (PartitionRetentionJob job = new PartitionRetentionJob(engine)) {
+                Assert.assertTrue(job.run(0));
+            }
+            assertPartitions("2024-01-05\n");
+        });
+    }
+
+    @Test
+    public void testTtlWal() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "WAL");
+            ddl("alter table x set param ttl = 2d");
+            drainWalQueue();
+
+            currentMicros = TimestampFormatUtils.parseTimestamp("2024-01-06T00:00:00.000Z");
+            try (PartitionRetentionJob job = new PartitionRetentionJob(engine)) {
+                Assert.assertTrue(job.run(0));
+                // the statement is not applied yet, the job waits for it rather than issuing it again
+                currentMicros += Timestamps.MINUTE_MICROS;
+                Assert.assertFalse(job.run(0));
+
+                drainWalQueue();
+                assertPartitions("2024-01-04\n2024-01-05\n");
+                assertSqlCursors("y where ts >= '2024-01-04'", "x");
+
+                currentMicros += Timestamps.MINUTE_MICROS;
+                Assert.assertFalse(job.run(0));
+            }
+        });
+    }
+
+    private static int tieredPartitionCount(File volume, TableToken tableToken) {
+        final String[] partitions = new File(
+                volume,
+                TableUtils.TIERED_PARTITIONS_DIR_NAME + File.separator + tableToken.getDirName()
+        ).list();
+        return partitions != null ? partitions.length : 0;
+    }
+
+    private void assertPartitions(String expected) throws Exception {
+        assertSql("name\n" + expected, "select name from table_partitions('x')");
+    }
+
+    private void createTable(String tableName, String walMode) throws Exception {
+        ddl(
+                "create table " + tableName + " as (" +
+                        "select rnd_int() i, rnd_varchar(5, 10, 1) v, timestamp_sequence('2024-01-01', 120000000L) ts" +
+                        " from long_sequence(3600)" +
+                        ") timestamp(ts) partition by DAY " + walMode
+        );
+        if (walMode.equals("WAL")) {
+            drainWalQueue();
+        }
+        // copy to compare query results with
+        ddl("create table y as (select * from " + tableName + ") timestamp(ts) partition by DAY BYPASS WAL");
+    }
+
+    private File defineVolume() throws Exception {
+        final File volume = temp.newFolder();
+        try (Path path = new Path()) {
+            configuration.getVolumeDefinitions().of("cold->" + volume.getAbsolutePath(), path, root);
+        }
+        return volume;
+    }
+}
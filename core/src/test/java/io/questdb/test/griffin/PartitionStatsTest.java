@@ -0,0 +1,238 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.PropertyKey;
+import io.questdb.cairo.SqlJitMode;
+import io.questdb.cairo.TableUtils;
+import io.questdb.std.Files;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PartitionStatsTest extends AbstractCairoTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        node1.setProperty(PropertyKey.CAIRO_PARTITION_STATS_ENABLED, true);
+        super.setUp();
+    }
+
+    @Test
+    public void testColumnAddedLater() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            ddl("alter table x add column y long");
+            insert("insert into x (ts, id, y) values ('2024-01-10', 1000, 42)");
+            assertQueries(
+                    "x where y = 42",
+                    "x where y > 0 and id > 100",
+                    "x where y < 0"
+            );
+        });
+    }
+
+    @Test
+    public void testFilters() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertQueries(
+                    "x where id = 150",
+                    "x where id > 400",
+                    "x where 400 < id",
+                    "x where id >= 480 and id < 490",
+                    "x where id <= 3",
+                    "x where i = 7",
+                    "x where i >= 1000000",
+                    "x where d > 95.5",
+                    "x where d < 0.5 and id > 100",
+                    "x where n = 1",
+                    "x where id > 400 order by ts desc",
+                    "x where ts in '2024-01-02' and id > 100",
+                    "x where ts in '2024-01-02' and id > 100 order by ts desc",
+                    "x where id > 100 or i = 3",
+                    "select count() from x where id < 50"
+            );
+        });
+    }
+
+    @Test
+    public void testLastPartitionHasNoStats() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (Path path = new Path()) {
+                for (int day = 1; day <= 5; day++) {
+                    path.of(configuration.getRoot())
+                            .concat(engine.verifyTableName("x").getDirName())
+                            .concat("2024-01-0" + day)
+                            .concat(TableUtils.PARTITION_STATS_FILE_NAME);
+                    Assert.assertEquals(day < 5, Files.exists(path.$()));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testNonPartitioned() throws Exception {
+        assertMemoryLeak(() -> {
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            ddl("create table x as (select x id, timestamp_sequence('2024-01-01', 3600000000L) ts from long_sequence(100)) timestamp(ts)");
+            assertPlanNoLeakCheck(
+                    "x where id > 50",
+                    "Async Filter workers: 1\n" +
+                            "  filter: 50<id\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testOutOfOrderInsert() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            // the stats of the 2nd partition become stale and must not be used anymore
+            insert("insert into x (ts, id, i, d) values ('2024-01-02T10:30', 1000, 1000000, 1000.0)");
+            assertQueries(
+                    "x where id = 1000",
+                    "x where i >= 1000000",
+                    "x where d > 999"
+            );
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            createTable();
+            assertPlanNoLeakCheck(
+                    "x where id > 400 and d < 1.5",
+                    "Async Filter workers: 1\n" +
+                            "  filter: (400<id and d<1.5)\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n" +
+                            "          partition stats filter: [d<1.5,id>400]\n"
+            );
+        });
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            update("update x set id = 10000 where id = 10");
+            assertQueries(
+                    "x where id = 10000",
+                    "x where id > 9999"
+            );
+        });
+    }
+
+    @Test
+    public void testZoneMaps() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_PARTITION_ZONE_MAP_BLOCK_ROWS, 16);
+            createTable();
+            assertQueries(
+                    "x where id = 150",
+                    "x where id >= 20 and id < 40",
+                    "x where id >= 20 and id < 40 order by ts desc",
+                    "x where id < 10 or id > 490",
+                    "x where i = 7",
+                    "x where d > 99.5",
+                    "x where d > 99.5 order by ts desc",
+                    "x where ts in '2024-01-02' and id > 130 and id < 150",
+                    "x where ts in '2024-01-02' and id > 130 and id < 150 order by ts desc",
+                    "x where n = 1",
+                    "select count(), sum(id) from x where id > 250",
+                    "select * from (x where id > 200 and id < 300) limit 5",
+                    "select * from (x where id > 200 and id < 300) limit -5"
+            );
+        });
+    }
+
+    @Test
+    public void testZoneMapsColumnTop() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_PARTITION_ZONE_MAP_BLOCK_ROWS, 10);
+            ddl("create table x as (select timestamp_sequence('2024-01-01', 3600000000L) ts, x id from long_sequence(30)) timestamp(ts) partition by day");
+            ddl("alter table x add column y long");
+            // the column top ends in the middle of a zone map block of the 2nd partition
+            insert("insert into x select timestamp_sequence('2024-01-02T06:00', 3600000000L) ts, x + 100 id, x y from long_sequence(50)");
+            assertQueries(
+                    "x where y = 3",
+                    "x where y > 20 and y < 25",
+                    "x where y < 0",
+                    "x where y >= 1 order by ts desc"
+            );
+        });
+    }
+
+    @Test
+    public void testZoneMapsOutOfOrderInsert() throws Exception {
+        assertMemoryLeak(() -> {
+            node1.setProperty(PropertyKey.CAIRO_PARTITION_ZONE_MAP_BLOCK_ROWS, 16);
+            createTable();
+            // stats of merged partitions are rewritten by the writer
+            insert("insert into x (ts, id, i, d) values ('2024-01-02T10:30', 1000, 1000000, 1000.0), ('2024-01-03T00:10', 2000, null, null)");
+            assertQueries(
+                    "x where id = 1000",
+                    "x where id > 110 and id < 140",
+                    "x where id >= 1000",
+                    "x where i >= 1000000",
+                    "x where d > 999 order by ts desc"
+            );
+        });
+    }
+
+    private void assertQueries(String... queries) throws Exception {
+        final StringSink sinkB = new StringSink();
+        for (String query : queries) {
+            node1.setProperty(PropertyKey.CAIRO_PARTITION_STATS_ENABLED, false);
+            printSql(query);
+            final String expected = sink.toString();
+            node1.setProperty(PropertyKey.CAIRO_PARTITION_STATS_ENABLED, true);
+            TestUtils.printSql(engine, sqlExecutionContext, query, sinkB);
+            TestUtils.assertEquals(expected, sinkB);
+        }
+    }
+
+    private void createTable() throws Exception {
+        ddl(
+                "create table x as (" +
+                        "select timestamp_sequence('2024-01-01', 864000000L) ts, x id, rnd_int(0, 100, 2) i, rnd_double(2) * 100 d, null::long n " +
+                        "from long_sequence(500)" +
+                        ") timestamp(ts) partition by day"
+        );
+    }
+}
@@ -6305,7 +6305,7 @@ public class SqlParserTest extends AbstractSqlParserTest {
     @Test
     public void testNonWindowFunctionInWindowContext() throws Exception {
         assertException(
-                "select max(price) over (partition by symbol) from trades",
+                "select ksum(price) over (partition by symbol) from trades",
                 "create table trades " +
                         "(" +
                         " price double," +
@@ -9495,7 +9495,7 @@ public class SqlParserTest extends AbstractSqlParserTest {
     @Test
     public void testTooManyArgumentsInWindowFunction() throws Exception {
         assertException(
-                "select row_number(1,2,3) over (partition by symbol) from trades",
+                "select row_number(1,2,3,4) over (partition by symbol) from trades",
                 "create table trades " +
                         "(" +
                         " price double," +
@@ -9883,6 +9883,48 @@ public class SqlParserTest extends AbstractSqlParserTest {
         );
     }
 
+    @Test
+    public void testWindowJoin() throws Exception {
+        assertQuery(
+                "select-group-by ts, sym, avg(v) av, sum(v * p) s from (select-choose [t.ts ts, t.sym sym, q.v v, t.p p] t.ts ts, t.sym sym, q.v v, t.p p from (select [ts, sym, p] from trades t timestamp (ts) window join select [v, sym] from quotes q timestamp (ts) on q.sym = t.sym range between -1000000 and 2000000 where p > 1) t) t",
+                "select t.ts, t.sym, avg(q.v) av, sum(q.v * t.p) s from trades t window join quotes q on sym range between 1 second preceding and 2 seconds following where t.p > 1",
+                modelOf("trades").timestamp("ts").col("sym", ColumnType.SYMBOL).col("p", ColumnType.DOUBLE),
+                modelOf("quotes").timestamp("ts").col("sym", ColumnType.SYMBOL).col("v", ColumnType.DOUBLE)
+        );
+    }
+
+    @Test
+    public void testWindowJoinBoundWithoutDirection() throws Exception {
+        assertSyntaxError(
+                "select t.ts, count() from trades t window join quotes q range between 1 second and current row",
+                79,
+                "'preceding' or 'following' expected",
+                modelOf("trades").timestamp("ts").col("p", ColumnType.DOUBLE),
+                modelOf("quotes").timestamp("ts").col("v", ColumnType.DOUBLE)
+        );
+    }
+
+    @Test
+    public void testWindowJoinNoKey() throws Exception {
+        assertQuery(
+                "select-group-by ts, count() c, max(v) max from (select-choose [t.ts ts, q.v v] t.ts ts, q.v v from (select [ts] from trades t timestamp (ts) window join select [v] from quotes q timestamp (ts) range between 0 and 600000000) t) t",
+                "select t.ts, count() c, max(q.v) from trades t window join quotes q range between current row and 10 minutes following",
+                modelOf("trades").timestamp("ts").col("p", ColumnType.DOUBLE),
+                modelOf("quotes").timestamp("ts").col("v", ColumnType.DOUBLE)
+        );
+    }
+
+    @Test
+    public void testWindowJoinRangeExpected() throws Exception {
+        assertSyntaxError(
+                "select t.ts, count() from trades t window join quotes q where t.p > 0",
+                56,
+                "'range' expected",
+                modelOf("trades").timestamp("ts").col("p", ColumnType.DOUBLE),
+                modelOf("quotes").timestamp("ts").col("v", ColumnType.DOUBLE)
+        );
+    }
+
     @Test
     public void testWindowLiteralAfterFunction() throws Exception {
         assertQuery(
@@ -0,0 +1,313 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin;
+
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Test;
+
+public class WindowJoinTest extends AbstractCairoTest {
+
+    @Test
+    public void testAggregateMasterColumns() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertQueryNoLeakCheck(
+                    "ts\tsym\tnotional\n" +
+                            "2024-01-01T00:00:00.000000Z\ta\t10.0\n" +
+                            "2024-01-01T00:00:01.000000Z\tb\t24.0\n" +
+                            "2024-01-01T00:00:05.000000Z\ta\t99.0\n" +
+                            "2024-01-01T00:00:07.000000Z\tb\tnull\n",
+                    "select t.ts, t.sym, sum(q.v * t.p) notional " +
+                            "from trades t window join quotes q on sym " +
+                            "range between 1 second preceding and 1 second following",
+                    "ts",
+                    false,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testColumnsReferencingRightHandTable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertException(
+                    "select t.ts, q.v, count() from trades t window join quotes q range between current row and 1 second following",
+                    13,
+                    "WINDOW JOIN columns must either be aggregates or reference the left-hand table only"
+            );
+        });
+    }
+
+    @Test
+    public void testEmptyRightHandTable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            ddl("create table empty (ts timestamp, sym symbol, v double) timestamp(ts) partition by day");
+            assertQueryNoLeakCheck(
+                    "ts\tc\tav\n" +
+                            "2024-01-01T00:00:00.000000Z\t0\tnull\n" +
+                            "2024-01-01T00:00:01.000000Z\t0\tnull\n" +
+                            "2024-01-01T00:00:05.000000Z\t0\tnull\n" +
+                            "2024-01-01T00:00:07.000000Z\t0\tnull\n",
+                    "select t.ts, count() c, avg(e.v) av " +
+                            "from trades t window join empty e " +
+                            "range between 10 seconds preceding and 10 seconds following",
+                    "ts",
+                    false,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testFuzzKeyed() throws Exception {
+        testFuzz(true);
+    }
+
+    @Test
+    public void testFuzzNonKeyed() throws Exception {
+        testFuzz(false);
+    }
+
+    @Test
+    public void testFuzzSliding() throws Exception {
+        assertMemoryLeak(() -> {
+            createFuzzTables();
+            // zero times a master column makes the window depend on the master row,
+            // so the second query aggregates each window anew
+            assertSqlCursors(
+                    "select t.ts, count() c, sum(q.v) s, avg(q.v) av, max(q.v) hi, first(q.v) f, last(q.v) l " +
+                            "from t window join q range between 5 minutes preceding and 30 seconds following",
+                    "select t.ts, count() c, sum(q.v + 0 * t.id) s, avg(q.v + 0 * t.id) av, max(q.v + 0 * t.id) hi, " +
+                            "first(q.v + 0 * t.id) f, last(q.v + 0 * t.id) l " +
+                            "from t window join q range between 5 minutes preceding and 30 seconds following"
+            );
+        });
+    }
+
+    @Test
+    public void testInvalidRange() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertException(
+                    "select t.ts, count() from trades t window join quotes q range between 1 second following and current row",
+                    62,
+                    "start of the window join range must not be after its end"
+            );
+        });
+    }
+
+    @Test
+    public void testKeyed() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertQueryNoLeakCheck(
+                    "ts\tsym\tc\tav\tlo\thi\n" +
+                            "2024-01-01T00:00:00.000000Z\ta\t1\t1.0\t1.0\t1.0\n" +
+                            "2024-01-01T00:00:01.000000Z\tb\t2\t2.5\t2.0\t3.0\n" +
+                            "2024-01-01T00:00:05.000000Z\ta\t2\t4.5\t4.0\t5.0\n" +
+                            "2024-01-01T00:00:07.000000Z\tb\t0\tnull\tnull\tnull\n",
+                    "select t.ts, t.sym, count() c, avg(q.v) av, min(q.v) lo, max(q.v) hi " +
+                            "from trades t window join quotes q on sym " +
+                            "range between 1 second preceding and 2 seconds following",
+                    "ts",
+                    false,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testLeftHandFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertQueryNoLeakCheck(
+                    "ts\tsym\tc\tav\n" +
+                            "2024-01-01T00:00:01.000000Z\tb\t2\t2.5\n" +
+                            "2024-01-01T00:00:05.000000Z\ta\t2\t4.5\n",
+                    "select t.ts, t.sym, count() c, avg(q.v) av " +
+                            "from trades t window join quotes q on sym " +
+                            "range between 1 second preceding and 2 seconds following " +
+                            "where t.p > 10 and t.p < 12.5",
+                    "ts",
+                    false,
+                    false
+            );
+        });
+    }
+
+    @Test
+    public void testMultipleJoins() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertException(
+                    "select t.ts, count() from trades t window join quotes q range between current row and 1 second following " +
+                            "cross join quotes q2",
+                    35,
+                    "WINDOW JOIN must be the only join in the query and requires aggregate functions"
+            );
+        });
+    }
+
+    @Test
+    public void testNonKeyed() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertQueryNoLeakCheck(
+                    "ts\tsym\tc\tav\n" +
+                            "2024-01-01T00:00:00.000000Z\ta\t3\t2.0\n" +
+                            "2024-01-01T00:00:01.000000Z\tb\t3\t3.0\n" +
+                            "2024-01-01T00:00:05.000000Z\ta\t1\t5.0\n" +
+                            "2024-01-01T00:00:07.000000Z\tb\t0\tnull\n",
+                    "select t.ts, t.sym, count() c, avg(q.v) av " +
+                            "from trades t window join quotes q " +
+                            "range between current row and 3 seconds following",
+                    "ts",
+                    false,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertPlanNoLeakCheck(
+                    "select t.ts, t.sym, avg(q.v) av " +
+                            "from trades t window join quotes q on sym " +
+                            "range between 1 second preceding and current row",
+                    "Window Join\n" +
+                            "  range: [-1000000,0]\n" +
+                            "  condition: q.sym=t.sym\n" +
+                            "  keys: [ts,sym]\n" +
+                            "  values: [avg(v)]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: trades\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: quotes\n"
+            );
+        });
+    }
+
+    @Test
+    public void testRangeAndWindowAliases() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertSql(
+                    "ts\tv\n" +
+                            "2024-01-01T00:00:00.000000Z\t1.0\n",
+                    "select window.ts, range.v from trades window cross join quotes range limit 1"
+            );
+            assertQueryNoLeakCheck(
+                    "ts\tc\n" +
+                            "2024-01-01T00:00:00.000000Z\t2\n" +
+                            "2024-01-01T00:00:01.000000Z\t2\n" +
+                            "2024-01-01T00:00:05.000000Z\t2\n" +
+                            "2024-01-01T00:00:07.000000Z\t1\n",
+                    "select trades.ts, count() c from trades window join quotes range between 1 second preceding and 1 second following",
+                    "ts",
+                    false,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testSlaveFrameSkipping() throws Exception {
+        assertMemoryLeak(() -> {
+            // master rows every 2 days hit every other slave partition only
+            ddl("create table m as (select timestamp_sequence('2024-01-01', 2 * 86400000000L) ts, x from long_sequence(5)) timestamp(ts) partition by day");
+            ddl("create table s as (select timestamp_sequence('2024-01-01', 3600000000L) ts, x v from long_sequence(240)) timestamp(ts) partition by day");
+            assertQueryNoLeakCheck(
+                    "ts\tc\ts\n" +
+                            "2024-01-01T00:00:00.000000Z\t2\t3\n" +
+                            "2024-01-03T00:00:00.000000Z\t2\t99\n" +
+                            "2024-01-05T00:00:00.000000Z\t2\t195\n" +
+                            "2024-01-07T00:00:00.000000Z\t2\t291\n" +
+                            "2024-01-09T00:00:00.000000Z\t2\t387\n",
+                    "select m.ts, count() c, sum(s.v) s from m window join s range between current row and 1 hour following",
+                    "ts",
+                    false,
+                    true
+            );
+        });
+    }
+
+    private void createTables() throws Exception {
+        ddl("create table trades (ts timestamp, sym symbol, p double) timestamp(ts) partition by day");
+        insert(
+                "insert into trades values " +
+                        "('2024-01-01T00:00:00.000000Z', 'a', 10.0), " +
+                        "('2024-01-01T00:00:01.000000Z', 'b', 12.0), " +
+                        "('2024-01-01T00:00:05.000000Z', 'a', 11.0), " +
+                        "('2024-01-01T00:00:07.000000Z', 'b', 13.0)"
+        );
+        ddl("create table quotes (ts timestamp, sym symbol, v double) timestamp(ts) partition by day");
+        insert(
+                "insert into quotes values " +
+                        "('2024-01-01T00:00:00.500000Z', 'a', 1.0), " +
+                        "('2024-01-01T00:00:01.000000Z', 'b', 2.0), " +
+                        "('2024-01-01T00:00:03.000000Z', 'b', 3.0), " +
+                        "('2024-01-01T00:00:04.000000Z', 'a', 4.0), " +
+                        "('2024-01-01T00:00:06.000000Z', 'a', 5.0)"
+        );
+    }
+
+    private void createFuzzTables() throws Exception {
+        ddl(
+                "create table t as (" +
+                        "select timestamp_sequence('2024-01-01', 7000000 + rnd_long(0, 600000000, 0)) ts, " +
+                        "rnd_symbol('a','b','c') sym, x id " +
+                        "from long_sequence(500)" +
+                        ") timestamp(ts) partition by hour"
+        );
+        ddl(
+                "create table q as (" +
+                        "select timestamp_sequence('2024-01-01', rnd_long(0, 60000000, 0)) ts, " +
+                        "rnd_symbol('a','b','c') sym, rnd_long(0, 100, 0) v " +
+                        "from long_sequence(5000)" +
+                        ") timestamp(ts) partition by hour"
+        );
+    }
+
+    private void testFuzz(boolean keyed) throws Exception {
+        assertMemoryLeak(() -> {
+            createFuzzTables();
+            final String keyCondition = keyed ? " and q.sym = t.sym" : "";
+            assertSqlCursors(
+                    "select t.ts, t.id, count(q.v) c, sum(q.v) s, min(q.v) lo " +
+                            "from t left join q on q.ts >= dateadd('m', -5, t.ts) and q.ts <= dateadd('s', 30, t.ts)" + keyCondition +
+                            " order by t.id",
+                    "select t.ts, t.id, count() c, sum(q.v) s, min(q.v) lo " +
+                            "from t window join q" + (keyed ? " on sym" : "") +
+                            " range between 5 minutes preceding and 30 seconds following"
+            );
+        });
+    }
+}
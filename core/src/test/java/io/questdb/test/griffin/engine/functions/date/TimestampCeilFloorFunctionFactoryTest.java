@@ -97,6 +97,30 @@ public class TimestampCeilFloorFunctionFactoryTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testFloorInvalidOffset() throws Exception {
+        assertMemoryLeak(() -> {
+            try {
+                assertExceptionNoLeakCheck("select timestamp_floor('1h', null, '25:61')");
+            } catch (SqlException e) {
+                Assert.assertEquals(35, e.getPosition());
+                TestUtils.assertContains("invalid offset: 25:61", e.getFlyweightMessage());
+            }
+        });
+    }
+
+    @Test
+    public void testFloorInvalidTimezone() throws Exception {
+        assertMemoryLeak(() -> {
+            try {
+                assertExceptionNoLeakCheck("select timestamp_floor('1h', null, '00:00', 'Mars/Olympus')");
+            } catch (SqlException e) {
+                Assert.assertEquals(44, e.getPosition());
+                TestUtils.assertContains("invalid timezone: Mars/Olympus", e.getFlyweightMessage());
+            }
+        });
+    }
+
     @Test
     public void testFloorNullKind() throws Exception {
         assertMemoryLeak(() -> {
@@ -109,6 +133,54 @@ public class TimestampCeilFloorFunctionFactoryTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testFloorWithOffset() throws Exception {
+        assertMemoryLeak(() -> assertSql(
+                "f_hour\tf_hour_neg\tf_day\tf_month\tf_null_offset\tf_null\n" +
+                        "2016-02-10T16:15:00.000000Z\t2016-02-10T15:40:00.000000Z\t2016-02-10T00:30:00.000000Z\t2016-02-01T01:00:00.000000Z\t2016-02-10T16:00:00.000000Z\t\n",
+                "with t as (\n" +
+                        "   select cast('2016-02-10T16:18:22.862145Z' as timestamp) ts\n" +
+                        ")\n" +
+                        "select\n" +
+                        "  timestamp_floor('1h', ts, '00:15') f_hour,\n" +
+                        "  timestamp_floor('1h', ts, '-00:20') f_hour_neg,\n" +
+                        "  timestamp_floor('1d', ts, '00:30') f_day,\n" +
+                        "  timestamp_floor('1M', ts, '01:00') f_month,\n" +
+                        "  timestamp_floor('1h', ts, null) f_null_offset,\n" +
+                        "  timestamp_floor('1h', null, '00:15') f_null\n" +
+                        "from t\n"
+        ));
+    }
+
+    @Test
+    public void testFloorWithOffsetAndTimezone() throws Exception {
+        assertMemoryLeak(() -> assertSql(
+                "ts\tf_day\tf_hour\tf_fixed\n" +
+                        "2021-03-27T23:30:00.000000Z\t2021-03-27T00:00:00.000000Z\t2021-03-27T23:00:00.000000Z\t2021-03-27T22:00:00.000000Z\n" +
+                        "2021-03-28T12:00:00.000000Z\t2021-03-28T00:00:00.000000Z\t2021-03-28T12:00:00.000000Z\t2021-03-27T22:00:00.000000Z\n" +
+                        "2021-03-29T12:00:00.000000Z\t2021-03-28T23:00:00.000000Z\t2021-03-29T12:00:00.000000Z\t2021-03-28T22:00:00.000000Z\n" +
+                        "2021-10-31T00:30:00.000000Z\t2021-10-30T23:00:00.000000Z\t2021-10-31T00:00:00.000000Z\t2021-10-30T22:00:00.000000Z\n" +
+                        "2021-10-31T01:30:00.000000Z\t2021-10-30T23:00:00.000000Z\t2021-10-31T01:00:00.000000Z\t2021-10-30T22:00:00.000000Z\n" +
+                        "\t\t\t\n",
+                "with t as (\n" +
+                        "   select cast(x as timestamp) ts from (\n" +
+                        "       select '2021-03-27T23:30:00.000000Z' x union all\n" +
+                        "       select '2021-03-28T12:00:00.000000Z' union all\n" +
+                        "       select '2021-03-29T12:00:00.000000Z' union all\n" +
+                        "       select '2021-10-31T00:30:00.000000Z' union all\n" +
+                        "       select '2021-10-31T01:30:00.000000Z' union all\n" +
+                        "       select null\n" +
+                        "   )\n" +
+                        ")\n" +
+                        "select\n" +
+                        "  ts,\n" +
+                        "  timestamp_floor('1d', ts, '00:00', 'Europe/London') f_day,\n" +
+                        "  timestamp_floor('1h', ts, '00:00', 'Europe/London') f_hour,\n" +
+                        "  timestamp_floor('1d', ts, '00:00', '+02:00') f_fixed\n" +
+                        "from t\n"
+        ));
+    }
+
     @Test
     public void testSimple() throws Exception {
         assertMemoryLeak(() -> assertSql(
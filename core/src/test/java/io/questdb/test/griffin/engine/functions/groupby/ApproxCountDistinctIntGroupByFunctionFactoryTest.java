@@ -306,7 +306,7 @@ public class ApproxCountDistinctIntGroupByFunctionFactoryTest extends AbstractCa
                 "select ts, approx_count_distinct(s) from x sample by 1s fill(linear) limit 2",
                 "create table x as (select * from (select rnd_int(0, 16, 0) s, timestamp_sequence(0, 60000000) ts from long_sequence(100)) timestamp(ts))",
                 "ts",
-                true,
+                false,
                 false
         );
     }
@@ -362,8 +362,8 @@ public class ApproxCountDistinctIntGroupByFunctionFactoryTest extends AbstractCa
                 "select ts, approx_count_distinct(s) from x sample by 1s fill(linear)",
                 "create table x as (select * from (select rnd_int(0, 16, 0) s, timestamp_sequence(0, 100000) ts from long_sequence(100)) timestamp(ts))",
                 "ts",
-                true,
-                true
+                false,
+                false
         );
     }
 
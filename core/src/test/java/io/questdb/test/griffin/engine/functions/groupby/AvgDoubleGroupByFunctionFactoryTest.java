@@ -78,8 +78,8 @@ public class AvgDoubleGroupByFunctionFactoryTest extends AbstractCairoTest {
                             "sample by 1h\n" +
                             "fill(linear);",
                     "ts",
-                    true,
-                    true
+                    false,
+                    false
             );
         });
     }
@@ -161,8 +161,8 @@ public class CountDistinctIntGroupByFunctionFactoryTest extends AbstractCairoTes
                 "select ts, count_distinct(s) from x sample by 1s fill(linear)",
                 "create table x as (select * from (select rnd_int(0, 16, 0) s, timestamp_sequence(0, 100000) ts from long_sequence(100)) timestamp(ts))",
                 "ts",
-                true,
-                true
+                false,
+                false
         );
     }
 
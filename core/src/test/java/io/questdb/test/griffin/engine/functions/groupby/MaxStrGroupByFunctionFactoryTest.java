@@ -154,7 +154,7 @@ public class MaxStrGroupByFunctionFactoryTest extends AbstractCairoTest {
                 cursor.hasNext();
                 Assert.fail();
             } catch (SqlException e) {
-                Assert.assertEquals("[0] interpolation is not supported for function: io.questdb.griffin.engine.functions.groupby.MaxStrGroupByFunction", e.getMessage());
+                Assert.assertEquals("[19] Unsupported interpolation type: STRING", e.getMessage());
             }
         });
     }
@@ -137,7 +137,7 @@ public class MinStrGroupByFunctionFactoryTest extends AbstractCairoTest {
                 cursor.hasNext();
                 Assert.fail();
             } catch (SqlException e) {
-                Assert.assertEquals("[0] interpolation is not supported for function: io.questdb.griffin.engine.functions.groupby.MinStrGroupByFunction", e.getMessage());
+                Assert.assertEquals("[19] Unsupported interpolation type: STRING", e.getMessage());
             }
         });
     }
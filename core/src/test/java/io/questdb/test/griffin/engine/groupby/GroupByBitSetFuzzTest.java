@@ -0,0 +1,98 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.engine.groupby;
+
+import io.questdb.griffin.engine.groupby.GroupByAllocator;
+import io.questdb.griffin.engine.groupby.GroupByAllocatorArena;
+import io.questdb.griffin.engine.groupby.GroupByBitSet;
+import io.questdb.std.Numbers;
+import io.questdb.std.Rnd;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.BitSet;
+
+public class GroupByBitSetFuzzTest extends AbstractCairoTest {
+
+    @Test
+    public void testFuzz() throws Exception {
+        assertMemoryLeak(() -> {
+            final int N = 1000;
+            final Rnd rnd = TestUtils.generateRandom(LOG);
+            try (GroupByAllocator allocator = new GroupByAllocatorArena(64, Numbers.SIZE_1GB)) {
+                GroupByBitSet set = new GroupByBitSet(4);
+                set.setAllocator(allocator);
+                set.of(0);
+
+                BitSet referenceSet = new BitSet();
+                for (int i = 0; i < N; i++) {
+                    int bit = rnd.nextInt(100_000);
+                    Assert.assertEquals(!referenceSet.get(bit), set.set(bit));
+                    referenceSet.set(bit);
+                }
+
+                Assert.assertEquals(referenceSet.cardinality(), set.size());
+                for (int i = 0; i < 100_000; i++) {
+                    Assert.assertEquals(referenceSet.get(i), set.get(i));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        assertMemoryLeak(() -> {
+            try (GroupByAllocator allocator = new GroupByAllocatorArena(64, Numbers.SIZE_1GB)) {
+                GroupByBitSet setA = new GroupByBitSet(4);
+                setA.setAllocator(allocator);
+                setA.of(0);
+                GroupByBitSet setB = new GroupByBitSet(16);
+                setB.setAllocator(allocator);
+                setB.of(0);
+
+                final int N = 1000;
+
+                for (int i = 0; i < N; i++) {
+                    setA.set(2 * i);
+                }
+                Assert.assertEquals(N, setA.size());
+
+                for (int i = 0; i < 2 * N; i++) {
+                    setB.set(i + N);
+                }
+                Assert.assertEquals(2 * N, setB.size());
+
+                setA.merge(setB);
+                Assert.assertEquals(N / 2 + 2 * N, setA.size());
+                Assert.assertTrue(setA.capacity() >= 3 * N / 64);
+                for (int i = 0; i < 3 * N; i++) {
+                    Assert.assertEquals(i >= N || i % 2 == 0, setA.get(i));
+                }
+            }
+        });
+    }
+}
@@ -1411,7 +1411,8 @@ public class SampleByTest extends AbstractCairoTest {
                         "   long_sequence(100)" +
                         "), index(s) timestamp(k) partition by DAY",
                 null,
-                false
+                true,
+                true
         );
     }
 
@@ -1436,7 +1437,8 @@ public class SampleByTest extends AbstractCairoTest {
                         "   long_sequence(100)" +
                         "), index(s) timestamp(k) partition by DAY",
                 null,
-                false
+                true,
+                true
         );
     }
 
@@ -1462,7 +1464,8 @@ public class SampleByTest extends AbstractCairoTest {
                         "   long_sequence(100)" +
                         "), index(s) timestamp(k) partition by DAY",
                 null,
-                false
+                true,
+                true
         );
     }
 
@@ -1487,7 +1490,8 @@ public class SampleByTest extends AbstractCairoTest {
                         "   long_sequence(100)" +
                         "), index(s) timestamp(k) partition by DAY",
                 null,
-                false
+                true,
+                true
         );
     }
 
@@ -1515,7 +1519,9 @@ public class SampleByTest extends AbstractCairoTest {
                         "   timestamp_sequence('2020-10-23T20:30:00.00000Z', 50 * 60 * 1000000L) k" +
                         "   from" +
                         "   long_sequence(120)" +
-                        "),index(s) timestamp(k)"
+                        "),index(s) timestamp(k)",
+                true,
+                true
         );
     }
 
@@ -1545,7 +1551,9 @@ public class SampleByTest extends AbstractCairoTest {
                         "   timestamp_sequence('2021-03-26T20:30:00.00000Z', 13 * 60 * 1000000L) k" +
                         "   from" +
                         "   long_sequence(1000)" +
-                        "),index(s) timestamp(k)"
+                        "),index(s) timestamp(k)",
+                true,
+                true
         ));
     }
 
@@ -1576,7 +1584,9 @@ public class SampleByTest extends AbstractCairoTest {
                         "   timestamp_sequence('2021-03-26T20:30:00.00000Z', 13 * 60 * 1000000L) k" +
                         "   from" +
                         "   long_sequence(1000)" +
-                        "),index(s) timestamp(k)"
+                        "),index(s) timestamp(k)",
+                true,
+                true
         ));
     }
 
@@ -1604,7 +1614,9 @@ public class SampleByTest extends AbstractCairoTest {
                         "   timestamp_sequence('2021-03-25T23:30:00.00000Z', 50 * 60 * 1000000L) k" +
                         "   from" +
                         "   long_sequence(120)" +
-                        "),index(s) timestamp(k)"
+                        "),index(s) timestamp(k)",
+                true,
+                true
         ));
     }
 
@@ -1640,7 +1652,9 @@ public class SampleByTest extends AbstractCairoTest {
                         "   timestamp_sequence('2020-01-01T20:30:00.00000Z', 35 * 6 * 59 * 1000000L) k" + // ~3.5 hour interval
                         "   from" +
                         "   long_sequence(365 * 7)" +
-                        "),index(s) timestamp(k)"
+                        "),index(s) timestamp(k)",
+                true,
+                true
         );
     }
 
@@ -1678,7 +1692,9 @@ public class SampleByTest extends AbstractCairoTest {
                         "   timestamp_sequence('2020-01-01 00:30:00', 35 * 6 * 59 * 1000000L) k" + // ~3.5 hour interval
                         "   from" +
                         "   long_sequence(365 * 7)" +
-                        "),index(s) timestamp(k)"
+                        "),index(s) timestamp(k)",
+                true,
+                true
         );
     }
 
@@ -1704,7 +1720,9 @@ public class SampleByTest extends AbstractCairoTest {
                         "   timestamp_sequence('2021-03-25T23:30:00.00000Z', 50 * 60 * 1000000L) k" +
                         "   from" +
                         "   long_sequence(120)" +
-                        "),index(s) timestamp(k)"
+                        "),index(s) timestamp(k)",
+                true,
+                true
         );
     }
 
@@ -1734,7 +1752,9 @@ public class SampleByTest extends AbstractCairoTest {
                         "   timestamp_sequence('2021-03-26T20:30:00.00000Z', 13 * 60 * 1000000L) k" +
                         "   from" +
                         "   long_sequence(1000)" +
-                        "),index(s) timestamp(k)"
+                        "),index(s) timestamp(k)",
+                true,
+                true
         );
     }
 
@@ -1760,7 +1780,9 @@ public class SampleByTest extends AbstractCairoTest {
                         "   timestamp_sequence('2020-10-23T20:30:00.00000Z', 50 * 60 * 1000000L) k" +
                         "   from" +
                         "   long_sequence(120)" +
-                        "),index(s) timestamp(k)"
+                        "),index(s) timestamp(k)",
+                true,
+                true
         );
     }
 
@@ -1771,7 +1793,8 @@ public class SampleByTest extends AbstractCairoTest {
                         "2020-10-24T22:00:00.000000Z\t2020-10-24T21:00:00.000000Z\ta\t154.93777586404912\t2020-10-24T21:49:28.000000Z\n" +
                         "2020-10-24T23:00:00.000000Z\t2020-10-24T22:00:00.000000Z\ta\t43.799859246867385\t2020-10-24T22:54:13.000000Z\n" +
                         "2020-10-25T00:00:00.000000Z\t2020-10-24T23:00:00.000000Z\ta\t38.34194069380561\t2020-10-24T23:41:42.000000Z\n" +
-                        "2020-10-25T01:00:00.000000Z\t2020-10-25T00:00:00.000000Z\ta\t4.158342987512034\t2020-10-25T01:51:12.000000Z\n" +
+                        "2020-10-25T01:00:00.000000Z\t2020-10-25T00:00:00.000000Z\ta\t4.158342987512034\t2020-10-25T00:55:05.000000Z\n" +
+                        "2020-10-25T01:00:00.000000Z\t2020-10-25T01:00:00.000000Z\ta\t27.635284834188102\t2020-10-25T01:51:12.000000Z\n" +
                         "2020-10-25T02:00:00.000000Z\t2020-10-25T02:00:00.000000Z\ta\t95.73868763606973\t2020-10-25T02:47:19.000000Z\n" +
                         "2020-10-25T03:00:00.000000Z\t2020-10-25T03:00:00.000000Z\ta\tnull\t2020-10-25T03:43:26.000000Z\n" +
                         "2020-10-25T04:00:00.000000Z\t2020-10-25T04:00:00.000000Z\ta\t34.49948946607576\t2020-10-25T04:56:49.000000Z\n",
@@ -1790,7 +1813,9 @@ public class SampleByTest extends AbstractCairoTest {
                         "   timestamp_sequence('2020-10-23 20:30:00.00000Z', 259 * 1000000L) k" +
                         "   from" +
                         "   long_sequence(1000)" +
-                        "),index(s) timestamp(k)"
+                        "),index(s) timestamp(k)",
+                true,
+                true
         );
     }
 
@@ -3204,7 +3229,7 @@ public class SampleByTest extends AbstractCairoTest {
                         "   timestamp_sequence('2021-03-25T23:30:00.00000Z', 50 * 60 * 1000000L) k" +
                         "   from" +
                         "   long_sequence(120)" +
-                        ") timestamp(k)", null, false
+                        ") timestamp(k)", null, true, true
         );
     }
 
@@ -3228,8 +3253,8 @@ public class SampleByTest extends AbstractCairoTest {
                         " long_sequence(1000)" +
                         ") timestamp(k) partition by NONE",
                 null,
-                false,
-                false
+                true,
+                true
         );
     }
 
@@ -3254,8 +3279,8 @@ public class SampleByTest extends AbstractCairoTest {
                         " long_sequence(600)" +
                         ") timestamp(k) partition by NONE",
                 null,
-                false,
-                false
+                true,
+                true
         );
     }
 
@@ -3280,7 +3305,7 @@ public class SampleByTest extends AbstractCairoTest {
                         "   timestamp_sequence('2021-03-25T23:30:00.00000Z', 50 * 60 * 1000000L) k" +
                         "   from" +
                         "   long_sequence(120)" +
-                        ") timestamp(k)", null, false
+                        ") timestamp(k)", null, true, true
         );
     }
 
@@ -3964,33 +3989,33 @@ public class SampleByTest extends AbstractCairoTest {
     public void testSampleByNoFillAlignToCalendarTimezoneOffset() throws Exception {
         assertQuery(
                 "k\tb\tc\n" +
-                        "1970-01-02T14:42:00.000000Z\t\t2\n" +
+                        "1970-01-02T14:42:00.000000Z\tPEHN\t1\n" +
                         "1970-01-02T14:42:00.000000Z\tVTJW\t1\n" +
+                        "1970-01-02T14:42:00.000000Z\t\t2\n" +
                         "1970-01-02T14:42:00.000000Z\tRXGZ\t1\n" +
-                        "1970-01-02T14:42:00.000000Z\tPEHN\t1\n" +
-                        "1970-01-02T16:42:00.000000Z\t\t12\n" +
-                        "1970-01-02T16:42:00.000000Z\tHYRX\t3\n" +
                         "1970-01-02T16:42:00.000000Z\tPEHN\t4\n" +
                         "1970-01-02T16:42:00.000000Z\tVTJW\t2\n" +
+                        "1970-01-02T16:42:00.000000Z\t\t12\n" +
+                        "1970-01-02T16:42:00.000000Z\tHYRX\t3\n" +
                         "1970-01-02T16:42:00.000000Z\tRXGZ\t1\n" +
                         "1970-01-02T16:42:00.000000Z\tCPSW\t2\n" +
-                        "1970-01-02T18:42:00.000000Z\t\t12\n" +
+                        "1970-01-02T18:42:00.000000Z\tPEHN\t1\n" +
                         "1970-01-02T18:42:00.000000Z\tVTJW\t4\n" +
                         "1970-01-02T18:42:00.000000Z\tCPSW\t4\n" +
                         "1970-01-02T18:42:00.000000Z\tHYRX\t2\n" +
                         "1970-01-02T18:42:00.000000Z\tRXGZ\t1\n" +
-                        "1970-01-02T18:42:00.000000Z\tPEHN\t1\n" +
+                        "1970-01-02T18:42:00.000000Z\t\t12\n" +
+                        "1970-01-02T20:42:00.000000Z\tVTJW\t3\n" +
+                        "1970-01-02T20:42:00.000000Z\tPEHN\t1\n" +
                         "1970-01-02T20:42:00.000000Z\t\t13\n" +
+                        "1970-01-02T20:42:00.000000Z\tRXGZ\t2\n" +
                         "1970-01-02T20:42:00.000000Z\tCPSW\t1\n" +
                         "1970-01-02T20:42:00.000000Z\tHYRX\t4\n" +
-                        "1970-01-02T20:42:00.000000Z\tRXGZ\t2\n" +
-                        "1970-01-02T20:42:00.000000Z\tVTJW\t3\n" +
-                        "1970-01-02T20:42:00.000000Z\tPEHN\t1\n" +
-                        "1970-01-02T22:42:00.000000Z\tRXGZ\t6\n" +
+                        "1970-01-02T22:42:00.000000Z\tVTJW\t4\n" +
                         "1970-01-02T22:42:00.000000Z\t\t11\n" +
                         "1970-01-02T22:42:00.000000Z\tPEHN\t1\n" +
                         "1970-01-02T22:42:00.000000Z\tHYRX\t1\n" +
-                        "1970-01-02T22:42:00.000000Z\tVTJW\t4\n",
+                        "1970-01-02T22:42:00.000000Z\tRXGZ\t6\n",
 
                 // correct timestamp values are 18 and 48 because 'PST' offset is negative and static offset is positive
                 "select to_timezone(k, 'PST') k, b, c from (select k, b, count() c from x sample by 2h align to calendar time zone 'PST' with offset '00:42')",
@@ -4004,8 +4029,8 @@ public class SampleByTest extends AbstractCairoTest {
                         " long_sequence(100)" +
                         ") timestamp(k) partition by NONE",
                 null,
-                false,
-                false
+                true,
+                true
         );
     }
 
@@ -4039,8 +4064,8 @@ public class SampleByTest extends AbstractCairoTest {
                         " long_sequence(100)" +
                         ") timestamp(k) partition by NONE",
                 null,
-                false,
-                false
+                true,
+                true
         );
     }
 
@@ -4073,8 +4098,8 @@ public class SampleByTest extends AbstractCairoTest {
                         " long_sequence(100)" +
                         ") timestamp(k) partition by NONE",
                 null,
-                false,
-                false
+                true,
+                true
         );
     }
 
@@ -4085,7 +4110,8 @@ public class SampleByTest extends AbstractCairoTest {
         // have to change
         assertQuery(
                 "k\tc\n" +
-                        "2021-10-31T02:00:00.000000Z\t18\n" +
+                        "2021-10-31T02:00:00.000000Z\t8\n" +
+                        "2021-10-31T02:00:00.000000Z\t10\n" +
                         "2021-10-31T03:00:00.000000Z\t10\n" +
                         "2021-10-31T04:00:00.000000Z\t10\n" +
                         "2021-10-31T05:00:00.000000Z\t10\n" +
@@ -4106,8 +4132,8 @@ public class SampleByTest extends AbstractCairoTest {
                         " long_sequence(100)" +
                         ") timestamp(k) partition by NONE",
                 null,
-                false,
-                false
+                true,
+                true
         );
     }
 
@@ -4119,7 +4145,9 @@ public class SampleByTest extends AbstractCairoTest {
         assertQuery(
                 "k\tc\n" +
                         "2021-10-31T02:00:00.000000Z\t3\n" +
-                        "2021-10-31T02:30:00.000000Z\t15\n" +
+                        "2021-10-31T02:30:00.000000Z\t5\n" +
+                        "2021-10-31T02:00:00.000000Z\t5\n" +
+                        "2021-10-31T02:30:00.000000Z\t5\n" +
                         "2021-10-31T03:00:00.000000Z\t5\n" +
                         "2021-10-31T03:30:00.000000Z\t5\n" +
                         "2021-10-31T04:00:00.000000Z\t5\n" +
@@ -4148,8 +4176,8 @@ public class SampleByTest extends AbstractCairoTest {
                         " long_sequence(100)" +
                         ") timestamp(k) partition by NONE",
                 null,
-                false,
-                false
+                true,
+                true
         );
     }
 
@@ -4175,8 +4203,8 @@ public class SampleByTest extends AbstractCairoTest {
                         " long_sequence(100)" +
                         ") timestamp(k) partition by NONE",
                 null,
-                false,
-                false
+                true,
+                true
         );
     }
 
@@ -4314,8 +4342,8 @@ public class SampleByTest extends AbstractCairoTest {
                         " long_sequence(100)" +
                         ") timestamp(k) partition by NONE",
                 "k",
-                false,
-                false
+                true,
+                true
         );
     }
 
@@ -4698,7 +4726,7 @@ public class SampleByTest extends AbstractCairoTest {
                         "   timestamp_sequence('2021-03-25T23:30:00.00000Z', 50 * 60 * 1000000L) k" +
                         "   from" +
                         "   long_sequence(120)" +
-                        ") timestamp(k)", null, false
+                        ") timestamp(k)", null, true, true
         );
     }
 
@@ -6363,8 +6391,62 @@ public class SampleByTest extends AbstractCairoTest {
                             "2024-03-30T17:15:00.000000Z\t4\n",
                     "select ts, count() from x sample by 5m fill(linear) align to calendar\n",
                     "ts",
-                    true,
-                    true
+                    false,
+                    false
+            );
+        });
+    }
+
+    @Test
+    public void testSampleFillMixedNotKeyedAlignToCalendarWithOffset() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl(
+                    "create table x as " +
+                            "(" +
+                            "select" +
+                            " rnd_double(0)*100 a," +
+                            " rnd_int(0, 100, 0) b," +
+                            " rnd_long(0, 100, 0) c," +
+                            " timestamp_sequence(172800000000, 6000000000) k" +
+                            " from" +
+                            " long_sequence(6)" +
+                            ") timestamp(k) partition by NONE"
+            );
+
+            // non-keyed fill with offset is executed as parallel group-by followed by the gap fill
+            assertPlanNoLeakCheck(
+                    "select k, sum(a), last(b), first(c) from x sample by 1h fill(null, prev, linear) align to calendar with offset '00:10'",
+                    "Fill\n" +
+                            "  stride: 1h\n" +
+                            "  fill: [null,prev,linear]\n" +
+                            "    Sort light\n" +
+                            "      keys: [k]\n" +
+                            "        Async Group By workers: 1\n" +
+                            "          keys: [k]\n" +
+                            "          values: [sum(a),last(b),first(c)]\n" +
+                            "          filter: null\n" +
+                            "            DataFrame\n" +
+                            "                Row forward scan\n" +
+                            "                Frame forward scan on: x\n"
+            );
+
+            assertQueryNoLeakCheck(
+                    "k\tsum\tlast\tfirst\n" +
+                            "1970-01-02T23:10:00.000000Z\t80.43224099968394\t29\t38\n" +
+                            "1970-01-03T00:10:00.000000Z\tnull\t29\t65\n" +
+                            "1970-01-03T01:10:00.000000Z\t20.447441837877754\t86\t93\n" +
+                            "1970-01-03T02:10:00.000000Z\tnull\t86\t88\n" +
+                            "1970-01-03T03:10:00.000000Z\t19.202208853547866\t41\t84\n" +
+                            "1970-01-03T04:10:00.000000Z\t76.11029514995744\t62\t53\n" +
+                            "1970-01-03T05:10:00.000000Z\tnull\t62\t30\n" +
+                            "1970-01-03T06:10:00.000000Z\t72.61136209823621\t75\t8\n" +
+                            "1970-01-03T07:10:00.000000Z\tnull\t75\t25\n" +
+                            "1970-01-03T08:10:00.000000Z\t31.00545983862456\t35\t42\n",
+                    "select k, sum(a), last(b), first(c) from x sample by 1h fill(null, prev, linear) align to calendar with offset '00:10'",
+                    null,
+                    "k",
+                    false,
+                    false
             );
         });
     }
@@ -6797,7 +6879,8 @@ public class SampleByTest extends AbstractCairoTest {
                         " long_sequence(20)" +
                         ") timestamp(k) partition by NONE",
                 null,
-                false
+                true,
+                true
         );
     }
 
@@ -7842,7 +7925,9 @@ public class SampleByTest extends AbstractCairoTest {
         assertQuery(
                 "s\tk\n" +
                         "0.15786635599554755\t2021-10-31T02:00:00.000000Z\n" +
-                        "0.7166790794135658\t2021-10-31T02:30:00.000000Z\n" +
+                        "0.04142812470232493\t2021-10-31T02:30:00.000000Z\n" +
+                        "0.6752509547112409\t2021-10-31T02:30:00.000000Z\n" +
+                        "null\t2021-10-31T03:00:00.000000Z\n" +
                         "null\t2021-10-31T03:30:00.000000Z\n" +
                         "null\t2021-10-31T04:00:00.000000Z\n" +
                         "0.22631523434159562\t2021-10-31T04:30:00.000000Z\n" +
@@ -9800,7 +9885,9 @@ public class SampleByTest extends AbstractCairoTest {
         assertQuery(
                 "s\tto_timezone\n" +
                         "11.427984775756228\t2021-10-31T03:00:00.000000Z\n" +
-                        "66.08297852815922\t2021-10-31T03:30:00.000000Z\n" +
+                        "42.17768841969397\t2021-10-31T03:30:00.000000Z\n" +
+                        "23.90529010846525\t2021-10-31T03:30:00.000000Z\n" +
+                        "23.90529010846525\t2021-10-31T04:00:00.000000Z\n" +
                         "70.94360487171201\t2021-10-31T04:30:00.000000Z\n" +
                         "70.94360487171201\t2021-10-31T05:00:00.000000Z\n" +
                         "87.99634725391621\t2021-10-31T05:30:00.000000Z\n" +
@@ -9990,7 +10077,9 @@ public class SampleByTest extends AbstractCairoTest {
                 "sum\tk\n" +
                         "11.427984775756228\t2021-10-30T23:40:00.000000Z\n" +
                         "11.427984775756228\t2021-10-31T00:10:00.000000Z\n" +
-                        "66.08297852815922\t2021-10-31T00:40:00.000000Z\n" +
+                        "42.17768841969397\t2021-10-31T00:40:00.000000Z\n" +
+                        "23.90529010846525\t2021-10-31T01:40:00.000000Z\n" +
+                        "23.90529010846525\t2021-10-31T02:10:00.000000Z\n" +
                         "70.94360487171201\t2021-10-31T02:40:00.000000Z\n" +
                         "70.94360487171201\t2021-10-31T03:10:00.000000Z\n" +
                         "87.99634725391621\t2021-10-31T03:40:00.000000Z\n" +
@@ -11505,7 +11594,9 @@ public class SampleByTest extends AbstractCairoTest {
         assertQuery(
                 "sum\tk\n" +
                         "11.427984775756228\t2021-10-31T00:00:00.000000Z\n" +
-                        "66.08297852815922\t2021-10-31T00:30:00.000000Z\n" +
+                        "42.17768841969397\t2021-10-31T00:30:00.000000Z\n" +
+                        "23.90529010846525\t2021-10-31T01:30:00.000000Z\n" +
+                        "20.56\t2021-10-31T02:00:00.000000Z\n" +
                         "70.94360487171201\t2021-10-31T02:30:00.000000Z\n" +
                         "20.56\t2021-10-31T03:00:00.000000Z\n" +
                         "87.99634725391621\t2021-10-31T03:30:00.000000Z\n" +
@@ -11597,7 +11688,10 @@ public class SampleByTest extends AbstractCairoTest {
         // without the logic trying to back fill things
         assertQuery(
                 "s\tkz\n" +
-                        "2\t2021-10-31T03:10:00.000000Z\n" +
+                        "1\t2021-10-31T03:10:00.000000Z\n" +
+                        "9999\t2021-10-31T03:40:00.000000Z\n" +
+                        "1\t2021-10-31T03:10:00.000000Z\n" +
+                        "9999\t2021-10-31T03:40:00.000000Z\n" +
                         "1\t2021-10-31T04:10:00.000000Z\n" +
                         "9999\t2021-10-31T04:40:00.000000Z\n" +
                         "1\t2021-10-31T05:10:00.000000Z\n" +
@@ -0,0 +1,322 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.test.griffin.engine.window;
+
+import io.questdb.std.str.StringSink;
+import io.questdb.test.AbstractCairoTest;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Test;
+
+public class SlidingFrameWindowFunctionTest extends AbstractCairoTest {
+
+    @Test
+    public void testCountStar() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSameResult(
+                    "select ts, count(*) over (partition by k order by ts rows between 3 preceding and current row) c from t order by ts",
+                    "select a.ts, count(*) c from t a join t b on (k) where b.rn between a.rn - 3 and a.rn order by a.ts"
+            );
+            assertSameResult(
+                    "select ts, count() over (partition by k) c from t order by ts",
+                    "select a.ts, count(*) c from t a join t b on (k) order by a.ts"
+            );
+        });
+    }
+
+    @Test
+    public void testDenseRank() throws Exception {
+        assertQuery(
+                "g\tv\trank\tdense_rank\n" +
+                        "a\t1\t1\t1\n" +
+                        "a\t4\t2\t2\n" +
+                        "a\t4\t2\t2\n" +
+                        "b\t0\t1\t1\n" +
+                        "b\t1\t2\t2\n" +
+                        "b\t1\t2\t2\n" +
+                        "b\t4\t4\t3\n",
+                "select g, v, rank() over (partition by g order by v), dense_rank() over (partition by g order by v) from x order by g, v",
+                "create table x as (" +
+                        "select case when x <= 3 then 'a' else 'b' end g, (x * x) % 5 v from long_sequence(7)" +
+                        ")",
+                null,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testLagLead() throws Exception {
+        assertQuery(
+                "ts\tk\tv\tlag\tlag1\tlead\tlead1\n" +
+                        "1970-01-01T00:00:00.000001Z\ta\t1.0\tnull\t-1.0\t3.0\t5.0\n" +
+                        "1970-01-01T00:00:00.000002Z\tb\t2.0\tnull\t-1.0\t4.0\t-1.0\n" +
+                        "1970-01-01T00:00:00.000003Z\ta\t3.0\t1.0\t-1.0\t5.0\t-1.0\n" +
+                        "1970-01-01T00:00:00.000004Z\tb\t4.0\t2.0\t-1.0\tnull\t-1.0\n" +
+                        "1970-01-01T00:00:00.000005Z\ta\t5.0\t3.0\t1.0\tnull\t-1.0\n",
+                "select ts, k, v, " +
+                        "lag(v) over (partition by k order by ts), " +
+                        "lag(v, 2, -1) over (partition by k order by ts) lag1, " +
+                        "lead(v) over (partition by k order by ts), " +
+                        "lead(v, 2, -1) over (partition by k order by ts) lead1 " +
+                        "from x",
+                "create table x as (" +
+                        "select x::timestamp ts, case when x % 2 = 1 then 'a' else 'b' end::symbol k, x::double v from long_sequence(5)" +
+                        ") timestamp(ts)",
+                "ts",
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testLagLeadNonPartitioned() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSameResult(
+                    "select ts, lag(v, 3) over (order by ts) lag, lead(v, 3) over (order by ts) lead from t order by ts",
+                    "select a.ts, b.v lag, c.v lead from t a left join t b on b.x = a.x - 3 left join t c on c.x = a.x + 3 order by a.ts"
+            );
+        });
+    }
+
+    @Test
+    public void testLagLongWithFractionalDefault() throws Exception {
+        assertQuery(
+                "x\tlag\n" +
+                        "1\t0.5\n" +
+                        "2\t1.0\n",
+                "select x, lag(x, 1, 0.5) over () from long_sequence(2)",
+                null,
+                false,
+                true
+        );
+    }
+
+    @Test
+    public void testLagRejectsNonTimestampDefault() throws Exception {
+        assertException(
+                "select lag(ts, 1, 1) over () from (select x::timestamp ts from long_sequence(2))",
+                18,
+                "default value must be a timestamp"
+        );
+    }
+
+    @Test
+    public void testLagRejectsNonConstantOffset() throws Exception {
+        assertException(
+                "select lag(x, x) over () from long_sequence(2)",
+                14,
+                "offset must be a constant"
+        );
+    }
+
+    @Test
+    public void testLastValue() throws Exception {
+        assertQuery(
+                "ts\tv\tlast_value\tlast_value1\tlast_value2\n" +
+                        "1970-01-01T00:00:00.000001Z\t1.0\t1.0\tnull\t5.0\n" +
+                        "1970-01-01T00:00:00.000002Z\tnull\tnull\t1.0\t5.0\n" +
+                        "1970-01-01T00:00:00.000003Z\t3.0\t3.0\tnull\t5.0\n" +
+                        "1970-01-01T00:00:00.000004Z\t4.0\t4.0\t3.0\t5.0\n" +
+                        "1970-01-01T00:00:00.000005Z\t5.0\t5.0\t4.0\t5.0\n",
+                "select ts, v, " +
+                        "last_value(v) over (order by ts rows between 2 preceding and current row), " +
+                        "last_value(v) over (order by ts rows between 3 preceding and 1 preceding) last_value1, " +
+                        "last_value(v) over () last_value2 " +
+                        "from x",
+                "create table x as (" +
+                        "select x::timestamp ts, case when x = 2 then null else x::double end v from long_sequence(5)" +
+                        ") timestamp(ts)",
+                "ts",
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testLongValuesAbove2Pow53() throws Exception {
+        // values differ in bits that a double cannot hold
+        assertQuery(
+                "ts\tl\tmax\tmin\tlast_value\tcount\tlag\tlead\n" +
+                        "1970-01-01T00:00:00.000001Z\t9007199254740993\t9007199254740993\t9007199254740993\t9007199254740997\t1\tnull\t9007199254740995\n" +
+                        "1970-01-01T00:00:00.000002Z\tnull\tnull\t9007199254740993\t9007199254740997\t1\tnull\t9007199254740996\n" +
+                        "1970-01-01T00:00:00.000003Z\t9007199254740995\t9007199254740995\t9007199254740993\t9007199254740997\t2\t9007199254740993\t9007199254740997\n" +
+                        "1970-01-01T00:00:00.000004Z\t9007199254740996\t9007199254740996\t9007199254740995\t9007199254740997\t2\tnull\t-1\n" +
+                        "1970-01-01T00:00:00.000005Z\t9007199254740997\t9007199254740997\t9007199254740995\t9007199254740997\t3\t9007199254740995\t-1\n",
+                "select ts, l, " +
+                        "max(l) over (partition by k order by ts rows between 1 preceding and current row), " +
+                        "min(l) over (order by ts rows between 2 preceding and current row), " +
+                        "last_value(l) over (), " +
+                        "count(l) over (order by ts rows between 2 preceding and current row), " +
+                        "lag(l) over (partition by k order by ts), " +
+                        "lead(l, 2, -1) over (order by ts) " +
+                        "from x",
+                "create table x as (" +
+                        "select x::timestamp ts, case when x % 2 = 1 then 'a' else 'b' end::symbol k, case when x = 2 then null else 9007199254740992 + x end l " +
+                        "from long_sequence(5)" +
+                        ") timestamp(ts)",
+                "ts",
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testMaxMinOverPartitionRange() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSameResult(
+                    "select ts, " +
+                            "max(v) over (partition by k order by ts range between 5000000 preceding and current row) max, " +
+                            "min(v) over (partition by k order by ts range between 5000000 preceding and current row) min, " +
+                            "count(v) over (partition by k order by ts range between 5000000 preceding and current row) count " +
+                            "from t order by ts",
+                    "select a.ts, max(b.v) max, min(b.v) min, count(b.v) count from t a join t b on (k) " +
+                            "where b.ts between a.ts - 5000000 and a.ts order by a.ts"
+            );
+        });
+    }
+
+    @Test
+    public void testMaxMinOverPartitionRows() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSameResult(
+                    "select ts, " +
+                            "max(v) over (partition by k order by ts rows between 4 preceding and current row) max, " +
+                            "min(v) over (partition by k order by ts rows between 4 preceding and current row) min, " +
+                            "count(v) over (partition by k order by ts rows between 4 preceding and current row) count " +
+                            "from t order by ts",
+                    "select a.ts, max(b.v) max, min(b.v) min, count(b.v) count from t a join t b on (k) " +
+                            "where b.rn between a.rn - 4 and a.rn order by a.ts"
+            );
+            assertSameResult(
+                    "select ts, " +
+                            "max(v) over (partition by k order by ts rows between unbounded preceding and 2 preceding) max, " +
+                            "min(v) over (partition by k order by ts rows between 7 preceding and 2 preceding) min " +
+                            "from t order by ts",
+                    "select a.ts, max(case when b.rn <= a.rn - 2 then b.v end) max, min(case when b.rn between a.rn - 7 and a.rn - 2 then b.v end) min " +
+                            "from t a join t b on (k) order by a.ts"
+            );
+        });
+    }
+
+    @Test
+    public void testMaxMinOverRows() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSameResult(
+                    "select ts, " +
+                            "max(v) over (order by ts rows between 10 preceding and current row) max, " +
+                            "min(v) over (order by ts rows between 10 preceding and current row) min, " +
+                            "max(v) over (order by ts rows between unbounded preceding and current row) max_all, " +
+                            "count(v) over (order by ts range between 20000000 preceding and 3000000 preceding) count " +
+                            "from t order by ts",
+                    "select a.ts, " +
+                            "max(case when b.x between a.x - 10 and a.x then b.v end) max, " +
+                            "min(case when b.x between a.x - 10 and a.x then b.v end) min, " +
+                            "max(case when b.x <= a.x then b.v end) max_all, " +
+                            "count(case when b.ts between a.ts - 20000000 and a.ts - 3000000 then b.v end) count " +
+                            "from t a cross join t b order by a.ts"
+            );
+            assertSameResult(
+                    "select ts, max(v) over () max, min(v) over (partition by k) min from t order by ts",
+                    "select a.ts, m.max, b.min from t a cross join (select max(v) max from t) m join (select k, min(v) min from t group by k) b on (k) order by a.ts"
+            );
+        });
+    }
+
+    @Test
+    public void testNtile() throws Exception {
+        assertQuery(
+                "x\tntile\tntile1\n" +
+                        "1\t1\t1\n" +
+                        "2\t1\t1\n" +
+                        "3\t1\t2\n" +
+                        "4\t2\t3\n" +
+                        "5\t2\t1\n" +
+                        "6\t2\t1\n" +
+                        "7\t3\t2\n" +
+                        "8\t3\t3\n",
+                "select x, ntile(3) over (order by x), ntile(3) over (partition by x <= 4 order by x) ntile1 from long_sequence(8)",
+                null,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testNtileRejectsNonPositiveBucketCount() throws Exception {
+        assertException(
+                "select ntile(0) over () from long_sequence(2)",
+                13,
+                "bucket count must be a positive integer"
+        );
+    }
+
+    @Test
+    public void testTimestampValuesAbove2Pow53() throws Exception {
+        assertQuery(
+                "ts\tt\tmax\tmin\tlast_value\tlag\tlead\n" +
+                        "1970-01-01T00:00:00.000001Z\t2255-06-05T23:47:34.740993Z\t2255-06-05T23:47:34.740993Z\t2255-06-05T23:47:34.740993Z\t\t\t2255-06-05T23:47:34.740995Z\n" +
+                        "1970-01-01T00:00:00.000002Z\t\t2255-06-05T23:47:34.740993Z\t2255-06-05T23:47:34.740996Z\t2255-06-05T23:47:34.740993Z\t\t2255-06-05T23:47:34.740996Z\n" +
+                        "1970-01-01T00:00:00.000003Z\t2255-06-05T23:47:34.740995Z\t2255-06-05T23:47:34.740995Z\t2255-06-05T23:47:34.740993Z\t\t2255-06-05T23:47:34.740993Z\t2255-06-05T23:47:34.740997Z\n" +
+                        "1970-01-01T00:00:00.000004Z\t2255-06-05T23:47:34.740996Z\t2255-06-05T23:47:34.740996Z\t2255-06-05T23:47:34.740996Z\t2255-06-05T23:47:34.740995Z\t\t\n" +
+                        "1970-01-01T00:00:00.000005Z\t2255-06-05T23:47:34.740997Z\t2255-06-05T23:47:34.740997Z\t2255-06-05T23:47:34.740993Z\t2255-06-05T23:47:34.740996Z\t2255-06-05T23:47:34.740995Z\t\n",
+                "select ts, t, " +
+                        "max(t) over (order by ts rows between 1 preceding and current row), " +
+                        "min(t) over (partition by k), " +
+                        "last_value(t) over (order by ts rows between 1 preceding and 1 preceding), " +
+                        "lag(t, 2) over (order by ts), " +
+                        "lead(t) over (partition by k order by ts) " +
+                        "from x",
+                "create table x as (" +
+                        "select x::timestamp ts, case when x % 2 = 1 then 'a' else 'b' end::symbol k, case when x = 2 then null else (9007199254740992 + x)::timestamp end t " +
+                        "from long_sequence(5)" +
+                        ") timestamp(ts)",
+                "ts",
+                true,
+                false
+        );
+    }
+
+    private void assertSameResult(String query, String reference) throws Exception {
+        final StringSink expected = new StringSink();
+        printSql(reference);
+        expected.put(sink);
+        printSql(query);
+        TestUtils.assertEquals(expected, sink);
+    }
+
+    private void createTable() throws Exception {
+        ddl("create table t as (" +
+                "select x, k, v, ts, row_number() over (partition by k order by ts) rn from (" +
+                "select x, rnd_symbol('a','b','c') k, rnd_double(3) * 100 v, (x * 1000000 + (x % 3) * 400000)::timestamp ts " +
+                "from long_sequence(300)" +
+                ")) timestamp(ts)");
+    }
+}
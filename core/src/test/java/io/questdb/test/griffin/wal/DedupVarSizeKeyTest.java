@@ -0,0 +1,262 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2024 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.test.griffin.wal;
+
+import io.questdb.test.AbstractCairoTest;
+import org.junit.Test;
+
+public class DedupVarSizeKeyTest extends AbstractCairoTest {
+
+    @Test
+    public void testColumnTopString() throws Exception {
+        testColumnTop("string");
+    }
+
+    @Test
+    public void testColumnTopVarchar() throws Exception {
+        testColumnTop("varchar");
+    }
+
+    @Test
+    public void testMergeWithPartitionString() throws Exception {
+        testMergeWithPartition("string");
+    }
+
+    @Test
+    public void testMergeWithPartitionVarchar() throws Exception {
+        testMergeWithPartition("varchar");
+    }
+
+    @Test
+    public void testMixedKeys() throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (ts timestamp, s string, k varchar, i int, v long) timestamp(ts) partition by DAY WAL dedup upsert keys(ts, s, k, i)");
+            insert(
+                    "insert into x values" +
+                            "('2024-01-01T00:00', 'a', 'a_long_varchar_key', 1, 1)" +
+                            ",('2024-01-01T00:00', 'a', 'a_long_varchar_key', 2, 2)" +
+                            ",('2024-01-01T00:00', 'a', 'b', 1, 3)" +
+                            ",('2024-01-01T00:00', 'a_long_string_key', 'a_long_varchar_key', 1, 4)" +
+                            ",('2024-01-02T00:00', null, null, 1, 5)"
+            );
+            drainWalQueue();
+
+            insert(
+                    "insert into x values" +
+                            "('2024-01-01T00:00', 'a', 'a_long_varchar_key', 1, 11)" +
+                            ",('2024-01-01T00:00', 'a', 'b', 2, 12)" +
+                            ",('2024-01-01T00:00', 'a_long_string_key', 'a_long_varchar_key', 1, 13)" +
+                            ",('2024-01-01T00:00', 'a_long_string_key', 'a_long_varchar_key', 1, 14)"
+            );
+            drainWalQueue();
+
+            assertSql(
+                    "ts\ts\tk\ti\tv\n" +
+                            "2024-01-01T00:00:00.000000Z\ta\ta_long_varchar_key\t2\t2\n" +
+                            "2024-01-01T00:00:00.000000Z\ta\tb\t1\t3\n" +
+                            "2024-01-01T00:00:00.000000Z\ta\ta_long_varchar_key\t1\t11\n" +
+                            "2024-01-01T00:00:00.000000Z\ta\tb\t2\t12\n" +
+                            "2024-01-01T00:00:00.000000Z\ta_long_string_key\ta_long_varchar_key\t1\t14\n" +
+                            "2024-01-02T00:00:00.000000Z\t\t\t1\t5\n",
+                    "x order by ts, v"
+            );
+        });
+    }
+
+    @Test
+    public void testMultipleCommitsString() throws Exception {
+        testMultipleCommits("string");
+    }
+
+    @Test
+    public void testMultipleCommitsVarchar() throws Exception {
+        testMultipleCommits("varchar");
+    }
+
+    @Test
+    public void testRandomKeysString() throws Exception {
+        testRandomKeys("string");
+    }
+
+    @Test
+    public void testRandomKeysVarchar() throws Exception {
+        testRandomKeys("varchar");
+    }
+
+    @Test
+    public void testWithinCommitString() throws Exception {
+        testWithinCommit("string");
+    }
+
+    @Test
+    public void testWithinCommitVarchar() throws Exception {
+        testWithinCommit("varchar");
+    }
+
+    private void testColumnTop(String keyType) throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (ts timestamp, v long) timestamp(ts) partition by DAY WAL");
+            insert("insert into x values ('2024-01-01T00:00', 1), ('2024-01-01T01:00', 2), ('2024-01-02T00:00', 3)");
+            ddl("alter table x add column k " + keyType);
+            ddl("alter table x dedup enable upsert keys(ts, k)");
+            drainWalQueue();
+
+            // rows below column top have null keys
+            insert(
+                    "insert into x values" +
+                            "('2024-01-01T00:00', 11, null)" +
+                            ",('2024-01-01T00:00', 12, 'a_long_key_value')" +
+                            ",('2024-01-01T01:00', 13, 'a')"
+            );
+            drainWalQueue();
+
+            assertSql(
+                    "ts\tv\tk\n" +
+                            "2024-01-01T00:00:00.000000Z\t11\t\n" +
+                            "2024-01-01T00:00:00.000000Z\t12\ta_long_key_value\n" +
+                            "2024-01-01T01:00:00.000000Z\t2\t\n" +
+                            "2024-01-01T01:00:00.000000Z\t13\ta\n" +
+                            "2024-01-02T00:00:00.000000Z\t3\t\n",
+                    "x order by ts, v"
+            );
+        });
+    }
+
+    private void testMergeWithPartition(String keyType) throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (ts timestamp, k " + keyType + ", v long) timestamp(ts) partition by DAY WAL dedup upsert keys(ts, k)");
+            insert(
+                    "insert into x values" +
+                            "('2024-01-01T00:00', 'a', 1)" +
+                            ",('2024-01-01T00:00', 'a_long_key_value', 2)" +
+                            ",('2024-01-01T00:00', null, 3)" +
+                            ",('2024-01-01T01:00', 'a', 4)" +
+                            ",('2024-01-02T00:00', 'b', 5)"
+            );
+            drainWalQueue();
+
+            // rows of the first partition are merged with O3 rows
+            insert(
+                    "insert into x values" +
+                            "('2024-01-01T00:00', 'a_long_key_value', 12)" +
+                            ",('2024-01-01T00:00', null, 13)" +
+                            ",('2024-01-01T00:00', 'c', 14)" +
+                            ",('2024-01-01T00:00', 'a_long_key_valuf', 15)" +
+                            ",('2024-01-01T01:00', 'a_long_key_value', 16)" +
+                            ",('2024-01-01T01:00', 'a', 17)"
+            );
+            drainWalQueue();
+
+            assertSql(
+                    "ts\tk\tv\n" +
+                            "2024-01-01T00:00:00.000000Z\ta\t1\n" +
+                            "2024-01-01T00:00:00.000000Z\ta_long_key_value\t12\n" +
+                            "2024-01-01T00:00:00.000000Z\t\t13\n" +
+                            "2024-01-01T00:00:00.000000Z\tc\t14\n" +
+                            "2024-01-01T00:00:00.000000Z\ta_long_key_valuf\t15\n" +
+                            "2024-01-01T01:00:00.000000Z\ta_long_key_value\t16\n" +
+                            "2024-01-01T01:00:00.000000Z\ta\t17\n" +
+                            "2024-01-02T00:00:00.000000Z\tb\t5\n",
+                    "x order by ts, v"
+            );
+        });
+    }
+
+    private void testMultipleCommits(String keyType) throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (ts timestamp, k " + keyType + ", v long) timestamp(ts) partition by DAY WAL dedup upsert keys(ts, k)");
+            insert("insert into x values ('2024-01-01T00:00', 'a', 1)");
+            insert("insert into x values ('2024-01-01T00:00', 'a', 2), ('2024-01-01T00:00', 'a_long_key_value', 3)");
+            insert("insert into x values ('2024-01-01T00:00', 'a_long_key_value', 4), ('2024-01-01T00:00', null, 5)");
+            insert("insert into x values ('2024-01-01T00:00', null, 6), ('2024-01-01T00:00', '', 7)");
+            drainWalQueue();
+
+            assertSql(
+                    "ts\tk\tv\n" +
+                            "2024-01-01T00:00:00.000000Z\ta\t2\n" +
+                            "2024-01-01T00:00:00.000000Z\ta_long_key_value\t4\n" +
+                            "2024-01-01T00:00:00.000000Z\t\t6\n" +
+                            "2024-01-01T00:00:00.000000Z\t\t7\n",
+                    "x order by ts, v"
+            );
+        });
+    }
+
+    private void testRandomKeys(String keyType) throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (ts timestamp, k " + keyType + ", v long) timestamp(ts) partition by DAY WAL dedup upsert keys(ts, k)");
+            ddl(
+                    "create table y as (select" +
+                            " cast(1704067200000000L + (x % 40) * 3600000000L + (x % 3) * 86400000000L as timestamp) ts," +
+                            " cast(case when x % 7 = 0 then null else rnd_str('a', 'b', '', 'a_long_key_value', 'a_long_key_valuf', 'another_long_key_value') end as " + keyType + ") k," +
+                            " x v" +
+                            " from long_sequence(1500)" +
+                            ") timestamp(ts) partition by DAY BYPASS WAL"
+            );
+            // batches overlap in time, so that rows are deduplicated both within commits and with partition rows
+            for (int i = 0; i < 3; i++) {
+                insert("insert into x select * from y where v > " + i * 500 + " and v <= " + (i + 1) * 500);
+                drainWalQueue();
+            }
+            assertSqlCursors(
+                    "select distinct ts, k from y order by ts, k",
+                    "select ts, k from x order by ts, k"
+            );
+        });
+    }
+
+    private void testWithinCommit(String keyType) throws Exception {
+        assertMemoryLeak(() -> {
+            ddl("create table x (ts timestamp, k " + keyType + ", v long) timestamp(ts) partition by DAY WAL dedup upsert keys(ts, k)");
+            insert(
+                    "insert into x values" +
+                            "('2024-01-01T00:00', 'a', 1)" +
+                            ",('2024-01-01T00:00', 'a_long_key_value', 2)" +
+                            ",('2024-01-01T00:00', null, 3)" +
+                            ",('2024-01-01T00:00', '', 4)" +
+                            ",('2024-01-01T00:00', 'a_long_key_value', 5)" +
+                            ",('2024-01-01T00:00', 'a', 6)" +
+                            ",('2024-01-01T00:00', null, 7)" +
+                            ",('2024-01-01T00:00', 'b', 8)" +
+                            ",('2024-01-01T00:00', '', 9)" +
+                            ",('2024-01-01T00:00', 'a_long_key_valuf', 10)" +
+                            ",('2024-01-01T01:00', 'a', 11)"
+            );
+            drainWalQueue();
+
+            assertSql(
+                    "ts\tk\tv\n" +
+                            "2024-01-01T00:00:00.000000Z\ta_long_key_value\t5\n" +
+                            "2024-01-01T00:00:00.000000Z\ta\t6\n" +
+                            "2024-01-01T00:00:00.000000Z\t\t7\n" +
+                            "2024-01-01T00:00:00.000000Z\tb\t8\n" +
+                            "2024-01-01T00:00:00.000000Z\t\t9\n" +
+                            "2024-01-01T00:00:00.000000Z\ta_long_key_valuf\t10\n" +
+                            "2024-01-01T01:00:00.000000Z\ta\t11\n",
+                    "x order by ts, v"
+            );
+        });
+    }
+}
@@ -26,9 +26,12 @@ package io.questdb.test.std;
 
 import io.questdb.std.IntList;
 import io.questdb.std.Rnd;
+import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 public class IntListTest {
 
     @Test
@@ -62,6 +65,29 @@ public class IntListTest {
         Assert.assertEquals(initialCapacity, list.capacity());
     }
 
+    @Test
+    public void testSortWithComparatorFuzz() {
+        final Rnd rnd = TestUtils.generateRandom(null);
+        final IntList list = new IntList();
+        final int[] expected = new int[1000];
+        for (int n : new int[]{0, 1, 2, 10, 46, 47, 48, 100, 1000}) {
+            list.clear();
+            for (int i = 0; i < n; i++) {
+                // plenty of duplicates
+                int value = rnd.nextInt(n / 2 + 1);
+                list.add(value);
+                expected[i] = -value;
+            }
+            // descending order
+            list.sort((a, b) -> Integer.compare(b, a));
+            Arrays.sort(expected, 0, n);
+            Assert.assertEquals(n, list.size());
+            for (int i = 0; i < n; i++) {
+                Assert.assertEquals(-expected[i], list.getQuick(i));
+            }
+        }
+    }
+
     private void testBinarySearchFuzz0(int N, int skipRate) {
         final Rnd rnd = new Rnd();
         final IntList list = new IntList();